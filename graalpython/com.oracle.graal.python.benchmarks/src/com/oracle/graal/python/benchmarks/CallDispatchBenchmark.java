@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.nodes.call.CallDispatchNode;
+import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.frame.VirtualFrame;
+
+/**
+ * Measures calls through a single {@link CallDispatchNode} with a varying number of different
+ * callees, which exercises its inline cache from monomorphic to megamorphic.
+ */
+public class CallDispatchBenchmark extends PythonBenchmark {
+
+    @Param({"1", "2", "8"}) public int callees;
+
+    private Object[] functions;
+    private CallTarget call;
+
+    @Override
+    protected void setup() {
+        functions = new Object[callees];
+        for (int i = 0; i < callees; i++) {
+            String name = "f" + i;
+            functions[i] = evalAndGet("def " + name + "(x):\n    return x + " + i + "\n", name);
+        }
+        call = createCallTarget(new CallAllNode());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public Object call() {
+        return call.call((Object) functions);
+    }
+
+    private static final class CallAllNode extends BenchmarkRootNode {
+        @Child private CallDispatchNode dispatchNode = CallDispatchNode.create();
+
+        @Override
+        public Object execute(VirtualFrame frame) {
+            Object[] functions = (Object[]) frame.getArguments()[0];
+            Object result = null;
+            for (int i = 0; i < OPERATIONS; i++) {
+                result = dispatchNode.executeCall(frame, functions[i % functions.length], new Object[]{i}, PKeyword.EMPTY_KEYWORDS);
+            }
+            return result;
+        }
+    }
+}
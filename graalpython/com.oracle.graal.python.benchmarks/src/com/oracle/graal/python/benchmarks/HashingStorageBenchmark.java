@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+
+import com.oracle.graal.python.builtins.objects.common.EmptyStorage;
+import com.oracle.graal.python.builtins.objects.common.HashingStorage;
+import com.oracle.graal.python.builtins.objects.common.HashingStorageNodes.GetItemNode;
+import com.oracle.graal.python.builtins.objects.common.HashingStorageNodes.SetItemNode;
+import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.frame.VirtualFrame;
+
+/**
+ * Measures {@link SetItemNode} and {@link GetItemNode} on the storages a dict goes through. With
+ * {@code mixed} keys, filling the storage generalizes it to the generic storage.
+ */
+public class HashingStorageBenchmark extends PythonBenchmark {
+
+    @Param({"int", "str", "mixed"}) public String keys;
+
+    @Param({"8", "1000"}) public int size;
+
+    private Object[] keyObjects;
+    private HashingStorage storage;
+    private CallTarget fill;
+    private CallTarget lookup;
+
+    @Override
+    protected void setup() {
+        keyObjects = new Object[size];
+        for (int i = 0; i < size; i++) {
+            switch (keys) {
+                case "int":
+                    keyObjects[i] = i;
+                    break;
+                case "str":
+                    keyObjects[i] = "key" + i;
+                    break;
+                default:
+                    keyObjects[i] = i % 2 == 0 ? (Object) i : "key" + i;
+                    break;
+            }
+        }
+        fill = createCallTarget(new FillNode());
+        lookup = createCallTarget(new LookupNode());
+        storage = (HashingStorage) fill.call((Object) keyObjects);
+    }
+
+    /** Builds a new storage with {@link #size} entries; the time is per storage. */
+    @Benchmark
+    public Object fill() {
+        return fill.call((Object) keyObjects);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public Object lookup() {
+        return lookup.call(storage, keyObjects);
+    }
+
+    private static final class FillNode extends BenchmarkRootNode {
+        @Child private SetItemNode setItemNode = SetItemNode.create();
+
+        @Override
+        public Object execute(VirtualFrame frame) {
+            Object[] keys = (Object[]) frame.getArguments()[0];
+            HashingStorage storage = new EmptyStorage();
+            for (int i = 0; i < keys.length; i++) {
+                storage = setItemNode.execute(storage, keys[i], keys[i]);
+            }
+            return storage;
+        }
+    }
+
+    private static final class LookupNode extends BenchmarkRootNode {
+        @Child private GetItemNode getItemNode = GetItemNode.create();
+
+        @Override
+        public Object execute(VirtualFrame frame) {
+            HashingStorage storage = (HashingStorage) frame.getArguments()[0];
+            Object[] keys = (Object[]) frame.getArguments()[1];
+            Object result = null;
+            for (int i = 0; i < OPERATIONS; i++) {
+                result = getItemNode.execute(storage, keys[i % keys.length]);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.nodes.call.CallDispatchNode;
+import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.frame.VirtualFrame;
+
+/**
+ * Measures instantiating a class whose {@code __init__} assigns a varying number of attributes,
+ * either as instance attributes or as {@code __slots__}.
+ */
+public class InstanceAllocationBenchmark extends PythonBenchmark {
+
+    @Param({"4", "16", "32"}) public int attributes;
+
+    @Param({"false", "true"}) public boolean slots;
+
+    private Object allocate;
+    private CallTarget call;
+
+    @Override
+    protected void setup() {
+        StringBuilder code = new StringBuilder("class C:\n");
+        if (slots) {
+            code.append("    __slots__ = (");
+            for (int i = 0; i < attributes; i++) {
+                code.append("'a").append(i).append("', ");
+            }
+            code.append(")\n");
+        }
+        code.append("    def __init__(self, v):\n");
+        for (int i = 0; i < attributes; i++) {
+            code.append("        self.a").append(i).append(" = v\n");
+        }
+        code.append("def allocate(n):\n");
+        code.append("    v = 'value'\n");
+        code.append("    for i in range(n):\n");
+        code.append("        o = C(v)\n");
+        code.append("    return o\n");
+        allocate = evalAndGet(code.toString(), "allocate");
+        call = createCallTarget(new CallNode());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public Object allocate() {
+        return call.call(allocate);
+    }
+
+    private static final class CallNode extends BenchmarkRootNode {
+        @Child private CallDispatchNode dispatchNode = CallDispatchNode.create();
+
+        @Override
+        public Object execute(VirtualFrame frame) {
+            return dispatchNode.executeCall(frame, frame.getArguments()[0], new Object[]{OPERATIONS}, PKeyword.EMPTY_KEYWORDS);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+
+import com.oracle.graal.python.builtins.objects.str.LazyString;
+import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.frame.VirtualFrame;
+
+/**
+ * Measures building a string of {@link #OPERATIONS} pieces with {@link LazyString#create}, with
+ * and without flattening the result.
+ */
+public class LazyStringBenchmark extends PythonBenchmark {
+
+    @Param({"1", "16"}) public int pieceLength;
+
+    private String piece;
+    private CallTarget concat;
+
+    @Override
+    protected void setup() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < pieceLength; i++) {
+            sb.append((char) ('a' + i % 26));
+        }
+        piece = sb.toString();
+        concat = createCallTarget(new ConcatNode());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public Object concat() {
+        return concat.call(piece, false);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public Object concatAndFlatten() {
+        return concat.call(piece, true);
+    }
+
+    private static final class ConcatNode extends BenchmarkRootNode {
+        @Override
+        public Object execute(VirtualFrame frame) {
+            String piece = (String) frame.getArguments()[0];
+            boolean flatten = (boolean) frame.getArguments()[1];
+            CharSequence result = "";
+            for (int i = 0; i < OPERATIONS; i++) {
+                result = LazyString.create(result, piece);
+            }
+            return flatten ? result.toString() : result;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.graalvm.polyglot.Context;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.oracle.graal.python.PythonLanguage;
+import com.oracle.graal.python.builtins.objects.module.PythonModule;
+import com.oracle.graal.python.runtime.PythonContext;
+import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.RootNode;
+
+/**
+ * Base class of the benchmarks for the interpreter's Java hot paths. Each benchmark state owns an
+ * entered Python context, and the code under test runs inside a {@link BenchmarkRootNode} so that
+ * it is compiled like guest code when running on Graal. Every benchmark method executes
+ * {@link #OPERATIONS} operations, so the reported time is per operation.
+ * <p>
+ * The iteration counts are fixed here so that results of different runs are comparable.
+ */
+@Warmup(iterations = 10, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public abstract class PythonBenchmark {
+
+    protected static final int OPERATIONS = 1000;
+
+    private Context context;
+
+    @Setup(Level.Trial)
+    public void setupContext() {
+        context = Context.newBuilder("python").allowAllAccess(true).build();
+        context.initialize("python");
+        context.enter();
+        setup();
+    }
+
+    @TearDown(Level.Trial)
+    public void closeContext() {
+        context.leave();
+        context.close();
+    }
+
+    /** Called with the entered context after it was created. */
+    protected void setup() {
+    }
+
+    /** Runs the given Python code in the main module and returns the value of {@code name}. */
+    protected final Object evalAndGet(String code, String name) {
+        context.eval("python", code);
+        PythonModule mainModule = PythonLanguage.getContextRef().get().getMainModule();
+        return mainModule.getAttribute(name);
+    }
+
+    protected static PythonContext getPythonContext() {
+        return PythonLanguage.getContextRef().get();
+    }
+
+    protected static CallTarget createCallTarget(BenchmarkRootNode rootNode) {
+        return Truffle.getRuntime().createCallTarget(rootNode);
+    }
+
+    /** A root node for the code under test. */
+    protected abstract static class BenchmarkRootNode extends RootNode {
+        protected BenchmarkRootNode() {
+            super(PythonLanguage.getCurrent());
+        }
+
+        @Override
+        public abstract Object execute(VirtualFrame frame);
+    }
+}
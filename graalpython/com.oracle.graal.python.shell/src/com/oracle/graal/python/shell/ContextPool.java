@@ -0,0 +1,261 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.shell;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Engine;
+import org.graalvm.polyglot.PolyglotException;
+import org.graalvm.polyglot.Source;
+
+/**
+ * A pool of Python contexts in a shared engine, for servers that run each request in a context of
+ * its own. The contexts are created up front and import a given set of modules once. After that,
+ * each context records its state as a checkpoint. Releasing a context resets it to the checkpoint:
+ * modules the request imported are forgotten, module globals are restored, and files, sockets and
+ * processes the request opened are closed. The next request thus sees a fresh context without
+ * paying for its initialization, and the code of the engine stays warm.
+ * <p>
+ * A context is closed and replaced by a new one when it fails to reset or after it served
+ * {@code maxUses} requests, which bounds what a context can accumulate in objects that a reset
+ * does not restore. If the new context cannot be created, its slot stays in the pool and the next
+ * {@link #acquire()} that takes it tries again.
+ */
+public final class ContextPool implements AutoCloseable {
+    private static final String LANGUAGE_ID = "python";
+    /** Sources of this type run the checkpoint and reset of the context, see PythonLanguage. */
+    private static final String CONTEXT_STATE_MIME_TYPE = "text/x-python-context-state";
+
+    private final Context.Builder builder;
+    private final Source prepare;
+    private final Source checkpoint;
+    private final Source reset;
+    private final int maxUses;
+    /** The idle contexts, or empty slots for contexts that could not be created yet. */
+    private final BlockingQueue<Optional<Context>> idle = new LinkedBlockingQueue<>();
+    private final Map<Context, Integer> uses = new IdentityHashMap<>();
+    private final Set<Context> acquired = Collections.newSetFromMap(new IdentityHashMap<>());
+    private volatile boolean closed = false;
+
+    /**
+     * Creates {@code size} contexts from the given builder in the given engine and imports the
+     * given modules into each of them. The engine is not closed with the pool.
+     *
+     * @param maxUses the number of requests after which a context is replaced, or {@code 0} to
+     *            reuse contexts for as long as they reset successfully
+     */
+    public ContextPool(Engine engine, Context.Builder builder, int size, int maxUses, List<String> modules) {
+        if (size <= 0 || maxUses < 0) {
+            throw new IllegalArgumentException("invalid pool size or maximal number of uses");
+        }
+        this.builder = builder.engine(engine);
+        this.prepare = Source.create(LANGUAGE_ID, prepareCode(modules));
+        // the checkpoint and reset are not Python code, so guest code can neither call nor rebind
+        // them
+        this.checkpoint = contextStateSource("checkpoint");
+        this.reset = contextStateSource("reset");
+        this.maxUses = maxUses;
+        for (int i = 0; i < size; i++) {
+            idle.add(Optional.of(newContext()));
+        }
+    }
+
+    private static String prepareCode(List<String> modules) {
+        StringBuilder sb = new StringBuilder("[__import__(name) for name in [");
+        for (String module : modules) {
+            if (!isModuleName(module)) {
+                throw new IllegalArgumentException("invalid module name: " + module);
+            }
+            sb.append('\'').append(module).append("',");
+        }
+        sb.append("]]\n");
+        return sb.toString();
+    }
+
+    private static Source contextStateSource(String command) {
+        return Source.newBuilder(LANGUAGE_ID, command, "<context " + command + ">").mimeType(CONTEXT_STATE_MIME_TYPE).buildLiteral();
+    }
+
+    private static boolean isModuleName(String name) {
+        for (String part : name.split("\\.", -1)) {
+            if (part.isEmpty() || part.indexOf('$') >= 0 || !Character.isJavaIdentifierStart(part.charAt(0))) {
+                return false;
+            }
+            for (int i = 1; i < part.length(); i++) {
+                if (!Character.isJavaIdentifierPart(part.charAt(i))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private Context newContext() {
+        Context context = builder.build();
+        try {
+            context.eval(prepare);
+            context.eval(checkpoint);
+        } catch (PolyglotException e) {
+            context.close();
+            throw e;
+        }
+        synchronized (uses) {
+            uses.put(context, 0);
+        }
+        return context;
+    }
+
+    /**
+     * Takes a context from the pool, waiting until one is released if all are in use. If the
+     * context of the slot taken could not be created when it was replaced, it is created now, and
+     * the slot is returned to the pool if that fails again.
+     *
+     * @throws IllegalStateException if the pool is closed, also while waiting
+     */
+    public Context acquire() throws InterruptedException {
+        if (closed) {
+            throw new IllegalStateException("the context pool is closed");
+        }
+        Optional<Context> slot = idle.take();
+        if (closed) {
+            if (slot.isPresent()) {
+                discard(slot.get());
+            }
+            // pass the wake-up from close() on to the next waiting thread
+            idle.add(Optional.empty());
+            throw new IllegalStateException("the context pool is closed");
+        }
+        Context context;
+        if (slot.isPresent()) {
+            context = slot.get();
+        } else {
+            try {
+                context = newContext();
+            } catch (RuntimeException e) {
+                idle.add(slot);
+                throw e;
+            }
+        }
+        synchronized (uses) {
+            acquired.add(context);
+        }
+        return context;
+    }
+
+    /**
+     * Resets a context that was taken with {@link #acquire()} and returns it to the pool. If the
+     * context cannot be reused, it is closed and a new context is created on this thread.
+     *
+     * @throws IllegalArgumentException if the context was not taken from this pool or was already
+     *             released
+     */
+    public void release(Context context) {
+        boolean reusable;
+        synchronized (uses) {
+            if (!acquired.remove(context)) {
+                throw new IllegalArgumentException("the context was not acquired from this pool or was already released");
+            }
+            int count = uses.get(context) + 1;
+            uses.put(context, count);
+            reusable = !closed && (maxUses == 0 || count < maxUses);
+        }
+        if (reusable) {
+            try {
+                reusable = context.eval(reset).asBoolean();
+            } catch (PolyglotException e) {
+                reusable = false;
+            }
+        }
+        if (reusable) {
+            idle.add(Optional.of(context));
+        } else {
+            discard(context);
+            if (!closed) {
+                idle.add(replacement());
+            }
+        }
+        if (closed) {
+            // the pool was closed while the context was reset or replaced
+            close();
+        }
+    }
+
+    private Optional<Context> replacement() {
+        try {
+            return Optional.of(newContext());
+        } catch (RuntimeException e) {
+            // keep the slot, acquire() tries again and reports the error if it still fails
+            return Optional.empty();
+        }
+    }
+
+    private void discard(Context context) {
+        synchronized (uses) {
+            uses.remove(context);
+        }
+        context.close(true);
+    }
+
+    /**
+     * Closes the idle contexts and wakes up the threads waiting in {@link #acquire()}. Contexts
+     * that are in use are closed when they are released.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        Optional<Context> slot;
+        while ((slot = idle.poll()) != null) {
+            if (slot.isPresent()) {
+                discard(slot.get());
+            }
+        }
+        // each thread that takes this slot in acquire() puts it back for the next one
+        idle.add(Optional.empty());
+    }
+}
@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.test.advance;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Engine;
+import org.graalvm.polyglot.PolyglotException;
+import org.junit.Test;
+
+import com.oracle.graal.python.shell.ContextPool;
+import com.oracle.graal.python.test.PythonTests;
+
+public class ContextPoolTest extends PythonTests {
+    private static Context.Builder newBuilder() {
+        return Context.newBuilder().allowAllAccess(true);
+    }
+
+    @Test
+    public void testResetModules() throws InterruptedException {
+        try (Engine engine = Engine.create(); ContextPool pool = new ContextPool(engine, newBuilder(), 1, 0, Arrays.asList("json"))) {
+            Context context = pool.acquire();
+            context.eval("python", "import sys, json, textwrap\nx = 1\njson.foo = 2\nsys.path.append('/nonexistent')");
+            pool.release(context);
+
+            Context reused = pool.acquire();
+            assertSame(context, reused);
+            assertFalse(reused.eval("python", "'x' in globals()").asBoolean());
+            assertTrue(reused.eval("python", "import sys\n'json' in sys.modules").asBoolean());
+            assertFalse(reused.eval("python", "'textwrap' in sys.modules").asBoolean());
+            assertFalse(reused.eval("python", "hasattr(sys.modules['json'], 'foo')").asBoolean());
+            assertFalse(reused.eval("python", "'/nonexistent' in sys.path").asBoolean());
+            pool.release(reused);
+        }
+    }
+
+    @Test
+    public void testResetFiles() throws InterruptedException, IOException {
+        File file = File.createTempFile("context_pool", ".txt");
+        file.deleteOnExit();
+        String open = "import os\nos.open('" + file.getAbsolutePath() + "', os.O_RDONLY)";
+        try (Engine engine = Engine.create(); ContextPool pool = new ContextPool(engine, newBuilder(), 1, 0, Collections.emptyList())) {
+            Context context = pool.acquire();
+            int fd = context.eval("python", open).asInt();
+            pool.release(context);
+
+            context = pool.acquire();
+            // the descriptor was closed by the reset, so it is free again
+            assertEquals(fd, context.eval("python", open).asInt());
+            pool.release(context);
+        }
+    }
+
+    @Test
+    public void testMaxUses() throws InterruptedException {
+        try (Engine engine = Engine.create(); ContextPool pool = new ContextPool(engine, newBuilder(), 1, 2, Collections.emptyList())) {
+            Context first = pool.acquire();
+            pool.release(first);
+            assertSame(first, pool.acquire());
+            pool.release(first);
+            Context second = pool.acquire();
+            assertNotSame(first, second);
+            assertEquals(2, second.eval("python", "1 + 1").asInt());
+            pool.release(second);
+        }
+    }
+
+    @Test
+    public void testReleaseForeignContext() throws InterruptedException {
+        try (Engine engine = Engine.create(); ContextPool pool = new ContextPool(engine, newBuilder(), 1, 0, Collections.emptyList())) {
+            try (Context foreign = newBuilder().engine(engine).build()) {
+                pool.release(foreign);
+                fail("a context that is not from the pool was released");
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+            Context context = pool.acquire();
+            pool.release(context);
+            try {
+                pool.release(context);
+                fail("a context was released twice");
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+            assertSame(context, pool.acquire());
+            pool.release(context);
+        }
+    }
+
+    @Test
+    public void testFailedReplacement() throws InterruptedException, IOException {
+        Path dir = Files.createTempDirectory("context_pool");
+        Path module = dir.resolve("context_pool_module.py");
+        Path broken = dir.resolve("broken");
+        String code = "import os\nif os.path.exists(r'" + broken + "'):\n    raise ImportError('broken')\n";
+        Files.write(module, code.getBytes(StandardCharsets.UTF_8));
+        Context.Builder builder = newBuilder().option("python.PythonPath", dir.toString());
+        try (Engine engine = Engine.create(); ContextPool pool = new ContextPool(engine, builder, 1, 1, Arrays.asList("context_pool_module"))) {
+            Context first = pool.acquire();
+            Files.createFile(broken);
+            // the context is used up, and creating its replacement fails
+            pool.release(first);
+            try {
+                pool.acquire();
+                fail("creating the replacement did not fail");
+            } catch (PolyglotException e) {
+                // expected
+            }
+            Files.delete(broken);
+            // the slot is still in the pool and the replacement is created when it is taken
+            Context second = pool.acquire();
+            assertNotSame(first, second);
+            assertEquals(2, second.eval("python", "1 + 1").asInt());
+            pool.release(second);
+        } finally {
+            Files.deleteIfExists(broken);
+            Files.delete(module);
+            Files.delete(dir);
+        }
+    }
+
+    @Test
+    public void testGuestCannotChangeContextState() throws InterruptedException {
+        try (Engine engine = Engine.create(); ContextPool pool = new ContextPool(engine, newBuilder(), 1, 0, Collections.emptyList())) {
+            Context context = pool.acquire();
+            assertTrue(context.eval("python", "try:\n    import _context_state\n    ok = False\nexcept ImportError:\n    ok = True\nok").asBoolean());
+            assertTrue(context.eval("python", "import polyglot\ntry:\n    polyglot.eval(language='text/x-python-context-state', string='checkpoint')\n    ok = False\n" +
+                            "except NotImplementedError:\n    ok = True\nok").asBoolean());
+            // the reset does not go through names the guest can rebind
+            context.eval("python", "import builtins\nbuiltins.__import__ = lambda *args, **kwargs: None\nx = 1");
+            pool.release(context);
+
+            Context reused = pool.acquire();
+            assertSame(context, reused);
+            assertFalse(reused.eval("python", "'x' in globals()").asBoolean());
+            assertEquals(2, reused.eval("python", "import math\nint(math.sqrt(4))").asInt());
+            pool.release(reused);
+        }
+    }
+
+    @Test
+    public void testCloseWakesWaiters() throws InterruptedException {
+        try (Engine engine = Engine.create()) {
+            ContextPool pool = new ContextPool(engine, newBuilder(), 1, 0, Collections.emptyList());
+            Context context = pool.acquire();
+            AtomicInteger failed = new AtomicInteger();
+            Thread[] waiters = new Thread[2];
+            for (int i = 0; i < waiters.length; i++) {
+                waiters[i] = new Thread(() -> {
+                    try {
+                        pool.acquire();
+                    } catch (IllegalStateException e) {
+                        failed.incrementAndGet();
+                    } catch (InterruptedException e) {
+                        // not counted
+                    }
+                });
+                waiters[i].start();
+            }
+            for (Thread waiter : waiters) {
+                while (waiter.getState() != Thread.State.WAITING) {
+                    Thread.sleep(10);
+                }
+            }
+            pool.close();
+            for (Thread waiter : waiters) {
+                waiter.join(10000);
+                assertFalse(waiter.isAlive());
+            }
+            assertEquals(waiters.length, failed.get());
+            // a context released after the close is closed
+            pool.release(context);
+        }
+    }
+
+    @Test
+    public void testResetDecimalContextOfOtherThreads() throws InterruptedException {
+        try (Engine engine = Engine.create(); ContextPool pool = new ContextPool(engine, newBuilder(), 1, 0, Collections.emptyList())) {
+            Context context = pool.acquire();
+            context.eval("python", "import decimal\ndecimal.getcontext().prec = 5");
+            // reset on another thread than the one that set the decimal context
+            Thread releaser = new Thread(() -> pool.release(context));
+            releaser.start();
+            releaser.join();
+
+            Context reused = pool.acquire();
+            assertSame(context, reused);
+            assertEquals(28, reused.eval("python", "import decimal\ndecimal.getcontext().prec").asInt());
+            pool.release(reused);
+        }
+    }
+}
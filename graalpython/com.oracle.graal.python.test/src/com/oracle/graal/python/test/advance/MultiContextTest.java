@@ -40,13 +40,38 @@
  */
 package com.oracle.graal.python.test.advance;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
 import org.graalvm.polyglot.Context;
 import org.graalvm.polyglot.Engine;
+import org.junit.Assume;
 import org.junit.Test;
 
+import com.oracle.graal.python.PythonLanguage;
 import com.oracle.graal.python.test.PythonTests;
 
 public class MultiContextTest extends PythonTests {
+    @Test
+    public void testCoreFilesParsedAhead() {
+        Assume.assumeTrue(Runtime.getRuntime().availableProcessors() > 1);
+        ByteArrayOutputStream log = new ByteArrayOutputStream();
+        try (Engine engine = Engine.create();
+                        Context context = Context.newBuilder().engine(engine).allowAllAccess(true).option("log.python.level", "FINE").logHandler(log).build()) {
+            context.initialize("python");
+        }
+        String output = new String(log.toByteArray(), StandardCharsets.UTF_8);
+        assertTrue(output, output.contains("translating core file builtins parsed ahead"));
+        assertFalse(output, output.contains("ahead failed"));
+    }
+
     @Test
     public void testContextReuse() {
         Engine engine = Engine.newBuilder().build();
@@ -57,6 +82,74 @@ public class MultiContextTest extends PythonTests {
         }
     }
 
+    @Test
+    public void testSharedCodeIsolation() {
+        // the module code is cached by the language and shared, but its globals are per context
+        String module = "compile('counter = []\\ndef add(x):\\n    counter.append(x)\\n    return len(counter)\\n', '/shared_module.py', 'exec')";
+        Engine engine = Engine.newBuilder().build();
+        for (int i = 0; i < 5; i++) {
+            try (Context context = newContext(engine)) {
+                context.eval("python", "exec(" + module + ", globals())\nfor i in range(" + i + "): add(i)");
+                assertEquals(i + 1, context.eval("python", "add(-1)").asInt());
+            }
+        }
+    }
+
+    @Test
+    public void testIncompatibleOptions() {
+        Engine engine = Engine.newBuilder().build();
+        for (int i = 1; i <= 3; i++) {
+            try (Context context = Context.newBuilder().allowAllAccess(true).engine(engine).option("python.CallSiteInlineCacheMaxDepth", Integer.toString(i)).build()) {
+                assertEquals(6, context.eval("python", "def f(x): return x * 2\nf(3)").asInt());
+            }
+        }
+    }
+
+    @Test
+    public void testCompileDoesNotGrowCodeCache() {
+        try (Context context = newContext(Engine.newBuilder().build())) {
+            context.initialize("python");
+            context.enter();
+            try {
+                int size = PythonLanguage.getCurrent().getCodeCacheSize();
+                context.eval("python", "for i in range(200): compile('x = %d' % i, '/generated/module_%d.py' % (i % 2), 'exec')");
+                assertEquals(size, PythonLanguage.getCurrent().getCodeCacheSize());
+            } finally {
+                context.leave();
+            }
+        }
+    }
+
+    @Test
+    public void testReimportReplacesCachedCode() throws IOException {
+        Path dir = Files.createTempDirectory("reimport");
+        Path module = dir.resolve("reimported_module.py");
+        try (Context context = newContext(Engine.newBuilder().build())) {
+            context.eval("python", "import sys, importlib\nsys.path.insert(0, '" + dir.toString().replace("\\", "\\\\") + "')");
+            context.enter();
+            try {
+                int size = 0;
+                for (int i = 0; i < 5; i++) {
+                    // a different size for each version, in case the modification time does not change
+                    Files.write(module, ("x = " + i + new String(new char[i]).replace('\0', ' ') + "\n").getBytes(StandardCharsets.UTF_8));
+                    if (i == 0) {
+                        context.eval("python", "import reimported_module");
+                        size = PythonLanguage.getCurrent().getCodeCacheSize();
+                    } else {
+                        context.eval("python", "importlib.invalidate_caches()\nimportlib.reload(reimported_module)");
+                        assertEquals(size, PythonLanguage.getCurrent().getCodeCacheSize());
+                    }
+                    assertEquals(i, context.eval("python", "reimported_module.x").asInt());
+                }
+            } finally {
+                context.leave();
+            }
+        } finally {
+            Files.delete(module);
+            Files.delete(dir);
+        }
+    }
+
     private static Context newContext(Engine engine) {
         return Context.newBuilder().allowAllAccess(true).engine(engine).build();
     }
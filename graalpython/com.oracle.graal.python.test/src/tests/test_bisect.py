@@ -0,0 +1,103 @@
+# Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+import bisect
+import unittest
+
+
+class BisectTests(unittest.TestCase):
+
+    def check(self, data, values):
+        for x in values:
+            for lo in range(0, len(data) + 1, 3):
+                expected_left = lo
+                while expected_left < len(data) and data[expected_left] < x:
+                    expected_left += 1
+                expected_right = expected_left
+                while expected_right < len(data) and not x < data[expected_right]:
+                    expected_right += 1
+                self.assertEqual(bisect.bisect_left(data, x, lo), expected_left)
+                self.assertEqual(bisect.bisect_right(data, x, lo), expected_right)
+                self.assertEqual(bisect.bisect(data, x, lo=lo), expected_right)
+
+    def test_storages(self):
+        self.check([1, 2, 2, 2, 5, 8, 13], [0, 1, 2, 3, 13, 14, 2**40, 2.5])
+        self.check([2**40, 2**41, 2**41, 2**42], [0, 2**41, 2**43, 2**41 + 0.5])
+        self.check([0.5, 1.0, 1.0, 2.5], [0.0, 1.0, 1, 3.0])
+        self.check(["a", "b", "b", "d"], ["", "b", "c", "z"])
+        self.check([(1, "a"), (2, "b"), (2, "c")], [(2,), (2, "b"), (0, "z")])
+        self.check([1, 2.5, 3, 4.5], [2, 2.5, 5])
+
+    def test_hi(self):
+        data = [1, 2, 3, 4, 5]
+        self.assertEqual(bisect.bisect_right(data, 10, 0, 3), 3)
+        self.assertEqual(bisect.bisect_left(data, 3, hi=2), 2)
+        self.assertEqual(bisect.bisect_left(data, 3, 0, None), 2)
+        self.assertRaises(ValueError, bisect.bisect_left, data, 3, -1)
+        self.assertRaises(IndexError, bisect.bisect_left, data, 10, 0, 10)
+
+    def test_insort(self):
+        data = []
+        for x in [5, 1, 4, 1, 3, 2.5, 2**50]:
+            bisect.insort(data, x)
+        self.assertEqual(data, [1, 1, 2.5, 3, 4, 5, 2**50])
+        data = [(1, "a"), (3, "c")]
+        bisect.insort_left(data, (2, "b"))
+        self.assertEqual(data, [(1, "a"), (2, "b"), (3, "c")])
+        data = [1, 2, 2, 3]
+        bisect.insort_right(data, 2.0)
+        self.assertEqual(data[3], 2.0)
+        self.assertIs(type(data[3]), float)
+        bisect.insort_left(data, 2.0)
+        self.assertIs(type(data[1]), float)
+
+    def test_sequences(self):
+        self.assertEqual(bisect.bisect_left(range(0, 100, 2), 51), 26)
+        self.assertEqual(bisect.bisect_right((1, 2, 3), 2), 2)
+
+        class Inserting(list):
+            inserted = None
+
+            def insert(self, index, item):
+                self.inserted = (index, item)
+
+        data = Inserting([1, 2, 3])
+        bisect.insort(data, 2)
+        self.assertEqual(data.inserted, (2, 2))
+        self.assertRaises(TypeError, bisect.bisect_left, 5, 1)
@@ -393,6 +393,41 @@ def test_rfind():
     assert b"hello".rfind(b"l") == 3, "3"
     assert b"hello".rfind(b"x") == -1, "4"
     assert b"hello".rfind(b"ll") == 2, "3"
+    assert b"hello".rfind(b"l", 0, 3) == 2
+    assert b"hello".rfind(ord("l")) == 3
+    assert bytearray(b"hello").rfind(b"l", -5, -2) == 2
+
+
+def test_count_bounds():
+    assert b"aaaa".count(b"aa") == 2
+    assert b"abc".count(b"") == 4
+    assert b"abcabc".count(b"c", -4, -1) == 1
+    assert b"abcabc".count(ord("a")) == 2
+    assert bytearray(b"abcabc").count(b"bc", 2) == 1
+    assert bytearray(b"abcabc").count(98) == 2
+    assert_raises(ValueError, b"abc".count, 256)
+
+
+def test_index():
+    assert b"hello".index(b"l") == 2
+    assert b"hello".rindex(b"l") == 3
+    assert bytearray(b"hello").index(ord("o")) == 4
+    assert bytearray(b"hello").rindex(b"h") == 0
+    assert_raises(ValueError, b"hello".index, b"x")
+    assert_raises(ValueError, bytearray(b"hello").index, b"x")
+    assert_raises(ValueError, b"hello".rindex, b"h", 1)
+
+
+def test_replace():
+    assert b"a.b.c".replace(b".", b"*") == b"a*b*c"
+    assert b"a.b.c".replace(b".", b"*", 1) == b"a*b.c"
+    assert b"\xff\x80\xff".replace(b"\xff", b"\x00\x01") == b"\x00\x01\x80\x00\x01"
+    assert b"abc".replace(b"", b"-") == b"-a-b-c-"
+    assert b"abcabc".replace(bytearray(b"bc"), b"") == b"aa"
+    r = bytearray(b"abc").replace(b"b", b"x")
+    assert type(r) == bytearray and r == bytearray(b"axc")
+    b = bytearray(b"abc")
+    assert b.replace(b"x", b"y") is not b
 
 
 def test_extend():
@@ -590,6 +625,13 @@ class BaseTestSplit:
         self.assertEqual(self.type2test(b'').split(b' '), [b''])
         self.assertEqual(self.type2test(b'').rsplit(b' '), [b''])
 
+    def test_separator_edges(self):
+        self.assertEqual(self.type2test(b'a,b,').split(b','), [b'a', b'b', b''])
+        self.assertEqual(self.type2test(b',a,,b').split(b','), [b'', b'a', b'', b'b'])
+        self.assertEqual(self.type2test(b',a,').rsplit(b','), [b'', b'a', b''])
+        self.assertEqual(self.type2test(b'a::b::c').rsplit(b'::', 1), [b'a::b', b'c'])
+        self.assertEqual(self.type2test(b'::').rsplit(b'::'), [b'', b''])
+
     def test_empty_separator(self):
         self.assertRaises(ValueError, self.type2test(b'a b').split, b'')
         self.assertRaises(ValueError, self.type2test(b'a b').rsplit, b'')
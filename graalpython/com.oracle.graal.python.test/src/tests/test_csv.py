@@ -0,0 +1,214 @@
+# Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+import csv
+import io
+import os
+import tempfile
+import unittest
+
+
+def read(text, **kwargs):
+    return list(csv.reader(io.StringIO(text, newline=''), **kwargs))
+
+
+def write(rows, **kwargs):
+    out = io.StringIO()
+    csv.writer(out, **kwargs).writerows(rows)
+    return out.getvalue()
+
+
+class CsvReaderTest(unittest.TestCase):
+
+    def test_simple(self):
+        self.assertEqual(read('a,b,c\r\n1,2,3\r\n'), [['a', 'b', 'c'], ['1', '2', '3']])
+        self.assertEqual(read('a,b\nc,d'), [['a', 'b'], ['c', 'd']])
+        self.assertEqual(read(''), [])
+        self.assertEqual(read('\r\n'), [[]])
+        self.assertEqual(read('a,,\r\n'), [['a', '', '']])
+
+    def test_list_input(self):
+        self.assertEqual(list(csv.reader(['a,b', 'c,d'])), [['a', 'b'], ['c', 'd']])
+        self.assertEqual(list(csv.reader(iter(['x;y']), delimiter=';')), [['x', 'y']])
+
+    def test_quoted(self):
+        self.assertEqual(read('"a,b",c\r\n'), [['a,b', 'c']])
+        self.assertEqual(read('"a ""quoted"" word",x\r\n'), [['a "quoted" word', 'x']])
+        self.assertEqual(read('"",""\r\n'), [['', '']])
+        self.assertEqual(read("'a,b',c\r\n", quotechar="'"), [['a,b', 'c']])
+
+    def test_multiline(self):
+        self.assertEqual(read('"line 1\r\nline 2",x\r\ny,z\r\n'), [['line 1\r\nline 2', 'x'], ['y', 'z']])
+        self.assertEqual(read('"a\nb\nc"\n'), [['a\nb\nc']])
+
+    def test_escapechar(self):
+        self.assertEqual(read('a\\,b,c\r\n', escapechar='\\'), [['a,b', 'c']])
+        self.assertEqual(read('"a\\"b",c\r\n', escapechar='\\', doublequote=False), [['a"b', 'c']])
+        self.assertEqual(read('a\\,b,c\r\n', escapechar='\\', quoting=csv.QUOTE_NONE), [['a,b', 'c']])
+
+    def test_quote_none(self):
+        self.assertEqual(read('"a",b\r\n', quoting=csv.QUOTE_NONE), [['"a"', 'b']])
+
+    def test_quote_nonnumeric(self):
+        self.assertEqual(read('1,"2",3.5,-1e3\r\n', quoting=csv.QUOTE_NONNUMERIC), [[1.0, '2', 3.5, -1000.0]])
+        self.assertRaises(ValueError, read, 'abc,1\r\n', quoting=csv.QUOTE_NONNUMERIC)
+
+    def test_skipinitialspace(self):
+        self.assertEqual(read('a, b,  c\r\n'), [['a', ' b', '  c']])
+        self.assertEqual(read('a, b,  c\r\n', skipinitialspace=True), [['a', 'b', 'c']])
+
+    def test_strict(self):
+        self.assertEqual(read('"a"b,c\r\n'), [['ab', 'c']])
+        self.assertRaises(csv.Error, read, '"a"b,c\r\n', strict=True)
+        self.assertRaises(csv.Error, read, '"abc\r\n', strict=True)
+        self.assertEqual(read('"abc\r\n'), [['abc\r\n']])
+
+    def test_errors(self):
+        self.assertRaises(csv.Error, list, csv.reader([b'a,b']))
+        self.assertRaises(TypeError, csv.reader, 42)
+        self.assertRaises(TypeError, csv.reader, [], delimiter='::')
+        self.assertRaises(TypeError, csv.reader, [], foo=1)
+
+    def test_field_size_limit(self):
+        old = csv.field_size_limit()
+        try:
+            self.assertEqual(csv.field_size_limit(10), old)
+            self.assertEqual(read('0123456789,x\r\n'), [['0123456789', 'x']])
+            self.assertRaises(csv.Error, read, '0123456789a,x\r\n')
+            self.assertRaises(csv.Error, read, '"01234\r\n56789"\r\n')
+            self.assertRaises(TypeError, csv.field_size_limit, 'x')
+        finally:
+            csv.field_size_limit(old)
+
+    def test_line_num(self):
+        r = csv.reader(io.StringIO('a\r\n"b\r\nc"\r\nd\r\n', newline=''))
+        self.assertEqual(r.line_num, 0)
+        next(r)
+        self.assertEqual(r.line_num, 1)
+        next(r)
+        self.assertEqual(r.line_num, 3)
+        next(r)
+        self.assertEqual(r.line_num, 4)
+        self.assertRaises(StopIteration, next, r)
+
+    def test_dialect(self):
+        class semicolon(csv.excel):
+            delimiter = ';'
+        self.assertEqual(read('a;b\r\n', dialect=semicolon), [['a', 'b']])
+        self.assertEqual(read('a\tb\r\n', dialect='excel-tab'), [['a', 'b']])
+        csv.register_dialect('test_pipes', delimiter='|')
+        try:
+            r = csv.reader(['a|b'], 'test_pipes')
+            self.assertEqual(r.dialect.delimiter, '|')
+            self.assertEqual(list(r), [['a', 'b']])
+        finally:
+            csv.unregister_dialect('test_pipes')
+        self.assertRaises(csv.Error, csv.reader, [], 'test_pipes')
+
+
+class CsvWriterTest(unittest.TestCase):
+
+    def test_simple(self):
+        self.assertEqual(write([['a', 'b'], [1, 2.5]]), 'a,b\r\n1,2.5\r\n')
+        self.assertEqual(write([['a', 'b']], lineterminator='\n'), 'a,b\n')
+
+    def test_quoting(self):
+        self.assertEqual(write([['a,b', 'c"d', 'e\nf', ' g']]), '"a,b","c""d","e\nf", g\r\n')
+        self.assertEqual(write([['a', 1]], quoting=csv.QUOTE_ALL), '"a","1"\r\n')
+        self.assertEqual(write([['a', 1, 2.5, None]], quoting=csv.QUOTE_NONNUMERIC), '"a",1,2.5,""\r\n')
+
+    def test_escaping(self):
+        self.assertEqual(write([['a,b', 'c']], quoting=csv.QUOTE_NONE, escapechar='\\'), 'a\\,b,c\r\n')
+        self.assertEqual(write([['a"b']], doublequote=False, escapechar='\\'), 'a\\"b\r\n')
+        self.assertRaises(csv.Error, write, [['a,b']], quoting=csv.QUOTE_NONE)
+        self.assertRaises(csv.Error, write, [['a"b']], doublequote=False)
+
+    def test_values(self):
+        self.assertEqual(write([[None, True, 0.1, float('inf'), 10 ** 20]]), ',True,0.1,inf,100000000000000000000\r\n')
+        self.assertEqual(write([['']]), '""\r\n')
+        self.assertEqual(write([[]]), '\r\n')
+        self.assertEqual(write([[None]]), '""\r\n')
+        self.assertRaises(csv.Error, write, [['']], quoting=csv.QUOTE_NONE)
+
+    def test_writerow_result(self):
+        out = io.StringIO()
+        self.assertEqual(csv.writer(out).writerow(['ab', 'c']), 6)
+        self.assertIsNone(csv.writer(out).writerows([]))
+
+    def test_errors(self):
+        self.assertRaises(TypeError, csv.writer, object())
+        self.assertRaises(csv.Error, csv.writer(io.StringIO()).writerow, 42)
+
+    def test_round_trip(self):
+        rows = [['plain', 'with,comma', 'with "quote"', 'multi\r\nline', ''], ['1', '2', '3', '4', '5']]
+        self.assertEqual(read(write(rows)), rows)
+
+
+class CsvDictTest(unittest.TestCase):
+
+    def test_dict_reader(self):
+        r = csv.DictReader(io.StringIO('x,y\r\n1,2\r\n3,4,5\r\n', newline=''))
+        self.assertEqual(r.fieldnames, ['x', 'y'])
+        self.assertEqual(next(r), {'x': '1', 'y': '2'})
+        self.assertEqual(next(r), {'x': '3', 'y': '4', None: ['5']})
+
+    def test_dict_writer(self):
+        out = io.StringIO()
+        w = csv.DictWriter(out, fieldnames=['x', 'y'])
+        w.writeheader()
+        w.writerow({'x': 1, 'y': 'a,b'})
+        w.writerow({'x': 2})
+        self.assertEqual(out.getvalue(), 'x,y\r\n1,"a,b"\r\n2,\r\n')
+
+
+class CsvFileTest(unittest.TestCase):
+
+    def test_file_round_trip(self):
+        rows = [['id', 'text'], ['1', 'line one\nline two'], ['2', 'café, "quoted"']]
+        fd, path = tempfile.mkstemp(suffix='.csv')
+        os.close(fd)
+        try:
+            with open(path, 'w', newline='', encoding='utf-8') as f:
+                csv.writer(f).writerows(rows)
+            with open(path, newline='', encoding='utf-8') as f:
+                r = csv.reader(f)
+                self.assertEqual(list(r), rows)
+                self.assertEqual(r.line_num, 4)
+        finally:
+            os.remove(path)
@@ -0,0 +1,330 @@
+# Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+import pickle
+import unittest
+from datetime import date, datetime, time, timedelta, timezone, tzinfo, MINYEAR, MAXYEAR
+
+
+class TimeDeltaTest(unittest.TestCase):
+
+    def test_normalization(self):
+        td = timedelta(days=1, hours=-1, minutes=90, seconds=-30, milliseconds=1500, microseconds=-1)
+        self.assertEqual((td.days, td.seconds, td.microseconds), (1, 1771, 499999))
+        td = timedelta(microseconds=-1)
+        self.assertEqual((td.days, td.seconds, td.microseconds), (-1, 86399, 999999))
+        self.assertEqual(timedelta(weeks=2), timedelta(days=14))
+
+    def test_float_components(self):
+        self.assertEqual(timedelta(seconds=0.5, microseconds=0.5), timedelta(microseconds=500000))
+        self.assertEqual(timedelta(microseconds=1.5), timedelta(microseconds=2))
+        self.assertEqual(timedelta(microseconds=2.5), timedelta(microseconds=2))
+        self.assertEqual(timedelta(days=0.25, hours=0.5), timedelta(hours=6, minutes=30))
+        self.assertRaises(TypeError, timedelta, '1')
+
+    def test_range(self):
+        self.assertEqual(timedelta.max.days, 999999999)
+        self.assertEqual(timedelta.min.days, -999999999)
+        self.assertRaises(OverflowError, timedelta, days=1000000000)
+        self.assertRaises(OverflowError, lambda: timedelta.max + timedelta(microseconds=1))
+
+    def test_arithmetic(self):
+        a = timedelta(days=1, seconds=5)
+        b = timedelta(hours=3)
+        self.assertEqual(a + b, timedelta(days=1, seconds=10805))
+        self.assertEqual(a - b, timedelta(seconds=75605))
+        self.assertEqual(-b, timedelta(hours=-3))
+        self.assertEqual(abs(-b), b)
+        self.assertEqual(b * 2, timedelta(hours=6))
+        self.assertEqual(2 * b, timedelta(hours=6))
+        self.assertEqual(b * 0.5, timedelta(hours=1.5))
+        self.assertEqual(b / 2, timedelta(hours=1.5))
+        self.assertEqual(b // 2, timedelta(hours=1, minutes=30))
+        self.assertEqual(b / timedelta(hours=2), 1.5)
+        self.assertEqual(b // timedelta(hours=2), 1)
+        self.assertEqual(b % timedelta(hours=2), timedelta(hours=1))
+        self.assertEqual(divmod(b, timedelta(hours=2)), (1, timedelta(hours=1)))
+        self.assertEqual(timedelta(microseconds=3) / 2, timedelta(microseconds=2))
+        self.assertEqual(timedelta(microseconds=-3) // 2, timedelta(microseconds=-2))
+        self.assertRaises(ZeroDivisionError, lambda: b // 0)
+        self.assertRaises(ZeroDivisionError, lambda: b / timedelta(0))
+        self.assertRaises(TypeError, lambda: b + 1)
+
+    def test_large_values(self):
+        big = timedelta.max
+        self.assertEqual(big // timedelta.max, 1)
+        self.assertEqual(big * 1, big)
+        self.assertEqual((big // 2) * 2 + timedelta(microseconds=1), big)
+        self.assertEqual(big.total_seconds(), 86399999999999.999999)
+
+    def test_comparison_and_hash(self):
+        self.assertTrue(timedelta(hours=1) < timedelta(hours=2))
+        self.assertTrue(timedelta(hours=24) == timedelta(days=1))
+        self.assertEqual(hash(timedelta(hours=24)), hash(timedelta(days=1)))
+        self.assertFalse(timedelta(1) == 1)
+        self.assertRaises(TypeError, lambda: timedelta(1) < 1)
+        self.assertFalse(timedelta(0))
+        self.assertTrue(timedelta(microseconds=1))
+
+    def test_str(self):
+        self.assertEqual(str(timedelta(days=-1, seconds=3600)), '-1 day, 1:00:00')
+        self.assertEqual(str(timedelta(days=2, seconds=5, microseconds=7)), '2 days, 0:00:05.000007')
+        self.assertEqual(timedelta(days=1, seconds=1.5).total_seconds(), 86401.5)
+
+    def test_pickle(self):
+        td = timedelta(days=3, seconds=4, microseconds=5)
+        self.assertEqual(pickle.loads(pickle.dumps(td)), td)
+
+
+class DateTest(unittest.TestCase):
+
+    def test_fields(self):
+        d = date(2019, 2, 28)
+        self.assertEqual((d.year, d.month, d.day), (2019, 2, 28))
+        self.assertEqual(d.toordinal(), 737118)
+        self.assertEqual(date.fromordinal(737118), d)
+        self.assertEqual(d.weekday(), 3)
+        self.assertEqual(d.isoweekday(), 4)
+        self.assertEqual(d.isocalendar(), (2019, 9, 4))
+        self.assertEqual(date(2021, 1, 1).isocalendar(), (2020, 53, 5))
+        self.assertEqual(date(MINYEAR, 1, 1).toordinal(), 1)
+        self.assertEqual(date.max, date(MAXYEAR, 12, 31))
+
+    def test_invalid(self):
+        self.assertRaises(ValueError, date, 2019, 2, 29)
+        self.assertRaises(ValueError, date, 2019, 13, 1)
+        self.assertRaises(ValueError, date, 0, 1, 1)
+        self.assertRaises(TypeError, date, 2019.0, 1, 1)
+        self.assertEqual(date(2020, 2, 29).day, 29)
+
+    def test_arithmetic(self):
+        d = date(2019, 12, 31)
+        self.assertEqual(d + timedelta(days=1), date(2020, 1, 1))
+        self.assertEqual(timedelta(days=1) + d, date(2020, 1, 1))
+        self.assertEqual(d - timedelta(days=365), date(2018, 12, 31))
+        self.assertEqual(d - date(2019, 1, 1), timedelta(days=364))
+        self.assertRaises(OverflowError, lambda: date.max + timedelta(days=1))
+
+    def test_comparison(self):
+        self.assertTrue(date(2019, 1, 1) < date(2019, 1, 2))
+        self.assertEqual(date(2019, 1, 1), date(2019, 1, 1))
+        self.assertEqual(hash(date(2019, 1, 1)), hash(date(2019, 1, 1)))
+        self.assertFalse(date(2019, 1, 1) == datetime(2019, 1, 1))
+        self.assertRaises(TypeError, lambda: date(2019, 1, 1) < datetime(2019, 1, 1))
+
+    def test_format(self):
+        d = date(2002, 3, 4)
+        self.assertEqual(repr(d), 'datetime.date(2002, 3, 4)')
+        self.assertEqual(str(d), '2002-03-04')
+        self.assertEqual(d.ctime(), 'Mon Mar  4 00:00:00 2002')
+        self.assertEqual(d.strftime('%Y/%m/%d %f'), '2002/03/04 000000')
+        self.assertEqual('{:%d.%m.%Y}'.format(d), '04.03.2002')
+        self.assertEqual(d.timetuple()[:], (2002, 3, 4, 0, 0, 0, 0, 63, -1))
+
+    def test_replace_and_subclass(self):
+        class MyDate(date):
+            pass
+        d = MyDate(2000, 1, 1)
+        self.assertIs(type(d.replace(day=2)), MyDate)
+        self.assertEqual(d.replace(day=2), date(2000, 1, 2))
+        self.assertIs(type(MyDate.fromordinal(1)), MyDate)
+
+    def test_pickle(self):
+        d = date(2019, 3, 4)
+        self.assertEqual(pickle.loads(pickle.dumps(d)), d)
+
+    def test_today(self):
+        self.assertEqual(date.today(), datetime.now().date())
+
+
+class UTCPlus(tzinfo):
+    def __init__(self, hours):
+        self.offset = timedelta(hours=hours)
+
+    def utcoffset(self, dt):
+        return self.offset
+
+    def dst(self, dt):
+        return timedelta(0)
+
+    def tzname(self, dt):
+        return 'UTC%+d' % (self.offset // timedelta(hours=1))
+
+
+class TimeTest(unittest.TestCase):
+
+    def test_fields(self):
+        t = time(12, 30, 15, 500, fold=1)
+        self.assertEqual((t.hour, t.minute, t.second, t.microsecond, t.tzinfo, t.fold), (12, 30, 15, 500, None, 1))
+        self.assertRaises(ValueError, time, 24)
+        self.assertRaises(ValueError, time, 0, 60)
+        self.assertRaises(ValueError, time, fold=2)
+        self.assertRaises(TypeError, time, tzinfo=1)
+
+    def test_format(self):
+        self.assertEqual(time(1, 2).isoformat(), '01:02:00')
+        self.assertEqual(time(1, 2, 3, 4).isoformat(), '01:02:03.000004')
+        self.assertEqual(time(1, 2, 3, 4000).isoformat(timespec='milliseconds'), '01:02:03.004')
+        self.assertEqual(time(1, 2, tzinfo=UTCPlus(2)).isoformat(), '01:02:00+02:00')
+        self.assertEqual(repr(time(1, 2)), 'datetime.time(1, 2)')
+        self.assertEqual(repr(time(1, 2, 0, 5)), 'datetime.time(1, 2, 0, 5)')
+        self.assertEqual(time(1, 2, tzinfo=timezone.utc).strftime('%H:%M %Z'), '01:02 UTC')
+        self.assertRaises(ValueError, time(1).isoformat, timespec='days')
+
+    def test_comparison(self):
+        self.assertTrue(time(1) < time(2))
+        self.assertEqual(time(3, tzinfo=UTCPlus(2)), time(1, tzinfo=timezone.utc))
+        self.assertEqual(hash(time(3, tzinfo=UTCPlus(2))), hash(time(1, tzinfo=timezone.utc)))
+        self.assertFalse(time(1) == time(1, tzinfo=timezone.utc))
+        self.assertRaises(TypeError, lambda: time(1) < time(1, tzinfo=timezone.utc))
+        self.assertEqual(time(1, fold=1), time(1))
+
+    def test_pickle(self):
+        for t in [time(1, 2, 3, 4), time(23, 59, fold=1), time(5, tzinfo=timezone.utc)]:
+            self.assertEqual(pickle.loads(pickle.dumps(t)), t)
+        self.assertEqual(pickle.loads(pickle.dumps(time(23, 59, fold=1))).fold, 1)
+
+
+class DateTimeTest(unittest.TestCase):
+
+    def test_fields(self):
+        dt = datetime(2019, 3, 4, 5, 6, 7, 8)
+        self.assertEqual((dt.year, dt.month, dt.day, dt.hour, dt.minute, dt.second, dt.microsecond), (2019, 3, 4, 5, 6, 7, 8))
+        self.assertEqual(dt.date(), date(2019, 3, 4))
+        self.assertEqual(dt.time(), time(5, 6, 7, 8))
+        self.assertIsInstance(dt, date)
+        self.assertEqual(datetime.combine(date(2019, 3, 4), time(5, 6, 7, 8)), dt)
+        self.assertEqual(dt.replace(year=2020, tzinfo=timezone.utc).timetz(), time(5, 6, 7, 8, timezone.utc))
+
+    def test_arithmetic(self):
+        dt = datetime(2019, 12, 31, 23, 59, 59, 999999)
+        self.assertEqual(dt + timedelta(microseconds=1), datetime(2020, 1, 1))
+        self.assertEqual(dt - timedelta(days=365), datetime(2018, 12, 31, 23, 59, 59, 999999))
+        self.assertEqual(dt - datetime(2019, 12, 31), timedelta(seconds=86399, microseconds=999999))
+        self.assertRaises(OverflowError, lambda: datetime.max + timedelta(microseconds=1))
+        aware = datetime(2019, 1, 1, 12, tzinfo=UTCPlus(2))
+        self.assertEqual(aware - datetime(2019, 1, 1, 10, tzinfo=timezone.utc), timedelta(0))
+        self.assertRaises(TypeError, lambda: aware - datetime(2019, 1, 1))
+
+    def test_comparison(self):
+        self.assertTrue(datetime(2019, 1, 1) < datetime(2019, 1, 1, 0, 0, 0, 1))
+        a = datetime(2019, 1, 1, 12, tzinfo=UTCPlus(2))
+        b = datetime(2019, 1, 1, 10, tzinfo=timezone.utc)
+        self.assertEqual(a, b)
+        self.assertEqual(hash(a), hash(b))
+        self.assertFalse(a == datetime(2019, 1, 1, 10))
+        self.assertRaises(TypeError, lambda: a < datetime(2019, 1, 1, 10))
+        self.assertFalse(datetime(2019, 1, 1) == date(2019, 1, 1))
+        self.assertRaises(TypeError, lambda: datetime(2019, 1, 1) < date(2019, 1, 1))
+
+    def test_format(self):
+        dt = datetime(2002, 12, 25, 1, 2, 3, 400)
+        self.assertEqual(dt.isoformat(), '2002-12-25T01:02:03.000400')
+        self.assertEqual(dt.isoformat(' ', 'seconds'), '2002-12-25 01:02:03')
+        self.assertEqual(str(dt.replace(microsecond=0)), '2002-12-25 01:02:03')
+        self.assertEqual(dt.replace(tzinfo=timezone(timedelta(hours=-5))).isoformat(), '2002-12-25T01:02:03.000400-05:00')
+        self.assertEqual(repr(dt), 'datetime.datetime(2002, 12, 25, 1, 2, 3, 400)')
+        self.assertEqual(repr(datetime(2002, 12, 25)), 'datetime.datetime(2002, 12, 25, 0, 0)')
+        self.assertEqual(repr(datetime(2002, 12, 25, tzinfo=timezone.utc)), 'datetime.datetime(2002, 12, 25, 0, 0, tzinfo=datetime.timezone.utc)')
+        self.assertEqual(dt.ctime(), 'Wed Dec 25 01:02:03 2002')
+        self.assertEqual(dt.strftime('%Y-%m-%d %H:%M:%S.%f'), '2002-12-25 01:02:03.000400')
+        self.assertEqual(dt.replace(tzinfo=UTCPlus(3)).strftime('%z %Z'), '+0300 UTC+3')
+
+    def test_timestamp(self):
+        dt = datetime(2019, 3, 4, 5, 6, 7, 8, tzinfo=timezone.utc)
+        self.assertEqual(dt.timestamp(), 1551675967.000008)
+        self.assertEqual(datetime.utcfromtimestamp(1551675967.000008), dt.replace(tzinfo=None))
+        self.assertEqual(datetime.fromtimestamp(1551675967.000008, timezone.utc), dt)
+        self.assertEqual(datetime.fromtimestamp(1551675967, UTCPlus(1)).hour, 6)
+        self.assertEqual(datetime.utcfromtimestamp(0.0000005).microsecond, 0)
+        self.assertEqual(datetime.utcfromtimestamp(0.0000015).microsecond, 2)
+        self.assertEqual(datetime.utcfromtimestamp(-1.5), datetime(1969, 12, 31, 23, 59, 58, 500000))
+        local = datetime.fromtimestamp(1551675967.5)
+        self.assertEqual(local.timestamp(), 1551675967.5)
+        self.assertEqual(datetime.fromtimestamp(local.timestamp()), local)
+
+    def test_astimezone(self):
+        dt = datetime(2019, 3, 4, 12, tzinfo=timezone.utc)
+        converted = dt.astimezone(UTCPlus(2))
+        self.assertEqual(converted.hour, 14)
+        self.assertEqual(converted, dt)
+        self.assertEqual(dt.utctimetuple()[:6], (2019, 3, 4, 12, 0, 0))
+
+    def test_strptime(self):
+        self.assertEqual(datetime.strptime('2019-03-04 05:06:07.8', '%Y-%m-%d %H:%M:%S.%f'), datetime(2019, 3, 4, 5, 6, 7, 800000))
+        self.assertEqual(datetime.strptime('4/3/2019', '%d/%m/%Y'), datetime(2019, 3, 4))
+        self.assertEqual(datetime.strptime('12:30', '%H:%M'), datetime(1900, 1, 1, 12, 30))
+        self.assertEqual(datetime.strptime('Mar 4 2019', '%b %d %Y'), datetime(2019, 3, 4))
+        self.assertEqual(datetime.strptime('2019-03-04 +0200', '%Y-%m-%d %z').utcoffset(), timedelta(hours=2))
+        self.assertRaises(ValueError, datetime.strptime, '2019-02-30', '%Y-%m-%d')
+        self.assertRaises(ValueError, datetime.strptime, '2019-03-04x', '%Y-%m-%d')
+
+        class MyDateTime(datetime):
+            pass
+        self.assertIs(type(MyDateTime.strptime('2019', '%Y')), MyDateTime)
+
+    def test_now(self):
+        before = datetime.utcnow()
+        now = datetime.now(timezone.utc)
+        self.assertLessEqual(before, now.replace(tzinfo=None))
+        self.assertLess(now.replace(tzinfo=None) - before, timedelta(seconds=10))
+        self.assertIs(now.tzinfo, timezone.utc)
+
+    def test_pickle(self):
+        for dt in [datetime(2019, 3, 4, 5, 6, 7, 8), datetime(2019, 11, 3, 1, 30, fold=1), datetime(1, 1, 1, tzinfo=timezone.utc)]:
+            self.assertEqual(pickle.loads(pickle.dumps(dt)), dt)
+            self.assertEqual(pickle.loads(pickle.dumps(dt)).fold, dt.fold)
+
+
+class TimeZoneTest(unittest.TestCase):
+
+    def test_timezone(self):
+        tz = timezone(timedelta(hours=5, minutes=30))
+        self.assertEqual(tz.tzname(None), 'UTC+05:30')
+        self.assertEqual(timezone(-timedelta(hours=1)).tzname(None), 'UTC-01:00')
+        self.assertEqual(str(timezone.utc), 'UTC')
+        self.assertIs(timezone(timedelta(0)), timezone.utc)
+        self.assertEqual(timezone(timedelta(hours=1), 'CET').tzname(None), 'CET')
+        self.assertEqual(tz, timezone(timedelta(minutes=330)))
+        self.assertRaises(ValueError, timezone, timedelta(hours=24))
+        self.assertEqual(pickle.loads(pickle.dumps(tz)), tz)
+
+
+if __name__ == '__main__':
+    unittest.main()
@@ -0,0 +1,280 @@
+# Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+import pickle
+import unittest
+from decimal import Decimal, Context, localcontext, getcontext, setcontext, DefaultContext, ExtendedContext, \
+    InvalidOperation, DivisionByZero, FloatOperation, Inexact, Rounded, Overflow, ROUND_HALF_UP, ROUND_DOWN, \
+    ROUND_CEILING, ROUND_05UP
+
+
+class DecimalTest(unittest.TestCase):
+
+    def setUp(self):
+        setcontext(Context())
+
+    def test_construction(self):
+        self.assertEqual(str(Decimal()), "0")
+        self.assertEqual(str(Decimal("  -1.50  ")), "-1.50")
+        self.assertEqual(str(Decimal("1_000.5")), "1000.5")
+        self.assertEqual(str(Decimal("1e3")), "1E+3")
+        self.assertEqual(str(Decimal("-0")), "-0")
+        self.assertEqual(str(Decimal(-12345678901234567890123)), "-12345678901234567890123")
+        self.assertEqual(str(Decimal(0.5)), "0.5")
+        self.assertEqual(str(Decimal(0.1)), "0.1000000000000000055511151231257827021181583404541015625")
+        self.assertEqual(str(Decimal((1, (3, 1, 4), -2))), "-3.14")
+        self.assertEqual(str(Decimal((0, (), 'F'))), "Infinity")
+        self.assertEqual(str(Decimal("nan123")), "NaN123")
+        self.assertEqual(str(Decimal("-sNaN")), "-sNaN")
+        self.assertRaises(InvalidOperation, Decimal, "1.2.3")
+        self.assertRaises(TypeError, Decimal, object())
+        self.assertRaises(ValueError, Decimal, (2, (1,), 0))
+        self.assertEqual(str(Decimal("abc", ExtendedContext)), "NaN")
+        d = Decimal("1.1")
+        self.assertIs(Decimal(d), d)
+
+    def test_float_operation(self):
+        c = getcontext()
+        Decimal(1.5)
+        self.assertTrue(c.flags[FloatOperation])
+        c.traps[FloatOperation] = True
+        self.assertRaises(FloatOperation, Decimal, 1.5)
+        self.assertEqual(Decimal.from_float(1.5), Decimal("1.5"))
+        self.assertTrue(Decimal("1.5") == 1.5)
+        self.assertRaises(FloatOperation, lambda: Decimal("1.5") < 2.0)
+
+    def test_str(self):
+        self.assertEqual(str(Decimal("123E-10")), "1.23E-8")
+        self.assertEqual(str(Decimal("0.000001")), "0.000001")
+        self.assertEqual(str(Decimal("0.0000001")), "1E-7")
+        self.assertEqual(str(Decimal("100E+2")), "1.00E+4")
+        self.assertEqual(Decimal("123E+1").to_eng_string(), "1.23E+3")
+        self.assertEqual(Decimal("12E+4").to_eng_string(), "120E+3")
+        self.assertEqual(Decimal("0E+4").to_eng_string(), "0.00E+6")
+        self.assertEqual(repr(Decimal("-1.5")), "Decimal('-1.5')")
+        c = getcontext()
+        c.capitals = 0
+        self.assertEqual(str(Decimal("1e10")), "1e+10")
+
+    def test_arithmetic(self):
+        self.assertEqual(str(Decimal("1.1") + Decimal("2.20")), "3.30")
+        self.assertEqual(str(Decimal("1.1") - 2), "-0.9")
+        self.assertEqual(str(3 - Decimal("1.1")), "1.9")
+        self.assertEqual(str(Decimal("1.5") * Decimal("2.0")), "3.00")
+        self.assertEqual(str(Decimal(1) / Decimal(3)), "0.3333333333333333333333333333")
+        self.assertEqual(str(Decimal(2) / Decimal(3)), "0.6666666666666666666666666667")
+        self.assertEqual(str(Decimal(10) / Decimal(4)), "2.5")
+        self.assertEqual(str(Decimal("1.00") / Decimal(4)), "0.25")
+        self.assertEqual(str(Decimal(-7) // Decimal(2)), "-3")
+        self.assertEqual(str(Decimal(-7) % Decimal(2)), "-1")
+        self.assertEqual(divmod(Decimal("7.5"), 2), (Decimal("3"), Decimal("1.5")))
+        self.assertEqual(str(-Decimal("0")), "0")
+        self.assertEqual(str(abs(Decimal("-2.50"))), "2.50")
+        self.assertEqual(str(+Decimal("1.23456789012345678901234567890")), "1.234567890123456789012345679")
+        self.assertEqual(str(Decimal("-0") + Decimal("0")), "0")
+        self.assertEqual(str(Decimal("1E+2") + Decimal("1E-30")), "100.0000000000000000000000000")
+        self.assertEqual(str(Decimal(2) ** 10), "1024")
+        self.assertEqual(str(Decimal(2).sqrt()), "1.414213562373095048801688724")
+        self.assertIs(Decimal(1).__add__(1.5), NotImplemented)
+        self.assertRaises(TypeError, lambda: Decimal(1) + 1.5)
+
+    def test_signals(self):
+        self.assertRaises(DivisionByZero, lambda: Decimal(1) / 0)
+        self.assertRaises(InvalidOperation, lambda: Decimal(0) / 0)
+        c = getcontext()
+        c.traps[DivisionByZero] = False
+        self.assertEqual(str(Decimal(-1) / 0), "-Infinity")
+        self.assertTrue(c.flags[DivisionByZero])
+        c.clear_flags()
+        Decimal(1) / 3
+        self.assertTrue(c.flags[Inexact])
+        self.assertTrue(c.flags[Rounded])
+        c.traps[Inexact] = True
+        self.assertRaises(Inexact, lambda: Decimal(1) / 3)
+        c.Emax = 10
+        self.assertRaises(Overflow, lambda: Decimal("9E10") * 10)
+        self.assertTrue(issubclass(DivisionByZero, ZeroDivisionError))
+        self.assertEqual(DivisionByZero.__module__, "decimal")
+
+    def test_specials(self):
+        inf = Decimal("Infinity")
+        self.assertEqual(str(inf + 1), "Infinity")
+        self.assertEqual(str(-inf * 2), "-Infinity")
+        self.assertRaises(InvalidOperation, lambda: inf - inf)
+        self.assertEqual(str(Decimal("NaN") + 1), "NaN")
+        self.assertRaises(InvalidOperation, lambda: Decimal("sNaN") + 1)
+        self.assertTrue(Decimal("NaN").is_nan())
+        self.assertTrue(Decimal("sNaN").is_snan())
+        self.assertFalse(Decimal("NaN") == Decimal("NaN"))
+        self.assertRaises(InvalidOperation, lambda: Decimal("NaN") < 1)
+        self.assertRaises(ValueError, int, Decimal("NaN"))
+        self.assertRaises(OverflowError, int, inf)
+        self.assertRaises(TypeError, hash, Decimal("sNaN"))
+
+    def test_comparisons(self):
+        self.assertTrue(Decimal("1.0") == Decimal("1.00"))
+        self.assertTrue(Decimal("1.0") == 1)
+        self.assertTrue(Decimal("0.5") == 0.5)
+        self.assertFalse(Decimal("0.1") == 0.1)
+        self.assertTrue(Decimal("-1") < Decimal("0.5") <= Decimal("0.50"))
+        self.assertTrue(Decimal("Infinity") > 10 ** 100)
+        self.assertEqual(max(Decimal(1), Decimal("2.5"), Decimal(-3)), Decimal("2.5"))
+        self.assertEqual(sorted([Decimal(3), Decimal("1.5"), Decimal(-2)]), [Decimal(-2), Decimal("1.5"), Decimal(3)])
+        self.assertEqual(Decimal(1).compare(2), Decimal(-1))
+
+    def test_hash(self):
+        self.assertEqual(hash(Decimal("1.00")), hash(1))
+        self.assertEqual(hash(Decimal(-5)), hash(-5))
+        self.assertEqual(hash(Decimal("0.5")), hash(0.5))
+        self.assertEqual(hash(Decimal(2 ** 70)), hash(2 ** 70))
+        self.assertEqual(hash(Decimal("1E+3")), hash(1000))
+        self.assertEqual(len({Decimal("1.5"), Decimal("1.50"), Decimal("1.500")}), 1)
+
+    def test_conversions(self):
+        self.assertEqual(int(Decimal("-7.9")), -7)
+        self.assertEqual(int(Decimal("1E+20")), 10 ** 20)
+        self.assertEqual(float(Decimal("0.25")), 0.25)
+        self.assertEqual(float(Decimal("-Infinity")), float("-inf"))
+        self.assertEqual(round(Decimal("2.5")), 2)
+        self.assertEqual(round(Decimal("3.5")), 4)
+        self.assertEqual(str(round(Decimal("1.2345"), 2)), "1.23")
+        self.assertEqual(round(Decimal("-1.5")), -2)
+        import math
+        self.assertEqual(math.floor(Decimal("-1.5")), -2)
+        self.assertEqual(math.ceil(Decimal("1.1")), 2)
+        self.assertFalse(Decimal("0.00"))
+        self.assertTrue(Decimal("0.01"))
+        self.assertEqual(Decimal("-3.25").as_integer_ratio(), (-13, 4))
+
+    def test_quantize(self):
+        self.assertEqual(str(Decimal("7.325").quantize(Decimal(".01"), rounding=ROUND_DOWN)), "7.32")
+        self.assertEqual(str(Decimal("7.325").quantize(Decimal("1."), rounding=ROUND_CEILING)), "8")
+        self.assertEqual(str(Decimal("2.5").quantize(Decimal("1"), rounding=ROUND_HALF_UP)), "3")
+        self.assertEqual(str(Decimal("1.41421356").quantize(Decimal("1.000"))), "1.414")
+        self.assertEqual(str(Decimal("1.5").quantize(Decimal("1E-5"))), "1.50000")
+        self.assertEqual(str(Decimal("12.51").quantize(Decimal("0.1"), rounding=ROUND_05UP)), "12.6")
+        self.assertEqual(str(Decimal("12.31").quantize(Decimal("0.1"), rounding=ROUND_05UP)), "12.3")
+        self.assertRaises(InvalidOperation, Decimal("1E+40").quantize, Decimal("1E-10"))
+        self.assertEqual(str(Decimal("2.50").to_integral_value()), "2")
+        self.assertEqual(str(Decimal("120.00").normalize()), "1.2E+2")
+        self.assertEqual(str(Decimal("-0.00").normalize()), "-0")
+
+    def test_format(self):
+        self.assertEqual(format(Decimal("1234.5678"), ".2f"), "1234.57")
+        self.assertEqual(format(Decimal("1234.5678"), ",.1f"), "1,234.6")
+        self.assertEqual(format(Decimal("0.125"), ".1%"), "12.5%")
+        self.assertEqual(format(Decimal("1234.5678"), ".3e"), "1.235e+3")
+        self.assertEqual(format(Decimal("-1.5"), ">8"), "    -1.5")
+        self.assertEqual(format(Decimal("1.5"), "+010.3f"), "+00001.500")
+        self.assertEqual(format(Decimal("1E+5"), "g"), "1e+5")
+        self.assertEqual(format(Decimal("123.456"), ".4"), "123.5")
+        self.assertEqual(format(Decimal("NaN"), "f"), "NaN")
+        self.assertEqual("{:.2f}".format(Decimal("2.675")), "2.68")
+        self.assertRaises(ValueError, format, Decimal(1), "d")
+
+    def test_tuple(self):
+        self.assertEqual(Decimal("-3.140").as_tuple(), (1, (3, 1, 4, 0), -3))
+        self.assertEqual(Decimal("-3.140").as_tuple().exponent, -3)
+        self.assertEqual(Decimal("Infinity").as_tuple(), (0, (0,), 'F'))
+        self.assertEqual(Decimal("NaN").as_tuple(), (0, (), 'n'))
+        self.assertTrue(Decimal("-0").is_signed())
+        self.assertEqual(Decimal("123.45").adjusted(), 2)
+        self.assertTrue(Decimal("1.00").same_quantum(Decimal("2.00")))
+        self.assertEqual(str(Decimal("1.5").copy_sign(Decimal("-0"))), "-1.5")
+        self.assertEqual(str(Decimal("-1.5").copy_abs()), "1.5")
+
+    def test_pickle(self):
+        for value in (Decimal("1.50"), Decimal("-Infinity"), Decimal("sNaN12")):
+            self.assertEqual(str(pickle.loads(pickle.dumps(value))), str(value))
+        c = Context(prec=5, rounding=ROUND_DOWN)
+        c2 = pickle.loads(pickle.dumps(c))
+        self.assertEqual((c2.prec, c2.rounding), (5, ROUND_DOWN))
+
+
+class ContextTest(unittest.TestCase):
+
+    def setUp(self):
+        setcontext(Context())
+
+    def test_repr(self):
+        self.assertEqual(repr(Context()), "Context(prec=28, rounding=ROUND_HALF_EVEN, Emin=-999999, Emax=999999, "
+                                          "capitals=1, clamp=0, flags=[], traps=[InvalidOperation, DivisionByZero, "
+                                          "Overflow])")
+
+    def test_attributes(self):
+        c = Context(prec=5, rounding=ROUND_HALF_UP, Emin=-10, Emax=10, capitals=0, clamp=1, traps=[], flags=[Inexact])
+        self.assertEqual((c.prec, c.rounding, c.Emin, c.Emax, c.capitals, c.clamp), (5, ROUND_HALF_UP, -10, 10, 0, 1))
+        self.assertTrue(c.flags[Inexact])
+        self.assertFalse(c.traps[InvalidOperation])
+        self.assertEqual(c.Etiny(), -14)
+        self.assertEqual(c.Etop(), 6)
+        self.assertRaises(ValueError, setattr, c, "prec", 0)
+        self.assertRaises(ValueError, setattr, c, "Emax", -1)
+        self.assertRaises(ValueError, setattr, c, "clamp", 2)
+        self.assertRaises(TypeError, setattr, c, "rounding", "ROUND_SIDEWAYS")
+        self.assertRaises(KeyError, c.flags.__getitem__, ValueError)
+        d = c.copy()
+        d.prec = 7
+        self.assertEqual(c.prec, 5)
+        self.assertTrue(d.flags[Inexact])
+
+    def test_context_arithmetic(self):
+        c = Context(prec=3)
+        self.assertEqual(str(c.add(Decimal("1.234"), 1)), "2.23")
+        self.assertEqual(str(c.divide(1, 7)), "0.143")
+        self.assertEqual(str(c.multiply(Decimal("12.34"), Decimal("2"))), "24.7")
+        self.assertTrue(c.flags[Rounded])
+        self.assertEqual(str(c.create_decimal("3.14159")), "3.14")
+        self.assertEqual(str(c.plus(Decimal("-1.234"))), "-1.23")
+        self.assertEqual(str(c.sqrt(2)), "1.41")
+        self.assertEqual(str(c.power(2, 8)), "256")
+        self.assertEqual(str(c.quantize(Decimal("1.2345"), Decimal("0.01"))), "1.23")
+        self.assertEqual(str(c.to_sci_string(Decimal("1e10"))), "1E+10")
+        self.assertRaises(TypeError, c.add, 1.5, 1)
+
+    def test_localcontext(self):
+        with localcontext() as c:
+            c.prec = 4
+            self.assertEqual(str(Decimal(1) / 3), "0.3333")
+        self.assertEqual(getcontext().prec, 28)
+        self.assertEqual(str(Decimal(1) / 3), "0.3333333333333333333333333333")
+        with localcontext(ExtendedContext):
+            self.assertEqual(str(Decimal(0) / 0), "NaN")
+        self.assertEqual(ExtendedContext.flags[InvalidOperation], False)
+        self.assertEqual(DefaultContext.prec, 28)
@@ -513,6 +513,51 @@ class TestBasic(unittest.TestCase):
             self.assertRaises(IndexError, d.remove, 'c')
             self.assertEqual(d, deque())
 
+    def test_insert(self):
+        # Test to make sure insert behaves like lists
+        elements = 'ABCDEFGHI'
+        for i in range(-5 - len(elements)*2, 5 + len(elements) * 2):
+            d = deque('ABCDEFGHI')
+            s = list('ABCDEFGHI')
+            d.insert(i, 'Z')
+            s.insert(i, 'Z')
+            self.assertEqual(list(d), s)
+
+        d = deque('abc', maxlen=3)
+        with self.assertRaises(IndexError):
+            d.insert(1, 'x')
+
+    def test_concurrent_append_pop(self):
+        import threading
+        d = deque()
+        n = 1000
+
+        def produce():
+            for i in range(n):
+                d.append(i)
+
+        threads = [threading.Thread(target=produce) for _ in range(4)]
+        for t in threads:
+            t.start()
+        for t in threads:
+            t.join()
+        self.assertEqual(len(d), 4 * n)
+        self.assertEqual(sorted(d), sorted(list(range(n)) * 4))
+
+        popped = [[] for _ in range(4)]
+
+        def consume(result):
+            for _ in range(n):
+                result.append(d.popleft())
+
+        threads = [threading.Thread(target=consume, args=(popped[i],)) for i in range(4)]
+        for t in threads:
+            t.start()
+        for t in threads:
+            t.join()
+        self.assertEqual(len(d), 0)
+        self.assertEqual(sorted(sum(popped, [])), sorted(list(range(n)) * 4))
+
     def test_init(self):
         self.assertRaises(TypeError, deque, 'abc', 2, 3)
         self.assertRaises(TypeError, deque, 1)
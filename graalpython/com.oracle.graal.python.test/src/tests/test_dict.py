@@ -457,3 +457,87 @@ def test_unhashable_key():
     assert_raises(TypeError, lambda: d[key_list])
     key_tuple_list = (key_list, 2)
     assert_raises(TypeError, lambda: d[key_tuple_list])
+
+
+def test_int_keys():
+    d = {}
+    for i in range(-50, 200):
+        d[i] = i * 2
+    d[2 ** 40] = "big"
+    assert len(d) == 251
+    assert d[-50] == -100
+    assert d[199] == 398
+    assert d[2 ** 40] == "big"
+    assert 200 not in d
+    assert d.get(2 ** 32) is None
+    assert list(d)[:3] == [-50, -49, -48]
+    assert list(d)[-1] == 2 ** 40
+
+    # equal keys of other types
+    assert d[True] == 2
+    assert False in d
+    d[True] = "one"
+    assert d[1] == "one"
+    assert type(list(d)[51]) == int
+
+    for i in range(0, 200, 2):
+        del d[i]
+    assert len(d) == 151
+    assert 2 not in d
+    assert d[3] == 6
+    assert list(d)[49:52] == [-1, 1, 3]
+    d[2] = "two"
+    assert list(d)[-1] == 2
+    d.clear()
+    assert len(d) == 0
+    d[5] = 5
+    assert d == {5: 5}
+
+
+def test_int_keys_generalize():
+    d = {1: "a", 2: "b", 3: "c"}
+    d["x"] = "d"
+    d[(1, 2)] = "e"
+    assert list(d.items()) == [(1, "a"), (2, "b"), (3, "c"), ("x", "d"), ((1, 2), "e")]
+    assert d[2] == "b"
+
+    d = {True: "t"}
+    d[1] = "one"
+    assert list(d.items()) == [(True, "one")]
+
+    d = dict.fromkeys(range(10))
+    d.update(a=1)
+    assert d["a"] == 1 and d[9] is None
+    d2 = {**dict.fromkeys(range(3)), "k": "v"}
+    assert list(d2) == [0, 1, 2, "k"]
+
+
+def test_str_keys():
+    d = {}
+    for i in range(1000):
+        d["k%d" % i] = i
+    assert len(d) == 1000
+    assert d["k0"] == 0
+    assert d["k999"] == 999
+    assert "k1000" not in d
+    assert list(d)[:2] == ["k0", "k1"]
+
+    class S(str):
+        pass
+
+    assert d[S("k5")] == 5
+    for i in range(0, 1000, 3):
+        del d["k%d" % i]
+    assert len(d) == 666
+    assert "k3" not in d
+    assert d["k4"] == 4
+    d2 = d.copy()
+    d2["k4"] = "four"
+    assert d["k4"] == 4
+    assert d2["k4"] == "four"
+
+    d[42] = "int"
+    assert len(d) == 667
+    assert d[42] == "int"
+    assert d["k998"] == 998
+    assert list(d)[-1] == 42
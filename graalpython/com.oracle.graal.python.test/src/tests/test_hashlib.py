@@ -0,0 +1,79 @@
+# Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+import hashlib
+import unittest
+
+
+class HashlibTests(unittest.TestCase):
+
+    def test_known_digests(self):
+        data = b"The quick brown fox jumps over the lazy dog"
+        self.assertEqual(hashlib.md5(data).hexdigest(), "9e107d9d372bb6826bd81d3542a419d6")
+        self.assertEqual(hashlib.sha1(data).hexdigest(), "2fd4e1c67a2d28fced849ee1bb76e7391b93eb12")
+        self.assertEqual(hashlib.sha224(data).hexdigest(), "730e109bd7a8a32b1cb9d9a09aa2325d2430587ddbc0c38bad911525")
+        self.assertEqual(hashlib.sha256(data).hexdigest(), "d7a8fbb307d7809469ca9abcb0082e4f8d5651e46d3cdb762d02d0bf37c9e592")
+        self.assertEqual(hashlib.sha384(b"").hexdigest(),
+                         "38b060a751ac96384cd9327eb1b1e36a21fdb71114be07434c0cc7bf63f6e1da274edebfe76f65fbd51ad2f14898b95b")
+        self.assertEqual(hashlib.sha512(b"").hexdigest()[:32], "cf83e1357eefb8bdf1542850d66d8007")
+
+    def test_update_and_copy(self):
+        h = hashlib.sha256()
+        h.update(b"The quick brown ")
+        c = h.copy()
+        h.update(bytearray(b"fox jumps over the lazy dog"))
+        self.assertEqual(h.hexdigest(), "d7a8fbb307d7809469ca9abcb0082e4f8d5651e46d3cdb762d02d0bf37c9e592")
+        self.assertEqual(h.digest(), h.digest())
+        c.update(memoryview(b"cat"))
+        self.assertEqual(c.hexdigest(), hashlib.sha256(b"The quick brown cat").hexdigest())
+
+    def test_attributes(self):
+        for name, digest_size, block_size in [("md5", 16, 64), ("sha1", 20, 64), ("sha256", 32, 64), ("sha512", 64, 128)]:
+            h = hashlib.new(name)
+            self.assertEqual(h.name, name)
+            self.assertEqual(h.digest_size, digest_size)
+            self.assertEqual(h.block_size, block_size)
+            self.assertEqual(len(h.digest()), digest_size)
+
+    def test_str_rejected(self):
+        self.assertRaises(TypeError, hashlib.md5, "text")
+        self.assertRaises(TypeError, hashlib.sha1().update, "text")
+
+    def test_pbkdf2_hmac(self):
+        self.assertEqual(hashlib.pbkdf2_hmac("sha1", b"password", b"salt", 2).hex(), "ea6c014dc72d6f8ccd1ed92ace1d41f0d8de8957")
@@ -0,0 +1,143 @@
+# Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+import heapq
+import random
+import unittest
+
+
+class HeapqTests(unittest.TestCase):
+
+    def check_invariant(self, heap):
+        for pos, item in enumerate(heap):
+            if pos:
+                self.assertLessEqual(heap[(pos - 1) >> 1], item)
+
+    def check_sorted(self, data):
+        heap = []
+        for item in data:
+            heapq.heappush(heap, item)
+            self.check_invariant(heap)
+        result = [heapq.heappop(heap) for _ in range(len(data))]
+        self.assertEqual(result, sorted(data))
+        self.assertEqual(heap, [])
+
+    def test_push_pop(self):
+        rnd = random.Random(42)
+        self.check_sorted([rnd.randrange(1000) for _ in range(200)])
+        self.check_sorted([rnd.randrange(2**40) for _ in range(200)])
+        self.check_sorted([rnd.random() for _ in range(200)])
+        self.check_sorted([str(rnd.randrange(1000)) for _ in range(200)])
+        self.check_sorted([rnd.randrange(10) + (0.5 if i % 3 else 0) for i in range(200)])
+
+    def test_priority_tuples(self):
+        rnd = random.Random(7)
+        data = [(rnd.randrange(20), "task%d" % i) for i in range(300)]
+        self.check_sorted(data)
+        data = [(rnd.random(), i) for i in range(300)]
+        self.check_sorted(data)
+        data = [(str(i % 7), [i]) for i in range(100)]
+        self.check_sorted(data)
+
+    def test_heapify(self):
+        rnd = random.Random(1)
+        for size in range(30):
+            for data in ([rnd.randrange(50) for _ in range(size)], [rnd.random() for _ in range(size)], [(rnd.randrange(5), str(i)) for i in range(size)]):
+                heapq.heapify(data)
+                self.check_invariant(data)
+
+    def test_replace_and_pushpop(self):
+        heap = [5, 1, 3]
+        heapq.heapify(heap)
+        self.assertEqual(heapq.heapreplace(heap, 4), 1)
+        self.assertEqual(heap[0], 3)
+        self.assertEqual(heapq.heappushpop(heap, 0), 0)
+        self.assertEqual(heapq.heappushpop(heap, 10), 3)
+        self.assertEqual(sorted(heap), [4, 5, 10])
+        self.assertEqual(heapq.heappushpop([], 1), 1)
+        heap = [1, 2, 3]
+        self.assertEqual(heapq.heapreplace(heap, 2.5), 1)
+        self.assertEqual(heap, [2, 2.5, 3])
+        heap = [1, 2]
+        heapq.heappush(heap, 1.5)
+        self.assertEqual(heap, [1, 2, 1.5])
+
+    def test_nlargest_nsmallest_merge(self):
+        data = [(i * 7919) % 101 for i in range(101)]
+        self.assertEqual(heapq.nsmallest(5, data), sorted(data)[:5])
+        self.assertEqual(heapq.nlargest(5, data), sorted(data, reverse=True)[:5])
+        self.assertEqual(heapq.nlargest(3, data, key=lambda x: -x), sorted(data)[:3])
+        self.assertEqual(list(heapq.merge([1, 4, 7], [2, 5, 8], [3, 6, 9])), list(range(1, 10)))
+        self.assertEqual(list(heapq.merge([7, 4, 1], [8, 5, 2], reverse=True)), [8, 7, 5, 4, 2, 1])
+
+    def test_max_heap(self):
+        data = [3, 1, 4, 1, 5, 9, 2, 6]
+        heapq._heapify_max(data)
+        self.assertEqual(data[0], 9)
+        self.assertEqual(heapq._heappop_max(data), 9)
+        self.assertEqual(heapq._heapreplace_max(data, 0), 6)
+        self.assertEqual(data[0], 5)
+
+    def test_errors(self):
+        self.assertRaises(TypeError, heapq.heappush, (), 1)
+        self.assertRaises(TypeError, heapq.heapify, None)
+        self.assertRaises(IndexError, heapq.heappop, [])
+        self.assertRaises(IndexError, heapq.heapreplace, [], 1)
+        self.assertRaises(TypeError, heapq.heappush, [1], "a")
+
+    def test_mutation_during_compare(self):
+        heap = []
+
+        class Evil:
+            def __lt__(self, other):
+                heap.clear()
+                return True
+
+        heap.extend([Evil(), Evil(), Evil()])
+        self.assertRaises((RuntimeError, IndexError), heapq.heappush, heap, Evil())
+
+    def test_list_subclass(self):
+        class MyList(list):
+            pass
+
+        heap = MyList()
+        for i in [3, 1, 2]:
+            heapq.heappush(heap, i)
+        self.assertEqual(heapq.heappop(heap), 1)
+        self.assertEqual(type(heap), MyList)
@@ -134,3 +134,37 @@ def test_recursive_import_from():
     if sys.version_info.minor >= 6:
         import package.recpkg
         assert package.recpkg.context is package.recpkg.reduction.context
+
+
+def test_import_cache_sees_changes():
+    import importlib
+    import io
+    import os
+    import shutil
+    import tempfile
+    tmpdir = tempfile.mkdtemp()
+    sys.path.insert(0, tmpdir)
+    try:
+        with io.open(os.path.join(tmpdir, "cached_mod.py"), "w") as f:
+            f.write("x = 1\n")
+        import cached_mod
+        assert cached_mod.x == 1
+
+        # a file of a different size is compiled again
+        del sys.modules["cached_mod"]
+        with io.open(os.path.join(tmpdir, "cached_mod.py"), "w") as f:
+            f.write("x = 22\n")
+        import cached_mod
+        assert cached_mod.x == 22
+
+        # a new file is found after invalidating the caches
+        with io.open(os.path.join(tmpdir, "cached_mod2.py"), "w") as f:
+            f.write("y = 3\n")
+        importlib.invalidate_caches()
+        import cached_mod2
+        assert cached_mod2.y == 3
+    finally:
+        sys.path.remove(tmpdir)
+        sys.modules.pop("cached_mod", None)
+        sys.modules.pop("cached_mod2", None)
+        shutil.rmtree(tmpdir)
@@ -107,6 +107,44 @@ def test_int_bit_length():
     assert (int(9999992432902008176640000999999)).bit_length() == 103
     assert (int(-9999992432902008176640000999999)).bit_length() == 103
 
+
+def test_medium_int_arithmetic():
+    a = 0x7FFFFFFFFFFFFFFF
+    b = -0x123456789ABCDEF0123
+    assert a + a == 18446744073709551614
+    assert a * a == 85070591730234615847396907784232501249
+    assert -a * a == -85070591730234615847396907784232501249
+    assert b * a == -49557211552290272997721210387821344390877
+    assert a * a - (a * a - 1) == 1
+    assert b // 7 == -767571948961669307288
+    assert b % 7 == 5
+    assert b // -7 == 767571948961669307287
+    assert b % -7 == -2
+    assert (a * a) // -1000000007 == -85070591134740477904213562455
+    assert (a * a) % -1000000007 == -262435936
+    assert b & 0xFFFFFFFFFFFFFFFF == 13445626791503920861
+    assert b | 1 == -5373003642731685151011
+    assert b ^ a == -5372224780204128665310
+
+
+def test_medium_int_overflow():
+    a = 0x7FFFFFFFFFFFFFFF
+    assert a * a * 2 == 170141183460469231694793815568465002498
+    assert (2 ** 127 - 1) + 1 == 170141183460469231731687303715884105728
+    assert -2 ** 127 - 1 == -170141183460469231731687303715884105729
+    assert (-2 ** 127) // -1 == 170141183460469231731687303715884105728
+    assert 2 ** 127 > 2 ** 127 - 1 > -2 ** 127
+    assert a * a != a * a + 1
+    assert a * a == (a * a + 1) - 1
+    assert hash(a * a) == hash((a * a + 1) - 1)
+
+
+def test_medium_int_loop():
+    h = 0
+    for c in range(1000):
+        h = (h * 31 + c) & 0xFFFFFFFFFFFFFFFF
+    assert h == 10422651670965598708
+
 class MyInt(int):
     pass
 
@@ -0,0 +1,193 @@
+# Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+import io
+import os
+import sys
+import tempfile
+
+
+def write_file(data):
+    fd, name = tempfile.mkstemp()
+    os.write(fd, data)
+    os.close(fd)
+    return name
+
+
+def test_readline():
+    name = write_file(b"first\nsecond\n\nlast")
+    try:
+        with open(name, "rb") as f:
+            assert f.readline() == b"first\n"
+            assert f.readline(3) == b"sec"
+            assert f.readline() == b"ond\n"
+            assert f.readline() == b"\n"
+            assert f.readline() == b"last"
+            assert f.readline() == b""
+        with open(name, "rb") as f:
+            assert list(f) == [b"first\n", b"second\n", b"\n", b"last"]
+    finally:
+        os.unlink(name)
+
+
+def test_small_buffer():
+    data = b"".join(b"line %d\n" % i for i in range(100))
+    name = write_file(data)
+    try:
+        with io.BufferedReader(io.FileIO(name, "r"), 5) as f:
+            assert f.readlines() == data.splitlines(keepends=True)
+        with io.BufferedReader(io.FileIO(name, "r"), 5) as f:
+            assert f.read(3) == b"lin"
+            assert f.peek(1).startswith(b"e")
+            assert f.read1(100) and f.tell() <= 8
+            f.seek(0)
+            assert f.read() == data
+    finally:
+        os.unlink(name)
+
+
+def test_readinto():
+    name = write_file(b"0123456789" * 2000)
+    try:
+        with open(name, "rb") as f:
+            b = bytearray(4)
+            assert f.readinto(b) == 4
+            assert b == b"0123"
+            large = bytearray(15000)
+            assert f.readinto(large) == 15000
+            assert large[:6] == b"456789"
+            assert f.tell() == 15004
+            assert f.read() == (b"0123456789" * 2000)[15004:]
+            assert f.readinto(b) == 0
+    finally:
+        os.unlink(name)
+
+
+def test_write_and_seek():
+    fd, name = tempfile.mkstemp()
+    os.close(fd)
+    try:
+        with open(name, "wb") as f:
+            assert f.write(b"hello") == 5
+            assert f.write(bytearray(b" world")) == 6
+            assert f.tell() == 11
+            f.writelines([b"\n", b"x" * 10000])
+        with open(name, "rb") as f:
+            assert f.read(11) == b"hello world"
+            assert f.seek(-3, 1) == 8
+            assert f.read(3) == b"rld"
+            assert len(f.read()) == 10001
+    finally:
+        os.unlink(name)
+
+
+def test_text_lines():
+    name = write_file("añb\nü€\r\nc\rlast".encode("utf-8"))
+    try:
+        with open(name, encoding="utf-8") as f:
+            assert f.readline() == "añb\n"
+            assert f.readline() == "ü€\n"
+            assert f.readline() == "c\n"
+            assert f.readline() == "last"
+            assert f.readline() == ""
+        with open(name, encoding="utf-8", newline="") as f:
+            assert list(f) == ["añb\n", "ü€\r\n", "c\r", "last"]
+        with open(name, encoding="utf-8", newline="\n") as f:
+            assert f.readlines() == ["añb\n", "ü€\r\n", "c\rlast"]
+        with open(name, encoding="utf-8") as f:
+            assert f.read(2) == "añ"
+            assert f.read(4) == "b\nü€"
+            assert f.read() == "\nc\nlast"
+    finally:
+        os.unlink(name)
+
+
+def test_text_write():
+    fd, name = tempfile.mkstemp()
+    os.close(fd)
+    try:
+        with open(name, "w", encoding="utf-8", newline="\r\n") as f:
+            assert f.write("añb\n") == 4
+            f.writelines(["x\n", "y"])
+            assert f.mode == "w"
+        with open(name, "rb") as f:
+            assert f.read() == "añb\r\nx\r\ny".encode("utf-8")
+        with open(name, "w", encoding="latin-1") as f:
+            f.write("ñ")
+        with open(name, "rb") as f:
+            assert f.read() == b"\xf1"
+        with open(name, "r") as f:
+            try:
+                f.write("x")
+            except io.UnsupportedOperation:
+                pass
+            else:
+                assert False, "writing to a reader should fail"
+    finally:
+        os.unlink(name)
+
+
+def test_text_tell_seek():
+    name = write_file(b"abc\ndef\n")
+    try:
+        with open(name) as f:
+            f.readline()
+            pos = f.tell()
+            assert f.readline() == "def\n"
+            f.seek(pos)
+            assert f.read() == "def\n"
+            f.seek(0)
+            assert f.read(3) == "abc"
+    finally:
+        os.unlink(name)
+
+
+def test_stdio():
+    assert sys.stdout.writable()
+    assert not sys.stdout.readable()
+    assert sys.stdin.readable()
+    assert sys.stdout.mode == "w"
+    assert sys.stdout.buffer.raw.fileno() == 1
+
+
+if getattr(sys, "graal_python_opaque_filesystem", False):
+    # this cannot possibly work with opaque files
+    for k in list(globals()):
+        if k.startswith("test_"):
+            del globals()[k]
@@ -0,0 +1,187 @@
+# Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+from itertools import accumulate, chain, count, cycle, dropwhile, filterfalse, islice, repeat, starmap, takewhile, zip_longest
+
+
+def assert_raises(err, fn, *args, **kwargs):
+    raised = False
+    try:
+        fn(*args, **kwargs)
+    except err:
+        raised = True
+    assert raised
+
+
+def test_chain():
+    assert list(chain()) == []
+    assert list(chain([1, 2], (3, 4), "ab", [])) == [1, 2, 3, 4, "a", "b"]
+    assert list(chain([1], (x for x in range(2)), [2.5])) == [1, 0, 1, 2.5]
+    assert list(chain.from_iterable([[1, 2], [], (3,)])) == [1, 2, 3]
+
+
+def test_chain_list_mutation():
+    l = [1, 2]
+    c = chain(l, [3])
+    assert next(c) == 1
+    l.append(10)
+    assert list(c) == [2, 10, 3]
+
+
+def test_chain_list_subclass():
+    class MyList(list):
+        def __iter__(self):
+            return iter([42])
+
+    assert list(chain(MyList([1, 2]), [3])) == [42, 3]
+
+
+def test_islice():
+    assert list(islice("abcdefg", 2)) == ["a", "b"]
+    assert list(islice("abcdefg", 2, 4)) == ["c", "d"]
+    assert list(islice("abcdefg", 2, None)) == ["c", "d", "e", "f", "g"]
+    assert list(islice("abcdefg", 0, None, 2)) == ["a", "c", "e", "g"]
+    assert list(islice("abc", None)) == ["a", "b", "c"]
+    assert list(islice("abc", 5, 10)) == []
+    assert_raises(ValueError, islice, [], -1)
+    assert_raises(ValueError, islice, [], 1, -2)
+    assert_raises(ValueError, islice, [], 0, 1, 0)
+    assert_raises(TypeError, islice, [])
+
+
+def test_islice_consumption():
+    it = iter(range(10))
+    assert list(islice(it, 3)) == [0, 1, 2]
+    assert next(it) == 3
+    it = iter(range(10))
+    assert list(islice(it, 1, 6, 3)) == [1, 4]
+    assert next(it) == 6
+
+
+def test_islice_count():
+    assert list(islice(count(), 5)) == [0, 1, 2, 3, 4]
+    assert list(islice(count(10, -3), 1, 4)) == [7, 4, 1]
+    total = 0
+    for i in islice(count(1), 100):
+        total += i
+    assert total == 5050
+
+    c = count()
+    assert list(islice(c, 2, 5)) == [2, 3, 4]
+    assert next(c) == 5
+    assert list(islice(c, 3, 10, 4)) == [9, 13]
+    assert next(c) == 16
+    assert list(islice(c, 5, 2)) == []
+    assert next(c) == 22
+
+    c = count()
+    s = islice(c, 10)
+    assert next(s) == 0
+    assert next(c) == 1
+    assert next(s) == 2
+    assert [x for x in s] == [3, 4, 5, 6, 7, 8, 9, 10]
+    assert next(c) == 11
+
+
+def test_islice_count_overflow():
+    big = 2 ** 63
+    assert list(islice(count(big - 2), 4)) == [big - 2, big - 1, big, big + 1]
+    result = []
+    for i in islice(count(big - 3, 2), 3):
+        result.append(i)
+    assert result == [big - 3, big - 1, big + 1]
+    c = count(big - 1)
+    assert next(c) == big - 1
+    assert next(c) == big
+    assert repr(c) == "count(%d)" % (big + 1)
+
+
+def test_count_types():
+    assert list(islice(count(0.5, 0.25), 3)) == [0.5, 0.75, 1.0]
+    c = count(True)
+    assert next(c) == 1
+    assert next(c) == 2
+
+
+def test_repeat():
+    assert list(repeat("a", 3)) == ["a", "a", "a"]
+    assert list(repeat("a", -1)) == []
+    assert list(repeat("a", times=2)) == ["a", "a"]
+    assert list(islice(repeat(1), 4)) == [1, 1, 1, 1]
+    r = repeat("a", 2)
+    assert repr(r) == "repeat('a', 2)"
+    assert r.__length_hint__() == 2
+    next(r)
+    assert r.__length_hint__() == 1
+    assert repr(repeat(1)) == "repeat(1)"
+    assert_raises(TypeError, repeat(1).__length_hint__)
+
+
+def test_accumulate():
+    assert list(accumulate([])) == []
+    assert list(accumulate([1, 2, 3, 4])) == [1, 3, 6, 10]
+    assert list(accumulate([3, 1, 4, 1, 5], max)) == [3, 3, 4, 4, 5]
+    assert list(accumulate(["a", "b", "c"], func=None)) == ["a", "ab", "abc"]
+
+
+def test_predicates():
+    data = [1, 4, 6, 4, 1]
+    assert list(takewhile(lambda x: x < 5, data)) == [1, 4]
+    assert list(dropwhile(lambda x: x < 5, data)) == [6, 4, 1]
+    assert list(filterfalse(lambda x: x % 2, range(10))) == [0, 2, 4, 6, 8]
+    assert list(filterfalse(None, [0, 1, "", "a", None])) == [0, "", None]
+    t = takewhile(lambda x: x < 5, iter(data))
+    assert list(t) == [1, 4]
+    assert list(t) == []
+
+
+def test_starmap():
+    assert list(starmap(pow, [(2, 5), (3, 2), (10, 3)])) == [32, 9, 1000]
+    assert list(starmap(lambda *args: len(args), [[], "ab", (1, 2, 3)])) == [0, 2, 3]
+
+
+def test_cycle():
+    assert list(islice(cycle("ab"), 5)) == ["a", "b", "a", "b", "a"]
+    assert list(cycle([])) == []
+
+
+def test_zip_longest():
+    assert list(zip_longest()) == []
+    assert list(zip_longest("ab", "xyz", fillvalue="-")) == [("a", "x"), ("b", "y"), ("-", "z")]
+    assert list(zip_longest([1], [])) == [(1, None)]
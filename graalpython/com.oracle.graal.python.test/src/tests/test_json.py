@@ -0,0 +1,148 @@
+# Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+import collections
+import json
+import unittest
+
+
+class JSONDecodeTests(unittest.TestCase):
+
+    def test_values(self):
+        self.assertEqual(json.loads('{"a": [1, 2.5, "x", null, true, false], "b": {}}'),
+                         {"a": [1, 2.5, "x", None, True, False], "b": {}})
+        self.assertEqual(json.loads(' [ ] '), [])
+        self.assertEqual(json.loads('[1, 12345678901, 123456789012345678901234567890]'),
+                         [1, 12345678901, 123456789012345678901234567890])
+        self.assertEqual(json.loads('[-0.5, 1e3, 2E-2]'), [-0.5, 1000.0, 0.02])
+        self.assertEqual(json.loads('"\\u00e9\\ud83d\\ude00\\n\\"\\/"'), "é\U0001f600\n\"/")
+
+    def test_duplicate_keys(self):
+        self.assertEqual(json.loads('{"a": 1, "a": 2}'), {"a": 2})
+
+    def test_constants(self):
+        self.assertEqual(repr(json.loads('[NaN, Infinity, -Infinity]')), "[nan, inf, -inf]")
+        self.assertEqual(json.loads('[NaN]', parse_constant=lambda c: c), ["NaN"])
+
+    def test_hooks(self):
+        self.assertEqual(json.loads('{"a": 1, "b": 2}', object_pairs_hook=list), [("a", 1), ("b", 2)])
+        self.assertEqual(json.loads('{}', object_pairs_hook=list), [])
+        self.assertIsInstance(json.loads('{"a": 1}', object_pairs_hook=collections.OrderedDict), collections.OrderedDict)
+        self.assertEqual(json.loads('{"a": {"b": 1}}', object_hook=len), 1)
+        self.assertEqual(json.loads('[1.5, 2]', parse_float=str, parse_int=str), ["1.5", "2"])
+
+    def test_errors(self):
+        for doc, msg, pos in [('', "Expecting value", 0),
+                              ('[1,]', "Expecting value", 3),
+                              ('[1 2]', "Expecting ',' delimiter", 3),
+                              ('{"a" 1}', "Expecting ':' delimiter", 5),
+                              ('{"a": 1,}', "Expecting property name enclosed in double quotes", 8),
+                              ('"abc', "Unterminated string starting at", 0),
+                              ('"\\x"', "Invalid \\escape", 1),
+                              ('"\\u12"', "Invalid \\uXXXX escape", 2),
+                              ('"a\nb"', "Invalid control character at", 2),
+                              ('[1] x', "Extra data", 4)]:
+            with self.assertRaises(json.JSONDecodeError) as cm:
+                json.loads(doc)
+            self.assertEqual(cm.exception.msg, msg, doc)
+            self.assertEqual(cm.exception.pos, pos, doc)
+        self.assertEqual(json.loads('"a\nb"', strict=False), "a\nb")
+
+    def test_scanner(self):
+        scan = json.decoder.JSONDecoder().scan_once
+        self.assertEqual(scan('xx[1, 2]', 2), ([1, 2], 8))
+        with self.assertRaises(StopIteration) as cm:
+            scan('xx', 2)
+        self.assertEqual(cm.exception.value, 2)
+
+    def test_scanstring(self):
+        self.assertEqual(json.decoder.scanstring('"abc" ', 1), ("abc", 5))
+        self.assertEqual(json.decoder.scanstring('"a\\tb"', 1), ("a\tb", 6))
+
+    def test_deep_nesting(self):
+        self.assertEqual(json.loads('[' * 100 + ']' * 100), json.loads('[' * 100 + ']' * 100))
+        self.assertRaises(RecursionError, json.loads, '[' * 100000 + ']' * 100000)
+
+
+class JSONEncodeTests(unittest.TestCase):
+
+    def test_values(self):
+        self.assertEqual(json.dumps({"a": [1, 2.5, "x", None, True, False], "b": {}, "c": ()}),
+                         '{"a": [1, 2.5, "x", null, true, false], "b": {}, "c": []}')
+        self.assertEqual(json.dumps([10 ** 30, -1, 1e100, 0.1]), '[1000000000000000000000000000000, -1, 1e+100, 0.1]')
+        self.assertEqual(json.dumps([float("nan"), float("inf"), float("-inf")]), '[NaN, Infinity, -Infinity]')
+        self.assertRaises(ValueError, json.dumps, [float("nan")], allow_nan=False)
+
+    def test_strings(self):
+        self.assertEqual(json.dumps("é\n\"\\\U0001f600"), '"\\u00e9\\n\\"\\\\\\ud83d\\ude00"')
+        self.assertEqual(json.dumps("é\x01", ensure_ascii=False), '"é\\u0001"')
+        self.assertEqual(json.encoder.encode_basestring_ascii("€"), '"\\u20ac"')
+
+    def test_separators_and_sorting(self):
+        self.assertEqual(json.dumps({"b": 1, "a": [1, 2]}, separators=(",", ":"), sort_keys=True), '{"a":[1,2],"b":1}')
+        self.assertEqual(json.dumps({2: 1, 1: 2}, sort_keys=True), '{"1": 2, "2": 1}')
+
+    def test_keys(self):
+        self.assertEqual(json.dumps({2: 1, 2.5: 2, True: 3, None: 4}), '{"2": 1, "2.5": 2, "true": 3, "null": 4}')
+        self.assertRaises(TypeError, json.dumps, {(1,): 1})
+        self.assertEqual(json.dumps({(1,): 1, "a": 2}, skipkeys=True), '{"a": 2}')
+
+    def test_ordered_dict(self):
+        d = collections.OrderedDict([("b", 1), ("a", 2)])
+        d.move_to_end("b")
+        self.assertEqual(json.dumps(d), '{"a": 2, "b": 1}')
+
+    def test_default(self):
+        self.assertEqual(json.dumps({"s": {1, 2}}, default=sorted), '{"s": [1, 2]}')
+        self.assertRaises(TypeError, json.dumps, object())
+
+    def test_circular(self):
+        l = []
+        l.append(l)
+        self.assertRaises(ValueError, json.dumps, l)
+        d = {}
+        d["d"] = d
+        self.assertRaises(ValueError, json.dumps, d)
+        shared = [1]
+        self.assertEqual(json.dumps([shared, shared]), '[[1], [1]]')
+
+    def test_round_trip(self):
+        doc = {"ints": list(range(10)), "floats": [0.5, 1.25], "nested": [{"x": "y"}, [[]]], "text": "café"}
+        self.assertEqual(json.loads(json.dumps(doc)), doc)
+        self.assertEqual(json.loads(json.dumps(doc, ensure_ascii=False)), doc)
@@ -4,6 +4,7 @@
 # Licensed under the PYTHON SOFTWARE FOUNDATION LICENSE VERSION 2
 
 import seq_tests
+import unittest
 import sys
 # import pickle
 
@@ -813,3 +814,92 @@ class ListCompareTest(CompareTest):
         self.assertEqual(l1 <= [1, 1], 'OK:False')
         self.assertEqual(l1 <= [1, 10], 'OK:True')
         self.assertEqual(l1 <= [1, 10, 0], 'OK:True')
+
+
+class ListSortTest(unittest.TestCase):
+
+    def test_sort_primitive(self):
+        l = [5, 3, -1, 2**40, 0]
+        l.sort()
+        self.assertEqual(l, [-1, 0, 3, 5, 2**40])
+        l = [3, 1, 2]
+        l.sort(reverse=True)
+        self.assertEqual(l, [3, 2, 1])
+        l = [2.5, -1.0, 0.5]
+        l.sort()
+        self.assertEqual(l, [-1.0, 0.5, 2.5])
+
+    def test_sort_signed_zero_is_stable(self):
+        l = [0.0, -0.0, 1.0]
+        l.sort()
+        self.assertEqual(str(l), '[0.0, -0.0, 1.0]')
+
+    def test_sort_strings(self):
+        l = ["b", "a", "\U0001f600", "\uffff", "ab"]
+        l.sort()
+        self.assertEqual(l, ["a", "ab", "b", "\uffff", "\U0001f600"])
+
+    def test_sort_stable(self):
+        data = [(i % 7, i) for i in range(200)]
+        l = list(data)
+        l.sort(key=lambda t: t[0])
+        self.assertEqual(l, sorted(data, key=lambda t: (t[0], t[1])))
+        l = list(data)
+        l.sort(key=lambda t: t[0], reverse=True)
+        self.assertEqual(l, sorted(data, key=lambda t: (-t[0], t[1])))
+
+    def test_sort_key_called_once(self):
+        calls = []
+
+        def key(x):
+            calls.append(x)
+            return -x
+
+        l = list(range(100))
+        l.sort(key=key)
+        self.assertEqual(l, list(range(99, -1, -1)))
+        self.assertEqual(len(calls), 100)
+
+    def test_sort_generic_lt(self):
+        class C:
+            def __init__(self, v):
+                self.v = v
+
+            def __lt__(self, other):
+                return self.v < other.v
+
+        l = [C(i) for i in (5, 1, 4, 2, 3)]
+        l.sort()
+        self.assertEqual([c.v for c in l], [1, 2, 3, 4, 5])
+        self.assertRaises(TypeError, [1, "a"].sort)
+
+    def test_sort_modified(self):
+        l = [3, 2, 1]
+
+        def key(x):
+            l.append(x)
+            return x
+
+        self.assertRaises(ValueError, l.sort, key=key)
+
+    def test_sort_raising_key_keeps_order(self):
+        def bad(x):
+            if x == 3:
+                raise RuntimeError
+            return x
+
+        l = [1, 5, 3, 2, 4]
+        self.assertRaises(RuntimeError, l.sort, key=bad, reverse=True)
+        self.assertEqual(l, [1, 5, 3, 2, 4])
+        self.assertRaises(RuntimeError, l.sort, key=bad)
+        self.assertEqual(l, [1, 5, 3, 2, 4])
+
+    def test_sort_runs(self):
+        # ascending and descending runs with equal keys, longer than the minimum run length
+        data = [(i // 3, i) for i in range(100)] + [(-i // 4, i) for i in range(100, 300)] + [(i % 5, i) for i in range(300, 340)]
+        l = list(data)
+        l.sort(key=lambda t: t[0])
+        self.assertEqual(l, sorted(data, key=lambda t: (t[0], t[1])))
+        l = list(reversed(data))
+        l.sort(key=lambda t: t[0])
+        self.assertEqual(l, sorted(data, key=lambda t: (t[0], -t[1])))
@@ -0,0 +1,134 @@
+# Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+import io
+import marshal
+import unittest
+
+
+class MarshalTests(unittest.TestCase):
+
+    def check_roundtrip(self, value):
+        data = marshal.dumps(value)
+        self.assertEqual(type(data), bytes)
+        new = marshal.loads(data)
+        self.assertEqual(value, new)
+        self.assertEqual(type(value), type(new))
+
+    def test_constants(self):
+        for value in (None, True, False, Ellipsis, StopIteration):
+            self.assertIs(marshal.loads(marshal.dumps(value)), value)
+
+    def test_ints(self):
+        for value in (0, 1, -1, 2**31 - 1, -2**31, 2**31, 2**63 - 1, -2**63, 2**100, -(2**100) + 12345):
+            self.check_roundtrip(value)
+
+    def test_cpython_int_format(self):
+        self.assertEqual(marshal.dumps(7), b'i\x07\x00\x00\x00')
+        self.assertEqual(marshal.dumps(2**32), b'l\x03\x00\x00\x00\x00\x00\x00\x00\x04\x00')
+        self.assertEqual(marshal.loads(b'l\xfd\xff\xff\xff\x00\x00\x00\x00\x04\x00'), -2**32)
+
+    def test_floats(self):
+        for value in (0.0, -0.0, 1.5, 1e300, float('inf')):
+            self.check_roundtrip(value)
+        self.check_roundtrip(complex(1.5, -2.0))
+
+    def test_strings(self):
+        for value in ("", "hello", "héllo € \U0001f600", b"", b"\x00\xffabc"):
+            self.check_roundtrip(value)
+        self.assertEqual(marshal.loads(b'\xda\x05hello'), "hello")
+
+    def test_containers(self):
+        self.check_roundtrip((1, "a", (2.0, None)))
+        self.check_roundtrip(tuple(range(300)))
+        self.check_roundtrip([1, [2, [3]], "x"])
+        self.check_roundtrip({"a": 1, 2: [3, 4], (5, 6): {"b": None}})
+        self.check_roundtrip({1, 2, "three"})
+        self.check_roundtrip(frozenset({1, 2, "three"}))
+
+    def test_refs(self):
+        # CPython 3.7 output for marshal.dumps(['ab', 'ab'])
+        self.assertEqual(marshal.loads(b'\xdb\x02\x00\x00\x00\xda\x02abr\x01\x00\x00\x00'), ['ab', 'ab'])
+
+    def test_unmarshallable(self):
+        self.assertRaises(ValueError, marshal.dumps, object())
+        self.assertRaises(ValueError, marshal.dumps, lambda: 1)
+
+    def test_bad_data(self):
+        self.assertRaises(EOFError, marshal.loads, b'')
+        self.assertRaises(EOFError, marshal.loads, b'i\x01')
+        self.assertRaises(ValueError, marshal.loads, b'\x01')
+        self.assertRaises(TypeError, marshal.loads, "str")
+
+    def test_dump_load_file(self):
+        f = io.BytesIO()
+        marshal.dump([1, 2], f)
+        marshal.dump("second", f)
+        f.seek(0)
+        self.assertEqual(marshal.load(f), [1, 2])
+        self.assertEqual(marshal.load(f), "second")
+
+    def test_code(self):
+        code = compile("x = 40 + 2\n", "marshal_test_module", "exec")
+        data = marshal.dumps(code)
+        loaded = marshal.loads(data)
+        self.assertEqual(loaded.co_filename, code.co_filename)
+        ns = {}
+        exec(loaded, ns)
+        self.assertEqual(ns["x"], 42)
+        # each load creates its own code object, only the parsed code behind it is shared
+        again = marshal.loads(data)
+        self.assertIsNot(again, loaded)
+        self.assertEqual(again.co_filename, loaded.co_filename)
+        self.assertEqual(again.co_name, loaded.co_name)
+        self.assertEqual(marshal.dumps(again), marshal.dumps(loaded))
+        ns = {}
+        exec(again, ns)
+        self.assertEqual(ns["x"], 42)
+
+    def test_code_synthetic_filename(self):
+        first = marshal.loads(marshal.dumps(compile("x = 1\n", "<string>", "exec")))
+        second = marshal.loads(marshal.dumps(compile("x = 2\n", "<string>", "exec")))
+        for code, expected in ((first, 1), (second, 2), (first, 1)):
+            ns = {}
+            exec(code, ns)
+            self.assertEqual(ns["x"], expected)
+
+    def test_version(self):
+        self.assertEqual(marshal.version, 4)
@@ -124,6 +124,35 @@ class MmapTests(unittest.TestCase):
         m.close()
 
 
+    def test_access_read(self):
+        with open(TESTFN, "wb") as fp:
+            fp.write(b"first line\nsecond line\nlast")
+        with open(TESTFN, "rb") as fp:
+            m = mmap.mmap(fp.fileno(), 0, access=mmap.ACCESS_READ)
+        self.assertEqual(len(m), 27)
+        self.assertEqual(m.readline(), b"first line\n")
+        self.assertEqual(m.tell(), 11)
+        self.assertEqual(m.readline(), b"second line\n")
+        self.assertEqual(m.readline(), b"last")
+        self.assertEqual(m.readline(), b"")
+        self.assertEqual(m.find(b"line"), 6)
+        self.assertEqual(m.find(b"line", 7), 18)
+        self.assertEqual(m.find(b"line", 7, 20), -1)
+        self.assertEqual(m.find(b"last", -4), 23)
+        self.assertEqual(m[-1], ord("t"))
+        self.assertEqual(m[6:10], b"line")
+        self.assertEqual(m[::5], b"f \nnns")
+        self.assertRaises(TypeError, m.__setitem__, 0, 1)
+        self.assertRaises(TypeError, m.__setitem__, slice(0, 2), b"xx")
+        m.close()
+        self.assertRaises(ValueError, m.__getitem__, 0)
+
+    def test_empty_file(self):
+        with open(TESTFN, "wb"):
+            pass
+        with open(TESTFN, "rb") as fp:
+            self.assertRaises(ValueError, mmap.mmap, fp.fileno(), 0, access=mmap.ACCESS_READ)
+
     def test_bad_file_desc(self):
         # Try opening a bad file descriptor...
         self.assertRaises(OSError, mmap.mmap, -2, 4096)
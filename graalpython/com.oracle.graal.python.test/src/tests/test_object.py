@@ -151,3 +151,76 @@ def test_class_attr():
 
     AAA().foo()
     CCC().bar()
+
+
+def test_attributes_after_init():
+    class Point:
+        def __init__(self, x, y, with_z=False):
+            self.x = x
+            self.y = y
+            if with_z:
+                self.z = 0
+
+    # the first instance determines the attributes new instances are allocated with
+    first = Point(1, 2, with_z=True)
+    assert first.__dict__ == {'x': 1, 'y': 2, 'z': 0}
+    p = Point(3, 4)
+    assert p.x == 3 and p.y == 4
+    assert not hasattr(p, 'z')
+    assert p.__dict__ == {'x': 3, 'y': 4}
+    assert 'z' not in p.__dict__
+    assert len(p.__dict__) == 2
+    assert p.__dict__.get('z', 'missing') == 'missing'
+    assert dict(p.__dict__) == {'x': 3, 'y': 4}
+    assert 'z' not in dir(p)
+    assert_raises(AttributeError, lambda: p.z)
+    p.z = 'z'
+    assert p.z == 'z'
+    assert p.__dict__ == {'x': 3, 'y': 4, 'z': 'z'}
+    del p.x
+    assert not hasattr(p, 'x')
+    assert p.__dict__ == {'y': 4, 'z': 'z'}
+
+    def del_x():
+        del p.x
+
+    assert_raises(AttributeError, del_x)
+    p.x = 1.5
+    assert p.x == 1.5
+
+
+def test_attribute_order_after_init():
+    class Pair:
+        def __init__(self, a_first):
+            if a_first:
+                self.a = 'a'
+                self.b = 'b'
+            else:
+                self.b = 'b'
+                self.a = 'a'
+
+    # the first instance determines the predicted order, later ones must keep their own
+    assert list(Pair(True).__dict__) == ['a', 'b']
+    for i in range(3):
+        p = Pair(False)
+        assert list(p.__dict__) == ['b', 'a']
+        assert list(vars(p).items()) == [('b', 'b'), ('a', 'a')]
+        assert list(Pair(True).__dict__) == ['a', 'b']
+
+    class Extended:
+        def __init__(self, extra):
+            self.x = 'x'
+            if extra:
+                self.y = 'y'
+            self.z = 'z'
+
+    assert list(Extended(True).__dict__) == ['x', 'y', 'z']
+    for i in range(3):
+        e = Extended(False)
+        assert list(e.__dict__) == ['x', 'z']
+        e.y = 'y'
+        assert list(e.__dict__) == ['x', 'z', 'y']
+        e = Extended(False)
+        e.__dict__['w'] = 'w'
+        assert list(e.__dict__) == ['x', 'z', 'w']
+        assert list(Extended(True).__dict__) == ['x', 'y', 'z']
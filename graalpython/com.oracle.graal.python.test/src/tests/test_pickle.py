@@ -57,5 +57,169 @@ class TestPickle(unittest.TestCase):
         r_obj = pickle.loads(b_obj)
         self.assertEqual(r_obj, obj)
 
+    def test_all_protocols(self):
+        data = [None, True, False, 0, 1, -1, 255, 256, 65535, 65536, 2**31 - 1, -2**31, 2**31, 2**63, -2**100,
+                0.0, -1.5, 1e100, float("inf"), "", "abc", "\u1234\n\\", "\U0001f600", b"", b"\x00\xff",
+                (), (1,), (1, 2), (1, 2, 3), (1, 2, 3, 4), [], [1, 2.5, "x"], {}, {"a": 1, 2: [3]},
+                set(), {1, "b"}, frozenset(), frozenset({1, 2})]
+        for proto in range(pickle.HIGHEST_PROTOCOL + 1):
+            for value in data:
+                self.assertEqual(pickle.loads(pickle.dumps(value, proto)), value, "%r with protocol %d" % (value, proto))
+            self.assertEqual(pickle.loads(pickle.dumps(data, proto)), data)
+
+    def test_opcodes(self):
+        self.assertEqual(pickle.dumps([1, 2, 3], 0), b"(lp0\nI1\naI2\naI3\na.")
+        self.assertEqual(pickle.dumps([1, 2, 3], 2), b"\x80\x02]q\x00(K\x01K\x02K\x03e.")
+        self.assertEqual(pickle.dumps({"a": (1, 2.5)}, 1), b"}q\x00X\x01\x00\x00\x00aq\x01(K\x01G@\x04\x00\x00\x00\x00\x00\x00tq\x02s.")
+        self.assertEqual(pickle.dumps("x\u1234", 0), b"Vx\\u1234\np0\n.")
+        self.assertEqual(pickle.dumps(b"ab", 3), b"\x80\x03C\x02abq\x00.")
+        self.assertEqual(pickle.dumps({1, 2}, 4), b"\x80\x04\x95\t\x00\x00\x00\x00\x00\x00\x00\x8f\x94(K\x01K\x02\x90.")
+        self.assertEqual(pickle.dumps(2**70, 2), b"\x80\x02\x8a\t\x00\x00\x00\x00\x00\x00\x00\x00@.")
+        self.assertEqual(pickle.dumps(-1, 1), b"J\xff\xff\xff\xff.")
+        self.assertEqual(pickle.dumps(True, 0), b"I01\n.")
+
+    def test_primitive_lists(self):
+        for value in [list(range(2500)), [2**40 + i for i in range(1500)], [i / 3 for i in range(1200)]]:
+            for proto in range(pickle.HIGHEST_PROTOCOL + 1):
+                self.assertEqual(pickle.loads(pickle.dumps(value, proto)), value)
+
+    def test_shared_and_recursive(self):
+        shared = [1, 2]
+        for proto in range(pickle.HIGHEST_PROTOCOL + 1):
+            a, b = pickle.loads(pickle.dumps((shared, shared), proto))
+            self.assertIs(a, b)
+            lst = [1]
+            lst.append(lst)
+            r = pickle.loads(pickle.dumps(lst, proto))
+            self.assertIs(r[1], r)
+            d = {}
+            d["self"] = d
+            r = pickle.loads(pickle.dumps(d, proto))
+            self.assertIs(r["self"], r)
+            t = ([],)
+            t[0].append(t)
+            r = pickle.loads(pickle.dumps(t, proto))
+            self.assertIs(r[0][0], r)
+
+    def test_classes_and_reduce(self):
+        for proto in range(pickle.HIGHEST_PROTOCOL + 1):
+            self.assertIs(pickle.loads(pickle.dumps(PickleData, proto)), PickleData)
+            self.assertIs(pickle.loads(pickle.dumps(type(None), proto)), type(None))
+            self.assertIs(pickle.loads(pickle.dumps(PickleData.Nested, proto)), PickleData.Nested)
+            obj = PickleData(3)
+            obj.extra = [obj]
+            r = pickle.loads(pickle.dumps(obj, proto))
+            self.assertEqual(type(r), PickleData)
+            self.assertEqual(r.value, 3)
+            self.assertIs(r.extra[0], r)
+            r = pickle.loads(pickle.dumps(PickleReduce(1, 2), proto))
+            self.assertEqual((r.a, r.b), (1, 2))
+            r = pickle.loads(pickle.dumps(PickleList([1, 2]), proto))
+            self.assertEqual(type(r), PickleList)
+            self.assertEqual(r, [1, 2])
+            r = pickle.loads(pickle.dumps(PickleDict(a=1), proto))
+            self.assertEqual(type(r), PickleDict)
+            self.assertEqual(r, {"a": 1})
+
+    def test_file_streaming(self):
+        import io
+        import os
+        import tempfile
+        big = [str(i) * 10 for i in range(20000)]
+        for proto in range(pickle.HIGHEST_PROTOCOL + 1):
+            buf = io.BytesIO()
+            pickler = pickle.Pickler(buf, proto)
+            pickler.dump(big)
+            pickler.dump("second")
+            self.assertEqual(pickle.loads(buf.getvalue()), big)
+            buf.seek(0)
+            unpickler = pickle.Unpickler(buf)
+            self.assertEqual(unpickler.load(), big)
+            self.assertEqual(unpickler.load(), "second")
+            self.assertRaises(EOFError, unpickler.load)
+
+            fd, path = tempfile.mkstemp()
+            os.close(fd)
+            try:
+                with open(path, "wb") as f:
+                    pickle.dump(big, f, proto)
+                    pickle.dump({"k": 1}, f, proto)
+                with open(path, "rb") as f:
+                    self.assertEqual(pickle.load(f), big)
+                    self.assertEqual(pickle.load(f), {"k": 1})
+                    self.assertEqual(f.read(), b"")
+            finally:
+                os.remove(path)
+
+    def test_memo_across_dumps(self):
+        import io
+        buf = io.BytesIO()
+        shared = [1, 2]
+        pickler = pickle.Pickler(buf, 2)
+        pickler.dump(shared)
+        pickler.dump(shared)
+        buf.seek(0)
+        unpickler = pickle.Unpickler(buf)
+        self.assertIs(unpickler.load(), unpickler.load())
+
+    def test_persistent_id(self):
+        import io
+
+        class MyPickler(pickle.Pickler):
+            def persistent_id(self, obj):
+                return "ref" if obj is PickleData else None
+
+        class MyUnpickler(pickle.Unpickler):
+            def persistent_load(self, pid):
+                return ("loaded", pid)
+
+        for proto in range(pickle.HIGHEST_PROTOCOL + 1):
+            buf = io.BytesIO()
+            MyPickler(buf, proto).dump([1, PickleData])
+            buf.seek(0)
+            self.assertEqual(MyUnpickler(buf).load(), [1, ("loaded", "ref")])
+            buf.seek(0)
+            self.assertRaises(pickle.UnpicklingError, pickle.Unpickler(buf).load)
+
+    def test_errors(self):
+        self.assertRaises(ValueError, pickle.dumps, 1, pickle.HIGHEST_PROTOCOL + 1)
+        self.assertRaises(EOFError, pickle.loads, b"")
+        self.assertRaises(EOFError, pickle.loads, b"\x80\x02]q\x00(K\x01")
+        self.assertRaises(pickle.UnpicklingError, pickle.loads, b"\xff.")
+        self.assertRaises((pickle.PicklingError, AttributeError), pickle.dumps, lambda: 1)
+        self.assertRaises(TypeError, pickle.Pickler, object())
+        self.assertRaises(TypeError, pickle.Unpickler, object())
+
+    def test_python2_strings(self):
+        self.assertEqual(pickle.loads(b"S'abc'\np0\n."), "abc")
+        self.assertEqual(pickle.loads(b"U\x03abcq\x00.", encoding="bytes"), b"abc")
+        self.assertEqual(pickle.loads(b"U\x02\xe9\xe8q\x00.", encoding="latin1"), "\xe9\xe8")
+
+
+class PickleData:
+    class Nested:
+        pass
+
+    def __init__(self, value):
+        self.value = value
+
+
+class PickleReduce:
+    def __init__(self, a, b):
+        self.a = a
+        self.b = b
+
+    def __reduce__(self):
+        return PickleReduce, (self.a, self.b)
+
+
+class PickleList(list):
+    pass
+
+
+class PickleDict(dict):
+    pass
+
+
 if __name__ == '__main__':
     unittest.main()
@@ -0,0 +1,110 @@
+# Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+import json
+import time
+
+import _sampling_profiler
+
+
+def busy_leaf(n):
+    total = 0
+    for i in range(n):
+        total += i * i
+    return total
+
+
+def busy_caller(deadline):
+    while time.time() < deadline:
+        busy_leaf(1000)
+
+
+def test_collapsed_and_speedscope():
+    _sampling_profiler.clear()
+    _sampling_profiler.start(interval=0.001)
+    try:
+        assert _sampling_profiler.is_running()
+        busy_caller(time.time() + 0.5)
+    finally:
+        _sampling_profiler.stop()
+    assert not _sampling_profiler.is_running()
+    assert _sampling_profiler.sample_count() > 0
+
+    collapsed = _sampling_profiler.collapsed()
+    lines = [l for l in collapsed.split("\n") if "busy_caller" in l]
+    assert lines, collapsed
+    for l in lines:
+        stack, count = l.rsplit(" ", 1)
+        assert int(count) > 0
+    assert any("busy_caller" in l and "busy_leaf" in l for l in lines), collapsed
+
+    profile = json.loads(_sampling_profiler.speedscope(name="test"))
+    assert profile["profiles"][0]["type"] == "sampled"
+    assert profile["profiles"][0]["name"] == "test"
+    frames = profile["shared"]["frames"]
+    assert any(f["name"] == "busy_leaf" for f in frames)
+    samples = profile["profiles"][0]["samples"]
+    assert len(samples) == len(profile["profiles"][0]["weights"])
+    assert all(0 <= i < len(frames) for s in samples for i in s)
+
+    _sampling_profiler.clear()
+    assert _sampling_profiler.sample_count() == 0
+    assert _sampling_profiler.collapsed() == ""
+
+
+def test_start_errors():
+    for kwargs in ({"interval": 0}, {"interval": -1.0}, {"max_depth": 0}):
+        try:
+            _sampling_profiler.start(**kwargs)
+        except ValueError:
+            pass
+        else:
+            _sampling_profiler.stop()
+            assert False, "expected ValueError for %s" % kwargs
+    _sampling_profiler.start(lines=True)
+    try:
+        try:
+            _sampling_profiler.start()
+        except RuntimeError:
+            pass
+        else:
+            assert False, "expected RuntimeError"
+    finally:
+        _sampling_profiler.stop()
+    _sampling_profiler.clear()
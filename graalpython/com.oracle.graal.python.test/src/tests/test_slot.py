@@ -56,6 +56,33 @@ class TestSlots(unittest.TestCase):
         obj.world = "world"
         self.assertEqual(obj.world, "world")
 
+    def test_inherited_slots(self):
+        class B(A):
+            __slots__ = ("other",)
+
+            def __init__(self):
+                A.__init__(self)
+                self.other = 1
+
+        class C(B):
+            pass
+
+        for cls in (B, C, B, C):
+            obj = cls()
+            self.assertEqual(obj.hello, "hello")
+            self.assertEqual(obj.other, 1)
+            with self.assertRaises(AttributeError):
+                obj.world
+            obj.world = 2
+            self.assertEqual(obj.world, 2)
+        self.assertEqual(C().__dict__, {})
+
+    def test_slot_values_are_per_instance(self):
+        objs = [A() for i in range(10)]
+        for i, obj in enumerate(objs):
+            obj.world = i
+        self.assertEqual([obj.world for obj in objs], list(range(10)))
+
 
 if __name__ == "__main__":
     unittest.main()
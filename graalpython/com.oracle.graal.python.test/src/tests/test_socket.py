@@ -0,0 +1,185 @@
+# Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+import select
+import socket
+import threading
+import unittest
+
+
+def _server():
+    srv = socket.socket(socket.AF_INET, socket.SOCK_STREAM)
+    srv.setsockopt(socket.SOL_SOCKET, socket.SO_REUSEADDR, 1)
+    srv.bind(("127.0.0.1", 0))
+    srv.listen()
+    return srv
+
+
+class SocketTests(unittest.TestCase):
+
+    def test_send_recv(self):
+        srv = _server()
+        try:
+            cli = socket.create_connection(srv.getsockname())
+            conn, addr = srv.accept()
+            try:
+                self.assertEqual(addr, cli.getsockname())
+                cli.sendall(b"hello world")
+                data = b""
+                while len(data) < 11:
+                    data += conn.recv(64)
+                self.assertEqual(data, b"hello world")
+                buf = bytearray(5)
+                conn.send(b"abc")
+                n = cli.recv_into(buf)
+                self.assertEqual(buf[:n], b"abc"[:n])
+                cli.shutdown(socket.SHUT_WR)
+                self.assertEqual(conn.recv(64), b"")
+            finally:
+                conn.close()
+                cli.close()
+        finally:
+            srv.close()
+
+    def test_fileno_and_close(self):
+        s = socket.socket()
+        fd = s.fileno()
+        self.assertGreaterEqual(fd, 0)
+        s.close()
+        self.assertEqual(s.fileno(), -1)
+        s.close()
+
+    def test_timeout(self):
+        srv = _server()
+        try:
+            self.assertIsNone(srv.gettimeout())
+            srv.settimeout(0.05)
+            self.assertEqual(srv.gettimeout(), 0.05)
+            self.assertRaises(socket.timeout, srv.accept)
+            srv.setblocking(False)
+            self.assertEqual(srv.gettimeout(), 0.0)
+            self.assertRaises(BlockingIOError, srv.accept)
+        finally:
+            srv.close()
+
+    def test_connect_refused(self):
+        srv = _server()
+        address = srv.getsockname()
+        srv.close()
+        s = socket.socket()
+        try:
+            self.assertRaises(ConnectionRefusedError, s.connect, address)
+        finally:
+            s.close()
+
+    def test_sockopt(self):
+        s = socket.socket()
+        try:
+            s.setsockopt(socket.IPPROTO_TCP, socket.TCP_NODELAY, 1)
+            self.assertTrue(s.getsockopt(socket.IPPROTO_TCP, socket.TCP_NODELAY))
+            self.assertEqual(s.getsockopt(socket.SOL_SOCKET, socket.SO_TYPE), socket.SOCK_STREAM)
+        finally:
+            s.close()
+
+    def test_udp(self):
+        a = socket.socket(socket.AF_INET, socket.SOCK_DGRAM)
+        b = socket.socket(socket.AF_INET, socket.SOCK_DGRAM)
+        try:
+            a.bind(("127.0.0.1", 0))
+            b.sendto(b"ping", a.getsockname())
+            data, addr = a.recvfrom(16)
+            self.assertEqual(data, b"ping")
+            self.assertEqual(addr[1], b.getsockname()[1])
+        finally:
+            a.close()
+            b.close()
+
+
+class SelectTests(unittest.TestCase):
+
+    def test_select(self):
+        srv = _server()
+        try:
+            r, w, x = select.select([srv], [], [], 0)
+            self.assertEqual(r, [])
+            cli = socket.create_connection(srv.getsockname())
+            r, w, x = select.select([srv], [], [], 5)
+            self.assertEqual(r, [srv])
+            conn, _ = srv.accept()
+            try:
+                r, w, x = select.select([conn], [cli], [], 5)
+                self.assertEqual((r, w), ([], [cli]))
+                cli.send(b"x")
+                r, w, x = select.select([conn.fileno()], [], [], 5)
+                self.assertEqual(r, [conn.fileno()])
+            finally:
+                conn.close()
+                cli.close()
+        finally:
+            srv.close()
+
+    def test_select_blocks_until_data(self):
+        srv = _server()
+        try:
+            cli = socket.create_connection(srv.getsockname())
+            conn, _ = srv.accept()
+            t = threading.Timer(0.05, lambda: cli.send(b"late"))
+            t.start()
+            r, _, _ = select.select([conn], [], [], 5)
+            self.assertEqual(r, [conn])
+            self.assertEqual(conn.recv(16), b"late")
+            t.join()
+            conn.close()
+            cli.close()
+        finally:
+            srv.close()
+
+    def test_poll(self):
+        srv = _server()
+        try:
+            p = select.poll()
+            p.register(srv, select.POLLIN)
+            self.assertEqual(p.poll(0), [])
+            cli = socket.create_connection(srv.getsockname())
+            self.assertEqual(p.poll(5000), [(srv.fileno(), select.POLLIN)])
+            p.unregister(srv)
+            self.assertRaises(KeyError, p.unregister, srv)
+            cli.close()
+        finally:
+            srv.close()
@@ -13,6 +13,16 @@ class MyIndexable(object):
     def __index__(self):
         return self.value
 
+
+def assert_raises(err, fn, *args, **kwargs):
+    raised = False
+    try:
+        fn(*args, **kwargs)
+    except err:
+        raised = True
+    assert raised
+
+
 def test_find():
     assert "teststring".find("test") == 0
     assert "teststring".find("string") == 4
@@ -58,6 +68,68 @@ def test_find():
 def test_rfind():
     assert "test string test".rfind("test") == 12
     assert "test string test".rfind("string") == 5
+    assert "test string test".rfind("test", 0, 15) == 0
+    assert "test string test".rfind("t", -5, -1) == 12
+    assert "test".rfind("") == 4
+    assert "test".rfind("", 2) == 4
+    assert "test".rfind("", 5) == -1
+
+
+def test_find_empty():
+    assert "abc".find("", 3) == 3
+    assert "abc".find("", 4) == -1
+    assert "abc".find("", -10) == 0
+    assert "".find("") == 0
+
+
+def test_find_long_needle():
+    s = "ab" * 100 + "abc" + "ab" * 100
+    assert s.find("ababc") == 198
+    assert s.rfind("abcab") == 200
+    assert s.find("abcd") == -1
+    assert s.rfind("ababab", 0, 10) == 4
+    assert ("x" * 50).find("x" * 51) == -1
+
+
+def test_index():
+    assert "test string test".index("test", 1) == 12
+    assert "test string test".rindex("test", 0, 15) == 0
+    assert_raises(ValueError, "test".index, "x")
+    assert_raises(ValueError, "test".rindex, "t", 1, 3)
+
+
+def test_str_count():
+    assert "aaaa".count("aa") == 2
+    assert "abcabc".count("bc", 2) == 1
+    assert "abcabc".count("c", -4, -1) == 1
+    assert "abc".count("") == 4
+    assert "abc".count("", 1, 2) == 2
+    assert "abc".count("", 4) == 0
+
+
+def test_replace():
+    assert "a.b.c".replace(".", "*") == "a*b*c"
+    assert "a.b.c".replace(".", "*", 1) == "a*b.c"
+    assert "a.b.c".replace(".", "*", -1) == "a*b*c"
+    assert "a.b.c".replace(".", "*", 0) == "a.b.c"
+    assert "aaa".replace("a", "bb") == "bbbbbb"
+    assert "abcabc".replace("bc", "") == "aa"
+    assert "abc".replace("", "-") == "-a-b-c-"
+    assert "abc".replace("", "-", 2) == "-a-bc"
+    assert "".replace("", "x") == "x"
+    assert "abc".replace("x", "y") == "abc"
+
+
+def test_split_separator():
+    assert "a,b,".split(",") == ["a", "b", ""]
+    assert ",a,,b".split(",") == ["", "a", "", "b"]
+    assert "a::b::c".split("::", 1) == ["a", "b::c"]
+    assert "a::b::c".rsplit("::", 1) == ["a::b", "c"]
+    assert ",a,".rsplit(",") == ["", "a", ""]
+    assert "a b  c ".rsplit(None, 1) == ["a b", "c"]
+    assert " a b".rsplit() == ["a", "b"]
+    assert "a".rsplit() == ["a"]
+    assert " ".rsplit() == []
     assert "test string".rfind("test", 5) == -1
     assert "test string test".rfind("test", None, 12) == 0
     assert "test string test".rfind("test", 4) == 12
@@ -134,6 +206,12 @@ def test_join0():
         assert type(e) is TypeError, str(e)
 
     assert ', '.join(["hello", "world"]) == "hello, world"
+    assert ', '.join(("hello", "world")) == "hello, world"
+    assert '-'.join([]) == ""
+    assert '-'.join(["a"]) == "a"
+    assert '-'.join("abc") == "a-b-c"
+    assert ''.join(["a", "b", "c"]) == "abc"
+    assert_raises(TypeError, ", ".join, ["a", 1])
 
 
 def test_join1():
@@ -0,0 +1,148 @@
+# Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+import mmap
+import struct
+import unittest
+
+
+class StructTest(unittest.TestCase):
+
+    def test_calcsize(self):
+        self.assertEqual(struct.calcsize('ci'), 8)
+        self.assertEqual(struct.calcsize('ic'), 5)
+        self.assertEqual(struct.calcsize('bq'), 16)
+        self.assertEqual(struct.calcsize('<bq'), 9)
+        self.assertEqual(struct.calcsize('<2h 3x e'), 9)
+        self.assertEqual(struct.calcsize(b'>I'), 4)
+
+    def test_pack_unpack(self):
+        self.assertEqual(struct.pack('<hIq', -2, 3, 1 << 40), b'\xfe\xff\x03\x00\x00\x00\x00\x00\x00\x00\x00\x01\x00\x00')
+        self.assertEqual(struct.pack('>i?c', 1, [], b'x'), b'\x00\x00\x00\x01\x00x')
+        self.assertEqual(struct.unpack('<hIq', b'\xfe\xff\x03\x00\x00\x00\x00\x00\x00\x00\x00\x01\x00\x00'), (-2, 3, 1 << 40))
+        self.assertEqual(struct.unpack('!Q', b'\xff' * 8), ((1 << 64) - 1,))
+        self.assertEqual(struct.pack('!Q', (1 << 64) - 1), b'\xff' * 8)
+        self.assertEqual(struct.unpack('<2x?', b'\x00\x00\x05'), (True,))
+
+    def test_floats(self):
+        for fmt in ('<e', '<f', '<d', '>e', '>f', '>d'):
+            for value in (0.0, -0.0, 1.5, -2.25, 65504.0, float('inf')):
+                self.assertEqual(struct.unpack(fmt, struct.pack(fmt, value))[0], value)
+        self.assertEqual(struct.pack('<e', 1.0), b'\x00\x3c')
+        self.assertEqual(struct.pack('<e', 5.960464477539063e-08), b'\x01\x00')
+        self.assertEqual(struct.unpack('<e', b'\x00\x7e')[0] != struct.unpack('<e', b'\x00\x7e')[0], True)
+        self.assertRaises(OverflowError, struct.pack, '<e', 65520.0)
+        self.assertRaises(OverflowError, struct.pack, '<f', 1e300)
+        self.assertRaises(struct.error, struct.pack, 'd', 'x')
+
+    def test_strings(self):
+        self.assertEqual(struct.pack('3s', b'a'), b'a\x00\x00')
+        self.assertEqual(struct.pack('3s', b'abcd'), b'abc')
+        self.assertEqual(struct.pack('5p', b'abcdefg'), b'\x04abcd')
+        self.assertEqual(struct.unpack('5p', b'\x02abcd'), (b'ab',))
+        self.assertEqual(struct.unpack('2s', bytearray(b'xy')), (b'xy',))
+        self.assertRaises(struct.error, struct.pack, '2s', 'ab')
+        self.assertRaises(struct.error, struct.pack, 'c', b'ab')
+
+    def test_integer_errors(self):
+        self.assertRaises(struct.error, struct.pack, 'b', 128)
+        self.assertRaises(struct.error, struct.pack, 'B', -1)
+        self.assertRaises(struct.error, struct.pack, '<H', 1 << 16)
+        self.assertRaises(struct.error, struct.pack, '<I', 1 << 32)
+        self.assertRaises(struct.error, struct.pack, '<q', 1 << 63)
+        self.assertRaises(struct.error, struct.pack, '<Q', -1)
+        self.assertRaises(struct.error, struct.pack, 'i', 1.0)
+        with self.assertRaisesRegex(struct.error, "byte format requires -128 <= number <= 127"):
+            struct.pack('b', -129)
+        with self.assertRaisesRegex(struct.error, "'I' format requires 0 <= number <= 4294967295"):
+            struct.pack('I', 1 << 32)
+
+        class Index:
+            def __index__(self):
+                return 7
+
+        self.assertEqual(struct.pack('<h', Index()), b'\x07\x00')
+
+    def test_format_errors(self):
+        self.assertRaises(struct.error, struct.calcsize, 'z')
+        self.assertRaises(struct.error, struct.calcsize, '3')
+        self.assertRaises(struct.error, struct.calcsize, '<n')
+        self.assertRaises(TypeError, struct.calcsize, 3)
+        with self.assertRaisesRegex(struct.error, "pack expected 2 items for packing \\(got 1\\)"):
+            struct.pack('hh', 1)
+        with self.assertRaisesRegex(struct.error, "unpack requires a buffer of 4 bytes"):
+            struct.unpack('i', b'abc')
+
+    def test_struct(self):
+        s = struct.Struct('<hd')
+        self.assertEqual(s.format, '<hd')
+        self.assertEqual(s.size, 10)
+        self.assertEqual(s.unpack(s.pack(3, 0.5)), (3, 0.5))
+        self.assertEqual(struct.Struct(b'>h').format, '>h')
+
+    def test_pack_into_unpack_from(self):
+        buf = bytearray(10)
+        struct.pack_into('<hh', buf, 2, 1, -1)
+        self.assertEqual(buf, bytearray(b'\x00\x00\x01\x00\xff\xff\x00\x00\x00\x00'))
+        struct.Struct('<h').pack_into(buf, -2, 5)
+        self.assertEqual(buf[-2:], b'\x05\x00')
+        self.assertEqual(struct.unpack_from('<hh', buf, 2), (1, -1))
+        self.assertEqual(struct.unpack_from('<h', buf, offset=-2), (5,))
+        self.assertEqual(struct.unpack_from('<h', bytes(buf)), (0,))
+        self.assertRaises(struct.error, struct.pack_into, '<i', buf, 8, 1)
+        self.assertRaises(struct.error, struct.unpack_from, '<i', buf, 8)
+        self.assertRaises(TypeError, struct.pack_into, '<i', bytes(4), 0, 1)
+
+    def test_mmap(self):
+        m = mmap.mmap(-1, 16)
+        try:
+            struct.pack_into('>Id', m, 4, 0xdeadbeef, 2.5)
+            self.assertEqual(m[4:8], b'\xde\xad\xbe\xef')
+            self.assertEqual(struct.unpack_from('>Id', m, 4), (0xdeadbeef, 2.5))
+        finally:
+            m.close()
+
+    def test_iter_unpack(self):
+        it = struct.iter_unpack('<h', b'\x01\x00\x02\x00\x03\x00')
+        self.assertEqual(it.__length_hint__(), 3)
+        self.assertEqual(next(it), (1,))
+        self.assertEqual(it.__length_hint__(), 2)
+        self.assertEqual(list(it), [(2,), (3,)])
+        self.assertRaises(struct.error, struct.iter_unpack, '<h', b'\x00')
+        self.assertRaises(struct.error, struct.iter_unpack, '', b'')
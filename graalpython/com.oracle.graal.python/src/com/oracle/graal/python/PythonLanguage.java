@@ -27,12 +27,16 @@ package com.oracle.graal.python;
 
 import java.io.IOException;
 import java.net.URL;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 
 import org.graalvm.options.OptionDescriptors;
+import org.graalvm.options.OptionKey;
+import org.graalvm.options.OptionValues;
 
 import com.oracle.graal.python.builtins.Python3Core;
 import com.oracle.graal.python.builtins.objects.PNone;
@@ -92,7 +96,7 @@ import com.oracle.truffle.api.source.Source;
 import com.oracle.truffle.api.source.Source.SourceBuilder;
 import com.oracle.truffle.api.source.SourceSection;
 
-@TruffleLanguage.Registration(id = PythonLanguage.ID, name = PythonLanguage.NAME, version = PythonLanguage.VERSION, characterMimeTypes = PythonLanguage.MIME_TYPE, interactive = true, internal = false, contextPolicy = TruffleLanguage.ContextPolicy.SHARED)
+@TruffleLanguage.Registration(id = PythonLanguage.ID, name = PythonLanguage.NAME, version = PythonLanguage.VERSION, characterMimeTypes = {PythonLanguage.MIME_TYPE, PythonLanguage.CONTEXT_STATE_MIME_TYPE}, interactive = true, internal = false, contextPolicy = TruffleLanguage.ContextPolicy.SHARED)
 @ProvidedTags({StandardTags.CallTag.class, StandardTags.StatementTag.class, StandardTags.RootTag.class, StandardTags.TryBlockTag.class, StandardTags.ExpressionTag.class,
                 DebuggerTags.AlwaysHalt.class})
 public final class PythonLanguage extends TruffleLanguage<PythonContext> {
@@ -104,6 +108,12 @@ public final class PythonLanguage extends TruffleLanguage<PythonContext> {
     public static final String VERSION = MAJOR + "." + MINOR + "." + MICRO;
 
     public static final String MIME_TYPE = "text/x-python";
+    /**
+     * Sources of this MIME type contain {@code checkpoint} or {@code reset} and run
+     * {@link PythonContext#checkpoint()} or {@link PythonContext#reset()}, for embedders that pool
+     * contexts. Guest code cannot evaluate them.
+     */
+    public static final String CONTEXT_STATE_MIME_TYPE = "text/x-python-context-state";
     public static final String EXTENSION = ".py";
 
     public Assumption singleContextAssumption = Truffle.getRuntime().createAssumption("Only a single context is active");
@@ -239,6 +249,9 @@ public final class PythonLanguage extends TruffleLanguage<PythonContext> {
         PythonCore core = context.getCore();
         Source source = request.getSource();
         CompilerDirectives.transferToInterpreter();
+        if (CONTEXT_STATE_MIME_TYPE.equals(source.getMimeType())) {
+            return Truffle.getRuntime().createCallTarget(new ContextStateRootNode(this, source.getCharacters().toString().trim()));
+        }
         if (core.isInitialized()) {
             context.initializeMainModule(source.getPath());
         }
@@ -250,6 +263,34 @@ public final class PythonLanguage extends TruffleLanguage<PythonContext> {
         }
     }
 
+    /**
+     * Records or restores the state of the context, see {@link #CONTEXT_STATE_MIME_TYPE}. It does
+     * not look up any names, so guest code cannot change what it does.
+     */
+    private static final class ContextStateRootNode extends RootNode {
+        private final ContextReference<PythonContext> contextRef;
+        private final boolean isReset;
+
+        ContextStateRootNode(PythonLanguage language, String command) {
+            super(language);
+            if (!"checkpoint".equals(command) && !"reset".equals(command)) {
+                throw new IllegalArgumentException("expected 'checkpoint' or 'reset', got: " + command);
+            }
+            this.contextRef = language.getContextReference();
+            this.isReset = "reset".equals(command);
+        }
+
+        @Override
+        public Object execute(VirtualFrame frame) {
+            PythonContext context = contextRef.get();
+            if (isReset) {
+                return context.reset();
+            }
+            context.checkpoint();
+            return PNone.NONE;
+        }
+    }
+
     private RootNode doParse(PythonContext context, Source source) {
         ParserMode mode = null;
         if (source.isInteractive()) {
@@ -529,10 +570,144 @@ public final class PythonLanguage extends TruffleLanguage<PythonContext> {
         singleContextAssumption.invalidate();
     }
 
-    private final ConcurrentHashMap<String, PCode> cachedCode = new ConcurrentHashMap<>();
+    /**
+     * Python options that are read while building or specializing ASTs. Contexts that disagree on
+     * any of them cannot share a language instance, because the code and call targets cached here
+     * are shared by all contexts of the language.
+     */
+    private static final OptionKey<?>[] AST_OPTIONS = new OptionKey<?>[]{
+                    PythonOptions.CoreHome,
+                    PythonOptions.ExposeInternalSources,
+                    PythonOptions.CatchAllExceptions,
+                    PythonOptions.IntrinsifyBuiltinCalls,
+                    PythonOptions.AttributeAccessInlineCacheMaxDepth,
+                    PythonOptions.CallSiteInlineCacheMaxDepth,
+                    PythonOptions.VariableArgumentReadUnrollingLimit,
+                    PythonOptions.VariableArgumentInlineCacheLimit,
+                    PythonOptions.ForceInlineGeneratorCalls,
+                    PythonOptions.LazyStrings,
+                    PythonOptions.MinLazyStringLength,
+                    PythonOptions.EnableForcedSplits,
+    };
+
+    @Override
+    protected boolean areOptionsCompatible(OptionValues firstOptions, OptionValues newOptions) {
+        for (OptionKey<?> key : AST_OPTIONS) {
+            if (!firstOptions.get(key).equals(newOptions.get(key))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final class CachedCode {
+        private final String validator;
+        private final RootCallTarget callTarget;
+
+        private CachedCode(String validator, RootCallTarget callTarget) {
+            this.validator = validator;
+            this.callTarget = callTarget;
+        }
+    }
+
+    /**
+     * Call targets of parsed modules, shared by all contexts of this language. The ASTs do not
+     * reference any context, so each context only wraps the call target into its own code object.
+     * There is one entry per module; its validator identifies the version of the module's source,
+     * and an entry whose validator does not match is replaced, so the cache does not grow when a
+     * module changes.
+     */
+    private final ConcurrentHashMap<String, CachedCode> cachedCode = new ConcurrentHashMap<>();
 
-    public PCode cacheCode(String filename, Supplier<PCode> createCode) {
-        return cachedCode.computeIfAbsent(filename, f -> createCode.get());
+    public RootCallTarget cacheCode(String key, Supplier<RootNode> parse) {
+        return cacheCode(key, "", parse);
+    }
+
+    public RootCallTarget cacheCode(String key, String validator, Supplier<RootNode> parse) {
+        return cachedCode.compute(key, (k, entry) -> {
+            if (entry != null && entry.validator.equals(validator)) {
+                return entry;
+            }
+            return new CachedCode(validator, Truffle.getRuntime().createCallTarget(parse.get()));
+        }).callTarget;
+    }
+
+    public boolean isCodeCached(String filename) {
+        return cachedCode.containsKey(filename);
+    }
+
+    /**
+     * Returns the cached call target for the given key if it was cached with the given validator,
+     * or {@code null}.
+     */
+    @TruffleBoundary
+    public RootCallTarget getCachedCode(String key, String validator) {
+        CachedCode entry = cachedCode.get(key);
+        return entry != null && entry.validator.equals(validator) ? entry.callTarget : null;
+    }
+
+    @TruffleBoundary
+    public void cacheCode(String key, String validator, RootCallTarget callTarget) {
+        cachedCode.put(key, new CachedCode(validator, callTarget));
+    }
+
+    public int getCodeCacheSize() {
+        return cachedCode.size();
+    }
+
+    private static final class DirectoryListing {
+        private final double mtime;
+        private final String[] names;
+
+        private DirectoryListing(double mtime, String[] names) {
+            this.mtime = mtime;
+            this.names = names;
+        }
+    }
+
+    /**
+     * The entries of directories on the import path, shared by all contexts so that each context
+     * does not list every directory again when it starts importing.
+     */
+    private final ConcurrentHashMap<String, DirectoryListing> cachedListings = new ConcurrentHashMap<>();
+
+    /**
+     * Returns a copy of the cached entries of the given directory if they were listed at the given
+     * modification time, or {@code null}.
+     */
+    @TruffleBoundary
+    public Object[] getCachedListing(String path, double mtime) {
+        DirectoryListing listing = cachedListings.get(path);
+        if (listing == null || listing.mtime != mtime) {
+            return null;
+        }
+        Object[] names = new Object[listing.names.length];
+        System.arraycopy(listing.names, 0, names, 0, names.length);
+        return names;
+    }
+
+    @TruffleBoundary
+    public void cacheListing(String path, double mtime, String[] names) {
+        cachedListings.put(path, new DirectoryListing(mtime, names));
+    }
+
+    /**
+     * Returns a validator for {@link #cacheCode} that identifies a version of a module by its parser
+     * mode and contents, so that every context that loads the same source shares the parsed code.
+     */
+    @TruffleBoundary
+    public static String codeDigest(ParserMode mode, byte[] content) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(content);
+            StringBuilder sb = new StringBuilder(hash.length * 2 + 16);
+            sb.append(mode.name()).append(':');
+            for (byte b : hash) {
+                sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 
     public static Shape freshShape() {
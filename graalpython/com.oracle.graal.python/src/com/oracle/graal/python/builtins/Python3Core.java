@@ -40,7 +40,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.ServiceLoader;
-import java.util.function.Supplier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 
 import org.graalvm.nativeimage.ImageInfo;
@@ -50,36 +53,49 @@ import com.oracle.graal.python.builtins.modules.ArrayModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.AstModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.AtexitModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.BinasciiModuleBuiltins;
+import com.oracle.graal.python.builtins.modules.BisectModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.BuiltinConstructors;
 import com.oracle.graal.python.builtins.modules.BuiltinFunctions;
+import com.oracle.graal.python.builtins.modules.CSVModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.CodecsModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.CollectionsModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.CtypesModuleBuiltins;
+import com.oracle.graal.python.builtins.modules.DateTimeModuleBuiltins;
+import com.oracle.graal.python.builtins.modules.DecimalModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.ErrnoModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.FaulthandlerModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.FcntlModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.FunctoolsModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.GcModuleBuiltins;
+import com.oracle.graal.python.builtins.modules.HeapqModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.IOModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.ImpModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.InteropModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.ItertoolsModuleBuiltins;
+import com.oracle.graal.python.builtins.modules.JSONModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.JavaModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.LocaleModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.MMapModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.MarshalModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.MathModuleBuiltins;
+import com.oracle.graal.python.builtins.modules.Md5ModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.OperatorModuleBuiltins;
+import com.oracle.graal.python.builtins.modules.PickleModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.PosixModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.PosixSubprocessModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.PyExpatModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.RandomModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.ReadlineModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.SREModuleBuiltins;
+import com.oracle.graal.python.builtins.modules.SamplingProfilerModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.SelectModuleBuiltins;
+import com.oracle.graal.python.builtins.modules.Sha1ModuleBuiltins;
+import com.oracle.graal.python.builtins.modules.Sha256ModuleBuiltins;
+import com.oracle.graal.python.builtins.modules.Sha512ModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.SignalModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.SocketModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.StringModuleBuiltins;
+import com.oracle.graal.python.builtins.modules.StructModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.SysConfigModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.SysModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.ThreadModuleBuiltins;
@@ -96,8 +112,17 @@ import com.oracle.graal.python.builtins.objects.bytes.ByteArrayBuiltins;
 import com.oracle.graal.python.builtins.objects.bytes.BytesBuiltins;
 import com.oracle.graal.python.builtins.objects.cell.CellBuiltins;
 import com.oracle.graal.python.builtins.objects.code.CodeBuiltins;
-import com.oracle.graal.python.builtins.objects.code.PCode;
 import com.oracle.graal.python.builtins.objects.complex.ComplexBuiltins;
+import com.oracle.graal.python.builtins.objects.csv.CSVReaderBuiltins;
+import com.oracle.graal.python.builtins.objects.csv.CSVWriterBuiltins;
+import com.oracle.graal.python.builtins.objects.datetime.DateBuiltins;
+import com.oracle.graal.python.builtins.objects.datetime.DateTimeBuiltins;
+import com.oracle.graal.python.builtins.objects.datetime.TimeBuiltins;
+import com.oracle.graal.python.builtins.objects.datetime.TimeDeltaBuiltins;
+import com.oracle.graal.python.builtins.objects.decimal.DecimalBuiltins;
+import com.oracle.graal.python.builtins.objects.decimal.DecimalContextBuiltins;
+import com.oracle.graal.python.builtins.objects.deque.DequeBuiltins;
+import com.oracle.graal.python.builtins.objects.deque.DequeIterBuiltins;
 import com.oracle.graal.python.builtins.objects.dict.DictBuiltins;
 import com.oracle.graal.python.builtins.objects.dict.DictItemsIteratorBuiltins;
 import com.oracle.graal.python.builtins.objects.dict.DictKeysIteratorBuiltins;
@@ -105,6 +130,7 @@ import com.oracle.graal.python.builtins.objects.dict.DictValuesBuiltins;
 import com.oracle.graal.python.builtins.objects.dict.DictValuesIteratorBuiltins;
 import com.oracle.graal.python.builtins.objects.dict.DictViewBuiltins;
 import com.oracle.graal.python.builtins.objects.dict.PDict;
+import com.oracle.graal.python.builtins.objects.digest.DigestBuiltins;
 import com.oracle.graal.python.builtins.objects.enumerate.EnumerateBuiltins;
 import com.oracle.graal.python.builtins.objects.exception.BaseExceptionBuiltins;
 import com.oracle.graal.python.builtins.objects.exception.PBaseException;
@@ -120,10 +146,20 @@ import com.oracle.graal.python.builtins.objects.generator.GeneratorBuiltins;
 import com.oracle.graal.python.builtins.objects.getsetdescriptor.GetSetDescriptorTypeBuiltins;
 import com.oracle.graal.python.builtins.objects.ints.IntBuiltins;
 import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.io.BufferedIOBuiltins;
+import com.oracle.graal.python.builtins.objects.io.BufferedReaderBuiltins;
+import com.oracle.graal.python.builtins.objects.io.BufferedWriterBuiltins;
+import com.oracle.graal.python.builtins.objects.io.TextIOWrapperBuiltins;
 import com.oracle.graal.python.builtins.objects.iterator.ForeignIteratorBuiltins;
 import com.oracle.graal.python.builtins.objects.iterator.IteratorBuiltins;
 import com.oracle.graal.python.builtins.objects.iterator.PZipBuiltins;
 import com.oracle.graal.python.builtins.objects.iterator.SentinelIteratorBuiltins;
+import com.oracle.graal.python.builtins.objects.itertools.ChainBuiltins;
+import com.oracle.graal.python.builtins.objects.itertools.CountBuiltins;
+import com.oracle.graal.python.builtins.objects.itertools.ItertoolsBuiltins;
+import com.oracle.graal.python.builtins.objects.itertools.RepeatBuiltins;
+import com.oracle.graal.python.builtins.objects.json.JSONEncoderBuiltins;
+import com.oracle.graal.python.builtins.objects.json.JSONScannerBuiltins;
 import com.oracle.graal.python.builtins.objects.list.ListBuiltins;
 import com.oracle.graal.python.builtins.objects.mappingproxy.MappingproxyBuiltins;
 import com.oracle.graal.python.builtins.objects.memoryview.BufferBuiltins;
@@ -138,16 +174,22 @@ import com.oracle.graal.python.builtins.objects.mmap.MMapBuiltins;
 import com.oracle.graal.python.builtins.objects.module.PythonModule;
 import com.oracle.graal.python.builtins.objects.object.ObjectBuiltins;
 import com.oracle.graal.python.builtins.objects.object.PythonObject;
+import com.oracle.graal.python.builtins.objects.pickle.PicklerBuiltins;
+import com.oracle.graal.python.builtins.objects.pickle.UnpicklerBuiltins;
 import com.oracle.graal.python.builtins.objects.posix.DirEntryBuiltins;
 import com.oracle.graal.python.builtins.objects.posix.ScandirIteratorBuiltins;
 import com.oracle.graal.python.builtins.objects.random.RandomBuiltins;
 import com.oracle.graal.python.builtins.objects.range.RangeBuiltins;
 import com.oracle.graal.python.builtins.objects.referencetype.ReferenceTypeBuiltins;
 import com.oracle.graal.python.builtins.objects.reversed.ReversedBuiltins;
+import com.oracle.graal.python.builtins.objects.select.PollBuiltins;
 import com.oracle.graal.python.builtins.objects.set.FrozenSetBuiltins;
 import com.oracle.graal.python.builtins.objects.set.SetBuiltins;
 import com.oracle.graal.python.builtins.objects.slice.SliceBuiltins;
+import com.oracle.graal.python.builtins.objects.socket.SocketBuiltins;
 import com.oracle.graal.python.builtins.objects.str.StringBuiltins;
+import com.oracle.graal.python.builtins.objects.struct.StructBuiltins;
+import com.oracle.graal.python.builtins.objects.struct.StructUnpackIteratorBuiltins;
 import com.oracle.graal.python.builtins.objects.superobject.SuperBuiltins;
 import com.oracle.graal.python.builtins.objects.thread.LockBuiltins;
 import com.oracle.graal.python.builtins.objects.thread.RLockBuiltins;
@@ -181,6 +223,8 @@ import com.oracle.truffle.api.source.SourceSection;
  * types.
  */
 public final class Python3Core implements PythonCore {
+    private static final int MAX_PARSER_THREADS = 4;
+
     private final String[] coreFiles;
 
     private static final String[] initializeCoreFiles() {
@@ -227,7 +271,12 @@ public final class Python3Core implements PythonCore {
                         "termios",
                         "zipimport",
                         "mmap",
-                        "_ast"));
+                        "_ast",
+                        "_pickle",
+                        "_csv",
+                        "_datetime",
+                        "_decimal",
+                        "_struct"));
 
         return coreFiles.toArray(new String[coreFiles.size()]);
     }
@@ -299,17 +348,56 @@ public final class Python3Core implements PythonCore {
                         new WeakRefModuleBuiltins(),
                         new ReferenceTypeBuiltins(),
                         new IOModuleBuiltins(),
+                        new BufferedIOBuiltins(),
+                        new BufferedReaderBuiltins(),
+                        new BufferedWriterBuiltins(),
+                        new TextIOWrapperBuiltins(),
                         new StringModuleBuiltins(),
                         new ItertoolsModuleBuiltins(),
                         new FunctoolsModuleBuiltins(),
                         new ErrnoModuleBuiltins(),
                         new CodecsModuleBuiltins(),
                         new CollectionsModuleBuiltins(),
+                        new DequeBuiltins(),
+                        new DequeIterBuiltins(),
+                        new ItertoolsBuiltins(),
+                        new ChainBuiltins(),
+                        new CountBuiltins(),
+                        new RepeatBuiltins(),
                         new JavaModuleBuiltins(),
                         new SREModuleBuiltins(),
                         new AstModuleBuiltins(),
                         new SelectModuleBuiltins(),
                         new SocketModuleBuiltins(),
+                        new Md5ModuleBuiltins(),
+                        new Sha1ModuleBuiltins(),
+                        new Sha256ModuleBuiltins(),
+                        new Sha512ModuleBuiltins(),
+                        new DigestBuiltins(),
+                        new SocketBuiltins(),
+                        new PollBuiltins(),
+                        new JSONModuleBuiltins(),
+                        new JSONScannerBuiltins(),
+                        new JSONEncoderBuiltins(),
+                        new PickleModuleBuiltins(),
+                        new PicklerBuiltins(),
+                        new UnpicklerBuiltins(),
+                        new HeapqModuleBuiltins(),
+                        new BisectModuleBuiltins(),
+                        new CSVModuleBuiltins(),
+                        new CSVReaderBuiltins(),
+                        new CSVWriterBuiltins(),
+                        new DateTimeModuleBuiltins(),
+                        new TimeDeltaBuiltins(),
+                        new DateBuiltins(),
+                        new TimeBuiltins(),
+                        new DateTimeBuiltins(),
+                        new DecimalModuleBuiltins(),
+                        new DecimalBuiltins(),
+                        new DecimalContextBuiltins(),
+                        new StructModuleBuiltins(),
+                        new StructBuiltins(),
+                        new StructUnpackIteratorBuiltins(),
                         new SignalModuleBuiltins(),
                         new TracebackBuiltins(),
                         new GcModuleBuiltins(),
@@ -318,6 +406,7 @@ public final class Python3Core implements PythonCore {
                         new UnicodeDataModuleBuiltins(),
                         new LocaleModuleBuiltins(),
                         new SysModuleBuiltins(),
+                        new SamplingProfilerModuleBuiltins(),
                         new BufferBuiltins(),
                         new MemoryviewBuiltins(),
                         new SuperBuiltins(),
@@ -372,6 +461,23 @@ public final class Python3Core implements PythonCore {
 
     private final PythonObjectFactory factory = PythonObjectFactory.create();
 
+    /*
+     * Pending parse results of the core files, see parseCoreFilesAhead. Only accessed from the
+     * initializing thread.
+     */
+    private final Map<String, ParsedAhead> parsedCoreFiles = new HashMap<>();
+
+    /** A core file whose grammar parse was started on a parser thread. */
+    private static final class ParsedAhead {
+        private final Source source;
+        private final Future<Object> parseTree;
+
+        ParsedAhead(Source source, Future<Object> parseTree) {
+            this.source = source;
+            this.parseTree = parseTree;
+        }
+    }
+
     public Python3Core(PythonParser parser, Env env) {
         this.parser = parser;
         this.builtins = initializeBuiltins(env);
@@ -400,6 +506,7 @@ public final class Python3Core implements PythonCore {
 
     public void initialize(PythonContext context) {
         singletonContext = context;
+        parseCoreFilesAhead(PythonCore.getCoreHomeOrFail());
         initializeJavaCore();
         initializePythonCore();
         initialized = true;
@@ -432,6 +539,7 @@ public final class Python3Core implements PythonCore {
             }
 
             loadFile(__BUILTINS_PATCHES__, PythonCore.getCoreHomeOrFail());
+            parsedCoreFiles.clear();
 
             initialized = true;
         }
@@ -627,10 +735,62 @@ public final class Python3Core implements PythonCore {
         }
     }
 
+    /**
+     * Starts parsing the core files on background threads, so that the ANTLR parse of later files
+     * overlaps with the setup of the Java core and the execution of the earlier files. Only the
+     * grammar parse runs there, since creating the nodes needs the context; the trees are
+     * translated on the initializing thread. Files whose code is already cached in the language,
+     * because another context of the engine loaded them, are skipped. In a native image the core
+     * is part of the pre-initialized context, so nothing is parsed here.
+     */
+    private void parseCoreFilesAhead(String coreHome) {
+        int threads = Math.min(Runtime.getRuntime().availableProcessors() - 1, MAX_PARSER_THREADS);
+        if (threads <= 0 || ImageInfo.inImageCode()) {
+            return;
+        }
+        List<String> names = new ArrayList<>(coreFiles.length + 2);
+        names.add("builtins");
+        names.addAll(Arrays.asList(coreFiles));
+        names.add(__BUILTINS_PATCHES__);
+        ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "python-core-parser");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            for (String name : names) {
+                if (!parsedCoreFiles.containsKey(name) && !getLanguage().isCodeCached(name)) {
+                    Source source = getSource(name, coreHome);
+                    parsedCoreFiles.put(name, new ParsedAhead(source, executor.submit(() -> getParser().parseFileAhead(source))));
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private RootNode parseCoreFile(String s, String prefix) {
+        ParsedAhead parsed = parsedCoreFiles.remove(s);
+        if (parsed != null) {
+            try {
+                Object parseTree = parsed.parseTree.get();
+                if (parseTree != null) {
+                    PythonLanguage.getLogger().log(Level.FINE, "translating core file " + s + " parsed ahead");
+                    return (RootNode) getParser().translateFile(this, parsed.source, parseTree);
+                }
+            } catch (ExecutionException e) {
+                PythonLanguage.getLogger().log(Level.FINE, "parsing core file " + s + " ahead failed", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            // parse again on this thread, which reports any error with the context available
+            return (RootNode) getParser().parse(ParserMode.File, this, parsed.source, null);
+        }
+        return (RootNode) getParser().parse(ParserMode.File, this, getSource(s, prefix), null);
+    }
+
     private void loadFile(String s, String prefix) {
-        Source source = getSource(s, prefix);
-        Supplier<PCode> getCode = () -> factory.createCode((RootNode) getParser().parse(ParserMode.File, this, source, null));
-        RootCallTarget callTarget = getLanguage().cacheCode(source.getName(), getCode).getRootCallTarget();
+        RootCallTarget callTarget = getLanguage().cacheCode(s, () -> parseCoreFile(s, prefix));
         PythonModule mod = lookupBuiltinModule(s);
         if (mod == null) {
             // use an anonymous module for the side-effects
@@ -49,6 +49,7 @@ public enum PythonBuiltinClassType implements LazyPythonClass {
     PCell("cell"),
     PComplex("complex", "builtins"),
     PDict("dict", "builtins"),
+    PDigest("HASH"),
     PDictKeysView("dict_keys"),
     PDictItemsIterator("dict_itemsiterator"),
     PDictItemsView("dict_items"),
@@ -93,10 +94,42 @@ public enum PythonBuiltinClassType implements LazyPythonClass {
     PLock("LockType", "_thread"),
     PRLock("RLock", "_thread"),
     PSocket("socket", "_socket"),
+    PPoll("poll", "select"),
     PStaticmethod("staticmethod", "builtins"),
     PClassmethod("classmethod", "builtins"),
     PScandirIterator("ScandirIterator", "posix"),
     PDirEntry("DirEntry", "posix"),
+    PBufferedReader("BufferedReader", "_io"),
+    PBufferedWriter("BufferedWriter", "_io"),
+    PTextIOWrapper("TextIOWrapper", "_io"),
+    PDeque("deque", "_collections"),
+    PDequeIter("_deque_iterator", "_collections"),
+    PDequeRevIter("_deque_reverse_iterator", "_collections"),
+    PAccumulate("accumulate", "itertools"),
+    PChain("chain", "itertools"),
+    PCount("count", "itertools"),
+    PCycle("cycle", "itertools"),
+    PDropwhile("dropwhile", "itertools"),
+    PFilterfalse("filterfalse", "itertools"),
+    PIslice("islice", "itertools"),
+    PRepeat("repeat", "itertools"),
+    PStarmap("starmap", "itertools"),
+    PTakewhile("takewhile", "itertools"),
+    PZipLongest("zip_longest", "itertools"),
+    JSONScanner("Scanner"),
+    JSONEncoder("Encoder"),
+    PPickler("Pickler", "_pickle"),
+    PUnpickler("Unpickler", "_pickle"),
+    PCSVReader("Reader", "_csv"),
+    PCSVWriter("Writer", "_csv"),
+    PTimeDelta("timedelta", "_datetime"),
+    PDate("date", "_datetime"),
+    PTime("time", "_datetime"),
+    PDateTime("datetime", "_datetime"),
+    PDecimal("Decimal", "_decimal"),
+    PDecimalContext("Context", "_decimal"),
+    PStruct("Struct", "_struct"),
+    PStructUnpackIterator("unpack_iterator", "_struct"),
 
     // Errors and exceptions:
 
@@ -231,6 +264,7 @@ public enum PythonBuiltinClassType implements LazyPythonClass {
         }
 
         Boolean.base = PInt;
+        PDateTime.base = PDate;
 
         SystemExit.base = PBaseException;
         KeyboardInterrupt.base = PBaseException;
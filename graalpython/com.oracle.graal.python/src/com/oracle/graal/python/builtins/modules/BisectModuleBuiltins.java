@@ -0,0 +1,277 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.modules;
+
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__GETITEM__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__LEN__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.IndexError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.modules.HeapqModuleBuiltins.LessThanNode;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.list.PList;
+import com.oracle.graal.python.nodes.attributes.GetAttributeNode;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallBinaryNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.util.CastToIndexNode;
+import com.oracle.graal.python.runtime.sequence.storage.DoubleSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.IntSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.LongSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+import com.oracle.truffle.api.profiles.ValueProfile;
+
+@CoreFunctions(defineModule = "_bisect")
+public class BisectModuleBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return BisectModuleBuiltinsFactory.getFactories();
+    }
+
+    /**
+     * Binary search shared by the {@code bisect_*} and {@code insort_*} functions. Exact lists are
+     * searched on their storage, and int, long and float storages are searched on their primitive
+     * arrays when {@code x} has the matching type; other sequences are accessed through
+     * {@code __len__} and {@code __getitem__}.
+     */
+    abstract static class BisectBaseNode extends PythonBuiltinNode {
+        @Child private LessThanNode lessThanNode = LessThanNode.create();
+        @Child private CastToIndexNode castToIndexNode;
+        @Child private LookupAndCallUnaryNode lenNode;
+        @Child private LookupAndCallBinaryNode getItemNode;
+
+        private final ConditionProfile exactListProfile = ConditionProfile.createBinaryProfile();
+        private final ValueProfile storageProfile = ValueProfile.createClassProfile();
+
+        protected final int bisect(Object a, Object x, Object lo, Object hi, boolean right) {
+            int low = lo == PNone.NO_VALUE ? 0 : castToIndex(lo);
+            if (low < 0) {
+                throw raise(ValueError, "lo must be non-negative");
+            }
+            boolean isExactList = exactListProfile.profile(a instanceof PList && ((PList) a).getLazyPythonClass() == PythonBuiltinClassType.PList);
+            int high = hi instanceof PNone ? -1 : castToIndex(hi);
+            if (high == -1) {
+                high = isExactList ? ((PList) a).getSequenceStorage().length() : length(a);
+            }
+            if (isExactList) {
+                SequenceStorage storage = storageProfile.profile(((PList) a).getSequenceStorage());
+                if (high <= storage.length()) {
+                    if (storage instanceof IntSequenceStorage && (x instanceof Integer || x instanceof Long)) {
+                        return bisectInt(((IntSequenceStorage) storage).getInternalIntArray(), ((Number) x).longValue(), low, high, right);
+                    } else if (storage instanceof LongSequenceStorage && (x instanceof Integer || x instanceof Long)) {
+                        return bisectLong(((LongSequenceStorage) storage).getInternalLongArray(), ((Number) x).longValue(), low, high, right);
+                    } else if (storage instanceof DoubleSequenceStorage && x instanceof Double) {
+                        return bisectDouble(((DoubleSequenceStorage) storage).getInternalDoubleArray(), (double) x, low, high, right);
+                    }
+                }
+            }
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                Object item = isExactList ? getListItem((PList) a, mid) : getItem(a, mid);
+                if (right ? lessThanNode.execute(x, item) : lessThanNode.execute(item, x)) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+            return low;
+        }
+
+        private Object getListItem(PList list, int index) {
+            SequenceStorage storage = list.getSequenceStorage();
+            if (index >= storage.length()) {
+                throw raise(IndexError, "list index out of range");
+            }
+            return storage.getItemNormalized(index);
+        }
+
+        private Object getItem(Object a, int index) {
+            if (getItemNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                getItemNode = insert(LookupAndCallBinaryNode.create(__GETITEM__));
+            }
+            return getItemNode.executeObject(a, index);
+        }
+
+        private int length(Object a) {
+            if (lenNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                lenNode = insert(LookupAndCallUnaryNode.create(__LEN__));
+            }
+            Object len = lenNode.executeObject(a);
+            if (len == PNone.NO_VALUE) {
+                throw raise(TypeError, "object of type '%p' has no len()", a);
+            }
+            return castToIndex(len);
+        }
+
+        private int castToIndex(Object value) {
+            if (castToIndexNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                castToIndexNode = insert(CastToIndexNode.createOverflow());
+            }
+            return castToIndexNode.execute(value);
+        }
+
+        private static int bisectInt(int[] array, long x, int lo, int hi, boolean right) {
+            int low = lo;
+            int high = hi;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (right ? x < array[mid] : array[mid] < x) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+            return low;
+        }
+
+        private static int bisectLong(long[] array, long x, int lo, int hi, boolean right) {
+            int low = lo;
+            int high = hi;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (right ? x < array[mid] : array[mid] < x) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+            return low;
+        }
+
+        private static int bisectDouble(double[] array, double x, int lo, int hi, boolean right) {
+            int low = lo;
+            int high = hi;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (right ? x < array[mid] : array[mid] < x) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+            return low;
+        }
+    }
+
+    /**
+     * Inserts {@code x} at the index found by the binary search, directly into the storage of
+     * exact lists and through the {@code insert} method otherwise.
+     */
+    abstract static class InsortBaseNode extends BisectBaseNode {
+        @Child private GetAttributeNode getInsertNode;
+        @Child private CallNode callInsertNode;
+
+        protected final PNone insort(VirtualFrame frame, Object a, Object x, Object lo, Object hi, boolean right) {
+            int index = bisect(a, x, lo, hi, right);
+            if (a instanceof PList && ((PList) a).getLazyPythonClass() == PythonBuiltinClassType.PList) {
+                ((PList) a).insert(index, x);
+            } else {
+                if (getInsertNode == null) {
+                    CompilerDirectives.transferToInterpreterAndInvalidate();
+                    getInsertNode = insert(GetAttributeNode.create("insert"));
+                    callInsertNode = insert(CallNode.create());
+                }
+                callInsertNode.execute(frame, getInsertNode.executeObject(a), index, x);
+            }
+            return PNone.NONE;
+        }
+    }
+
+    // bisect_right(a, x, lo=0, hi=None)
+    @Builtin(name = "bisect_right", minNumOfPositionalArgs = 2, maxNumOfPositionalArgs = 4, parameterNames = {"a", "x", "lo", "hi"})
+    @GenerateNodeFactory
+    abstract static class BisectRightNode extends BisectBaseNode {
+        @Specialization
+        int bisectRight(Object a, Object x, Object lo, Object hi) {
+            return bisect(a, x, lo, hi, true);
+        }
+    }
+
+    // bisect_left(a, x, lo=0, hi=None)
+    @Builtin(name = "bisect_left", minNumOfPositionalArgs = 2, maxNumOfPositionalArgs = 4, parameterNames = {"a", "x", "lo", "hi"})
+    @GenerateNodeFactory
+    abstract static class BisectLeftNode extends BisectBaseNode {
+        @Specialization
+        int bisectLeft(Object a, Object x, Object lo, Object hi) {
+            return bisect(a, x, lo, hi, false);
+        }
+    }
+
+    // insort_right(a, x, lo=0, hi=None)
+    @Builtin(name = "insort_right", minNumOfPositionalArgs = 2, maxNumOfPositionalArgs = 4, parameterNames = {"a", "x", "lo", "hi"})
+    @GenerateNodeFactory
+    abstract static class InsortRightNode extends InsortBaseNode {
+        @Specialization
+        PNone insortRight(VirtualFrame frame, Object a, Object x, Object lo, Object hi) {
+            return insort(frame, a, x, lo, hi, true);
+        }
+    }
+
+    // insort_left(a, x, lo=0, hi=None)
+    @Builtin(name = "insort_left", minNumOfPositionalArgs = 2, maxNumOfPositionalArgs = 4, parameterNames = {"a", "x", "lo", "hi"})
+    @GenerateNodeFactory
+    abstract static class InsortLeftNode extends InsortBaseNode {
+        @Specialization
+        PNone insortLeft(VirtualFrame frame, Object a, Object x, Object lo, Object hi) {
+            return insort(frame, a, x, lo, hi, false);
+        }
+    }
+}
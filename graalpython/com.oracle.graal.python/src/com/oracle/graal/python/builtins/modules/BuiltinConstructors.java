@@ -66,6 +66,7 @@ import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeErro
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
 
 import java.math.BigInteger;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -117,6 +118,7 @@ import com.oracle.graal.python.builtins.objects.set.SetNodes;
 import com.oracle.graal.python.builtins.objects.str.PString;
 import com.oracle.graal.python.builtins.objects.tuple.PTuple;
 import com.oracle.graal.python.builtins.objects.type.PythonAbstractClass;
+import com.oracle.graal.python.builtins.objects.type.InstanceLayout;
 import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
 import com.oracle.graal.python.builtins.objects.type.PythonManagedClass;
 import com.oracle.graal.python.builtins.objects.type.PythonBuiltinClass;
@@ -165,6 +167,7 @@ import com.oracle.graal.python.runtime.sequence.PSequence;
 import com.oracle.graal.python.runtime.sequence.storage.ByteSequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.ObjectSequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
+import com.oracle.truffle.api.Assumption;
 import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
@@ -1360,10 +1363,16 @@ public final class BuiltinConstructors extends PythonBuiltins {
             return factory().createPythonObject(first, getInstanceShape(first));
         }
 
-        @Specialization(limit = "getCallSiteInlineCacheMaxDepth()", guards = {"self == cachedSelf", "!self.needsNativeAllocation()"})
-        Object doObjectDirect(@SuppressWarnings("unused") PythonManagedClass self, Object[] varargs, PKeyword[] kwargs,
-                        @Cached("self") PythonManagedClass cachedSelf) {
-            return doObjectIndirect(cachedSelf, varargs, kwargs);
+        @Specialization(limit = "getCallSiteInlineCacheMaxDepth()", guards = {"self == cachedSelf", "!self.needsNativeAllocation()"}, assumptions = {"layoutStable", "shapeValid"})
+        Object doObjectDirect(@SuppressWarnings("unused") PythonManagedClass self, @SuppressWarnings("unused") Object[] varargs, @SuppressWarnings("unused") PKeyword[] kwargs,
+                        @Cached("self") PythonManagedClass cachedSelf,
+                        @SuppressWarnings("unused") @Cached("cachedSelf.getInstanceLayoutStableAssumption()") Assumption layoutStable,
+                        @Cached("cachedSelf.getInstanceLayout()") InstanceLayout layout,
+                        @SuppressWarnings("unused") @Cached("layout.getShape().getValidAssumption()") Assumption shapeValid) {
+            // allocate directly in the shape the instances of this class end up with
+            PythonObject instance = factory().createPythonObject(cachedSelf, layout.getShape());
+            layout.initialize(instance.getStorage());
+            return instance;
         }
 
         @Specialization(guards = "!self.needsNativeAllocation()", replaces = "doObjectDirect")
@@ -1905,6 +1914,7 @@ public final class BuiltinConstructors extends PythonBuiltins {
                 // TODO: tfel - check if slots are allowed. They are not if the base class is var
                 // sized
 
+                ArrayList<HiddenKey> slotKeys = new ArrayList<>(slotlen);
                 for (int i = 0; i < slotlen; i++) {
                     String slotName;
                     Object element = getSlotItemNode().execute(slotList, i);
@@ -1926,9 +1936,12 @@ public final class BuiltinConstructors extends PythonBuiltins {
                         HiddenKey hiddenSlotKey = new HiddenKey(slotName);
                         HiddenKeyDescriptor slotDesc = factory().createHiddenKeyDescriptor(hiddenSlotKey, pythonClass);
                         pythonClass.setAttribute(slotName, slotDesc);
+                        slotKeys.add(hiddenSlotKey);
                     }
                     // Make slots into a tuple
                 }
+                // instances get a fixed location for each slot
+                pythonClass.setSlotKeys(slotKeys.toArray(new HiddenKey[slotKeys.size()]));
                 PTuple newSlots = copySlots(name, slotList, slotlen, addDict, false, namespace);
                 pythonClass.setAttribute(__SLOTS__, newSlots);
                 if (basesArray.length > 1) {
@@ -795,11 +795,13 @@ public final class BuiltinFunctions extends PythonBuiltins {
             } else {
                 throw raise(ValueError, "compile() mode must be 'exec', 'eval' or 'single'");
             }
-            Supplier<PCode> createCode = () -> factory().createCode((RootNode) getCore().getParser().parse(pm, getCore(), source, null));
-            if (getCore().isInitialized()) {
-                return createCode.get();
+            Supplier<RootNode> parse = () -> (RootNode) getCore().getParser().parse(pm, getCore(), source, null);
+            if (!getCore().isInitialized()) {
+                return factory().createCode(getCore().getLanguage().cacheCode(filename, parse));
             } else {
-                return getCore().getLanguage().cacheCode(filename, createCode);
+                // modules imported from source files are shared through the import system's cache,
+                // other code is not kept alive by the language
+                return factory().createCode(parse.get());
             }
         }
 
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.modules;
+
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.csv.CSVDialect;
+import com.oracle.graal.python.builtins.objects.csv.CSVNodes.CreateDialectNode;
+import com.oracle.graal.python.builtins.objects.csv.PCSVReader;
+import com.oracle.graal.python.builtins.objects.csv.PCSVWriter;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.nodes.attributes.GetAttributeNode.GetAnyAttributeNode;
+import com.oracle.graal.python.nodes.control.GetIteratorNode;
+import com.oracle.graal.python.nodes.datamodel.IsCallableNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.object.IsBuiltinClassProfile;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+
+@CoreFunctions(defineModule = "_csv")
+public class CSVModuleBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return CSVModuleBuiltinsFactory.getFactories();
+    }
+
+    private static Object[] getDialectArgs(PythonBuiltinNode node, String name, Object[] args) {
+        if (args.length > 1) {
+            throw node.raise(TypeError, "%s() expected at most 2 arguments, got %d", name, args.length + 1);
+        }
+        return args;
+    }
+
+    // reader(csvfile, dialect='excel', **fmtparams)
+    @Builtin(name = "reader", minNumOfPositionalArgs = 1, takesVarArgs = true, takesVarKeywordArgs = true)
+    @GenerateNodeFactory
+    abstract static class ReaderNode extends PythonBuiltinNode {
+        @Specialization
+        PCSVReader reader(VirtualFrame frame, Object csvfile, Object[] args, PKeyword[] kwargs,
+                        @Cached("create()") GetIteratorNode getIteratorNode,
+                        @Cached("create()") CreateDialectNode createDialectNode) {
+            Object iterator = getIteratorNode.executeWith(csvfile);
+            CSVDialect dialect = createDialectNode.execute(frame, getDialectArgs(this, "reader", args), kwargs);
+            return factory().createCSVReader(iterator, dialect);
+        }
+    }
+
+    // writer(fileobj, dialect='excel', **fmtparams)
+    @Builtin(name = "writer", minNumOfPositionalArgs = 1, takesVarArgs = true, takesVarKeywordArgs = true)
+    @GenerateNodeFactory
+    abstract static class WriterNode extends PythonBuiltinNode {
+        @Specialization
+        PCSVWriter writer(VirtualFrame frame, Object fileobj, Object[] args, PKeyword[] kwargs,
+                        @Cached("create()") GetAnyAttributeNode getWriteNode,
+                        @Cached("create()") IsBuiltinClassProfile attributeErrorProfile,
+                        @Cached("create()") IsCallableNode isCallableNode,
+                        @Cached("create()") CreateDialectNode createDialectNode) {
+            Object write;
+            try {
+                write = getWriteNode.executeObject(fileobj, "write");
+            } catch (PException e) {
+                e.expectAttributeError(attributeErrorProfile);
+                write = PNone.NO_VALUE;
+            }
+            if (write == PNone.NO_VALUE || !isCallableNode.execute(write)) {
+                throw raise(TypeError, "argument 1 must have a \"write\" method");
+            }
+            CSVDialect dialect = createDialectNode.execute(frame, getDialectArgs(this, "writer", args), kwargs);
+            return factory().createCSVWriter(write, dialect);
+        }
+    }
+}
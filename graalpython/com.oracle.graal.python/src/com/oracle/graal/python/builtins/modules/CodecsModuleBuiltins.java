@@ -219,7 +219,7 @@ public class CodecsModuleBuiltins extends PythonBuiltins {
     }
 
     @TruffleBoundary
-    static Charset getCharset(String encoding) {
+    public static Charset getCharset(String encoding) {
         if (encoding == null) {
             return Charset.forName(DEFAULT_ENCODING);
         } else {
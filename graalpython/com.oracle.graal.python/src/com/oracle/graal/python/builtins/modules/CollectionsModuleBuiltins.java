@@ -40,18 +40,58 @@
  */
 package com.oracle.graal.python.builtins.modules;
 
-import java.util.ArrayList;
 import java.util.List;
 
+import com.oracle.graal.python.builtins.Builtin;
 import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.deque.PDeque;
+import com.oracle.graal.python.builtins.objects.deque.PDequeIter;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
 
 @CoreFunctions(defineModule = "_collections")
 public class CollectionsModuleBuiltins extends PythonBuiltins {
     @Override
     protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
-        return new ArrayList<>();
+        return CollectionsModuleBuiltinsFactory.getFactories();
+    }
+
+    // deque([iterable[, maxlen]])
+    @Builtin(name = "deque", minNumOfPositionalArgs = 1, takesVarArgs = true, takesVarKeywordArgs = true, constructsClass = PythonBuiltinClassType.PDeque)
+    @GenerateNodeFactory
+    abstract static class DequeNode extends PythonBuiltinNode {
+        @Specialization
+        PDeque doNew(LazyPythonClass cls, @SuppressWarnings("unused") Object[] args, @SuppressWarnings("unused") PKeyword[] kwargs) {
+            // the contents are set up by __init__
+            return factory().createDeque(cls);
+        }
+    }
+
+    // _deque_iterator(deque)
+    @Builtin(name = "_deque_iterator", fixedNumOfPositionalArgs = 2, constructsClass = PythonBuiltinClassType.PDequeIter)
+    @GenerateNodeFactory
+    abstract static class DequeIterNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        PDequeIter doNew(@SuppressWarnings("unused") LazyPythonClass cls, PDeque deque) {
+            return factory().createDequeIter(deque);
+        }
+    }
+
+    // _deque_reverse_iterator(deque)
+    @Builtin(name = "_deque_reverse_iterator", fixedNumOfPositionalArgs = 2, constructsClass = PythonBuiltinClassType.PDequeRevIter)
+    @GenerateNodeFactory
+    abstract static class DequeRevIterNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        PDequeIter doNew(@SuppressWarnings("unused") LazyPythonClass cls, PDeque deque) {
+            return factory().createDequeRevIter(deque);
+        }
     }
 }
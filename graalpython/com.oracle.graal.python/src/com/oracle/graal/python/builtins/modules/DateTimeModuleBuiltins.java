@@ -0,0 +1,301 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.modules;
+
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.OverflowError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.bytes.BytesNodes.ToBytesNode;
+import com.oracle.graal.python.builtins.objects.bytes.PBytes;
+import com.oracle.graal.python.builtins.objects.datetime.DateTimeNodes;
+import com.oracle.graal.python.builtins.objects.datetime.DateTimeNodes.CreateTimeDeltaNode;
+import com.oracle.graal.python.builtins.objects.datetime.DateTimeNodes.IntFieldNode;
+import com.oracle.graal.python.builtins.objects.datetime.DateTimeNodes.TzInfoArgNode;
+import com.oracle.graal.python.builtins.objects.datetime.DateTimeUtils;
+import com.oracle.graal.python.builtins.objects.datetime.PDate;
+import com.oracle.graal.python.builtins.objects.datetime.PDateTime;
+import com.oracle.graal.python.builtins.objects.datetime.PTime;
+import com.oracle.graal.python.builtins.objects.datetime.PTimeDelta;
+import com.oracle.graal.python.builtins.objects.floats.PFloat;
+import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.runtime.PythonCore;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+
+@CoreFunctions(defineModule = "_datetime")
+public class DateTimeModuleBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return DateTimeModuleBuiltinsFactory.getFactories();
+    }
+
+    @Override
+    public void initialize(PythonCore core) {
+        super.initialize(core);
+        builtinConstants.put("MINYEAR", DateTimeUtils.MINYEAR);
+        builtinConstants.put("MAXYEAR", DateTimeUtils.MAXYEAR);
+    }
+
+    static boolean isPickleState(Object state, Object arg) {
+        return state instanceof PBytes && (arg == PNone.NO_VALUE || arg == PNone.NONE || !(arg instanceof Number || arg instanceof PInt));
+    }
+
+    // timedelta(days=0, seconds=0, microseconds=0, milliseconds=0, minutes=0, hours=0, weeks=0)
+    @Builtin(name = "timedelta", minNumOfPositionalArgs = 1, keywordArguments = {"days", "seconds", "microseconds", "milliseconds", "minutes", "hours",
+                    "weeks"}, constructsClass = PythonBuiltinClassType.PTimeDelta)
+    @GenerateNodeFactory
+    abstract static class TimeDeltaNode extends PythonBuiltinNode {
+        private static final String[] NAMES = {"days", "seconds", "microseconds", "milliseconds", "minutes", "hours", "weeks"};
+        private static final long[] UNITS = {DateTimeUtils.US_PER_DAY, DateTimeUtils.US_PER_SECOND, 1, 1000, 60 * DateTimeUtils.US_PER_SECOND, 3600 * DateTimeUtils.US_PER_SECOND,
+                        7 * DateTimeUtils.US_PER_DAY};
+
+        @Child private CreateTimeDeltaNode createNode = CreateTimeDeltaNode.create();
+
+        protected static boolean isLong(Object value) {
+            return value == PNone.NO_VALUE || value instanceof Integer || value instanceof Long || value instanceof Boolean;
+        }
+
+        private static long inMicroseconds(Object value, int index) {
+            long v;
+            if (value == PNone.NO_VALUE) {
+                return 0;
+            } else if (value instanceof Integer) {
+                v = (int) value;
+            } else if (value instanceof Long) {
+                v = (long) value;
+            } else {
+                v = (boolean) value ? 1 : 0;
+            }
+            return Math.multiplyExact(v, UNITS[index]);
+        }
+
+        @Specialization(guards = {"isLong(days)", "isLong(seconds)", "isLong(microseconds)", "isLong(milliseconds)", "isLong(minutes)", "isLong(hours)",
+                        "isLong(weeks)"}, rewriteOn = ArithmeticException.class)
+        PTimeDelta doLong(LazyPythonClass cls, Object days, Object seconds, Object microseconds, Object milliseconds, Object minutes, Object hours, Object weeks) {
+            long total = Math.addExact(inMicroseconds(days, 0), inMicroseconds(seconds, 1));
+            total = Math.addExact(total, inMicroseconds(microseconds, 2));
+            total = Math.addExact(total, inMicroseconds(milliseconds, 3));
+            total = Math.addExact(total, inMicroseconds(minutes, 4));
+            total = Math.addExact(total, inMicroseconds(hours, 5));
+            total = Math.addExact(total, inMicroseconds(weeks, 6));
+            return createNode.executeMicroseconds(cls, total);
+        }
+
+        @Specialization(replaces = "doLong")
+        PTimeDelta doGeneric(LazyPythonClass cls, Object days, Object seconds, Object microseconds, Object milliseconds, Object minutes, Object hours, Object weeks) {
+            return createNode.executeMicroseconds(cls, sum(days, seconds, microseconds, milliseconds, minutes, hours, weeks).toBigInteger());
+        }
+
+        /**
+         * Adds up the components exactly, so that fractions of microseconds from all of them are
+         * combined before rounding half to even.
+         */
+        @TruffleBoundary
+        private BigDecimal sum(Object... components) {
+            BigDecimal total = BigDecimal.ZERO;
+            for (int i = 0; i < components.length; i++) {
+                Object value = components[i];
+                if (value == PNone.NO_VALUE) {
+                    continue;
+                }
+                BigDecimal v;
+                if (value instanceof Integer || value instanceof Long) {
+                    v = BigDecimal.valueOf(((Number) value).longValue());
+                } else if (value instanceof Boolean) {
+                    v = (boolean) value ? BigDecimal.ONE : BigDecimal.ZERO;
+                } else if (value instanceof PInt) {
+                    v = new BigDecimal(((PInt) value).getValue());
+                } else if (value instanceof Double || value instanceof PFloat) {
+                    v = toBigDecimal(value instanceof Double ? (double) value : ((PFloat) value).getValue());
+                } else {
+                    throw raise(TypeError, "unsupported type for timedelta %s component: %p", NAMES[i], value);
+                }
+                total = total.add(v.multiply(BigDecimal.valueOf(UNITS[i])));
+            }
+            return total.setScale(0, RoundingMode.HALF_EVEN);
+        }
+
+        private BigDecimal toBigDecimal(double value) {
+            if (Double.isNaN(value)) {
+                throw raise(ValueError, "cannot convert float NaN to integer");
+            } else if (Double.isInfinite(value)) {
+                throw raise(OverflowError, "cannot convert float infinity to integer");
+            }
+            return new BigDecimal(value);
+        }
+    }
+
+    // date(year, month, day)
+    @Builtin(name = "date", minNumOfPositionalArgs = 1, keywordArguments = {"year", "month", "day"}, constructsClass = PythonBuiltinClassType.PDate)
+    @GenerateNodeFactory
+    abstract static class DateNode extends PythonBuiltinNode {
+        @Specialization(guards = "isPickleState(state, month)")
+        PDate doPickle(LazyPythonClass cls, Object state, Object month, @SuppressWarnings("unused") Object day,
+                        @Cached("create()") ToBytesNode toBytesNode,
+                        @Cached("create()") IntFieldNode yearNode,
+                        @Cached("create()") IntFieldNode monthNode,
+                        @Cached("create()") IntFieldNode dayNode) {
+            byte[] bytes = toBytesNode.execute(state);
+            if (bytes.length == 4 && bytes[2] >= 1 && bytes[2] <= 12) {
+                return factory().createDate(cls, (bytes[0] & 0xff) << 8 | (bytes[1] & 0xff), bytes[2], bytes[3] & 0xff);
+            }
+            return doNew(cls, state, month, day, yearNode, monthNode, dayNode);
+        }
+
+        @Specialization(guards = "!isPickleState(year, month)")
+        PDate doNew(LazyPythonClass cls, Object year, Object month, Object day,
+                        @Cached("create()") IntFieldNode yearNode,
+                        @Cached("create()") IntFieldNode monthNode,
+                        @Cached("create()") IntFieldNode dayNode) {
+            if (month == PNone.NO_VALUE) {
+                throw raise(TypeError, "Required argument 'month' (pos 2) not found");
+            } else if (day == PNone.NO_VALUE) {
+                throw raise(TypeError, "Required argument 'day' (pos 3) not found");
+            }
+            long y = yearNode.execute(year);
+            long m = monthNode.execute(month);
+            long d = dayNode.execute(day);
+            DateTimeNodes.checkDateFields(this, y, m, d);
+            return factory().createDate(cls, (int) y, (int) m, (int) d);
+        }
+    }
+
+    private static long fieldOrZero(IntFieldNode node, Object value) {
+        return value == PNone.NO_VALUE ? 0 : node.execute(value);
+    }
+
+    // time(hour=0, minute=0, second=0, microsecond=0, tzinfo=None, *, fold=0)
+    @Builtin(name = "time", minNumOfPositionalArgs = 1, keywordArguments = {"hour", "minute", "second", "microsecond", "tzinfo",
+                    "fold"}, constructsClass = PythonBuiltinClassType.PTime)
+    @GenerateNodeFactory
+    abstract static class TimeNode extends PythonBuiltinNode {
+        @Child private TzInfoArgNode tzInfoArgNode = TzInfoArgNode.create();
+
+        @Specialization(guards = "isPickleState(state, tzInfo)")
+        PTime doPickle(LazyPythonClass cls, Object state, Object tzInfo, Object second, Object microsecond, Object ignored, Object fold,
+                        @Cached("create()") ToBytesNode toBytesNode,
+                        @Cached("create()") IntFieldNode intFieldNode) {
+            byte[] bytes = toBytesNode.execute(state);
+            if (bytes.length == 6 && (bytes[0] & 0x7f) < 24) {
+                int hour = bytes[0] & 0xff;
+                int f = hour > 127 ? 1 : 0;
+                int us = (bytes[3] & 0xff) << 16 | (bytes[4] & 0xff) << 8 | (bytes[5] & 0xff);
+                return factory().createTime(cls, hour & 0x7f, bytes[1] & 0xff, bytes[2] & 0xff, us, tzInfoArgNode.execute(tzInfo), f);
+            }
+            return doNew(cls, state, tzInfo, second, microsecond, ignored, fold, intFieldNode);
+        }
+
+        @Specialization(guards = "!isPickleState(hour, minute)")
+        PTime doNew(LazyPythonClass cls, Object hour, Object minute, Object second, Object microsecond, Object tzInfo, Object fold,
+                        @Cached("create()") IntFieldNode intFieldNode) {
+            long h = fieldOrZero(intFieldNode, hour);
+            long mi = fieldOrZero(intFieldNode, minute);
+            long s = fieldOrZero(intFieldNode, second);
+            long us = fieldOrZero(intFieldNode, microsecond);
+            long f = fieldOrZero(intFieldNode, fold);
+            DateTimeNodes.checkTimeFields(this, h, mi, s, us, f);
+            return factory().createTime(cls, (int) h, (int) mi, (int) s, (int) us, tzInfoArgNode.execute(tzInfo), (int) f);
+        }
+    }
+
+    // datetime(year, month, day, hour=0, minute=0, second=0, microsecond=0, tzinfo=None, *, fold=0)
+    @Builtin(name = "datetime", minNumOfPositionalArgs = 1, keywordArguments = {"year", "month", "day", "hour", "minute", "second", "microsecond", "tzinfo",
+                    "fold"}, constructsClass = PythonBuiltinClassType.PDateTime)
+    @GenerateNodeFactory
+    abstract static class DateTimeNode extends PythonBuiltinNode {
+        @Child private TzInfoArgNode tzInfoArgNode = TzInfoArgNode.create();
+
+        @Specialization(guards = "isPickleState(state, tzInfo)")
+        PDateTime doPickle(LazyPythonClass cls, Object state, Object tzInfo, Object day, Object hour, Object minute, Object second, Object microsecond, Object ignored,
+                        Object fold,
+                        @Cached("create()") ToBytesNode toBytesNode,
+                        @Cached("create()") IntFieldNode intFieldNode) {
+            byte[] bytes = toBytesNode.execute(state);
+            if (bytes.length == 10 && (bytes[2] & 0x7f) >= 1 && (bytes[2] & 0x7f) <= 12) {
+                int month = bytes[2] & 0xff;
+                int f = month > 127 ? 1 : 0;
+                int us = (bytes[7] & 0xff) << 16 | (bytes[8] & 0xff) << 8 | (bytes[9] & 0xff);
+                return factory().createDateTime(cls, (bytes[0] & 0xff) << 8 | (bytes[1] & 0xff), month & 0x7f, bytes[3] & 0xff, bytes[4] & 0xff, bytes[5] & 0xff, bytes[6] & 0xff, us,
+                                tzInfoArgNode.execute(tzInfo), f);
+            }
+            return doNew(cls, state, tzInfo, day, hour, minute, second, microsecond, ignored, fold, intFieldNode);
+        }
+
+        @Specialization(guards = "!isPickleState(year, month)")
+        PDateTime doNew(LazyPythonClass cls, Object year, Object month, Object day, Object hour, Object minute, Object second, Object microsecond, Object tzInfo,
+                        Object fold,
+                        @Cached("create()") IntFieldNode intFieldNode) {
+            if (month == PNone.NO_VALUE) {
+                throw raise(TypeError, "Required argument 'month' (pos 2) not found");
+            } else if (day == PNone.NO_VALUE) {
+                throw raise(TypeError, "Required argument 'day' (pos 3) not found");
+            }
+            long y = intFieldNode.execute(year);
+            long m = intFieldNode.execute(month);
+            long d = intFieldNode.execute(day);
+            DateTimeNodes.checkDateFields(this, y, m, d);
+            long h = fieldOrZero(intFieldNode, hour);
+            long mi = fieldOrZero(intFieldNode, minute);
+            long s = fieldOrZero(intFieldNode, second);
+            long us = fieldOrZero(intFieldNode, microsecond);
+            long f = fieldOrZero(intFieldNode, fold);
+            DateTimeNodes.checkTimeFields(this, h, mi, s, us, f);
+            return factory().createDateTime(cls, (int) y, (int) m, (int) d, (int) h, (int) mi, (int) s, (int) us, tzInfoArgNode.execute(tzInfo), (int) f);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.modules;
+
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.decimal.DecimalNodes;
+import com.oracle.graal.python.builtins.objects.decimal.DecimalUtils;
+import com.oracle.graal.python.builtins.objects.decimal.PDecimal;
+import com.oracle.graal.python.builtins.objects.decimal.PDecimalContext;
+import com.oracle.graal.python.builtins.objects.floats.PFloat;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.builtins.objects.list.PList;
+import com.oracle.graal.python.builtins.objects.str.PString;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.object.IsBuiltinClassProfile;
+import com.oracle.graal.python.runtime.PythonCore;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+
+@CoreFunctions(defineModule = "_decimal")
+public class DecimalModuleBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return DecimalModuleBuiltinsFactory.getFactories();
+    }
+
+    @Override
+    public void initialize(PythonCore core) {
+        super.initialize(core);
+        builtinConstants.put("MAX_PREC", PDecimalContext.MAX_PREC);
+        builtinConstants.put("MAX_EMAX", PDecimalContext.MAX_EMAX);
+        builtinConstants.put("MIN_EMIN", PDecimalContext.MIN_EMIN);
+        builtinConstants.put("MIN_ETINY", PDecimalContext.MIN_ETINY);
+        for (String rounding : PDecimalContext.ROUNDINGS) {
+            builtinConstants.put(rounding, rounding);
+        }
+        builtinConstants.put("HAVE_THREADS", true);
+        builtinConstants.put("__version__", "1.70");
+        builtinConstants.put("__libmpdec_version__", "2.4.2");
+    }
+
+    // Decimal(value="0", context=None)
+    @Builtin(name = "Decimal", minNumOfPositionalArgs = 1, keywordArguments = {"value", "context"}, constructsClass = PythonBuiltinClassType.PDecimal)
+    @GenerateNodeFactory
+    abstract static class DecimalNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        Object doNew(VirtualFrame frame, LazyPythonClass cls, Object value, Object context,
+                        @Cached("create()") IsBuiltinClassProfile decimalProfile,
+                        @Cached("create()") CallNode callNode) {
+            PDecimalContext ctx = DecimalNodes.getContextArg(this, context);
+            if (value == PNone.NO_VALUE) {
+                return factory().createDecimal(cls, BigDecimal.ZERO, false, PDecimal.FINITE);
+            } else if (value instanceof String || value instanceof PString) {
+                return fromString(cls, ctx, value.toString());
+            } else if (value instanceof PDecimal) {
+                PDecimal decimal = (PDecimal) value;
+                if (decimalProfile.profileClass(cls, PythonBuiltinClassType.PDecimal) && decimal.getLazyPythonClass() == PythonBuiltinClassType.PDecimal) {
+                    return decimal;
+                }
+                return factory().createDecimal(cls, decimal.getValue(), decimal.isNegative(), decimal.getKind());
+            } else if (value instanceof Double || value instanceof PFloat) {
+                DecimalNodes.signal(this, ctx, PDecimalContext.FLOAT_OPERATION);
+                return DecimalUtils.fromDouble(factory(), cls, value instanceof Double ? (double) value : ((PFloat) value).getValue());
+            } else if (value instanceof PTuple || value instanceof PList) {
+                // the tuple is checked and turned into a string in Python code
+                Object string = callNode.execute(frame, getTupleToString(), value);
+                return fromString(cls, ctx, string.toString());
+            }
+            BigDecimal integer = DecimalUtils.fromInteger(value);
+            if (integer == null) {
+                throw raise(TypeError, "conversion from %p to Decimal is not supported", value);
+            }
+            return factory().createDecimal(cls, integer, integer.signum() < 0, PDecimal.FINITE);
+        }
+
+        private PDecimal fromString(LazyPythonClass cls, PDecimalContext context, String string) {
+            PDecimal result = DecimalUtils.parse(factory(), cls, string);
+            if (result == null) {
+                // a ConversionSyntax, which is an InvalidOperation
+                DecimalNodes.signal(this, context, PDecimalContext.INVALID_OPERATION);
+                return factory().createDecimal(cls, BigDecimal.ZERO, false, PDecimal.NAN);
+            }
+            return result;
+        }
+
+        @TruffleBoundary
+        private Object getTupleToString() {
+            return DecimalNodes.getModule(getCore()).getAttribute("_tuple_to_string");
+        }
+    }
+
+    // Context(prec=None, rounding=None, Emin=None, Emax=None, capitals=None, clamp=None, flags=None, traps=None)
+    @Builtin(name = "Context", minNumOfPositionalArgs = 1, takesVarArgs = true, takesVarKeywordArgs = true, constructsClass = PythonBuiltinClassType.PDecimalContext)
+    @GenerateNodeFactory
+    abstract static class ContextNode extends PythonBuiltinNode {
+        @Specialization
+        PDecimalContext doNew(LazyPythonClass cls, @SuppressWarnings("unused") Object[] args, @SuppressWarnings("unused") PKeyword[] kwargs) {
+            // the fields that are given are set by __init__
+            PDecimalContext template = DecimalNodes.getTemplate(getCore(), "DefaultContext");
+            if (template == null) {
+                return DecimalNodes.createDefaultContext(factory(), cls);
+            }
+            return DecimalNodes.copyContext(factory(), cls, template, false);
+        }
+    }
+
+    @Builtin(name = "getcontext", fixedNumOfPositionalArgs = 0, doc = "Get the current default context.")
+    @GenerateNodeFactory
+    abstract static class GetContextNode extends PythonBuiltinNode {
+        @Specialization
+        PDecimalContext getcontext() {
+            return DecimalNodes.getContext(this);
+        }
+    }
+
+    @Builtin(name = "setcontext", fixedNumOfPositionalArgs = 1, doc = "Set a new default context.")
+    @GenerateNodeFactory
+    abstract static class SetContextNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PNone setcontext(PDecimalContext context) {
+            PDecimalContext current = context;
+            if (isTemplate(context)) {
+                // the templates themselves are never changed by arithmetic
+                current = DecimalNodes.copyContext(factory(), PythonBuiltinClassType.PDecimalContext, context, false);
+            }
+            getContext().setDecimalContext(current);
+            return PNone.NONE;
+        }
+
+        @TruffleBoundary
+        private boolean isTemplate(PDecimalContext context) {
+            return context == DecimalNodes.getTemplate(getCore(), "DefaultContext") || context == DecimalNodes.getTemplate(getCore(), "BasicContext") ||
+                            context == DecimalNodes.getTemplate(getCore(), "ExtendedContext");
+        }
+
+        @Specialization(guards = "!isDecimalContext(context)")
+        PNone setcontext(@SuppressWarnings("unused") Object context) {
+            throw raise(TypeError, "argument must be a context");
+        }
+
+        protected static boolean isDecimalContext(Object context) {
+            return context instanceof PDecimalContext;
+        }
+    }
+}
@@ -0,0 +1,556 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.modules;
+
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__GT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__LT__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.IndexError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.RuntimeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes;
+import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes.ListGeneralizationNode;
+import com.oracle.graal.python.builtins.objects.list.ListBuiltins.ListSortNode;
+import com.oracle.graal.python.builtins.objects.list.PList;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.nodes.PNodeWithContext;
+import com.oracle.graal.python.nodes.expression.BinaryComparisonNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.runtime.sequence.storage.DoubleSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.IntSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.LongSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStoreException;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Fallback;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.profiles.BranchProfile;
+import com.oracle.truffle.api.profiles.ValueProfile;
+
+@CoreFunctions(defineModule = "_heapq")
+public class HeapqModuleBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return HeapqModuleBuiltinsFactory.getFactories();
+    }
+
+    /**
+     * Evaluates {@code a < b} for heap and bisect items. Ints, floats and strings are compared
+     * directly, and so are exact tuples whose first items are such values and differ, which covers
+     * heaps of {@code (priority, item)} pairs. Everything else goes through the {@code <} operator.
+     */
+    public static final class LessThanNode extends PNodeWithContext {
+        private static final int UNORDERED = 2;
+
+        @Child private BinaryComparisonNode ltNode;
+
+        public boolean execute(Object a, Object b) {
+            int result = compareFast(a, b);
+            if (result != UNORDERED) {
+                return result < 0;
+            }
+            if (a instanceof PTuple && b instanceof PTuple && isExactTuple((PTuple) a) && isExactTuple((PTuple) b)) {
+                SequenceStorage left = ((PTuple) a).getSequenceStorage();
+                SequenceStorage right = ((PTuple) b).getSequenceStorage();
+                if (left.length() > 0 && right.length() > 0) {
+                    result = compareFast(left.getItemNormalized(0), right.getItemNormalized(0));
+                    if (result != UNORDERED && result != 0) {
+                        return result < 0;
+                    }
+                }
+            }
+            if (ltNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                ltNode = insert(BinaryComparisonNode.create(__LT__, __GT__, "<"));
+            }
+            return ltNode.executeBool(a, b);
+        }
+
+        private static boolean isExactTuple(PTuple tuple) {
+            return tuple.getLazyPythonClass() == PythonBuiltinClassType.PTuple;
+        }
+
+        /**
+         * Returns -1, 0 or 1 for values that can be compared without calling into Python, and
+         * {@link #UNORDERED} otherwise. NaN is left to the generic comparison, because tuples
+         * compare their items for identity before they compare them for order.
+         */
+        private static int compareFast(Object a, Object b) {
+            if ((a instanceof Integer || a instanceof Long) && (b instanceof Integer || b instanceof Long)) {
+                return Long.compare(((Number) a).longValue(), ((Number) b).longValue());
+            } else if (a instanceof Double && b instanceof Double) {
+                double x = (double) a;
+                double y = (double) b;
+                if (x != x || y != y) {
+                    return UNORDERED;
+                }
+                return x < y ? -1 : x > y ? 1 : 0;
+            } else if (a instanceof String && b instanceof String) {
+                return Integer.signum(ListSortNode.compareCodePoints((String) a, (String) b));
+            }
+            return UNORDERED;
+        }
+
+        public static LessThanNode create() {
+            return new LessThanNode();
+        }
+    }
+
+    /**
+     * The heap algorithms of CPython's {@code _heapq} module, working on the storage of the list.
+     * Int, long and float storages are sifted on their primitive arrays; other storages read and
+     * swap items in place and, like CPython, fail if a comparison changes the size of the list.
+     */
+    static final class HeapNode extends PNodeWithContext {
+        private final boolean max;
+
+        @Child private LessThanNode lessThanNode = LessThanNode.create();
+        @Child private SequenceStorageNodes.AppendNode appendNode;
+
+        private final ValueProfile storageProfile = ValueProfile.createClassProfile();
+        private final BranchProfile generalizeProfile = BranchProfile.create();
+
+        HeapNode(boolean max) {
+            this.max = max;
+        }
+
+        void push(PList heap, Object item) {
+            if (appendNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                appendNode = insert(SequenceStorageNodes.AppendNode.create(() -> ListGeneralizationNode.create()));
+            }
+            SequenceStorage storage = appendNode.execute(heap.getSequenceStorage(), item);
+            heap.setSequenceStorage(storage);
+            siftDown(heap, 0, storage.length() - 1);
+        }
+
+        Object pop(PList heap) {
+            SequenceStorage storage = heap.getSequenceStorage();
+            int len = storage.length();
+            if (len == 0) {
+                throw raise(IndexError, "index out of range");
+            }
+            Object last = storage.getItemNormalized(len - 1);
+            storage.setNewLength(len - 1);
+            if (len == 1) {
+                return last;
+            }
+            Object result = storage.getItemNormalized(0);
+            storage.setItemNormalized(0, last);
+            siftUp(heap, 0);
+            return result;
+        }
+
+        Object replace(PList heap, Object item) {
+            SequenceStorage storage = heap.getSequenceStorage();
+            if (storage.length() == 0) {
+                throw raise(IndexError, "index out of range");
+            }
+            Object result = storage.getItemNormalized(0);
+            setFirst(heap, item);
+            siftUp(heap, 0);
+            return result;
+        }
+
+        Object pushPop(PList heap, Object item) {
+            SequenceStorage storage = heap.getSequenceStorage();
+            if (storage.length() == 0 || !lessThan(storage.getItemNormalized(0), item)) {
+                return item;
+            }
+            storage = heap.getSequenceStorage();
+            if (storage.length() == 0) {
+                throw raise(IndexError, "index out of range");
+            }
+            Object result = storage.getItemNormalized(0);
+            setFirst(heap, item);
+            siftUp(heap, 0);
+            return result;
+        }
+
+        void heapify(PList heap) {
+            for (int i = heap.getSequenceStorage().length() / 2 - 1; i >= 0; i--) {
+                siftUp(heap, i);
+            }
+        }
+
+        private void setFirst(PList heap, Object item) {
+            SequenceStorage storage = heap.getSequenceStorage();
+            try {
+                storage.setItemNormalized(0, item);
+            } catch (SequenceStoreException e) {
+                generalizeProfile.enter();
+                storage = storage.generalizeFor(item, null);
+                storage.setItemNormalized(0, item);
+                heap.setSequenceStorage(storage);
+            }
+        }
+
+        private boolean lessThan(Object a, Object b) {
+            return max ? lessThanNode.execute(b, a) : lessThanNode.execute(a, b);
+        }
+
+        /**
+         * Moves the item at {@code pos} towards the root until its parent is not greater.
+         */
+        private void siftDown(PList heap, int startPos, int pos) {
+            SequenceStorage storage = storageProfile.profile(heap.getSequenceStorage());
+            if (storage instanceof IntSequenceStorage) {
+                siftDownInt(((IntSequenceStorage) storage).getInternalIntArray(), startPos, pos, max);
+            } else if (storage instanceof LongSequenceStorage) {
+                siftDownLong(((LongSequenceStorage) storage).getInternalLongArray(), startPos, pos, max);
+            } else if (storage instanceof DoubleSequenceStorage) {
+                siftDownDouble(((DoubleSequenceStorage) storage).getInternalDoubleArray(), startPos, pos, max);
+            } else {
+                siftDownGeneric(heap, startPos, pos);
+            }
+        }
+
+        /**
+         * Moves the smaller child up until a leaf is reached and then sifts the original item at
+         * {@code pos} back down from there, which needs fewer comparisons than stopping early.
+         */
+        private void siftUp(PList heap, int pos) {
+            SequenceStorage storage = storageProfile.profile(heap.getSequenceStorage());
+            int len = storage.length();
+            if (storage instanceof IntSequenceStorage) {
+                siftUpInt(((IntSequenceStorage) storage).getInternalIntArray(), len, pos, max);
+            } else if (storage instanceof LongSequenceStorage) {
+                siftUpLong(((LongSequenceStorage) storage).getInternalLongArray(), len, pos, max);
+            } else if (storage instanceof DoubleSequenceStorage) {
+                siftUpDouble(((DoubleSequenceStorage) storage).getInternalDoubleArray(), len, pos, max);
+            } else {
+                siftUpGeneric(heap, len, pos);
+            }
+        }
+
+        private void siftDownGeneric(PList heap, int startPos, int start) {
+            int size = heap.getSequenceStorage().length();
+            int pos = start;
+            while (pos > startPos) {
+                int parentPos = (pos - 1) >> 1;
+                SequenceStorage storage = heap.getSequenceStorage();
+                boolean lt = lessThan(storage.getItemNormalized(pos), storage.getItemNormalized(parentPos));
+                storage = checkSize(heap, size);
+                if (!lt) {
+                    break;
+                }
+                swap(storage, pos, parentPos);
+                pos = parentPos;
+            }
+        }
+
+        private void siftUpGeneric(PList heap, int endPos, int start) {
+            int pos = start;
+            int limit = endPos >> 1;
+            while (pos < limit) {
+                int childPos = 2 * pos + 1;
+                SequenceStorage storage = heap.getSequenceStorage();
+                if (childPos + 1 < endPos) {
+                    if (!lessThan(storage.getItemNormalized(childPos), storage.getItemNormalized(childPos + 1))) {
+                        childPos++;
+                    }
+                    storage = checkSize(heap, endPos);
+                }
+                swap(storage, pos, childPos);
+                pos = childPos;
+            }
+            siftDownGeneric(heap, start, pos);
+        }
+
+        private SequenceStorage checkSize(PList heap, int size) {
+            SequenceStorage storage = heap.getSequenceStorage();
+            if (storage.length() != size) {
+                throw raise(RuntimeError, "list changed size during iteration");
+            }
+            return storage;
+        }
+
+        private static void swap(SequenceStorage storage, int a, int b) {
+            Object tmp = storage.getItemNormalized(a);
+            storage.copyItem(a, b);
+            storage.setItemNormalized(b, tmp);
+        }
+
+        private static void siftDownInt(int[] heap, int startPos, int start, boolean max) {
+            int pos = start;
+            int newItem = heap[pos];
+            while (pos > startPos) {
+                int parentPos = (pos - 1) >> 1;
+                int parent = heap[parentPos];
+                if (max ? parent < newItem : newItem < parent) {
+                    heap[pos] = parent;
+                    pos = parentPos;
+                } else {
+                    break;
+                }
+            }
+            heap[pos] = newItem;
+        }
+
+        private static void siftUpInt(int[] heap, int endPos, int start, boolean max) {
+            int pos = start;
+            int newItem = heap[pos];
+            int limit = endPos >> 1;
+            while (pos < limit) {
+                int childPos = 2 * pos + 1;
+                if (childPos + 1 < endPos && !(max ? heap[childPos + 1] < heap[childPos] : heap[childPos] < heap[childPos + 1])) {
+                    childPos++;
+                }
+                heap[pos] = heap[childPos];
+                pos = childPos;
+            }
+            heap[pos] = newItem;
+            siftDownInt(heap, start, pos, max);
+        }
+
+        private static void siftDownLong(long[] heap, int startPos, int start, boolean max) {
+            int pos = start;
+            long newItem = heap[pos];
+            while (pos > startPos) {
+                int parentPos = (pos - 1) >> 1;
+                long parent = heap[parentPos];
+                if (max ? parent < newItem : newItem < parent) {
+                    heap[pos] = parent;
+                    pos = parentPos;
+                } else {
+                    break;
+                }
+            }
+            heap[pos] = newItem;
+        }
+
+        private static void siftUpLong(long[] heap, int endPos, int start, boolean max) {
+            int pos = start;
+            long newItem = heap[pos];
+            int limit = endPos >> 1;
+            while (pos < limit) {
+                int childPos = 2 * pos + 1;
+                if (childPos + 1 < endPos && !(max ? heap[childPos + 1] < heap[childPos] : heap[childPos] < heap[childPos + 1])) {
+                    childPos++;
+                }
+                heap[pos] = heap[childPos];
+                pos = childPos;
+            }
+            heap[pos] = newItem;
+            siftDownLong(heap, start, pos, max);
+        }
+
+        private static void siftDownDouble(double[] heap, int startPos, int start, boolean max) {
+            int pos = start;
+            double newItem = heap[pos];
+            while (pos > startPos) {
+                int parentPos = (pos - 1) >> 1;
+                double parent = heap[parentPos];
+                if (max ? parent < newItem : newItem < parent) {
+                    heap[pos] = parent;
+                    pos = parentPos;
+                } else {
+                    break;
+                }
+            }
+            heap[pos] = newItem;
+        }
+
+        private static void siftUpDouble(double[] heap, int endPos, int start, boolean max) {
+            int pos = start;
+            double newItem = heap[pos];
+            int limit = endPos >> 1;
+            while (pos < limit) {
+                int childPos = 2 * pos + 1;
+                if (childPos + 1 < endPos && !(max ? heap[childPos + 1] < heap[childPos] : heap[childPos] < heap[childPos + 1])) {
+                    childPos++;
+                }
+                heap[pos] = heap[childPos];
+                pos = childPos;
+            }
+            heap[pos] = newItem;
+            siftDownDouble(heap, start, pos, max);
+        }
+
+        static HeapNode create(boolean max) {
+            return new HeapNode(max);
+        }
+    }
+
+    // heappush(heap, item)
+    @Builtin(name = "heappush", fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class HeapPushNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        PNone push(PList heap, Object item,
+                        @Cached("create(false)") HeapNode heapNode) {
+            heapNode.push(heap, item);
+            return PNone.NONE;
+        }
+
+        @Fallback
+        Object notList(@SuppressWarnings("unused") Object heap, @SuppressWarnings("unused") Object item) {
+            throw raise(TypeError, "heap argument must be a list");
+        }
+    }
+
+    // heappop(heap)
+    @Builtin(name = "heappop", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class HeapPopNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object pop(PList heap,
+                        @Cached("create(false)") HeapNode heapNode) {
+            return heapNode.pop(heap);
+        }
+
+        @Fallback
+        Object notList(@SuppressWarnings("unused") Object heap) {
+            throw raise(TypeError, "heap argument must be a list");
+        }
+    }
+
+    // heapreplace(heap, item)
+    @Builtin(name = "heapreplace", fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class HeapReplaceNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object replace(PList heap, Object item,
+                        @Cached("create(false)") HeapNode heapNode) {
+            return heapNode.replace(heap, item);
+        }
+
+        @Fallback
+        Object notList(@SuppressWarnings("unused") Object heap, @SuppressWarnings("unused") Object item) {
+            throw raise(TypeError, "heap argument must be a list");
+        }
+    }
+
+    // heappushpop(heap, item)
+    @Builtin(name = "heappushpop", fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class HeapPushPopNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object pushPop(PList heap, Object item,
+                        @Cached("create(false)") HeapNode heapNode) {
+            return heapNode.pushPop(heap, item);
+        }
+
+        @Fallback
+        Object notList(@SuppressWarnings("unused") Object heap, @SuppressWarnings("unused") Object item) {
+            throw raise(TypeError, "heap argument must be a list");
+        }
+    }
+
+    // heapify(heap)
+    @Builtin(name = "heapify", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class HeapifyNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PNone heapify(PList heap,
+                        @Cached("create(false)") HeapNode heapNode) {
+            heapNode.heapify(heap);
+            return PNone.NONE;
+        }
+
+        @Fallback
+        Object notList(@SuppressWarnings("unused") Object heap) {
+            throw raise(TypeError, "heap argument must be a list");
+        }
+    }
+
+    // _heappop_max(heap)
+    @Builtin(name = "_heappop_max", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class HeapPopMaxNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object pop(PList heap,
+                        @Cached("create(true)") HeapNode heapNode) {
+            return heapNode.pop(heap);
+        }
+
+        @Fallback
+        Object notList(@SuppressWarnings("unused") Object heap) {
+            throw raise(TypeError, "heap argument must be a list");
+        }
+    }
+
+    // _heapreplace_max(heap, item)
+    @Builtin(name = "_heapreplace_max", fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class HeapReplaceMaxNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object replace(PList heap, Object item,
+                        @Cached("create(true)") HeapNode heapNode) {
+            return heapNode.replace(heap, item);
+        }
+
+        @Fallback
+        Object notList(@SuppressWarnings("unused") Object heap, @SuppressWarnings("unused") Object item) {
+            throw raise(TypeError, "heap argument must be a list");
+        }
+    }
+
+    // _heapify_max(heap)
+    @Builtin(name = "_heapify_max", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class HeapifyMaxNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PNone heapify(PList heap,
+                        @Cached("create(true)") HeapNode heapNode) {
+            heapNode.heapify(heap);
+            return PNone.NONE;
+        }
+
+        @Fallback
+        Object notList(@SuppressWarnings("unused") Object heap) {
+            throw raise(TypeError, "heap argument must be a list");
+        }
+    }
+}
@@ -60,6 +60,7 @@ import com.oracle.graal.python.builtins.objects.common.HashingCollectionNodes.Se
 import com.oracle.graal.python.builtins.objects.common.HashingStorageNodes;
 import com.oracle.graal.python.builtins.objects.dict.PDict;
 import com.oracle.graal.python.builtins.objects.exception.PBaseException;
+import com.oracle.graal.python.builtins.objects.list.PList;
 import com.oracle.graal.python.builtins.objects.module.PythonModule;
 import com.oracle.graal.python.builtins.objects.object.PythonObject;
 import com.oracle.graal.python.builtins.objects.str.PString;
@@ -70,14 +71,18 @@ import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.util.CastToDoubleNode;
+import com.oracle.graal.python.nodes.util.CastToStringNode;
 import com.oracle.graal.python.runtime.PythonContext;
 import com.oracle.graal.python.runtime.PythonCore;
 import com.oracle.graal.python.runtime.PythonOptions;
 import com.oracle.graal.python.runtime.exception.PException;
 import com.oracle.graal.python.runtime.exception.PythonErrorType;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
 import com.oracle.truffle.api.CallTarget;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.RootCallTarget;
 import com.oracle.truffle.api.TruffleFile;
 import com.oracle.truffle.api.TruffleLanguage.Env;
 import com.oracle.truffle.api.dsl.Cached;
@@ -373,4 +378,102 @@ public class ImpModuleBuiltins extends PythonBuiltins {
             return PNone.NONE;
         }
     }
+
+    /**
+     * Base class of the import caches, which are shared by all contexts of the language. They keep
+     * one entry per file or directory path, which is replaced when the modification time changes.
+     */
+    abstract static class ImportCacheNode extends PythonBuiltinNode {
+        @Child private CastToStringNode castToString = CastToStringNode.create();
+        @Child private CastToStringNode castSizeToString;
+        @Child private CastToDoubleNode castToDouble = CastToDoubleNode.create();
+
+        protected final String getPath(Object path) {
+            return castToString.execute(path);
+        }
+
+        protected final double getMtime(Object mtime) {
+            return castToDouble.execute(mtime);
+        }
+
+        protected final String getCodeValidator(Object mtime, Object size) {
+            if (castSizeToString == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                castSizeToString = insert(CastToStringNode.createCoercing());
+            }
+            return codeValidator(getMtime(mtime), castSizeToString.execute(size));
+        }
+
+        @TruffleBoundary
+        private static String codeValidator(double mtime, String size) {
+            return mtime + ":" + size;
+        }
+    }
+
+    @Builtin(name = "cached_listdir", fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class CachedListdirNode extends ImportCacheNode {
+        @Specialization
+        Object cachedListdir(Object path, Object mtime) {
+            Object[] names = getContext().getLanguage().getCachedListing(getPath(path), getMtime(mtime));
+            if (names == null) {
+                return PNone.NONE;
+            }
+            return factory().createList(names);
+        }
+    }
+
+    @Builtin(name = "cache_listdir", fixedNumOfPositionalArgs = 3)
+    @GenerateNodeFactory
+    abstract static class CacheListdirNode extends ImportCacheNode {
+        @Specialization
+        PNone cacheListdir(Object path, Object mtime, PList contents) {
+            String[] names = toNames(contents.getSequenceStorage());
+            if (names != null) {
+                getContext().getLanguage().cacheListing(getPath(path), getMtime(mtime), names);
+            }
+            return PNone.NONE;
+        }
+
+        @TruffleBoundary
+        private static String[] toNames(SequenceStorage storage) {
+            String[] names = new String[storage.length()];
+            for (int i = 0; i < names.length; i++) {
+                Object name = storage.getItemNormalized(i);
+                if (name instanceof String) {
+                    names[i] = (String) name;
+                } else if (name instanceof PString) {
+                    names[i] = ((PString) name).getValue();
+                } else {
+                    return null;
+                }
+            }
+            return names;
+        }
+    }
+
+    @Builtin(name = "cached_code", fixedNumOfPositionalArgs = 3)
+    @GenerateNodeFactory
+    abstract static class CachedCodeNode extends ImportCacheNode {
+        @Specialization
+        Object cachedCode(Object path, Object mtime, Object size) {
+            RootCallTarget callTarget = getContext().getLanguage().getCachedCode(getPath(path), getCodeValidator(mtime, size));
+            if (callTarget == null) {
+                return PNone.NONE;
+            }
+            return factory().createCode(callTarget);
+        }
+    }
+
+    @Builtin(name = "cache_code", fixedNumOfPositionalArgs = 4)
+    @GenerateNodeFactory
+    abstract static class CacheCodeNode extends ImportCacheNode {
+        @Specialization
+        PNone cacheCode(Object path, Object mtime, Object size, PCode code) {
+            if (code.getRootNode() != null) {
+                getContext().getLanguage().cacheCode(getPath(path), getCodeValidator(mtime, size), code.getRootCallTarget());
+            }
+            return PNone.NONE;
+        }
+    }
 }
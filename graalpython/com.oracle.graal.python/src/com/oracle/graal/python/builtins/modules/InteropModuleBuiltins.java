@@ -133,6 +133,7 @@ public final class InteropModuleBuiltins extends PythonBuiltins {
         @Specialization
         Object evalString(@SuppressWarnings("unused") PNone path, String value, String langOrMimeType) {
             Env env = getContext().getEnv();
+            raiseIfContextState(langOrMimeType);
             try {
                 boolean mimeType = isMimeType(langOrMimeType);
                 String lang = mimeType ? findLanguageByMimeType(env, langOrMimeType) : langOrMimeType;
@@ -147,6 +148,12 @@ public final class InteropModuleBuiltins extends PythonBuiltins {
             }
         }
 
+        private void raiseIfContextState(String langOrMimeType) {
+            if (PythonLanguage.CONTEXT_STATE_MIME_TYPE.equals(langOrMimeType)) {
+                throw raise(NotImplementedError, "access to the context state is not permitted");
+            }
+        }
+
         private void raiseIfInternal(Env env, String lang) {
             LanguageInfo languageInfo = env.getLanguages().get(lang);
             if (languageInfo != null && languageInfo.isInternal()) {
@@ -158,6 +165,7 @@ public final class InteropModuleBuiltins extends PythonBuiltins {
         @Specialization
         Object evalFile(String path, @SuppressWarnings("unused") PNone string, String langOrMimeType) {
             Env env = getContext().getEnv();
+            raiseIfContextState(langOrMimeType);
             try {
                 boolean mimeType = isMimeType(langOrMimeType);
                 String lang = mimeType ? findLanguageByMimeType(env, langOrMimeType) : langOrMimeType;
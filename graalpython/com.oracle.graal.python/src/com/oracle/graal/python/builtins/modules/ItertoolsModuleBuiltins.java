@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2017, 2018, Oracle and/or its affiliates.
+ * Copyright (c) 2017, 2019, Oracle and/or its affiliates.
  * Copyright (c) 2013, Regents of the University of California
  *
  * All rights reserved.
@@ -25,16 +25,44 @@
  */
 package com.oracle.graal.python.builtins.modules;
 
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__FLOAT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__INDEX__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__INT__;
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.NotImplementedError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
 
 import java.util.List;
 
 import com.oracle.graal.python.builtins.Builtin;
 import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.PythonBuiltins;
 import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.complex.PComplex;
+import com.oracle.graal.python.builtins.objects.floats.PFloat;
+import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.itertools.PAccumulate;
+import com.oracle.graal.python.builtins.objects.itertools.PChain;
+import com.oracle.graal.python.builtins.objects.itertools.PCount;
+import com.oracle.graal.python.builtins.objects.itertools.PCycle;
+import com.oracle.graal.python.builtins.objects.itertools.PDropwhile;
+import com.oracle.graal.python.builtins.objects.itertools.PFilterfalse;
+import com.oracle.graal.python.builtins.objects.itertools.PIslice;
+import com.oracle.graal.python.builtins.objects.itertools.PRepeat;
+import com.oracle.graal.python.builtins.objects.itertools.PStarmap;
+import com.oracle.graal.python.builtins.objects.itertools.PTakewhile;
+import com.oracle.graal.python.builtins.objects.itertools.PZipLongest;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.attributes.LookupInheritedAttributeNode;
+import com.oracle.graal.python.nodes.control.GetIteratorNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.object.GetLazyClassNode;
+import com.oracle.graal.python.nodes.util.CastToIndexNode;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
@@ -47,6 +75,223 @@ public final class ItertoolsModuleBuiltins extends PythonBuiltins {
         return ItertoolsModuleBuiltinsFactory.getFactories();
     }
 
+    // accumulate(iterable[, func])
+    @Builtin(name = "accumulate", fixedNumOfPositionalArgs = 2, keywordArguments = {"func"}, constructsClass = PythonBuiltinClassType.PAccumulate)
+    @GenerateNodeFactory
+    abstract static class AccumulateNode extends PythonBuiltinNode {
+        @Specialization
+        PAccumulate doNew(LazyPythonClass cls, Object iterable, Object func,
+                        @Cached("create()") GetIteratorNode getIterator) {
+            return factory().createAccumulate(cls, getIterator.executeWith(iterable), PGuards.isPNone(func) ? null : func);
+        }
+    }
+
+    // chain(*iterables)
+    @Builtin(name = "chain", minNumOfPositionalArgs = 1, takesVarArgs = true, constructsClass = PythonBuiltinClassType.PChain)
+    @GenerateNodeFactory
+    abstract static class ChainNode extends PythonBuiltinNode {
+        @Specialization
+        PChain doNew(LazyPythonClass cls, Object[] iterables,
+                        @Cached("create()") GetIteratorNode getIterator) {
+            return factory().createChain(cls, getIterator.executeWith(factory().createTuple(iterables)));
+        }
+    }
+
+    // count(start=0, step=1)
+    @Builtin(name = "count", fixedNumOfPositionalArgs = 1, keywordArguments = {"start", "step"}, constructsClass = PythonBuiltinClassType.PCount)
+    @GenerateNodeFactory
+    abstract static class CountNode extends PythonBuiltinNode {
+        @Child private LookupInheritedAttributeNode lookupIndexNode;
+        @Child private LookupInheritedAttributeNode lookupIntNode;
+        @Child private LookupInheritedAttributeNode lookupFloatNode;
+
+        @Specialization(guards = {"isNoValue(start)", "isNoValue(step)"})
+        PCount doDefault(LazyPythonClass cls, @SuppressWarnings("unused") PNone start, @SuppressWarnings("unused") PNone step) {
+            return factory().createCount(cls, 0L, 1L);
+        }
+
+        @Specialization
+        PCount doGeneric(LazyPythonClass cls, Object start, Object step) {
+            Object startValue = PGuards.isNoValue(start) ? 0 : start;
+            Object stepValue = PGuards.isNoValue(step) ? 1 : step;
+            if (isLong(startValue) && isLong(stepValue)) {
+                return factory().createCount(cls, ((Number) startValue).longValue(), ((Number) stepValue).longValue());
+            }
+            if (!isNumber(startValue) || !isNumber(stepValue)) {
+                throw raise(TypeError, "a number is required");
+            }
+            return factory().createCount(cls, startValue, stepValue);
+        }
+
+        private static boolean isLong(Object value) {
+            return value instanceof Integer || value instanceof Long;
+        }
+
+        private boolean isNumber(Object value) {
+            if (value instanceof Integer || value instanceof Long || value instanceof Double || value instanceof Boolean || value instanceof PInt || value instanceof PFloat ||
+                            value instanceof PComplex) {
+                return true;
+            }
+            if (lookupIndexNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                lookupIndexNode = insert(LookupInheritedAttributeNode.create(__INDEX__));
+                lookupIntNode = insert(LookupInheritedAttributeNode.create(__INT__));
+                lookupFloatNode = insert(LookupInheritedAttributeNode.create(__FLOAT__));
+            }
+            return lookupIndexNode.execute(value) != PNone.NO_VALUE || lookupIntNode.execute(value) != PNone.NO_VALUE || lookupFloatNode.execute(value) != PNone.NO_VALUE;
+        }
+    }
+
+    // cycle(iterable)
+    @Builtin(name = "cycle", fixedNumOfPositionalArgs = 2, constructsClass = PythonBuiltinClassType.PCycle)
+    @GenerateNodeFactory
+    abstract static class CycleNode extends PythonBuiltinNode {
+        @Specialization
+        PCycle doNew(LazyPythonClass cls, Object iterable,
+                        @Cached("create()") GetIteratorNode getIterator) {
+            return factory().createCycle(cls, getIterator.executeWith(iterable));
+        }
+    }
+
+    // dropwhile(predicate, iterable)
+    @Builtin(name = "dropwhile", fixedNumOfPositionalArgs = 3, constructsClass = PythonBuiltinClassType.PDropwhile)
+    @GenerateNodeFactory
+    abstract static class DropwhileNode extends PythonBuiltinNode {
+        @Specialization
+        PDropwhile doNew(LazyPythonClass cls, Object predicate, Object iterable,
+                        @Cached("create()") GetIteratorNode getIterator) {
+            return factory().createDropwhile(cls, predicate, getIterator.executeWith(iterable));
+        }
+    }
+
+    // filterfalse(function or None, iterable)
+    @Builtin(name = "filterfalse", fixedNumOfPositionalArgs = 3, constructsClass = PythonBuiltinClassType.PFilterfalse)
+    @GenerateNodeFactory
+    abstract static class FilterfalseNode extends PythonBuiltinNode {
+        @Specialization
+        PFilterfalse doNew(LazyPythonClass cls, Object function, Object iterable,
+                        @Cached("create()") GetIteratorNode getIterator) {
+            return factory().createFilterfalse(cls, function, getIterator.executeWith(iterable));
+        }
+    }
+
+    // islice(iterable, stop)
+    // islice(iterable, start, stop[, step])
+    @Builtin(name = "islice", minNumOfPositionalArgs = 2, takesVarArgs = true, constructsClass = PythonBuiltinClassType.PIslice)
+    @GenerateNodeFactory
+    abstract static class IsliceNode extends PythonBuiltinNode {
+        private static final String STOP_ERROR = "Stop argument for islice() must be None or an integer: 0 <= x <= sys.maxsize.";
+        private static final String INDICES_ERROR = "Indices for islice() must be None or an integer: 0 <= x <= sys.maxsize.";
+
+        @Child private CastToIndexNode castStopNode;
+        @Child private CastToIndexNode castIndexNode;
+
+        @Specialization
+        PIslice doNew(LazyPythonClass cls, Object iterable, Object[] args,
+                        @Cached("create()") GetIteratorNode getIterator,
+                        @Cached("create()") GetLazyClassNode getClass) {
+            if (args.length == 0) {
+                throw raise(TypeError, "islice expected at least 2 arguments, got 1");
+            } else if (args.length > 3) {
+                throw raise(TypeError, "islice expected at most 4 arguments, got %d", args.length + 1);
+            }
+            int start = 0;
+            int stop;
+            int step = 1;
+            if (args.length == 1) {
+                stop = castStop(args[0]);
+            } else {
+                start = castIndex(args[0], 0);
+                stop = castStop(args[1]);
+                if (args.length == 3) {
+                    step = castIndex(args[2], 1);
+                    if (step < 1) {
+                        throw raise(ValueError, "Step for islice() must be a positive integer or None.");
+                    }
+                }
+            }
+            Object iterator = getIterator.executeWith(iterable);
+            PCount count = null;
+            if (stop != -1 && iterator instanceof PCount && PGuards.cannotBeOverridden(cls) && PGuards.cannotBeOverridden(getClass.execute(iterator))) {
+                // the items can be computed from the count without calling its __next__
+                count = (PCount) iterator;
+            }
+            return factory().createIslice(cls, iterator, count, start, stop, step);
+        }
+
+        private int castStop(Object value) {
+            if (PGuards.isNone(value)) {
+                return -1;
+            }
+            if (castStopNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                castStopNode = insert(CastToIndexNode.create(PythonBuiltinClassType.ValueError, val -> {
+                    throw raise(ValueError, STOP_ERROR);
+                }));
+            }
+            int stop = castStopNode.execute(value);
+            if (stop < 0) {
+                throw raise(ValueError, STOP_ERROR);
+            }
+            return stop;
+        }
+
+        private int castIndex(Object value, int defaultValue) {
+            if (PGuards.isNone(value)) {
+                return defaultValue;
+            }
+            if (castIndexNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                castIndexNode = insert(CastToIndexNode.create(PythonBuiltinClassType.ValueError, val -> {
+                    throw raise(ValueError, INDICES_ERROR);
+                }));
+            }
+            int index = castIndexNode.execute(value);
+            if (index < 0) {
+                throw raise(ValueError, INDICES_ERROR);
+            }
+            return index;
+        }
+    }
+
+    // repeat(object[, times])
+    @Builtin(name = "repeat", fixedNumOfPositionalArgs = 2, keywordArguments = {"times"}, constructsClass = PythonBuiltinClassType.PRepeat)
+    @GenerateNodeFactory
+    abstract static class RepeatNode extends PythonBuiltinNode {
+        @Specialization(guards = "isNoValue(times)")
+        PRepeat doInfinite(LazyPythonClass cls, Object object, @SuppressWarnings("unused") PNone times) {
+            return factory().createRepeat(cls, object, -1);
+        }
+
+        @Specialization(guards = "!isNoValue(times)")
+        PRepeat doTimes(LazyPythonClass cls, Object object, Object times,
+                        @Cached("createOverflow()") CastToIndexNode castToIndex) {
+            return factory().createRepeat(cls, object, Math.max(castToIndex.execute(times), 0));
+        }
+    }
+
+    // starmap(function, iterable)
+    @Builtin(name = "starmap", fixedNumOfPositionalArgs = 3, constructsClass = PythonBuiltinClassType.PStarmap)
+    @GenerateNodeFactory
+    abstract static class StarmapNode extends PythonBuiltinNode {
+        @Specialization
+        PStarmap doNew(LazyPythonClass cls, Object function, Object iterable,
+                        @Cached("create()") GetIteratorNode getIterator) {
+            return factory().createStarmap(cls, function, getIterator.executeWith(iterable));
+        }
+    }
+
+    // takewhile(predicate, iterable)
+    @Builtin(name = "takewhile", fixedNumOfPositionalArgs = 3, constructsClass = PythonBuiltinClassType.PTakewhile)
+    @GenerateNodeFactory
+    abstract static class TakewhileNode extends PythonBuiltinNode {
+        @Specialization
+        PTakewhile doNew(LazyPythonClass cls, Object predicate, Object iterable,
+                        @Cached("create()") GetIteratorNode getIterator) {
+            return factory().createTakewhile(cls, predicate, getIterator.executeWith(iterable));
+        }
+    }
+
     // tee(iterable, n=2)
     @Builtin(name = "tee", minNumOfPositionalArgs = 1, maxNumOfPositionalArgs = 2)
     @GenerateNodeFactory
@@ -58,4 +303,18 @@ public final class ItertoolsModuleBuiltins extends PythonBuiltins {
         }
     }
 
+    // zip_longest(*iterables, fillvalue=None)
+    @Builtin(name = "zip_longest", minNumOfPositionalArgs = 1, takesVarArgs = true, keywordArguments = {"fillvalue"}, constructsClass = PythonBuiltinClassType.PZipLongest)
+    @GenerateNodeFactory
+    abstract static class ZipLongestNode extends PythonBuiltinNode {
+        @Specialization
+        PZipLongest doNew(LazyPythonClass cls, Object[] iterables, Object fillValue,
+                        @Cached("create()") GetIteratorNode getIterator) {
+            Object[] iterators = new Object[iterables.length];
+            for (int i = 0; i < iterables.length; i++) {
+                iterators[i] = getIterator.executeWith(iterables[i]);
+            }
+            return factory().createZipLongest(cls, iterators, PGuards.isNoValue(fillValue) ? PNone.NONE : fillValue);
+        }
+    }
 }
@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.modules;
+
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.json.JSONNodes.RaiseDecodeErrorNode;
+import com.oracle.graal.python.builtins.objects.json.JSONUtils;
+import com.oracle.graal.python.builtins.objects.json.JSONUtils.DecodeError;
+import com.oracle.graal.python.builtins.objects.json.PJSONEncoder;
+import com.oracle.graal.python.builtins.objects.json.PJSONEncoder.FastEncode;
+import com.oracle.graal.python.builtins.objects.json.PJSONScanner;
+import com.oracle.graal.python.builtins.objects.module.PythonModule;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.nodes.attributes.GetAttributeNode.GetAnyAttributeNode;
+import com.oracle.graal.python.nodes.expression.CastToBooleanNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.util.CastToIndexNode;
+import com.oracle.graal.python.nodes.util.CastToStringNode;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+
+@CoreFunctions(defineModule = "_json")
+public class JSONModuleBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return JSONModuleBuiltinsFactory.getFactories();
+    }
+
+    // scanstring(string, end, strict=True)
+    @Builtin(name = "scanstring", minNumOfPositionalArgs = 2, maxNumOfPositionalArgs = 3, parameterNames = {"string", "end", "strict"})
+    @GenerateNodeFactory
+    abstract static class ScanStringNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        PTuple scanString(VirtualFrame frame, Object string, Object end, Object strict,
+                        @Cached("create()") CastToStringNode castToStringNode,
+                        @Cached("create()") CastToIndexNode castToIndexNode,
+                        @Cached("createIfTrueNode()") CastToBooleanNode castToBooleanNode,
+                        @Cached("create()") RaiseDecodeErrorNode raiseDecodeErrorNode) {
+            String s = castToStringNode.execute(string);
+            int start = castToIndexNode.execute(end);
+            if (start < 0 || start > s.length()) {
+                throw raise(ValueError, "end is out of bounds");
+            }
+            boolean isStrict = strict == PNone.NO_VALUE || castToBooleanNode.executeWith(strict);
+            int[] resultEnd = new int[1];
+            try {
+                String result = JSONUtils.scanString(s, start, isStrict, resultEnd);
+                return factory().createTuple(new Object[]{result, resultEnd[0]});
+            } catch (DecodeError e) {
+                throw raiseDecodeErrorNode.execute(frame, e, s);
+            }
+        }
+    }
+
+    @Builtin(name = "encode_basestring_ascii", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class EncodeBaseStringAsciiNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        String encode(Object string,
+                        @Cached("create()") CastToStringNode castToStringNode) {
+            return JSONUtils.encodeString(castToStringNode.execute(string), true);
+        }
+    }
+
+    @Builtin(name = "encode_basestring", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class EncodeBaseStringNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        String encode(Object string,
+                        @Cached("create()") CastToStringNode castToStringNode) {
+            return JSONUtils.encodeString(castToStringNode.execute(string), false);
+        }
+    }
+
+    // make_scanner(context)
+    @Builtin(name = "make_scanner", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class MakeScannerNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PJSONScanner makeScanner(Object context,
+                        @Cached("create()") GetAnyAttributeNode getAttributeNode,
+                        @Cached("createIfTrueNode()") CastToBooleanNode castToBooleanNode) {
+            boolean strict = castToBooleanNode.executeWith(getAttributeNode.executeObject(context, "strict"));
+            Object objectHook = noneToNull(getAttributeNode.executeObject(context, "object_hook"));
+            Object objectPairsHook = noneToNull(getAttributeNode.executeObject(context, "object_pairs_hook"));
+            Object parseFloat = getAttributeNode.executeObject(context, "parse_float");
+            Object parseInt = getAttributeNode.executeObject(context, "parse_int");
+            Object parseConstant = getAttributeNode.executeObject(context, "parse_constant");
+            // the builtin number types are constructed directly by the scanner
+            if (parseFloat == getCore().lookupType(PythonBuiltinClassType.PFloat)) {
+                parseFloat = null;
+            }
+            if (parseInt == getCore().lookupType(PythonBuiltinClassType.PInt)) {
+                parseInt = null;
+            }
+            return factory().createJSONScanner(strict, objectHook, objectPairsHook, parseFloat, parseInt, parseConstant);
+        }
+
+        private static Object noneToNull(Object value) {
+            return value == PNone.NONE ? null : value;
+        }
+    }
+
+    // make_encoder(markers, default, encoder, indent, key_separator, item_separator, sort_keys,
+    // skipkeys, allow_nan)
+    @Builtin(name = "make_encoder", fixedNumOfPositionalArgs = 9)
+    @GenerateNodeFactory
+    abstract static class MakeEncoderNode extends PythonBuiltinNode {
+        @Specialization
+        PJSONEncoder makeEncoder(Object markers, Object defaultFn, Object encoder, @SuppressWarnings("unused") Object indent, Object keySeparator, Object itemSeparator, Object sortKeys,
+                        Object skipKeys, Object allowNan,
+                        @Cached("create()") CastToStringNode castToStringNode,
+                        @Cached("createIfTrueNode()") CastToBooleanNode castToBooleanNode) {
+            PythonModule module = getCore().lookupBuiltinModule("_json");
+            FastEncode fastEncode;
+            if (encoder == module.getAttribute("encode_basestring_ascii")) {
+                fastEncode = FastEncode.ASCII;
+            } else if (encoder == module.getAttribute("encode_basestring")) {
+                fastEncode = FastEncode.UNICODE;
+            } else {
+                fastEncode = FastEncode.NONE;
+            }
+            return factory().createJSONEncoder(markers != PNone.NONE, defaultFn, encoder, fastEncode, castToStringNode.execute(keySeparator), castToStringNode.execute(itemSeparator),
+                            castToBooleanNode.executeWith(sortKeys), castToBooleanNode.executeWith(skipKeys), castToBooleanNode.executeWith(allowNan));
+        }
+    }
+}
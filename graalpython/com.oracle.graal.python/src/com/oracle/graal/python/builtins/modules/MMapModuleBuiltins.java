@@ -45,6 +45,7 @@ import static com.oracle.graal.python.builtins.PythonBuiltinClassType.ValueError
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.channels.FileChannel.MapMode;
 import java.nio.channels.SeekableByteChannel;
 import java.nio.file.StandardOpenOption;
@@ -57,6 +58,7 @@ import com.oracle.graal.python.builtins.CoreFunctions;
 import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.PythonBuiltins;
 import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.mmap.MappedChannel;
 import com.oracle.graal.python.builtins.objects.mmap.PMMap;
 import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
@@ -97,7 +99,7 @@ public class MMapModuleBuiltins extends PythonBuiltins {
         PMMap doAnonymous(LazyPythonClass clazz, @SuppressWarnings("unused") int fd, int length, @SuppressWarnings("unused") Object tagname, @SuppressWarnings("unused") PNone access,
                         @SuppressWarnings("unused") PNone offset) {
             checkLength(length);
-            return factory().createMMap(clazz, new AnonymousMap(length), length, 0);
+            return factory().createMMap(clazz, new MappedChannel(allocate(length)), length, 0);
         }
 
         @Specialization(guards = {"fd >= 0", "isNoValue(access)", "isNoValue(offset)"})
@@ -112,19 +114,52 @@ public class MMapModuleBuiltins extends PythonBuiltins {
 
         // mmap(fileno, length, tagname=None, access=ACCESS_DEFAULT[, offset])
         @Specialization(guards = "fd >= 0")
-        PMMap doFile(LazyPythonClass clazz, int fd, int length, @SuppressWarnings("unused") Object tagname, @SuppressWarnings("unused") int access, long offset) {
+        PMMap doFile(LazyPythonClass clazz, int fd, int length, @SuppressWarnings("unused") Object tagname, int access, long offset) {
             checkLength(length);
+            if (offset < 0) {
+                invalidLengthProfile.enter();
+                throw raise(PythonBuiltinClassType.OverflowError, "memory mapped offset must be positive");
+            }
+            MapMode mapMode = convertAccessToMapMode(access);
 
             String path = getContext().getResources().getFilePath(fd);
             TruffleFile truffleFile = getContext().getEnv().getTruffleFile(path);
 
-            // TODO(fa) correctly honor access flags
-            Set<StandardOpenOption> options = set(StandardOpenOption.READ, StandardOpenOption.WRITE);
+            Set<StandardOpenOption> options;
+            if (mapMode == MapMode.READ_ONLY) {
+                options = set(StandardOpenOption.READ);
+            } else {
+                options = set(StandardOpenOption.READ, StandardOpenOption.WRITE);
+            }
 
             // we create a new channel otherwise we cannot guarantee that the cursor is exclusive
             SeekableByteChannel fileChannel;
             try {
                 fileChannel = truffleFile.newByteChannel(options);
+                long fileSize = size(fileChannel);
+                long mapSize = length;
+                String error = null;
+                if (length == 0) {
+                    if (fileSize == 0) {
+                        error = "cannot mmap an empty file";
+                    } else if (offset >= fileSize) {
+                        error = "mmap offset is greater than file size";
+                    }
+                    mapSize = fileSize - offset;
+                } else if (offset > fileSize || fileSize - offset < length) {
+                    error = "mmap length is greater than file size";
+                }
+                if (error != null) {
+                    invalidLengthProfile.enter();
+                    close(fileChannel);
+                    throw raise(ValueError, error);
+                }
+                if (canMap(fileChannel, mapSize)) {
+                    // the mapping stays valid after the channel has been closed
+                    MappedChannel mapped = new MappedChannel(map(fileChannel, mapMode, offset, mapSize));
+                    close(fileChannel);
+                    return factory().createMMap(clazz, mapped, mapSize, offset);
+                }
                 position(fileChannel, offset);
                 return factory().createMMap(clazz, fileChannel, length, offset);
             } catch (IOException e) {
@@ -132,6 +167,34 @@ public class MMapModuleBuiltins extends PythonBuiltins {
             }
         }
 
+        /**
+         * Regions accessible through a {@link FileChannel} are mapped into memory if they fit into
+         * a single buffer; other channels (e.g. of a virtual file system) are accessed by seeking.
+         */
+        private static boolean canMap(SeekableByteChannel channel, long mapSize) {
+            return channel instanceof FileChannel && mapSize <= Integer.MAX_VALUE;
+        }
+
+        @TruffleBoundary
+        private static ByteBuffer map(SeekableByteChannel channel, MapMode mapMode, long offset, long mapSize) throws IOException {
+            return ((FileChannel) channel).map(mapMode, offset, mapSize);
+        }
+
+        @TruffleBoundary
+        private static ByteBuffer allocate(int length) {
+            return ByteBuffer.allocate(length);
+        }
+
+        @TruffleBoundary
+        private static long size(SeekableByteChannel ch) throws IOException {
+            return ch.size();
+        }
+
+        @TruffleBoundary
+        private static void close(SeekableByteChannel ch) throws IOException {
+            ch.close();
+        }
+
         @TruffleBoundary
         private static Set<StandardOpenOption> set(StandardOpenOption... options) {
             Set<StandardOpenOption> s = new HashSet<>();
@@ -155,7 +218,6 @@ public class MMapModuleBuiltins extends PythonBuiltins {
             return fd < -1;
         }
 
-        @SuppressWarnings("unused")
         private MapMode convertAccessToMapMode(int access) {
             switch (access) {
                 case 0:
@@ -182,59 +244,4 @@ public class MMapModuleBuiltins extends PythonBuiltins {
             ch.position(offset);
         }
     }
-
-    private static class AnonymousMap implements SeekableByteChannel {
-        private final byte[] data;
-
-        private boolean open = true;
-        private int cur;
-
-        public AnonymousMap(int cap) {
-            this.data = new byte[cap];
-        }
-
-        public boolean isOpen() {
-            return open;
-        }
-
-        public void close() throws IOException {
-            open = false;
-        }
-
-        public int read(ByteBuffer dst) throws IOException {
-            int nread = Math.min(dst.remaining(), data.length - cur);
-            dst.put(data, cur, nread);
-            return nread;
-        }
-
-        public int write(ByteBuffer src) throws IOException {
-            int nwrite = Math.min(src.remaining(), data.length - cur);
-            src.get(data, cur, nwrite);
-            return nwrite;
-        }
-
-        public long position() throws IOException {
-            return cur;
-        }
-
-        public SeekableByteChannel position(long newPosition) throws IOException {
-            if (newPosition < 0) {
-                throw new IllegalArgumentException();
-            }
-            cur = (int) newPosition;
-            return this;
-        }
-
-        public long size() throws IOException {
-            return data.length;
-        }
-
-        public SeekableByteChannel truncate(long size) throws IOException {
-            for (int i = 0; i < size; i++) {
-                data[i] = 0;
-            }
-            return this;
-        }
-
-    }
 }
@@ -25,66 +25,717 @@
  */
 package com.oracle.graal.python.builtins.modules;
 
-import static com.oracle.graal.python.runtime.exception.PythonErrorType.NotImplementedError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.EOFError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
 
+import java.io.ByteArrayOutputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Supplier;
 
+import com.oracle.graal.python.PythonLanguage;
 import com.oracle.graal.python.builtins.Builtin;
 import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PEllipsis;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.bytes.PBytes;
+import com.oracle.graal.python.builtins.objects.bytes.PIBytesLike;
+import com.oracle.graal.python.builtins.objects.code.PCode;
+import com.oracle.graal.python.builtins.objects.common.EconomicMapStorage;
+import com.oracle.graal.python.builtins.objects.common.HashingStorage;
+import com.oracle.graal.python.builtins.objects.common.HashingStorage.DictEntry;
+import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes;
+import com.oracle.graal.python.builtins.objects.complex.PComplex;
+import com.oracle.graal.python.builtins.objects.dict.PDict;
+import com.oracle.graal.python.builtins.objects.floats.PFloat;
+import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.list.PList;
+import com.oracle.graal.python.builtins.objects.set.PBaseSet;
+import com.oracle.graal.python.builtins.objects.set.PFrozenSet;
+import com.oracle.graal.python.builtins.objects.str.PString;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.nodes.ModuleRootNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallBinaryNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallTernaryNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.runtime.PythonCore;
+import com.oracle.graal.python.runtime.PythonParser.ParserMode;
+import com.oracle.graal.python.runtime.object.PythonObjectFactory;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStorageFactory;
 import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Fallback;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.nodes.RootNode;
+import com.oracle.truffle.api.source.Source;
+import com.oracle.truffle.api.source.SourceSection;
 
 @CoreFunctions(defineModule = "marshal")
 public final class MarshalModuleBuiltins extends PythonBuiltins {
+    static final int CURRENT_VERSION = 4;
+
     @Override
     protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
         return MarshalModuleBuiltinsFactory.getFactories();
     }
 
+    @Override
+    public void initialize(PythonCore core) {
+        super.initialize(core);
+        builtinConstants.put("version", CURRENT_VERSION);
+    }
+
     @Builtin(name = "dump", minNumOfPositionalArgs = 2, keywordArguments = {"version"})
     @GenerateNodeFactory
     abstract static class DumpNode extends PythonBuiltinNode {
-        @SuppressWarnings("unused")
+        @Child private LookupAndCallBinaryNode callWriteNode = LookupAndCallBinaryNode.create("write");
+
         @Specialization
-        Object doit(Object value, Object file, Object version) {
-            throw raise(NotImplementedError, "marshal.dump");
+        Object doit(Object value, Object file, @SuppressWarnings("unused") Object version) {
+            byte[] data = Marshal.dump(getCore(), value);
+            return callWriteNode.executeObject(file, factory().createBytes(data));
         }
     }
 
     @Builtin(name = "dumps", minNumOfPositionalArgs = 1, keywordArguments = {"version"})
     @GenerateNodeFactory
     abstract static class DumpsNode extends PythonBuiltinNode {
-        @SuppressWarnings("unused")
-        @CompilerDirectives.TruffleBoundary
         @Specialization
-        Object doit(Object value, Object version) {
-            // TODO this is just fake implemention, which satisfy pip installer
-            return factory().createBytes(value.toString().getBytes());
+        Object doit(Object value, @SuppressWarnings("unused") Object version) {
+            return factory().createBytes(Marshal.dump(getCore(), value));
         }
     }
 
     @Builtin(name = "load", fixedNumOfPositionalArgs = 1)
     @GenerateNodeFactory
     abstract static class LoadNode extends PythonBuiltinNode {
-        @SuppressWarnings("unused")
+        @Child private LookupAndCallUnaryNode callReadNode = LookupAndCallUnaryNode.create("read");
+        @Child private LookupAndCallTernaryNode callSeekNode;
+        @Child private SequenceStorageNodes.ToByteArrayNode toByteArrayNode = SequenceStorageNodes.ToByteArrayNode.create();
+
         @Specialization
         Object doit(Object file) {
-            throw raise(NotImplementedError, "marshal.load");
+            Object data = callReadNode.executeObject(file);
+            if (!(data instanceof PIBytesLike)) {
+                throw raise(TypeError, "file.read() returned not bytes but %p", data);
+            }
+            byte[] bytes = toByteArrayNode.execute(((PIBytesLike) data).getSequenceStorage());
+            Marshal reader = new Marshal(getCore(), bytes);
+            Object result = reader.readObject();
+            int unread = bytes.length - reader.position();
+            if (unread > 0) {
+                // leave the file positioned right after the object, like CPython does
+                if (callSeekNode == null) {
+                    CompilerDirectives.transferToInterpreterAndInvalidate();
+                    callSeekNode = insert(LookupAndCallTernaryNode.create("seek"));
+                }
+                Object offset = -unread;
+                Object whence = 1;
+                callSeekNode.execute(file, offset, whence);
+            }
+            return result;
         }
     }
 
     @Builtin(name = "loads", fixedNumOfPositionalArgs = 1)
     @GenerateNodeFactory
     abstract static class LoadsNode extends PythonBuiltinNode {
-        @SuppressWarnings("unused")
         @Specialization
+        Object doit(PIBytesLike bytes,
+                        @Cached("create()") SequenceStorageNodes.ToByteArrayNode toByteArrayNode) {
+            return new Marshal(getCore(), toByteArrayNode.execute(bytes.getSequenceStorage())).readObject();
+        }
+
+        @Fallback
         Object doit(Object bytes) {
-            throw raise(NotImplementedError, "marshal.loads");
+            throw raise(TypeError, "a bytes-like object is required, not '%p'", bytes);
+        }
+    }
+
+    /**
+     * The version 4 marshal format as used by CPython. Code objects are the only exception:
+     * since we do not have bytecode, the 'codestring' field carries the module's source text
+     * and loading a code object goes through the language's code cache (keyed by file name and
+     * validated by the source digest), so repeated loads of the same module only parse and
+     * translate it once.
+     */
+    static final class Marshal {
+        private static final char TYPE_NULL = '0';
+        private static final char TYPE_NONE = 'N';
+        private static final char TYPE_FALSE = 'F';
+        private static final char TYPE_TRUE = 'T';
+        private static final char TYPE_STOPITER = 'S';
+        private static final char TYPE_ELLIPSIS = '.';
+        private static final char TYPE_INT = 'i';
+        private static final char TYPE_INT64 = 'I';
+        private static final char TYPE_FLOAT = 'f';
+        private static final char TYPE_BINARY_FLOAT = 'g';
+        private static final char TYPE_COMPLEX = 'x';
+        private static final char TYPE_BINARY_COMPLEX = 'y';
+        private static final char TYPE_LONG = 'l';
+        private static final char TYPE_STRING = 's';
+        private static final char TYPE_INTERNED = 't';
+        private static final char TYPE_REF = 'r';
+        private static final char TYPE_TUPLE = '(';
+        private static final char TYPE_LIST = '[';
+        private static final char TYPE_DICT = '{';
+        private static final char TYPE_CODE = 'c';
+        private static final char TYPE_UNICODE = 'u';
+        private static final char TYPE_SET = '<';
+        private static final char TYPE_FROZENSET = '>';
+        private static final char TYPE_ASCII = 'a';
+        private static final char TYPE_ASCII_INTERNED = 'A';
+        private static final char TYPE_SMALL_TUPLE = ')';
+        private static final char TYPE_SHORT_ASCII = 'z';
+        private static final char TYPE_SHORT_ASCII_INTERNED = 'Z';
+
+        private static final int FLAG_REF = 0x80;
+        private static final int MAX_MARSHAL_STACK_DEPTH = 2000;
+
+        // CPython stores arbitrary precision integers as 15-bit digits
+        private static final int PyLong_SHIFT = 15;
+        private static final BigInteger PyLong_MASK = BigInteger.valueOf((1 << PyLong_SHIFT) - 1);
+
+        private final PythonCore core;
+        private final PythonObjectFactory factory;
+        private final ByteArrayOutputStream out;
+        private final byte[] data;
+        private final List<Object> refs;
+        private int index;
+        private int depth;
+
+        private Marshal(PythonCore core) {
+            this.core = core;
+            this.factory = core.factory();
+            this.out = new ByteArrayOutputStream();
+            this.data = null;
+            this.refs = null;
+        }
+
+        Marshal(PythonCore core, byte[] data) {
+            this.core = core;
+            this.factory = core.factory();
+            this.out = null;
+            this.data = data;
+            this.refs = new ArrayList<>();
+        }
+
+        @TruffleBoundary
+        static byte[] dump(PythonCore core, Object value) {
+            Marshal writer = new Marshal(core);
+            writer.writeObject(value);
+            return writer.out.toByteArray();
+        }
+
+        int position() {
+            return index;
+        }
+
+        // writing
+
+        private void writeByte(int v) {
+            out.write(v);
+        }
+
+        private void writeShort(int v) {
+            writeByte(v);
+            writeByte(v >> 8);
+        }
+
+        private void writeInt(int v) {
+            for (int i = 0; i < Integer.BYTES; i++) {
+                writeByte(v >> (i * 8));
+            }
+        }
+
+        private void writeLong(long v) {
+            for (int i = 0; i < Long.BYTES; i++) {
+                writeByte((int) (v >> (i * 8)));
+            }
+        }
+
+        private void writeDouble(double v) {
+            writeLong(Double.doubleToRawLongBits(v));
+        }
+
+        private void writeSize(int size) {
+            writeInt(size);
+        }
+
+        private void writeBytes(byte[] bytes, int len) {
+            writeSize(len);
+            out.write(bytes, 0, len);
+        }
+
+        private void writeString(String s) {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            writeByte(TYPE_UNICODE);
+            writeBytes(bytes, bytes.length);
+        }
+
+        private void writeBigInteger(BigInteger v) {
+            // sign is carried by the digit count, digits are little endian magnitude
+            BigInteger magnitude = v.abs();
+            int numDigits = (magnitude.bitLength() + PyLong_SHIFT - 1) / PyLong_SHIFT;
+            writeByte(TYPE_LONG);
+            writeInt(v.signum() < 0 ? -numDigits : numDigits);
+            for (int i = 0; i < numDigits; i++) {
+                writeShort(magnitude.shiftRight(i * PyLong_SHIFT).and(PyLong_MASK).intValue());
+            }
+        }
+
+        private void writeIntegral(long v) {
+            if (v == (int) v) {
+                writeByte(TYPE_INT);
+                writeInt((int) v);
+            } else {
+                writeBigInteger(BigInteger.valueOf(v));
+            }
+        }
+
+        private void writeSequence(char type, SequenceStorage storage) {
+            int len = storage.length();
+            writeByte(type);
+            writeSize(len);
+            for (int i = 0; i < len; i++) {
+                writeObject(storage.getItemNormalized(i));
+            }
+        }
+
+        private void writeObject(Object v) {
+            if (++depth > MAX_MARSHAL_STACK_DEPTH) {
+                throw core.raise(ValueError, "object too deeply nested to marshal");
+            }
+            if (v == PNone.NONE) {
+                writeByte(TYPE_NONE);
+            } else if (v == PEllipsis.INSTANCE) {
+                writeByte(TYPE_ELLIPSIS);
+            } else if (v == core.lookupType(PythonBuiltinClassType.StopIteration)) {
+                writeByte(TYPE_STOPITER);
+            } else if (v instanceof Boolean) {
+                writeByte((boolean) v ? TYPE_TRUE : TYPE_FALSE);
+            } else if (v == core.getTrue()) {
+                writeByte(TYPE_TRUE);
+            } else if (v == core.getFalse()) {
+                writeByte(TYPE_FALSE);
+            } else if (v instanceof Integer) {
+                writeIntegral((int) v);
+            } else if (v instanceof Long) {
+                writeIntegral((long) v);
+            } else if (v instanceof PInt) {
+                BigInteger value = ((PInt) v).getValue();
+                if (value.bitLength() < Integer.SIZE) {
+                    writeIntegral(value.intValue());
+                } else {
+                    writeBigInteger(value);
+                }
+            } else if (v instanceof Double) {
+                writeByte(TYPE_BINARY_FLOAT);
+                writeDouble((double) v);
+            } else if (v instanceof PFloat) {
+                writeByte(TYPE_BINARY_FLOAT);
+                writeDouble(((PFloat) v).getValue());
+            } else if (v instanceof PComplex) {
+                writeByte(TYPE_BINARY_COMPLEX);
+                writeDouble(((PComplex) v).getReal());
+                writeDouble(((PComplex) v).getImag());
+            } else if (v instanceof String) {
+                writeString((String) v);
+            } else if (v instanceof PString) {
+                writeString(((PString) v).getValue());
+            } else if (v instanceof PIBytesLike) {
+                SequenceStorage storage = ((PIBytesLike) v).getSequenceStorage();
+                writeByte(TYPE_STRING);
+                writeBytes(SequenceStorageNodes.ToByteArrayNode.create().execute(storage), storage.length());
+            } else if (v instanceof PTuple) {
+                SequenceStorage storage = ((PTuple) v).getSequenceStorage();
+                if (storage.length() < 256) {
+                    writeByte(TYPE_SMALL_TUPLE);
+                    writeByte(storage.length());
+                    for (int i = 0; i < storage.length(); i++) {
+                        writeObject(storage.getItemNormalized(i));
+                    }
+                } else {
+                    writeSequence(TYPE_TUPLE, storage);
+                }
+            } else if (v instanceof PList) {
+                writeSequence(TYPE_LIST, ((PList) v).getSequenceStorage());
+            } else if (v instanceof PDict) {
+                writeByte(TYPE_DICT);
+                for (DictEntry entry : ((PDict) v).getDictStorage().entries()) {
+                    writeObject(entry.getKey());
+                    writeObject(entry.getValue());
+                }
+                writeByte(TYPE_NULL);
+            } else if (v instanceof PBaseSet) {
+                HashingStorage storage = ((PBaseSet) v).getDictStorage();
+                writeByte(v instanceof PFrozenSet ? TYPE_FROZENSET : TYPE_SET);
+                writeSize(storage.length());
+                for (Object key : storage.keys()) {
+                    writeObject(key);
+                }
+            } else if (v instanceof PCode) {
+                writeCode((PCode) v);
+            } else {
+                throw core.raise(ValueError, "unmarshallable object");
+            }
+            depth--;
+        }
+
+        private void writeCode(PCode code) {
+            RootNode rootNode = code.getRootNode();
+            SourceSection section = rootNode != null ? rootNode.getSourceSection() : null;
+            if (!(rootNode instanceof ModuleRootNode) || section == null) {
+                // only module code can be re-created from its source text
+                throw core.raise(ValueError, "unmarshallable object");
+            }
+            writeByte(TYPE_CODE);
+            writeInt(code.getArgcount());
+            writeInt(code.getKwonlyargcount());
+            writeInt(code.getNlocals());
+            writeInt(code.getStacksize());
+            writeInt(code.getFlags());
+            byte[] source = section.getSource().getCharacters().toString().getBytes(StandardCharsets.UTF_8);
+            writeByte(TYPE_STRING);
+            writeBytes(source, source.length);
+            writeObject(factory.createTuple(new Object[0]));
+            writeObject(factory.createTuple(new Object[0]));
+            writeObject(factory.createTuple(code.getVarnames()));
+            writeObject(factory.createTuple(code.getFreeVars() != null ? code.getFreeVars() : new Object[0]));
+            writeObject(factory.createTuple(code.getCellVars() != null ? code.getCellVars() : new Object[0]));
+            writeString(code.getFilename() != null ? code.getFilename() : "<string>");
+            writeString(code.getName());
+            writeInt(code.getFirstLineNo());
+            writeByte(TYPE_STRING);
+            writeSize(0);
+        }
+
+        // reading
+
+        private int readByte() {
+            if (index >= data.length) {
+                throw core.raise(EOFError, "EOF read where not expected");
+            }
+            return data[index++] & 0xFF;
+        }
+
+        private int readShort() {
+            return readByte() | (readByte() << 8);
+        }
+
+        private int readInt() {
+            int result = 0;
+            for (int i = 0; i < Integer.BYTES; i++) {
+                result |= readByte() << (i * 8);
+            }
+            return result;
+        }
+
+        private long readLong() {
+            long result = 0;
+            for (int i = 0; i < Long.BYTES; i++) {
+                result |= ((long) readByte()) << (i * 8);
+            }
+            return result;
+        }
+
+        private double readDouble() {
+            return Double.longBitsToDouble(readLong());
+        }
+
+        private int readSize() {
+            int size = readInt();
+            if (size < 0) {
+                throw core.raise(ValueError, "bad marshal data (size out of range)");
+            }
+            return size;
+        }
+
+        private byte[] readBytes(int len) {
+            if (len > data.length - index) {
+                throw core.raise(EOFError, "marshal data too short");
+            }
+            byte[] result = new byte[len];
+            System.arraycopy(data, index, result, 0, len);
+            index += len;
+            return result;
+        }
+
+        private String readString(int len, boolean ascii) {
+            byte[] bytes = readBytes(len);
+            return new String(bytes, ascii ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8);
+        }
+
+        private double readFloatString() {
+            int len = readByte();
+            try {
+                return Double.parseDouble(readString(len, true));
+            } catch (NumberFormatException e) {
+                throw core.raise(ValueError, "bad marshal data (invalid float)");
+            }
+        }
+
+        private Object readBigInteger() {
+            int n = readInt();
+            int numDigits = Math.abs(n);
+            BigInteger result = BigInteger.ZERO;
+            for (int i = 0; i < numDigits; i++) {
+                int digit = readShort();
+                if (digit > PyLong_MASK.intValue()) {
+                    throw core.raise(ValueError, "bad marshal data (digit out of range in long)");
+                }
+                result = result.or(BigInteger.valueOf(digit).shiftLeft(i * PyLong_SHIFT));
+            }
+            if (n < 0) {
+                result = result.negate();
+            }
+            if (result.bitLength() < Long.SIZE) {
+                long value = result.longValue();
+                if (value == (int) value) {
+                    return (int) value;
+                }
+                return value;
+            }
+            return factory.createInt(result);
+        }
+
+        private Object[] readItems(int len) {
+            Object[] items = new Object[len];
+            for (int i = 0; i < len; i++) {
+                items[i] = readNonNull();
+            }
+            return items;
+        }
+
+        private Object readNonNull() {
+            Object result = readObjectInternal();
+            if (result == null) {
+                throw core.raise(TypeError, "NULL object in marshal data for object");
+            }
+            return result;
+        }
+
+        private int reserveRef(boolean flag) {
+            if (flag) {
+                refs.add(null);
+                return refs.size() - 1;
+            }
+            return -1;
+        }
+
+        private Object setRef(int idx, Object value) {
+            if (idx >= 0) {
+                refs.set(idx, value);
+            }
+            return value;
+        }
+
+        @TruffleBoundary
+        Object readObject() {
+            return readNonNull();
+        }
+
+        private Object readObjectInternal() {
+            if (++depth > MAX_MARSHAL_STACK_DEPTH) {
+                throw core.raise(ValueError, "recursion limit exceeded");
+            }
+            int code = readByte();
+            boolean flag = (code & FLAG_REF) != 0;
+            int type = code & ~FLAG_REF;
+            Object result;
+            switch (type) {
+                case TYPE_NULL:
+                    result = null;
+                    break;
+                case TYPE_NONE:
+                    result = PNone.NONE;
+                    break;
+                case TYPE_STOPITER:
+                    result = core.lookupType(PythonBuiltinClassType.StopIteration);
+                    break;
+                case TYPE_ELLIPSIS:
+                    result = PEllipsis.INSTANCE;
+                    break;
+                case TYPE_FALSE:
+                    result = false;
+                    break;
+                case TYPE_TRUE:
+                    result = true;
+                    break;
+                case TYPE_INT:
+                    result = setRef(reserveRef(flag), readInt());
+                    break;
+                case TYPE_INT64: {
+                    long value = readLong();
+                    result = setRef(reserveRef(flag), value == (int) value ? (Object) (int) value : (Object) value);
+                    break;
+                }
+                case TYPE_LONG: {
+                    int idx = reserveRef(flag);
+                    result = setRef(idx, readBigInteger());
+                    break;
+                }
+                case TYPE_FLOAT:
+                    result = setRef(reserveRef(flag), readFloatString());
+                    break;
+                case TYPE_BINARY_FLOAT:
+                    result = setRef(reserveRef(flag), readDouble());
+                    break;
+                case TYPE_COMPLEX: {
+                    int idx = reserveRef(flag);
+                    double real = readFloatString();
+                    double imag = readFloatString();
+                    result = setRef(idx, factory.createComplex(real, imag));
+                    break;
+                }
+                case TYPE_BINARY_COMPLEX: {
+                    int idx = reserveRef(flag);
+                    double real = readDouble();
+                    double imag = readDouble();
+                    result = setRef(idx, factory.createComplex(real, imag));
+                    break;
+                }
+                case TYPE_STRING: {
+                    int idx = reserveRef(flag);
+                    result = setRef(idx, factory.createBytes(readBytes(readSize())));
+                    break;
+                }
+                case TYPE_ASCII:
+                case TYPE_ASCII_INTERNED: {
+                    int idx = reserveRef(flag);
+                    result = setRef(idx, readString(readSize(), true));
+                    break;
+                }
+                case TYPE_SHORT_ASCII:
+                case TYPE_SHORT_ASCII_INTERNED: {
+                    int idx = reserveRef(flag);
+                    result = setRef(idx, readString(readByte(), true));
+                    break;
+                }
+                case TYPE_INTERNED:
+                case TYPE_UNICODE: {
+                    int idx = reserveRef(flag);
+                    result = setRef(idx, readString(readSize(), false));
+                    break;
+                }
+                case TYPE_SMALL_TUPLE: {
+                    int idx = reserveRef(flag);
+                    result = setRef(idx, factory.createTuple(readItems(readByte())));
+                    break;
+                }
+                case TYPE_TUPLE: {
+                    int idx = reserveRef(flag);
+                    result = setRef(idx, factory.createTuple(readItems(readSize())));
+                    break;
+                }
+                case TYPE_LIST: {
+                    int len = readSize();
+                    PList list = factory.createList();
+                    setRef(reserveRef(flag), list);
+                    list.setSequenceStorage(new SequenceStorageFactory().createStorage(readItems(len)));
+                    result = list;
+                    break;
+                }
+                case TYPE_DICT: {
+                    PDict dict = factory.createDict();
+                    setRef(reserveRef(flag), dict);
+                    while (true) {
+                        Object key = readObjectInternal();
+                        if (key == null) {
+                            break;
+                        }
+                        Object value = readObjectInternal();
+                        if (value == null) {
+                            break;
+                        }
+                        dict.setItem(key, value);
+                    }
+                    result = dict;
+                    break;
+                }
+                case TYPE_SET:
+                case TYPE_FROZENSET: {
+                    int len = readSize();
+                    EconomicMapStorage storage = EconomicMapStorage.create(len, false);
+                    PBaseSet set = type == TYPE_SET ? factory.createSet(storage) : factory.createFrozenSet(storage);
+                    int idx = reserveRef(flag);
+                    setRef(idx, set);
+                    for (int i = 0; i < len; i++) {
+                        Object key = readNonNull();
+                        storage.setItem(key, PNone.NO_VALUE, HashingStorage.getSlowPathEquivalence(key));
+                    }
+                    result = set;
+                    break;
+                }
+                case TYPE_CODE: {
+                    int idx = reserveRef(flag);
+                    result = setRef(idx, readCode());
+                    break;
+                }
+                case TYPE_REF: {
+                    int n = readInt();
+                    if (n < 0 || n >= refs.size()) {
+                        throw core.raise(ValueError, "bad marshal data (invalid reference)");
+                    }
+                    result = refs.get(n);
+                    if (result == null) {
+                        throw core.raise(ValueError, "bad marshal data (invalid reference)");
+                    }
+                    break;
+                }
+                default:
+                    throw core.raise(ValueError, "bad marshal data (unknown type code)");
+            }
+            depth--;
+            return result;
+        }
+
+        private PCode readCode() {
+            // argcount, kwonlyargcount, nlocals, stacksize and flags are re-computed from the tree
+            for (int i = 0; i < 5; i++) {
+                readInt();
+            }
+            Object codestring = readNonNull();
+            for (int i = 0; i < 5; i++) {
+                // consts, names, varnames, freevars, cellvars
+                readNonNull();
+            }
+            Object filename = readNonNull();
+            readNonNull();
+            readInt();
+            readNonNull();
+            if (!(codestring instanceof PBytes) || !(filename instanceof String)) {
+                throw core.raise(ValueError, "bad marshal data (invalid code object)");
+            }
+            byte[] sourceBytes = SequenceStorageNodes.ToByteArrayNode.create().execute(((PBytes) codestring).getSequenceStorage());
+            String sourceText = new String(sourceBytes, StandardCharsets.UTF_8);
+            String fileName = (String) filename;
+            Supplier<RootNode> parse = () -> {
+                Source source = PythonLanguage.newSource(core.getContext(), sourceText, fileName, true);
+                return (RootNode) core.getParser().parse(ParserMode.File, core, source, null);
+            };
+            if (isSyntheticFileName(fileName)) {
+                // names like "<string>" are shared by unrelated code, which would only evict each
+                // other from the per-file cache
+                return factory.createCode(parse.get());
+            }
+            PythonLanguage language = core.getLanguage();
+            return factory.createCode(language.cacheCode(fileName, PythonLanguage.codeDigest(ParserMode.File, sourceBytes), parse));
+        }
+
+        private static boolean isSyntheticFileName(String fileName) {
+            return fileName.startsWith("<") && fileName.endsWith(">");
         }
     }
 }
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.modules;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.bytes.BytesNodes.ToBytesNode;
+import com.oracle.graal.python.builtins.objects.bytes.PBytes;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.builtins.objects.pickle.PPickler;
+import com.oracle.graal.python.builtins.objects.pickle.PUnpickler;
+import com.oracle.graal.python.builtins.objects.pickle.PicklerNodes.DumpNode;
+import com.oracle.graal.python.builtins.objects.pickle.PicklerNodes.InitPicklerNode;
+import com.oracle.graal.python.builtins.objects.pickle.UnpicklerNodes.InitUnpicklerNode;
+import com.oracle.graal.python.builtins.objects.pickle.UnpicklerNodes.LoadNode;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+
+@CoreFunctions(defineModule = "_pickle")
+public class PickleModuleBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return PickleModuleBuiltinsFactory.getFactories();
+    }
+
+    // Pickler(file, protocol=None, fix_imports=True)
+    @Builtin(name = "Pickler", minNumOfPositionalArgs = 1, takesVarArgs = true, takesVarKeywordArgs = true, constructsClass = PythonBuiltinClassType.PPickler)
+    @GenerateNodeFactory
+    abstract static class PicklerNode extends PythonBuiltinNode {
+        @Specialization
+        PPickler doNew(LazyPythonClass cls, @SuppressWarnings("unused") Object[] args, @SuppressWarnings("unused") PKeyword[] kwargs) {
+            // the file and protocol are set up by __init__
+            return factory().createPickler(cls);
+        }
+    }
+
+    // Unpickler(file, *, fix_imports=True, encoding="ASCII", errors="strict")
+    @Builtin(name = "Unpickler", minNumOfPositionalArgs = 1, takesVarArgs = true, takesVarKeywordArgs = true, constructsClass = PythonBuiltinClassType.PUnpickler)
+    @GenerateNodeFactory
+    abstract static class UnpicklerNode extends PythonBuiltinNode {
+        @Specialization
+        PUnpickler doNew(LazyPythonClass cls, @SuppressWarnings("unused") Object[] args, @SuppressWarnings("unused") PKeyword[] kwargs) {
+            // the file and encoding are set up by __init__
+            return factory().createUnpickler(cls);
+        }
+    }
+
+    // dump(obj, file, protocol=None, *, fix_imports=True)
+    @Builtin(name = "dump", minNumOfPositionalArgs = 2, keywordArguments = {"protocol", "fix_imports"})
+    @GenerateNodeFactory
+    abstract static class DumpFunctionNode extends PythonBuiltinNode {
+        @Specialization
+        PNone dump(Object obj, Object file, Object protocol, Object fixImports,
+                        @Cached("create()") InitPicklerNode initNode,
+                        @Cached("create()") DumpNode dumpNode) {
+            PPickler pickler = factory().createPickler(PythonBuiltinClassType.PPickler);
+            initNode.execute(pickler, file, protocol, fixImports);
+            dumpNode.execute(pickler, obj);
+            return PNone.NONE;
+        }
+    }
+
+    // dumps(obj, protocol=None, *, fix_imports=True)
+    @Builtin(name = "dumps", minNumOfPositionalArgs = 1, keywordArguments = {"protocol", "fix_imports"})
+    @GenerateNodeFactory
+    abstract static class DumpsNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        PBytes dumps(Object obj, Object protocol, Object fixImports,
+                        @Cached("create()") InitPicklerNode initNode,
+                        @Cached("create()") DumpNode dumpNode) {
+            PPickler pickler = factory().createPickler(PythonBuiltinClassType.PPickler);
+            initNode.execute(pickler, null, protocol, fixImports);
+            return factory().createBytes(dumpNode.execute(pickler, obj));
+        }
+    }
+
+    // load(file, *, fix_imports=True, encoding="ASCII", errors="strict")
+    @Builtin(name = "load", minNumOfPositionalArgs = 1, keywordArguments = {"fix_imports", "encoding", "errors"})
+    @GenerateNodeFactory
+    abstract static class LoadFunctionNode extends PythonBuiltinNode {
+        @Specialization
+        Object load(Object file, Object fixImports, Object encoding, Object errors,
+                        @Cached("create()") InitUnpicklerNode initNode,
+                        @Cached("create()") LoadNode loadNode) {
+            PUnpickler unpickler = factory().createUnpickler(PythonBuiltinClassType.PUnpickler);
+            initNode.execute(unpickler, file, fixImports, encoding, errors);
+            return loadNode.execute(unpickler, null);
+        }
+    }
+
+    // loads(data, *, fix_imports=True, encoding="ASCII", errors="strict")
+    @Builtin(name = "loads", minNumOfPositionalArgs = 1, keywordArguments = {"fix_imports", "encoding", "errors"})
+    @GenerateNodeFactory
+    abstract static class LoadsNode extends PythonBuiltinNode {
+        @Specialization
+        Object loads(Object data, Object fixImports, Object encoding, Object errors,
+                        @Cached("create()") ToBytesNode toBytesNode,
+                        @Cached("create()") InitUnpicklerNode initNode,
+                        @Cached("create()") LoadNode loadNode) {
+            byte[] bytes = toBytesNode.execute(data);
+            PUnpickler unpickler = factory().createUnpickler(PythonBuiltinClassType.PUnpickler);
+            initNode.execute(unpickler, null, fixImports, encoding, errors);
+            return loadNode.execute(unpickler, bytes);
+        }
+    }
+}
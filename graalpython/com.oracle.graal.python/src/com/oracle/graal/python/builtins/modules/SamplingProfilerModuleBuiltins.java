@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.modules;
+
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.RuntimeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.SystemError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.expression.CastToBooleanNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.util.CastToDoubleNode;
+import com.oracle.graal.python.nodes.util.CastToIndexNode;
+import com.oracle.graal.python.nodes.util.CastToStringNode;
+import com.oracle.graal.python.runtime.profiler.PythonSampler;
+import com.oracle.graal.python.runtime.profiler.PythonSamplerInstrument;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.InstrumentInfo;
+import com.oracle.truffle.api.TruffleLanguage.Env;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+
+/**
+ * A sampling profiler for Python code, see {@link PythonSampler}. The samples can be exported as
+ * collapsed stacks for flame graph tools or in the speedscope format.
+ */
+@CoreFunctions(defineModule = "_sampling_profiler")
+public class SamplingProfilerModuleBuiltins extends PythonBuiltins {
+
+    private static final double DEFAULT_INTERVAL = 0.01;
+    private static final int DEFAULT_MAX_DEPTH = 512;
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return SamplingProfilerModuleBuiltinsFactory.getFactories();
+    }
+
+    abstract static class SamplerNode extends PythonBuiltinNode {
+        @TruffleBoundary
+        protected PythonSampler getSampler() {
+            Env env = getContext().getEnv();
+            InstrumentInfo info = env.getInstruments().get(PythonSamplerInstrument.ID);
+            PythonSampler sampler = info != null ? env.lookup(info, PythonSampler.class) : null;
+            if (sampler == null) {
+                throw raise(SystemError, "sampling profiler is not available");
+            }
+            return sampler;
+        }
+    }
+
+    @Builtin(name = "start", fixedNumOfPositionalArgs = 0, keywordArguments = {"interval", "lines", "max_depth"})
+    @GenerateNodeFactory
+    abstract static class StartNode extends SamplerNode {
+        @Specialization
+        PNone start(Object interval, Object lines, Object maxDepth,
+                        @Cached("create()") CastToDoubleNode castToDouble,
+                        @Cached("createIfTrueNode()") CastToBooleanNode castToBoolean,
+                        @Cached("create()") CastToIndexNode castToIndex) {
+            double intervalSeconds = PGuards.isNoValue(interval) ? DEFAULT_INTERVAL : castToDouble.execute(interval);
+            if (!(intervalSeconds > 0)) {
+                throw raise(ValueError, "interval must be positive");
+            }
+            int depth = PGuards.isNoValue(maxDepth) ? DEFAULT_MAX_DEPTH : castToIndex.execute(maxDepth);
+            if (depth <= 0) {
+                throw raise(ValueError, "max_depth must be positive");
+            }
+            boolean withLines = !PGuards.isNoValue(lines) && castToBoolean.executeWith(lines);
+            startSampler(Math.max((long) (intervalSeconds * 1e9), 1L), withLines, depth);
+            return PNone.NONE;
+        }
+
+        @TruffleBoundary
+        private void startSampler(long intervalNanos, boolean lines, int maxDepth) {
+            try {
+                getSampler().start(intervalNanos, lines, maxDepth);
+            } catch (IllegalStateException e) {
+                throw raise(RuntimeError, "the sampling profiler is already running");
+            }
+        }
+    }
+
+    @Builtin(name = "stop", fixedNumOfPositionalArgs = 0)
+    @GenerateNodeFactory
+    abstract static class StopNode extends SamplerNode {
+        @Specialization
+        @TruffleBoundary
+        PNone stop() {
+            getSampler().stop();
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "is_running", fixedNumOfPositionalArgs = 0)
+    @GenerateNodeFactory
+    abstract static class IsRunningNode extends SamplerNode {
+        @Specialization
+        @TruffleBoundary
+        boolean isRunning() {
+            return getSampler().isRunning();
+        }
+    }
+
+    @Builtin(name = "clear", fixedNumOfPositionalArgs = 0)
+    @GenerateNodeFactory
+    abstract static class ClearNode extends SamplerNode {
+        @Specialization
+        @TruffleBoundary
+        PNone clear() {
+            getSampler().clear();
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "sample_count", fixedNumOfPositionalArgs = 0)
+    @GenerateNodeFactory
+    abstract static class SampleCountNode extends SamplerNode {
+        @Specialization
+        @TruffleBoundary
+        long sampleCount() {
+            return getSampler().getSampleCount();
+        }
+    }
+
+    @Builtin(name = "collapsed", fixedNumOfPositionalArgs = 0)
+    @GenerateNodeFactory
+    abstract static class CollapsedNode extends SamplerNode {
+        @Specialization
+        @TruffleBoundary
+        String collapsed() {
+            return getSampler().toCollapsed();
+        }
+    }
+
+    @Builtin(name = "speedscope", fixedNumOfPositionalArgs = 0, keywordArguments = {"name"})
+    @GenerateNodeFactory
+    abstract static class SpeedscopeNode extends SamplerNode {
+        @Specialization
+        String speedscope(Object name,
+                        @Cached("create()") CastToStringNode castToString) {
+            return toSpeedscope(PGuards.isNoValue(name) ? "graalpython" : castToString.execute(name));
+        }
+
+        @TruffleBoundary
+        private String toSpeedscope(String name) {
+            return getSampler().toSpeedscope(name);
+        }
+    }
+}
@@ -40,20 +40,33 @@
  */
 package com.oracle.graal.python.builtins.modules;
 
-import java.io.PrintStream;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import java.io.IOException;
 import java.util.List;
 
 import com.oracle.graal.python.builtins.Builtin;
 import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes;
+import com.oracle.graal.python.builtins.objects.list.PList;
+import com.oracle.graal.python.builtins.objects.select.PPoll;
+import com.oracle.graal.python.builtins.objects.select.SelectNodes;
+import com.oracle.graal.python.builtins.objects.select.SelectNodes.FilenoNode;
+import com.oracle.graal.python.builtins.objects.socket.SocketNodes;
 import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.nodes.builtins.ListNodes.FastConstructListNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
-import com.oracle.graal.python.runtime.PythonOptions;
-import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.graal.python.nodes.util.CastToDoubleNode;
+import com.oracle.graal.python.runtime.PythonCore;
+import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
 
 @CoreFunctions(defineModule = "select")
 public class SelectModuleBuiltins extends PythonBuiltins {
@@ -62,16 +75,91 @@ public class SelectModuleBuiltins extends PythonBuiltins {
         return SelectModuleBuiltinsFactory.getFactories();
     }
 
+    @Override
+    public void initialize(PythonCore core) {
+        super.initialize(core);
+        builtinConstants.put("POLLIN", PPoll.POLLIN);
+        builtinConstants.put("POLLPRI", PPoll.POLLPRI);
+        builtinConstants.put("POLLOUT", PPoll.POLLOUT);
+        builtinConstants.put("POLLERR", PPoll.POLLERR);
+        builtinConstants.put("POLLHUP", PPoll.POLLHUP);
+        builtinConstants.put("POLLNVAL", PPoll.POLLNVAL);
+    }
+
     @Builtin(name = "select", fixedNumOfPositionalArgs = 3, parameterNames = {"rlist", "wlist", "xlist"}, keywordArguments = {"timeout"})
     @GenerateNodeFactory
     static abstract class SelectNode extends PythonBuiltinNode {
+        @Child private FastConstructListNode constructListNode = FastConstructListNode.create();
+        @Child private SequenceStorageNodes.ToArrayNode toArrayNode = SequenceStorageNodes.ToArrayNode.create();
+
         @Specialization
-        @TruffleBoundary
-        PTuple select(Object rlist, Object wlist, Object xlist, @SuppressWarnings("unused") Object timeout) {
-            if (PythonOptions.getFlag(getContext(), PythonOptions.VerboseFlag)) {
-                new PrintStream(getContext().getEnv().err()).println("select() will always return immediately, we only support blocking I/O for now");
+        PTuple select(VirtualFrame frame, Object rlist, Object wlist, Object xlist, Object timeout,
+                        @Cached("create()") FilenoNode filenoNode,
+                        @Cached("create()") CastToDoubleNode castToDoubleNode) {
+            long millis = -1;
+            if (timeout != PNone.NO_VALUE && timeout != PNone.NONE) {
+                double value = castToDoubleNode.execute(timeout);
+                if (value < 0) {
+                    throw raise(ValueError, "timeout must be non-negative");
+                }
+                millis = SelectNodes.toMillis(value);
+            }
+            Object[] readObjects = toArray(rlist);
+            Object[] writeObjects = toArray(wlist);
+            // exceptional conditions are not observable through NIO, so xlist is only validated
+            for (Object obj : toArray(xlist)) {
+                filenoNode.execute(obj);
+            }
+            int n = readObjects.length + writeObjects.length;
+            int[] fds = new int[n];
+            int[] ops = new int[n];
+            for (int i = 0; i < readObjects.length; i++) {
+                fds[i] = filenoNode.execute(readObjects[i]);
+                ops[i] = SelectNodes.READ;
+            }
+            for (int i = 0; i < writeObjects.length; i++) {
+                fds[readObjects.length + i] = filenoNode.execute(writeObjects[i]);
+                ops[readObjects.length + i] = SelectNodes.WRITE;
+            }
+            int[] ready;
+            try {
+                ready = SelectNodes.select(getContext().getResources(), fds, ops, millis);
+            } catch (IOException e) {
+                throw SocketNodes.raise(this, frame, e);
+            }
+            PList readReady = factory().createList(filterReady(readObjects, ready, 0));
+            PList writeReady = factory().createList(filterReady(writeObjects, ready, readObjects.length));
+            return factory().createTuple(new Object[]{readReady, writeReady, factory().createList()});
+        }
+
+        private Object[] toArray(Object iterable) {
+            return toArrayNode.execute(constructListNode.execute(iterable).getSequenceStorage());
+        }
+
+        private static Object[] filterReady(Object[] objects, int[] ready, int offset) {
+            int count = 0;
+            for (int i = 0; i < objects.length; i++) {
+                if (ready[offset + i] != 0) {
+                    count++;
+                }
+            }
+            Object[] result = new Object[count];
+            int j = 0;
+            for (int i = 0; i < objects.length; i++) {
+                if (ready[offset + i] != 0) {
+                    result[j++] = objects[i];
+                }
             }
-            return factory().createTuple(new Object[]{rlist, wlist, xlist});
+            return result;
+        }
+    }
+
+    @Builtin(name = "poll", fixedNumOfPositionalArgs = 0)
+    @GenerateNodeFactory
+    static abstract class PollNode extends PythonBuiltinNode {
+        @Specialization
+        PPoll poll() {
+            return factory().createPoll(PythonBuiltinClassType.PPoll);
         }
     }
 }
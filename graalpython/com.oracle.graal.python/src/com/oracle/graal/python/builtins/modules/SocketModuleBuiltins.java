@@ -40,8 +40,16 @@
  */
 package com.oracle.graal.python.builtins.modules;
 
+import java.io.IOException;
+import java.net.Inet6Address;
 import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.net.UnknownHostException;
+import java.nio.channels.Channel;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.NetworkChannel;
+import java.nio.channels.SelectableChannel;
+import java.util.ArrayList;
 import java.util.List;
 
 import com.oracle.graal.python.builtins.Builtin;
@@ -49,18 +57,30 @@ import com.oracle.graal.python.builtins.CoreFunctions;
 import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.PythonBuiltins;
 import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.exception.OSErrorEnum;
+import com.oracle.graal.python.builtins.objects.list.PList;
 import com.oracle.graal.python.builtins.objects.socket.PSocket;
+import com.oracle.graal.python.builtins.objects.socket.SocketNodes;
 import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+import com.oracle.graal.python.nodes.PGuards;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.util.CastToIndexNode;
+import com.oracle.graal.python.nodes.util.CastToStringNode;
 import com.oracle.graal.python.runtime.exception.PythonErrorType;
+import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
 
 @CoreFunctions(defineModule = "_socket")
 public class SocketModuleBuiltins extends PythonBuiltins {
+    private static final int IPPROTO_UDP = 17;
+
     @Override
     protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
         return SocketModuleBuiltinsFactory.getFactories();
@@ -70,34 +90,87 @@ public class SocketModuleBuiltins extends PythonBuiltins {
     @Builtin(name = "socket", minNumOfPositionalArgs = 1, maxNumOfPositionalArgs = 5, keywordArguments = {"family", "type", "proto", "fileno"}, constructsClass = PythonBuiltinClassType.PSocket)
     @GenerateNodeFactory
     public abstract static class SocketNode extends PythonBuiltinNode {
+        @Child private CastToIndexNode castToIndexNode;
+
         @Specialization(guards = {"isNoValue(family)", "isNoValue(type)", "isNoValue(proto)", "isNoValue(fileno)"})
-        Object socket(LazyPythonClass cls, @SuppressWarnings("unused") PNone family, @SuppressWarnings("unused") PNone type, @SuppressWarnings("unused") PNone proto,
+        Object socket(VirtualFrame frame, LazyPythonClass cls, @SuppressWarnings("unused") PNone family, @SuppressWarnings("unused") PNone type, @SuppressWarnings("unused") PNone proto,
                         @SuppressWarnings("unused") PNone fileno) {
-            return createSocketInternal(cls, PSocket.AF_INET, PSocket.SOCK_STREAM, 0);
+            return createSocketInternal(frame, cls, PSocket.AF_INET, PSocket.SOCK_STREAM, 0);
         }
 
         @Specialization(guards = {"isNoValue(type)", "isNoValue(proto)", "isNoValue(fileno)"})
-        Object socket(LazyPythonClass cls, int family, @SuppressWarnings("unused") PNone type, @SuppressWarnings("unused") PNone proto, @SuppressWarnings("unused") PNone fileno) {
-            return createSocketInternal(cls, family, PSocket.SOCK_STREAM, 0);
+        Object socket(VirtualFrame frame, LazyPythonClass cls, int family, @SuppressWarnings("unused") PNone type, @SuppressWarnings("unused") PNone proto, @SuppressWarnings("unused") PNone fileno) {
+            return createSocketInternal(frame, cls, family, PSocket.SOCK_STREAM, 0);
         }
 
         @Specialization(guards = {"isNoValue(proto)", "isNoValue(fileno)"})
-        Object socket(LazyPythonClass cls, int family, int type, @SuppressWarnings("unused") PNone proto, @SuppressWarnings("unused") PNone fileno) {
-            return createSocketInternal(cls, family, type, 0);
+        Object socket(VirtualFrame frame, LazyPythonClass cls, int family, int type, @SuppressWarnings("unused") PNone proto, @SuppressWarnings("unused") PNone fileno) {
+            return createSocketInternal(frame, cls, family, type, 0);
         }
 
         @Specialization(guards = {"isNoValue(fileno)"})
-        Object socket(LazyPythonClass cls, int family, int type, int proto, @SuppressWarnings("unused") PNone fileno) {
-            return createSocketInternal(cls, family, type, proto);
+        Object socket(VirtualFrame frame, LazyPythonClass cls, int family, int type, int proto, @SuppressWarnings("unused") PNone fileno) {
+            return createSocketInternal(frame, cls, family, type, proto);
+        }
+
+        @Specialization(guards = {"isNoValue(fileno)"})
+        Object socket(VirtualFrame frame, LazyPythonClass cls, Object family, Object type, Object proto, @SuppressWarnings("unused") PNone fileno) {
+            return createSocketInternal(frame, cls, castToInt(family, PSocket.AF_INET), castToInt(type, PSocket.SOCK_STREAM), castToInt(proto, 0));
+        }
+
+        @Specialization(guards = {"!isNoValue(fileno)", "!isNone(fileno)"})
+        Object socket(VirtualFrame frame, LazyPythonClass cls, Object family, Object type, Object proto, Object fileno) {
+            int fd = castToInt(fileno, -1);
+            Channel channel = getContext().getResources().getFileChannel(fd);
+            if (channel == null) {
+                throw raiseOSError(frame, OSErrorEnum.EBADF);
+            } else if (!(channel instanceof NetworkChannel && channel instanceof SelectableChannel)) {
+                throw raiseOSError(frame, OSErrorEnum.ENOTSOCK);
+            }
+            int sockType = channel instanceof DatagramChannel ? PSocket.SOCK_DGRAM : PSocket.SOCK_STREAM;
+            PSocket socket = factory().createSocket(cls, castToInt(family, PSocket.AF_INET), castToInt(type, sockType), castToInt(proto, 0));
+            socket.setChannel((SelectableChannel) channel, fd);
+            if (!isBlocking((SelectableChannel) channel)) {
+                socket.setBlocking(false);
+            }
+            return socket;
+        }
+
+        @Specialization(guards = {"isNone(fileno)"})
+        Object socketNoFileno(VirtualFrame frame, LazyPythonClass cls, Object family, Object type, Object proto, @SuppressWarnings("unused") PNone fileno) {
+            return socket(frame, cls, family, type, proto, PNone.NO_VALUE);
+        }
+
+        private int castToInt(Object value, int defaultValue) {
+            if (PGuards.isNoValue(value) || PGuards.isNone(value)) {
+                return defaultValue;
+            }
+            if (castToIndexNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                castToIndexNode = insert(CastToIndexNode.create());
+            }
+            return castToIndexNode.execute(value);
         }
 
-        private Object createSocketInternal(LazyPythonClass cls, int family, int type, int proto) {
+        private Object createSocketInternal(VirtualFrame frame, LazyPythonClass cls, int family, int type, int proto) {
             if (getContext().getEnv().isNativeAccessAllowed()) {
-                return factory().createSocket(cls, family, type, proto);
+                PSocket socket = factory().createSocket(cls, family, type, proto);
+                try {
+                    SelectableChannel channel = SocketNodes.openChannel(family, type);
+                    socket.setChannel(channel, getContext().getResources().open(channel));
+                } catch (IOException e) {
+                    throw SocketNodes.raise(this, frame, e);
+                }
+                return socket;
             } else {
                 throw raise(PythonErrorType.OSError, "creating sockets not allowed");
             }
         }
+
+        @TruffleBoundary
+        private static boolean isBlocking(SelectableChannel channel) {
+            return channel.isBlocking();
+        }
     }
 
     @Builtin(name = "gethostname", fixedNumOfPositionalArgs = 0)
@@ -113,4 +186,94 @@ public class SocketModuleBuiltins extends PythonBuiltins {
             }
         }
     }
+
+    // gethostbyname(hostname)
+    @Builtin(name = "gethostbyname", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class GetHostByNameNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        String get(Object hostname,
+                        @Cached("create()") CastToStringNode castToStringNode) {
+            String name = castToStringNode.execute(hostname);
+            try {
+                return resolve(name);
+            } catch (UnknownHostException e) {
+                throw raise(PythonBuiltinClassType.OSError, "Name or service not known: %s", name);
+            }
+        }
+
+        @TruffleBoundary
+        private static String resolve(String name) throws UnknownHostException {
+            return InetAddress.getByName(name).getHostAddress();
+        }
+    }
+
+    // getaddrinfo(host, port, family=0, type=0, proto=0, flags=0)
+    @Builtin(name = "getaddrinfo", minNumOfPositionalArgs = 2, maxNumOfPositionalArgs = 6, keywordArguments = {"family", "type", "proto", "flags"})
+    @GenerateNodeFactory
+    public abstract static class GetAddrInfoNode extends PythonBuiltinNode {
+        @Specialization
+        PList get(Object host, Object port, Object family, Object type, Object proto, @SuppressWarnings("unused") Object flags,
+                        @Cached("create()") CastToStringNode castHostNode,
+                        @Cached("create()") CastToIndexNode castToIndexNode) {
+            String hostname = PGuards.isNone(host) ? "localhost" : castHostNode.execute(host);
+            int portNumber = 0;
+            if (port instanceof String) {
+                portNumber = parsePort((String) port);
+            } else if (!PGuards.isNone(port)) {
+                portNumber = castToIndexNode.execute(port);
+            }
+            int familyNumber = PGuards.isNoValue(family) ? PSocket.AF_UNSPEC : castToIndexNode.execute(family);
+            int typeNumber = PGuards.isNoValue(type) ? 0 : castToIndexNode.execute(type);
+            int protoNumber = PGuards.isNoValue(proto) ? 0 : castToIndexNode.execute(proto);
+            InetAddress[] addresses;
+            try {
+                addresses = resolveAll(hostname);
+            } catch (UnknownHostException e) {
+                throw raise(PythonBuiltinClassType.OSError, "Name or service not known: %s", hostname);
+            }
+            int[] types = typeNumber == 0 ? new int[]{PSocket.SOCK_STREAM, PSocket.SOCK_DGRAM} : new int[]{typeNumber};
+            List<Object> result = new ArrayList<>();
+            for (InetAddress address : addresses) {
+                int addressFamily = address instanceof Inet6Address ? PSocket.AF_INET6 : PSocket.AF_INET;
+                if (familyNumber != PSocket.AF_UNSPEC && familyNumber != addressFamily) {
+                    continue;
+                }
+                Object sockaddr = factory().createTuple(SocketNodes.toAddressTuple(createAddress(address, portNumber)));
+                for (int t : types) {
+                    int p = protoNumber != 0 ? protoNumber : (t == PSocket.SOCK_STREAM ? SocketNodes.IPPROTO_TCP : IPPROTO_UDP);
+                    add(result, factory().createTuple(new Object[]{addressFamily, t, p, "", sockaddr}));
+                }
+            }
+            return factory().createList(toArray(result));
+        }
+
+        private int parsePort(String port) {
+            try {
+                return Integer.parseInt(port);
+            } catch (NumberFormatException e) {
+                throw raise(PythonBuiltinClassType.OSError, "Servname not supported for ai_socktype");
+            }
+        }
+
+        @TruffleBoundary
+        private static InetAddress[] resolveAll(String hostname) throws UnknownHostException {
+            return InetAddress.getAllByName(hostname);
+        }
+
+        @TruffleBoundary
+        private static InetSocketAddress createAddress(InetAddress address, int port) {
+            return new InetSocketAddress(address, port);
+        }
+
+        @TruffleBoundary
+        private static void add(List<Object> list, Object item) {
+            list.add(item);
+        }
+
+        @TruffleBoundary
+        private static Object[] toArray(List<Object> list) {
+            return list.toArray();
+        }
+    }
 }
@@ -117,6 +117,7 @@ import com.oracle.graal.python.builtins.objects.slice.PSlice.SliceInfo;
 import com.oracle.graal.python.builtins.objects.str.PString;
 import com.oracle.graal.python.builtins.objects.traceback.PTraceback;
 import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.builtins.objects.type.InstanceLayout;
 import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
 import com.oracle.graal.python.builtins.objects.type.PythonAbstractClass;
 import com.oracle.graal.python.builtins.objects.type.PythonBuiltinClass;
@@ -538,6 +539,7 @@ public class TruffleCextBuiltins extends PythonBuiltins {
         @Specialization(guards = {"!isPythonBuiltinClass(object)"})
         @TruffleBoundary
         Object setattr(PythonObject object, String key, Object value) {
+            InstanceLayout.ensureInsertionOrder(object.getStorage(), key);
             object.getStorage().define(key, value);
             return PNone.NONE;
         }
@@ -44,6 +44,7 @@ package com.oracle.graal.python.builtins.objects.bytes;
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import com.oracle.graal.python.builtins.Builtin;
@@ -51,22 +52,28 @@ import com.oracle.graal.python.builtins.CoreFunctions;
 import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.PythonBuiltins;
 import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.common.FastSearch;
+import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes;
 import com.oracle.graal.python.builtins.objects.ints.PInt;
-import com.oracle.graal.python.builtins.objects.list.ListBuiltins.ListAppendNode;
 import com.oracle.graal.python.builtins.objects.list.PList;
 import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+import com.oracle.graal.python.nodes.PGuards;
 import com.oracle.graal.python.nodes.argument.ReadArgumentNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
 import com.oracle.graal.python.nodes.truffle.PythonArithmeticTypes;
+import com.oracle.graal.python.nodes.util.CastToIndexNode;
 import com.oracle.graal.python.nodes.util.CastToIntegerFromIndexNode;
 import com.oracle.graal.python.runtime.exception.PythonErrorType;
+import com.oracle.graal.python.runtime.sequence.storage.ObjectSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Fallback;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
@@ -330,7 +337,6 @@ public class AbstractBytesBuiltins extends PythonBuiltins {
 
         @Child private BytesNodes.ToBytesNode selfToBytesNode;
         @Child private BytesNodes.ToBytesNode sepToBytesNode;
-        @Child private ListAppendNode appendNode;
         @Child private CastToIntegerFromIndexNode castIntNode;
         @Child private AbstractSplitNode recursiveNode;
 
@@ -387,14 +393,6 @@ public class AbstractBytesBuiltins extends PythonBuiltins {
             return sepToBytesNode;
         }
 
-        protected ListAppendNode getAppendNode() {
-            if (appendNode == null) {
-                CompilerDirectives.transferToInterpreterAndInvalidate();
-                appendNode = insert(ListAppendNode.create());
-            }
-            return appendNode;
-        }
-
         private CastToIntegerFromIndexNode getCastIntNode() {
             if (castIntNode == null) {
                 CompilerDirectives.transferToInterpreterAndInvalidate();
@@ -427,19 +425,19 @@ public class AbstractBytesBuiltins extends PythonBuiltins {
         }
 
         private PList getBytesResult(List<byte[]> bytes) {
-            PList result = factory().createList();
-            for (byte[] bs : bytes) {
-                getAppendNode().execute(result, factory().createBytes(bs));
+            Object[] result = new Object[bytes.size()];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = factory().createBytes(bytes.get(i));
             }
-            return result;
+            return factory().createList(new ObjectSequenceStorage(result, result.length));
         }
 
         private PList getByteArrayResult(List<byte[]> bytes) {
-            PList result = factory().createList();
-            for (byte[] bs : bytes) {
-                getAppendNode().execute(result, factory().createByteArray(bs));
+            Object[] result = new Object[bytes.size()];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = factory().createByteArray(bytes.get(i));
             }
-            return result;
+            return factory().createList(new ObjectSequenceStorage(result, result.length));
         }
 
         @TruffleBoundary
@@ -581,6 +579,7 @@ public class AbstractBytesBuiltins extends PythonBuiltins {
     abstract static class SplitNode extends AbstractSplitNode {
 
         @Override
+        @TruffleBoundary
         protected List<byte[]> splitWhitespace(byte[] bytes, int maxsplit) {
             int offset = 0;
             int size = bytes.length;
@@ -624,44 +623,22 @@ public class AbstractBytesBuiltins extends PythonBuiltins {
         }
 
         @Override
+        @TruffleBoundary
         protected List<byte[]> splitDelimiter(byte[] bytes, byte[] sep, int maxsplit) {
             List<byte[]> result = new ArrayList<>();
             int size = bytes.length;
-
-            if (maxsplit == 0 || size == 0) {
-                // if maxsplit is 0, just add the whole input
-                result.add(bytes);
-                return result;
-            }
-            if (sep.length == 0) {
-                // should not happen, and should be threated outside this method
-                return result;
-            }
-            int countSplit = maxsplit;
+            int countSplit = maxsplit < 0 ? Integer.MAX_VALUE : maxsplit;
             int begin = 0;
 
-            outer: for (int offset = 0; offset < size - sep.length + 1; offset++) {
-                for (int sepOffset = 0; sepOffset < sep.length; sepOffset++) {
-                    if (bytes[offset + sepOffset] != sep[sepOffset]) {
-                        continue outer;
-                    }
-                }
-
-                if (begin < offset) {
-                    result.add(copyOfRange(bytes, begin, offset));
-                } else {
-                    result.add(new byte[0]);
-                }
-                begin = offset + sep.length;
-                offset = begin - 1;
-                if (--countSplit == 0) {
+            while (countSplit-- > 0) {
+                int idx = FastSearch.find(bytes, sep, sep.length, begin, size);
+                if (idx < 0) {
                     break;
                 }
+                result.add(copyOfRange(bytes, begin, idx));
+                begin = idx + sep.length;
             }
-
-            if (begin != size) {
-                result.add(copyOfRange(bytes, begin, size));
-            }
+            result.add(copyOfRange(bytes, begin, size));
             return result;
         }
 
@@ -677,6 +654,7 @@ public class AbstractBytesBuiltins extends PythonBuiltins {
     abstract static class RSplitNode extends AbstractSplitNode {
 
         @Override
+        @TruffleBoundary
         protected List<byte[]> splitWhitespace(byte[] bytes, int maxsplit) {
             int size = bytes.length;
             List<byte[]> result = new ArrayList<>();
@@ -714,7 +692,7 @@ public class AbstractBytesBuiltins extends PythonBuiltins {
                     }
                 }
 
-                result.add(0, copyOfRange(bytes, p - offset, q - offset));
+                result.add(copyOfRange(bytes, p - offset, q - offset));
                 // Skip q backwards over the whitespace
                 for (q = p; q > offset; --q) {
                     if (!isSpace(bytes[q - 1])) {
@@ -723,58 +701,274 @@ public class AbstractBytesBuiltins extends PythonBuiltins {
                 }
             }
 
-            // Prepend the remaining unsplit text if any
+            // Add the remaining unsplit text if any, the words were collected from the end
             if (q > offset) {
-                result.add(0, copyOfRange(bytes, 0, q - offset));
+                result.add(copyOfRange(bytes, 0, q - offset));
             }
+            Collections.reverse(result);
             return result;
         }
 
         @Override
+        @TruffleBoundary
         protected List<byte[]> splitDelimiter(byte[] bytes, byte[] sep, int maxsplit) {
             List<byte[]> result = new ArrayList<>();
-            int size = bytes.length;
+            int countSplit = maxsplit < 0 ? Integer.MAX_VALUE : maxsplit;
+            int end = bytes.length;
 
-            if (maxsplit == 0 || size == 0) {
-                // if maxsplit is 0, just add the whole input
-                result.add(bytes);
-                return result;
+            while (countSplit-- > 0) {
+                int idx = FastSearch.rfind(bytes, sep, sep.length, 0, end);
+                if (idx < 0) {
+                    break;
+                }
+                result.add(copyOfRange(bytes, idx + sep.length, end));
+                end = idx;
             }
-            if (sep.length == 0) {
-                // should not happen, and should be threated outside this method
-                return result;
+            result.add(copyOfRange(bytes, 0, end));
+            Collections.reverse(result);
+            return result;
+        }
+
+        @Override
+        protected AbstractSplitNode createRecursiveNode() {
+            return AbstractBytesBuiltinsFactory.RSplitNodeFactory.create(new ReadArgumentNode[]{});
+        }
+    }
+
+    @TypeSystemReference(PythonArithmeticTypes.class)
+    abstract static class AbstractFindNode extends PythonBuiltinNode {
+
+        @Child private SequenceStorageNodes.ToByteArrayNode selfToBytesNode;
+        @Child private SequenceStorageNodes.ToByteArrayNode subToBytesNode;
+        @Child private CastToIndexNode startNode;
+        @Child private CastToIndexNode endNode;
+
+        @CompilationFinal private ConditionProfile byteRangeProfile;
+
+        @Specialization
+        int find(PIBytesLike self, PIBytesLike sub, Object start, Object end) {
+            SequenceStorage storage = self.getSequenceStorage();
+            int length = storage.length();
+            SequenceStorage subStorage = sub.getSequenceStorage();
+            byte[] bytes = getSelfToBytesNode().execute(storage);
+            byte[] subBytes = getSubToBytesNode().execute(subStorage);
+            return findWithBounds(bytes, subBytes, subStorage.length(), adjustStart(start, length), adjustEnd(end, length));
+        }
+
+        @Specialization
+        int find(PIBytesLike self, int sub, Object start, Object end) {
+            if (getByteRangeProfile().profile(sub < 0 || sub > 255)) {
+                throw raise(PythonErrorType.ValueError, "byte must be in range(0, 256)");
             }
+            SequenceStorage storage = self.getSequenceStorage();
+            int length = storage.length();
+            byte[] bytes = getSelfToBytesNode().execute(storage);
+            return findWithBounds(bytes, new byte[]{(byte) sub}, 1, adjustStart(start, length), adjustEnd(end, length));
+        }
 
-            int countSplit = maxsplit;
-            int end = size;
+        @Fallback
+        @SuppressWarnings("unused")
+        Object doError(Object self, Object sub, Object start, Object end) {
+            throw raise(PythonErrorType.TypeError, "argument should be integer or bytes-like object, not '%p'", sub);
+        }
 
-            outer: for (int offset = size - 1; offset >= 0; offset--) {
-                for (int sepOffset = 0; sepOffset < sep.length; sepOffset++) {
-                    if (bytes[offset - sepOffset] != sep[sep.length - sepOffset - 1]) {
-                        continue outer;
-                    }
-                }
+        /**
+         * Searches {@code sub[0:subLength]} in {@code bytes[start:end]}, where the bounds are
+         * already adjusted like CPython's {@code ADJUST_INDICES}.
+         */
+        @SuppressWarnings("unused")
+        protected int findWithBounds(byte[] bytes, byte[] sub, int subLength, int start, int end) {
+            throw new AssertionError("must not be reached");
+        }
 
-                if (end > offset) {
-                    result.add(0, copyOfRange(bytes, offset + 1, end));
-                } else {
-                    result.add(0, new byte[0]);
-                }
-                end = offset;
-                if (--countSplit == 0) {
-                    break;
-                }
+        private int adjustStart(Object start, int length) {
+            if (PGuards.isPNone(start)) {
+                return 0;
             }
+            if (startNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                startNode = insert(CastToIndexNode.createOverflow());
+            }
+            return FastSearch.adjustStart(startNode.execute(start), length);
+        }
 
-            if (end != 0) {
-                result.add(0, copyOfRange(bytes, 0, end));
+        private int adjustEnd(Object end, int length) {
+            if (PGuards.isPNone(end)) {
+                return length;
             }
-            return result;
+            if (endNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                endNode = insert(CastToIndexNode.createOverflow());
+            }
+            return FastSearch.adjustEnd(endNode.execute(end), length);
         }
 
+        private ConditionProfile getByteRangeProfile() {
+            if (byteRangeProfile == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                byteRangeProfile = ConditionProfile.createBinaryProfile();
+            }
+            return byteRangeProfile;
+        }
+
+        private SequenceStorageNodes.ToByteArrayNode getSelfToBytesNode() {
+            if (selfToBytesNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                selfToBytesNode = insert(SequenceStorageNodes.ToByteArrayNode.create(false));
+            }
+            return selfToBytesNode;
+        }
+
+        private SequenceStorageNodes.ToByteArrayNode getSubToBytesNode() {
+            if (subToBytesNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                subToBytesNode = insert(SequenceStorageNodes.ToByteArrayNode.create(false));
+            }
+            return subToBytesNode;
+        }
+    }
+
+    // bytes.find(sub[, start[, end]])
+    // bytearray.find(sub[, start[, end]])
+    @Builtin(name = "find", minNumOfPositionalArgs = 2, maxNumOfPositionalArgs = 4)
+    @GenerateNodeFactory
+    abstract static class FindNode extends AbstractFindNode {
+
         @Override
-        protected AbstractSplitNode createRecursiveNode() {
-            return AbstractBytesBuiltinsFactory.RSplitNodeFactory.create(new ReadArgumentNode[]{});
+        protected int findWithBounds(byte[] bytes, byte[] sub, int subLength, int start, int end) {
+            return FastSearch.find(bytes, sub, subLength, start, end);
+        }
+    }
+
+    // bytes.rfind(sub[, start[, end]])
+    // bytearray.rfind(sub[, start[, end]])
+    @Builtin(name = "rfind", minNumOfPositionalArgs = 2, maxNumOfPositionalArgs = 4)
+    @GenerateNodeFactory
+    abstract static class RFindNode extends AbstractFindNode {
+
+        @Override
+        protected int findWithBounds(byte[] bytes, byte[] sub, int subLength, int start, int end) {
+            return FastSearch.rfind(bytes, sub, subLength, start, end);
+        }
+    }
+
+    // bytes.index(sub[, start[, end]])
+    // bytearray.index(sub[, start[, end]])
+    @Builtin(name = "index", minNumOfPositionalArgs = 2, maxNumOfPositionalArgs = 4)
+    @GenerateNodeFactory
+    abstract static class IndexNode extends AbstractFindNode {
+        private final ConditionProfile errorProfile = ConditionProfile.createBinaryProfile();
+
+        @Override
+        protected int findWithBounds(byte[] bytes, byte[] sub, int subLength, int start, int end) {
+            int idx = FastSearch.find(bytes, sub, subLength, start, end);
+            if (errorProfile.profile(idx < 0)) {
+                throw raise(PythonErrorType.ValueError, "subsection not found");
+            }
+            return idx;
+        }
+    }
+
+    // bytes.rindex(sub[, start[, end]])
+    // bytearray.rindex(sub[, start[, end]])
+    @Builtin(name = "rindex", minNumOfPositionalArgs = 2, maxNumOfPositionalArgs = 4)
+    @GenerateNodeFactory
+    abstract static class RIndexNode extends AbstractFindNode {
+        private final ConditionProfile errorProfile = ConditionProfile.createBinaryProfile();
+
+        @Override
+        protected int findWithBounds(byte[] bytes, byte[] sub, int subLength, int start, int end) {
+            int idx = FastSearch.rfind(bytes, sub, subLength, start, end);
+            if (errorProfile.profile(idx < 0)) {
+                throw raise(PythonErrorType.ValueError, "subsection not found");
+            }
+            return idx;
+        }
+    }
+
+    // bytes.count(sub[, start[, end]])
+    // bytearray.count(sub[, start[, end]])
+    @Builtin(name = "count", minNumOfPositionalArgs = 2, maxNumOfPositionalArgs = 4)
+    @GenerateNodeFactory
+    abstract static class CountNode extends AbstractFindNode {
+
+        @Override
+        protected int findWithBounds(byte[] bytes, byte[] sub, int subLength, int start, int end) {
+            return FastSearch.count(bytes, sub, subLength, start, end, Integer.MAX_VALUE);
+        }
+    }
+
+    // bytes.replace(old, new[, count])
+    // bytearray.replace(old, new[, count])
+    @Builtin(name = "replace", minNumOfPositionalArgs = 3, maxNumOfPositionalArgs = 4)
+    @GenerateNodeFactory
+    @TypeSystemReference(PythonArithmeticTypes.class)
+    abstract static class ReplaceNode extends PythonBuiltinNode {
+        @Child private SequenceStorageNodes.ToByteArrayNode toBytes = SequenceStorageNodes.ToByteArrayNode.create(false);
+
+        @Specialization
+        PBytes replace(PBytes self, PIBytesLike old, PIBytesLike with, @SuppressWarnings("unused") PNone count) {
+            return factory().createBytes(replace(self, old, with, Integer.MAX_VALUE));
+        }
+
+        @Specialization
+        PBytes replace(PBytes self, PIBytesLike old, PIBytesLike with, int count) {
+            return factory().createBytes(replace(self, old, with, count < 0 ? Integer.MAX_VALUE : count));
+        }
+
+        @Specialization
+        PByteArray replace(PByteArray self, PIBytesLike old, PIBytesLike with, @SuppressWarnings("unused") PNone count) {
+            return factory().createByteArray(replace(self, old, with, Integer.MAX_VALUE));
+        }
+
+        @Specialization
+        PByteArray replace(PByteArray self, PIBytesLike old, PIBytesLike with, int count) {
+            return factory().createByteArray(replace(self, old, with, count < 0 ? Integer.MAX_VALUE : count));
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        Object doError(Object self, Object old, Object with, Object count) {
+            throw raise(PythonErrorType.TypeError, "a bytes-like object is required, not '%p'", old instanceof PIBytesLike ? with : old);
+        }
+
+        private byte[] replace(PIBytesLike self, PIBytesLike old, PIBytesLike with, int maxcount) {
+            SequenceStorage storage = self.getSequenceStorage();
+            SequenceStorage oldStorage = old.getSequenceStorage();
+            SequenceStorage withStorage = with.getSequenceStorage();
+            return replace(toBytes.execute(storage), storage.length(), toBytes.execute(oldStorage), oldStorage.length(), toBytes.execute(withStorage), withStorage.length(), maxcount);
+        }
+
+        /**
+         * Counts the occurrences first, so that the result is written into a single array of the
+         * final length.
+         */
+        @TruffleBoundary
+        private byte[] replace(byte[] bytes, int length, byte[] old, int oldLength, byte[] with, int withLength, int maxcount) {
+            int count = FastSearch.count(bytes, old, oldLength, 0, length, maxcount);
+            long resultLength = length + (long) count * (withLength - oldLength);
+            if (resultLength > Integer.MAX_VALUE) {
+                throw raise(PythonErrorType.OverflowError, "replace bytes is too long");
+            }
+            byte[] result = new byte[(int) resultLength];
+            int pos = 0;
+            int start = 0;
+            for (int i = 0; i < count; i++) {
+                int idx = oldLength == 0 ? start : FastSearch.find(bytes, old, oldLength, start, length);
+                System.arraycopy(bytes, start, result, pos, idx - start);
+                pos += idx - start;
+                System.arraycopy(with, 0, result, pos, withLength);
+                pos += withLength;
+                if (oldLength != 0) {
+                    start = idx + oldLength;
+                } else if (idx < length) {
+                    // an empty pattern matches before every byte
+                    result[pos++] = bytes[idx];
+                    start = idx + 1;
+                }
+            }
+            System.arraycopy(bytes, start, result, pos, length - start);
+            return result;
         }
     }
 
@@ -67,7 +67,6 @@ import com.oracle.graal.python.builtins.objects.slice.PSlice;
 import com.oracle.graal.python.builtins.objects.tuple.PTuple;
 import com.oracle.graal.python.nodes.SpecialMethodNames;
 import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
-import com.oracle.graal.python.nodes.expression.BinaryComparisonNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
@@ -90,7 +89,6 @@ import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.dsl.TypeSystemReference;
 import com.oracle.truffle.api.profiles.BranchProfile;
 import com.oracle.truffle.api.profiles.ConditionProfile;
-import com.oracle.truffle.api.profiles.ValueProfile;
 
 @CoreFunctions(extendClasses = PythonBuiltinClassType.PByteArray)
 public class ByteArrayBuiltins extends PythonBuiltins {
@@ -398,50 +396,6 @@ public class ByteArrayBuiltins extends PythonBuiltins {
         }
     }
 
-    // bytearray.index(x)
-    @Builtin(name = "index", fixedNumOfPositionalArgs = 2)
-    @GenerateNodeFactory
-    public abstract static class ByteArrayIndexNode extends PythonBuiltinNode {
-        @Child private SequenceStorageNodes.LenNode lenNode;
-
-        @Specialization
-        public int index(PByteArray byteArray, Object arg,
-                        @Cached("create()") BytesNodes.FindNode findNode) {
-            return findNode.execute(byteArray, arg, 0, getLength(byteArray.getSequenceStorage()));
-        }
-
-        private int getLength(SequenceStorage s) {
-            if (lenNode == null) {
-                CompilerDirectives.transferToInterpreterAndInvalidate();
-                lenNode = insert(SequenceStorageNodes.LenNode.create());
-            }
-            return lenNode.execute(s);
-        }
-    }
-
-    // bytearray.count(x)
-    @Builtin(name = "count", fixedNumOfPositionalArgs = 2)
-    @GenerateNodeFactory
-    @ImportStatic(SpecialMethodNames.class)
-    public abstract static class ByteArrayCountNode extends PythonBinaryBuiltinNode {
-
-        @Specialization
-        public int count(PByteArray byteArray, Object arg,
-                        @Cached("createClassProfile()") ValueProfile storeProfile,
-                        @Cached("createNotNormalized()") SequenceStorageNodes.GetItemNode getItemNode,
-                        @Cached("create(__EQ__, __EQ__, __EQ__)") BinaryComparisonNode eqNode) {
-
-            SequenceStorage profiled = storeProfile.profile(byteArray.getSequenceStorage());
-            int cnt = 0;
-            for (int i = 0; i < profiled.length(); i++) {
-                if (eqNode.executeBool(arg, getItemNode.execute(profiled, i))) {
-                    cnt++;
-                }
-            }
-            return cnt;
-        }
-    }
-
     // bytearray.reverse()
     @Builtin(name = "reverse", fixedNumOfPositionalArgs = 1)
     @GenerateNodeFactory
@@ -594,50 +548,6 @@ public class ByteArrayBuiltins extends PythonBuiltins {
         }
     }
 
-    @Builtin(name = "find", minNumOfPositionalArgs = 2, maxNumOfPositionalArgs = 4)
-    @GenerateNodeFactory
-    abstract static class FindNode extends PythonBuiltinNode {
-        @Child private BytesNodes.FindNode findNode;
-        @Child private SequenceStorageNodes.LenNode lenNode;
-
-        @Specialization
-        int find(PByteArray self, Object sub, @SuppressWarnings("unused") PNone start, @SuppressWarnings("unused") PNone end) {
-            return find(self, sub, 0, getLength(self.getSequenceStorage()));
-        }
-
-        @Specialization
-        int find(PByteArray self, Object sub, int start, @SuppressWarnings("unused") PNone end) {
-            return find(self, sub, start, getLength(self.getSequenceStorage()));
-        }
-
-        @Specialization
-        int find(PByteArray self, Object sub, int start, int ending) {
-            return getFindNode().execute(self, sub, start, ending);
-        }
-
-        @Fallback
-        @SuppressWarnings("unused")
-        Object doGeneric(Object self, Object sub, Object start, Object ending) {
-            throw raise(TypeError, "argument should be integer or bytes-like object, not '%p'", sub);
-        }
-
-        private BytesNodes.FindNode getFindNode() {
-            if (findNode == null) {
-                CompilerDirectives.transferToInterpreterAndInvalidate();
-                findNode = insert(BytesNodes.FindNode.create());
-            }
-            return findNode;
-        }
-
-        private int getLength(SequenceStorage s) {
-            if (lenNode == null) {
-                CompilerDirectives.transferToInterpreterAndInvalidate();
-                lenNode = insert(SequenceStorageNodes.LenNode.create());
-            }
-            return lenNode.execute(s);
-        }
-    }
-
     @Builtin(name = "translate", minNumOfPositionalArgs = 2, maxNumOfPositionalArgs = 3)
     @GenerateNodeFactory
     abstract static class TranslateNode extends PythonBuiltinNode {
@@ -44,7 +44,6 @@ import static com.oracle.graal.python.nodes.SpecialMethodNames.__RMUL__;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__SETITEM__;
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
 
-import java.io.UnsupportedEncodingException;
 import java.nio.charset.CodingErrorAction;
 import java.util.List;
 
@@ -480,45 +479,6 @@ public class BytesBuiltins extends PythonBuiltins {
         }
     }
 
-    // bytes.find(bytes[, start[, end]])
-    @Builtin(name = "find", minNumOfPositionalArgs = 2, maxNumOfPositionalArgs = 4)
-    @GenerateNodeFactory
-    abstract static class FindNode extends PythonBuiltinNode {
-        @Child private BytesNodes.FindNode findNode;
-        @Child private SequenceStorageNodes.LenNode lenNode;
-
-        @Specialization
-        int find(PBytes self, Object sub, @SuppressWarnings("unused") PNone start, @SuppressWarnings("unused") PNone end) {
-            return find(self, sub, 0, getLength(self.getSequenceStorage()));
-        }
-
-        @Specialization
-        int find(PBytes self, Object sub, int start, @SuppressWarnings("unused") PNone end) {
-            return find(self, sub, start, getLength(self.getSequenceStorage()));
-        }
-
-        @Specialization
-        int find(PBytes self, Object sub, int start, int ending) {
-            return getFindNode().execute(self, sub, start, ending);
-        }
-
-        private BytesNodes.FindNode getFindNode() {
-            if (findNode == null) {
-                CompilerDirectives.transferToInterpreterAndInvalidate();
-                findNode = insert(BytesNodes.FindNode.create());
-            }
-            return findNode;
-        }
-
-        private int getLength(SequenceStorage s) {
-            if (lenNode == null) {
-                CompilerDirectives.transferToInterpreterAndInvalidate();
-                lenNode = insert(SequenceStorageNodes.LenNode.create());
-            }
-            return lenNode.execute(s);
-        }
-    }
-
     @Builtin(name = __GETITEM__, fixedNumOfPositionalArgs = 2)
     @GenerateNodeFactory
     abstract static class GetitemNode extends PythonBinaryBuiltinNode {
@@ -542,28 +502,4 @@ public class BytesBuiltins extends PythonBuiltins {
             throw raise(TypeError, "'bytes' object does not support item assignment");
         }
     }
-
-    @Builtin(name = "replace", fixedNumOfPositionalArgs = 3)
-    @GenerateNodeFactory
-    abstract static class ReplaceNode extends PythonTernaryBuiltinNode {
-        @Child BytesNodes.ToBytesNode toBytes = BytesNodes.ToBytesNode.create();
-
-        @Specialization
-        @TruffleBoundary
-        PBytes replace(PBytes self, PBytes substr, PBytes replacement) {
-            byte[] bytes = toBytes.execute(self);
-            byte[] subBytes = toBytes.execute(substr);
-            byte[] replacementBytes = toBytes.execute(replacement);
-            try {
-                String string = new String(bytes, "ASCII");
-                String subString = new String(subBytes, "ASCII");
-                String replacementString = new String(replacementBytes, "ASCII");
-                byte[] newBytes = string.replace(subString, replacementString).getBytes("ASCII");
-                return factory().createBytes(newBytes);
-            } catch (UnsupportedEncodingException e) {
-                CompilerDirectives.transferToInterpreter();
-                throw new IllegalStateException();
-            }
-        }
-    }
 }
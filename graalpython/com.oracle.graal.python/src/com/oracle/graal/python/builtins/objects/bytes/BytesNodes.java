@@ -47,8 +47,8 @@ import java.util.ArrayList;
 import com.oracle.graal.python.builtins.objects.bytes.BytesNodesFactory.BytesJoinNodeGen;
 import com.oracle.graal.python.builtins.objects.bytes.BytesNodesFactory.FindNodeGen;
 import com.oracle.graal.python.builtins.objects.bytes.BytesNodesFactory.ToBytesNodeGen;
+import com.oracle.graal.python.builtins.objects.common.FastSearch;
 import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes;
-import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes.NormalizeIndexNode;
 import com.oracle.graal.python.builtins.objects.memoryview.PMemoryView;
 import com.oracle.graal.python.nodes.PGuards;
 import com.oracle.graal.python.nodes.PNodeWithContext;
@@ -58,6 +58,7 @@ import com.oracle.graal.python.nodes.control.GetIteratorNode;
 import com.oracle.graal.python.nodes.control.GetNextNode;
 import com.oracle.graal.python.nodes.object.IsBuiltinClassProfile;
 import com.oracle.graal.python.nodes.util.CastToByteNode;
+import com.oracle.graal.python.nodes.util.CastToIndexNode;
 import com.oracle.graal.python.runtime.exception.PException;
 import com.oracle.graal.python.runtime.sequence.PSequence;
 import com.oracle.graal.python.runtime.sequence.storage.ByteSequenceStorage;
@@ -194,9 +195,10 @@ public abstract class BytesNodes {
 
     public abstract static class FindNode extends PNodeWithContext {
 
-        @Child private NormalizeIndexNode normalizeIndexNode;
-        @Child private SequenceStorageNodes.GetItemNode getLeftItemNode;
-        @Child private SequenceStorageNodes.GetItemNode getRightItemNode;
+        @Child private SequenceStorageNodes.ToByteArrayNode selfToBytesNode;
+        @Child private SequenceStorageNodes.ToByteArrayNode subToBytesNode;
+        @Child private CastToIndexNode startNode;
+        @Child private CastToIndexNode endNode;
 
         public abstract int execute(PIBytesLike bytes, Object sub, Object starting, Object ending);
 
@@ -204,50 +206,18 @@ public abstract class BytesNodes {
         int find(PIBytesLike primary, PIBytesLike sub, Object starting, Object ending) {
             SequenceStorage haystack = primary.getSequenceStorage();
             int len1 = haystack.length();
-
             SequenceStorage needle = sub.getSequenceStorage();
-            int len2 = needle.length();
-
-            int start = getNormalizeIndexNode().execute(starting, len1);
-            int end = getNormalizeIndexNode().execute(ending, len1);
-
-            if (start >= len1 || len1 < len2) {
-                return -1;
-            } else if (end > len1) {
-                end = len1;
-            }
-
-            // TODO implement a more efficient algorithm
-            outer: for (int i = start; i < end; i++) {
-                for (int j = 0; j < len2; j++) {
-                    int hb = getGetLeftItemNode().executeInt(haystack, i + j);
-                    int nb = getGetRightItemNode().executeInt(needle, j);
-                    if (nb != hb || i + j >= end) {
-                        continue outer;
-                    }
-                }
-                return i;
-            }
-            return -1;
+            byte[] bytes = getSelfToBytesNode().execute(haystack);
+            byte[] subBytes = getSubToBytesNode().execute(needle);
+            return FastSearch.find(bytes, subBytes, needle.length(), adjustStart(starting, len1), adjustEnd(ending, len1));
         }
 
         @Specialization
-        int find(PIBytesLike primary, int sub, Object starting, @SuppressWarnings("unused") Object ending) {
+        int find(PIBytesLike primary, int sub, Object starting, Object ending) {
             SequenceStorage haystack = primary.getSequenceStorage();
             int len1 = haystack.length();
-
-            int start = getNormalizeIndexNode().execute(starting, len1);
-            if (start >= len1) {
-                return -1;
-            }
-
-            for (int i = start; i < len1; i++) {
-                int hb = getGetLeftItemNode().executeInt(haystack, i);
-                if (hb == sub) {
-                    return i;
-                }
-            }
-            return -1;
+            byte[] bytes = getSelfToBytesNode().execute(haystack);
+            return FastSearch.find(bytes, new byte[]{(byte) sub}, 1, adjustStart(starting, len1), adjustEnd(ending, len1));
         }
 
         @Fallback
@@ -255,28 +225,42 @@ public abstract class BytesNodes {
             throw raise(TypeError, "expected a bytes-like object, %p found", sub);
         }
 
-        private NormalizeIndexNode getNormalizeIndexNode() {
-            if (normalizeIndexNode == null) {
+        private int adjustStart(Object starting, int length) {
+            if (PGuards.isPNone(starting)) {
+                return 0;
+            }
+            if (startNode == null) {
                 CompilerDirectives.transferToInterpreterAndInvalidate();
-                normalizeIndexNode = insert(NormalizeIndexNode.create(false));
+                startNode = insert(CastToIndexNode.createOverflow());
             }
-            return normalizeIndexNode;
+            return FastSearch.adjustStart(startNode.execute(starting), length);
         }
 
-        private SequenceStorageNodes.GetItemNode getGetLeftItemNode() {
-            if (getLeftItemNode == null) {
+        private int adjustEnd(Object ending, int length) {
+            if (PGuards.isPNone(ending)) {
+                return length;
+            }
+            if (endNode == null) {
                 CompilerDirectives.transferToInterpreterAndInvalidate();
-                getLeftItemNode = insert(SequenceStorageNodes.GetItemNode.create());
+                endNode = insert(CastToIndexNode.createOverflow());
             }
-            return getLeftItemNode;
+            return FastSearch.adjustEnd(endNode.execute(ending), length);
         }
 
-        private SequenceStorageNodes.GetItemNode getGetRightItemNode() {
-            if (getRightItemNode == null) {
+        private SequenceStorageNodes.ToByteArrayNode getSelfToBytesNode() {
+            if (selfToBytesNode == null) {
                 CompilerDirectives.transferToInterpreterAndInvalidate();
-                getRightItemNode = insert(SequenceStorageNodes.GetItemNode.create());
+                selfToBytesNode = insert(SequenceStorageNodes.ToByteArrayNode.create(false));
             }
-            return getRightItemNode;
+            return selfToBytesNode;
+        }
+
+        private SequenceStorageNodes.ToByteArrayNode getSubToBytesNode() {
+            if (subToBytesNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                subToBytesNode = insert(SequenceStorageNodes.ToByteArrayNode.create(false));
+            }
+            return subToBytesNode;
         }
 
         public static FindNode create() {
@@ -121,6 +121,11 @@ public final class PCode extends PythonBuiltinObject {
         this.core = core;
     }
 
+    public PCode(LazyPythonClass cls, RootCallTarget callTarget, PythonCore core) {
+        this(cls, callTarget.getRootNode(), core);
+        this.callTarget = callTarget;
+    }
+
     public PCode(LazyPythonClass cls, int argcount, int kwonlyargcount,
                     int nlocals, int stacksize, int flags,
                     byte[] codestring, Object[] constants, Object[] names,
@@ -442,7 +447,8 @@ public final class PCode extends PythonBuiltinObject {
     public RootCallTarget getRootCallTarget() {
         if (rootNode != null && callTarget == null) {
             CompilerDirectives.transferToInterpreter();
-            callTarget = Truffle.getRuntime().createCallTarget(rootNode);
+            RootCallTarget existing = rootNode.getCallTarget();
+            callTarget = existing != null ? existing : Truffle.getRuntime().createCallTarget(rootNode);
         }
         return callTarget;
     }
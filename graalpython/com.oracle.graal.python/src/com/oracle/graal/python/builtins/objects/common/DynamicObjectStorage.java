@@ -42,6 +42,8 @@ package com.oracle.graal.python.builtins.objects.common;
 
 import java.util.ArrayList;
 
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.type.InstanceLayout;
 import com.oracle.graal.python.runtime.sequence.storage.MroSequenceStorage;
 import com.oracle.truffle.api.Assumption;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
@@ -67,28 +69,60 @@ public abstract class DynamicObjectStorage extends HashingStorage {
         this.store = store;
     }
 
+    /**
+     * The storage of a Python object keeps deleted attributes and attributes that are not yet
+     * assigned as {@link PNone#NO_VALUE}. They are not entries of the dict.
+     */
+    static Object filterUnset(Object value) {
+        return value == PNone.NO_VALUE ? null : value;
+    }
+
+    /**
+     * Only objects allocated in an {@link InstanceLayout} have unset attributes in their shape, so
+     * other storages are counted and iterated without looking at the values.
+     */
+    private boolean mayHaveUnset() {
+        return InstanceLayout.isLayoutShape(store.getShape());
+    }
+
     @Override
     public int length() {
+        if (mayHaveUnset()) {
+            return countAssigned();
+        }
         return store.size();
     }
 
+    @TruffleBoundary
+    private int countAssigned() {
+        int length = 0;
+        for (Object key : store.getShape().getKeys()) {
+            if (store.get(key) != PNone.NO_VALUE) {
+                length++;
+            }
+        }
+        return length;
+    }
+
     @Override
+    @TruffleBoundary
     public boolean hasKey(Object key, Equivalence eq) {
         assert eq == HashingStorage.DEFAULT_EQIVALENCE;
-        return store.containsKey(key);
+        return filterUnset(store.get(key)) != null;
     }
 
     @Override
     @TruffleBoundary
     public Object getItem(Object key, Equivalence eq) {
         assert eq == HashingStorage.DEFAULT_EQIVALENCE;
-        return store.get(key);
+        return filterUnset(store.get(key));
     }
 
     @Override
     @TruffleBoundary
     public void setItem(Object key, Object value, Equivalence eq) {
         assert eq == HashingStorage.DEFAULT_EQIVALENCE;
+        InstanceLayout.ensureInsertionOrder(store, key);
         if (store.containsKey(key)) {
             store.set(key, value);
         } else {
@@ -101,6 +135,9 @@ public abstract class DynamicObjectStorage extends HashingStorage {
     @TruffleBoundary
     public boolean remove(Object key, Equivalence eq) {
         assert eq == HashingStorage.DEFAULT_EQIVALENCE;
+        if (store.get(key) == PNone.NO_VALUE) {
+            return false;
+        }
         boolean result = store.delete(key);
         store.updateShape();
         return result;
@@ -108,16 +145,34 @@ public abstract class DynamicObjectStorage extends HashingStorage {
 
     @Override
     public Iterable<Object> keys() {
+        if (mayHaveUnset()) {
+            return assignedKeys();
+        }
         return wrapJavaIterable(store.getShape().getKeys());
     }
 
+    @TruffleBoundary
+    private Iterable<Object> assignedKeys() {
+        ArrayList<Object> keys = new ArrayList<>(store.size());
+        for (Object key : store.getShape().getKeys()) {
+            if (store.get(key) != PNone.NO_VALUE) {
+                keys.add(key);
+            }
+        }
+        return wrapJavaIterable(keys);
+    }
+
     @Override
     @TruffleBoundary
     public Iterable<Object> values() {
         ArrayList<Object> entries = new ArrayList<>(store.size());
         Shape shape = store.getShape();
+        boolean mayHaveUnset = mayHaveUnset();
         for (Object key : shape.getKeys()) {
-            entries.add(store.get(key));
+            Object value = store.get(key);
+            if (!mayHaveUnset || value != PNone.NO_VALUE) {
+                entries.add(value);
+            }
         }
         return wrapJavaIterable(entries);
     }
@@ -127,12 +182,33 @@ public abstract class DynamicObjectStorage extends HashingStorage {
     public Iterable<DictEntry> entries() {
         ArrayList<DictEntry> entries = new ArrayList<>(store.size());
         Shape shape = store.getShape();
+        boolean mayHaveUnset = mayHaveUnset();
         for (Object key : shape.getKeys()) {
-            entries.add(new DictEntry(key, store.get(key)));
+            Object value = store.get(key);
+            if (!mayHaveUnset || value != PNone.NO_VALUE) {
+                entries.add(new DictEntry(key, value));
+            }
         }
         return wrapJavaIterable(entries);
     }
 
+    /**
+     * Copies the store without the unset attributes.
+     */
+    @TruffleBoundary
+    protected DynamicObject copyStore() {
+        DynamicObject copy = store.copy(store.getShape());
+        if (!mayHaveUnset()) {
+            return copy;
+        }
+        for (Object key : store.getShape().getKeyList()) {
+            if (store.get(key) == PNone.NO_VALUE) {
+                copy.delete(key);
+            }
+        }
+        return copy;
+    }
+
     @Override
     @TruffleBoundary
     public void clear() {
@@ -152,6 +228,17 @@ public abstract class DynamicObjectStorage extends HashingStorage {
             super(copy);
         }
 
+        @Override
+        public int length() {
+            // plain dicts never contain unset attributes
+            return getStore().size();
+        }
+
+        @Override
+        public Iterable<Object> keys() {
+            return wrapJavaIterable(getStore().getShape().getKeys());
+        }
+
         @Override
         @TruffleBoundary
         public HashingStorage copy(Equivalence eq) {
@@ -180,7 +267,7 @@ public abstract class DynamicObjectStorage extends HashingStorage {
         @TruffleBoundary
         public HashingStorage copy(Equivalence eq) {
             assert eq == HashingStorage.DEFAULT_EQIVALENCE;
-            return new FastDictStorage(getStore().copy(getStore().getShape()));
+            return new FastDictStorage(copyStore());
         }
     }
 
@@ -209,7 +296,7 @@ public abstract class DynamicObjectStorage extends HashingStorage {
         @TruffleBoundary
         public HashingStorage copy(Equivalence eq) {
             assert eq == HashingStorage.DEFAULT_EQIVALENCE;
-            return new FastDictStorage(getStore().copy(getStore().getShape()));
+            return new FastDictStorage(copyStore());
         }
     }
 
@@ -347,7 +434,7 @@ public abstract class DynamicObjectStorage extends HashingStorage {
 
         @Override
         public HashingStorage copy(Equivalence eq) {
-            return new PythonObjectHybridDictStorage(getStore().copy(getStore().getShape()), (EconomicMapStorage) copyNonAttrs(eq));
+            return new PythonObjectHybridDictStorage(copyStore(), (EconomicMapStorage) copyNonAttrs(eq));
         }
 
         @TruffleBoundary
@@ -0,0 +1,404 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.common;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * Substring search for {@code str} and {@code bytes}, following CPython's {@code fastsearch}. A
+ * needle of one character is searched for with a simple loop. Longer needles are compared at the
+ * last character first and skipped over with a Horspool shift and a 64-bit bloom filter of the
+ * needle's characters, which usually moves the window by the whole needle length on a mismatch.
+ * <p>
+ * The bounds {@code start} and {@code end} must already be adjusted to the haystack. The methods
+ * may be inlined into compiled code, so that searches for short needles in short strings do not
+ * leave it.
+ */
+public final class FastSearch {
+
+    private FastSearch() {
+    }
+
+    private static long bloomAdd(long mask, int c) {
+        return mask | (1L << (c & 63));
+    }
+
+    private static boolean bloom(long mask, int c) {
+        return (mask & (1L << (c & 63))) != 0;
+    }
+
+    /**
+     * Returns the index of the first occurrence of {@code p} in {@code s[start:end]}, or -1.
+     */
+    @TruffleBoundary(allowInlining = true)
+    public static int find(String s, String p, int start, int end) {
+        int m = p.length();
+        int w = end - start - m;
+        if (w < 0) {
+            return -1;
+        } else if (m == 0) {
+            return start;
+        } else if (m == 1) {
+            int idx = s.indexOf(p.charAt(0), start);
+            return idx >= 0 && idx < end ? idx : -1;
+        }
+        int mlast = m - 1;
+        int skip = mlast - 1;
+        long mask = 0;
+        char last = p.charAt(mlast);
+        for (int i = 0; i < mlast; i++) {
+            mask = bloomAdd(mask, p.charAt(i));
+            if (p.charAt(i) == last) {
+                skip = mlast - i - 1;
+            }
+        }
+        mask = bloomAdd(mask, last);
+        for (int i = 0; i <= w; i++) {
+            int pos = start + i;
+            if (s.charAt(pos + mlast) == last) {
+                int j = 0;
+                while (j < mlast && s.charAt(pos + j) == p.charAt(j)) {
+                    j++;
+                }
+                if (j == mlast) {
+                    return pos;
+                }
+                if (i < w && !bloom(mask, s.charAt(pos + m))) {
+                    i += m;
+                } else {
+                    i += skip;
+                }
+            } else if (i < w && !bloom(mask, s.charAt(pos + m))) {
+                i += m;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the index of the last occurrence of {@code p} in {@code s[start:end]}, or -1.
+     */
+    @TruffleBoundary(allowInlining = true)
+    public static int rfind(String s, String p, int start, int end) {
+        int m = p.length();
+        int w = end - start - m;
+        if (w < 0) {
+            return -1;
+        } else if (m == 0) {
+            return end;
+        } else if (m == 1) {
+            int idx = s.lastIndexOf(p.charAt(0), end - 1);
+            return idx >= start ? idx : -1;
+        }
+        int mlast = m - 1;
+        int skip = mlast - 1;
+        char first = p.charAt(0);
+        long mask = bloomAdd(0, first);
+        for (int i = mlast; i > 0; i--) {
+            mask = bloomAdd(mask, p.charAt(i));
+            if (p.charAt(i) == first) {
+                skip = i - 1;
+            }
+        }
+        for (int i = w; i >= 0; i--) {
+            int pos = start + i;
+            if (s.charAt(pos) == first) {
+                int j = mlast;
+                while (j > 0 && s.charAt(pos + j) == p.charAt(j)) {
+                    j--;
+                }
+                if (j == 0) {
+                    return pos;
+                }
+                if (i > 0 && !bloom(mask, s.charAt(pos - 1))) {
+                    i -= m;
+                } else {
+                    i -= skip;
+                }
+            } else if (i > 0 && !bloom(mask, s.charAt(pos - 1))) {
+                i -= m;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the number of non-overlapping occurrences of {@code p} in {@code s[start:end]}, but at
+     * most {@code maxCount}.
+     */
+    @TruffleBoundary(allowInlining = true)
+    public static int count(String s, String p, int start, int end, int maxCount) {
+        int m = p.length();
+        int w = end - start - m;
+        if (w < 0 || maxCount == 0) {
+            return 0;
+        } else if (m == 0) {
+            return Math.min(end - start + 1, maxCount);
+        } else if (m == 1) {
+            char c = p.charAt(0);
+            int count = 0;
+            for (int i = start; i < end; i++) {
+                if (s.charAt(i) == c && ++count == maxCount) {
+                    break;
+                }
+            }
+            return count;
+        }
+        int mlast = m - 1;
+        int skip = mlast - 1;
+        long mask = 0;
+        char last = p.charAt(mlast);
+        for (int i = 0; i < mlast; i++) {
+            mask = bloomAdd(mask, p.charAt(i));
+            if (p.charAt(i) == last) {
+                skip = mlast - i - 1;
+            }
+        }
+        mask = bloomAdd(mask, last);
+        int count = 0;
+        for (int i = 0; i <= w; i++) {
+            int pos = start + i;
+            if (s.charAt(pos + mlast) == last) {
+                int j = 0;
+                while (j < mlast && s.charAt(pos + j) == p.charAt(j)) {
+                    j++;
+                }
+                if (j == mlast) {
+                    if (++count == maxCount) {
+                        break;
+                    }
+                    i += mlast;
+                    continue;
+                }
+                if (i < w && !bloom(mask, s.charAt(pos + m))) {
+                    i += m;
+                } else {
+                    i += skip;
+                }
+            } else if (i < w && !bloom(mask, s.charAt(pos + m))) {
+                i += m;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the index of the first occurrence of {@code p[0:m]} in {@code s[start:end]}, or -1.
+     */
+    @TruffleBoundary(allowInlining = true)
+    public static int find(byte[] s, byte[] p, int m, int start, int end) {
+        int w = end - start - m;
+        if (w < 0) {
+            return -1;
+        } else if (m == 0) {
+            return start;
+        } else if (m == 1) {
+            byte b = p[0];
+            for (int i = start; i < end; i++) {
+                if (s[i] == b) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        int mlast = m - 1;
+        int skip = mlast - 1;
+        long mask = 0;
+        byte last = p[mlast];
+        for (int i = 0; i < mlast; i++) {
+            mask = bloomAdd(mask, p[i]);
+            if (p[i] == last) {
+                skip = mlast - i - 1;
+            }
+        }
+        mask = bloomAdd(mask, last);
+        for (int i = 0; i <= w; i++) {
+            int pos = start + i;
+            if (s[pos + mlast] == last) {
+                int j = 0;
+                while (j < mlast && s[pos + j] == p[j]) {
+                    j++;
+                }
+                if (j == mlast) {
+                    return pos;
+                }
+                if (i < w && !bloom(mask, s[pos + m])) {
+                    i += m;
+                } else {
+                    i += skip;
+                }
+            } else if (i < w && !bloom(mask, s[pos + m])) {
+                i += m;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the index of the last occurrence of {@code p[0:m]} in {@code s[start:end]}, or -1.
+     */
+    @TruffleBoundary(allowInlining = true)
+    public static int rfind(byte[] s, byte[] p, int m, int start, int end) {
+        int w = end - start - m;
+        if (w < 0) {
+            return -1;
+        } else if (m == 0) {
+            return end;
+        } else if (m == 1) {
+            byte b = p[0];
+            for (int i = end - 1; i >= start; i--) {
+                if (s[i] == b) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        int mlast = m - 1;
+        int skip = mlast - 1;
+        byte first = p[0];
+        long mask = bloomAdd(0, first);
+        for (int i = mlast; i > 0; i--) {
+            mask = bloomAdd(mask, p[i]);
+            if (p[i] == first) {
+                skip = i - 1;
+            }
+        }
+        for (int i = w; i >= 0; i--) {
+            int pos = start + i;
+            if (s[pos] == first) {
+                int j = mlast;
+                while (j > 0 && s[pos + j] == p[j]) {
+                    j--;
+                }
+                if (j == 0) {
+                    return pos;
+                }
+                if (i > 0 && !bloom(mask, s[pos - 1])) {
+                    i -= m;
+                } else {
+                    i -= skip;
+                }
+            } else if (i > 0 && !bloom(mask, s[pos - 1])) {
+                i -= m;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the number of non-overlapping occurrences of {@code p[0:m]} in {@code s[start:end]},
+     * but at most {@code maxCount}.
+     */
+    @TruffleBoundary(allowInlining = true)
+    public static int count(byte[] s, byte[] p, int m, int start, int end, int maxCount) {
+        int w = end - start - m;
+        if (w < 0 || maxCount == 0) {
+            return 0;
+        } else if (m == 0) {
+            return Math.min(end - start + 1, maxCount);
+        } else if (m == 1) {
+            byte b = p[0];
+            int count = 0;
+            for (int i = start; i < end; i++) {
+                if (s[i] == b && ++count == maxCount) {
+                    break;
+                }
+            }
+            return count;
+        }
+        int mlast = m - 1;
+        int skip = mlast - 1;
+        long mask = 0;
+        byte last = p[mlast];
+        for (int i = 0; i < mlast; i++) {
+            mask = bloomAdd(mask, p[i]);
+            if (p[i] == last) {
+                skip = mlast - i - 1;
+            }
+        }
+        mask = bloomAdd(mask, last);
+        int count = 0;
+        for (int i = 0; i <= w; i++) {
+            int pos = start + i;
+            if (s[pos + mlast] == last) {
+                int j = 0;
+                while (j < mlast && s[pos + j] == p[j]) {
+                    j++;
+                }
+                if (j == mlast) {
+                    if (++count == maxCount) {
+                        break;
+                    }
+                    i += mlast;
+                    continue;
+                }
+                if (i < w && !bloom(mask, s[pos + m])) {
+                    i += m;
+                } else {
+                    i += skip;
+                }
+            } else if (i < w && !bloom(mask, s[pos + m])) {
+                i += m;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Adjusts a start index like CPython's {@code ADJUST_INDICES}: negative indices count from the
+     * end and are clamped to 0. A start beyond the length is kept, so that searches fail.
+     */
+    public static int adjustStart(int start, int length) {
+        if (start < 0) {
+            return Math.max(start + length, 0);
+        }
+        return start;
+    }
+
+    public static int adjustEnd(int end, int length) {
+        if (end > length) {
+            return length;
+        } else if (end < 0) {
+            return Math.max(end + length, 0);
+        }
+        return end;
+    }
+}
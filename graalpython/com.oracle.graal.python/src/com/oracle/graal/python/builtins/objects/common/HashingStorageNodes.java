@@ -55,6 +55,7 @@ import com.oracle.graal.python.builtins.objects.common.DynamicObjectStorage.Fast
 import com.oracle.graal.python.builtins.objects.common.DynamicObjectStorage.PythonNativeObjectDictStorage;
 import com.oracle.graal.python.builtins.objects.common.DynamicObjectStorage.PythonObjectDictStorage;
 import com.oracle.graal.python.builtins.objects.common.DynamicObjectStorage.PythonObjectHybridDictStorage;
+import com.oracle.graal.python.builtins.objects.common.HashingStorage.DictEntry;
 import com.oracle.graal.python.builtins.objects.common.HashingStorage.Equivalence;
 import com.oracle.graal.python.builtins.objects.common.HashingStorageNodesFactory.ContainsKeyNodeGen;
 import com.oracle.graal.python.builtins.objects.common.HashingStorageNodesFactory.ContainsValueNodeGen;
@@ -76,6 +77,7 @@ import com.oracle.graal.python.builtins.objects.function.PKeyword;
 import com.oracle.graal.python.builtins.objects.ints.PInt;
 import com.oracle.graal.python.builtins.objects.object.PythonObject;
 import com.oracle.graal.python.builtins.objects.str.PString;
+import com.oracle.graal.python.builtins.objects.type.InstanceLayout;
 import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
 import com.oracle.graal.python.nodes.PGuards;
 import com.oracle.graal.python.nodes.PNodeWithContext;
@@ -246,6 +248,23 @@ public abstract class HashingStorageNodes {
             return newStorage;
         }
 
+        protected HashingStorage switchToStringKeysStorage(FastDictStorage storage) {
+            // the dynamic object got too large; keep the keys in a hash table as long as they are
+            // all strings
+            StringKeysStorage newStorage = StringKeysStorage.create(storage.length() + 1);
+            for (DictEntry entry : storage.entries()) {
+                if (!(entry.getKey() instanceof String)) {
+                    return switchToEconomicMap(storage);
+                }
+                newStorage.setString((String) entry.getKey(), entry.getValue());
+            }
+            return newStorage;
+        }
+
+        protected static boolean isLongKey(Object key) {
+            return LongKeysStorage.isLongKey(key);
+        }
+
         protected static DynamicObjectStorage switchToFastDictStorage(HashingStorage storage) {
             DynamicObjectStorage newStorage = new FastDictStorage();
             newStorage.addAll(storage, DEFAULT_EQIVALENCE);
@@ -327,8 +346,16 @@ public abstract class HashingStorageNodes {
         @Specialization(guards = "!isEmpty(kwargs)")
         public HashingStorage doPDictKwargs(PDict iterable, PKeyword[] kwargs) {
             HashingStorage dictStorage = iterable.getDictStorage().copy(HashingStorage.DEFAULT_EQIVALENCE);
-            dictStorage.addAll(new KeywordsStorage(kwargs));
-            return dictStorage;
+            return addKeywords(dictStorage, kwargs);
+        }
+
+        private HashingStorage addKeywords(HashingStorage storage, PKeyword[] kwargs) {
+            // go through the set item node since the storage may not be able to hold string keys
+            HashingStorage newStorage = storage;
+            for (PKeyword kwarg : kwargs) {
+                newStorage = getSetItemNode().execute(newStorage, kwarg.getName(), kwarg.getValue());
+            }
+            return newStorage;
         }
 
         @Specialization(guards = {"!isPDict(mapping)", "hasKeysAttribute(mapping)"})
@@ -424,7 +451,7 @@ public abstract class HashingStorageNodes {
                 storage = getSetItemNode().execute(storage, getItemNode.executeObject(element, 0), getItemNode.executeObject(element, 1));
             }
             if (kwargs.length > 0) {
-                storage.addAll(new KeywordsStorage(kwargs));
+                storage = addKeywords(storage, kwargs);
             }
             return storage;
         }
@@ -470,17 +497,17 @@ public abstract class HashingStorageNodes {
                         assumptions = {
                                         "shape.getValidAssumption()"
                         })
-        protected static boolean doDynamicObjectPString(@SuppressWarnings("unused") DynamicObjectStorage storage, @SuppressWarnings("unused") PString name,
+        protected static boolean doDynamicObjectPString(DynamicObjectStorage storage, @SuppressWarnings("unused") PString name,
                         @SuppressWarnings("unused") @Cached("name.getValue()") String cachedName,
-                        @SuppressWarnings("unused") @Cached("lookupShape(storage.getStore())") Shape shape,
+                        @Cached("lookupShape(storage.getStore())") Shape shape,
                         @Cached("lookupLocation(shape, cachedName)") Location location) {
-            return location != null;
+            return location != null && location.get(storage.getStore(), shape) != PNone.NO_VALUE;
         }
 
         @TruffleBoundary
         @Specialization(replaces = {"doDynamicObjectPString"}, guards = {"wrappedString(name)", "storage.getStore().getShape().isValid()"})
         protected boolean readUncachedPString(DynamicObjectStorage storage, PString name) {
-            return storage.getStore().containsKey(name.getValue());
+            return DynamicObjectStorage.filterUnset(storage.getStore().get(name.getValue())) != null;
         }
 
         @Specialization(guards = {"wrappedString(name)", "!storage.getStore().getShape().isValid()"})
@@ -498,17 +525,17 @@ public abstract class HashingStorageNodes {
                         assumptions = {
                                         "shape.getValidAssumption()"
                         })
-        protected static boolean doDynamicObjectString(@SuppressWarnings("unused") DynamicObjectStorage storage, @SuppressWarnings("unused") String name,
+        protected static boolean doDynamicObjectString(DynamicObjectStorage storage, @SuppressWarnings("unused") String name,
                         @SuppressWarnings("unused") @Cached("name") String cachedName,
-                        @SuppressWarnings("unused") @Cached("lookupShape(storage.getStore())") Shape shape,
+                        @Cached("lookupShape(storage.getStore())") Shape shape,
                         @Cached("lookupLocation(shape, name)") Location location) {
-            return location != null;
+            return location != null && location.get(storage.getStore(), shape) != PNone.NO_VALUE;
         }
 
         @TruffleBoundary
         @Specialization(replaces = {"doDynamicObjectString"}, guards = "storage.getStore().getShape().isValid()")
         protected boolean readUncached(DynamicObjectStorage storage, String name) {
-            return storage.getStore().containsKey(name);
+            return DynamicObjectStorage.filterUnset(storage.getStore().get(name)) != null;
         }
 
         @Specialization(guards = "!storage.getStore().getShape().isValid()")
@@ -529,6 +556,36 @@ public abstract class HashingStorageNodes {
             return false;
         }
 
+        @Specialization
+        protected boolean containsInt(LongKeysStorage storage, int key) {
+            return storage.hasLong(key);
+        }
+
+        @Specialization
+        protected boolean containsLong(LongKeysStorage storage, long key) {
+            return storage.hasLong(key);
+        }
+
+        @Specialization(guards = {"!isLongKey(key)", "isHashable(key)"})
+        protected boolean contains(LongKeysStorage storage, Object key) {
+            return storage.hasKey(key, getEquivalence());
+        }
+
+        @Specialization
+        protected boolean containsString(StringKeysStorage storage, String key) {
+            return storage.hasString(key);
+        }
+
+        @Specialization(guards = "wrappedString(key)")
+        protected boolean containsPString(StringKeysStorage storage, PString key) {
+            return storage.hasString(key.getValue());
+        }
+
+        @Specialization(guards = {"!isJavaString(key)", "isHashable(key)"})
+        protected boolean contains(StringKeysStorage storage, Object key) {
+            return storage.hasKey(key, getEquivalence());
+        }
+
         @Specialization(guards = "isHashable(key)")
         protected boolean contains(EconomicMapStorage storage, Object key) {
             return storage.hasKey(key, getEquivalence());
@@ -680,7 +737,21 @@ public abstract class HashingStorageNodes {
             return ensureDynamicObjectSetItemNode().execute(switchToFastDictStorage(storage), key.getValue(), value);
         }
 
-        @Specialization(guards = {"!isJavaString(key)", "isHashable(key)"})
+        @Specialization
+        protected HashingStorage doEmptyStorage(@SuppressWarnings("unused") EmptyStorage storage, int key, Object value) {
+            LongKeysStorage newStorage = LongKeysStorage.create(0);
+            newStorage.setLong(key, value);
+            return newStorage;
+        }
+
+        @Specialization
+        protected HashingStorage doEmptyStorage(@SuppressWarnings("unused") EmptyStorage storage, long key, Object value) {
+            LongKeysStorage newStorage = LongKeysStorage.create(0);
+            newStorage.setLong(key, value);
+            return newStorage;
+        }
+
+        @Specialization(guards = {"!isJavaString(key)", "!isLongKey(key)", "isHashable(key)"})
         protected HashingStorage doEmptyStorage(@SuppressWarnings("unused") EmptyStorage storage, Object key, Object value) {
             // immediately replace storage since empty storage is immutable
             EconomicMapStorage newStorage = EconomicMapStorage.create(false);
@@ -756,6 +827,51 @@ public abstract class HashingStorageNodes {
             return storage;
         }
 
+        @Specialization
+        protected HashingStorage doLongKeys(LongKeysStorage storage, int key, Object value) {
+            storage.setLong(key, value);
+            return storage;
+        }
+
+        @Specialization
+        protected HashingStorage doLongKeys(LongKeysStorage storage, long key, Object value) {
+            storage.setLong(key, value);
+            return storage;
+        }
+
+        @Specialization(guards = {"!isLongKey(key)", "isHashable(key)"})
+        protected HashingStorage doLongKeysGeneralize(LongKeysStorage storage, Object key, Object value) {
+            // an equal key (e.g. 'True' for '1') keeps the storage; anything else is a new key
+            if (storage.replaceValue(key, value, getEquivalence())) {
+                return storage;
+            }
+            HashingStorage newStorage = switchToEconomicMap(storage);
+            newStorage.setItem(key, value, getEquivalence());
+            return newStorage;
+        }
+
+        @Specialization
+        protected HashingStorage doStringKeys(StringKeysStorage storage, String key, Object value) {
+            storage.setString(key, value);
+            return storage;
+        }
+
+        @Specialization(guards = "wrappedString(key)")
+        protected HashingStorage doStringKeys(StringKeysStorage storage, PString key, Object value) {
+            storage.setString(key.getValue(), value);
+            return storage;
+        }
+
+        @Specialization(guards = {"!isJavaString(key)", "isHashable(key)"})
+        protected HashingStorage doStringKeysGeneralize(StringKeysStorage storage, Object key, Object value) {
+            if (storage.replaceValue(key, value, getEquivalence())) {
+                return storage;
+            }
+            HashingStorage newStorage = switchToEconomicMap(storage);
+            newStorage.setItem(key, value, getEquivalence());
+            return newStorage;
+        }
+
         @Specialization(guards = "isHashable(key)")
         protected HashingStorage doHashMap(EconomicMapStorage storage, Object key, Object value) {
             storage.setItem(key, value, getEquivalence());
@@ -807,6 +923,7 @@ public abstract class HashingStorageNodes {
     }
 
     @TypeSystemReference(PythonArithmeticTypes.class)
+    @ImportStatic(InstanceLayout.class)
     abstract static class DynamicObjectSetItemNode extends SetItemBaseNode {
 
         @Child private InvalidateMroNode actionNode = InvalidateMroNode.create();
@@ -828,7 +945,12 @@ public abstract class HashingStorageNodes {
                         Object value,
                         @SuppressWarnings("unused") @Cached("name") String cachedName,
                         @Cached("lookupShape(storage.getStore())") Shape shape,
-                        @Cached("lookupLocation(shape, name, value)") Location location) {
+                        @Cached("lookupLocation(shape, name, value)") Location location,
+                        @Cached("getPrecedingLocation(shape, name)") Location precedingLocation) {
+            if (precedingLocation != null && location.get(storage.getStore(), shape) == PNone.NO_VALUE && precedingLocation.get(storage.getStore(), shape) == PNone.NO_VALUE) {
+                CompilerDirectives.transferToInterpreter();
+                return doDynamicObjectUncached(storage, name, value);
+            }
             try {
                 location.set(storage.getStore(), value, shape);
                 actionNode.execute(storage, name, value);
@@ -857,7 +979,12 @@ public abstract class HashingStorageNodes {
                         @Cached("lookupShape(storage.getStore())") Shape oldShape,
                         @Cached("lookupLocation(oldShape, name, value)") Location oldLocation,
                         @Cached("defineProperty(oldShape, name, value)") Shape newShape,
-                        @Cached("lookupLocation(newShape, name)") Location newLocation) {
+                        @Cached("lookupLocation(newShape, name)") Location newLocation,
+                        @Cached("getPrecedingLocation(oldShape, name)") Location precedingLocation) {
+            if (precedingLocation != null && precedingLocation.get(storage.getStore(), oldShape) == PNone.NO_VALUE) {
+                CompilerDirectives.transferToInterpreter();
+                return doDynamicObjectUncached(storage, name, value);
+            }
             try {
                 newLocation.set(storage.getStore(), value, oldShape, newShape);
                 actionNode.execute(storage, name, value);
@@ -875,6 +1002,7 @@ public abstract class HashingStorageNodes {
         @TruffleBoundary
         @Specialization(replaces = {"doDynamicObjectExistingCached", "doDynamicObjectNewCached"}, guards = {"storage.getStore().getShape().isValid()", "!exceedsLimit(storage)"})
         protected HashingStorage doDynamicObjectUncached(DynamicObjectStorage storage, String name, Object value) {
+            InstanceLayout.ensureInsertionOrder(storage.getStore(), name);
             storage.getStore().define(name, value);
             actionNode.execute(storage, name, value);
             return storage;
@@ -882,7 +1010,7 @@ public abstract class HashingStorageNodes {
 
         @Specialization(guards = {"storage.getStore().getShape().isValid()", "exceedsLimit(storage)"})
         protected HashingStorage doDynamicObjectGeneralize(FastDictStorage storage, String name, Object value) {
-            HashingStorage newStorage = switchToEconomicMap(storage);
+            HashingStorage newStorage = switchToStringKeysStorage(storage);
             newStorage.setItem(name, value, getEquivalence());
             return newStorage;
         }
@@ -922,13 +1050,13 @@ public abstract class HashingStorageNodes {
                         @Cached("lookupShape(storage.getStore())") Shape shape,
                         @Cached("lookupLocation(shape, name)") Location location) {
 
-            return location != null ? location.get(storage.getStore(), shape) : null;
+            return location != null ? DynamicObjectStorage.filterUnset(location.get(storage.getStore(), shape)) : null;
         }
 
         @TruffleBoundary
         @Specialization(replaces = {"doDynamicObjectString"}, guards = "storage.getStore().getShape().isValid()")
         protected Object doDynamicObjectUncached(DynamicObjectStorage storage, String name) {
-            return storage.getStore().get(name);
+            return DynamicObjectStorage.filterUnset(storage.getStore().get(name));
         }
 
         @Specialization(guards = "!storage.getStore().getShape().isValid()")
@@ -952,13 +1080,13 @@ public abstract class HashingStorageNodes {
                         @Cached("lookupShape(storage.getStore())") Shape shape,
                         @Cached("lookupLocation(shape, cachedName)") Location location) {
 
-            return location != null ? location.get(storage.getStore(), shape) : null;
+            return location != null ? DynamicObjectStorage.filterUnset(location.get(storage.getStore(), shape)) : null;
         }
 
         @TruffleBoundary
         @Specialization(replaces = {"doDynamicObjectPString"}, guards = {"wrappedString(name)", "storage.getStore().getShape().isValid()"})
         protected Object doDynamicObjectUncachedPString(DynamicObjectStorage storage, PString name) {
-            return storage.getStore().get(name.getValue());
+            return DynamicObjectStorage.filterUnset(storage.getStore().get(name.getValue()));
         }
 
         @Specialization(guards = {"wrappedString(name)", "!storage.getStore().getShape().isValid()"})
@@ -1011,6 +1139,36 @@ public abstract class HashingStorageNodes {
             return null;
         }
 
+        @Specialization
+        Object doLongKeys(LongKeysStorage storage, int key) {
+            return storage.getLong(key);
+        }
+
+        @Specialization
+        Object doLongKeys(LongKeysStorage storage, long key) {
+            return storage.getLong(key);
+        }
+
+        @Specialization(guards = {"!isLongKey(key)", "isHashable(key)"})
+        Object doLongKeysObject(LongKeysStorage storage, Object key) {
+            return storage.getItem(key, getEquivalence());
+        }
+
+        @Specialization
+        Object doStringKeys(StringKeysStorage storage, String key) {
+            return storage.getString(key);
+        }
+
+        @Specialization(guards = "wrappedString(key)")
+        Object doStringKeys(StringKeysStorage storage, PString key) {
+            return storage.getString(key.getValue());
+        }
+
+        @Specialization(guards = {"!isJavaString(key)", "isHashable(key)"})
+        Object doStringKeysObject(StringKeysStorage storage, Object key) {
+            return storage.getItem(key, getEquivalence());
+        }
+
         @Specialization(guards = "isHashable(key)")
         Object doGeneric(EconomicMapStorage storage, Object key) {
             return storage.getItem(key, getEquivalence());
@@ -1250,6 +1408,36 @@ public abstract class HashingStorageNodes {
             return false;
         }
 
+        @Specialization
+        protected boolean doLongKeys(@SuppressWarnings("unused") PHashingCollection container, LongKeysStorage storage, int key) {
+            return storage.removeLong(key);
+        }
+
+        @Specialization
+        protected boolean doLongKeys(@SuppressWarnings("unused") PHashingCollection container, LongKeysStorage storage, long key) {
+            return storage.removeLong(key);
+        }
+
+        @Specialization(guards = "!isLongKey(key)")
+        protected boolean doLongKeysObject(@SuppressWarnings("unused") PHashingCollection container, LongKeysStorage storage, Object key) {
+            return storage.remove(key, getEquivalence());
+        }
+
+        @Specialization
+        protected boolean doStringKeys(@SuppressWarnings("unused") PHashingCollection container, StringKeysStorage storage, String key) {
+            return storage.removeString(key);
+        }
+
+        @Specialization(guards = "wrappedString(key)")
+        protected boolean doStringKeys(@SuppressWarnings("unused") PHashingCollection container, StringKeysStorage storage, PString key) {
+            return storage.removeString(key.getValue());
+        }
+
+        @Specialization(guards = "!isJavaString(key)")
+        protected boolean doStringKeysObject(@SuppressWarnings("unused") PHashingCollection container, StringKeysStorage storage, Object key) {
+            return storage.remove(key, getEquivalence());
+        }
+
         @Specialization
         protected boolean doEconomicMap(@SuppressWarnings("unused") PHashingCollection container, EconomicMapStorage storage, Object key) {
             return storage.remove(key, getEquivalence());
@@ -1485,7 +1673,7 @@ public abstract class HashingStorageNodes {
 
     public abstract static class LenNode extends PNodeWithContext {
 
-        protected static final int MAX_STORAGES = 8;
+        protected static final int MAX_STORAGES = 12;
 
         public abstract int execute(HashingStorage s);
 
@@ -0,0 +1,291 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.common;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * Base class for insertion-ordered dictionary storages whose keys all have the same primitive
+ * representation. Entries are kept in dense arrays in insertion order, and an open-addressing
+ * index table maps hash slots to entry positions. Subclasses provide the typed key array and the
+ * key comparison, so that lookups with a key of the right type never box or call {@code __eq__}.
+ * <p>
+ * Removed entries keep their slot in the index table with a {@code null} value until the next
+ * rehash compacts the entry arrays.
+ */
+public abstract class PrimitiveKeysStorage extends HashingStorage {
+
+    protected static final int INITIAL_CAPACITY = 8;
+
+    /** Hash slots; each slot holds an entry position plus one, {@code 0} marks a free slot. */
+    protected int[] index;
+    protected int[] hashes;
+    protected Object[] values;
+    /** Number of entry positions in use, including removed entries. */
+    protected int used;
+    private int size;
+
+    protected PrimitiveKeysStorage(int capacity) {
+        int entries = INITIAL_CAPACITY;
+        while (entries < capacity) {
+            entries <<= 1;
+        }
+        this.index = new int[entries << 1];
+        this.hashes = new int[entries];
+        this.values = new Object[entries];
+    }
+
+    protected PrimitiveKeysStorage(PrimitiveKeysStorage original) {
+        this.index = original.index.clone();
+        this.hashes = original.hashes.clone();
+        this.values = original.values.clone();
+        this.used = original.used;
+        this.size = original.size;
+    }
+
+    protected static int firstSlot(int hash, int mask) {
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    @Override
+    public int length() {
+        return size;
+    }
+
+    /** Returns the position of a boxed key equal to {@code key} according to {@code eq}. */
+    protected final int findGeneric(Object key, Equivalence eq) {
+        int hash = eq.hashCode(key);
+        int mask = index.length - 1;
+        for (int slot = firstSlot(hash, mask);; slot = (slot + 1) & mask) {
+            int entry = index[slot] - 1;
+            if (entry < 0) {
+                return -1;
+            }
+            if (hashes[entry] == hash && values[entry] != null && eq.equals(getKeyObject(entry), key)) {
+                return entry;
+            }
+        }
+    }
+
+    /**
+     * Appends a new entry with the given hash and value and returns its position. The caller has to
+     * store the key at that position.
+     */
+    protected final int addEntry(int hash, Object value) {
+        if (used == values.length) {
+            rehash(size + 1 > values.length >> 1 ? values.length << 1 : values.length);
+        }
+        int entry = used++;
+        hashes[entry] = hash;
+        values[entry] = value;
+        size++;
+        int mask = index.length - 1;
+        int slot = firstSlot(hash, mask);
+        while (index[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        index[slot] = entry + 1;
+        return entry;
+    }
+
+    protected final void removeEntry(int entry) {
+        values[entry] = null;
+        clearKey(entry);
+        size--;
+    }
+
+    @TruffleBoundary
+    private void rehash(int capacity) {
+        int[] newHashes = new int[capacity];
+        Object[] newValues = new Object[capacity];
+        int[] newIndex = new int[capacity << 1];
+        int mask = newIndex.length - 1;
+        int j = 0;
+        for (int i = 0; i < used; i++) {
+            if (values[i] != null) {
+                newHashes[j] = hashes[i];
+                newValues[j] = values[i];
+                moveKey(i, j);
+                int slot = firstSlot(hashes[i], mask);
+                while (newIndex[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                newIndex[slot] = j + 1;
+                j++;
+            }
+        }
+        assert j == size;
+        resizeKeys(capacity, j);
+        index = newIndex;
+        hashes = newHashes;
+        values = newValues;
+        used = j;
+    }
+
+    /** Boxes the key at the given position the way it is seen from Python. */
+    protected abstract Object getKeyObject(int entry);
+
+    /** Moves a key to a lower position while compacting; see {@link #rehash}. */
+    protected abstract void moveKey(int from, int to);
+
+    /** Replaces the key array by one of the given capacity holding the first {@code count} keys. */
+    protected abstract void resizeKeys(int capacity, int count);
+
+    protected abstract void clearKey(int entry);
+
+    @Override
+    public boolean hasKey(Object key, Equivalence eq) {
+        return findGeneric(key, eq) != -1;
+    }
+
+    @Override
+    public Object getItem(Object key, Equivalence eq) {
+        int entry = findGeneric(key, eq);
+        return entry != -1 ? values[entry] : null;
+    }
+
+    /**
+     * Replaces the value of an existing key that is not of the primitive key type (e.g., a
+     * {@code bool} key for an {@code int} dict). Returns {@code false} if there is no such key.
+     */
+    public boolean replaceValue(Object key, Object value, Equivalence eq) {
+        int entry = findGeneric(key, eq);
+        if (entry != -1) {
+            values[entry] = value;
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean remove(Object key, Equivalence eq) {
+        int entry = findGeneric(key, eq);
+        if (entry != -1) {
+            removeEntry(entry);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(index, 0);
+        Arrays.fill(values, 0, used, null);
+        for (int i = 0; i < used; i++) {
+            clearKey(i);
+        }
+        used = 0;
+        size = 0;
+    }
+
+    private abstract class EntryIterator<T> implements Iterator<T> {
+        private int current = nextEntry(0);
+
+        private int nextEntry(int start) {
+            int i = start;
+            while (i < used && values[i] == null) {
+                i++;
+            }
+            return i;
+        }
+
+        public boolean hasNext() {
+            return current < used;
+        }
+
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int entry = current;
+            current = nextEntry(current + 1);
+            return get(entry);
+        }
+
+        protected abstract T get(int entry);
+    }
+
+    @Override
+    public Iterable<Object> keys() {
+        return new Iterable<Object>() {
+            public Iterator<Object> iterator() {
+                return new EntryIterator<Object>() {
+                    @Override
+                    protected Object get(int entry) {
+                        return getKeyObject(entry);
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public Iterable<Object> values() {
+        return new Iterable<Object>() {
+            public Iterator<Object> iterator() {
+                return new EntryIterator<Object>() {
+                    @Override
+                    protected Object get(int entry) {
+                        return values[entry];
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public Iterable<DictEntry> entries() {
+        return new Iterable<DictEntry>() {
+            public Iterator<DictEntry> iterator() {
+                return new EntryIterator<DictEntry>() {
+                    @Override
+                    protected DictEntry get(int entry) {
+                        return new DictEntry(getKeyObject(entry), values[entry]);
+                    }
+                };
+            }
+        };
+    }
+}
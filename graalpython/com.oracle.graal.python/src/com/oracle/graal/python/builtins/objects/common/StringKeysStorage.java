@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.common;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * Dictionary storage for dicts whose keys are all builtin {@code str} objects, used once a dict
+ * outgrows {@link DynamicObjectStorage.FastDictStorage}. Java strings cache their hash code, which
+ * is also what {@code str.__hash__} returns, so a lookup is a hash probe followed by a reference or
+ * {@link String#equals} comparison.
+ */
+public final class StringKeysStorage extends PrimitiveKeysStorage {
+
+    private String[] keys;
+
+    private StringKeysStorage(int capacity) {
+        super(capacity);
+        this.keys = new String[values.length];
+    }
+
+    private StringKeysStorage(StringKeysStorage original) {
+        super(original);
+        this.keys = original.keys.clone();
+    }
+
+    public static StringKeysStorage create(int capacity) {
+        return new StringKeysStorage(capacity);
+    }
+
+    private int find(String key) {
+        int hash = key.hashCode();
+        int mask = index.length - 1;
+        for (int slot = firstSlot(hash, mask);; slot = (slot + 1) & mask) {
+            int entry = index[slot] - 1;
+            if (entry < 0) {
+                return -1;
+            }
+            String k = keys[entry];
+            if (k == key || hashes[entry] == hash && k != null && stringEquals(k, key)) {
+                return entry;
+            }
+        }
+    }
+
+    @TruffleBoundary(allowInlining = true)
+    private static boolean stringEquals(String a, String b) {
+        return a.equals(b);
+    }
+
+    public boolean hasString(String key) {
+        return find(key) != -1;
+    }
+
+    public Object getString(String key) {
+        int entry = find(key);
+        return entry != -1 ? values[entry] : null;
+    }
+
+    public void setString(String key, Object value) {
+        assert value != null;
+        int entry = find(key);
+        if (entry != -1) {
+            values[entry] = value;
+        } else {
+            // adding may grow the key array, so it must happen before reading the field
+            int newEntry = addEntry(key.hashCode(), value);
+            keys[newEntry] = key;
+        }
+    }
+
+    public boolean removeString(String key) {
+        int entry = find(key);
+        if (entry != -1) {
+            removeEntry(entry);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean hasKey(Object key, Equivalence eq) {
+        if (key instanceof String) {
+            return hasString((String) key);
+        }
+        return super.hasKey(key, eq);
+    }
+
+    @Override
+    public Object getItem(Object key, Equivalence eq) {
+        if (key instanceof String) {
+            return getString((String) key);
+        }
+        return super.getItem(key, eq);
+    }
+
+    /**
+     * Only Java string keys can be added to this storage; everything else must go through
+     * {@link HashingStorageNodes.SetItemNode} which switches to a generic storage.
+     */
+    @Override
+    public void setItem(Object key, Object value, Equivalence eq) {
+        if (key instanceof String) {
+            setString((String) key, value);
+        } else if (!replaceValue(key, value, eq)) {
+            throw UnmodifiableStorageException.INSTANCE;
+        }
+    }
+
+    @Override
+    public boolean remove(Object key, Equivalence eq) {
+        if (key instanceof String) {
+            return removeString((String) key);
+        }
+        return super.remove(key, eq);
+    }
+
+    @Override
+    protected Object getKeyObject(int entry) {
+        return keys[entry];
+    }
+
+    @Override
+    protected void moveKey(int from, int to) {
+        keys[to] = keys[from];
+    }
+
+    @Override
+    protected void resizeKeys(int capacity, int count) {
+        String[] newKeys = new String[capacity];
+        System.arraycopy(keys, 0, newKeys, 0, count);
+        keys = newKeys;
+    }
+
+    @Override
+    protected void clearKey(int entry) {
+        keys[entry] = null;
+    }
+
+    @Override
+    @TruffleBoundary
+    public HashingStorage copy(Equivalence eq) {
+        return new StringKeysStorage(this);
+    }
+}
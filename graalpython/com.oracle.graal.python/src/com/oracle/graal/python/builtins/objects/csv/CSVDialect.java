@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.csv;
+
+/**
+ * The settings of a {@code _csv.Dialect}, read once when a reader or writer is created. Characters
+ * that are {@code None} or empty are stored as {@link #NOT_SET}.
+ */
+public final class CSVDialect {
+    public static final int QUOTE_MINIMAL = 0;
+    public static final int QUOTE_ALL = 1;
+    public static final int QUOTE_NONNUMERIC = 2;
+    public static final int QUOTE_NONE = 3;
+
+    public static final int NOT_SET = -1;
+
+    private final Object dialect;
+    private final int delimiter;
+    private final int quoteChar;
+    private final int escapeChar;
+    private final boolean doubleQuote;
+    private final boolean skipInitialSpace;
+    private final boolean strict;
+    private final int quoting;
+    private final String lineTerminator;
+
+    public CSVDialect(Object dialect, int delimiter, int quoteChar, int escapeChar, boolean doubleQuote, boolean skipInitialSpace, boolean strict, int quoting, String lineTerminator) {
+        this.dialect = dialect;
+        this.delimiter = delimiter;
+        this.quoteChar = quoteChar;
+        this.escapeChar = escapeChar;
+        this.doubleQuote = doubleQuote;
+        this.skipInitialSpace = skipInitialSpace;
+        this.strict = strict;
+        this.quoting = quoting;
+        this.lineTerminator = lineTerminator;
+    }
+
+    /**
+     * The {@code _csv.Dialect} object, which is exposed as the {@code dialect} attribute.
+     */
+    public Object getDialect() {
+        return dialect;
+    }
+
+    public int getDelimiter() {
+        return delimiter;
+    }
+
+    public int getQuoteChar() {
+        return quoteChar;
+    }
+
+    public int getEscapeChar() {
+        return escapeChar;
+    }
+
+    public boolean isDoubleQuote() {
+        return doubleQuote;
+    }
+
+    public boolean isSkipInitialSpace() {
+        return skipInitialSpace;
+    }
+
+    public boolean isStrict() {
+        return strict;
+    }
+
+    public int getQuoting() {
+        return quoting;
+    }
+
+    public String getLineTerminator() {
+        return lineTerminator;
+    }
+}
@@ -0,0 +1,279 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.csv;
+
+import static com.oracle.graal.python.builtins.objects.csv.CSVDialect.QUOTE_ALL;
+import static com.oracle.graal.python.builtins.objects.csv.CSVDialect.QUOTE_NONNUMERIC;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__FLOAT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__INDEX__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__INT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__STR__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.complex.PComplex;
+import com.oracle.graal.python.builtins.objects.floats.PFloat;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.str.PString;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+import com.oracle.graal.python.nodes.PNodeWithContext;
+import com.oracle.graal.python.nodes.attributes.GetAttributeNode.GetAnyAttributeNode;
+import com.oracle.graal.python.nodes.attributes.LookupInheritedAttributeNode;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
+import com.oracle.graal.python.nodes.control.GetIteratorNode;
+import com.oracle.graal.python.nodes.control.GetNextNode;
+import com.oracle.graal.python.nodes.expression.CastToBooleanNode;
+import com.oracle.graal.python.nodes.object.IsBuiltinClassProfile;
+import com.oracle.graal.python.nodes.util.CastToIndexNode;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.graal.python.runtime.formatting.FloatFormatter;
+import com.oracle.graal.python.runtime.formatting.InternalFormat;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.frame.VirtualFrame;
+
+public abstract class CSVNodes {
+
+    /**
+     * An error found while parsing or joining a row, raised as {@code _csv.Error}.
+     */
+    public static final class CSVError extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        public CSVError(String message) {
+            super(message);
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+
+    static PException raiseCSVError(PNodeWithContext node, String format, Object... args) {
+        LazyPythonClass cls = (LazyPythonClass) node.getCore().lookupBuiltinModule("_csv").getAttribute("Error");
+        throw node.raise(node.getCore().factory().createBaseException(cls, format, args));
+    }
+
+    @TruffleBoundary
+    static String getMessage(CSVError error) {
+        return error.getMessage();
+    }
+
+    /**
+     * Returns the limit set with {@code field_size_limit}, which is read for each row like in
+     * CPython.
+     */
+    static long getFieldLimit(PNodeWithContext node) {
+        Object limit = node.getCore().lookupBuiltinModule("_csv").getAttribute("_field_limit");
+        if (limit instanceof Integer || limit instanceof Long) {
+            return ((Number) limit).longValue();
+        } else if (limit instanceof PInt) {
+            try {
+                return ((PInt) limit).longValueExact();
+            } catch (ArithmeticException e) {
+                return Long.MAX_VALUE;
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * Creates a {@code _csv.Dialect} from the dialect argument and the keyword arguments of
+     * {@code reader} or {@code writer}, which validates them, and reads its settings.
+     */
+    public static final class CreateDialectNode extends PNodeWithContext {
+        @Child private CallNode callNode = CallNode.create();
+        @Child private GetAnyAttributeNode getAttributeNode = GetAnyAttributeNode.create();
+        @Child private CastToBooleanNode castToBooleanNode = CastToBooleanNode.createIfTrueNode();
+        @Child private CastToIndexNode castToIndexNode = CastToIndexNode.create();
+
+        public CSVDialect execute(VirtualFrame frame, Object[] args, PKeyword[] kwargs) {
+            Object dialectClass = getCore().lookupBuiltinModule("_csv").getAttribute("Dialect");
+            Object dialect = callNode.execute(frame, dialectClass, args, kwargs);
+            String lineTerminator = getString(dialect, "lineterminator");
+            return new CSVDialect(dialect, getChar(dialect, "delimiter"), getChar(dialect, "quotechar"), getChar(dialect, "escapechar"),
+                            castToBooleanNode.executeWith(getAttributeNode.executeObject(dialect, "doublequote")),
+                            castToBooleanNode.executeWith(getAttributeNode.executeObject(dialect, "skipinitialspace")),
+                            castToBooleanNode.executeWith(getAttributeNode.executeObject(dialect, "strict")),
+                            castToIndexNode.execute(getAttributeNode.executeObject(dialect, "quoting")),
+                            lineTerminator == null ? "\r\n" : lineTerminator);
+        }
+
+        private int getChar(Object dialect, String name) {
+            String value = getString(dialect, name);
+            return value == null || value.isEmpty() ? CSVDialect.NOT_SET : value.charAt(0);
+        }
+
+        private String getString(Object dialect, String name) {
+            Object value = getAttributeNode.executeObject(dialect, name);
+            if (value instanceof String) {
+                return (String) value;
+            } else if (value instanceof PString) {
+                return ((PString) value).getValue();
+            }
+            return null;
+        }
+
+        public static CreateDialectNode create() {
+            return new CreateDialectNode();
+        }
+    }
+
+    /**
+     * Joins the fields of a row with the writer's dialect and passes the record to the file's
+     * {@code write} method, returning its result.
+     */
+    public static final class WriteRowNode extends PNodeWithContext {
+        private static final InternalFormat.Spec FLOAT_REPR = new InternalFormat.Spec(' ', '>', InternalFormat.Spec.NONE, false, InternalFormat.Spec.UNSPECIFIED, false, 0, 'r');
+
+        @Child private GetIteratorNode getIteratorNode = GetIteratorNode.create();
+        @Child private GetNextNode getNextNode = GetNextNode.create();
+        @Child private CallNode callWriteNode = CallNode.create();
+        @Child private LookupAndCallUnaryNode callStrNode;
+        @Child private LookupInheritedAttributeNode lookupIndexNode;
+        @Child private LookupInheritedAttributeNode lookupIntNode;
+        @Child private LookupInheritedAttributeNode lookupFloatNode;
+
+        private final IsBuiltinClassProfile typeErrorProfile = IsBuiltinClassProfile.create();
+        private final IsBuiltinClassProfile stopIterationProfile = IsBuiltinClassProfile.create();
+
+        public Object execute(VirtualFrame frame, PCSVWriter self, Object row) {
+            Object iterator;
+            try {
+                iterator = getIteratorNode.executeWith(row);
+            } catch (PException e) {
+                e.expect(TypeError, typeErrorProfile);
+                throw raiseCSVError(this, "iterable expected, not %p", row);
+            }
+            int quoting = self.getDialect().getQuoting();
+            self.startRecord();
+            String record;
+            try {
+                while (true) {
+                    Object field;
+                    try {
+                        field = getNextNode.execute(iterator);
+                    } catch (PException e) {
+                        e.expectStopIteration(stopIterationProfile);
+                        break;
+                    }
+                    boolean quoted = quoting == QUOTE_ALL || (quoting == QUOTE_NONNUMERIC && !isNumber(field));
+                    self.appendField(asString(field), quoted);
+                }
+                record = self.finishRecord();
+            } catch (CSVError e) {
+                throw raiseCSVError(this, "%s", getMessage(e));
+            }
+            return callWriteNode.execute(frame, self.getWrite(), record);
+        }
+
+        /**
+         * Returns the text of a field, or {@code null} for {@code None}.
+         */
+        private String asString(Object field) {
+            if (field instanceof String) {
+                return (String) field;
+            } else if (field instanceof PString) {
+                return ((PString) field).getValue();
+            } else if (field == PNone.NONE) {
+                return null;
+            } else if (field instanceof Boolean) {
+                return (boolean) field ? "True" : "False";
+            } else if (field instanceof Integer || field instanceof Long) {
+                return longToString(((Number) field).longValue());
+            } else if (field instanceof Double) {
+                return floatToString((double) field);
+            }
+            if (callStrNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                callStrNode = insert(LookupAndCallUnaryNode.create(__STR__));
+            }
+            Object str = callStrNode.executeObject(field);
+            if (str instanceof PString) {
+                return ((PString) str).getValue();
+            }
+            return (String) str;
+        }
+
+        /**
+         * Like {@code PyNumber_Check}, which decides whether {@code QUOTE_NONNUMERIC} quotes a
+         * field.
+         */
+        private boolean isNumber(Object field) {
+            if (field instanceof Integer || field instanceof Long || field instanceof Double || field instanceof Boolean) {
+                return true;
+            } else if (field instanceof PInt || field instanceof PFloat || field instanceof PComplex) {
+                return true;
+            } else if (field instanceof String || field instanceof PString || field instanceof PNone) {
+                return false;
+            }
+            if (lookupIndexNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                lookupIndexNode = insert(LookupInheritedAttributeNode.create(__INDEX__));
+                lookupIntNode = insert(LookupInheritedAttributeNode.create(__INT__));
+                lookupFloatNode = insert(LookupInheritedAttributeNode.create(__FLOAT__));
+            }
+            return lookupIndexNode.execute(field) != PNone.NO_VALUE || lookupIntNode.execute(field) != PNone.NO_VALUE || lookupFloatNode.execute(field) != PNone.NO_VALUE;
+        }
+
+        @TruffleBoundary
+        private static String longToString(long value) {
+            return Long.toString(value);
+        }
+
+        @TruffleBoundary
+        private String floatToString(double value) {
+            if (Double.isFinite(value)) {
+                StringBuilder sb = new StringBuilder();
+                new FloatFormatter(getCore(), sb, FLOAT_REPR).format(value);
+                return sb.toString();
+            }
+            return Double.isNaN(value) ? "nan" : value > 0 ? "inf" : "-inf";
+        }
+
+        public static WriteRowNode create() {
+            return new WriteRowNode();
+        }
+    }
+}
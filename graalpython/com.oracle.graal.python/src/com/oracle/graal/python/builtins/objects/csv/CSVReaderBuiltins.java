@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.csv;
+
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__ITER__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__NEXT__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.StopIteration;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.csv.CSVNodes.CSVError;
+import com.oracle.graal.python.builtins.objects.io.PTextIO;
+import com.oracle.graal.python.builtins.objects.io.TextIOWrapperBuiltins.NextLineNode;
+import com.oracle.graal.python.builtins.objects.list.PList;
+import com.oracle.graal.python.builtins.objects.str.PString;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.control.GetNextNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.object.IsBuiltinClassProfile;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PCSVReader)
+public class CSVReaderBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return CSVReaderBuiltinsFactory.getFactories();
+    }
+
+    @Builtin(name = __ITER__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class IterNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PCSVReader iter(PCSVReader self) {
+            return self;
+        }
+    }
+
+    /**
+     * Reads lines until a record is complete. Lines of a text file are read from its buffer
+     * directly, other iterators are called through {@code __next__}.
+     */
+    @Builtin(name = __NEXT__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class NextNode extends PythonUnaryBuiltinNode {
+        @Child private NextLineNode nextLineNode;
+        @Child private GetNextNode getNextNode;
+        @Child private CallNode callFloatNode;
+
+        private final IsBuiltinClassProfile stopIterationProfile = IsBuiltinClassProfile.create();
+        private final ConditionProfile textFileProfile = ConditionProfile.createBinaryProfile();
+
+        @Specialization
+        PList next(VirtualFrame frame, PCSVReader self) {
+            long fieldLimit = CSVNodes.getFieldLimit(this);
+            Object input = self.getInputIterator();
+            self.startRecord();
+            try {
+                do {
+                    Object line = readLine(input);
+                    if (line == null) {
+                        if (self.finishInput()) {
+                            break;
+                        }
+                        throw raise(StopIteration);
+                    }
+                    String text;
+                    if (line instanceof String) {
+                        text = (String) line;
+                    } else if (line instanceof PString) {
+                        text = ((PString) line).getValue();
+                    } else {
+                        throw CSVNodes.raiseCSVError(this, "iterator should return strings, not %p (did you open the file in text mode?)", line);
+                    }
+                    self.incrementLineNum();
+                    self.parseLine(text, fieldLimit);
+                } while (!self.isRecordComplete());
+            } catch (CSVError e) {
+                throw CSVNodes.raiseCSVError(this, "%s", CSVNodes.getMessage(e));
+            }
+            Object[] fields = self.takeFields();
+            for (int i = 0; i < fields.length; i++) {
+                if (fields[i] instanceof PCSVReader.NumericField) {
+                    fields[i] = toFloat(frame, ((PCSVReader.NumericField) fields[i]).getText());
+                }
+            }
+            return factory().createList(fields);
+        }
+
+        private Object readLine(Object input) {
+            if (textFileProfile.profile(input instanceof PTextIO && ((PTextIO) input).getLazyPythonClass() == PythonBuiltinClassType.PTextIOWrapper)) {
+                if (nextLineNode == null) {
+                    CompilerDirectives.transferToInterpreterAndInvalidate();
+                    nextLineNode = insert(NextLineNode.create());
+                }
+                return nextLineNode.execute((PTextIO) input);
+            }
+            if (getNextNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                getNextNode = insert(GetNextNode.create());
+            }
+            try {
+                return getNextNode.execute(input);
+            } catch (PException e) {
+                e.expectStopIteration(stopIterationProfile);
+                return null;
+            }
+        }
+
+        private Object toFloat(VirtualFrame frame, String text) {
+            if (callFloatNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                callFloatNode = insert(CallNode.create());
+            }
+            return callFloatNode.execute(frame, getCore().lookupType(PythonBuiltinClassType.PFloat), text);
+        }
+    }
+
+    @Builtin(name = "dialect", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class DialectNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object dialect(PCSVReader self) {
+            return self.getDialect().getDialect();
+        }
+    }
+
+    @Builtin(name = "line_num", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class LineNumNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        int lineNum(PCSVReader self) {
+            return self.getLineNum();
+        }
+    }
+}
@@ -0,0 +1,323 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.csv;
+
+import static com.oracle.graal.python.builtins.objects.csv.CSVDialect.QUOTE_NONE;
+import static com.oracle.graal.python.builtins.objects.csv.CSVDialect.QUOTE_NONNUMERIC;
+
+import java.util.ArrayList;
+
+import com.oracle.graal.python.builtins.objects.csv.CSVNodes.CSVError;
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * A {@code _csv.reader}. The parser is the state machine of CPython's {@code _csv} module, except
+ * that runs of ordinary characters inside a field are appended to the field builder at once.
+ */
+public final class PCSVReader extends PythonBuiltinObject {
+    private static final int START_RECORD = 0;
+    private static final int START_FIELD = 1;
+    private static final int ESCAPED_CHAR = 2;
+    private static final int IN_FIELD = 3;
+    private static final int IN_QUOTED_FIELD = 4;
+    private static final int ESCAPE_IN_QUOTED_FIELD = 5;
+    private static final int QUOTE_IN_QUOTED_FIELD = 6;
+    private static final int EAT_CRNL = 7;
+    private static final int AFTER_ESCAPED_CRNL = 8;
+
+    /* passed to processChar at the end of each line */
+    private static final int EOL = -2;
+
+    private final Object inputIterator;
+    private final CSVDialect dialect;
+    private int lineNum;
+
+    private int state = START_RECORD;
+    private final StringBuilder field = new StringBuilder();
+    private boolean numericField;
+    private final ArrayList<Object> fields = new ArrayList<>();
+
+    public PCSVReader(LazyPythonClass cls, Object inputIterator, CSVDialect dialect) {
+        super(cls);
+        this.inputIterator = inputIterator;
+        this.dialect = dialect;
+    }
+
+    public Object getInputIterator() {
+        return inputIterator;
+    }
+
+    public CSVDialect getDialect() {
+        return dialect;
+    }
+
+    public int getLineNum() {
+        return lineNum;
+    }
+
+    public void incrementLineNum() {
+        lineNum++;
+    }
+
+    /**
+     * An unquoted field of a {@code QUOTE_NONNUMERIC} dialect, which the caller converts to a
+     * float.
+     */
+    public static final class NumericField {
+        private final String text;
+
+        NumericField(String text) {
+            this.text = text;
+        }
+
+        public String getText() {
+            return text;
+        }
+    }
+
+    @TruffleBoundary
+    public void startRecord() {
+        state = START_RECORD;
+        field.setLength(0);
+        numericField = false;
+        fields.clear();
+    }
+
+    public boolean isRecordComplete() {
+        return state == START_RECORD;
+    }
+
+    @TruffleBoundary
+    public Object[] takeFields() {
+        Object[] result = fields.toArray();
+        fields.clear();
+        return result;
+    }
+
+    /**
+     * Handles the end of the input in the middle of a record. Returns {@code true} if the last
+     * field was completed and the record should be returned, and {@code false} if iteration ends.
+     */
+    @TruffleBoundary
+    public boolean finishInput() throws CSVError {
+        if (field.length() != 0 || state == IN_QUOTED_FIELD) {
+            if (dialect.isStrict()) {
+                throw new CSVError("unexpected end of data");
+            }
+            saveField();
+            return true;
+        }
+        return false;
+    }
+
+    @TruffleBoundary
+    public void parseLine(String line, long fieldLimit) throws CSVError {
+        int len = line.length();
+        int i = 0;
+        while (i < len) {
+            char c = line.charAt(i);
+            if (c == '\0') {
+                throw new CSVError("line contains NULL byte");
+            }
+            if (state == IN_FIELD || state == IN_QUOTED_FIELD) {
+                int end = scanOrdinary(line, i, len);
+                if (end > i) {
+                    if (field.length() + (end - i) > fieldLimit) {
+                        throw fieldLimitError(fieldLimit);
+                    }
+                    field.append(line, i, end);
+                    i = end;
+                    continue;
+                }
+            }
+            processChar(c, fieldLimit);
+            i++;
+        }
+        processChar(EOL, fieldLimit);
+    }
+
+    /**
+     * Returns the index of the first character at or after {@code start} that the state machine
+     * has to look at in the current state.
+     */
+    private int scanOrdinary(String line, int start, int len) {
+        int delimiter = dialect.getDelimiter();
+        int escapeChar = dialect.getEscapeChar();
+        int quoteChar = dialect.getQuoting() != QUOTE_NONE ? dialect.getQuoteChar() : CSVDialect.NOT_SET;
+        boolean quoted = state == IN_QUOTED_FIELD;
+        int i = start;
+        while (i < len) {
+            char c = line.charAt(i);
+            if (c == '\0' || c == escapeChar) {
+                break;
+            } else if (quoted ? c == quoteChar : (c == '\n' || c == '\r' || c == delimiter)) {
+                break;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    private void processChar(int c, long fieldLimit) throws CSVError {
+        int quoting = dialect.getQuoting();
+        switch (state) {
+            case START_RECORD:
+                if (c == EOL) {
+                    // empty line
+                    break;
+                } else if (c == '\n' || c == '\r') {
+                    state = EAT_CRNL;
+                    break;
+                }
+                state = START_FIELD;
+                // fall through
+            case START_FIELD:
+                if (c == '\n' || c == '\r' || c == EOL) {
+                    saveField();
+                    state = c == EOL ? START_RECORD : EAT_CRNL;
+                } else if (c == dialect.getQuoteChar() && quoting != QUOTE_NONE) {
+                    state = IN_QUOTED_FIELD;
+                } else if (c == dialect.getEscapeChar()) {
+                    state = ESCAPED_CHAR;
+                } else if (c == ' ' && dialect.isSkipInitialSpace()) {
+                    // ignore spaces at the start of a field
+                } else if (c == dialect.getDelimiter()) {
+                    saveField();
+                } else {
+                    if (quoting == QUOTE_NONNUMERIC) {
+                        numericField = true;
+                    }
+                    addChar(c, fieldLimit);
+                    state = IN_FIELD;
+                }
+                break;
+            case ESCAPED_CHAR:
+                if (c == '\n' || c == '\r') {
+                    addChar(c, fieldLimit);
+                    state = AFTER_ESCAPED_CRNL;
+                    break;
+                }
+                addChar(c == EOL ? '\n' : c, fieldLimit);
+                state = IN_FIELD;
+                break;
+            case AFTER_ESCAPED_CRNL:
+                if (c == EOL) {
+                    break;
+                }
+                // fall through
+            case IN_FIELD:
+                if (c == '\n' || c == '\r' || c == EOL) {
+                    saveField();
+                    state = c == EOL ? START_RECORD : EAT_CRNL;
+                } else if (c == dialect.getEscapeChar()) {
+                    state = ESCAPED_CHAR;
+                } else if (c == dialect.getDelimiter()) {
+                    saveField();
+                    state = START_FIELD;
+                } else {
+                    addChar(c, fieldLimit);
+                }
+                break;
+            case IN_QUOTED_FIELD:
+                if (c == EOL) {
+                    // the line break is part of the field and was added with the line
+                } else if (c == dialect.getEscapeChar()) {
+                    state = ESCAPE_IN_QUOTED_FIELD;
+                } else if (c == dialect.getQuoteChar() && quoting != QUOTE_NONE) {
+                    state = dialect.isDoubleQuote() ? QUOTE_IN_QUOTED_FIELD : IN_FIELD;
+                } else {
+                    addChar(c, fieldLimit);
+                }
+                break;
+            case ESCAPE_IN_QUOTED_FIELD:
+                addChar(c == EOL ? '\n' : c, fieldLimit);
+                state = IN_QUOTED_FIELD;
+                break;
+            case QUOTE_IN_QUOTED_FIELD:
+                if (quoting != QUOTE_NONE && c == dialect.getQuoteChar()) {
+                    // "" stands for "
+                    addChar(c, fieldLimit);
+                    state = IN_QUOTED_FIELD;
+                } else if (c == dialect.getDelimiter()) {
+                    saveField();
+                    state = START_FIELD;
+                } else if (c == '\n' || c == '\r' || c == EOL) {
+                    saveField();
+                    state = c == EOL ? START_RECORD : EAT_CRNL;
+                } else if (!dialect.isStrict()) {
+                    addChar(c, fieldLimit);
+                    state = IN_FIELD;
+                } else {
+                    throw new CSVError(String.format("'%c' expected after '%c'", dialect.getDelimiter(), dialect.getQuoteChar()));
+                }
+                break;
+            case EAT_CRNL:
+                if (c == EOL) {
+                    state = START_RECORD;
+                } else if (c != '\n' && c != '\r') {
+                    throw new CSVError("new-line character seen in unquoted field - do you need to open the file in universal-newline mode?");
+                }
+                break;
+            default:
+                throw new IllegalStateException();
+        }
+    }
+
+    private void addChar(int c, long fieldLimit) throws CSVError {
+        if (field.length() >= fieldLimit) {
+            throw fieldLimitError(fieldLimit);
+        }
+        field.append((char) c);
+    }
+
+    private void saveField() {
+        String text = field.toString();
+        field.setLength(0);
+        fields.add(numericField ? new NumericField(text) : text);
+        numericField = false;
+    }
+
+    private static CSVError fieldLimitError(long fieldLimit) {
+        return new CSVError(String.format("field larger than field limit (%d)", fieldLimit));
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.csv;
+
+import static com.oracle.graal.python.builtins.objects.csv.CSVDialect.NOT_SET;
+import static com.oracle.graal.python.builtins.objects.csv.CSVDialect.QUOTE_NONE;
+
+import com.oracle.graal.python.builtins.objects.csv.CSVNodes.CSVError;
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * A {@code _csv.writer}. Rows are joined into a record buffer that is reused for every row.
+ */
+public final class PCSVWriter extends PythonBuiltinObject {
+    private final Object write;
+    private final CSVDialect dialect;
+    private final StringBuilder record = new StringBuilder();
+    private int numFields;
+
+    public PCSVWriter(LazyPythonClass cls, Object write, CSVDialect dialect) {
+        super(cls);
+        this.write = write;
+        this.dialect = dialect;
+    }
+
+    /**
+     * The bound {@code write} method of the file.
+     */
+    public Object getWrite() {
+        return write;
+    }
+
+    public CSVDialect getDialect() {
+        return dialect;
+    }
+
+    @TruffleBoundary
+    public void startRecord() {
+        record.setLength(0);
+        numFields = 0;
+    }
+
+    /**
+     * Appends a field to the record, escaping and doubling quotes as it is copied. Whether the
+     * field must be quoted is only known at its end, so the opening quote is inserted then.
+     */
+    @TruffleBoundary
+    public void appendField(String field, boolean quote) throws CSVError {
+        int delimiter = dialect.getDelimiter();
+        int quoteChar = dialect.getQuoteChar();
+        int escapeChar = dialect.getEscapeChar();
+        String lineTerminator = dialect.getLineTerminator();
+        if (numFields > 0) {
+            record.append((char) delimiter);
+        }
+        int start = record.length();
+        boolean quoted = quote;
+        if (field != null) {
+            int len = field.length();
+            int i = 0;
+            while (i < len) {
+                char c = field.charAt(i);
+                if (c == delimiter || c == escapeChar || c == quoteChar || lineTerminator.indexOf(c) >= 0) {
+                    break;
+                }
+                i++;
+            }
+            // the prefix without special characters is copied at once
+            record.append(field, 0, i);
+            for (; i < len; i++) {
+                char c = field.charAt(i);
+                if (c == delimiter || c == escapeChar || c == quoteChar || lineTerminator.indexOf(c) >= 0) {
+                    boolean wantEscape = false;
+                    if (dialect.getQuoting() == QUOTE_NONE) {
+                        wantEscape = true;
+                    } else {
+                        if (c == quoteChar) {
+                            if (dialect.isDoubleQuote()) {
+                                record.append(c);
+                            } else {
+                                wantEscape = true;
+                            }
+                        } else if (c == escapeChar) {
+                            wantEscape = true;
+                        }
+                        if (!wantEscape) {
+                            quoted = true;
+                        }
+                    }
+                    if (wantEscape) {
+                        if (escapeChar == NOT_SET) {
+                            throw new CSVError("need to escape, but no escapechar set");
+                        }
+                        record.append((char) escapeChar);
+                    }
+                }
+                record.append(c);
+            }
+        }
+        if (quoted) {
+            record.insert(start, (char) quoteChar);
+            record.append((char) quoteChar);
+        }
+        numFields++;
+    }
+
+    /**
+     * Terminates the record and returns it. A record with a single empty field is written as a
+     * quoted empty string, so that it can be told apart from an empty record.
+     */
+    @TruffleBoundary
+    public String finishRecord() throws CSVError {
+        if (numFields > 0 && record.length() == 0) {
+            if (dialect.getQuoting() == QUOTE_NONE) {
+                throw new CSVError("single empty field record must be quoted");
+            }
+            numFields--;
+            appendField(null, true);
+        }
+        record.append(dialect.getLineTerminator());
+        return record.toString();
+    }
+}
@@ -0,0 +1,433 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.datetime;
+
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__ADD__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__EQ__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__GE__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__GT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__HASH__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__LE__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__LT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__RADD__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__REDUCE__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__REPR__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__STR__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__SUB__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.OverflowError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.PNotImplemented;
+import com.oracle.graal.python.builtins.objects.datetime.DateTimeNodes.CreateTimeDeltaNode;
+import com.oracle.graal.python.builtins.objects.datetime.DateTimeNodes.IntFieldNode;
+import com.oracle.graal.python.builtins.objects.datetime.DateTimeNodes.NewDateNode;
+import com.oracle.graal.python.builtins.objects.datetime.DateTimeNodes.TimestampNode;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+import com.oracle.graal.python.nodes.attributes.GetAttributeNode.GetAnyAttributeNode;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.object.GetClassNode;
+import com.oracle.graal.python.nodes.object.IsBuiltinClassProfile;
+import com.oracle.graal.python.nodes.util.CastToIndexNode;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Fallback;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PDate)
+public class DateBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return DateBuiltinsFactory.getFactories();
+    }
+
+    /**
+     * Dates are only compared with dates; a datetime is also a date, but {@code datetime}
+     * overrides the comparisons so that it is never equal to a plain date.
+     */
+    static boolean isPlainDate(Object obj) {
+        return obj instanceof PDate && !(obj instanceof PDateTime);
+    }
+
+    @Builtin(name = "year", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class YearNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        int get(PDate self) {
+            return self.getYear();
+        }
+    }
+
+    @Builtin(name = "month", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class MonthNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        int get(PDate self) {
+            return self.getMonth();
+        }
+    }
+
+    @Builtin(name = "day", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class DayNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        int get(PDate self) {
+            return self.getDay();
+        }
+    }
+
+    @Builtin(name = "toordinal", fixedNumOfPositionalArgs = 1, doc = "Return proleptic Gregorian ordinal.  January 1 of year 1 is day 1.")
+    @GenerateNodeFactory
+    abstract static class ToOrdinalNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        int toOrdinal(PDate self) {
+            return self.toOrdinal();
+        }
+    }
+
+    @Builtin(name = "weekday", fixedNumOfPositionalArgs = 1, doc = "Return day of the week, where Monday == 0 ... Sunday == 6.")
+    @GenerateNodeFactory
+    abstract static class WeekdayNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        int weekday(PDate self) {
+            return DateTimeUtils.weekday(self.toOrdinal());
+        }
+    }
+
+    @Builtin(name = "isoweekday", fixedNumOfPositionalArgs = 1, doc = "Return day of the week, where Monday == 1 ... Sunday == 7.")
+    @GenerateNodeFactory
+    abstract static class IsoWeekdayNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        int isoWeekday(PDate self) {
+            return DateTimeUtils.weekday(self.toOrdinal()) + 1;
+        }
+    }
+
+    @Builtin(name = "isocalendar", fixedNumOfPositionalArgs = 1, doc = "Return a 3-tuple containing ISO year, week number, and weekday.")
+    @GenerateNodeFactory
+    abstract static class IsoCalendarNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PTuple isoCalendar(PDate self) {
+            int year = self.getYear();
+            int week1Monday = DateTimeUtils.isoWeek1Monday(year);
+            int today = self.toOrdinal();
+            int week = Math.floorDiv(today - week1Monday, 7);
+            if (week < 0) {
+                year--;
+                week1Monday = DateTimeUtils.isoWeek1Monday(year);
+                week = Math.floorDiv(today - week1Monday, 7);
+            } else if (week >= 52 && today >= DateTimeUtils.isoWeek1Monday(year + 1)) {
+                year++;
+                week = 0;
+            }
+            return factory().createTuple(new Object[]{year, week + 1, DateTimeUtils.weekday(today) + 1});
+        }
+    }
+
+    @Builtin(name = __EQ__, fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class EqNode extends PythonBinaryBuiltinNode {
+        @Specialization(guards = {"isPlainDate(self)", "isPlainDate(other)"})
+        boolean eq(PDate self, PDate other) {
+            return self.compareDate(other) == 0;
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        PNotImplemented eq(Object self, Object other) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = __LT__, fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class LtNode extends PythonBinaryBuiltinNode {
+        @Specialization(guards = {"isPlainDate(self)", "isPlainDate(other)"})
+        boolean lt(PDate self, PDate other) {
+            return self.compareDate(other) < 0;
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        PNotImplemented lt(Object self, Object other) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = __LE__, fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class LeNode extends PythonBinaryBuiltinNode {
+        @Specialization(guards = {"isPlainDate(self)", "isPlainDate(other)"})
+        boolean le(PDate self, PDate other) {
+            return self.compareDate(other) <= 0;
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        PNotImplemented le(Object self, Object other) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = __GT__, fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class GtNode extends PythonBinaryBuiltinNode {
+        @Specialization(guards = {"isPlainDate(self)", "isPlainDate(other)"})
+        boolean gt(PDate self, PDate other) {
+            return self.compareDate(other) > 0;
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        PNotImplemented gt(Object self, Object other) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = __GE__, fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class GeNode extends PythonBinaryBuiltinNode {
+        @Specialization(guards = {"isPlainDate(self)", "isPlainDate(other)"})
+        boolean ge(PDate self, PDate other) {
+            return self.compareDate(other) >= 0;
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        PNotImplemented ge(Object self, Object other) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = __HASH__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class HashNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        long hash(PDate self) {
+            return DateTimeUtils.pack(self.getYear(), self.getMonth(), self.getDay()) * 1000003L;
+        }
+    }
+
+    abstract static class DateArithmeticNode extends PythonBinaryBuiltinNode {
+        protected final PDate addDays(PDate self, long days) {
+            long ordinal = self.toOrdinal() + days;
+            if (ordinal < 1 || ordinal > DateTimeUtils.MAX_ORDINAL) {
+                throw raise(OverflowError, "date value out of range");
+            }
+            int packed = DateTimeUtils.fromOrdinal((int) ordinal);
+            return factory().createDate(PythonBuiltinClassType.PDate, DateTimeUtils.packedYear(packed), DateTimeUtils.packedMonth(packed), DateTimeUtils.packedDay(packed));
+        }
+    }
+
+    @Builtin(name = __ADD__, fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class AddNode extends DateArithmeticNode {
+        @Specialization(guards = "isPlainDate(self)")
+        PDate add(PDate self, PTimeDelta delta) {
+            return addDays(self, delta.getDays());
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        PNotImplemented add(Object self, Object other) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = __RADD__, fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class RAddNode extends AddNode {
+    }
+
+    @Builtin(name = __SUB__, fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class SubNode extends DateArithmeticNode {
+        @Specialization(guards = "isPlainDate(self)")
+        PDate sub(PDate self, PTimeDelta delta) {
+            return addDays(self, -(long) delta.getDays());
+        }
+
+        @Specialization(guards = {"isPlainDate(self)", "isPlainDate(other)"})
+        PTimeDelta sub(PDate self, PDate other,
+                        @Cached("create()") CreateTimeDeltaNode createNode) {
+            return createNode.execute(self.toOrdinal() - other.toOrdinal(), 0, 0);
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        PNotImplemented sub(Object self, Object other) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = "ctime", fixedNumOfPositionalArgs = 1, doc = "Return ctime() style string.")
+    @GenerateNodeFactory
+    abstract static class CTimeNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        @TruffleBoundary
+        String ctime(PDate self) {
+            StringBuilder sb = new StringBuilder();
+            DateTimeUtils.appendCTime(sb, self.getYear(), self.getMonth(), self.getDay(), 0, 0, 0);
+            return sb.toString();
+        }
+    }
+
+    @Builtin(name = "isoformat", fixedNumOfPositionalArgs = 1, doc = "Return string in ISO 8601 format, YYYY-MM-DD.")
+    @GenerateNodeFactory
+    abstract static class IsoFormatNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        @TruffleBoundary
+        String isoformat(PDate self) {
+            StringBuilder sb = new StringBuilder(10);
+            DateTimeUtils.appendDate(sb, self.getYear(), self.getMonth(), self.getDay());
+            return sb.toString();
+        }
+    }
+
+    @Builtin(name = __STR__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class StrNode extends IsoFormatNode {
+    }
+
+    @Builtin(name = __REPR__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class ReprNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        @TruffleBoundary
+        String repr(PDate self) {
+            return String.format("%s(%d, %d, %d)", DateTimeNodes.getTypeName(self), self.getYear(), self.getMonth(), self.getDay());
+        }
+    }
+
+    @Builtin(name = "replace", fixedNumOfPositionalArgs = 1, keywordArguments = {"year", "month", "day"}, doc = "Return date with new specified fields.")
+    @GenerateNodeFactory
+    abstract static class ReplaceNode extends PythonBuiltinNode {
+        @Specialization
+        PDate replace(PDate self, Object year, Object month, Object day,
+                        @Cached("create()") IntFieldNode intFieldNode) {
+            long y = year == PNone.NO_VALUE ? self.getYear() : intFieldNode.execute(year);
+            long m = month == PNone.NO_VALUE ? self.getMonth() : intFieldNode.execute(month);
+            long d = day == PNone.NO_VALUE ? self.getDay() : intFieldNode.execute(day);
+            DateTimeNodes.checkDateFields(this, y, m, d);
+            return factory().createDate(self.getLazyPythonClass(), (int) y, (int) m, (int) d);
+        }
+    }
+
+    @Builtin(name = __REDUCE__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class ReduceNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PTuple reduce(PDate self,
+                        @Cached("create()") GetClassNode getClassNode) {
+            byte[] state = {(byte) (self.getYear() >> 8), (byte) self.getYear(), (byte) self.getMonth(), (byte) self.getDay()};
+            PTuple args = factory().createTuple(new Object[]{factory().createBytes(state)});
+            return factory().createTuple(new Object[]{getClassNode.execute(self), args});
+        }
+    }
+
+    @Builtin(name = "fromtimestamp", fixedNumOfPositionalArgs = 2, isClassmethod = true, doc = "Create a date from a POSIX timestamp.")
+    @GenerateNodeFactory
+    abstract static class FromTimestampNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object fromTimestamp(VirtualFrame frame, LazyPythonClass cls, Object timestamp,
+                        @Cached("create()") TimestampNode timestampNode,
+                        @Cached("create()") NewDateNode newDateNode) {
+            return localDate(frame, this, newDateNode, cls, timestampNode.execute(timestamp));
+        }
+    }
+
+    static Object localDate(VirtualFrame frame, PythonBuiltinBaseNode node, NewDateNode newDateNode, LazyPythonClass cls, long epochMicroseconds) {
+        long local = DateTimeUtils.toLocalMicroseconds(epochMicroseconds, new int[1]);
+        int packed = DateTimeUtils.fromOrdinal(DateTimeNodes.epochMicrosecondsToOrdinal(node, local));
+        return newDateNode.execute(frame, cls, DateTimeUtils.packedYear(packed), DateTimeUtils.packedMonth(packed), DateTimeUtils.packedDay(packed));
+    }
+
+    @Builtin(name = "today", fixedNumOfPositionalArgs = 1, isClassmethod = true, doc = "Current date or datetime:  same as self.__class__.fromtimestamp(time.time()).")
+    @GenerateNodeFactory
+    abstract static class TodayNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object today(VirtualFrame frame, LazyPythonClass cls,
+                        @Cached("create()") IsBuiltinClassProfile dateProfile,
+                        @Cached("create()") NewDateNode newDateNode,
+                        @Cached("create()") GetAnyAttributeNode getFromTimestampNode,
+                        @Cached("create()") CallNode callNode) {
+            long now = DateTimeUtils.nowMicroseconds();
+            if (dateProfile.profileClass(cls, PythonBuiltinClassType.PDate)) {
+                return localDate(frame, this, newDateNode, cls, now);
+            }
+            Object fromTimestamp = getFromTimestampNode.executeObject(cls, "fromtimestamp");
+            return callNode.execute(frame, fromTimestamp, DateTimeUtils.microsecondsToSeconds(now));
+        }
+    }
+
+    @Builtin(name = "fromordinal", fixedNumOfPositionalArgs = 2, isClassmethod = true, doc = "int -> date corresponding to a proleptic Gregorian ordinal.")
+    @GenerateNodeFactory
+    abstract static class FromOrdinalNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object fromOrdinal(VirtualFrame frame, LazyPythonClass cls, Object ordinal,
+                        @Cached("create()") CastToIndexNode castToIndexNode,
+                        @Cached("create()") NewDateNode newDateNode) {
+            int n = castToIndexNode.execute(ordinal);
+            if (n < 1) {
+                throw raise(ValueError, "ordinal must be >= 1");
+            } else if (n > DateTimeUtils.MAX_ORDINAL) {
+                throw raise(ValueError, "year is out of range");
+            }
+            int packed = DateTimeUtils.fromOrdinal(n);
+            return newDateNode.execute(frame, cls, DateTimeUtils.packedYear(packed), DateTimeUtils.packedMonth(packed), DateTimeUtils.packedDay(packed));
+        }
+    }
+}
@@ -0,0 +1,722 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.datetime;
+
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__ADD__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__EQ__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__GE__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__GT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__HASH__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__LE__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__LT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__RADD__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__REDUCE__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__REPR__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__STR__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__SUB__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.OverflowError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.PNotImplemented;
+import com.oracle.graal.python.builtins.objects.datetime.DateTimeNodes.CreateTimeDeltaNode;
+import com.oracle.graal.python.builtins.objects.datetime.DateTimeNodes.IntFieldNode;
+import com.oracle.graal.python.builtins.objects.datetime.DateTimeNodes.NewDateTimeNode;
+import com.oracle.graal.python.builtins.objects.datetime.DateTimeNodes.TimestampNode;
+import com.oracle.graal.python.builtins.objects.datetime.DateTimeNodes.TzInfoArgNode;
+import com.oracle.graal.python.builtins.objects.datetime.DateTimeNodes.TzInfoReprNode;
+import com.oracle.graal.python.builtins.objects.datetime.DateTimeNodes.UtcOffsetNode;
+import com.oracle.graal.python.builtins.objects.str.PString;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+import com.oracle.graal.python.nodes.PNodeWithContext;
+import com.oracle.graal.python.nodes.attributes.GetAttributeNode.GetAnyAttributeNode;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.object.GetClassNode;
+import com.oracle.graal.python.nodes.util.CastToStringNode;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Fallback;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PDateTime)
+public class DateTimeBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return DateTimeBuiltinsFactory.getFactories();
+    }
+
+    /**
+     * Creates a datetime from microseconds since 0001-01-01T00:00, see
+     * {@link PDateTime#toMicroseconds()}.
+     */
+    static Object fromMicroseconds(VirtualFrame frame, PNodeWithContext node, NewDateTimeNode newDateTimeNode, LazyPythonClass cls, long microseconds, Object tzInfo, int fold) {
+        long ordinal = Math.floorDiv(microseconds, DateTimeUtils.US_PER_DAY);
+        if (ordinal < 1 || ordinal > DateTimeUtils.MAX_ORDINAL) {
+            throw node.raise(OverflowError, "date value out of range");
+        }
+        int packed = DateTimeUtils.fromOrdinal((int) ordinal);
+        long rest = Math.floorMod(microseconds, DateTimeUtils.US_PER_DAY);
+        int secondOfDay = (int) (rest / DateTimeUtils.US_PER_SECOND);
+        return newDateTimeNode.execute(frame, cls, DateTimeUtils.packedYear(packed), DateTimeUtils.packedMonth(packed), DateTimeUtils.packedDay(packed), secondOfDay / 3600,
+                        secondOfDay / 60 % 60, secondOfDay % 60, (int) (rest % DateTimeUtils.US_PER_SECOND), tzInfo, fold);
+    }
+
+    @Builtin(name = "hour", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class HourNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        int get(PDateTime self) {
+            return self.getHour();
+        }
+    }
+
+    @Builtin(name = "minute", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class MinuteNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        int get(PDateTime self) {
+            return self.getMinute();
+        }
+    }
+
+    @Builtin(name = "second", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class SecondNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        int get(PDateTime self) {
+            return self.getSecond();
+        }
+    }
+
+    @Builtin(name = "microsecond", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class MicrosecondNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        int get(PDateTime self) {
+            return self.getMicrosecond();
+        }
+    }
+
+    @Builtin(name = "tzinfo", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class TzInfoNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object get(PDateTime self) {
+            return self.getTzInfo();
+        }
+    }
+
+    @Builtin(name = "fold", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class FoldNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        int get(PDateTime self) {
+            return self.getFold();
+        }
+    }
+
+    @Builtin(name = "date", fixedNumOfPositionalArgs = 1, doc = "Return date object with same year, month and day.")
+    @GenerateNodeFactory
+    abstract static class DateNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PDate date(PDateTime self) {
+            return factory().createDate(PythonBuiltinClassType.PDate, self.getYear(), self.getMonth(), self.getDay());
+        }
+    }
+
+    @Builtin(name = "time", fixedNumOfPositionalArgs = 1, doc = "Return time object with same time but with tzinfo=None.")
+    @GenerateNodeFactory
+    abstract static class TimeNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PTime time(PDateTime self) {
+            return factory().createTime(PythonBuiltinClassType.PTime, self.getHour(), self.getMinute(), self.getSecond(), self.getMicrosecond(), PNone.NONE, self.getFold());
+        }
+    }
+
+    @Builtin(name = "timetz", fixedNumOfPositionalArgs = 1, doc = "Return time object with same time and tzinfo.")
+    @GenerateNodeFactory
+    abstract static class TimeTzNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PTime timetz(PDateTime self) {
+            return factory().createTime(PythonBuiltinClassType.PTime, self.getHour(), self.getMinute(), self.getSecond(), self.getMicrosecond(), self.getTzInfo(), self.getFold());
+        }
+    }
+
+    @Builtin(name = "utcoffset", fixedNumOfPositionalArgs = 1, doc = "Return self.tzinfo.utcoffset(self).")
+    @GenerateNodeFactory
+    abstract static class UtcOffsetMethodNode extends PythonUnaryBuiltinNode {
+        @Child private UtcOffsetNode utcOffsetNode = UtcOffsetNode.create();
+
+        @Specialization
+        Object utcoffset(VirtualFrame frame, PDateTime self) {
+            PTimeDelta offset = utcOffsetNode.execute(frame, self.getTzInfo(), self);
+            return offset == null ? PNone.NONE : offset;
+        }
+    }
+
+    @Builtin(name = "dst", fixedNumOfPositionalArgs = 1, doc = "Return self.tzinfo.dst(self).")
+    @GenerateNodeFactory
+    abstract static class DstNode extends PythonUnaryBuiltinNode {
+        @Child private UtcOffsetNode dstNode = UtcOffsetNode.create("dst");
+
+        @Specialization
+        Object dst(VirtualFrame frame, PDateTime self) {
+            PTimeDelta offset = dstNode.execute(frame, self.getTzInfo(), self);
+            return offset == null ? PNone.NONE : offset;
+        }
+    }
+
+    /**
+     * Compares datetimes directly if they share their {@code tzinfo} and otherwise after
+     * subtracting their UTC offsets.
+     */
+    abstract static class DateTimeComparisonNode extends PythonBinaryBuiltinNode {
+        /** The result of comparing a naive with an aware datetime. */
+        protected static final int NAIVE_AND_AWARE = 2;
+
+        @Child private UtcOffsetNode selfOffsetNode = UtcOffsetNode.create();
+        @Child private UtcOffsetNode otherOffsetNode = UtcOffsetNode.create();
+
+        protected static boolean isPlainDate(Object obj) {
+            return DateBuiltins.isPlainDate(obj);
+        }
+
+        protected final int compare(VirtualFrame frame, PDateTime self, PDateTime other) {
+            if (self.getTzInfo() == other.getTzInfo()) {
+                return self.compareFields(other);
+            }
+            PTimeDelta selfOffset = selfOffsetNode.execute(frame, self.getTzInfo(), self);
+            PTimeDelta otherOffset = otherOffsetNode.execute(frame, other.getTzInfo(), other);
+            if (selfOffset == null && otherOffset == null) {
+                return self.compareFields(other);
+            } else if (selfOffset == null || otherOffset == null) {
+                return NAIVE_AND_AWARE;
+            }
+            return Long.compare(self.toMicroseconds() - selfOffset.toMicroseconds(), other.toMicroseconds() - otherOffset.toMicroseconds());
+        }
+
+        protected final int compareOrdered(VirtualFrame frame, PDateTime self, PDateTime other) {
+            int result = compare(frame, self, other);
+            if (result == NAIVE_AND_AWARE) {
+                throw raise(TypeError, "can't compare offset-naive and offset-aware datetimes");
+            }
+            return result;
+        }
+
+        protected final RuntimeException raiseCannotCompare(PDateTime self, PDate other) {
+            throw raise(TypeError, "can't compare %p to %p", self, other);
+        }
+    }
+
+    @Builtin(name = __EQ__, fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class EqNode extends DateTimeComparisonNode {
+        @Specialization
+        boolean eq(VirtualFrame frame, PDateTime self, PDateTime other) {
+            return compare(frame, self, other) == 0;
+        }
+
+        @Specialization(guards = "isPlainDate(other)")
+        @SuppressWarnings("unused")
+        boolean eq(PDateTime self, PDate other) {
+            return false;
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        PNotImplemented eq(Object self, Object other) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = __LT__, fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class LtNode extends DateTimeComparisonNode {
+        @Specialization
+        boolean lt(VirtualFrame frame, PDateTime self, PDateTime other) {
+            return compareOrdered(frame, self, other) < 0;
+        }
+
+        @Specialization(guards = "isPlainDate(other)")
+        boolean lt(PDateTime self, PDate other) {
+            throw raiseCannotCompare(self, other);
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        PNotImplemented lt(Object self, Object other) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = __LE__, fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class LeNode extends DateTimeComparisonNode {
+        @Specialization
+        boolean le(VirtualFrame frame, PDateTime self, PDateTime other) {
+            return compareOrdered(frame, self, other) <= 0;
+        }
+
+        @Specialization(guards = "isPlainDate(other)")
+        boolean le(PDateTime self, PDate other) {
+            throw raiseCannotCompare(self, other);
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        PNotImplemented le(Object self, Object other) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = __GT__, fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class GtNode extends DateTimeComparisonNode {
+        @Specialization
+        boolean gt(VirtualFrame frame, PDateTime self, PDateTime other) {
+            return compareOrdered(frame, self, other) > 0;
+        }
+
+        @Specialization(guards = "isPlainDate(other)")
+        boolean gt(PDateTime self, PDate other) {
+            throw raiseCannotCompare(self, other);
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        PNotImplemented gt(Object self, Object other) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = __GE__, fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class GeNode extends DateTimeComparisonNode {
+        @Specialization
+        boolean ge(VirtualFrame frame, PDateTime self, PDateTime other) {
+            return compareOrdered(frame, self, other) >= 0;
+        }
+
+        @Specialization(guards = "isPlainDate(other)")
+        boolean ge(PDateTime self, PDate other) {
+            throw raiseCannotCompare(self, other);
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        PNotImplemented ge(Object self, Object other) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = __HASH__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class HashNode extends PythonUnaryBuiltinNode {
+        @Child private UtcOffsetNode utcOffsetNode = UtcOffsetNode.create();
+
+        @Specialization
+        long hash(VirtualFrame frame, PDateTime self) {
+            // the fold is ignored, and aware datetimes hash like the UTC time they are equal to
+            long us = self.toMicroseconds();
+            PTimeDelta offset = utcOffsetNode.execute(frame, self.getTzInfo(), self);
+            if (offset != null) {
+                us -= offset.toMicroseconds();
+            }
+            return us * 1000003L ^ us >>> 32;
+        }
+    }
+
+    @Builtin(name = __ADD__, fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class AddNode extends PythonBinaryBuiltinNode {
+        @Child private NewDateTimeNode newDateTimeNode = NewDateTimeNode.create();
+
+        @Specialization
+        Object add(VirtualFrame frame, PDateTime self, PTimeDelta delta) {
+            long us;
+            try {
+                us = Math.addExact(self.toMicroseconds(), delta.toMicroseconds());
+            } catch (ArithmeticException e) {
+                throw raise(OverflowError, "date value out of range");
+            }
+            return fromMicroseconds(frame, this, newDateTimeNode, PythonBuiltinClassType.PDateTime, us, self.getTzInfo(), 0);
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        PNotImplemented add(Object self, Object other) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = __RADD__, fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class RAddNode extends AddNode {
+    }
+
+    @Builtin(name = __SUB__, fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class SubNode extends PythonBinaryBuiltinNode {
+        @Child private UtcOffsetNode selfOffsetNode;
+        @Child private UtcOffsetNode otherOffsetNode;
+
+        @Specialization
+        Object sub(VirtualFrame frame, PDateTime self, PTimeDelta delta,
+                        @Cached("create()") NewDateTimeNode newDateTimeNode) {
+            long us;
+            try {
+                us = Math.subtractExact(self.toMicroseconds(), delta.toMicroseconds());
+            } catch (ArithmeticException e) {
+                throw raise(OverflowError, "date value out of range");
+            }
+            return fromMicroseconds(frame, this, newDateTimeNode, PythonBuiltinClassType.PDateTime, us, self.getTzInfo(), 0);
+        }
+
+        @Specialization
+        PTimeDelta sub(VirtualFrame frame, PDateTime self, PDateTime other,
+                        @Cached("create()") CreateTimeDeltaNode createNode) {
+            long us = self.toMicroseconds() - other.toMicroseconds();
+            if (self.getTzInfo() != other.getTzInfo()) {
+                if (selfOffsetNode == null) {
+                    CompilerDirectives.transferToInterpreterAndInvalidate();
+                    selfOffsetNode = insert(UtcOffsetNode.create());
+                    otherOffsetNode = insert(UtcOffsetNode.create());
+                }
+                PTimeDelta selfOffset = selfOffsetNode.execute(frame, self.getTzInfo(), self);
+                PTimeDelta otherOffset = otherOffsetNode.execute(frame, other.getTzInfo(), other);
+                if ((selfOffset == null) != (otherOffset == null)) {
+                    throw raise(TypeError, "can't subtract offset-naive and offset-aware datetimes");
+                } else if (selfOffset != null) {
+                    us -= selfOffset.toMicroseconds() - otherOffset.toMicroseconds();
+                }
+            }
+            return createNode.executeMicroseconds(us);
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        PNotImplemented sub(Object self, Object other) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = "isoformat", minNumOfPositionalArgs = 1, keywordArguments = {"sep", "timespec"}, doc = "[sep] -> string in ISO 8601 format, YYYY-MM-DDT[HH[:MM[:SS[.mmm[uuu]]]]][+HH:MM].\n" +
+                    "sep is used to separate the year from the time, and defaults to 'T'.")
+    @GenerateNodeFactory
+    abstract static class IsoFormatNode extends PythonBuiltinNode {
+        @Child private UtcOffsetNode utcOffsetNode = UtcOffsetNode.create();
+
+        @Specialization
+        String isoformat(VirtualFrame frame, PDateTime self, Object sep, Object timespec,
+                        @Cached("create()") CastToStringNode castToStringNode) {
+            String separator = "T";
+            if (sep != PNone.NO_VALUE) {
+                if (!(sep instanceof String || sep instanceof PString)) {
+                    throw raise(TypeError, "isoformat() argument 'sep' must be str, not %p", sep);
+                }
+                separator = castToStringNode.execute(sep);
+                if (separator.length() != 1) {
+                    throw raise(TypeError, "isoformat() argument 'sep' must be a unicode character, not str");
+                }
+            }
+            int spec = DateTimeNodes.parseTimespec(this, castToStringNode, timespec);
+            return format(self, separator, spec, utcOffsetNode.execute(frame, self.getTzInfo(), self));
+        }
+
+        @TruffleBoundary
+        static String format(PDateTime self, String sep, int timespec, PTimeDelta offset) {
+            StringBuilder sb = new StringBuilder();
+            DateTimeUtils.appendDate(sb, self.getYear(), self.getMonth(), self.getDay());
+            sb.append(sep);
+            DateTimeUtils.appendTime(sb, self.getHour(), self.getMinute(), self.getSecond(), self.getMicrosecond(), timespec);
+            if (offset != null) {
+                DateTimeUtils.appendOffset(sb, offset);
+            }
+            return sb.toString();
+        }
+    }
+
+    @Builtin(name = __STR__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class StrNode extends PythonUnaryBuiltinNode {
+        @Child private UtcOffsetNode utcOffsetNode = UtcOffsetNode.create();
+
+        @Specialization
+        String str(VirtualFrame frame, PDateTime self) {
+            return IsoFormatNode.format(self, " ", DateTimeUtils.TIMESPEC_AUTO, utcOffsetNode.execute(frame, self.getTzInfo(), self));
+        }
+    }
+
+    @Builtin(name = __REPR__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class ReprNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        String repr(PDateTime self,
+                        @Cached("create()") TzInfoReprNode tzInfoReprNode) {
+            return format(self, tzInfoReprNode.execute(self.getTzInfo()));
+        }
+
+        @TruffleBoundary
+        private static String format(PDateTime self, String tzInfoRepr) {
+            StringBuilder sb = new StringBuilder(DateTimeNodes.getTypeName(self)).append('(');
+            sb.append(self.getYear()).append(", ").append(self.getMonth()).append(", ").append(self.getDay()).append(", ");
+            sb.append(self.getHour()).append(", ").append(self.getMinute());
+            if (self.getMicrosecond() != 0) {
+                sb.append(", ").append(self.getSecond()).append(", ").append(self.getMicrosecond());
+            } else if (self.getSecond() != 0) {
+                sb.append(", ").append(self.getSecond());
+            }
+            if (tzInfoRepr != null) {
+                sb.append(", tzinfo=").append(tzInfoRepr);
+            }
+            if (self.getFold() != 0) {
+                sb.append(", fold=1");
+            }
+            return sb.append(')').toString();
+        }
+    }
+
+    @Builtin(name = "ctime", fixedNumOfPositionalArgs = 1, doc = "Return ctime() style string.")
+    @GenerateNodeFactory
+    abstract static class CTimeNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        @TruffleBoundary
+        String ctime(PDateTime self) {
+            StringBuilder sb = new StringBuilder();
+            DateTimeUtils.appendCTime(sb, self.getYear(), self.getMonth(), self.getDay(), self.getHour(), self.getMinute(), self.getSecond());
+            return sb.toString();
+        }
+    }
+
+    @Builtin(name = "timestamp", fixedNumOfPositionalArgs = 1, doc = "Return POSIX timestamp as float.")
+    @GenerateNodeFactory
+    abstract static class TimestampMethodNode extends PythonUnaryBuiltinNode {
+        @Child private UtcOffsetNode utcOffsetNode = UtcOffsetNode.create();
+
+        @Specialization
+        double timestamp(VirtualFrame frame, PDateTime self) {
+            long local = self.toMicroseconds() - DateTimeUtils.EPOCH_ORDINAL * DateTimeUtils.US_PER_DAY;
+            if (self.isNaive()) {
+                long seconds = DateTimeUtils.fromLocalSeconds(Math.floorDiv(local, DateTimeUtils.US_PER_SECOND), self.getFold());
+                return seconds + self.getMicrosecond() / 1e6;
+            }
+            PTimeDelta offset = utcOffsetNode.execute(frame, self.getTzInfo(), self);
+            long us = offset == null ? local : local - offset.toMicroseconds();
+            return DateTimeUtils.microsecondsToSeconds(us);
+        }
+    }
+
+    @Builtin(name = "replace", fixedNumOfPositionalArgs = 1, keywordArguments = {"year", "month", "day", "hour", "minute", "second", "microsecond", "tzinfo",
+                    "fold"}, doc = "Return datetime with new specified fields.")
+    @GenerateNodeFactory
+    abstract static class ReplaceNode extends PythonBuiltinNode {
+        @Specialization
+        PDateTime replace(PDateTime self, Object year, Object month, Object day, Object hour, Object minute, Object second, Object microsecond, Object tzInfo, Object fold,
+                        @Cached("create()") IntFieldNode intFieldNode,
+                        @Cached("create()") TzInfoArgNode tzInfoArgNode) {
+            long y = year == PNone.NO_VALUE ? self.getYear() : intFieldNode.execute(year);
+            long m = month == PNone.NO_VALUE ? self.getMonth() : intFieldNode.execute(month);
+            long d = day == PNone.NO_VALUE ? self.getDay() : intFieldNode.execute(day);
+            DateTimeNodes.checkDateFields(this, y, m, d);
+            long h = hour == PNone.NO_VALUE ? self.getHour() : intFieldNode.execute(hour);
+            long mi = minute == PNone.NO_VALUE ? self.getMinute() : intFieldNode.execute(minute);
+            long s = second == PNone.NO_VALUE ? self.getSecond() : intFieldNode.execute(second);
+            long us = microsecond == PNone.NO_VALUE ? self.getMicrosecond() : intFieldNode.execute(microsecond);
+            long f = fold == PNone.NO_VALUE ? self.getFold() : intFieldNode.execute(fold);
+            DateTimeNodes.checkTimeFields(this, h, mi, s, us, f);
+            Object tz = tzInfo == PNone.NO_VALUE ? self.getTzInfo() : tzInfoArgNode.execute(tzInfo);
+            return factory().createDateTime(self.getLazyPythonClass(), (int) y, (int) m, (int) d, (int) h, (int) mi, (int) s, (int) us, tz, (int) f);
+        }
+    }
+
+    @Builtin(name = __REDUCE__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class ReduceNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PTuple reduce(PDateTime self,
+                        @Cached("create()") GetClassNode getClassNode) {
+            int us = self.getMicrosecond();
+            byte[] state = {(byte) (self.getYear() >> 8), (byte) self.getYear(), (byte) (self.getMonth() + (self.getFold() != 0 ? 128 : 0)), (byte) self.getDay(),
+                            (byte) self.getHour(), (byte) self.getMinute(), (byte) self.getSecond(), (byte) (us >> 16), (byte) (us >> 8), (byte) us};
+            Object[] args = self.isNaive() ? new Object[]{factory().createBytes(state)} : new Object[]{factory().createBytes(state), self.getTzInfo()};
+            return factory().createTuple(new Object[]{getClassNode.execute(self), factory().createTuple(args)});
+        }
+    }
+
+    /**
+     * Base class of the constructors from POSIX timestamps.
+     */
+    abstract static class FromEpochNode extends PythonBuiltinNode {
+        @Child private NewDateTimeNode newDateTimeNode = NewDateTimeNode.create();
+        @Child private TzInfoArgNode tzInfoArgNode;
+        @Child private GetAnyAttributeNode getFromUtcNode;
+        @Child private CallNode callNode;
+
+        protected final Object fromEpochMicroseconds(VirtualFrame frame, LazyPythonClass cls, long epochMicroseconds, Object tzInfo) {
+            if (tzInfo == PNone.NO_VALUE || tzInfo == PNone.NONE) {
+                int[] fold = new int[1];
+                long local = DateTimeUtils.toLocalMicroseconds(epochMicroseconds, fold);
+                DateTimeNodes.epochMicrosecondsToOrdinal(this, local);
+                return fromMicroseconds(frame, this, newDateTimeNode, cls, local + DateTimeUtils.EPOCH_ORDINAL * DateTimeUtils.US_PER_DAY, PNone.NONE, fold[0]);
+            }
+            if (tzInfoArgNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                tzInfoArgNode = insert(TzInfoArgNode.create());
+                getFromUtcNode = insert(GetAnyAttributeNode.create());
+                callNode = insert(CallNode.create());
+            }
+            Object tz = tzInfoArgNode.execute(tzInfo);
+            Object utc = fromUtcMicroseconds(frame, cls, epochMicroseconds, tz);
+            return callNode.execute(frame, getFromUtcNode.executeObject(tz, "fromutc"), utc);
+        }
+
+        protected final Object fromUtcMicroseconds(VirtualFrame frame, LazyPythonClass cls, long epochMicroseconds, Object tzInfo) {
+            DateTimeNodes.epochMicrosecondsToOrdinal(this, epochMicroseconds);
+            return fromMicroseconds(frame, this, newDateTimeNode, cls, epochMicroseconds + DateTimeUtils.EPOCH_ORDINAL * DateTimeUtils.US_PER_DAY, tzInfo, 0);
+        }
+    }
+
+    @Builtin(name = "fromtimestamp", minNumOfPositionalArgs = 2, keywordArguments = {"tz"}, isClassmethod = true, doc = "timestamp[, tz] -> tz's local time from POSIX timestamp.")
+    @GenerateNodeFactory
+    abstract static class FromTimestampNode extends FromEpochNode {
+        @Specialization
+        Object fromTimestamp(VirtualFrame frame, LazyPythonClass cls, Object timestamp, Object tzInfo,
+                        @Cached("create()") TimestampNode timestampNode) {
+            return fromEpochMicroseconds(frame, cls, timestampNode.execute(timestamp), tzInfo);
+        }
+    }
+
+    @Builtin(name = "utcfromtimestamp", fixedNumOfPositionalArgs = 2, isClassmethod = true, doc = "Construct a naive UTC datetime from a POSIX timestamp.")
+    @GenerateNodeFactory
+    abstract static class UtcFromTimestampNode extends FromEpochNode {
+        @Specialization
+        Object utcFromTimestamp(VirtualFrame frame, LazyPythonClass cls, Object timestamp,
+                        @Cached("create()") TimestampNode timestampNode) {
+            return fromUtcMicroseconds(frame, cls, timestampNode.execute(timestamp), PNone.NONE);
+        }
+    }
+
+    @Builtin(name = "now", minNumOfPositionalArgs = 1, keywordArguments = {"tz"}, isClassmethod = true, doc = "Returns new datetime object representing current time local to tz.\n\n" +
+                    "  tz\n    Timezone object.\n\nIf no tz is specified, uses local timezone.")
+    @GenerateNodeFactory
+    abstract static class NowNode extends FromEpochNode {
+        @Specialization
+        Object now(VirtualFrame frame, LazyPythonClass cls, Object tzInfo) {
+            return fromEpochMicroseconds(frame, cls, DateTimeUtils.nowMicroseconds(), tzInfo);
+        }
+    }
+
+    @Builtin(name = "today", fixedNumOfPositionalArgs = 1, isClassmethod = true, doc = "Current date or datetime:  same as self.__class__.fromtimestamp(time.time()).")
+    @GenerateNodeFactory
+    abstract static class TodayNode extends FromEpochNode {
+        @Specialization
+        Object today(VirtualFrame frame, LazyPythonClass cls) {
+            return fromEpochMicroseconds(frame, cls, DateTimeUtils.nowMicroseconds(), PNone.NONE);
+        }
+    }
+
+    @Builtin(name = "utcnow", fixedNumOfPositionalArgs = 1, isClassmethod = true, doc = "Return a new datetime representing UTC day and time.")
+    @GenerateNodeFactory
+    abstract static class UtcNowNode extends FromEpochNode {
+        @Specialization
+        Object utcNow(VirtualFrame frame, LazyPythonClass cls) {
+            return fromUtcMicroseconds(frame, cls, DateTimeUtils.nowMicroseconds(), PNone.NONE);
+        }
+    }
+
+    @Builtin(name = "combine", minNumOfPositionalArgs = 3, keywordArguments = {"tzinfo"}, isClassmethod = true, doc = "date, time -> datetime with same date and time fields")
+    @GenerateNodeFactory
+    abstract static class CombineNode extends PythonBuiltinNode {
+        @Specialization
+        Object combine(VirtualFrame frame, LazyPythonClass cls, PDate date, PTime time, Object tzInfo,
+                        @Cached("create()") TzInfoArgNode tzInfoArgNode,
+                        @Cached("create()") NewDateTimeNode newDateTimeNode) {
+            Object tz = tzInfo == PNone.NO_VALUE ? time.getTzInfo() : tzInfoArgNode.execute(tzInfo);
+            return newDateTimeNode.execute(frame, cls, date.getYear(), date.getMonth(), date.getDay(), time.getHour(), time.getMinute(), time.getSecond(), time.getMicrosecond(), tz,
+                            time.getFold());
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        Object combine(Object cls, Object date, Object time, Object tzInfo) {
+            if (!(date instanceof PDate)) {
+                throw raise(TypeError, "combine() argument 1 must be datetime.date, not %p", date);
+            }
+            throw raise(TypeError, "combine() argument 2 must be datetime.time, not %p", time);
+        }
+    }
+
+    @Builtin(name = "strptime", fixedNumOfPositionalArgs = 3, isClassmethod = true, doc = "string, format -> new datetime parsed from a string (like time.strptime()).")
+    @GenerateNodeFactory
+    abstract static class StrptimeNode extends PythonBuiltinNode {
+        @Specialization
+        Object strptime(VirtualFrame frame, LazyPythonClass cls, Object string, Object format,
+                        @Cached("create()") CastToStringNode castToStringNode,
+                        @Cached("create()") NewDateTimeNode newDateTimeNode,
+                        @Cached("create()") CallNode callNode) {
+            if ((string instanceof String || string instanceof PString) && (format instanceof String || format instanceof PString)) {
+                int[] fields = DateTimeUtils.strptime(castToStringNode.execute(string), castToStringNode.execute(format));
+                if (fields != null) {
+                    return newDateTimeNode.execute(frame, cls, fields[0], fields[1], fields[2], fields[3], fields[4], fields[5], fields[6], PNone.NONE, 0);
+                }
+            }
+            // other directives, time zones and errors are left to _strptime
+            Object strptime = getCore().lookupBuiltinModule("_datetime").getAttribute("_strptime_datetime");
+            return callNode.execute(frame, strptime, cls, string, format);
+        }
+    }
+}
@@ -0,0 +1,447 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.datetime;
+
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__REPR__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.OverflowError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import java.math.BigInteger;
+
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.modules.BuiltinFunctions.IsInstanceNode;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.floats.PFloat;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.object.PythonObject;
+import com.oracle.graal.python.builtins.objects.str.PString;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+import com.oracle.graal.python.builtins.objects.type.PythonAbstractClass;
+import com.oracle.graal.python.builtins.objects.type.PythonBuiltinClass;
+import com.oracle.graal.python.builtins.objects.type.TypeNodes.GetNameNode;
+import com.oracle.graal.python.nodes.PNodeWithContext;
+import com.oracle.graal.python.nodes.attributes.GetAttributeNode.GetAnyAttributeNode;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
+import com.oracle.graal.python.nodes.object.IsBuiltinClassProfile;
+import com.oracle.graal.python.nodes.util.CastToIndexNode;
+import com.oracle.graal.python.nodes.util.CastToStringNode;
+import com.oracle.graal.python.runtime.object.PythonObjectFactory;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+
+public abstract class DateTimeNodes {
+
+    static Object getTzInfoClass(PNodeWithContext node) {
+        return node.getCore().lookupBuiltinModule("_datetime").getAttribute("tzinfo");
+    }
+
+    /**
+     * Returns the type name used in {@code repr}, which is qualified with {@code datetime} for the
+     * builtin types like CPython's {@code tp_name}.
+     */
+    @TruffleBoundary
+    static String getTypeName(PythonObject self) {
+        PythonAbstractClass cls = self.getPythonClass();
+        String name = GetNameNode.doSlowPath(cls);
+        return cls instanceof PythonBuiltinClass ? "datetime." + name : name;
+    }
+
+    /**
+     * Parses the {@code timespec} argument of {@code isoformat}.
+     */
+    static int parseTimespec(PNodeWithContext node, CastToStringNode castToStringNode, Object timespec) {
+        if (timespec == PNone.NO_VALUE) {
+            return DateTimeUtils.TIMESPEC_AUTO;
+        } else if (!(timespec instanceof String || timespec instanceof PString)) {
+            throw node.raise(TypeError, "isoformat() argument 'timespec' must be str, not %p", timespec);
+        }
+        int spec = DateTimeUtils.parseTimespec(castToStringNode.execute(timespec));
+        if (spec < 0) {
+            throw node.raise(ValueError, "Unknown timespec value");
+        }
+        return spec;
+    }
+
+    public static void checkDateFields(PNodeWithContext node, long year, long month, long day) {
+        if (year < DateTimeUtils.MINYEAR || year > DateTimeUtils.MAXYEAR) {
+            throw node.raise(ValueError, "year %d is out of range", year);
+        } else if (month < 1 || month > 12) {
+            throw node.raise(ValueError, "month must be in 1..12");
+        } else if (day < 1 || day > DateTimeUtils.daysInMonth((int) year, (int) month)) {
+            throw node.raise(ValueError, "day is out of range for month");
+        }
+    }
+
+    /**
+     * Returns the ordinal of the day that the microseconds since the epoch fall on, raising
+     * {@code ValueError} if its year is out of range.
+     */
+    public static int epochMicrosecondsToOrdinal(PNodeWithContext node, long epochMicroseconds) {
+        long ordinal = DateTimeUtils.EPOCH_ORDINAL + Math.floorDiv(epochMicroseconds, DateTimeUtils.US_PER_DAY);
+        if (ordinal < 1 || ordinal > DateTimeUtils.MAX_ORDINAL) {
+            throw node.raise(ValueError, "year is out of range");
+        }
+        return (int) ordinal;
+    }
+
+    public static void checkTimeFields(PNodeWithContext node, long hour, long minute, long second, long microsecond, long fold) {
+        if (hour < 0 || hour > 23) {
+            throw node.raise(ValueError, "hour must be in 0..23");
+        } else if (minute < 0 || minute > 59) {
+            throw node.raise(ValueError, "minute must be in 0..59");
+        } else if (second < 0 || second > 59) {
+            throw node.raise(ValueError, "second must be in 0..59");
+        } else if (microsecond < 0 || microsecond > 999999) {
+            throw node.raise(ValueError, "microsecond must be in 0..999999");
+        } else if (fold != 0 && fold != 1) {
+            throw node.raise(ValueError, "fold must be either 0 or 1");
+        }
+    }
+
+    /**
+     * Normalizes days, seconds and microseconds into a {@code timedelta}, raising
+     * {@code OverflowError} if it has more than 999999999 days.
+     */
+    public static final class CreateTimeDeltaNode extends PNodeWithContext {
+        @Child private PythonObjectFactory factory = PythonObjectFactory.create();
+
+        public PTimeDelta execute(long days, long seconds, long microseconds) {
+            return execute(PythonBuiltinClassType.PTimeDelta, days, seconds, microseconds);
+        }
+
+        public PTimeDelta execute(LazyPythonClass cls, long days, long seconds, long microseconds) {
+            long s = seconds + Math.floorDiv(microseconds, DateTimeUtils.US_PER_SECOND);
+            long d = days + Math.floorDiv(s, DateTimeUtils.SECONDS_PER_DAY);
+            return create(cls, d, Math.floorMod(s, DateTimeUtils.SECONDS_PER_DAY), Math.floorMod(microseconds, DateTimeUtils.US_PER_SECOND));
+        }
+
+        public PTimeDelta executeMicroseconds(long microseconds) {
+            return executeMicroseconds(PythonBuiltinClassType.PTimeDelta, microseconds);
+        }
+
+        public PTimeDelta executeMicroseconds(LazyPythonClass cls, long microseconds) {
+            long d = Math.floorDiv(microseconds, DateTimeUtils.US_PER_DAY);
+            long rest = Math.floorMod(microseconds, DateTimeUtils.US_PER_DAY);
+            return create(cls, d, rest / DateTimeUtils.US_PER_SECOND, rest % DateTimeUtils.US_PER_SECOND);
+        }
+
+        public PTimeDelta executeMicroseconds(BigInteger microseconds) {
+            return executeMicroseconds(PythonBuiltinClassType.PTimeDelta, microseconds);
+        }
+
+        public PTimeDelta executeMicroseconds(LazyPythonClass cls, BigInteger microseconds) {
+            if (microseconds.bitLength() < Long.SIZE) {
+                return executeMicroseconds(cls, microseconds.longValue());
+            }
+            throw raiseTooLarge(microseconds);
+        }
+
+        @TruffleBoundary
+        private RuntimeException raiseTooLarge(BigInteger microseconds) {
+            throw raise(OverflowError, "days=%s; must have magnitude <= %d", microseconds.divide(BigInteger.valueOf(DateTimeUtils.US_PER_DAY)), DateTimeUtils.MAX_DELTA_DAYS);
+        }
+
+        private PTimeDelta create(LazyPythonClass cls, long days, long seconds, long microseconds) {
+            if (days > DateTimeUtils.MAX_DELTA_DAYS || days < -DateTimeUtils.MAX_DELTA_DAYS) {
+                throw raise(OverflowError, "days=%d; must have magnitude <= %d", days, DateTimeUtils.MAX_DELTA_DAYS);
+            }
+            return factory.createTimeDelta(cls, (int) days, (int) seconds, (int) microseconds);
+        }
+
+        public static CreateTimeDeltaNode create() {
+            return new CreateTimeDeltaNode();
+        }
+    }
+
+    /**
+     * Converts a date or time field to a long like {@code _check_int_field}; floats are rejected.
+     */
+    public static final class IntFieldNode extends PNodeWithContext {
+        @Child private CastToIndexNode castToIndexNode;
+
+        public long execute(Object value) {
+            if (value instanceof Integer) {
+                return (int) value;
+            } else if (value instanceof Long) {
+                return (long) value;
+            } else if (value instanceof Boolean) {
+                return (boolean) value ? 1 : 0;
+            } else if (value instanceof PInt) {
+                // out-of-range values fail the range checks anyway
+                try {
+                    return ((PInt) value).longValueExact();
+                } catch (ArithmeticException e) {
+                    return ((PInt) value).isZeroOrPositive() ? Long.MAX_VALUE : Long.MIN_VALUE;
+                }
+            } else if (value instanceof Double) {
+                throw raise(TypeError, "integer argument expected, got float");
+            }
+            if (castToIndexNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                castToIndexNode = insert(CastToIndexNode.create());
+            }
+            return castToIndexNode.execute(value);
+        }
+
+        public static IntFieldNode create() {
+            return new IntFieldNode();
+        }
+    }
+
+    /**
+     * Checks that a {@code tzinfo} argument is {@code None} or a {@code tzinfo} and returns it,
+     * with {@link PNone#NONE} for an omitted argument.
+     */
+    public static final class TzInfoArgNode extends PNodeWithContext {
+        @Child private IsInstanceNode isInstanceNode;
+        private final ConditionProfile naiveProfile = ConditionProfile.createBinaryProfile();
+
+        public Object execute(Object tzInfo) {
+            if (naiveProfile.profile(tzInfo == PNone.NONE || tzInfo == PNone.NO_VALUE)) {
+                return PNone.NONE;
+            }
+            if (isInstanceNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                isInstanceNode = insert(IsInstanceNode.create());
+            }
+            if (!isInstanceNode.executeWith(tzInfo, getTzInfoClass(this))) {
+                throw raise(TypeError, "tzinfo argument must be None or of a tzinfo subclass, not type '%p'", tzInfo);
+            }
+            return tzInfo;
+        }
+
+        public static TzInfoArgNode create() {
+            return new TzInfoArgNode();
+        }
+    }
+
+    /**
+     * Calls {@code utcoffset} or {@code dst} of a time zone and checks the result like
+     * {@code _check_utc_offset}. Returns {@code null} for naive times and {@code None} results.
+     */
+    public static final class UtcOffsetNode extends PNodeWithContext {
+        private final String name;
+        @Child private GetAnyAttributeNode getMethodNode = GetAnyAttributeNode.create();
+        @Child private CallNode callNode = CallNode.create();
+
+        private UtcOffsetNode(String name) {
+            this.name = name;
+        }
+
+        public PTimeDelta execute(VirtualFrame frame, Object tzInfo, Object dt) {
+            if (tzInfo == PNone.NONE) {
+                return null;
+            }
+            Object offset = callNode.execute(frame, getMethodNode.executeObject(tzInfo, name), dt);
+            if (offset == PNone.NONE) {
+                return null;
+            } else if (!(offset instanceof PTimeDelta)) {
+                throw raise(TypeError, "tzinfo.%s() must return None or timedelta, not '%p'", name, offset);
+            }
+            PTimeDelta delta = (PTimeDelta) offset;
+            if (delta.getMicroseconds() != 0) {
+                throw raise(ValueError, "tzinfo.%s() must return a whole number of seconds", name);
+            }
+            if (delta.getDays() < -1 || delta.getDays() > 0 || (delta.getDays() == -1 && delta.getSeconds() == 0)) {
+                throw raise(ValueError, "offset must be a timedelta strictly between -timedelta(hours=24) and timedelta(hours=24)");
+            }
+            return delta;
+        }
+
+        /**
+         * Returns the offset in seconds, or 0 for naive times.
+         */
+        public long executeSeconds(VirtualFrame frame, Object tzInfo, Object dt) {
+            PTimeDelta offset = execute(frame, tzInfo, dt);
+            return offset == null ? 0 : offset.getDays() * DateTimeUtils.SECONDS_PER_DAY + offset.getSeconds();
+        }
+
+        public static UtcOffsetNode create(String name) {
+            return new UtcOffsetNode(name);
+        }
+
+        public static UtcOffsetNode create() {
+            return new UtcOffsetNode("utcoffset");
+        }
+    }
+
+    /**
+     * Creates a date of a given class like CPython's {@code new_date_subclass_ex}, which calls
+     * the class only for subclasses.
+     */
+    public static final class NewDateNode extends PNodeWithContext {
+        @Child private PythonObjectFactory factory = PythonObjectFactory.create();
+        @Child private CallNode callNode;
+        private final IsBuiltinClassProfile dateProfile = IsBuiltinClassProfile.create();
+        private final IsBuiltinClassProfile dateTimeProfile = IsBuiltinClassProfile.create();
+
+        public Object execute(VirtualFrame frame, LazyPythonClass cls, int year, int month, int day) {
+            if (dateProfile.profileClass(cls, PythonBuiltinClassType.PDate)) {
+                return factory.createDate(cls, year, month, day);
+            } else if (dateTimeProfile.profileClass(cls, PythonBuiltinClassType.PDateTime)) {
+                return factory.createDateTime(cls, year, month, day, 0, 0, 0, 0, PNone.NONE, 0);
+            }
+            if (callNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                callNode = insert(CallNode.create());
+            }
+            return callNode.execute(frame, cls, year, month, day);
+        }
+
+        public static NewDateNode create() {
+            return new NewDateNode();
+        }
+    }
+
+    /**
+     * Creates a datetime of a given class like CPython's {@code new_datetime_subclass_fold_ex}.
+     */
+    public static final class NewDateTimeNode extends PNodeWithContext {
+        @Child private PythonObjectFactory factory = PythonObjectFactory.create();
+        @Child private CallNode callNode;
+        private final IsBuiltinClassProfile dateTimeProfile = IsBuiltinClassProfile.create();
+
+        public Object execute(VirtualFrame frame, LazyPythonClass cls, int year, int month, int day, int hour, int minute, int second, int microsecond, Object tzInfo, int fold) {
+            if (dateTimeProfile.profileClass(cls, PythonBuiltinClassType.PDateTime)) {
+                return factory.createDateTime(cls, year, month, day, hour, minute, second, microsecond, tzInfo, fold);
+            }
+            if (callNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                callNode = insert(CallNode.create());
+            }
+            Object[] args = new Object[]{year, month, day, hour, minute, second, microsecond, tzInfo};
+            PKeyword[] keywords = fold == 0 ? PKeyword.EMPTY_KEYWORDS : new PKeyword[]{new PKeyword("fold", fold)};
+            return callNode.execute(frame, cls, args, keywords);
+        }
+
+        public static NewDateTimeNode create() {
+            return new NewDateTimeNode();
+        }
+    }
+
+    /**
+     * Converts a POSIX timestamp to microseconds, rounding half to even like
+     * {@code _PyTime_ObjectToTimeval}.
+     */
+    public static final class TimestampNode extends PNodeWithContext {
+        private static final long MAX_SECONDS = 1L << 40;
+
+        public long execute(Object timestamp) {
+            if (timestamp instanceof Integer) {
+                return (int) timestamp * DateTimeUtils.US_PER_SECOND;
+            } else if (timestamp instanceof Long) {
+                return fromSeconds((long) timestamp);
+            } else if (timestamp instanceof Boolean) {
+                return (boolean) timestamp ? DateTimeUtils.US_PER_SECOND : 0;
+            } else if (timestamp instanceof Double) {
+                return fromDouble((double) timestamp);
+            } else if (timestamp instanceof PFloat) {
+                return fromDouble(((PFloat) timestamp).getValue());
+            } else if (timestamp instanceof PInt) {
+                try {
+                    return fromSeconds(((PInt) timestamp).longValueExact());
+                } catch (ArithmeticException e) {
+                    throw raise(OverflowError, "timestamp out of range for platform time_t");
+                }
+            }
+            throw raise(TypeError, "'%p' object cannot be interpreted as an integer", timestamp);
+        }
+
+        private long fromSeconds(long seconds) {
+            if (seconds >= MAX_SECONDS || seconds <= -MAX_SECONDS) {
+                throw raise(OverflowError, "timestamp out of range for platform time_t");
+            }
+            return seconds * DateTimeUtils.US_PER_SECOND;
+        }
+
+        private long fromDouble(double timestamp) {
+            if (Double.isNaN(timestamp)) {
+                throw raise(ValueError, "Invalid value NaN (not a number)");
+            }
+            double intPart = timestamp < 0 ? Math.ceil(timestamp) : Math.floor(timestamp);
+            double floatPart = Math.rint((timestamp - intPart) * 1e6);
+            if (floatPart >= 1e6) {
+                floatPart -= 1e6;
+                intPart += 1.0;
+            } else if (floatPart < 0) {
+                floatPart += 1e6;
+                intPart -= 1.0;
+            }
+            if (!(intPart < MAX_SECONDS && intPart > -MAX_SECONDS)) {
+                throw raise(OverflowError, "timestamp out of range for platform time_t");
+            }
+            return (long) intPart * DateTimeUtils.US_PER_SECOND + (long) floatPart;
+        }
+
+        public static TimestampNode create() {
+            return new TimestampNode();
+        }
+    }
+
+    /**
+     * Returns the {@code repr} of a time zone, or {@code null} for naive times.
+     */
+    public static final class TzInfoReprNode extends PNodeWithContext {
+        @Child private LookupAndCallUnaryNode reprNode;
+        @Child private CastToStringNode castToStringNode;
+
+        public String execute(Object tzInfo) {
+            if (tzInfo == PNone.NONE) {
+                return null;
+            }
+            if (reprNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                reprNode = insert(LookupAndCallUnaryNode.create(__REPR__));
+                castToStringNode = insert(CastToStringNode.createCoercing());
+            }
+            return castToStringNode.execute(reprNode.executeObject(tzInfo));
+        }
+
+        public static TzInfoReprNode create() {
+            return new TzInfoReprNode();
+        }
+    }
+}
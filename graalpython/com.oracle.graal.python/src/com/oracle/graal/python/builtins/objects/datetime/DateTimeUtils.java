@@ -0,0 +1,518 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.datetime;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.List;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * Calendar arithmetic of the proleptic Gregorian calendar the {@code datetime} types use, where
+ * January 1 of year 1 is ordinal 1. A date is passed around packed into an int as
+ * {@code year << 9 | month << 5 | day} so that the conversions do not allocate.
+ */
+public final class DateTimeUtils {
+    public static final int MINYEAR = 1;
+    public static final int MAXYEAR = 9999;
+    public static final int MAX_ORDINAL = 3652059;
+    public static final int MAX_DELTA_DAYS = 999999999;
+    /* the ordinal of 1970-01-01 */
+    public static final int EPOCH_ORDINAL = 719163;
+
+    public static final long US_PER_SECOND = 1000000L;
+    public static final long SECONDS_PER_DAY = 24 * 3600;
+    public static final long US_PER_DAY = SECONDS_PER_DAY * US_PER_SECOND;
+
+    public static final int TIMESPEC_AUTO = 0;
+    public static final int TIMESPEC_HOURS = 1;
+    public static final int TIMESPEC_MINUTES = 2;
+    public static final int TIMESPEC_SECONDS = 3;
+    public static final int TIMESPEC_MILLISECONDS = 4;
+    public static final int TIMESPEC_MICROSECONDS = 5;
+
+    private static final int[] DAYS_IN_MONTH = {-1, 31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+    private static final int[] DAYS_BEFORE_MONTH = {-1, 0, 31, 59, 90, 120, 151, 181, 212, 243, 273, 304, 334};
+    private static final int DI400Y = daysBeforeYear(401);
+    private static final int DI100Y = daysBeforeYear(101);
+    private static final int DI4Y = daysBeforeYear(5);
+
+    static final String[] DAY_NAMES = {null, "Mon", "Tue", "Wed", "Thu", "Fri", "Sat", "Sun"};
+    static final String[] MONTH_NAMES = {null, "Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul", "Aug", "Sep", "Oct", "Nov", "Dec"};
+
+    private static final BigInteger BIG_US_PER_DAY = BigInteger.valueOf(US_PER_DAY);
+    private static final BigDecimal BIG_US_PER_SECOND = BigDecimal.valueOf(US_PER_SECOND);
+
+    private DateTimeUtils() {
+    }
+
+    public static boolean isLeap(int year) {
+        return year % 4 == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    public static int daysInMonth(int year, int month) {
+        if (month == 2 && isLeap(year)) {
+            return 29;
+        }
+        return DAYS_IN_MONTH[month];
+    }
+
+    private static int daysBeforeYear(int year) {
+        int y = year - 1;
+        return y * 365 + y / 4 - y / 100 + y / 400;
+    }
+
+    private static int daysBeforeMonth(int year, int month) {
+        return DAYS_BEFORE_MONTH[month] + (month > 2 && isLeap(year) ? 1 : 0);
+    }
+
+    public static int toOrdinal(int year, int month, int day) {
+        return daysBeforeYear(year) + daysBeforeMonth(year, month) + day;
+    }
+
+    /**
+     * Converts an ordinal between 1 and {@link #MAX_ORDINAL} to a packed date.
+     */
+    public static int fromOrdinal(int ordinal) {
+        int n = ordinal - 1;
+        int n400 = n / DI400Y;
+        n = n % DI400Y;
+        int year = n400 * 400 + 1;
+        int n100 = n / DI100Y;
+        n = n % DI100Y;
+        int n4 = n / DI4Y;
+        n = n % DI4Y;
+        int n1 = n / 365;
+        n = n % 365;
+        year += n100 * 100 + n4 * 4 + n1;
+        if (n1 == 4 || n100 == 4) {
+            return pack(year - 1, 12, 31);
+        }
+        boolean leapYear = n1 == 3 && (n4 != 24 || n100 == 3);
+        int month = (n + 50) >> 5;
+        int preceding = DAYS_BEFORE_MONTH[month] + (month > 2 && leapYear ? 1 : 0);
+        if (preceding > n) {
+            month--;
+            preceding -= DAYS_IN_MONTH[month] + (month == 2 && leapYear ? 1 : 0);
+        }
+        return pack(year, month, n - preceding + 1);
+    }
+
+    public static int pack(int year, int month, int day) {
+        return year << 9 | month << 5 | day;
+    }
+
+    public static int packedYear(int packed) {
+        return packed >>> 9;
+    }
+
+    public static int packedMonth(int packed) {
+        return (packed >> 5) & 0xF;
+    }
+
+    public static int packedDay(int packed) {
+        return packed & 0x1F;
+    }
+
+    /**
+     * Monday is 0 and Sunday is 6.
+     */
+    public static int weekday(int ordinal) {
+        return (ordinal + 6) % 7;
+    }
+
+    static int isoWeek1Monday(int year) {
+        int firstDay = toOrdinal(year, 1, 1);
+        int firstWeekday = weekday(firstDay);
+        int week1Monday = firstDay - firstWeekday;
+        if (firstWeekday > 3) {
+            week1Monday += 7;
+        }
+        return week1Monday;
+    }
+
+    /**
+     * Divides and rounds half to even, like {@code _divide_and_round} in {@code datetime.py}.
+     */
+    public static long divideAndRound(long a, long b) {
+        long q = Math.floorDiv(a, b);
+        long r = Math.floorMod(a, b);
+        long rest = b - r;
+        boolean greaterThanHalf = b > 0 ? r > rest : r < rest;
+        if (greaterThanHalf || (r == rest && (q & 1) != 0)) {
+            q++;
+        }
+        return q;
+    }
+
+    @TruffleBoundary
+    public static BigInteger divideAndRound(BigInteger a, BigInteger b) {
+        return new BigDecimal(a).divide(new BigDecimal(b), 0, RoundingMode.HALF_EVEN).toBigIntegerExact();
+    }
+
+    /**
+     * Multiplies by a finite double exactly and rounds half to even.
+     */
+    @TruffleBoundary
+    public static BigInteger multiplyAndRound(BigInteger a, double b) {
+        return new BigDecimal(a).multiply(new BigDecimal(b)).setScale(0, RoundingMode.HALF_EVEN).toBigIntegerExact();
+    }
+
+    /**
+     * Divides by a finite, non-zero double exactly and rounds half to even.
+     */
+    @TruffleBoundary
+    public static BigInteger divideAndRound(BigInteger a, double b) {
+        return new BigDecimal(a).divide(new BigDecimal(b), 0, RoundingMode.HALF_EVEN).toBigIntegerExact();
+    }
+
+    @TruffleBoundary
+    public static BigInteger floorDiv(BigInteger a, BigInteger b) {
+        BigInteger[] qr = a.divideAndRemainder(b);
+        if (qr[1].signum() != 0 && qr[1].signum() != b.signum()) {
+            return qr[0].subtract(BigInteger.ONE);
+        }
+        return qr[0];
+    }
+
+    @TruffleBoundary
+    public static BigInteger floorMod(BigInteger a, BigInteger b) {
+        return a.subtract(floorDiv(a, b).multiply(b));
+    }
+
+    @TruffleBoundary
+    public static BigInteger toMicroseconds(PTimeDelta delta) {
+        return BigInteger.valueOf(delta.getDays()).multiply(BIG_US_PER_DAY).add(BigInteger.valueOf(delta.getSeconds() * US_PER_SECOND + delta.getMicroseconds()));
+    }
+
+    /**
+     * Converts microseconds to seconds like Python's true division of ints, which rounds
+     * correctly also where the microseconds do not fit into a double exactly.
+     */
+    public static double microsecondsToSeconds(long us) {
+        if (Math.abs(us) < (1L << 53)) {
+            return us / 1e6;
+        }
+        return microsecondsToSecondsSlowPath(BigInteger.valueOf(us));
+    }
+
+    @TruffleBoundary
+    public static double microsecondsToSecondsSlowPath(BigInteger us) {
+        return new BigDecimal(us).divide(BIG_US_PER_SECOND).doubleValue();
+    }
+
+    @TruffleBoundary
+    public static double divide(BigInteger a, BigInteger b) {
+        return new BigDecimal(a).divide(new BigDecimal(b), MathContext.DECIMAL128).doubleValue();
+    }
+
+    /**
+     * Returns the index of a {@code timespec} argument of {@code isoformat}, or -1 if it is not
+     * known.
+     */
+    public static int parseTimespec(String timespec) {
+        switch (timespec) {
+            case "auto":
+                return TIMESPEC_AUTO;
+            case "hours":
+                return TIMESPEC_HOURS;
+            case "minutes":
+                return TIMESPEC_MINUTES;
+            case "seconds":
+                return TIMESPEC_SECONDS;
+            case "milliseconds":
+                return TIMESPEC_MILLISECONDS;
+            case "microseconds":
+                return TIMESPEC_MICROSECONDS;
+            default:
+                return -1;
+        }
+    }
+
+    static void appendPadded(StringBuilder sb, int value, int width) {
+        String digits = Integer.toString(value);
+        for (int i = digits.length(); i < width; i++) {
+            sb.append('0');
+        }
+        sb.append(digits);
+    }
+
+    static void appendDate(StringBuilder sb, int year, int month, int day) {
+        appendPadded(sb, year, 4);
+        sb.append('-');
+        appendPadded(sb, month, 2);
+        sb.append('-');
+        appendPadded(sb, day, 2);
+    }
+
+    static void appendTime(StringBuilder sb, int hour, int minute, int second, int microsecond, int timespec) {
+        int spec = timespec == TIMESPEC_AUTO ? (microsecond != 0 ? TIMESPEC_MICROSECONDS : TIMESPEC_SECONDS) : timespec;
+        appendPadded(sb, hour, 2);
+        if (spec >= TIMESPEC_MINUTES) {
+            sb.append(':');
+            appendPadded(sb, minute, 2);
+        }
+        if (spec >= TIMESPEC_SECONDS) {
+            sb.append(':');
+            appendPadded(sb, second, 2);
+        }
+        if (spec == TIMESPEC_MILLISECONDS) {
+            sb.append('.');
+            appendPadded(sb, microsecond / 1000, 3);
+        } else if (spec == TIMESPEC_MICROSECONDS) {
+            sb.append('.');
+            appendPadded(sb, microsecond, 6);
+        }
+    }
+
+    /**
+     * Appends a UTC offset as {@code +HH:MM}, with seconds only if they are not zero.
+     */
+    static void appendOffset(StringBuilder sb, PTimeDelta offset) {
+        long seconds = offset.getDays() * SECONDS_PER_DAY + offset.getSeconds();
+        if (seconds < 0) {
+            sb.append('-');
+            seconds = -seconds;
+        } else {
+            sb.append('+');
+        }
+        appendPadded(sb, (int) (seconds / 3600), 2);
+        sb.append(':');
+        appendPadded(sb, (int) (seconds / 60 % 60), 2);
+        if (seconds % 60 != 0) {
+            sb.append(':');
+            appendPadded(sb, (int) (seconds % 60), 2);
+        }
+    }
+
+    static void appendCTime(StringBuilder sb, int year, int month, int day, int hour, int minute, int second) {
+        int isoWeekday = toOrdinal(year, month, day) % 7;
+        sb.append(DAY_NAMES[isoWeekday == 0 ? 7 : isoWeekday]).append(' ');
+        sb.append(MONTH_NAMES[month]).append(' ');
+        if (day < 10) {
+            sb.append(' ');
+        }
+        sb.append(day).append(' ');
+        appendPadded(sb, hour, 2);
+        sb.append(':');
+        appendPadded(sb, minute, 2);
+        sb.append(':');
+        appendPadded(sb, second, 2);
+        sb.append(' ');
+        appendPadded(sb, year, 4);
+    }
+
+    /*
+     * Local time, which follows the rules of the default time zone.
+     */
+
+    @TruffleBoundary
+    public static long nowMicroseconds() {
+        Instant now = Instant.now();
+        return now.getEpochSecond() * US_PER_SECOND + now.getNano() / 1000;
+    }
+
+    /**
+     * Like {@link #toLocalSeconds} for microseconds.
+     */
+    public static long toLocalMicroseconds(long epochMicroseconds, int[] fold) {
+        long seconds = toLocalSeconds(Math.floorDiv(epochMicroseconds, US_PER_SECOND), fold);
+        return seconds * US_PER_SECOND + Math.floorMod(epochMicroseconds, US_PER_SECOND);
+    }
+
+    /**
+     * Converts seconds since the epoch to the local time, returned as seconds since the epoch as
+     * if the local time was UTC. {@code fold[0]} is set to 1 if the local time is the later of two
+     * equal local times around a transition.
+     */
+    @TruffleBoundary
+    public static long toLocalSeconds(long epochSeconds, int[] fold) {
+        ZoneRules rules = ZoneId.systemDefault().getRules();
+        Instant instant = Instant.ofEpochSecond(epochSeconds);
+        ZoneOffset offset = rules.getOffset(instant);
+        LocalDateTime local = LocalDateTime.ofEpochSecond(epochSeconds, 0, offset);
+        List<ZoneOffset> validOffsets = rules.getValidOffsets(local);
+        fold[0] = validOffsets.size() == 2 && offset.equals(validOffsets.get(1)) ? 1 : 0;
+        return epochSeconds + offset.getTotalSeconds();
+    }
+
+    /**
+     * Converts a local time, given as seconds since the epoch as if it was UTC, to seconds since
+     * the epoch. Of two equal local times the later one is taken if {@code fold} is set, and a
+     * local time skipped by a transition uses the offset from before it unless {@code fold} is
+     * set, like CPython's {@code local_to_seconds}.
+     */
+    @TruffleBoundary
+    public static long fromLocalSeconds(long localEpochSeconds, int fold) {
+        ZoneRules rules = ZoneId.systemDefault().getRules();
+        LocalDateTime local = LocalDateTime.ofEpochSecond(localEpochSeconds, 0, ZoneOffset.UTC);
+        List<ZoneOffset> validOffsets = rules.getValidOffsets(local);
+        ZoneOffset offset;
+        if (validOffsets.size() == 1) {
+            offset = validOffsets.get(0);
+        } else if (validOffsets.size() == 2) {
+            offset = validOffsets.get(fold);
+        } else {
+            ZoneOffsetTransition transition = rules.getTransition(local);
+            offset = fold == 0 ? transition.getOffsetBefore() : transition.getOffsetAfter();
+        }
+        return localEpochSeconds - offset.getTotalSeconds();
+    }
+
+    /*
+     * strptime
+     */
+
+    /**
+     * Parses {@code string} with a format made only of the directives {@code %Y %m %d %H %M %S
+     * %f %%}, white space and other literal characters into year, month, day, hour, minute,
+     * second and microsecond. Each number is read greedily, the way {@code _strptime}'s regular
+     * expression tries its alternatives, and {@code null} is returned whenever the result could
+     * differ from {@code _strptime}, so that the caller falls back to it.
+     */
+    @TruffleBoundary
+    public static int[] strptime(String string, String format) {
+        int[] result = {1900, 1, 1, 0, 0, 0, 0};
+        int pos = 0;
+        int len = string.length();
+        int flen = format.length();
+        for (int i = 0; i < flen; i++) {
+            char f = format.charAt(i);
+            if (f == '%') {
+                if (++i == flen) {
+                    return null;
+                }
+                char directive = format.charAt(i);
+                int field;
+                int minDigits = 1;
+                int maxDigits = 2;
+                switch (directive) {
+                    case 'Y':
+                        field = 0;
+                        minDigits = maxDigits = 4;
+                        break;
+                    case 'm':
+                        field = 1;
+                        break;
+                    case 'd':
+                        field = 2;
+                        break;
+                    case 'H':
+                        field = 3;
+                        break;
+                    case 'M':
+                        field = 4;
+                        break;
+                    case 'S':
+                        field = 5;
+                        break;
+                    case 'f':
+                        field = 6;
+                        maxDigits = 6;
+                        break;
+                    case '%':
+                        if (pos == len || string.charAt(pos) != '%') {
+                            return null;
+                        }
+                        pos++;
+                        continue;
+                    default:
+                        return null;
+                }
+                int start = pos;
+                int value = 0;
+                while (pos < len && pos - start < maxDigits) {
+                    char c = string.charAt(pos);
+                    if (c < '0' || c > '9') {
+                        break;
+                    }
+                    value = value * 10 + (c - '0');
+                    pos++;
+                }
+                int digits = pos - start;
+                if (digits < minDigits) {
+                    return null;
+                }
+                if (field == 6) {
+                    for (int d = digits; d < 6; d++) {
+                        value *= 10;
+                    }
+                }
+                result[field] = value;
+            } else if (Character.isWhitespace(f)) {
+                while (i + 1 < flen && Character.isWhitespace(format.charAt(i + 1))) {
+                    i++;
+                }
+                int start = pos;
+                while (pos < len && Character.isWhitespace(string.charAt(pos))) {
+                    pos++;
+                }
+                if (pos == start) {
+                    return null;
+                }
+            } else {
+                if (pos == len || Character.toLowerCase(string.charAt(pos)) != Character.toLowerCase(f) || Character.isDigit(f)) {
+                    return null;
+                }
+                pos++;
+            }
+        }
+        if (pos != len) {
+            return null;
+        }
+        // values the regular expression would not have matched greedily, or datetime rejects
+        int year = result[0];
+        int month = result[1];
+        if (year < MINYEAR || month < 1 || month > 12 || result[2] < 1 || result[2] > daysInMonth(year, month) || result[3] > 23 || result[4] > 59 || result[5] > 59) {
+            return null;
+        }
+        return result;
+    }
+}
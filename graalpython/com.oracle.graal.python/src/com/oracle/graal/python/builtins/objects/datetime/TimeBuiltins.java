@@ -0,0 +1,385 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.datetime;
+
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__EQ__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__GE__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__GT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__HASH__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__LE__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__LT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__REDUCE__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__REPR__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__STR__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.PNotImplemented;
+import com.oracle.graal.python.builtins.objects.datetime.DateTimeNodes.IntFieldNode;
+import com.oracle.graal.python.builtins.objects.datetime.DateTimeNodes.TzInfoArgNode;
+import com.oracle.graal.python.builtins.objects.datetime.DateTimeNodes.TzInfoReprNode;
+import com.oracle.graal.python.builtins.objects.datetime.DateTimeNodes.UtcOffsetNode;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.object.GetClassNode;
+import com.oracle.graal.python.nodes.util.CastToStringNode;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Fallback;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PTime)
+public class TimeBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return TimeBuiltinsFactory.getFactories();
+    }
+
+    @Builtin(name = "hour", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class HourNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        int get(PTime self) {
+            return self.getHour();
+        }
+    }
+
+    @Builtin(name = "minute", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class MinuteNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        int get(PTime self) {
+            return self.getMinute();
+        }
+    }
+
+    @Builtin(name = "second", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class SecondNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        int get(PTime self) {
+            return self.getSecond();
+        }
+    }
+
+    @Builtin(name = "microsecond", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class MicrosecondNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        int get(PTime self) {
+            return self.getMicrosecond();
+        }
+    }
+
+    @Builtin(name = "tzinfo", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class TzInfoNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object get(PTime self) {
+            return self.getTzInfo();
+        }
+    }
+
+    @Builtin(name = "fold", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class FoldNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        int get(PTime self) {
+            return self.getFold();
+        }
+    }
+
+    @Builtin(name = "utcoffset", fixedNumOfPositionalArgs = 1, doc = "Return self.tzinfo.utcoffset(self).")
+    @GenerateNodeFactory
+    abstract static class UtcOffsetMethodNode extends PythonUnaryBuiltinNode {
+        @Child private UtcOffsetNode utcOffsetNode = UtcOffsetNode.create();
+
+        @Specialization
+        Object utcoffset(VirtualFrame frame, PTime self) {
+            PTimeDelta offset = utcOffsetNode.execute(frame, self.getTzInfo(), PNone.NONE);
+            return offset == null ? PNone.NONE : offset;
+        }
+    }
+
+    @Builtin(name = "dst", fixedNumOfPositionalArgs = 1, doc = "Return self.tzinfo.dst(self).")
+    @GenerateNodeFactory
+    abstract static class DstNode extends PythonUnaryBuiltinNode {
+        @Child private UtcOffsetNode dstNode = UtcOffsetNode.create("dst");
+
+        @Specialization
+        Object dst(VirtualFrame frame, PTime self) {
+            PTimeDelta offset = dstNode.execute(frame, self.getTzInfo(), PNone.NONE);
+            return offset == null ? PNone.NONE : offset;
+        }
+    }
+
+    /**
+     * Compares times directly if they share their {@code tzinfo} and otherwise after subtracting
+     * their UTC offsets.
+     */
+    abstract static class TimeComparisonNode extends PythonBinaryBuiltinNode {
+        /** The result of comparing a naive with an aware time. */
+        protected static final int NAIVE_AND_AWARE = 2;
+
+        @Child private UtcOffsetNode selfOffsetNode = UtcOffsetNode.create();
+        @Child private UtcOffsetNode otherOffsetNode = UtcOffsetNode.create();
+
+        protected final int compare(VirtualFrame frame, PTime self, PTime other) {
+            if (self.getTzInfo() == other.getTzInfo()) {
+                return Long.compare(self.toMicroseconds(), other.toMicroseconds());
+            }
+            PTimeDelta selfOffset = selfOffsetNode.execute(frame, self.getTzInfo(), PNone.NONE);
+            PTimeDelta otherOffset = otherOffsetNode.execute(frame, other.getTzInfo(), PNone.NONE);
+            if (selfOffset == null && otherOffset == null) {
+                return Long.compare(self.toMicroseconds(), other.toMicroseconds());
+            } else if (selfOffset == null || otherOffset == null) {
+                return NAIVE_AND_AWARE;
+            }
+            return Long.compare(self.toMicroseconds() - selfOffset.toMicroseconds(), other.toMicroseconds() - otherOffset.toMicroseconds());
+        }
+
+        protected final int compareOrdered(VirtualFrame frame, PTime self, PTime other) {
+            int result = compare(frame, self, other);
+            if (result == NAIVE_AND_AWARE) {
+                throw raise(TypeError, "can't compare offset-naive and offset-aware times");
+            }
+            return result;
+        }
+    }
+
+    @Builtin(name = __EQ__, fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class EqNode extends TimeComparisonNode {
+        @Specialization
+        boolean eq(VirtualFrame frame, PTime self, PTime other) {
+            return compare(frame, self, other) == 0;
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        PNotImplemented eq(Object self, Object other) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = __LT__, fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class LtNode extends TimeComparisonNode {
+        @Specialization
+        boolean lt(VirtualFrame frame, PTime self, PTime other) {
+            return compareOrdered(frame, self, other) < 0;
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        PNotImplemented lt(Object self, Object other) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = __LE__, fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class LeNode extends TimeComparisonNode {
+        @Specialization
+        boolean le(VirtualFrame frame, PTime self, PTime other) {
+            return compareOrdered(frame, self, other) <= 0;
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        PNotImplemented le(Object self, Object other) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = __GT__, fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class GtNode extends TimeComparisonNode {
+        @Specialization
+        boolean gt(VirtualFrame frame, PTime self, PTime other) {
+            return compareOrdered(frame, self, other) > 0;
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        PNotImplemented gt(Object self, Object other) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = __GE__, fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class GeNode extends TimeComparisonNode {
+        @Specialization
+        boolean ge(VirtualFrame frame, PTime self, PTime other) {
+            return compareOrdered(frame, self, other) >= 0;
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        PNotImplemented ge(Object self, Object other) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = __HASH__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class HashNode extends PythonUnaryBuiltinNode {
+        @Child private UtcOffsetNode utcOffsetNode = UtcOffsetNode.create();
+
+        @Specialization
+        long hash(VirtualFrame frame, PTime self) {
+            // the fold is ignored, and aware times hash like the UTC time they are equal to
+            long us = self.toMicroseconds();
+            PTimeDelta offset = utcOffsetNode.execute(frame, self.getTzInfo(), PNone.NONE);
+            if (offset != null) {
+                us -= offset.toMicroseconds();
+            }
+            return us * 1000003L ^ us >>> 32;
+        }
+    }
+
+    @Builtin(name = "isoformat", minNumOfPositionalArgs = 1, keywordArguments = {"timespec"}, doc = "Return string in ISO 8601 format, [HH[:MM[:SS[.mmm[uuu]]]]][+HH:MM].")
+    @GenerateNodeFactory
+    abstract static class IsoFormatNode extends PythonBinaryBuiltinNode {
+        @Child private UtcOffsetNode utcOffsetNode = UtcOffsetNode.create();
+
+        @Specialization
+        String isoformat(VirtualFrame frame, PTime self, Object timespec,
+                        @Cached("create()") CastToStringNode castToStringNode) {
+            int spec = DateTimeNodes.parseTimespec(this, castToStringNode, timespec);
+            return format(self, spec, utcOffsetNode.execute(frame, self.getTzInfo(), PNone.NONE));
+        }
+
+        @TruffleBoundary
+        static String format(PTime self, int timespec, PTimeDelta offset) {
+            StringBuilder sb = new StringBuilder();
+            DateTimeUtils.appendTime(sb, self.getHour(), self.getMinute(), self.getSecond(), self.getMicrosecond(), timespec);
+            if (offset != null) {
+                DateTimeUtils.appendOffset(sb, offset);
+            }
+            return sb.toString();
+        }
+    }
+
+    @Builtin(name = __STR__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class StrNode extends PythonUnaryBuiltinNode {
+        @Child private UtcOffsetNode utcOffsetNode = UtcOffsetNode.create();
+
+        @Specialization
+        String str(VirtualFrame frame, PTime self) {
+            return IsoFormatNode.format(self, DateTimeUtils.TIMESPEC_AUTO, utcOffsetNode.execute(frame, self.getTzInfo(), PNone.NONE));
+        }
+    }
+
+    @Builtin(name = __REPR__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class ReprNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        String repr(PTime self,
+                        @Cached("create()") TzInfoReprNode tzInfoReprNode) {
+            return format(self, tzInfoReprNode.execute(self.getTzInfo()));
+        }
+
+        @TruffleBoundary
+        private static String format(PTime self, String tzInfoRepr) {
+            StringBuilder sb = new StringBuilder(DateTimeNodes.getTypeName(self)).append('(').append(self.getHour()).append(", ").append(self.getMinute());
+            if (self.getMicrosecond() != 0) {
+                sb.append(", ").append(self.getSecond()).append(", ").append(self.getMicrosecond());
+            } else if (self.getSecond() != 0) {
+                sb.append(", ").append(self.getSecond());
+            }
+            if (tzInfoRepr != null) {
+                sb.append(", tzinfo=").append(tzInfoRepr);
+            }
+            if (self.getFold() != 0) {
+                sb.append(", fold=1");
+            }
+            return sb.append(')').toString();
+        }
+    }
+
+    @Builtin(name = "replace", fixedNumOfPositionalArgs = 1, keywordArguments = {"hour", "minute", "second", "microsecond", "tzinfo",
+                    "fold"}, doc = "Return time with new specified fields.")
+    @GenerateNodeFactory
+    abstract static class ReplaceNode extends PythonBuiltinNode {
+        @Specialization
+        PTime replace(PTime self, Object hour, Object minute, Object second, Object microsecond, Object tzInfo, Object fold,
+                        @Cached("create()") IntFieldNode intFieldNode,
+                        @Cached("create()") TzInfoArgNode tzInfoArgNode) {
+            long h = hour == PNone.NO_VALUE ? self.getHour() : intFieldNode.execute(hour);
+            long mi = minute == PNone.NO_VALUE ? self.getMinute() : intFieldNode.execute(minute);
+            long s = second == PNone.NO_VALUE ? self.getSecond() : intFieldNode.execute(second);
+            long us = microsecond == PNone.NO_VALUE ? self.getMicrosecond() : intFieldNode.execute(microsecond);
+            long f = fold == PNone.NO_VALUE ? self.getFold() : intFieldNode.execute(fold);
+            DateTimeNodes.checkTimeFields(this, h, mi, s, us, f);
+            Object tz = tzInfo == PNone.NO_VALUE ? self.getTzInfo() : tzInfoArgNode.execute(tzInfo);
+            return factory().createTime(self.getLazyPythonClass(), (int) h, (int) mi, (int) s, (int) us, tz, (int) f);
+        }
+    }
+
+    @Builtin(name = __REDUCE__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class ReduceNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PTuple reduce(PTime self,
+                        @Cached("create()") GetClassNode getClassNode) {
+            int us = self.getMicrosecond();
+            byte[] state = {(byte) (self.getHour() + (self.getFold() != 0 ? 128 : 0)), (byte) self.getMinute(), (byte) self.getSecond(), (byte) (us >> 16), (byte) (us >> 8), (byte) us};
+            Object[] args = self.isNaive() ? new Object[]{factory().createBytes(state)} : new Object[]{factory().createBytes(state), self.getTzInfo()};
+            return factory().createTuple(new Object[]{getClassNode.execute(self), factory().createTuple(args)});
+        }
+    }
+}
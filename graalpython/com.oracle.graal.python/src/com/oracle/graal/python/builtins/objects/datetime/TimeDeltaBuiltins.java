@@ -0,0 +1,571 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.datetime;
+
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__ABS__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__ADD__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__BOOL__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__DIVMOD__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__EQ__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__FLOORDIV__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__GE__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__GT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__HASH__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__LE__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__LT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__MOD__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__MUL__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__NEG__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__POS__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__RADD__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__REDUCE__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__REPR__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__RMUL__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__STR__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__SUB__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__TRUEDIV__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.OverflowError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ZeroDivisionError;
+
+import java.math.BigInteger;
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNotImplemented;
+import com.oracle.graal.python.builtins.objects.datetime.DateTimeNodes.CreateTimeDeltaNode;
+import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.nodes.PNodeWithContext;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.object.GetClassNode;
+import com.oracle.graal.python.nodes.truffle.PythonArithmeticTypes;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Fallback;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.dsl.TypeSystemReference;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PTimeDelta)
+public class TimeDeltaBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return TimeDeltaBuiltinsFactory.getFactories();
+    }
+
+    /**
+     * Base class for operations that produce timedeltas. The microseconds of a timedelta fit into
+     * a long unless it spans more than about 290000 years, so the operations compute with longs
+     * and only fall back to {@link BigInteger} on an {@link ArithmeticException}.
+     */
+    abstract static class TimeDeltaArithmeticNode extends PythonBinaryBuiltinNode {
+        @Child private CreateTimeDeltaNode createNode = CreateTimeDeltaNode.create();
+
+        protected final PTimeDelta create(long days, long seconds, long microseconds) {
+            return createNode.execute(days, seconds, microseconds);
+        }
+
+        protected final PTimeDelta create(long microseconds) {
+            return createNode.executeMicroseconds(microseconds);
+        }
+
+        protected final PTimeDelta create(BigInteger microseconds) {
+            return createNode.executeMicroseconds(microseconds);
+        }
+
+        protected final Object createInt(BigInteger value) {
+            if (value.bitLength() < Long.SIZE) {
+                return value.longValue();
+            }
+            return factory().createInt(value);
+        }
+    }
+
+    static void checkFinite(PNodeWithContext node, double value) {
+        if (Double.isNaN(value)) {
+            throw node.raise(ValueError, "cannot convert NaN to integer ratio");
+        } else if (Double.isInfinite(value)) {
+            throw node.raise(OverflowError, "cannot convert Infinity to integer ratio");
+        }
+    }
+
+    @Builtin(name = "days", fixedNumOfPositionalArgs = 1, isGetter = true, doc = "Number of days.")
+    @GenerateNodeFactory
+    abstract static class DaysNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        int get(PTimeDelta self) {
+            return self.getDays();
+        }
+    }
+
+    @Builtin(name = "seconds", fixedNumOfPositionalArgs = 1, isGetter = true, doc = "Number of seconds (>= 0 and less than 1 day).")
+    @GenerateNodeFactory
+    abstract static class SecondsNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        int get(PTimeDelta self) {
+            return self.getSeconds();
+        }
+    }
+
+    @Builtin(name = "microseconds", fixedNumOfPositionalArgs = 1, isGetter = true, doc = "Number of microseconds (>= 0 and less than 1 second).")
+    @GenerateNodeFactory
+    abstract static class MicrosecondsNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        int get(PTimeDelta self) {
+            return self.getMicroseconds();
+        }
+    }
+
+    @Builtin(name = "total_seconds", fixedNumOfPositionalArgs = 1, doc = "Total seconds in the duration.")
+    @GenerateNodeFactory
+    abstract static class TotalSecondsNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        double get(PTimeDelta self) {
+            try {
+                return DateTimeUtils.microsecondsToSeconds(self.toMicroseconds());
+            } catch (ArithmeticException e) {
+                return DateTimeUtils.microsecondsToSecondsSlowPath(DateTimeUtils.toMicroseconds(self));
+            }
+        }
+    }
+
+    @Builtin(name = __EQ__, fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class EqNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        boolean eq(PTimeDelta self, PTimeDelta other) {
+            return self.compareTo(other) == 0;
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        PNotImplemented eq(Object self, Object other) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = __LT__, fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class LtNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        boolean lt(PTimeDelta self, PTimeDelta other) {
+            return self.compareTo(other) < 0;
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        PNotImplemented lt(Object self, Object other) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = __LE__, fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class LeNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        boolean le(PTimeDelta self, PTimeDelta other) {
+            return self.compareTo(other) <= 0;
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        PNotImplemented le(Object self, Object other) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = __GT__, fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class GtNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        boolean gt(PTimeDelta self, PTimeDelta other) {
+            return self.compareTo(other) > 0;
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        PNotImplemented gt(Object self, Object other) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = __GE__, fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class GeNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        boolean ge(PTimeDelta self, PTimeDelta other) {
+            return self.compareTo(other) >= 0;
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        PNotImplemented ge(Object self, Object other) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = __HASH__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class HashNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        long hash(PTimeDelta self) {
+            return self.hash();
+        }
+    }
+
+    @Builtin(name = __BOOL__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class BoolNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        boolean bool(PTimeDelta self) {
+            return !self.isZero();
+        }
+    }
+
+    @Builtin(name = __NEG__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class NegNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PTimeDelta neg(PTimeDelta self,
+                        @Cached("create()") CreateTimeDeltaNode createNode) {
+            return createNode.execute(-self.getDays(), -self.getSeconds(), -self.getMicroseconds());
+        }
+    }
+
+    @Builtin(name = __POS__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class PosNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PTimeDelta pos(PTimeDelta self) {
+            return factory().createTimeDelta(PythonBuiltinClassType.PTimeDelta, self.getDays(), self.getSeconds(), self.getMicroseconds());
+        }
+    }
+
+    @Builtin(name = __ABS__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class AbsNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PTimeDelta abs(PTimeDelta self,
+                        @Cached("create()") CreateTimeDeltaNode createNode) {
+            if (self.getDays() < 0) {
+                return createNode.execute(-self.getDays(), -self.getSeconds(), -self.getMicroseconds());
+            }
+            return factory().createTimeDelta(PythonBuiltinClassType.PTimeDelta, self.getDays(), self.getSeconds(), self.getMicroseconds());
+        }
+    }
+
+    @Builtin(name = __ADD__, fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class AddNode extends TimeDeltaArithmeticNode {
+        @Specialization
+        PTimeDelta add(PTimeDelta left, PTimeDelta right) {
+            return create((long) left.getDays() + right.getDays(), left.getSeconds() + right.getSeconds(), left.getMicroseconds() + right.getMicroseconds());
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        PNotImplemented add(Object left, Object right) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = __RADD__, fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class RAddNode extends AddNode {
+    }
+
+    @Builtin(name = __SUB__, fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class SubNode extends TimeDeltaArithmeticNode {
+        @Specialization
+        PTimeDelta sub(PTimeDelta left, PTimeDelta right) {
+            return create((long) left.getDays() - right.getDays(), left.getSeconds() - right.getSeconds(), left.getMicroseconds() - right.getMicroseconds());
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        PNotImplemented sub(Object left, Object right) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = __MUL__, fixedNumOfPositionalArgs = 2)
+    @TypeSystemReference(PythonArithmeticTypes.class)
+    @GenerateNodeFactory
+    abstract static class MulNode extends TimeDeltaArithmeticNode {
+        @Specialization
+        PTimeDelta mul(PTimeDelta left, long right) {
+            try {
+                return create(Math.multiplyExact(left.toMicroseconds(), right));
+            } catch (ArithmeticException e) {
+                return create(multiply(left, BigInteger.valueOf(right)));
+            }
+        }
+
+        @Specialization
+        PTimeDelta mul(PTimeDelta left, PInt right) {
+            return create(multiply(left, right.getValue()));
+        }
+
+        @Specialization
+        PTimeDelta mul(PTimeDelta left, double right) {
+            checkFinite(this, right);
+            return create(DateTimeUtils.multiplyAndRound(DateTimeUtils.toMicroseconds(left), right));
+        }
+
+        @TruffleBoundary
+        private static BigInteger multiply(PTimeDelta left, BigInteger right) {
+            return DateTimeUtils.toMicroseconds(left).multiply(right);
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        PNotImplemented mul(Object left, Object right) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = __RMUL__, fixedNumOfPositionalArgs = 2)
+    @TypeSystemReference(PythonArithmeticTypes.class)
+    @GenerateNodeFactory
+    abstract static class RMulNode extends MulNode {
+    }
+
+    @Builtin(name = __FLOORDIV__, fixedNumOfPositionalArgs = 2)
+    @TypeSystemReference(PythonArithmeticTypes.class)
+    @GenerateNodeFactory
+    abstract static class FloorDivNode extends TimeDeltaArithmeticNode {
+        @Specialization
+        Object floorDiv(PTimeDelta left, PTimeDelta right) {
+            if (right.isZero()) {
+                throw raise(ZeroDivisionError, "integer division or modulo by zero");
+            }
+            try {
+                return Math.floorDiv(left.toMicroseconds(), right.toMicroseconds());
+            } catch (ArithmeticException e) {
+                return createInt(DateTimeUtils.floorDiv(DateTimeUtils.toMicroseconds(left), DateTimeUtils.toMicroseconds(right)));
+            }
+        }
+
+        @Specialization
+        PTimeDelta floorDiv(PTimeDelta left, long right) {
+            if (right == 0) {
+                throw raise(ZeroDivisionError, "integer division or modulo by zero");
+            }
+            try {
+                return create(Math.floorDiv(left.toMicroseconds(), right));
+            } catch (ArithmeticException e) {
+                return create(DateTimeUtils.floorDiv(DateTimeUtils.toMicroseconds(left), BigInteger.valueOf(right)));
+            }
+        }
+
+        @Specialization
+        PTimeDelta floorDiv(PTimeDelta left, PInt right) {
+            return create(DateTimeUtils.floorDiv(DateTimeUtils.toMicroseconds(left), right.getValue()));
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        PNotImplemented floorDiv(Object left, Object right) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = __TRUEDIV__, fixedNumOfPositionalArgs = 2)
+    @TypeSystemReference(PythonArithmeticTypes.class)
+    @GenerateNodeFactory
+    abstract static class TrueDivNode extends TimeDeltaArithmeticNode {
+        @Specialization
+        double trueDiv(PTimeDelta left, PTimeDelta right) {
+            if (right.isZero()) {
+                throw raise(ZeroDivisionError, "division by zero");
+            }
+            try {
+                long l = left.toMicroseconds();
+                long r = right.toMicroseconds();
+                if (Math.abs(l) < (1L << 53) && Math.abs(r) < (1L << 53)) {
+                    return (double) l / r;
+                }
+            } catch (ArithmeticException e) {
+                // fall through to the exact division
+            }
+            return DateTimeUtils.divide(DateTimeUtils.toMicroseconds(left), DateTimeUtils.toMicroseconds(right));
+        }
+
+        @Specialization
+        PTimeDelta trueDiv(PTimeDelta left, long right) {
+            if (right == 0) {
+                throw raise(ZeroDivisionError, "division by zero");
+            }
+            try {
+                return create(DateTimeUtils.divideAndRound(left.toMicroseconds(), right));
+            } catch (ArithmeticException e) {
+                return create(DateTimeUtils.divideAndRound(DateTimeUtils.toMicroseconds(left), BigInteger.valueOf(right)));
+            }
+        }
+
+        @Specialization
+        PTimeDelta trueDiv(PTimeDelta left, PInt right) {
+            return create(DateTimeUtils.divideAndRound(DateTimeUtils.toMicroseconds(left), right.getValue()));
+        }
+
+        @Specialization
+        PTimeDelta trueDiv(PTimeDelta left, double right) {
+            checkFinite(this, right);
+            if (right == 0) {
+                throw raise(ZeroDivisionError, "division by zero");
+            }
+            return create(DateTimeUtils.divideAndRound(DateTimeUtils.toMicroseconds(left), right));
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        PNotImplemented trueDiv(Object left, Object right) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = __MOD__, fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class ModNode extends TimeDeltaArithmeticNode {
+        @Specialization
+        PTimeDelta mod(PTimeDelta left, PTimeDelta right) {
+            if (right.isZero()) {
+                throw raise(ZeroDivisionError, "integer division or modulo by zero");
+            }
+            try {
+                return create(Math.floorMod(left.toMicroseconds(), right.toMicroseconds()));
+            } catch (ArithmeticException e) {
+                return create(DateTimeUtils.floorMod(DateTimeUtils.toMicroseconds(left), DateTimeUtils.toMicroseconds(right)));
+            }
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        PNotImplemented mod(Object left, Object right) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = __DIVMOD__, fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class DivModNode extends TimeDeltaArithmeticNode {
+        @Specialization
+        PTuple divMod(PTimeDelta left, PTimeDelta right) {
+            if (right.isZero()) {
+                throw raise(ZeroDivisionError, "integer division or modulo by zero");
+            }
+            try {
+                long l = left.toMicroseconds();
+                long r = right.toMicroseconds();
+                return factory().createTuple(new Object[]{Math.floorDiv(l, r), create(Math.floorMod(l, r))});
+            } catch (ArithmeticException e) {
+                BigInteger l = DateTimeUtils.toMicroseconds(left);
+                BigInteger r = DateTimeUtils.toMicroseconds(right);
+                return factory().createTuple(new Object[]{createInt(DateTimeUtils.floorDiv(l, r)), create(DateTimeUtils.floorMod(l, r))});
+            }
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        PNotImplemented divMod(Object left, Object right) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = __REPR__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class ReprNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        @TruffleBoundary
+        String repr(PTimeDelta self) {
+            StringBuilder sb = new StringBuilder(DateTimeNodes.getTypeName(self)).append('(').append(self.getDays());
+            if (self.getMicroseconds() != 0) {
+                sb.append(", ").append(self.getSeconds()).append(", ").append(self.getMicroseconds());
+            } else if (self.getSeconds() != 0) {
+                sb.append(", ").append(self.getSeconds());
+            }
+            return sb.append(')').toString();
+        }
+    }
+
+    @Builtin(name = __STR__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class StrNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        @TruffleBoundary
+        String str(PTimeDelta self) {
+            StringBuilder sb = new StringBuilder();
+            if (self.getDays() != 0) {
+                sb.append(self.getDays()).append(Math.abs(self.getDays()) == 1 ? " day, " : " days, ");
+            }
+            int seconds = self.getSeconds();
+            sb.append(seconds / 3600).append(':');
+            DateTimeUtils.appendPadded(sb, seconds / 60 % 60, 2);
+            sb.append(':');
+            DateTimeUtils.appendPadded(sb, seconds % 60, 2);
+            if (self.getMicroseconds() != 0) {
+                sb.append('.');
+                DateTimeUtils.appendPadded(sb, self.getMicroseconds(), 6);
+            }
+            return sb.toString();
+        }
+    }
+
+    @Builtin(name = __REDUCE__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class ReduceNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PTuple reduce(PTimeDelta self,
+                        @Cached("create()") GetClassNode getClassNode) {
+            PTuple args = factory().createTuple(new Object[]{self.getDays(), self.getSeconds(), self.getMicroseconds()});
+            return factory().createTuple(new Object[]{getClassNode.execute(self), args});
+        }
+    }
+}
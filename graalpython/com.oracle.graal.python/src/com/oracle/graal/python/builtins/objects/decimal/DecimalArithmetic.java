@@ -0,0 +1,516 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.decimal;
+
+import static com.oracle.graal.python.builtins.objects.decimal.PDecimalContext.CLAMPED;
+import static com.oracle.graal.python.builtins.objects.decimal.PDecimalContext.DIVISION_BY_ZERO;
+import static com.oracle.graal.python.builtins.objects.decimal.PDecimalContext.INEXACT;
+import static com.oracle.graal.python.builtins.objects.decimal.PDecimalContext.INVALID_OPERATION;
+import static com.oracle.graal.python.builtins.objects.decimal.PDecimalContext.OVERFLOW;
+import static com.oracle.graal.python.builtins.objects.decimal.PDecimalContext.ROUNDED;
+import static com.oracle.graal.python.builtins.objects.decimal.PDecimalContext.SUBNORMAL;
+import static com.oracle.graal.python.builtins.objects.decimal.PDecimalContext.UNDERFLOW;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.math.RoundingMode;
+
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.runtime.object.PythonObjectFactory;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * The operations of the General Decimal Arithmetic specification on finite numbers, with results
+ * rounded to a context. Each instance performs operations for one caller, which afterwards signals
+ * the conditions collected in {@link #getStatus()}.
+ * <p>
+ * The operations return {@code null} if an operand is infinite or a NaN, or if an exponent leaves
+ * the range of a {@link BigDecimal} scale; the callers then leave the operation to
+ * {@code _pydecimal}.
+ */
+public final class DecimalArithmetic {
+    private static final BigInteger FIVE = BigInteger.valueOf(5);
+
+    private final PythonObjectFactory factory;
+    private final PDecimalContext context;
+    private int status;
+
+    public DecimalArithmetic(PythonObjectFactory factory, PDecimalContext context) {
+        this.factory = factory;
+        this.context = context;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    private PDecimal create(BigDecimal value, boolean negative) {
+        return factory.createDecimal(value, negative);
+    }
+
+    private PDecimal infinity(boolean negative) {
+        return factory.createDecimal(PythonBuiltinClassType.PDecimal, BigDecimal.ZERO, negative, PDecimal.INFINITE);
+    }
+
+    private PDecimal invalidOperation() {
+        status |= INVALID_OPERATION;
+        return factory.createDecimal(PythonBuiltinClassType.PDecimal, BigDecimal.ZERO, false, PDecimal.NAN);
+    }
+
+    private static boolean isFinite(PDecimal a, PDecimal b) {
+        return !a.isSpecial() && !b.isSpecial();
+    }
+
+    private static BigDecimal zero(long exponent) {
+        return BigDecimal.ZERO.setScale(Math.toIntExact(-exponent));
+    }
+
+    /**
+     * Fits an exact result into the context's precision and exponent range, which is what
+     * {@code _pydecimal}'s {@code Decimal._fix} does.
+     */
+    @TruffleBoundary
+    public PDecimal fix(BigDecimal value, boolean negative) {
+        int prec = context.getPrec();
+        long etiny = context.etiny();
+        long etop = context.etop();
+        long exponent = -(long) value.scale();
+        if (value.signum() == 0) {
+            long newExponent = Math.min(Math.max(exponent, etiny), context.getClamp() == 1 ? etop : context.getEmax());
+            if (newExponent != exponent) {
+                status |= CLAMPED;
+                return create(zero(newExponent), negative);
+            }
+            return create(value, negative);
+        }
+        long minExponent = value.precision() + exponent - prec;
+        if (minExponent > etop) {
+            return overflow(negative);
+        }
+        boolean subnormal = minExponent < etiny;
+        if (exponent < minExponent) {
+            BigDecimal rounded;
+            MathContext mathContext = context.getMathContext();
+            if (!subnormal && mathContext != null) {
+                rounded = value.round(mathContext);
+            } else {
+                rounded = DecimalUtils.rescale(value, subnormal ? etiny : minExponent, context.getRounding());
+                if (rounded.precision() > prec) {
+                    rounded = rounded.setScale(rounded.scale() - 1, RoundingMode.UNNECESSARY);
+                }
+            }
+            if (-(long) rounded.scale() > etop) {
+                return overflow(negative);
+            }
+            status |= ROUNDED;
+            if (rounded.compareTo(value) != 0) {
+                status |= subnormal ? INEXACT | UNDERFLOW : INEXACT;
+            }
+            if (subnormal) {
+                status |= SUBNORMAL;
+            }
+            if (rounded.signum() == 0) {
+                status |= CLAMPED;
+            }
+            return create(rounded, negative);
+        }
+        if (subnormal) {
+            status |= SUBNORMAL;
+        }
+        if (context.getClamp() == 1 && exponent > etop) {
+            status |= CLAMPED;
+            return create(value.setScale(Math.toIntExact(-etop)), negative);
+        }
+        return create(value, negative);
+    }
+
+    private PDecimal overflow(boolean negative) {
+        status |= OVERFLOW | INEXACT | ROUNDED;
+        int rounding = context.getRounding();
+        switch (rounding) {
+            case PDecimalContext.ROUND_HALF_UP:
+            case PDecimalContext.ROUND_HALF_EVEN:
+            case PDecimalContext.ROUND_HALF_DOWN:
+            case PDecimalContext.ROUND_UP:
+                return infinity(negative);
+            case PDecimalContext.ROUND_CEILING:
+                if (!negative) {
+                    return infinity(false);
+                }
+                break;
+            case PDecimalContext.ROUND_FLOOR:
+                if (negative) {
+                    return infinity(true);
+                }
+                break;
+        }
+        BigInteger largest = BigInteger.TEN.pow(context.getPrec()).subtract(BigInteger.ONE);
+        return create(new BigDecimal(negative ? largest.negate() : largest, Math.toIntExact(-context.etop())), negative);
+    }
+
+    @TruffleBoundary
+    public PDecimal add(PDecimal a, PDecimal b) {
+        if (!isFinite(a, b)) {
+            return null;
+        }
+        try {
+            return add(a.getValue(), a.isNegative(), b.getValue(), b.isNegative());
+        } catch (ArithmeticException e) {
+            return null;
+        }
+    }
+
+    @TruffleBoundary
+    public PDecimal subtract(PDecimal a, PDecimal b) {
+        if (!isFinite(a, b)) {
+            return null;
+        }
+        try {
+            return add(a.getValue(), a.isNegative(), b.getValue().negate(), !b.isNegative());
+        } catch (ArithmeticException e) {
+            return null;
+        }
+    }
+
+    private PDecimal add(BigDecimal x, boolean xNegative, BigDecimal y, boolean yNegative) {
+        long exponent = Math.min(-(long) x.scale(), -(long) y.scale());
+        boolean negativeZero = context.getRounding() == PDecimalContext.ROUND_FLOOR && xNegative != yNegative;
+        if (x.signum() == 0 && y.signum() == 0) {
+            return fix(zero(exponent), xNegative && yNegative || negativeZero);
+        } else if (x.signum() == 0) {
+            return fix(y.setScale(Math.toIntExact(-Math.max(exponent, -(long) y.scale() - context.getPrec() - 1))), yNegative);
+        } else if (y.signum() == 0) {
+            return fix(x.setScale(Math.toIntExact(-Math.max(exponent, -(long) x.scale() - context.getPrec() - 1))), xNegative);
+        }
+        // An operand that is far below the other's last digit only matters as a sticky digit, so
+        // replace it by one that does not stretch the sum over the whole gap.
+        BigDecimal big = x.scale() <= y.scale() ? x : y;
+        BigDecimal small = big == x ? y : x;
+        long stickyExponent = -(long) big.scale() + Math.min(-1, big.precision() - context.getPrec() - 2);
+        if (small.precision() - (long) small.scale() - 1 < stickyExponent) {
+            small = BigDecimal.valueOf(small.signum(), Math.toIntExact(-stickyExponent));
+        }
+        BigDecimal sum = big.add(small);
+        if (sum.signum() == 0) {
+            return fix(zero(exponent), negativeZero);
+        }
+        return fix(sum, sum.signum() < 0);
+    }
+
+    @TruffleBoundary
+    public PDecimal multiply(PDecimal a, PDecimal b) {
+        if (!isFinite(a, b)) {
+            return null;
+        }
+        try {
+            return fix(a.getValue().multiply(b.getValue()), a.isNegative() != b.isNegative());
+        } catch (ArithmeticException e) {
+            return null;
+        }
+    }
+
+    @TruffleBoundary
+    public PDecimal divide(PDecimal a, PDecimal b) {
+        if (!isFinite(a, b)) {
+            return null;
+        }
+        boolean negative = a.isNegative() != b.isNegative();
+        if (b.isZero()) {
+            if (a.isZero()) {
+                return invalidOperation();
+            }
+            status |= DIVISION_BY_ZERO;
+            return infinity(negative);
+        }
+        try {
+            long idealExponent = (long) a.getExponent() - b.getExponent();
+            if (a.isZero()) {
+                return fix(zero(idealExponent), negative);
+            }
+            long shift = (long) b.getValue().precision() - a.getValue().precision() + context.getPrec() + 1;
+            long exponent = idealExponent - shift;
+            BigInteger[] qr;
+            if (shift >= 0) {
+                qr = a.getCoefficient().multiply(BigInteger.TEN.pow(Math.toIntExact(shift))).divideAndRemainder(b.getCoefficient());
+            } else {
+                qr = a.getCoefficient().divideAndRemainder(b.getCoefficient().multiply(BigInteger.TEN.pow(Math.toIntExact(-shift))));
+            }
+            BigInteger coefficient = qr[0];
+            if (qr[1].signum() != 0) {
+                // make sure the rounding sees that the quotient is inexact
+                if (coefficient.mod(FIVE).signum() == 0) {
+                    coefficient = coefficient.add(BigInteger.ONE);
+                }
+            } else {
+                while (exponent < idealExponent) {
+                    BigInteger[] digit = coefficient.divideAndRemainder(BigInteger.TEN);
+                    if (digit[1].signum() != 0) {
+                        break;
+                    }
+                    coefficient = digit[0];
+                    exponent++;
+                }
+            }
+            return fix(new BigDecimal(negative ? coefficient.negate() : coefficient, Math.toIntExact(-exponent)), negative);
+        } catch (ArithmeticException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Divides two finite numbers with a non-zero divisor into the integral quotient and the
+     * remainder, which have the signs of the quotient and of the dividend, or returns {@code null}
+     * if the quotient has more digits than the precision.
+     */
+    private BigDecimal[] divideToIntegral(PDecimal a, PDecimal b) {
+        long idealExponent = Math.min(a.getExponent(), b.getExponent());
+        long expdiff = a.adjusted() - b.adjusted();
+        if (a.isZero() || expdiff <= -2) {
+            return new BigDecimal[]{BigDecimal.ZERO, a.getValue().setScale(Math.toIntExact(-idealExponent))};
+        }
+        if (expdiff <= context.getPrec()) {
+            BigInteger x = a.getCoefficient();
+            BigInteger y = b.getCoefficient();
+            if (a.getExponent() >= b.getExponent()) {
+                x = x.multiply(BigInteger.TEN.pow(a.getExponent() - b.getExponent()));
+            } else {
+                y = y.multiply(BigInteger.TEN.pow(b.getExponent() - a.getExponent()));
+            }
+            BigInteger[] qr = x.divideAndRemainder(y);
+            if (qr[0].compareTo(BigInteger.TEN.pow(context.getPrec())) < 0) {
+                BigInteger q = a.isNegative() != b.isNegative() ? qr[0].negate() : qr[0];
+                BigInteger r = a.isNegative() ? qr[1].negate() : qr[1];
+                return new BigDecimal[]{new BigDecimal(q), new BigDecimal(r, Math.toIntExact(-idealExponent))};
+            }
+        }
+        return null;
+    }
+
+    @TruffleBoundary
+    public PDecimal divideInt(PDecimal a, PDecimal b) {
+        if (!isFinite(a, b)) {
+            return null;
+        }
+        if (b.isZero()) {
+            if (a.isZero()) {
+                return invalidOperation();
+            }
+            status |= DIVISION_BY_ZERO;
+            return infinity(a.isNegative() != b.isNegative());
+        }
+        try {
+            BigDecimal[] qr = divideToIntegral(a, b);
+            if (qr == null) {
+                return invalidOperation();
+            }
+            return create(qr[0], a.isNegative() != b.isNegative());
+        } catch (ArithmeticException e) {
+            return null;
+        }
+    }
+
+    @TruffleBoundary
+    public PDecimal remainder(PDecimal a, PDecimal b) {
+        if (!isFinite(a, b)) {
+            return null;
+        }
+        if (b.isZero()) {
+            return invalidOperation();
+        }
+        try {
+            BigDecimal[] qr = divideToIntegral(a, b);
+            if (qr == null) {
+                return invalidOperation();
+            }
+            return fix(qr[1], a.isNegative());
+        } catch (ArithmeticException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the quotient and the remainder, or {@code null} like the other operations.
+     */
+    @TruffleBoundary
+    public PDecimal[] divmod(PDecimal a, PDecimal b) {
+        if (!isFinite(a, b)) {
+            return null;
+        }
+        if (b.isZero()) {
+            if (a.isZero()) {
+                PDecimal nan = invalidOperation();
+                return new PDecimal[]{nan, nan};
+            }
+            status |= DIVISION_BY_ZERO;
+            return new PDecimal[]{infinity(a.isNegative() != b.isNegative()), invalidOperation()};
+        }
+        try {
+            BigDecimal[] qr = divideToIntegral(a, b);
+            if (qr == null) {
+                PDecimal nan = invalidOperation();
+                return new PDecimal[]{nan, nan};
+            }
+            return new PDecimal[]{create(qr[0], a.isNegative() != b.isNegative()), fix(qr[1], a.isNegative())};
+        } catch (ArithmeticException e) {
+            return null;
+        }
+    }
+
+    @TruffleBoundary
+    public PDecimal plus(PDecimal a) {
+        if (a.isSpecial()) {
+            return null;
+        }
+        try {
+            boolean positiveZero = a.isZero() && context.getRounding() != PDecimalContext.ROUND_FLOOR;
+            return fix(a.getValue(), a.isNegative() && !positiveZero);
+        } catch (ArithmeticException e) {
+            return null;
+        }
+    }
+
+    @TruffleBoundary
+    public PDecimal minus(PDecimal a) {
+        if (a.isSpecial()) {
+            return null;
+        }
+        try {
+            boolean positiveZero = a.isZero() && context.getRounding() != PDecimalContext.ROUND_FLOOR;
+            return fix(a.getValue().negate(), !a.isNegative() && !positiveZero);
+        } catch (ArithmeticException e) {
+            return null;
+        }
+    }
+
+    public PDecimal abs(PDecimal a) {
+        return a.isNegative() ? minus(a) : plus(a);
+    }
+
+    /**
+     * Rounds to the exponent of {@code b}, signaling InvalidOperation if the result does not fit
+     * the context.
+     */
+    @TruffleBoundary
+    public PDecimal quantize(PDecimal a, PDecimal b, int rounding) {
+        if (!isFinite(a, b)) {
+            return null;
+        }
+        try {
+            long exponent = b.getExponent();
+            if (exponent < context.etiny() || exponent > context.getEmax()) {
+                return invalidOperation();
+            }
+            if (a.isZero()) {
+                return fix(zero(exponent), a.isNegative());
+            }
+            long adjusted = a.adjusted();
+            if (adjusted > context.getEmax() || adjusted - exponent + 1 > context.getPrec()) {
+                return invalidOperation();
+            }
+            BigDecimal result = DecimalUtils.rescale(a.getValue(), exponent, rounding);
+            long resultAdjusted = (long) result.precision() - result.scale() - 1;
+            if (resultAdjusted > context.getEmax() || result.precision() > context.getPrec()) {
+                return invalidOperation();
+            }
+            if (result.signum() != 0 && resultAdjusted < context.getEmin()) {
+                status |= SUBNORMAL;
+            }
+            if (exponent > a.getExponent()) {
+                if (result.compareTo(a.getValue()) != 0) {
+                    status |= INEXACT;
+                }
+                status |= ROUNDED;
+            }
+            return fix(result, a.isNegative());
+        } catch (ArithmeticException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Rounds to an integral value, signaling Inexact and Rounded only if {@code exact} is set.
+     */
+    @TruffleBoundary
+    public PDecimal toIntegral(PDecimal a, int rounding, boolean exact) {
+        if (a.isSpecial()) {
+            return null;
+        } else if (a.getExponent() >= 0) {
+            return create(a.getValue(), a.isNegative());
+        } else if (a.isZero()) {
+            return create(BigDecimal.ZERO, a.isNegative());
+        }
+        BigDecimal result = DecimalUtils.rescale(a.getValue(), 0, rounding);
+        if (exact) {
+            if (result.compareTo(a.getValue()) != 0) {
+                status |= INEXACT;
+            }
+            status |= ROUNDED;
+        }
+        return create(result, a.isNegative());
+    }
+
+    /**
+     * Rounds to the context and strips trailing zeros, as far as the maximal exponent allows.
+     */
+    @TruffleBoundary
+    public PDecimal normalize(PDecimal a) {
+        if (a.isSpecial()) {
+            return null;
+        }
+        try {
+            PDecimal fixed = fix(a.getValue(), a.isNegative());
+            if (fixed.isSpecial()) {
+                return fixed;
+            } else if (fixed.isZero()) {
+                return create(BigDecimal.ZERO, fixed.isNegative());
+            }
+            long maxExponent = context.getClamp() == 1 ? context.etop() : context.getEmax();
+            BigDecimal stripped = fixed.getValue().stripTrailingZeros();
+            if (-(long) stripped.scale() > maxExponent) {
+                stripped = stripped.setScale(Math.toIntExact(-maxExponent));
+            }
+            return create(stripped, fixed.isNegative());
+        } catch (ArithmeticException e) {
+            return null;
+        }
+    }
+}
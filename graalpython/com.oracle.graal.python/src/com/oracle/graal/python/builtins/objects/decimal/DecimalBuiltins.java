@@ -0,0 +1,1028 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.decimal;
+
+import static com.oracle.graal.python.builtins.objects.decimal.DecimalNodes.BinaryOpNode.ADD;
+import static com.oracle.graal.python.builtins.objects.decimal.DecimalNodes.BinaryOpNode.DIVIDE;
+import static com.oracle.graal.python.builtins.objects.decimal.DecimalNodes.BinaryOpNode.DIVIDE_INT;
+import static com.oracle.graal.python.builtins.objects.decimal.DecimalNodes.BinaryOpNode.DIVMOD;
+import static com.oracle.graal.python.builtins.objects.decimal.DecimalNodes.BinaryOpNode.MULTIPLY;
+import static com.oracle.graal.python.builtins.objects.decimal.DecimalNodes.BinaryOpNode.REMAINDER;
+import static com.oracle.graal.python.builtins.objects.decimal.DecimalNodes.BinaryOpNode.SUBTRACT;
+import static com.oracle.graal.python.builtins.objects.decimal.DecimalNodes.UnaryOpNode.ABS;
+import static com.oracle.graal.python.builtins.objects.decimal.DecimalNodes.UnaryOpNode.MINUS;
+import static com.oracle.graal.python.builtins.objects.decimal.DecimalNodes.UnaryOpNode.PLUS;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__ABS__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__ADD__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__BOOL__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__CEIL__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__DIVMOD__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__EQ__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__FLOAT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__FLOORDIV__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__FLOOR__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__FORMAT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__GE__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__GT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__HASH__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__INT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__LE__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__LT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__MOD__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__MUL__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__NEG__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__POS__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__RADD__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__RDIVMOD__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__REDUCE__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__REPR__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__RFLOORDIV__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__RMOD__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__RMUL__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__ROUND__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__RSUB__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__RTRUEDIV__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__STR__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__SUB__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__TRUEDIV__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__TRUNC__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.OverflowError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.PNotImplemented;
+import com.oracle.graal.python.builtins.objects.decimal.DecimalNodes.BinaryOpNode;
+import com.oracle.graal.python.builtins.objects.decimal.DecimalNodes.FallbackNode;
+import com.oracle.graal.python.builtins.objects.decimal.DecimalNodes.UnaryOpNode;
+import com.oracle.graal.python.builtins.objects.floats.PFloat;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+import com.oracle.graal.python.nodes.PNodeWithContext;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.object.GetClassNode;
+import com.oracle.graal.python.nodes.object.IsBuiltinClassProfile;
+import com.oracle.graal.python.nodes.truffle.PythonArithmeticTypes;
+import com.oracle.graal.python.runtime.formatting.DecimalFormatter;
+import com.oracle.graal.python.runtime.formatting.InternalFormat;
+import com.oracle.graal.python.runtime.formatting.InternalFormat.Formatter;
+import com.oracle.graal.python.runtime.object.PythonObjectFactory;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Fallback;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.dsl.TypeSystemReference;
+import com.oracle.truffle.api.frame.VirtualFrame;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PDecimal)
+public class DecimalBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return DecimalBuiltinsFactory.getFactories();
+    }
+
+    private static final int EQ = 0;
+    private static final int LT = 1;
+    private static final int LE = 2;
+    private static final int GT = 3;
+    private static final int GE = 4;
+
+    /**
+     * Compares a decimal to a decimal, an int or a float. Comparisons to floats are exact, and
+     * signal FloatOperation if they order the operands. Ordering a NaN signals InvalidOperation.
+     */
+    static Object compare(PNodeWithContext node, PDecimal self, Object other, int op) {
+        PDecimal b;
+        if (other instanceof Double || other instanceof PFloat) {
+            double value = other instanceof Double ? (double) other : ((PFloat) other).getValue();
+            PDecimalContext context = DecimalNodes.getContext(node);
+            if (op == EQ) {
+                context.setFlags(context.getFlags() | PDecimalContext.FLOAT_OPERATION);
+            } else {
+                DecimalNodes.signal(node, context, PDecimalContext.FLOAT_OPERATION);
+            }
+            b = DecimalUtils.fromDouble(node.getCore().factory(), PythonBuiltinClassType.PDecimal, value);
+        } else {
+            b = DecimalUtils.toDecimal(node.getCore().factory(), other);
+            if (b == null) {
+                return PNotImplemented.NOT_IMPLEMENTED;
+            }
+        }
+        if (self.isNaN() || b.isNaN()) {
+            if (op != EQ || self.isSignalingNaN() || b.isSignalingNaN()) {
+                DecimalNodes.signal(node, DecimalNodes.getContext(node), PDecimalContext.INVALID_OPERATION);
+            }
+            return false;
+        }
+        int c = DecimalUtils.compare(self, b);
+        switch (op) {
+            case EQ:
+                return c == 0;
+            case LT:
+                return c < 0;
+            case LE:
+                return c <= 0;
+            case GT:
+                return c > 0;
+            default:
+                return c >= 0;
+        }
+    }
+
+    /**
+     * Rounds a decimal to an int with the given rounding, as {@code __floor__}, {@code __ceil__}
+     * and {@code __round__} do.
+     */
+    static Object toInt(PNodeWithContext node, PDecimal self, int rounding) {
+        if (self.isNaN()) {
+            throw node.raise(ValueError, "cannot round a NaN");
+        } else if (self.isInfinite()) {
+            throw node.raise(OverflowError, "cannot round an infinity");
+        }
+        PDecimal integral = new DecimalArithmetic(node.getCore().factory(), DecimalNodes.getContext(node)).toIntegral(self, rounding, false);
+        return toIntValue(node, integral);
+    }
+
+    @TruffleBoundary
+    private static Object toIntValue(PNodeWithContext node, PDecimal value) {
+        BigInteger integer = DecimalUtils.toBigInteger(value);
+        if (integer.bitLength() < 64) {
+            return integer.longValue();
+        }
+        return node.getCore().factory().createInt(integer);
+    }
+
+    // arithmetic
+
+    @Builtin(name = __ADD__, fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class AddNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object add(VirtualFrame frame, PDecimal self, Object other,
+                        @Cached("create(ADD)") BinaryOpNode opNode) {
+            return opNode.execute(frame, self, other, false);
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        PNotImplemented add(Object self, Object other) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = __RADD__, fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class RAddNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object radd(VirtualFrame frame, PDecimal self, Object other,
+                        @Cached("create(ADD)") BinaryOpNode opNode) {
+            return opNode.execute(frame, self, other, true);
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        PNotImplemented radd(Object self, Object other) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = __SUB__, fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class SubNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object sub(VirtualFrame frame, PDecimal self, Object other,
+                        @Cached("create(SUBTRACT)") BinaryOpNode opNode) {
+            return opNode.execute(frame, self, other, false);
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        PNotImplemented sub(Object self, Object other) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = __RSUB__, fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class RSubNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object rsub(VirtualFrame frame, PDecimal self, Object other,
+                        @Cached("create(SUBTRACT)") BinaryOpNode opNode) {
+            return opNode.execute(frame, self, other, true);
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        PNotImplemented rsub(Object self, Object other) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = __MUL__, fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class MulNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object mul(VirtualFrame frame, PDecimal self, Object other,
+                        @Cached("create(MULTIPLY)") BinaryOpNode opNode) {
+            return opNode.execute(frame, self, other, false);
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        PNotImplemented mul(Object self, Object other) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = __RMUL__, fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class RMulNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object rmul(VirtualFrame frame, PDecimal self, Object other,
+                        @Cached("create(MULTIPLY)") BinaryOpNode opNode) {
+            return opNode.execute(frame, self, other, true);
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        PNotImplemented rmul(Object self, Object other) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = __TRUEDIV__, fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class TrueDivNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object truediv(VirtualFrame frame, PDecimal self, Object other,
+                        @Cached("create(DIVIDE)") BinaryOpNode opNode) {
+            return opNode.execute(frame, self, other, false);
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        PNotImplemented truediv(Object self, Object other) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = __RTRUEDIV__, fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class RTrueDivNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object rtruediv(VirtualFrame frame, PDecimal self, Object other,
+                        @Cached("create(DIVIDE)") BinaryOpNode opNode) {
+            return opNode.execute(frame, self, other, true);
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        PNotImplemented rtruediv(Object self, Object other) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = __FLOORDIV__, fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class FloorDivNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object floordiv(VirtualFrame frame, PDecimal self, Object other,
+                        @Cached("create(DIVIDE_INT)") BinaryOpNode opNode) {
+            return opNode.execute(frame, self, other, false);
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        PNotImplemented floordiv(Object self, Object other) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = __RFLOORDIV__, fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class RFloorDivNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object rfloordiv(VirtualFrame frame, PDecimal self, Object other,
+                        @Cached("create(DIVIDE_INT)") BinaryOpNode opNode) {
+            return opNode.execute(frame, self, other, true);
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        PNotImplemented rfloordiv(Object self, Object other) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = __MOD__, fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class ModNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object mod(VirtualFrame frame, PDecimal self, Object other,
+                        @Cached("create(REMAINDER)") BinaryOpNode opNode) {
+            return opNode.execute(frame, self, other, false);
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        PNotImplemented mod(Object self, Object other) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = __RMOD__, fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class RModNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object rmod(VirtualFrame frame, PDecimal self, Object other,
+                        @Cached("create(REMAINDER)") BinaryOpNode opNode) {
+            return opNode.execute(frame, self, other, true);
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        PNotImplemented rmod(Object self, Object other) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = __DIVMOD__, fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class DivModNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object divmod(VirtualFrame frame, PDecimal self, Object other,
+                        @Cached("create(DIVMOD)") BinaryOpNode opNode) {
+            return opNode.execute(frame, self, other, false);
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        PNotImplemented divmod(Object self, Object other) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = __RDIVMOD__, fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class RDivModNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object rdivmod(VirtualFrame frame, PDecimal self, Object other,
+                        @Cached("create(DIVMOD)") BinaryOpNode opNode) {
+            return opNode.execute(frame, self, other, true);
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        PNotImplemented rdivmod(Object self, Object other) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = __POS__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class PosNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object pos(VirtualFrame frame, PDecimal self,
+                        @Cached("create(PLUS)") UnaryOpNode opNode) {
+            return opNode.execute(frame, DecimalNodes.getContext(this), self);
+        }
+    }
+
+    @Builtin(name = __NEG__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class NegNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object neg(VirtualFrame frame, PDecimal self,
+                        @Cached("create(MINUS)") UnaryOpNode opNode) {
+            return opNode.execute(frame, DecimalNodes.getContext(this), self);
+        }
+    }
+
+    @Builtin(name = __ABS__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class AbsNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object abs(VirtualFrame frame, PDecimal self,
+                        @Cached("create(ABS)") UnaryOpNode opNode) {
+            return opNode.execute(frame, DecimalNodes.getContext(this), self);
+        }
+    }
+
+    // comparisons
+
+    @Builtin(name = __EQ__, fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class EqNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object eq(PDecimal self, Object other) {
+            return compare(this, self, other, EQ);
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        PNotImplemented eq(Object self, Object other) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = __LT__, fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class LtNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object lt(PDecimal self, Object other) {
+            return compare(this, self, other, LT);
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        PNotImplemented lt(Object self, Object other) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = __LE__, fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class LeNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object le(PDecimal self, Object other) {
+            return compare(this, self, other, LE);
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        PNotImplemented le(Object self, Object other) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = __GT__, fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class GtNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object gt(PDecimal self, Object other) {
+            return compare(this, self, other, GT);
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        PNotImplemented gt(Object self, Object other) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = __GE__, fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class GeNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object ge(PDecimal self, Object other) {
+            return compare(this, self, other, GE);
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        PNotImplemented ge(Object self, Object other) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = __HASH__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class HashNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        long hash(PDecimal self) {
+            if (self.isSignalingNaN()) {
+                throw raise(TypeError, "Cannot hash a signaling NaN value.");
+            }
+            return DecimalUtils.hash(self);
+        }
+    }
+
+    // conversions
+
+    @Builtin(name = __BOOL__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class BoolNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        boolean bool(PDecimal self) {
+            return !self.isZero();
+        }
+    }
+
+    @Builtin(name = __INT__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class IntNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object toInt(PDecimal self) {
+            if (self.isNaN()) {
+                throw raise(ValueError, "cannot convert NaN to integer");
+            } else if (self.isInfinite()) {
+                throw raise(OverflowError, "cannot convert Infinity to integer");
+            }
+            return toIntValue(this, self);
+        }
+    }
+
+    @Builtin(name = __TRUNC__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class TruncNode extends IntNode {
+    }
+
+    @Builtin(name = __FLOAT__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class FloatNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        @TruffleBoundary
+        double toFloat(PDecimal self) {
+            if (self.isNaN()) {
+                if (self.isSignalingNaN()) {
+                    throw raise(ValueError, "cannot convert signaling NaN to float");
+                }
+                return self.isNegative() ? -Double.NaN : Double.NaN;
+            }
+            return Double.parseDouble(DecimalUtils.toString(self, false, true));
+        }
+    }
+
+    @Builtin(name = __ROUND__, minNumOfPositionalArgs = 1, maxNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    @TypeSystemReference(PythonArithmeticTypes.class)
+    abstract static class RoundNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        @SuppressWarnings("unused")
+        Object round(PDecimal self, PNone n) {
+            return toInt(this, self, PDecimalContext.ROUND_HALF_EVEN);
+        }
+
+        @Specialization
+        Object round(VirtualFrame frame, PDecimal self, long n,
+                        @Cached("create()") FallbackNode fallbackNode) {
+            PDecimalContext context = DecimalNodes.getContext(this);
+            if (n < Integer.MIN_VALUE + 1 || n > Integer.MAX_VALUE) {
+                DecimalNodes.signal(this, context, PDecimalContext.INVALID_OPERATION);
+                return factory().createDecimal(PythonBuiltinClassType.PDecimal, BigDecimal.ZERO, false, PDecimal.NAN);
+            }
+            PDecimal exponent = factory().createDecimal(BigDecimal.ONE.scaleByPowerOfTen((int) -n), false);
+            return QuantizeNode.quantize(frame, this, fallbackNode, context, self, exponent, context.getRounding());
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        Object round(Object self, Object n) {
+            throw raise(TypeError, "optional arg must be an integer");
+        }
+    }
+
+    @Builtin(name = __FLOOR__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class FloorNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object floor(PDecimal self) {
+            return toInt(this, self, PDecimalContext.ROUND_FLOOR);
+        }
+    }
+
+    @Builtin(name = __CEIL__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class CeilNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object ceil(PDecimal self) {
+            return toInt(this, self, PDecimalContext.ROUND_CEILING);
+        }
+    }
+
+    @Builtin(name = __STR__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class StrNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        String str(PDecimal self) {
+            return DecimalUtils.toString(self, false, DecimalNodes.getContext(this).getCapitals() == 1);
+        }
+    }
+
+    @Builtin(name = __REPR__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class ReprNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        @TruffleBoundary
+        String repr(PDecimal self) {
+            return "Decimal('" + DecimalUtils.toString(self, false, DecimalNodes.getContext(this).getCapitals() == 1) + "')";
+        }
+    }
+
+    @Builtin(name = "to_eng_string", minNumOfPositionalArgs = 1, keywordArguments = {"context"})
+    @GenerateNodeFactory
+    abstract static class ToEngStringNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        String toEngString(PDecimal self, Object context) {
+            return DecimalUtils.toString(self, true, DecimalNodes.getContextArg(this, context).getCapitals() == 1);
+        }
+    }
+
+    @Builtin(name = __FORMAT__, fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class FormatNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        @TruffleBoundary
+        String format(PDecimal self, String formatString) {
+            PDecimalContext context = DecimalNodes.getContext(this);
+            if (formatString.isEmpty()) {
+                return DecimalUtils.toString(self, false, context.getCapitals() == 1);
+            }
+            InternalFormat.Spec spec = InternalFormat.fromText(getCore(), formatString, __FORMAT__);
+            if (!DecimalFormatter.isSupportedType(spec.type)) {
+                throw Formatter.unknownFormat(getCore(), spec.type, "Decimal");
+            }
+            DecimalFormatter formatter = new DecimalFormatter(getCore(), spec.withDefaults(InternalFormat.Spec.NUMERIC));
+            formatter.format(self, context.getRounding(), context.getCapitals() == 1);
+            return formatter.pad().getResult();
+        }
+
+        @Fallback
+        Object format(@SuppressWarnings("unused") Object self, Object formatString) {
+            throw raise(TypeError, "format arg must be str");
+        }
+    }
+
+    // methods
+
+    @Builtin(name = "quantize", minNumOfPositionalArgs = 2, keywordArguments = {"rounding", "context"})
+    @GenerateNodeFactory
+    abstract static class QuantizeNode extends PythonBuiltinNode {
+        @Specialization
+        Object quantize(VirtualFrame frame, PDecimal self, Object exp, Object rounding, Object context,
+                        @Cached("create()") FallbackNode fallbackNode) {
+            PDecimalContext ctx = DecimalNodes.getContextArg(this, context);
+            int r = DecimalNodes.getRoundingArg(this, rounding, ctx);
+            return quantize(frame, this, fallbackNode, ctx, self, DecimalNodes.convertOperand(this, exp), r);
+        }
+
+        static Object quantize(VirtualFrame frame, PNodeWithContext node, FallbackNode fallbackNode, PDecimalContext context, PDecimal a, PDecimal b, int rounding) {
+            DecimalArithmetic arithmetic = new DecimalArithmetic(node.getCore().factory(), context);
+            PDecimal result = arithmetic.quantize(a, b, rounding);
+            if (result == null) {
+                return fallbackNode.execute(frame, "quantize", context, a, b, PDecimalContext.ROUNDINGS[rounding]);
+            }
+            DecimalNodes.signal(node, context, arithmetic.getStatus());
+            return result;
+        }
+    }
+
+    @Builtin(name = "to_integral_value", minNumOfPositionalArgs = 1, keywordArguments = {"rounding", "context"})
+    @GenerateNodeFactory
+    abstract static class ToIntegralValueNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        Object toIntegral(VirtualFrame frame, PDecimal self, Object rounding, Object context,
+                        @Cached("create()") FallbackNode fallbackNode) {
+            return toIntegral(frame, this, fallbackNode, self, rounding, context, false);
+        }
+
+        static Object toIntegral(VirtualFrame frame, PNodeWithContext node, FallbackNode fallbackNode, PDecimal self, Object rounding, Object context, boolean exact) {
+            PDecimalContext ctx = DecimalNodes.getContextArg(node, context);
+            int r = DecimalNodes.getRoundingArg(node, rounding, ctx);
+            DecimalArithmetic arithmetic = new DecimalArithmetic(node.getCore().factory(), ctx);
+            PDecimal result = arithmetic.toIntegral(self, r, exact);
+            if (result == null) {
+                return fallbackNode.execute(frame, exact ? "to_integral_exact" : "to_integral_value", ctx, self, PDecimalContext.ROUNDINGS[r]);
+            }
+            DecimalNodes.signal(node, ctx, arithmetic.getStatus());
+            return result;
+        }
+    }
+
+    @Builtin(name = "to_integral", minNumOfPositionalArgs = 1, keywordArguments = {"rounding", "context"})
+    @GenerateNodeFactory
+    abstract static class ToIntegralNode extends ToIntegralValueNode {
+    }
+
+    @Builtin(name = "to_integral_exact", minNumOfPositionalArgs = 1, keywordArguments = {"rounding", "context"})
+    @GenerateNodeFactory
+    abstract static class ToIntegralExactNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        Object toIntegralExact(VirtualFrame frame, PDecimal self, Object rounding, Object context,
+                        @Cached("create()") FallbackNode fallbackNode) {
+            return ToIntegralValueNode.toIntegral(frame, this, fallbackNode, self, rounding, context, true);
+        }
+    }
+
+    @Builtin(name = "normalize", minNumOfPositionalArgs = 1, keywordArguments = {"context"})
+    @GenerateNodeFactory
+    abstract static class NormalizeNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object normalize(VirtualFrame frame, PDecimal self, Object context,
+                        @Cached("create()") FallbackNode fallbackNode) {
+            PDecimalContext ctx = DecimalNodes.getContextArg(this, context);
+            DecimalArithmetic arithmetic = new DecimalArithmetic(factory(), ctx);
+            PDecimal result = arithmetic.normalize(self);
+            if (result == null) {
+                return fallbackNode.execute(frame, "normalize", ctx, self);
+            }
+            DecimalNodes.signal(this, ctx, arithmetic.getStatus());
+            return result;
+        }
+    }
+
+    // rounds to the context, for Context.create_decimal
+    @Builtin(name = "_fix", fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class FixNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object fix(VirtualFrame frame, PDecimal self, PDecimalContext context,
+                        @Cached("create()") FallbackNode fallbackNode) {
+            if (!self.isSpecial()) {
+                DecimalArithmetic arithmetic = new DecimalArithmetic(factory(), context);
+                try {
+                    PDecimal result = arithmetic.fix(self.getValue(), self.isNegative());
+                    DecimalNodes.signal(this, context, arithmetic.getStatus());
+                    return result;
+                } catch (ArithmeticException e) {
+                    // an exponent out of range, left to the fallback
+                }
+            }
+            return fallbackNode.execute(frame, "_fix", context, self);
+        }
+    }
+
+    @Builtin(name = "compare", minNumOfPositionalArgs = 2, keywordArguments = {"context"})
+    @GenerateNodeFactory
+    abstract static class CompareNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        Object compare(VirtualFrame frame, PDecimal self, Object other, Object context,
+                        @Cached("create()") FallbackNode fallbackNode) {
+            PDecimalContext ctx = DecimalNodes.getContextArg(this, context);
+            PDecimal b = DecimalNodes.convertOperand(this, other);
+            if (self.isNaN() || b.isNaN()) {
+                return fallbackNode.execute(frame, "compare", ctx, self, b);
+            }
+            int c = DecimalUtils.compare(self, b);
+            return factory().createDecimal(BigDecimal.valueOf(c), c < 0);
+        }
+    }
+
+    @Builtin(name = "copy_abs", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class CopyAbsNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PDecimal copyAbs(PDecimal self) {
+            return copySign(factory(), self, false);
+        }
+
+        static PDecimal copySign(PythonObjectFactory factory, PDecimal value, boolean negative) {
+            BigDecimal v = value.getValue();
+            if (!value.isNaN() && v.signum() != 0 && (v.signum() < 0) != negative) {
+                v = v.negate();
+            }
+            return factory.createDecimal(PythonBuiltinClassType.PDecimal, v, negative, value.getKind());
+        }
+    }
+
+    @Builtin(name = "copy_negate", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class CopyNegateNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PDecimal copyNegate(PDecimal self) {
+            return CopyAbsNode.copySign(factory(), self, !self.isNegative());
+        }
+    }
+
+    @Builtin(name = "copy_sign", minNumOfPositionalArgs = 2, keywordArguments = {"context"})
+    @GenerateNodeFactory
+    abstract static class CopySignNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        PDecimal copySign(PDecimal self, Object other, Object context) {
+            DecimalNodes.getContextArg(this, context);
+            return CopyAbsNode.copySign(factory(), self, DecimalNodes.convertOperand(this, other).isNegative());
+        }
+    }
+
+    @Builtin(name = "is_nan", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class IsNaNNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        boolean isNaN(PDecimal self) {
+            return self.isNaN();
+        }
+    }
+
+    @Builtin(name = "is_snan", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class IsSNaNNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        boolean isSNaN(PDecimal self) {
+            return self.isSignalingNaN();
+        }
+    }
+
+    @Builtin(name = "is_qnan", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class IsQNaNNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        boolean isQNaN(PDecimal self) {
+            return self.getKind() == PDecimal.NAN;
+        }
+    }
+
+    @Builtin(name = "is_infinite", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class IsInfiniteNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        boolean isInfinite(PDecimal self) {
+            return self.isInfinite();
+        }
+    }
+
+    @Builtin(name = "is_finite", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class IsFiniteNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        boolean isFinite(PDecimal self) {
+            return !self.isSpecial();
+        }
+    }
+
+    @Builtin(name = "is_zero", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class IsZeroNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        boolean isZero(PDecimal self) {
+            return self.isZero();
+        }
+    }
+
+    @Builtin(name = "is_signed", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class IsSignedNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        boolean isSigned(PDecimal self) {
+            return self.isNegative();
+        }
+    }
+
+    @Builtin(name = "is_normal", minNumOfPositionalArgs = 1, keywordArguments = {"context"})
+    @GenerateNodeFactory
+    abstract static class IsNormalNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        boolean isNormal(PDecimal self, Object context) {
+            PDecimalContext ctx = DecimalNodes.getContextArg(this, context);
+            return !self.isSpecial() && !self.isZero() && self.adjusted() >= ctx.getEmin();
+        }
+    }
+
+    @Builtin(name = "is_subnormal", minNumOfPositionalArgs = 1, keywordArguments = {"context"})
+    @GenerateNodeFactory
+    abstract static class IsSubnormalNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        boolean isSubnormal(PDecimal self, Object context) {
+            PDecimalContext ctx = DecimalNodes.getContextArg(this, context);
+            return !self.isSpecial() && !self.isZero() && self.adjusted() < ctx.getEmin();
+        }
+    }
+
+    @Builtin(name = "adjusted", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class AdjustedNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        long adjusted(PDecimal self) {
+            return self.isSpecial() ? 0 : self.adjusted();
+        }
+    }
+
+    @Builtin(name = "same_quantum", minNumOfPositionalArgs = 2, keywordArguments = {"context"})
+    @GenerateNodeFactory
+    abstract static class SameQuantumNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        boolean sameQuantum(PDecimal self, Object other, Object context) {
+            DecimalNodes.getContextArg(this, context);
+            PDecimal b = DecimalNodes.convertOperand(this, other);
+            if (self.isSpecial() || b.isSpecial()) {
+                return self.isNaN() && b.isNaN() || self.isInfinite() && b.isInfinite();
+            }
+            return self.getExponent() == b.getExponent();
+        }
+    }
+
+    @Builtin(name = "as_tuple", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class AsTupleNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object asTuple(VirtualFrame frame, PDecimal self,
+                        @Cached("create()") CallNode callNode) {
+            Object exponent;
+            if (self.isInfinite()) {
+                exponent = "F";
+            } else if (self.isNaN()) {
+                exponent = self.isSignalingNaN() ? "N" : "n";
+            } else {
+                exponent = self.getExponent();
+            }
+            return callNode.execute(frame, getDecimalTuple(), self.isNegative() ? 1 : 0, factory().createTuple(digits(self)), exponent);
+        }
+
+        @TruffleBoundary
+        private Object getDecimalTuple() {
+            return DecimalNodes.getModule(getCore()).getAttribute("DecimalTuple");
+        }
+
+        @TruffleBoundary
+        private static Object[] digits(PDecimal self) {
+            if (self.isInfinite()) {
+                return new Object[]{0};
+            } else if (self.isNaN() && self.getValue().signum() == 0) {
+                return new Object[0];
+            }
+            String coefficient = self.getCoefficient().toString();
+            Object[] digits = new Object[coefficient.length()];
+            for (int i = 0; i < digits.length; i++) {
+                digits[i] = coefficient.charAt(i) - '0';
+            }
+            return digits;
+        }
+    }
+
+    @Builtin(name = __REDUCE__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class ReduceNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PTuple reduce(PDecimal self,
+                        @Cached("create()") GetClassNode getClassNode) {
+            PTuple args = factory().createTuple(new Object[]{DecimalUtils.toString(self, false, true)});
+            return factory().createTuple(new Object[]{getClassNode.execute(self), args});
+        }
+    }
+
+    @Builtin(name = "from_float", fixedNumOfPositionalArgs = 2, isClassmethod = true, doc = "Class method that converts a float to a decimal number, exactly.")
+    @GenerateNodeFactory
+    abstract static class FromFloatNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object fromFloat(VirtualFrame frame, LazyPythonClass cls, Object value,
+                        @Cached("create()") IsBuiltinClassProfile decimalProfile,
+                        @Cached("create()") CallNode callNode) {
+            PDecimal result;
+            if (value instanceof Double || value instanceof PFloat) {
+                result = DecimalUtils.fromDouble(factory(), PythonBuiltinClassType.PDecimal, value instanceof Double ? (double) value : ((PFloat) value).getValue());
+            } else {
+                result = DecimalUtils.toDecimal(factory(), value);
+                if (result == null || value instanceof PDecimal) {
+                    throw raise(TypeError, "argument must be int or float");
+                }
+            }
+            if (decimalProfile.profileClass(cls, PythonBuiltinClassType.PDecimal)) {
+                return result;
+            }
+            return callNode.execute(frame, cls, result);
+        }
+    }
+}
@@ -0,0 +1,372 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.decimal;
+
+import static com.oracle.graal.python.builtins.objects.decimal.DecimalNodes.BinaryOpNode.ADD;
+import static com.oracle.graal.python.builtins.objects.decimal.DecimalNodes.BinaryOpNode.DIVIDE;
+import static com.oracle.graal.python.builtins.objects.decimal.DecimalNodes.BinaryOpNode.DIVIDE_INT;
+import static com.oracle.graal.python.builtins.objects.decimal.DecimalNodes.BinaryOpNode.DIVMOD;
+import static com.oracle.graal.python.builtins.objects.decimal.DecimalNodes.BinaryOpNode.MULTIPLY;
+import static com.oracle.graal.python.builtins.objects.decimal.DecimalNodes.BinaryOpNode.REMAINDER;
+import static com.oracle.graal.python.builtins.objects.decimal.DecimalNodes.BinaryOpNode.SUBTRACT;
+import static com.oracle.graal.python.builtins.objects.decimal.DecimalNodes.UnaryOpNode.ABS;
+import static com.oracle.graal.python.builtins.objects.decimal.DecimalNodes.UnaryOpNode.MINUS;
+import static com.oracle.graal.python.builtins.objects.decimal.DecimalNodes.UnaryOpNode.PLUS;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.decimal.DecimalNodes.BinaryOpNode;
+import com.oracle.graal.python.builtins.objects.decimal.DecimalNodes.UnaryOpNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.util.CastToIndexNode;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PDecimalContext)
+public class DecimalContextBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return DecimalContextBuiltinsFactory.getFactories();
+    }
+
+    // attributes
+
+    @Builtin(name = "prec", minNumOfPositionalArgs = 1, maxNumOfPositionalArgs = 2, isGetter = true, isSetter = true)
+    @GenerateNodeFactory
+    abstract static class PrecNode extends PythonBinaryBuiltinNode {
+        @Specialization(guards = "isNoValue(value)")
+        int get(PDecimalContext self, @SuppressWarnings("unused") PNone value) {
+            return self.getPrec();
+        }
+
+        @Specialization(guards = "!isNoValue(value)")
+        PNone set(PDecimalContext self, Object value,
+                        @Cached("create()") CastToIndexNode castToIndexNode) {
+            int prec = castToIndexNode.execute(value);
+            if (prec < 1 || prec > PDecimalContext.MAX_PREC) {
+                throw raise(ValueError, "valid range for prec is [1, MAX_PREC]");
+            }
+            self.setPrec(prec);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "rounding", minNumOfPositionalArgs = 1, maxNumOfPositionalArgs = 2, isGetter = true, isSetter = true)
+    @GenerateNodeFactory
+    abstract static class RoundingNode extends PythonBinaryBuiltinNode {
+        @Specialization(guards = "isNoValue(value)")
+        String get(PDecimalContext self, @SuppressWarnings("unused") PNone value) {
+            return PDecimalContext.ROUNDINGS[self.getRounding()];
+        }
+
+        @Specialization(guards = "!isNoValue(value)")
+        PNone set(PDecimalContext self, Object value) {
+            self.setRounding(DecimalNodes.toRounding(this, value));
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "Emin", minNumOfPositionalArgs = 1, maxNumOfPositionalArgs = 2, isGetter = true, isSetter = true)
+    @GenerateNodeFactory
+    abstract static class EminNode extends PythonBinaryBuiltinNode {
+        @Specialization(guards = "isNoValue(value)")
+        int get(PDecimalContext self, @SuppressWarnings("unused") PNone value) {
+            return self.getEmin();
+        }
+
+        @Specialization(guards = "!isNoValue(value)")
+        PNone set(PDecimalContext self, Object value,
+                        @Cached("create()") CastToIndexNode castToIndexNode) {
+            int emin = castToIndexNode.execute(value);
+            if (emin < PDecimalContext.MIN_EMIN || emin > 0) {
+                throw raise(ValueError, "valid range for Emin is [MIN_EMIN, 0]");
+            }
+            self.setEmin(emin);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "Emax", minNumOfPositionalArgs = 1, maxNumOfPositionalArgs = 2, isGetter = true, isSetter = true)
+    @GenerateNodeFactory
+    abstract static class EmaxNode extends PythonBinaryBuiltinNode {
+        @Specialization(guards = "isNoValue(value)")
+        int get(PDecimalContext self, @SuppressWarnings("unused") PNone value) {
+            return self.getEmax();
+        }
+
+        @Specialization(guards = "!isNoValue(value)")
+        PNone set(PDecimalContext self, Object value,
+                        @Cached("create()") CastToIndexNode castToIndexNode) {
+            int emax = castToIndexNode.execute(value);
+            if (emax < 0 || emax > PDecimalContext.MAX_EMAX) {
+                throw raise(ValueError, "valid range for Emax is [0, MAX_EMAX]");
+            }
+            self.setEmax(emax);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "capitals", minNumOfPositionalArgs = 1, maxNumOfPositionalArgs = 2, isGetter = true, isSetter = true)
+    @GenerateNodeFactory
+    abstract static class CapitalsNode extends PythonBinaryBuiltinNode {
+        @Specialization(guards = "isNoValue(value)")
+        int get(PDecimalContext self, @SuppressWarnings("unused") PNone value) {
+            return self.getCapitals();
+        }
+
+        @Specialization(guards = "!isNoValue(value)")
+        PNone set(PDecimalContext self, Object value,
+                        @Cached("create()") CastToIndexNode castToIndexNode) {
+            int capitals = castToIndexNode.execute(value);
+            if (capitals != 0 && capitals != 1) {
+                throw raise(ValueError, "valid values for capitals are 0 or 1");
+            }
+            self.setCapitals(capitals);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "clamp", minNumOfPositionalArgs = 1, maxNumOfPositionalArgs = 2, isGetter = true, isSetter = true)
+    @GenerateNodeFactory
+    abstract static class ClampNode extends PythonBinaryBuiltinNode {
+        @Specialization(guards = "isNoValue(value)")
+        int get(PDecimalContext self, @SuppressWarnings("unused") PNone value) {
+            return self.getClamp();
+        }
+
+        @Specialization(guards = "!isNoValue(value)")
+        PNone set(PDecimalContext self, Object value,
+                        @Cached("create()") CastToIndexNode castToIndexNode) {
+            int clamp = castToIndexNode.execute(value);
+            if (clamp != 0 && clamp != 1) {
+                throw raise(ValueError, "valid values for clamp are 0 or 1");
+            }
+            self.setClamp(clamp);
+            return PNone.NONE;
+        }
+    }
+
+    // the signal bits behind the flags and traps dicts, which are views created in _decimal.py
+    @Builtin(name = "_flags", minNumOfPositionalArgs = 1, maxNumOfPositionalArgs = 2, isGetter = true, isSetter = true)
+    @GenerateNodeFactory
+    abstract static class FlagsNode extends PythonBinaryBuiltinNode {
+        @Specialization(guards = "isNoValue(value)")
+        int get(PDecimalContext self, @SuppressWarnings("unused") PNone value) {
+            return self.getFlags();
+        }
+
+        @Specialization(guards = "!isNoValue(value)")
+        PNone set(PDecimalContext self, Object value,
+                        @Cached("create()") CastToIndexNode castToIndexNode) {
+            self.setFlags(castToIndexNode.execute(value) & PDecimalContext.ALL_SIGNALS);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "_traps", minNumOfPositionalArgs = 1, maxNumOfPositionalArgs = 2, isGetter = true, isSetter = true)
+    @GenerateNodeFactory
+    abstract static class TrapsNode extends PythonBinaryBuiltinNode {
+        @Specialization(guards = "isNoValue(value)")
+        int get(PDecimalContext self, @SuppressWarnings("unused") PNone value) {
+            return self.getTraps();
+        }
+
+        @Specialization(guards = "!isNoValue(value)")
+        PNone set(PDecimalContext self, Object value,
+                        @Cached("create()") CastToIndexNode castToIndexNode) {
+            self.setTraps(castToIndexNode.execute(value) & PDecimalContext.ALL_SIGNALS);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "_signal", fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class SignalNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        PNone signal(PDecimalContext self, Object status,
+                        @Cached("create()") CastToIndexNode castToIndexNode) {
+            DecimalNodes.signal(this, self, castToIndexNode.execute(status) & PDecimalContext.ALL_SIGNALS);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "Etiny", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class EtinyNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        long etiny(PDecimalContext self) {
+            return self.etiny();
+        }
+    }
+
+    @Builtin(name = "Etop", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class EtopNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        long etop(PDecimalContext self) {
+            return self.etop();
+        }
+    }
+
+    @Builtin(name = "copy", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class CopyNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PDecimalContext copy(PDecimalContext self) {
+            return DecimalNodes.copyContext(factory(), PythonBuiltinClassType.PDecimalContext, self, true);
+        }
+    }
+
+    // arithmetic
+
+    @Builtin(name = "add", fixedNumOfPositionalArgs = 3)
+    @GenerateNodeFactory
+    abstract static class AddNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        Object add(VirtualFrame frame, PDecimalContext self, Object a, Object b,
+                        @Cached("create(ADD)") BinaryOpNode opNode) {
+            return opNode.execute(frame, self, DecimalNodes.convertOperand(this, a), DecimalNodes.convertOperand(this, b));
+        }
+    }
+
+    @Builtin(name = "subtract", fixedNumOfPositionalArgs = 3)
+    @GenerateNodeFactory
+    abstract static class SubtractNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        Object subtract(VirtualFrame frame, PDecimalContext self, Object a, Object b,
+                        @Cached("create(SUBTRACT)") BinaryOpNode opNode) {
+            return opNode.execute(frame, self, DecimalNodes.convertOperand(this, a), DecimalNodes.convertOperand(this, b));
+        }
+    }
+
+    @Builtin(name = "multiply", fixedNumOfPositionalArgs = 3)
+    @GenerateNodeFactory
+    abstract static class MultiplyNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        Object multiply(VirtualFrame frame, PDecimalContext self, Object a, Object b,
+                        @Cached("create(MULTIPLY)") BinaryOpNode opNode) {
+            return opNode.execute(frame, self, DecimalNodes.convertOperand(this, a), DecimalNodes.convertOperand(this, b));
+        }
+    }
+
+    @Builtin(name = "divide", fixedNumOfPositionalArgs = 3)
+    @GenerateNodeFactory
+    abstract static class DivideNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        Object divide(VirtualFrame frame, PDecimalContext self, Object a, Object b,
+                        @Cached("create(DIVIDE)") BinaryOpNode opNode) {
+            return opNode.execute(frame, self, DecimalNodes.convertOperand(this, a), DecimalNodes.convertOperand(this, b));
+        }
+    }
+
+    @Builtin(name = "divide_int", fixedNumOfPositionalArgs = 3)
+    @GenerateNodeFactory
+    abstract static class DivideIntNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        Object divideInt(VirtualFrame frame, PDecimalContext self, Object a, Object b,
+                        @Cached("create(DIVIDE_INT)") BinaryOpNode opNode) {
+            return opNode.execute(frame, self, DecimalNodes.convertOperand(this, a), DecimalNodes.convertOperand(this, b));
+        }
+    }
+
+    @Builtin(name = "remainder", fixedNumOfPositionalArgs = 3)
+    @GenerateNodeFactory
+    abstract static class RemainderNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        Object remainder(VirtualFrame frame, PDecimalContext self, Object a, Object b,
+                        @Cached("create(REMAINDER)") BinaryOpNode opNode) {
+            return opNode.execute(frame, self, DecimalNodes.convertOperand(this, a), DecimalNodes.convertOperand(this, b));
+        }
+    }
+
+    @Builtin(name = "divmod", fixedNumOfPositionalArgs = 3)
+    @GenerateNodeFactory
+    abstract static class DivModNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        Object divmod(VirtualFrame frame, PDecimalContext self, Object a, Object b,
+                        @Cached("create(DIVMOD)") BinaryOpNode opNode) {
+            return opNode.execute(frame, self, DecimalNodes.convertOperand(this, a), DecimalNodes.convertOperand(this, b));
+        }
+    }
+
+    @Builtin(name = "plus", fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class PlusNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object plus(VirtualFrame frame, PDecimalContext self, Object a,
+                        @Cached("create(PLUS)") UnaryOpNode opNode) {
+            return opNode.execute(frame, self, DecimalNodes.convertOperand(this, a));
+        }
+    }
+
+    @Builtin(name = "minus", fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class MinusNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object minus(VirtualFrame frame, PDecimalContext self, Object a,
+                        @Cached("create(MINUS)") UnaryOpNode opNode) {
+            return opNode.execute(frame, self, DecimalNodes.convertOperand(this, a));
+        }
+    }
+
+    @Builtin(name = "abs", fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class AbsNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object abs(VirtualFrame frame, PDecimalContext self, Object a,
+                        @Cached("create(ABS)") UnaryOpNode opNode) {
+            return opNode.execute(frame, self, DecimalNodes.convertOperand(this, a));
+        }
+    }
+}
@@ -0,0 +1,339 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.decimal;
+
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.PNotImplemented;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.builtins.objects.module.PythonModule;
+import com.oracle.graal.python.builtins.objects.str.PString;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+import com.oracle.graal.python.nodes.PNodeWithContext;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.runtime.PythonContext;
+import com.oracle.graal.python.runtime.PythonCore;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.graal.python.runtime.object.PythonObjectFactory;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.frame.VirtualFrame;
+
+public abstract class DecimalNodes {
+
+    public static PythonModule getModule(PythonCore core) {
+        return core.lookupBuiltinModule("_decimal");
+    }
+
+    /**
+     * Creates a context with the values of {@code decimal.DefaultContext} as it is before any
+     * changes.
+     */
+    public static PDecimalContext createDefaultContext(PythonObjectFactory factory, LazyPythonClass cls) {
+        return factory.createDecimalContext(cls, 28, PDecimalContext.ROUND_HALF_EVEN, -999999, 999999, 1, 0, 0,
+                        PDecimalContext.INVALID_OPERATION | PDecimalContext.DIVISION_BY_ZERO | PDecimalContext.OVERFLOW);
+    }
+
+    public static PDecimalContext copyContext(PythonObjectFactory factory, LazyPythonClass cls, PDecimalContext context, boolean withFlags) {
+        return factory.createDecimalContext(cls, context.getPrec(), context.getRounding(), context.getEmin(), context.getEmax(), context.getCapitals(), context.getClamp(),
+                        withFlags ? context.getFlags() : 0, context.getTraps());
+    }
+
+    /**
+     * Returns one of the context templates {@code DefaultContext}, {@code BasicContext} or
+     * {@code ExtendedContext}, or {@code null} while the module is still being set up.
+     */
+    @TruffleBoundary
+    public static PDecimalContext getTemplate(PythonCore core, String name) {
+        Object template = getModule(core).getAttribute(name);
+        return template instanceof PDecimalContext ? (PDecimalContext) template : null;
+    }
+
+    /**
+     * Returns the context of the current thread, which starts out as a copy of
+     * {@code DefaultContext}.
+     */
+    @TruffleBoundary
+    public static PDecimalContext getContext(PNodeWithContext node) {
+        PythonContext pythonContext = node.getContext();
+        PDecimalContext context = pythonContext.getDecimalContext();
+        if (context == null) {
+            PythonObjectFactory factory = node.getCore().factory();
+            PDecimalContext template = getTemplate(node.getCore(), "DefaultContext");
+            if (template == null) {
+                context = createDefaultContext(factory, PythonBuiltinClassType.PDecimalContext);
+            } else {
+                context = copyContext(factory, PythonBuiltinClassType.PDecimalContext, template, false);
+            }
+            pythonContext.setDecimalContext(context);
+        }
+        return context;
+    }
+
+    /**
+     * Resolves the optional {@code context} argument of the decimal methods.
+     */
+    public static PDecimalContext getContextArg(PNodeWithContext node, Object context) {
+        if (context == PNone.NO_VALUE || context == PNone.NONE) {
+            return getContext(node);
+        } else if (context instanceof PDecimalContext) {
+            return (PDecimalContext) context;
+        }
+        throw node.raise(TypeError, "optional argument must be a context");
+    }
+
+    /**
+     * Resolves the optional {@code rounding} argument of the decimal methods.
+     */
+    public static int getRoundingArg(PNodeWithContext node, Object rounding, PDecimalContext context) {
+        if (rounding == PNone.NO_VALUE || rounding == PNone.NONE) {
+            return context.getRounding();
+        }
+        return toRounding(node, rounding);
+    }
+
+    @TruffleBoundary
+    public static int toRounding(PNodeWithContext node, Object rounding) {
+        String name = rounding instanceof String ? (String) rounding : rounding instanceof PString ? rounding.toString() : null;
+        for (int i = 0; name != null && i < PDecimalContext.ROUNDINGS.length; i++) {
+            if (PDecimalContext.ROUNDINGS[i].equals(name)) {
+                return i;
+            }
+        }
+        throw node.raise(TypeError, "valid values for rounding are: [ROUND_CEILING, ROUND_FLOOR, ROUND_UP, ROUND_DOWN, ROUND_HALF_UP, ROUND_HALF_DOWN, ROUND_HALF_EVEN, ROUND_05UP]");
+    }
+
+    /**
+     * Converts an operand of a decimal method, raising a TypeError for anything but decimals and
+     * ints.
+     */
+    public static PDecimal convertOperand(PNodeWithContext node, Object value) {
+        PDecimal result = DecimalUtils.toDecimal(node.getCore().factory(), value);
+        if (result == null) {
+            throw node.raise(TypeError, "conversion from %p to Decimal is not supported", value);
+        }
+        return result;
+    }
+
+    /**
+     * Records the conditions an operation raised in the context's flags, and raises the first of
+     * them that is trapped.
+     */
+    public static void signal(PNodeWithContext node, PDecimalContext context, int status) {
+        if (status != 0) {
+            context.setFlags(context.getFlags() | status);
+            int trapped = status & context.getTraps();
+            if (trapped != 0) {
+                throw raiseSignal(node, trapped);
+            }
+        }
+    }
+
+    @TruffleBoundary
+    private static PException raiseSignal(PNodeWithContext node, int trapped) {
+        PythonModule module = getModule(node.getCore());
+        LazyPythonClass cls = null;
+        StringBuilder conditions = new StringBuilder("[");
+        for (int i = 0; i < PDecimalContext.SIGNALS.length; i++) {
+            if ((trapped & 1 << i) != 0) {
+                if (cls == null) {
+                    cls = (LazyPythonClass) module.getAttribute(PDecimalContext.SIGNALS[i]);
+                } else {
+                    conditions.append(", ");
+                }
+                conditions.append("<class 'decimal.").append(PDecimalContext.SIGNALS[i]).append("'>");
+            }
+        }
+        conditions.append(']');
+        throw node.raise(node.getCore().factory().createBaseException(cls, "%s", new Object[]{conditions.toString()}));
+    }
+
+    /**
+     * Leaves an operation on special values, and the operations that are rarely used, to the
+     * {@code Context} methods of {@code _pydecimal}, through {@code _decimal._fallback}.
+     */
+    public static final class FallbackNode extends PNodeWithContext {
+        @Child private CallNode callNode = CallNode.create();
+
+        public Object execute(VirtualFrame frame, String name, PDecimalContext context, Object... args) {
+            Object[] arguments = new Object[args.length + 2];
+            arguments[0] = name;
+            arguments[1] = context;
+            System.arraycopy(args, 0, arguments, 2, args.length);
+            return callNode.execute(frame, getFallback(), arguments, PKeyword.EMPTY_KEYWORDS);
+        }
+
+        @TruffleBoundary
+        private Object getFallback() {
+            return getModule(getCore()).getAttribute("_fallback");
+        }
+
+        public static FallbackNode create() {
+            return new FallbackNode();
+        }
+    }
+
+    /**
+     * The binary arithmetic operations, computed in Java for finite operands. Operations on
+     * special values go to the fallback.
+     */
+    public static final class BinaryOpNode extends PNodeWithContext {
+        public static final int ADD = 0;
+        public static final int SUBTRACT = 1;
+        public static final int MULTIPLY = 2;
+        public static final int DIVIDE = 3;
+        public static final int DIVIDE_INT = 4;
+        public static final int REMAINDER = 5;
+        public static final int DIVMOD = 6;
+
+        private static final String[] METHODS = {"__add__", "__sub__", "__mul__", "__truediv__", "__floordiv__", "__mod__", "__divmod__"};
+
+        private final int op;
+        @Child private FallbackNode fallbackNode;
+
+        private BinaryOpNode(int op) {
+            this.op = op;
+        }
+
+        /**
+         * Executes the operator method of {@code self}, or of its reflected variant, which returns
+         * {@code NotImplemented} for operands other than decimals and ints.
+         */
+        public Object execute(VirtualFrame frame, PDecimal self, Object other, boolean reflected) {
+            PDecimal b = DecimalUtils.toDecimal(factory(), other);
+            if (b == null) {
+                return PNotImplemented.NOT_IMPLEMENTED;
+            }
+            return execute(frame, getContext(this), reflected ? b : self, reflected ? self : b);
+        }
+
+        public Object execute(VirtualFrame frame, PDecimalContext context, PDecimal a, PDecimal b) {
+            DecimalArithmetic arithmetic = new DecimalArithmetic(factory(), context);
+            Object result;
+            switch (op) {
+                case ADD:
+                    result = arithmetic.add(a, b);
+                    break;
+                case SUBTRACT:
+                    result = arithmetic.subtract(a, b);
+                    break;
+                case MULTIPLY:
+                    result = arithmetic.multiply(a, b);
+                    break;
+                case DIVIDE:
+                    result = arithmetic.divide(a, b);
+                    break;
+                case DIVIDE_INT:
+                    result = arithmetic.divideInt(a, b);
+                    break;
+                case REMAINDER:
+                    result = arithmetic.remainder(a, b);
+                    break;
+                default:
+                    PDecimal[] qr = arithmetic.divmod(a, b);
+                    result = qr == null ? null : factory().createTuple(new Object[]{qr[0], qr[1]});
+                    break;
+            }
+            if (result == null) {
+                if (fallbackNode == null) {
+                    CompilerDirectives.transferToInterpreterAndInvalidate();
+                    fallbackNode = insert(FallbackNode.create());
+                }
+                return fallbackNode.execute(frame, METHODS[op], context, a, b);
+            }
+            signal(this, context, arithmetic.getStatus());
+            return result;
+        }
+
+        public static BinaryOpNode create(int op) {
+            return new BinaryOpNode(op);
+        }
+    }
+
+    /**
+     * The unary arithmetic operations, which round to the context.
+     */
+    public static final class UnaryOpNode extends PNodeWithContext {
+        public static final int PLUS = 0;
+        public static final int MINUS = 1;
+        public static final int ABS = 2;
+
+        private static final String[] METHODS = {"__pos__", "__neg__", "__abs__"};
+
+        private final int op;
+        @Child private FallbackNode fallbackNode;
+
+        private UnaryOpNode(int op) {
+            this.op = op;
+        }
+
+        public Object execute(VirtualFrame frame, PDecimalContext context, PDecimal a) {
+            DecimalArithmetic arithmetic = new DecimalArithmetic(factory(), context);
+            PDecimal result;
+            switch (op) {
+                case PLUS:
+                    result = arithmetic.plus(a);
+                    break;
+                case MINUS:
+                    result = arithmetic.minus(a);
+                    break;
+                default:
+                    result = arithmetic.abs(a);
+                    break;
+            }
+            if (result == null) {
+                if (fallbackNode == null) {
+                    CompilerDirectives.transferToInterpreterAndInvalidate();
+                    fallbackNode = insert(FallbackNode.create());
+                }
+                return fallbackNode.execute(frame, METHODS[op], context, a);
+            }
+            signal(this, context, arithmetic.getStatus());
+            return result;
+        }
+
+        public static UnaryOpNode create(int op) {
+            return new UnaryOpNode(op);
+        }
+    }
+}
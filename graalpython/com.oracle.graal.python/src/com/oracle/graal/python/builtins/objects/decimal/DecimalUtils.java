@@ -0,0 +1,328 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.decimal;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+import com.oracle.graal.python.runtime.object.PythonObjectFactory;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * Conversions of {@link PDecimal} from and to strings, ints and floats, and the parts of decimal
+ * arithmetic that do not depend on a context.
+ */
+public final class DecimalUtils {
+    private static final BigInteger TWO_64 = BigInteger.ONE.shiftLeft(64);
+
+    private DecimalUtils() {
+    }
+
+    /**
+     * Parses a numeric string the way the {@code Decimal} constructor does: surrounding whitespace
+     * and underscores are ignored, and any Unicode digits are accepted. Returns {@code null} if the
+     * string is not a number.
+     */
+    @TruffleBoundary
+    public static PDecimal parse(PythonObjectFactory factory, LazyPythonClass cls, String string) {
+        int start = 0;
+        int end = string.length();
+        while (start < end && Character.isWhitespace(string.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(string.charAt(end - 1))) {
+            end--;
+        }
+        StringBuilder sb = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            char c = string.charAt(i);
+            if (c == '_') {
+                continue;
+            } else if (c > '9' && Character.isDigit(c)) {
+                c = (char) ('0' + Character.digit(c, 10));
+            }
+            sb.append(c);
+        }
+        String s = sb.toString();
+        int pos = 0;
+        boolean negative = false;
+        if (pos < s.length() && (s.charAt(pos) == '+' || s.charAt(pos) == '-')) {
+            negative = s.charAt(pos) == '-';
+            pos++;
+        }
+        if (s.regionMatches(true, pos, "inf", 0, 3) && (s.length() == pos + 3 || s.regionMatches(true, pos, "infinity", 0, 8) && s.length() == pos + 8)) {
+            return factory.createDecimal(cls, BigDecimal.ZERO, negative, PDecimal.INFINITE);
+        }
+        byte kind = PDecimal.FINITE;
+        if (s.regionMatches(true, pos, "nan", 0, 3)) {
+            kind = PDecimal.NAN;
+            pos += 3;
+        } else if (s.regionMatches(true, pos, "snan", 0, 4)) {
+            kind = PDecimal.SNAN;
+            pos += 4;
+        }
+        if (kind != PDecimal.FINITE) {
+            int payloadStart = pos;
+            while (pos < s.length() && isAsciiDigit(s.charAt(pos))) {
+                pos++;
+            }
+            if (pos != s.length()) {
+                return null;
+            }
+            BigDecimal payload = pos == payloadStart ? BigDecimal.ZERO : new BigDecimal(new BigInteger(s.substring(payloadStart)));
+            return factory.createDecimal(cls, payload, negative, kind);
+        }
+        int intStart = pos;
+        while (pos < s.length() && isAsciiDigit(s.charAt(pos))) {
+            pos++;
+        }
+        String digits = s.substring(intStart, pos);
+        int fractionDigits = 0;
+        if (pos < s.length() && s.charAt(pos) == '.') {
+            int fractionStart = ++pos;
+            while (pos < s.length() && isAsciiDigit(s.charAt(pos))) {
+                pos++;
+            }
+            fractionDigits = pos - fractionStart;
+            digits += s.substring(fractionStart, pos);
+        }
+        if (digits.isEmpty()) {
+            return null;
+        }
+        long exponent = 0;
+        if (pos < s.length() && (s.charAt(pos) == 'e' || s.charAt(pos) == 'E')) {
+            pos++;
+            boolean negativeExponent = false;
+            if (pos < s.length() && (s.charAt(pos) == '+' || s.charAt(pos) == '-')) {
+                negativeExponent = s.charAt(pos) == '-';
+                pos++;
+            }
+            int exponentStart = pos;
+            while (pos < s.length() && isAsciiDigit(s.charAt(pos))) {
+                // saturate, the scale check below rejects such exponents anyway
+                exponent = Math.min(exponent * 10 + s.charAt(pos) - '0', Integer.MAX_VALUE);
+                pos++;
+            }
+            if (pos == exponentStart) {
+                return null;
+            }
+            if (negativeExponent) {
+                exponent = -exponent;
+            }
+        }
+        if (pos != s.length()) {
+            return null;
+        }
+        long scale = fractionDigits - exponent;
+        if (scale != (int) scale) {
+            return null;
+        }
+        BigInteger unscaled = new BigInteger(digits);
+        return factory.createDecimal(cls, new BigDecimal(negative ? unscaled.negate() : unscaled, (int) scale), negative, PDecimal.FINITE);
+    }
+
+    private static boolean isAsciiDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /** Converts a float exactly, as {@code Decimal.from_float} does. */
+    @TruffleBoundary
+    public static PDecimal fromDouble(PythonObjectFactory factory, LazyPythonClass cls, double value) {
+        if (Double.isNaN(value)) {
+            return factory.createDecimal(cls, BigDecimal.ZERO, false, PDecimal.NAN);
+        } else if (Double.isInfinite(value)) {
+            return factory.createDecimal(cls, BigDecimal.ZERO, value < 0, PDecimal.INFINITE);
+        }
+        return factory.createDecimal(cls, new BigDecimal(value), Double.doubleToRawLongBits(value) < 0, PDecimal.FINITE);
+    }
+
+    /**
+     * Converts an int to a decimal with exponent 0, or returns {@code null} if the value is not an
+     * int.
+     */
+    @TruffleBoundary
+    public static BigDecimal fromInteger(Object value) {
+        if (value instanceof Integer || value instanceof Long) {
+            return BigDecimal.valueOf(((Number) value).longValue());
+        } else if (value instanceof Boolean) {
+            return (boolean) value ? BigDecimal.ONE : BigDecimal.ZERO;
+        } else if (value instanceof PInt) {
+            return new BigDecimal(((PInt) value).getValue());
+        }
+        return null;
+    }
+
+    /**
+     * Returns the decimal itself, or the int converted to a decimal, or {@code null} for any other
+     * type.
+     */
+    public static PDecimal toDecimal(PythonObjectFactory factory, Object value) {
+        if (value instanceof PDecimal) {
+            return (PDecimal) value;
+        }
+        BigDecimal integer = fromInteger(value);
+        return integer == null ? null : factory.createDecimal(integer, integer.signum() < 0);
+    }
+
+    /**
+     * Formats a decimal in scientific or engineering notation, following {@code to-sci-string} and
+     * {@code to-eng-string} of the specification.
+     */
+    @TruffleBoundary
+    public static String toString(PDecimal value, boolean engineering, boolean capitals) {
+        StringBuilder sb = new StringBuilder();
+        if (value.isNegative()) {
+            sb.append('-');
+        }
+        if (value.isInfinite()) {
+            return sb.append("Infinity").toString();
+        } else if (value.isNaN()) {
+            sb.append(value.isSignalingNaN() ? "sNaN" : "NaN");
+            if (value.getValue().signum() != 0) {
+                sb.append(value.getCoefficient());
+            }
+            return sb.toString();
+        }
+        String coefficient = value.getCoefficient().toString();
+        long exponent = value.getExponent();
+        long leftDigits = exponent + coefficient.length();
+        long dotPlace;
+        if (exponent <= 0 && leftDigits > -6) {
+            dotPlace = leftDigits;
+        } else if (!engineering) {
+            dotPlace = 1;
+        } else if (value.isZero()) {
+            dotPlace = Math.floorMod(leftDigits + 1, 3) - 1;
+        } else {
+            dotPlace = Math.floorMod(leftDigits - 1, 3) + 1;
+        }
+        if (dotPlace <= 0) {
+            sb.append("0.");
+            appendZeros(sb, -dotPlace);
+            sb.append(coefficient);
+        } else if (dotPlace >= coefficient.length()) {
+            sb.append(coefficient);
+            appendZeros(sb, dotPlace - coefficient.length());
+        } else {
+            sb.append(coefficient, 0, (int) dotPlace).append('.').append(coefficient, (int) dotPlace, coefficient.length());
+        }
+        if (leftDigits != dotPlace) {
+            long e = leftDigits - dotPlace;
+            sb.append(capitals ? 'E' : 'e').append(e < 0 ? '-' : '+').append(Math.abs(e));
+        }
+        return sb.toString();
+    }
+
+    private static void appendZeros(StringBuilder sb, long count) {
+        for (long i = 0; i < count; i++) {
+            sb.append('0');
+        }
+    }
+
+    /**
+     * Compares two decimals that are not NaNs.
+     */
+    @TruffleBoundary
+    public static int compare(PDecimal a, PDecimal b) {
+        if (a.isInfinite() || b.isInfinite()) {
+            int x = a.isInfinite() ? (a.isNegative() ? -1 : 1) : 0;
+            int y = b.isInfinite() ? (b.isNegative() ? -1 : 1) : 0;
+            return Integer.compare(x, y);
+        }
+        return a.getValue().compareTo(b.getValue());
+    }
+
+    /**
+     * Hashes a decimal that is not a signaling NaN so that it is equal to the hash of an equal int
+     * or float.
+     */
+    @TruffleBoundary
+    public static long hash(PDecimal value) {
+        if (value.isNaN()) {
+            return Double.hashCode(Double.NaN);
+        } else if (value.isInfinite()) {
+            return Double.hashCode(value.isNegative() ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY);
+        }
+        BigDecimal v = value.getValue().stripTrailingZeros();
+        if (v.scale() <= 0) {
+            // the low 64 bits of the int, computed without expanding large exponents
+            return v.unscaledValue().multiply(BigInteger.TEN.modPow(BigInteger.valueOf(-(long) v.scale()), TWO_64)).longValue();
+        }
+        double d = v.doubleValue();
+        if (new BigDecimal(d).compareTo(v) == 0) {
+            return Double.hashCode(d);
+        }
+        return v.hashCode();
+    }
+
+    /**
+     * Returns the value of a finite decimal, truncated to an int.
+     */
+    @TruffleBoundary
+    public static BigInteger toBigInteger(PDecimal value) {
+        return value.getValue().toBigInteger();
+    }
+
+    /**
+     * Rounds or pads a value to the given exponent with one of the context's roundings, as the
+     * specification's {@code rescale} does.
+     */
+    @TruffleBoundary
+    public static BigDecimal rescale(BigDecimal value, long exponent, int rounding) {
+        int scale = Math.toIntExact(-exponent);
+        RoundingMode mode = PDecimalContext.ROUNDING_MODES[rounding];
+        if (mode != null) {
+            return value.setScale(scale, mode);
+        }
+        // ROUND_05UP rounds away from zero only if the last kept digit is 0 or 5
+        BigDecimal truncated = value.setScale(scale, RoundingMode.DOWN);
+        if (truncated.compareTo(value) != 0) {
+            int last = truncated.unscaledValue().abs().mod(BigInteger.TEN).intValue();
+            if (last == 0 || last == 5) {
+                truncated = truncated.add(BigDecimal.valueOf(value.signum(), scale));
+            }
+        }
+        return truncated;
+    }
+}
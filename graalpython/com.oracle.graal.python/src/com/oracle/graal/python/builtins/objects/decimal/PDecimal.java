@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.decimal;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+
+/**
+ * A {@code decimal.Decimal}. Finite numbers keep their coefficient and exponent in a
+ * {@link BigDecimal}, with a separate sign so that negative zeros survive. NaNs keep their
+ * diagnostic payload as the unscaled value of {@link #getValue()}.
+ */
+public final class PDecimal extends PythonBuiltinObject {
+    public static final byte FINITE = 0;
+    public static final byte INFINITE = 1;
+    public static final byte NAN = 2;
+    public static final byte SNAN = 3;
+
+    private final BigDecimal value;
+    private final boolean negative;
+    private final byte kind;
+
+    public PDecimal(LazyPythonClass cls, BigDecimal value, boolean negative, byte kind) {
+        super(cls);
+        this.value = value;
+        this.negative = negative;
+        this.kind = kind;
+    }
+
+    /**
+     * The signed value of a finite number, or the payload of a NaN. Zeros are never negative here,
+     * use {@link #isNegative()} for the sign.
+     */
+    public BigDecimal getValue() {
+        return value;
+    }
+
+    public boolean isNegative() {
+        return negative;
+    }
+
+    public byte getKind() {
+        return kind;
+    }
+
+    public boolean isSpecial() {
+        return kind != FINITE;
+    }
+
+    public boolean isNaN() {
+        return kind >= NAN;
+    }
+
+    public boolean isSignalingNaN() {
+        return kind == SNAN;
+    }
+
+    public boolean isInfinite() {
+        return kind == INFINITE;
+    }
+
+    public boolean isZero() {
+        return kind == FINITE && value.signum() == 0;
+    }
+
+    /** The exponent of a finite number. */
+    public int getExponent() {
+        return -value.scale();
+    }
+
+    /** The absolute value of the coefficient of a finite number, or the payload of a NaN. */
+    public BigInteger getCoefficient() {
+        return value.unscaledValue().abs();
+    }
+
+    /** The exponent of the most significant digit of a finite number. */
+    public long adjusted() {
+        return (long) value.precision() - value.scale() - 1;
+    }
+}
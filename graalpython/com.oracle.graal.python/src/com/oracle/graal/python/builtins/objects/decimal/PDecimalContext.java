@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.decimal;
+
+import java.math.MathContext;
+import java.math.RoundingMode;
+
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * A {@code decimal.Context}. The signals are kept as bit sets in the order of {@link #SIGNALS},
+ * which is also the order in which a trapped signal is chosen to be raised.
+ */
+public final class PDecimalContext extends PythonBuiltinObject {
+    public static final int INVALID_OPERATION = 1;
+    public static final int FLOAT_OPERATION = 1 << 1;
+    public static final int DIVISION_BY_ZERO = 1 << 2;
+    public static final int OVERFLOW = 1 << 3;
+    public static final int UNDERFLOW = 1 << 4;
+    public static final int SUBNORMAL = 1 << 5;
+    public static final int INEXACT = 1 << 6;
+    public static final int ROUNDED = 1 << 7;
+    public static final int CLAMPED = 1 << 8;
+    public static final int ALL_SIGNALS = (1 << 9) - 1;
+
+    /** The names of the signal classes in the {@code _decimal} module, by bit. */
+    public static final String[] SIGNALS = {"InvalidOperation", "FloatOperation", "DivisionByZero", "Overflow", "Underflow", "Subnormal", "Inexact", "Rounded", "Clamped"};
+
+    public static final int ROUND_UP = 0;
+    public static final int ROUND_DOWN = 1;
+    public static final int ROUND_CEILING = 2;
+    public static final int ROUND_FLOOR = 3;
+    public static final int ROUND_HALF_UP = 4;
+    public static final int ROUND_HALF_DOWN = 5;
+    public static final int ROUND_HALF_EVEN = 6;
+    public static final int ROUND_05UP = 7;
+
+    public static final String[] ROUNDINGS = {"ROUND_UP", "ROUND_DOWN", "ROUND_CEILING", "ROUND_FLOOR", "ROUND_HALF_UP", "ROUND_HALF_DOWN", "ROUND_HALF_EVEN", "ROUND_05UP"};
+
+    /** The Java rounding modes by rounding, {@code null} for {@link #ROUND_05UP}. */
+    static final RoundingMode[] ROUNDING_MODES = {RoundingMode.UP, RoundingMode.DOWN, RoundingMode.CEILING, RoundingMode.FLOOR, RoundingMode.HALF_UP, RoundingMode.HALF_DOWN,
+                    RoundingMode.HALF_EVEN, null};
+
+    // The limits of libmpdec's 32-bit configuration, so that exponents always fit a BigDecimal scale.
+    public static final int MAX_PREC = 425000000;
+    public static final int MAX_EMAX = 425000000;
+    public static final int MIN_EMIN = -425000000;
+    public static final int MIN_ETINY = MIN_EMIN - (MAX_PREC - 1);
+
+    private int prec;
+    private int rounding;
+    private int emin;
+    private int emax;
+    private int capitals;
+    private int clamp;
+    private int flags;
+    private int traps;
+    private MathContext mathContext;
+
+    public PDecimalContext(LazyPythonClass cls, int prec, int rounding, int emin, int emax, int capitals, int clamp, int flags, int traps) {
+        super(cls);
+        this.prec = prec;
+        this.rounding = rounding;
+        this.emin = emin;
+        this.emax = emax;
+        this.capitals = capitals;
+        this.clamp = clamp;
+        this.flags = flags;
+        this.traps = traps;
+    }
+
+    public int getPrec() {
+        return prec;
+    }
+
+    public void setPrec(int prec) {
+        this.prec = prec;
+        this.mathContext = null;
+    }
+
+    public int getRounding() {
+        return rounding;
+    }
+
+    public void setRounding(int rounding) {
+        this.rounding = rounding;
+        this.mathContext = null;
+    }
+
+    public int getEmin() {
+        return emin;
+    }
+
+    public void setEmin(int emin) {
+        this.emin = emin;
+    }
+
+    public int getEmax() {
+        return emax;
+    }
+
+    public void setEmax(int emax) {
+        this.emax = emax;
+    }
+
+    public int getCapitals() {
+        return capitals;
+    }
+
+    public void setCapitals(int capitals) {
+        this.capitals = capitals;
+    }
+
+    public int getClamp() {
+        return clamp;
+    }
+
+    public void setClamp(int clamp) {
+        this.clamp = clamp;
+    }
+
+    public int getFlags() {
+        return flags;
+    }
+
+    public void setFlags(int flags) {
+        this.flags = flags;
+    }
+
+    public int getTraps() {
+        return traps;
+    }
+
+    public void setTraps(int traps) {
+        this.traps = traps;
+    }
+
+    /** The smallest exponent of a subnormal number. */
+    public long etiny() {
+        return (long) emin - prec + 1;
+    }
+
+    /** The largest exponent of a number with a full coefficient. */
+    public long etop() {
+        return (long) emax - prec + 1;
+    }
+
+    /** The rounding mode, or {@code null} for {@code ROUND_05UP}. */
+    public RoundingMode getRoundingMode() {
+        return ROUNDING_MODES[rounding];
+    }
+
+    /**
+     * A {@link MathContext} for this context's precision and rounding, or {@code null} if it
+     * rounds with {@code ROUND_05UP}.
+     */
+    @TruffleBoundary
+    public MathContext getMathContext() {
+        if (mathContext == null && rounding != ROUND_05UP) {
+            mathContext = new MathContext(prec, ROUNDING_MODES[rounding]);
+        }
+        return mathContext;
+    }
+}
@@ -0,0 +1,500 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.deque;
+
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__CONTAINS__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__DELITEM__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__EQ__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__GETITEM__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__IADD__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__INIT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__ITER__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__LEN__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__REVERSED__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__SETITEM__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.IndexError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.RuntimeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.PNodeWithContext;
+import com.oracle.graal.python.nodes.control.GetIteratorNode;
+import com.oracle.graal.python.nodes.control.GetNextNode;
+import com.oracle.graal.python.nodes.expression.BinaryComparisonNode;
+import com.oracle.graal.python.nodes.expression.CastToBooleanNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.object.IsBuiltinClassProfile;
+import com.oracle.graal.python.nodes.util.CastToIndexNode;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.profiles.BranchProfile;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PDeque)
+public class DequeBuiltins extends PythonBuiltins {
+
+    private static final String MUTATED_DURING_ITERATION = "deque mutated during iteration";
+    private static final String INDEX_OUT_OF_RANGE = "deque index out of range";
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return DequeBuiltinsFactory.getFactories();
+    }
+
+    /**
+     * Appends all elements of an iterable to either end of a deque.
+     */
+    static final class ExtendFromIterableNode extends PNodeWithContext {
+        @Child private GetIteratorNode getIteratorNode = GetIteratorNode.create();
+        @Child private GetNextNode getNextNode = GetNextNode.create();
+        private final IsBuiltinClassProfile errorProfile = IsBuiltinClassProfile.create();
+        private final ConditionProfile selfProfile = ConditionProfile.createBinaryProfile();
+        private final boolean left;
+
+        private ExtendFromIterableNode(boolean left) {
+            this.left = left;
+        }
+
+        void execute(PDeque self, Object iterable) {
+            if (selfProfile.profile(iterable == self)) {
+                // extending a deque with itself must not see the new elements
+                for (Object value : self.toArray()) {
+                    add(self, value);
+                }
+                return;
+            }
+            Object iterator = getIteratorNode.executeWith(iterable);
+            while (true) {
+                Object value;
+                try {
+                    value = getNextNode.execute(iterator);
+                } catch (PException e) {
+                    e.expectStopIteration(errorProfile);
+                    return;
+                }
+                add(self, value);
+            }
+        }
+
+        private void add(PDeque self, Object value) {
+            if (left) {
+                self.appendLeft(value);
+            } else {
+                self.append(value);
+            }
+        }
+
+        static ExtendFromIterableNode create() {
+            return new ExtendFromIterableNode(false);
+        }
+
+        static ExtendFromIterableNode createLeft() {
+            return new ExtendFromIterableNode(true);
+        }
+    }
+
+    /**
+     * Converts an index argument to a normalized index into the deque. Negative indices count from
+     * the end, out-of-range indices are left to the caller.
+     */
+    static final class NormalizeDequeIndexNode extends PNodeWithContext {
+        @Child private CastToIndexNode castToIndexNode = CastToIndexNode.create();
+        private final ConditionProfile negativeProfile = ConditionProfile.createBinaryProfile();
+
+        int execute(PDeque self, Object index) {
+            int i = castToIndexNode.execute(index);
+            if (negativeProfile.profile(i < 0)) {
+                return i + self.getSize();
+            }
+            return i;
+        }
+
+        static NormalizeDequeIndexNode create() {
+            return new NormalizeDequeIndexNode();
+        }
+    }
+
+    // deque.__init__(iterable=(), maxlen=None)
+    @Builtin(name = __INIT__, minNumOfPositionalArgs = 1, keywordArguments = {"iterable", "maxlen"})
+    @GenerateNodeFactory
+    abstract static class DequeInitNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        PNone init(PDeque self, Object iterable, Object maxlen,
+                        @Cached("createOverflow()") CastToIndexNode castToIndexNode,
+                        @Cached("create()") ExtendFromIterableNode extendNode) {
+            int maxLength = -1;
+            if (!PGuards.isPNone(maxlen)) {
+                maxLength = castToIndexNode.execute(maxlen);
+                if (maxLength < 0) {
+                    throw raise(ValueError, "maxlen must be non-negative");
+                }
+            }
+            if (self.getSize() > 0) {
+                self.clear();
+            }
+            self.setMaxLength(maxLength);
+            if (iterable != PNone.NO_VALUE) {
+                extendNode.execute(self, iterable);
+            }
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "maxlen", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class DequeMaxLenNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object maxlen(PDeque self) {
+            int maxLength = self.getMaxLength();
+            return maxLength < 0 ? PNone.NONE : maxLength;
+        }
+    }
+
+    @Builtin(name = "append", fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class DequeAppendNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        PNone append(PDeque self, Object value) {
+            self.append(value);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "appendleft", fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class DequeAppendLeftNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        PNone appendLeft(PDeque self, Object value) {
+            self.appendLeft(value);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "pop", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class DequePopNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object pop(PDeque self,
+                        @Cached("create()") BranchProfile emptyProfile) {
+            Object value = self.pop();
+            if (value == null) {
+                emptyProfile.enter();
+                throw raise(IndexError, "pop from an empty deque");
+            }
+            return value;
+        }
+    }
+
+    @Builtin(name = "popleft", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class DequePopLeftNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object popLeft(PDeque self,
+                        @Cached("create()") BranchProfile emptyProfile) {
+            Object value = self.popLeft();
+            if (value == null) {
+                emptyProfile.enter();
+                throw raise(IndexError, "pop from an empty deque");
+            }
+            return value;
+        }
+    }
+
+    @Builtin(name = "extend", fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class DequeExtendNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        PNone extend(PDeque self, Object iterable,
+                        @Cached("create()") ExtendFromIterableNode extendNode) {
+            extendNode.execute(self, iterable);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "extendleft", fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class DequeExtendLeftNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        PNone extendLeft(PDeque self, Object iterable,
+                        @Cached("createLeft()") ExtendFromIterableNode extendNode) {
+            extendNode.execute(self, iterable);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = __IADD__, fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class DequeIAddNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        PDeque iadd(PDeque self, Object iterable,
+                        @Cached("create()") ExtendFromIterableNode extendNode) {
+            extendNode.execute(self, iterable);
+            return self;
+        }
+    }
+
+    @Builtin(name = "clear", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class DequeClearNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PNone clear(PDeque self) {
+            self.clear();
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "reverse", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class DequeReverseNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PNone reverse(PDeque self) {
+            self.reverse();
+            return PNone.NONE;
+        }
+    }
+
+    // deque.rotate(n=1)
+    @Builtin(name = "rotate", minNumOfPositionalArgs = 1, maxNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class DequeRotateNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        PNone rotate(PDeque self, @SuppressWarnings("unused") PNone n) {
+            self.rotate(1);
+            return PNone.NONE;
+        }
+
+        @Specialization(guards = "!isPNone(n)")
+        PNone rotate(PDeque self, Object n,
+                        @Cached("create()") CastToIndexNode castToIndexNode) {
+            self.rotate(castToIndexNode.execute(n));
+            return PNone.NONE;
+        }
+    }
+
+    // deque.insert(i, x)
+    @Builtin(name = "insert", fixedNumOfPositionalArgs = 3)
+    @GenerateNodeFactory
+    abstract static class DequeInsertNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        PNone insert(PDeque self, Object index, Object value,
+                        @Cached("create()") NormalizeDequeIndexNode normalizeNode) {
+            if (!self.insert(normalizeNode.execute(self, index), value)) {
+                throw raise(IndexError, "deque already at its maximum size");
+            }
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = __LEN__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class DequeLenNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        int len(PDeque self) {
+            return self.getSize();
+        }
+    }
+
+    @Builtin(name = __ITER__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class DequeIterNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PDequeIter iter(PDeque self) {
+            return factory().createDequeIter(self);
+        }
+    }
+
+    @Builtin(name = __REVERSED__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class DequeReversedNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PDequeIter reversed(PDeque self) {
+            return factory().createDequeRevIter(self);
+        }
+    }
+
+    @Builtin(name = __GETITEM__, fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class DequeGetItemNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object getItem(PDeque self, Object index,
+                        @Cached("create()") NormalizeDequeIndexNode normalizeNode,
+                        @Cached("create()") BranchProfile outOfRangeProfile) {
+            Object value = self.get(normalizeNode.execute(self, index));
+            if (value == null) {
+                outOfRangeProfile.enter();
+                throw raise(IndexError, INDEX_OUT_OF_RANGE);
+            }
+            return value;
+        }
+    }
+
+    @Builtin(name = __SETITEM__, fixedNumOfPositionalArgs = 3)
+    @GenerateNodeFactory
+    abstract static class DequeSetItemNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        PNone setItem(PDeque self, Object index, Object value,
+                        @Cached("create()") NormalizeDequeIndexNode normalizeNode) {
+            if (!self.set(normalizeNode.execute(self, index), value)) {
+                throw raise(IndexError, INDEX_OUT_OF_RANGE);
+            }
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = __DELITEM__, fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class DequeDelItemNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        PNone delItem(PDeque self, Object index,
+                        @Cached("create()") NormalizeDequeIndexNode normalizeNode) {
+            if (!self.delete(normalizeNode.execute(self, index))) {
+                throw raise(IndexError, INDEX_OUT_OF_RANGE);
+            }
+            return PNone.NONE;
+        }
+    }
+
+    /**
+     * Base class for the operations that compare the elements of a deque with a value. The Python
+     * comparisons may mutate the deque, which is detected and reported like CPython does.
+     */
+    abstract static class DequeSearchNode extends PythonBuiltinNode {
+        @Child private BinaryComparisonNode eqNode = BinaryComparisonNode.create(__EQ__, __EQ__, "==");
+        @Child private CastToBooleanNode castToBooleanNode = CastToBooleanNode.createIfTrueNode();
+        private final BranchProfile mutatedProfile = BranchProfile.create();
+
+        /**
+         * Returns the index of the first element in {@code [start, stop)} that is equal to
+         * {@code value} or -1.
+         */
+        protected int indexOf(PDeque self, Object value, int start, int stop, PythonBuiltinClassType mutatedError, String mutatedMessage) {
+            int state = self.getState();
+            for (int i = start; i < stop; i++) {
+                Object item = self.get(i);
+                boolean found = item != null && castToBooleanNode.executeWith(eqNode.executeWith(item, value));
+                if (self.getState() != state) {
+                    mutatedProfile.enter();
+                    throw raise(mutatedError, mutatedMessage);
+                }
+                if (found) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    @Builtin(name = __CONTAINS__, fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class DequeContainsNode extends DequeSearchNode {
+        @Specialization
+        boolean contains(PDeque self, Object value) {
+            return indexOf(self, value, 0, self.getSize(), RuntimeError, MUTATED_DURING_ITERATION) >= 0;
+        }
+    }
+
+    @Builtin(name = "count", fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class DequeCountNode extends DequeSearchNode {
+        @Specialization
+        long count(PDeque self, Object value) {
+            long count = 0;
+            int size = self.getSize();
+            int i = indexOf(self, value, 0, size, RuntimeError, MUTATED_DURING_ITERATION);
+            while (i >= 0) {
+                count++;
+                i = indexOf(self, value, i + 1, size, RuntimeError, MUTATED_DURING_ITERATION);
+            }
+            return count;
+        }
+    }
+
+    // deque.index(x[, start[, stop]])
+    @Builtin(name = "index", minNumOfPositionalArgs = 2, maxNumOfPositionalArgs = 4)
+    @GenerateNodeFactory
+    abstract static class DequeIndexNode extends DequeSearchNode {
+        @Specialization
+        int index(PDeque self, Object value, Object start, Object stop,
+                        @Cached("create()") CastToIndexNode castStartNode,
+                        @Cached("create()") CastToIndexNode castStopNode) {
+            int size = self.getSize();
+            int startIndex = start == PNone.NO_VALUE ? 0 : clamp(castStartNode.execute(start), size);
+            int stopIndex = stop == PNone.NO_VALUE ? size : clamp(castStopNode.execute(stop), size);
+            int i = indexOf(self, value, startIndex, stopIndex, RuntimeError, MUTATED_DURING_ITERATION);
+            if (i < 0) {
+                throw raise(ValueError, "deque.index(x): x not in deque");
+            }
+            return i;
+        }
+
+        private static int clamp(int index, int size) {
+            int i = index < 0 ? index + size : index;
+            return Math.max(0, Math.min(i, size));
+        }
+    }
+
+    @Builtin(name = "remove", fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class DequeRemoveNode extends DequeSearchNode {
+        @Specialization
+        PNone remove(PDeque self, Object value) {
+            int i = indexOf(self, value, 0, self.getSize(), IndexError, "deque mutated during remove().");
+            if (i < 0 || !self.delete(i)) {
+                throw raise(ValueError, "deque.remove(x): x not in deque");
+            }
+            return PNone.NONE;
+        }
+    }
+}
@@ -0,0 +1,288 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.deque;
+
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * A double-ended queue ({@code collections.deque}). The elements live in a circular array whose
+ * capacity is a power of two, so both ends can be appended to and popped from in amortized constant
+ * time. All accesses to the storage are synchronized on the deque, so producers and consumers in
+ * different threads do not need any additional locking.
+ */
+public final class PDeque extends PythonBuiltinObject {
+    private static final int INITIAL_CAPACITY = 8;
+
+    private Object[] elements = new Object[INITIAL_CAPACITY];
+    private int head;
+    private int size;
+    /* -1 means unbounded */
+    private int maxLength = -1;
+    /* incremented on every structural modification to detect mutation during iteration */
+    private int state;
+
+    public PDeque(LazyPythonClass cls) {
+        super(cls);
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getMaxLength() {
+        return maxLength;
+    }
+
+    public void setMaxLength(int maxLength) {
+        this.maxLength = maxLength;
+    }
+
+    public int getState() {
+        return state;
+    }
+
+    private int index(int i) {
+        return (head + i) & (elements.length - 1);
+    }
+
+    public synchronized void append(Object value) {
+        if (maxLength == 0) {
+            return;
+        }
+        if (size == maxLength) {
+            // evict from the opposite end
+            elements[head] = null;
+            head = index(1);
+            size--;
+        } else if (size == elements.length) {
+            grow();
+        }
+        elements[index(size)] = value;
+        size++;
+        state++;
+    }
+
+    public synchronized void appendLeft(Object value) {
+        if (maxLength == 0) {
+            return;
+        }
+        if (size == maxLength) {
+            // evict from the opposite end
+            size--;
+            elements[index(size)] = null;
+        } else if (size == elements.length) {
+            grow();
+        }
+        head = index(-1);
+        elements[head] = value;
+        size++;
+        state++;
+    }
+
+    /**
+     * Removes and returns the rightmost element or returns {@code null} if the deque is empty.
+     */
+    public synchronized Object pop() {
+        if (size == 0) {
+            return null;
+        }
+        size--;
+        int idx = index(size);
+        Object value = elements[idx];
+        elements[idx] = null;
+        state++;
+        return value;
+    }
+
+    /**
+     * Removes and returns the leftmost element or returns {@code null} if the deque is empty.
+     */
+    public synchronized Object popLeft() {
+        if (size == 0) {
+            return null;
+        }
+        Object value = elements[head];
+        elements[head] = null;
+        head = index(1);
+        size--;
+        state++;
+        return value;
+    }
+
+    /**
+     * Returns the element at the given (normalized) index or {@code null} if the index is out of
+     * range.
+     */
+    public synchronized Object get(int i) {
+        if (i < 0 || i >= size) {
+            return null;
+        }
+        return elements[index(i)];
+    }
+
+    public synchronized boolean set(int i, Object value) {
+        if (i < 0 || i >= size) {
+            return false;
+        }
+        elements[index(i)] = value;
+        return true;
+    }
+
+    /**
+     * Removes the element at the given (normalized) index, moving the shorter side of the deque.
+     */
+    public synchronized boolean delete(int i) {
+        if (i < 0 || i >= size) {
+            return false;
+        }
+        if (i < size / 2) {
+            for (int j = i; j > 0; j--) {
+                elements[index(j)] = elements[index(j - 1)];
+            }
+            elements[head] = null;
+            head = index(1);
+        } else {
+            for (int j = i; j < size - 1; j++) {
+                elements[index(j)] = elements[index(j + 1)];
+            }
+            elements[index(size - 1)] = null;
+        }
+        size--;
+        state++;
+        return true;
+    }
+
+    /**
+     * Inserts the value before the given index, which is clamped to {@code [0, size]}. Returns
+     * {@code false} if the deque is already at its maximum size.
+     */
+    public synchronized boolean insert(int i, Object value) {
+        if (size == maxLength) {
+            return false;
+        }
+        if (size == elements.length) {
+            grow();
+        }
+        int idx = Math.max(0, Math.min(i, size));
+        if (idx < size / 2) {
+            head = index(-1);
+            for (int j = 0; j < idx; j++) {
+                elements[index(j)] = elements[index(j + 1)];
+            }
+        } else {
+            for (int j = size; j > idx; j--) {
+                elements[index(j)] = elements[index(j - 1)];
+            }
+        }
+        elements[index(idx)] = value;
+        size++;
+        state++;
+        return true;
+    }
+
+    public synchronized void clear() {
+        elements = new Object[INITIAL_CAPACITY];
+        head = 0;
+        size = 0;
+        state++;
+    }
+
+    /**
+     * Rotates the deque {@code n} steps to the right (to the left if {@code n} is negative).
+     */
+    public synchronized void rotate(int n) {
+        if (size <= 1) {
+            return;
+        }
+        int steps = n % size;
+        if (steps == 0) {
+            return;
+        }
+        if (size == elements.length) {
+            head = index(-steps);
+        } else if (steps > 0) {
+            for (int i = 0; i < steps; i++) {
+                head = index(-1);
+                int last = index(size);
+                elements[head] = elements[last];
+                elements[last] = null;
+            }
+        } else {
+            for (int i = 0; i > steps; i--) {
+                elements[index(size)] = elements[head];
+                elements[head] = null;
+                head = index(1);
+            }
+        }
+        state++;
+    }
+
+    public synchronized void reverse() {
+        for (int i = 0, j = size - 1; i < j; i++, j--) {
+            int left = index(i);
+            int right = index(j);
+            Object tmp = elements[left];
+            elements[left] = elements[right];
+            elements[right] = tmp;
+        }
+        state++;
+    }
+
+    public synchronized Object[] toArray() {
+        Object[] result = new Object[size];
+        for (int i = 0; i < size; i++) {
+            result[i] = elements[index(i)];
+        }
+        return result;
+    }
+
+    @TruffleBoundary
+    private void grow() {
+        Object[] newElements = new Object[elements.length * 2];
+        for (int i = 0; i < size; i++) {
+            newElements[i] = elements[index(i)];
+        }
+        elements = newElements;
+        head = 0;
+    }
+}
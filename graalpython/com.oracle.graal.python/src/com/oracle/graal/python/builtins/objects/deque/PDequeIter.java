@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.deque;
+
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+
+/**
+ * A forward or reverse iterator over a {@link PDeque}. It remembers the deque's modification state
+ * at creation so that mutation during iteration can be detected.
+ */
+public final class PDequeIter extends PythonBuiltinObject {
+    private final PDeque deque;
+    private final boolean reversed;
+    private final int state;
+    private final int size;
+    private int index;
+
+    public PDequeIter(LazyPythonClass cls, PDeque deque, boolean reversed) {
+        super(cls);
+        this.deque = deque;
+        this.reversed = reversed;
+        this.state = deque.getState();
+        this.size = deque.getSize();
+    }
+
+    public PDeque getDeque() {
+        return deque;
+    }
+
+    public boolean isMutated() {
+        return deque.getState() != state;
+    }
+
+    public int getRemaining() {
+        return size - index;
+    }
+
+    /**
+     * Returns the index of the next element in the deque and advances the iterator. The caller
+     * must check {@link #getRemaining()} first.
+     */
+    public int nextIndex() {
+        assert index < size;
+        int i = index++;
+        return reversed ? size - 1 - i : i;
+    }
+
+    public void exhaust() {
+        index = size;
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.digest;
+
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.bytes.BytesNodes;
+import com.oracle.graal.python.builtins.objects.bytes.PIBytesLike;
+import com.oracle.graal.python.builtins.objects.digest.DigestNodesFactory.UpdateNodeGen;
+import com.oracle.graal.python.builtins.objects.digest.PDigest.Algorithm;
+import com.oracle.graal.python.builtins.objects.str.PString;
+import com.oracle.graal.python.nodes.PNodeWithContext;
+import com.oracle.graal.python.runtime.sequence.storage.ByteSequenceStorage;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Fallback;
+import com.oracle.truffle.api.dsl.Specialization;
+
+public abstract class DigestNodes {
+
+    /**
+     * Feeds a bytes-like object to a digest. Bytes and bytearrays are hashed directly from their
+     * storage.
+     */
+    public abstract static class UpdateNode extends PNodeWithContext {
+        public abstract void execute(PDigest self, Object data);
+
+        protected static boolean hasByteStorage(PIBytesLike data) {
+            return data.getSequenceStorage() instanceof ByteSequenceStorage;
+        }
+
+        @Specialization(guards = "hasByteStorage(data)")
+        void doBytes(PDigest self, PIBytesLike data) {
+            ByteSequenceStorage storage = (ByteSequenceStorage) data.getSequenceStorage();
+            self.update(storage.getInternalByteArray(), 0, storage.length());
+        }
+
+        @Specialization
+        void doString(@SuppressWarnings("unused") PDigest self, @SuppressWarnings("unused") String data) {
+            throw raise(TypeError, "Unicode-objects must be encoded before hashing");
+        }
+
+        @Specialization
+        void doString(@SuppressWarnings("unused") PDigest self, @SuppressWarnings("unused") PString data) {
+            throw raise(TypeError, "Unicode-objects must be encoded before hashing");
+        }
+
+        @Fallback
+        void doGeneric(PDigest self, Object data,
+                        @Cached("create()") BytesNodes.ToBytesNode toBytesNode) {
+            byte[] bytes = toBytesNode.execute(data);
+            self.update(bytes, 0, bytes.length);
+        }
+
+        public static UpdateNode create() {
+            return UpdateNodeGen.create();
+        }
+    }
+
+    /**
+     * Creates a digest and feeds it the optional initial data.
+     */
+    public static final class CreateDigestNode extends PNodeWithContext {
+        @Child private UpdateNode updateNode;
+
+        public PDigest execute(Algorithm algorithm, Object data) {
+            PDigest digest = factory().createDigest(algorithm);
+            if (data != PNone.NO_VALUE && data != PNone.NONE) {
+                if (updateNode == null) {
+                    CompilerDirectives.transferToInterpreterAndInvalidate();
+                    updateNode = insert(UpdateNode.create());
+                }
+                updateNode.execute(digest, data);
+            }
+            return digest;
+        }
+
+        public static CreateDigestNode create() {
+            return new CreateDigestNode();
+        }
+    }
+}
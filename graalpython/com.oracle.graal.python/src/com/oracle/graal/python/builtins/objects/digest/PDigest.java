@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.digest;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * A hash object of the {@code _md5}, {@code _sha1}, {@code _sha256} and {@code _sha512} modules,
+ * backed by a {@link MessageDigest}. Reading the digest does not finish the computation, so the
+ * object can be updated further afterwards.
+ */
+public final class PDigest extends PythonBuiltinObject {
+
+    /**
+     * The hash algorithms with their Python name, JCA name and block size.
+     */
+    public enum Algorithm {
+        MD5("md5", "MD5", 64),
+        SHA1("sha1", "SHA-1", 64),
+        SHA224("sha224", "SHA-224", 64),
+        SHA256("sha256", "SHA-256", 64),
+        SHA384("sha384", "SHA-384", 128),
+        SHA512("sha512", "SHA-512", 128);
+
+        private final String pythonName;
+        private final String javaName;
+        private final int blockSize;
+
+        Algorithm(String pythonName, String javaName, int blockSize) {
+            this.pythonName = pythonName;
+            this.javaName = javaName;
+            this.blockSize = blockSize;
+        }
+
+        public String getPythonName() {
+            return pythonName;
+        }
+
+        public int getBlockSize() {
+            return blockSize;
+        }
+
+        @TruffleBoundary
+        MessageDigest newMessageDigest() {
+            try {
+                return MessageDigest.getInstance(javaName);
+            } catch (NoSuchAlgorithmException e) {
+                // every Java platform supports these
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private final Algorithm algorithm;
+    private final MessageDigest digest;
+
+    public PDigest(LazyPythonClass cls, Algorithm algorithm) {
+        this(cls, algorithm, algorithm.newMessageDigest());
+    }
+
+    private PDigest(LazyPythonClass cls, Algorithm algorithm, MessageDigest digest) {
+        super(cls);
+        this.algorithm = algorithm;
+        this.digest = digest;
+    }
+
+    public Algorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    @TruffleBoundary
+    public int getDigestSize() {
+        return digest.getDigestLength();
+    }
+
+    @TruffleBoundary
+    public synchronized void update(byte[] data, int offset, int length) {
+        digest.update(data, offset, length);
+    }
+
+    /**
+     * Returns the digest of the data so far without resetting the state.
+     */
+    @TruffleBoundary
+    public synchronized byte[] digest() {
+        return cloneDigest().digest();
+    }
+
+    @TruffleBoundary
+    public synchronized PDigest copy(LazyPythonClass cls) {
+        return new PDigest(cls, algorithm, cloneDigest());
+    }
+
+    private MessageDigest cloneDigest() {
+        try {
+            return (MessageDigest) digest.clone();
+        } catch (CloneNotSupportedException e) {
+            // the providers of the JDK support cloning
+            throw new IllegalStateException(e);
+        }
+    }
+}
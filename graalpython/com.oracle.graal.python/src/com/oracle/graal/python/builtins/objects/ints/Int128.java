@@ -0,0 +1,221 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.ints;
+
+import java.math.BigInteger;
+
+/**
+ * Helpers for 128-bit two's complement integers that are stored as a {@code high} and a
+ * {@code low} {@code long}. This is the representation of {@link PInt} values that are too large
+ * for a {@code long} but small enough to avoid {@link BigInteger} arithmetic.
+ * <p>
+ * Operations that can overflow throw an {@link ArithmeticException}, like {@link Math#addExact},
+ * so that specializations can rewrite to the {@link BigInteger} version. The low word of a sum,
+ * difference or product is just the result of the {@code long} operation on the low words, so
+ * only the high word is computed here.
+ */
+final class Int128 {
+
+    private static final long MASK32 = 0xFFFFFFFFL;
+
+    private Int128() {
+    }
+
+    static boolean fitsInLong(long high, long low) {
+        return high == (low >> 63);
+    }
+
+    /**
+     * Returns the high word of {@code a + b}, where {@code low} is the already computed low word
+     * {@code aLow + bLow}.
+     */
+    static long addHigh(long aHigh, long aLow, long bHigh, long low) throws ArithmeticException {
+        long carry = Long.compareUnsigned(low, aLow) < 0 ? 1 : 0;
+        long high = aHigh + bHigh + carry;
+        if (((aHigh ^ high) & (bHigh ^ high)) < 0) {
+            throw new ArithmeticException();
+        }
+        return high;
+    }
+
+    /**
+     * Returns the high word of {@code a - b}; the low word is {@code aLow - bLow}.
+     */
+    static long subtractHigh(long aHigh, long aLow, long bHigh, long bLow) throws ArithmeticException {
+        long borrow = Long.compareUnsigned(aLow, bLow) < 0 ? 1 : 0;
+        long high = aHigh - bHigh - borrow;
+        if (((aHigh ^ bHigh) & (aHigh ^ high)) < 0) {
+            throw new ArithmeticException();
+        }
+        return high;
+    }
+
+    /**
+     * Returns the high word of {@code a * b}; the low word is {@code aLow * bLow}.
+     */
+    static long multiplyHigh(long aHigh, long aLow, long bHigh, long bLow) throws ArithmeticException {
+        boolean negative = (aHigh ^ bHigh) < 0;
+        long xHigh = aHigh;
+        long xLow = aLow;
+        if (xHigh < 0) {
+            xLow = -xLow;
+            xHigh = negateHigh(xHigh, xLow);
+        }
+        long yHigh = bHigh;
+        long yLow = bLow;
+        if (yHigh < 0) {
+            yLow = -yLow;
+            yHigh = negateHigh(yHigh, yLow);
+        }
+        if (xHigh < 0 || yHigh < 0 || (xHigh != 0 && yHigh != 0)) {
+            // one of the magnitudes is 2**127, or both are 2**64 or more
+            throw new ArithmeticException();
+        }
+        if (xHigh != 0) {
+            long t = xHigh;
+            xHigh = yHigh;
+            yHigh = t;
+            t = xLow;
+            xLow = yLow;
+            yLow = t;
+        }
+        // now the product is xLow * (yHigh:yLow), all unsigned
+        long high = unsignedMultiplyHigh(xLow, yLow);
+        if (yHigh != 0) {
+            if (unsignedMultiplyHigh(xLow, yHigh) != 0) {
+                throw new ArithmeticException();
+            }
+            long cross = xLow * yHigh;
+            high += cross;
+            if (Long.compareUnsigned(high, cross) < 0) {
+                throw new ArithmeticException();
+            }
+        }
+        if (high < 0) {
+            throw new ArithmeticException();
+        }
+        return negative ? negateHigh(high, xLow * yLow) : high;
+    }
+
+    /**
+     * Returns the high word of {@code -(high:low)}, given the negated low word {@code -low}.
+     */
+    static long negateHigh(long high, long negatedLow) {
+        return negatedLow == 0 ? -high : ~high;
+    }
+
+    static int compare(long aHigh, long aLow, long bHigh, long bLow) {
+        if (aHigh != bHigh) {
+            return Long.compare(aHigh, bHigh);
+        }
+        return Long.compareUnsigned(aLow, bLow);
+    }
+
+    /** The high word of the full 128-bit product of two signed longs. */
+    static long multiplyHigh(long x, long y) {
+        return unsignedMultiplyHigh(x, y) - ((x >> 63) & y) - ((y >> 63) & x);
+    }
+
+    /** The high word of the full 128-bit product of two unsigned longs. */
+    static long unsignedMultiplyHigh(long x, long y) {
+        long x0 = x & MASK32;
+        long x1 = x >>> 32;
+        long y0 = y & MASK32;
+        long y1 = y >>> 32;
+        long w0 = x0 * y0;
+        long t = x1 * y0 + (w0 >>> 32);
+        long w1 = (t & MASK32) + x0 * y1;
+        return x1 * y1 + (t >>> 32) + (w1 >>> 32);
+    }
+
+    /**
+     * Divides the unsigned 128-bit value {@code high:low} by the unsigned {@code divisor} and
+     * returns the quotient, which must fit into 64 bits, i.e., {@code high} must be less than
+     * {@code divisor}. The remainder is {@code low - quotient * divisor}. This is the
+     * {@code divlu} algorithm from Hacker's Delight with 32-bit digits.
+     */
+    static long divideUnsigned(long high, long low, long divisor) {
+        assert Long.compareUnsigned(high, divisor) < 0;
+        final long b = 1L << 32;
+        int s = Long.numberOfLeadingZeros(divisor);
+        long v = divisor << s;
+        long vn1 = v >>> 32;
+        long vn0 = v & MASK32;
+        long un32 = s == 0 ? high : (high << s) | (low >>> (64 - s));
+        long un10 = low << s;
+        long un1 = un10 >>> 32;
+        long un0 = un10 & MASK32;
+
+        long q1 = Long.divideUnsigned(un32, vn1);
+        long rhat = un32 - q1 * vn1;
+        while (Long.compareUnsigned(q1, b) >= 0 || Long.compareUnsigned(q1 * vn0, b * rhat + un1) > 0) {
+            q1--;
+            rhat += vn1;
+            if (Long.compareUnsigned(rhat, b) >= 0) {
+                break;
+            }
+        }
+
+        long un21 = un32 * b + un1 - q1 * v;
+        long q0 = Long.divideUnsigned(un21, vn1);
+        rhat = un21 - q0 * vn1;
+        while (Long.compareUnsigned(q0, b) >= 0 || Long.compareUnsigned(q0 * vn0, b * rhat + un0) > 0) {
+            q0--;
+            rhat += vn1;
+            if (Long.compareUnsigned(rhat, b) >= 0) {
+                break;
+            }
+        }
+        return q1 * b + q0;
+    }
+
+    static BigInteger toBigInteger(long high, long low) {
+        if (fitsInLong(high, low)) {
+            return BigInteger.valueOf(low);
+        }
+        byte[] bytes = new byte[16];
+        for (int i = 0; i < 8; i++) {
+            bytes[i] = (byte) (high >>> (56 - 8 * i));
+            bytes[i + 8] = (byte) (low >>> (56 - 8 * i));
+        }
+        return new BigInteger(bytes);
+    }
+}
@@ -152,7 +152,25 @@ public class IntBuiltins extends PythonBuiltins {
 
         @Specialization
         PInt addPInt(long left, long right) {
-            return factory().createInt(op(BigInteger.valueOf(left), BigInteger.valueOf(right)));
+            long low = left + right;
+            return factory().createInt128(Int128.addHigh(left >> 63, left, right >> 63, low), low);
+        }
+
+        @Specialization(guards = "left.isMedium()", rewriteOn = ArithmeticException.class)
+        PInt addMedium(PInt left, long right) throws ArithmeticException {
+            long low = left.getLow() + right;
+            return factory().createInt128(Int128.addHigh(left.getHigh(), left.getLow(), right >> 63, low), low);
+        }
+
+        @Specialization(guards = "right.isMedium()", rewriteOn = ArithmeticException.class)
+        PInt addMedium(long left, PInt right) throws ArithmeticException {
+            return addMedium(right, left);
+        }
+
+        @Specialization(guards = {"left.isMedium()", "right.isMedium()"}, rewriteOn = ArithmeticException.class)
+        PInt addMedium(PInt left, PInt right) throws ArithmeticException {
+            long low = left.getLow() + right.getLow();
+            return factory().createInt128(Int128.addHigh(left.getHigh(), left.getLow(), right.getHigh(), low), low);
         }
 
         @Specialization
@@ -209,7 +227,22 @@ public class IntBuiltins extends PythonBuiltins {
 
         @Specialization
         PInt doLLOvf(long x, long y) {
-            return factory().createInt(op(BigInteger.valueOf(x), BigInteger.valueOf(y)));
+            return factory().createInt128(Int128.subtractHigh(x >> 63, x, y >> 63, y), x - y);
+        }
+
+        @Specialization(guards = "left.isMedium()", rewriteOn = ArithmeticException.class)
+        PInt doMediumLong(PInt left, long right) throws ArithmeticException {
+            return factory().createInt128(Int128.subtractHigh(left.getHigh(), left.getLow(), right >> 63, right), left.getLow() - right);
+        }
+
+        @Specialization(guards = "right.isMedium()", rewriteOn = ArithmeticException.class)
+        PInt doLongMedium(long left, PInt right) throws ArithmeticException {
+            return factory().createInt128(Int128.subtractHigh(left >> 63, left, right.getHigh(), right.getLow()), left - right.getLow());
+        }
+
+        @Specialization(guards = {"left.isMedium()", "right.isMedium()"}, rewriteOn = ArithmeticException.class)
+        PInt doMediumMedium(PInt left, PInt right) throws ArithmeticException {
+            return factory().createInt128(Int128.subtractHigh(left.getHigh(), left.getLow(), right.getHigh(), right.getLow()), left.getLow() - right.getLow());
         }
 
         @Specialization
@@ -261,7 +294,22 @@ public class IntBuiltins extends PythonBuiltins {
 
         @Specialization
         PInt doLLOvf(long y, long x) {
-            return factory().createInt(op(BigInteger.valueOf(x), BigInteger.valueOf(y)));
+            return factory().createInt128(Int128.subtractHigh(x >> 63, x, y >> 63, y), x - y);
+        }
+
+        @Specialization(guards = "right.isMedium()", rewriteOn = ArithmeticException.class)
+        PInt doMediumLong(PInt right, long left) throws ArithmeticException {
+            return factory().createInt128(Int128.subtractHigh(left >> 63, left, right.getHigh(), right.getLow()), left - right.getLow());
+        }
+
+        @Specialization(guards = "left.isMedium()", rewriteOn = ArithmeticException.class)
+        PInt doLongMedium(long right, PInt left) throws ArithmeticException {
+            return factory().createInt128(Int128.subtractHigh(left.getHigh(), left.getLow(), right >> 63, right), left.getLow() - right);
+        }
+
+        @Specialization(guards = {"left.isMedium()", "right.isMedium()"}, rewriteOn = ArithmeticException.class)
+        PInt doMediumMedium(PInt right, PInt left) throws ArithmeticException {
+            return factory().createInt128(Int128.subtractHigh(left.getHigh(), left.getLow(), right.getHigh(), right.getLow()), left.getLow() - right.getLow());
         }
 
         @Specialization
@@ -462,6 +510,30 @@ public class IntBuiltins extends PythonBuiltins {
             }
         }
 
+        @Specialization(guards = "left.isMedium()", rewriteOn = ArithmeticException.class)
+        PInt doMediumL(PInt left, long right) throws ArithmeticException {
+            raiseDivisionByZero(right == 0);
+            boolean negative = left.getHigh() < 0;
+            long low = negative ? -left.getLow() : left.getLow();
+            long high = negative ? Int128.negateHigh(left.getHigh(), low) : left.getHigh();
+            // the magnitudes are unsigned, so Long.MIN_VALUE stands for 2**63 here
+            long divisor = Math.abs(right);
+            long quotientHigh = Long.divideUnsigned(high, divisor);
+            long quotientLow = Int128.divideUnsigned(Long.remainderUnsigned(high, divisor), low, divisor);
+            if (negative == right < 0) {
+                if (quotientHigh < 0) {
+                    // the quotient is 2**127
+                    throw new ArithmeticException();
+                }
+                return factory().createInt128(quotientHigh, quotientLow);
+            } else if (low - quotientLow * divisor != 0) {
+                // round towards negative infinity: -quotient - 1
+                return factory().createInt128(~quotientHigh, ~quotientLow);
+            } else {
+                return factory().createInt128(Int128.negateHigh(quotientHigh, -quotientLow), -quotientLow);
+            }
+        }
+
         @Specialization
         PInt doPiL(PInt left, int right) {
             raiseDivisionByZero(right == 0);
@@ -567,6 +639,23 @@ public class IntBuiltins extends PythonBuiltins {
             return factory().createInt(op(BigInteger.valueOf(left), right.getValue()));
         }
 
+        @Specialization(guards = "left.isMedium()")
+        long doMediumL(PInt left, long right) {
+            raiseDivisionByZero(right == 0);
+            boolean negative = left.getHigh() < 0;
+            long low = negative ? -left.getLow() : left.getLow();
+            long high = negative ? Int128.negateHigh(left.getHigh(), low) : left.getHigh();
+            // the magnitudes are unsigned, so Long.MIN_VALUE stands for 2**63 here
+            long divisor = Math.abs(right);
+            long quotientLow = Int128.divideUnsigned(Long.remainderUnsigned(high, divisor), low, divisor);
+            long remainder = low - quotientLow * divisor;
+            if (remainder != 0 && negative != right < 0) {
+                remainder = divisor - remainder;
+            }
+            // the result has the sign of the divisor
+            return right < 0 ? -remainder : remainder;
+        }
+
         @Specialization(guards = "right >= 0")
         PInt doPiL(PInt left, long right) {
             raiseDivisionByZero(right == 0);
@@ -631,16 +720,28 @@ public class IntBuiltins extends PythonBuiltins {
 
         @Specialization
         PInt doLLOvf(long x, long y) {
-            long r = x * y;
-            long ax = Math.abs(x);
-            long ay = Math.abs(y);
-            if (((ax | ay) >>> 31 != 0)) {
-                int leadingZeros = Long.numberOfLeadingZeros(ax) + Long.numberOfLeadingZeros(ay);
-                if (leadingZeros < 66) {
-                    return factory().createInt(op(BigInteger.valueOf(x), BigInteger.valueOf(y)));
-                }
-            }
-            return factory().createInt(r);
+            // the product of two longs always fits into 128 bits
+            return factory().createInt128(Int128.multiplyHigh(x, y), x * y);
+        }
+
+        @Specialization(guards = "left.isMedium()", rewriteOn = ArithmeticException.class)
+        PInt doMediumLong(PInt left, long right) throws ArithmeticException {
+            return factory().createInt128(Int128.multiplyHigh(left.getHigh(), left.getLow(), right >> 63, right), left.getLow() * right);
+        }
+
+        @Specialization(guards = "right.isMedium()", rewriteOn = ArithmeticException.class)
+        PInt doLongMedium(long left, PInt right) throws ArithmeticException {
+            return doMediumLong(right, left);
+        }
+
+        @Specialization(guards = {"left.isMedium()", "right.isMedium()"}, rewriteOn = ArithmeticException.class)
+        PInt doMediumMedium(PInt left, PInt right) throws ArithmeticException {
+            return factory().createInt128(Int128.multiplyHigh(left.getHigh(), left.getLow(), right.getHigh(), right.getLow()), left.getLow() * right.getLow());
+        }
+
+        @Specialization
+        PInt doLongPInt(long left, PInt right) {
+            return doPIntLong(right, left);
         }
 
         @Specialization
@@ -1217,6 +1318,21 @@ public class IntBuiltins extends PythonBuiltins {
             return op(left, right);
         }
 
+        @Specialization(guards = "right.isMedium()")
+        PInt doMedium(long left, PInt right) {
+            return factory().createInt128(op(left >> 63, right.getHigh()), op(left, right.getLow()));
+        }
+
+        @Specialization(guards = "left.isMedium()")
+        PInt doMedium(PInt left, long right) {
+            return factory().createInt128(op(left.getHigh(), right >> 63), op(left.getLow(), right));
+        }
+
+        @Specialization(guards = {"left.isMedium()", "right.isMedium()"})
+        PInt doMedium(PInt left, PInt right) {
+            return factory().createInt128(op(left.getHigh(), right.getHigh()), op(left.getLow(), right.getLow()));
+        }
+
         @Specialization
         PInt doPInt(long left, PInt right) {
             return factory().createInt(op(BigInteger.valueOf(left), right.getValue()));
@@ -1367,6 +1483,11 @@ public class IntBuiltins extends PythonBuiltins {
             }
         }
 
+        @Specialization(guards = {"a.isMedium()", "b.isMedium()"})
+        boolean eqMedium(PInt a, PInt b) {
+            return a.getHigh() == b.getHigh() && a.getLow() == b.getLow();
+        }
+
         @Specialization
         boolean eqPiPi(PInt a, PInt b) {
             return a.equals(b);
@@ -1416,6 +1537,11 @@ public class IntBuiltins extends PythonBuiltins {
             }
         }
 
+        @Specialization(guards = {"a.isMedium()", "b.isMedium()"})
+        boolean neMedium(PInt a, PInt b) {
+            return a.getHigh() != b.getHigh() || a.getLow() != b.getLow();
+        }
+
         @Specialization
         boolean eqPiPi(PInt a, PInt b) {
             return !a.equals(b);
@@ -1447,7 +1573,7 @@ public class IntBuiltins extends PythonBuiltins {
             try {
                 return left < right.longValueExact();
             } catch (ArithmeticException e) {
-                return right.doubleValue() > 0;
+                return !right.isZeroOrNegative();
             }
         }
 
@@ -1456,10 +1582,15 @@ public class IntBuiltins extends PythonBuiltins {
             try {
                 return left.longValueExact() < right;
             } catch (ArithmeticException e) {
-                return left.doubleValue() < 0;
+                return !left.isZeroOrPositive();
             }
         }
 
+        @Specialization(guards = {"left.isMedium()", "right.isMedium()"})
+        boolean doMedium(PInt left, PInt right) {
+            return Int128.compare(left.getHigh(), left.getLow(), right.getHigh(), right.getLow()) < 0;
+        }
+
         @Specialization
         @TruffleBoundary
         boolean doPP(PInt left, PInt right) {
@@ -1517,7 +1648,7 @@ public class IntBuiltins extends PythonBuiltins {
             try {
                 return left <= right.longValueExact();
             } catch (ArithmeticException e) {
-                return right.doubleValue() > 0;
+                return !right.isZeroOrNegative();
             }
         }
 
@@ -1526,10 +1657,15 @@ public class IntBuiltins extends PythonBuiltins {
             try {
                 return left.longValueExact() <= right;
             } catch (ArithmeticException e) {
-                return left.doubleValue() < 0;
+                return !left.isZeroOrPositive();
             }
         }
 
+        @Specialization(guards = {"left.isMedium()", "right.isMedium()"})
+        boolean doMedium(PInt left, PInt right) {
+            return Int128.compare(left.getHigh(), left.getLow(), right.getHigh(), right.getLow()) <= 0;
+        }
+
         @Specialization
         @TruffleBoundary
         boolean doPP(PInt left, PInt right) {
@@ -1563,7 +1699,7 @@ public class IntBuiltins extends PythonBuiltins {
             try {
                 return left > right.longValueExact();
             } catch (ArithmeticException e) {
-                return right.doubleValue() < 0;
+                return !right.isZeroOrPositive();
             }
         }
 
@@ -1572,10 +1708,15 @@ public class IntBuiltins extends PythonBuiltins {
             try {
                 return left.longValueExact() > right;
             } catch (ArithmeticException e) {
-                return left.doubleValue() > 0;
+                return !left.isZeroOrNegative();
             }
         }
 
+        @Specialization(guards = {"left.isMedium()", "right.isMedium()"})
+        boolean doMedium(PInt left, PInt right) {
+            return Int128.compare(left.getHigh(), left.getLow(), right.getHigh(), right.getLow()) > 0;
+        }
+
         @Specialization
         @TruffleBoundary
         boolean doPP(PInt left, PInt right) {
@@ -1609,7 +1750,7 @@ public class IntBuiltins extends PythonBuiltins {
             try {
                 return left >= right.longValueExact();
             } catch (ArithmeticException e) {
-                return right.doubleValue() < 0;
+                return !right.isZeroOrPositive();
             }
         }
 
@@ -1618,10 +1759,15 @@ public class IntBuiltins extends PythonBuiltins {
             try {
                 return left.longValueExact() >= right;
             } catch (ArithmeticException e) {
-                return left.doubleValue() > 0;
+                return !left.isZeroOrNegative();
             }
         }
 
+        @Specialization(guards = {"left.isMedium()", "right.isMedium()"})
+        boolean doMedium(PInt left, PInt right) {
+            return Int128.compare(left.getHigh(), left.getLow(), right.getHigh(), right.getLow()) >= 0;
+        }
+
         @Specialization
         @TruffleBoundary
         boolean doPP(PInt left, PInt right) {
@@ -33,36 +33,91 @@ import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 
 public final class PInt extends PythonBuiltinObject {
 
-    private final BigInteger value;
+    /**
+     * Values that fit into 128 bits are stored as two's complement {@code high} and {@code low}
+     * words so that the arithmetic in {@link IntBuiltins} can avoid {@link BigInteger}. For them,
+     * {@link #value} is only created on demand.
+     */
+    private final boolean medium;
+    private final long high;
+    private final long low;
+    private BigInteger value;
 
+    @TruffleBoundary
     public PInt(LazyPythonClass clazz, BigInteger value) {
         super(clazz);
         assert value != null;
         this.value = value;
+        this.medium = value.bitLength() < 128;
+        if (medium) {
+            this.high = value.shiftRight(64).longValue();
+            this.low = value.longValue();
+        } else {
+            this.high = 0;
+            this.low = 0;
+        }
+    }
+
+    public PInt(LazyPythonClass clazz, long high, long low) {
+        super(clazz);
+        this.medium = true;
+        this.high = high;
+        this.low = low;
     }
 
     public BigInteger getValue() {
+        if (value == null) {
+            value = createValue();
+        }
         return value;
     }
 
+    @TruffleBoundary
+    private BigInteger createValue() {
+        return Int128.toBigInteger(high, low);
+    }
+
+    /**
+     * Returns {@code true} if the value fits into 128 bits and is available from
+     * {@link #getHigh()} and {@link #getLow()}.
+     */
+    public boolean isMedium() {
+        return medium;
+    }
+
+    public long getHigh() {
+        assert medium;
+        return high;
+    }
+
+    public long getLow() {
+        assert medium;
+        return low;
+    }
+
     public boolean isOne() {
-        return value.equals(BigInteger.ONE);
+        return medium && high == 0 && low == 1;
     }
 
     public boolean isZero() {
-        return value.equals(BigInteger.ZERO);
+        return medium && high == 0 && low == 0;
     }
 
     @Override
+    @TruffleBoundary
     public int hashCode() {
-        return value.hashCode();
+        return getValue().hashCode();
     }
 
     @Override
     @TruffleBoundary
     public boolean equals(Object obj) {
         if (obj instanceof PInt) {
-            return value.equals(((PInt) obj).getValue());
+            PInt other = (PInt) obj;
+            if (medium && other.medium) {
+                return high == other.high && low == other.low;
+            }
+            return getValue().equals(other.getValue());
         }
         return false;
     }
@@ -75,40 +130,74 @@ public final class PInt extends PythonBuiltinObject {
         return super.compareTo(o);
     }
 
-    @TruffleBoundary
     private int compareTo(PInt o) {
-        return value.compareTo(o.value);
+        if (medium && o.medium) {
+            return Int128.compare(high, low, o.high, o.low);
+        }
+        return compareBig(o);
+    }
+
+    @TruffleBoundary
+    private int compareBig(PInt o) {
+        return getValue().compareTo(o.getValue());
     }
 
     @Override
     @TruffleBoundary
     public String toString() {
-        return value.toString();
+        return getValue().toString();
     }
 
-    @TruffleBoundary
     public double doubleValue() {
-        return value.doubleValue();
+        if (medium && Int128.fitsInLong(high, low)) {
+            return low;
+        }
+        return doubleValueBig();
     }
 
     @TruffleBoundary
+    private double doubleValueBig() {
+        return getValue().doubleValue();
+    }
+
     public int intValue() {
+        if (medium) {
+            return (int) low;
+        }
+        return intValueBig();
+    }
+
+    @TruffleBoundary
+    private int intValueBig() {
         return value.intValue();
     }
 
-    @TruffleBoundary(transferToInterpreterOnException = false)
     public int intValueExact() {
-        return value.intValueExact();
+        long l = longValueExact();
+        if (!isIntRange(l)) {
+            throw new ArithmeticException();
+        }
+        return (int) l;
     }
 
-    @TruffleBoundary
     public long longValue() {
+        if (medium) {
+            return low;
+        }
+        return longValueBig();
+    }
+
+    @TruffleBoundary
+    private long longValueBig() {
         return value.longValue();
     }
 
-    @TruffleBoundary(transferToInterpreterOnException = false)
     public long longValueExact() {
-        return value.longValueExact();
+        // values that do not fit into 128 bits cannot fit into 64 bits
+        if (medium && Int128.fitsInLong(high, low)) {
+            return low;
+        }
+        throw new ArithmeticException();
     }
 
     public PInt max(PInt val) {
@@ -121,17 +210,26 @@ public final class PInt extends PythonBuiltinObject {
 
     @TruffleBoundary
     public int bitCount() {
-        return value.bitCount();
+        return getValue().bitCount();
     }
 
-    @TruffleBoundary
     public boolean isZeroOrPositive() {
-        return value.compareTo(BigInteger.ZERO) >= 0;
+        if (medium) {
+            return high >= 0;
+        }
+        return signumBig() >= 0;
     }
 
-    @TruffleBoundary
     public boolean isZeroOrNegative() {
-        return value.compareTo(BigInteger.ZERO) <= 0;
+        if (medium) {
+            return high < 0 || (high == 0 && low == 0);
+        }
+        return signumBig() <= 0;
+    }
+
+    @TruffleBoundary
+    private int signumBig() {
+        return value.signum();
     }
 
     public static int intValue(boolean bool) {
@@ -171,9 +269,8 @@ public final class PInt extends PythonBuiltinObject {
         return (byte) val;
     }
 
-    @TruffleBoundary(transferToInterpreterOnException = false)
     public byte byteValueExact() {
-        return value.byteValueExact();
+        return byteValueExact(longValueExact());
     }
 
     public static boolean isIntRange(long val) {
@@ -0,0 +1,337 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.io;
+
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__ENTER__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__EXIT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__INIT__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import java.nio.channels.Channel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.io.BufferedIONodes.BufferedSeekNode;
+import com.oracle.graal.python.builtins.objects.io.BufferedIONodes.BufferedTellNode;
+import com.oracle.graal.python.builtins.objects.io.BufferedIONodes.FlushBufferNode;
+import com.oracle.graal.python.builtins.objects.type.PythonAbstractClass;
+import com.oracle.graal.python.nodes.attributes.GetAttributeNode.GetFixedAttributeNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.object.GetClassNode;
+import com.oracle.graal.python.nodes.util.CastToIndexNode;
+import com.oracle.graal.python.nodes.util.CastToJavaLongNode;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+
+/**
+ * The methods {@code BufferedReader} and {@code BufferedWriter} have in common.
+ */
+@CoreFunctions(extendClasses = {PythonBuiltinClassType.PBufferedReader, PythonBuiltinClassType.PBufferedWriter})
+public class BufferedIOBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return BufferedIOBuiltinsFactory.getFactories();
+    }
+
+    // __init__(raw, buffer_size=DEFAULT_BUFFER_SIZE)
+    @Builtin(name = __INIT__, minNumOfPositionalArgs = 2, keywordArguments = {"buffer_size"})
+    @GenerateNodeFactory
+    abstract static class InitNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        PNone init(PBuffered self, Object raw, Object bufferSize,
+                        @Cached("createOverflow()") CastToIndexNode castToIndexNode,
+                        @Cached("create()") GetClassNode getClassNode,
+                        @Cached("create(FILENO)") LookupAndCallUnaryNode callFilenoNode) {
+            int size = PBuffered.DEFAULT_BUFFER_SIZE;
+            if (bufferSize != PNone.NO_VALUE) {
+                size = castToIndexNode.execute(bufferSize);
+                if (size <= 0) {
+                    throw raise(ValueError, "buffer size must be strictly positive");
+                }
+            }
+            int fd = -1;
+            if (getClassNode.execute(raw) == getFileIOClass()) {
+                // a plain FileIO just reads and writes its file descriptor, so we can do that
+                // ourselves
+                Object fileno = callFilenoNode.executeObject(raw);
+                if (fileno instanceof Integer) {
+                    Channel channel = getContext().getResources().getFileChannel((int) fileno);
+                    if (self.isReader() ? channel instanceof ReadableByteChannel : channel instanceof WritableByteChannel) {
+                        fd = (int) fileno;
+                    }
+                }
+            }
+            self.initialize(raw, fd, size);
+            return PNone.NONE;
+        }
+
+        @TruffleBoundary
+        private PythonAbstractClass getFileIOClass() {
+            Object fileIO = getCore().lookupBuiltinModule("_io").getAttribute("FileIO");
+            return fileIO instanceof PythonAbstractClass ? (PythonAbstractClass) fileIO : null;
+        }
+
+        protected static final String FILENO = "fileno";
+    }
+
+    @Builtin(name = "raw", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class RawNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object raw(PBuffered self) {
+            return self.isInitialized() ? self.getRaw() : PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "name", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class NameNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object name(PBuffered self,
+                        @Cached("create(NAME)") GetFixedAttributeNode getNameNode) {
+            BufferedIONodes.checkAttached(this, self);
+            return getNameNode.executeObject(self.getRaw());
+        }
+
+        protected static final String NAME = "name";
+    }
+
+    @Builtin(name = "mode", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class ModeNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object mode(PBuffered self,
+                        @Cached("create(MODE)") GetFixedAttributeNode getModeNode) {
+            BufferedIONodes.checkAttached(this, self);
+            return getModeNode.executeObject(self.getRaw());
+        }
+
+        protected static final String MODE = "mode";
+    }
+
+    @Builtin(name = "closed", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class ClosedNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        boolean closed(PBuffered self) {
+            return self.isClosed();
+        }
+    }
+
+    @Builtin(name = "close", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class CloseNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PNone close(PBuffered self,
+                        @Cached("create()") FlushBufferNode flushNode,
+                        @Cached("create(CLOSE)") LookupAndCallUnaryNode callCloseNode) {
+            if (!self.isInitialized() || self.isClosed()) {
+                return PNone.NONE;
+            }
+            try {
+                if (!self.isReader()) {
+                    flushNode.execute(self);
+                }
+            } finally {
+                self.setClosed();
+                callCloseNode.executeObject(self.getRaw());
+            }
+            return PNone.NONE;
+        }
+
+        protected static final String CLOSE = "close";
+    }
+
+    @Builtin(name = "readable", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class ReadableNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        boolean readable(PBuffered self) {
+            BufferedIONodes.checkOpen(this, self);
+            return self.isReader();
+        }
+    }
+
+    @Builtin(name = "writable", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class WritableNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        boolean writable(PBuffered self) {
+            BufferedIONodes.checkOpen(this, self);
+            return !self.isReader();
+        }
+    }
+
+    @Builtin(name = "seekable", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class SeekableNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object seekable(PBuffered self,
+                        @Cached("create(SEEKABLE)") LookupAndCallUnaryNode callSeekableNode) {
+            BufferedIONodes.checkOpen(this, self);
+            return callSeekableNode.executeObject(self.getRaw());
+        }
+
+        protected static final String SEEKABLE = "seekable";
+    }
+
+    @Builtin(name = "fileno", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class FilenoNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object fileno(PBuffered self,
+                        @Cached("create(FILENO)") LookupAndCallUnaryNode callFilenoNode) {
+            BufferedIONodes.checkAttached(this, self);
+            return callFilenoNode.executeObject(self.getRaw());
+        }
+
+        protected static final String FILENO = "fileno";
+    }
+
+    @Builtin(name = "isatty", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class IsattyNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object isatty(PBuffered self,
+                        @Cached("create(ISATTY)") LookupAndCallUnaryNode callIsattyNode) {
+            BufferedIONodes.checkOpen(this, self);
+            return callIsattyNode.executeObject(self.getRaw());
+        }
+
+        protected static final String ISATTY = "isatty";
+    }
+
+    @Builtin(name = __ENTER__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class EnterNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object enter(PBuffered self) {
+            BufferedIONodes.checkOpen(this, self);
+            return self;
+        }
+    }
+
+    @Builtin(name = __EXIT__, fixedNumOfPositionalArgs = 4)
+    @GenerateNodeFactory
+    abstract static class ExitNode extends PythonBuiltinNode {
+        @Specialization
+        Object exit(PBuffered self, @SuppressWarnings("unused") Object typ, @SuppressWarnings("unused") Object val, @SuppressWarnings("unused") Object tb,
+                        @Cached("create(CLOSE)") LookupAndCallUnaryNode callCloseNode) {
+            return callCloseNode.executeObject(self);
+        }
+
+        protected static final String CLOSE = "close";
+    }
+
+    @Builtin(name = "flush", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class FlushNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PNone flush(PBuffered self,
+                        @Cached("create()") FlushBufferNode flushNode) {
+            BufferedIONodes.checkOpen(this, self);
+            if (!self.isReader()) {
+                flushNode.execute(self);
+            }
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "detach", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class DetachNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object detach(PBuffered self,
+                        @Cached("create()") FlushBufferNode flushNode) {
+            BufferedIONodes.checkOpen(this, self);
+            if (!self.isReader()) {
+                flushNode.execute(self);
+            }
+            Object raw = self.getRaw();
+            self.detach();
+            return raw;
+        }
+    }
+
+    @Builtin(name = "tell", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class TellNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        long tell(PBuffered self,
+                        @Cached("create()") BufferedTellNode tellNode) {
+            BufferedIONodes.checkOpen(this, self);
+            return tellNode.execute(self);
+        }
+    }
+
+    // seek(pos, whence=0)
+    @Builtin(name = "seek", minNumOfPositionalArgs = 2, maxNumOfPositionalArgs = 3)
+    @GenerateNodeFactory
+    abstract static class SeekNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        long seek(PBuffered self, Object pos, Object whence,
+                        @Cached("createExact()") CastToJavaLongNode castToLongNode,
+                        @Cached("createOverflow()") CastToIndexNode castToIndexNode,
+                        @Cached("create()") BufferedSeekNode seekNode) {
+            long offset = castToLongNode.execute(pos);
+            int how = whence == PNone.NO_VALUE ? 0 : castToIndexNode.execute(whence);
+            if (how < 0 || how > 2) {
+                throw raise(ValueError, "whence value %d unsupported", how);
+            }
+            BufferedIONodes.checkOpen(this, self);
+            return seekNode.execute(self, offset, how);
+        }
+    }
+}
@@ -0,0 +1,720 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.io;
+
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.OSError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.bytes.PIBytesLike;
+import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes.ToByteArrayNode;
+import com.oracle.graal.python.builtins.objects.io.BufferedIONodesFactory.FillBufferNodeGen;
+import com.oracle.graal.python.builtins.objects.io.BufferedIONodesFactory.RawSeekNodeGen;
+import com.oracle.graal.python.builtins.objects.io.BufferedIONodesFactory.RawTellNodeGen;
+import com.oracle.graal.python.builtins.objects.io.BufferedIONodesFactory.RawWriteNodeGen;
+import com.oracle.graal.python.builtins.objects.io.BufferedIONodesFactory.ReadAllNodeGen;
+import com.oracle.graal.python.builtins.objects.io.BufferedIONodesFactory.ReadIntoNodeGen;
+import com.oracle.graal.python.builtins.objects.io.BufferedIONodesFactory.ReadLineNodeGen;
+import com.oracle.graal.python.builtins.objects.io.BufferedIONodesFactory.WriteBufferedNodeGen;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+import com.oracle.graal.python.nodes.PNodeWithContext;
+import com.oracle.graal.python.nodes.control.GetIteratorNode;
+import com.oracle.graal.python.nodes.control.GetNextNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallBinaryNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallTernaryNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
+import com.oracle.graal.python.nodes.object.IsBuiltinClassProfile;
+import com.oracle.graal.python.nodes.util.CastToIndexNode;
+import com.oracle.graal.python.nodes.util.CastToJavaLongNode;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.profiles.BranchProfile;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+import com.oracle.truffle.api.profiles.ValueProfile;
+
+/**
+ * The raw I/O and buffer management shared by {@code BufferedReader}, {@code BufferedWriter}, and
+ * {@code TextIOWrapper}. Whenever the buffered stream has a channel, the raw stream's Python methods
+ * are bypassed.
+ */
+public abstract class BufferedIONodes {
+    private static final byte LF = '\n';
+    private static final byte CR = '\r';
+
+    static void checkAttached(PNodeWithContext node, PBuffered self) {
+        if (!self.isInitialized()) {
+            throw node.raise(ValueError, "raw stream has been detached");
+        }
+    }
+
+    public static void checkOpen(PNodeWithContext node, PBuffered self) {
+        checkAttached(node, self);
+        if (self.isClosed()) {
+            throw node.raise(ValueError, "I/O operation on closed file.");
+        }
+    }
+
+    @TruffleBoundary(allowInlining = true)
+    static int readChannel(ReadableByteChannel channel, ByteBuffer buffer) throws IOException {
+        // move the unread bytes to the front and read behind them
+        buffer.compact();
+        try {
+            return channel.read(buffer);
+        } finally {
+            buffer.flip();
+        }
+    }
+
+    @TruffleBoundary(allowInlining = true)
+    static int readChannel(ReadableByteChannel channel, byte[] target, int offset, int len) throws IOException {
+        return channel.read(ByteBuffer.wrap(target, offset, len));
+    }
+
+    @TruffleBoundary(allowInlining = true)
+    static void writeChannel(WritableByteChannel channel, byte[] data, int offset, int len) throws IOException {
+        ByteBuffer src = ByteBuffer.wrap(data, offset, len);
+        while (src.hasRemaining()) {
+            channel.write(src);
+        }
+    }
+
+    @TruffleBoundary(allowInlining = true)
+    static void append(ByteBuffer buffer, byte[] data, int len) {
+        buffer.compact();
+        buffer.put(data, 0, len);
+        buffer.flip();
+    }
+
+    /**
+     * Appends {@code data[from:to]} to {@code acc}, which holds {@code accLen} bytes, and returns the
+     * (possibly reallocated) accumulator.
+     */
+    static byte[] accumulate(byte[] acc, int accLen, byte[] data, int from, int to) {
+        int n = to - from;
+        byte[] result = acc;
+        if (result == null) {
+            result = new byte[Math.max(n, 64)];
+        } else if (accLen + n > result.length) {
+            result = Arrays.copyOf(result, Math.max(accLen + n, result.length * 2));
+        }
+        System.arraycopy(data, from, result, accLen, n);
+        return result;
+    }
+
+    abstract static class BufferedIOBaseNode extends PNodeWithContext {
+        protected static final String READ = "read";
+        protected static final String WRITE = "write";
+        protected static final String TELL = "tell";
+        protected static final String SEEK = "seek";
+
+        protected static boolean hasFd(PBuffered self) {
+            return self.getFd() >= 0;
+        }
+
+        protected final ReadableByteChannel getReadableChannel(PBuffered self, ValueProfile channelProfile) {
+            Channel channel = getContext().getResources().getFileChannel(self.getFd(), channelProfile);
+            if (channel instanceof ReadableByteChannel) {
+                return (ReadableByteChannel) channel;
+            }
+            throw raise(OSError, "[Errno 9] Bad file descriptor");
+        }
+
+        protected final WritableByteChannel getWritableChannel(PBuffered self, ValueProfile channelProfile) {
+            Channel channel = getContext().getResources().getFileChannel(self.getFd(), channelProfile);
+            if (channel instanceof WritableByteChannel) {
+                return (WritableByteChannel) channel;
+            }
+            throw raise(OSError, "[Errno 9] Bad file descriptor");
+        }
+
+        protected final SeekableByteChannel getSeekableChannel(PBuffered self, ValueProfile channelProfile) {
+            Channel channel = getContext().getResources().getFileChannel(self.getFd(), channelProfile);
+            if (channel instanceof SeekableByteChannel) {
+                return (SeekableByteChannel) channel;
+            } else if (channel == null) {
+                throw raise(OSError, "[Errno 9] Bad file descriptor");
+            }
+            throw raise(OSError, "[Errno 29] Illegal seek");
+        }
+    }
+
+    /**
+     * Raises {@code io.UnsupportedOperation}, which is a Python class defined in {@code _io}.
+     */
+    public static final class RaiseUnsupportedNode extends PNodeWithContext {
+        public PException execute(String message) {
+            throw raise(factory().createBaseException(getUnsupportedOperation(), message, new Object[0]));
+        }
+
+        @TruffleBoundary
+        private LazyPythonClass getUnsupportedOperation() {
+            return (LazyPythonClass) getCore().lookupBuiltinModule("_io").getAttribute("UnsupportedOperation");
+        }
+
+        public static RaiseUnsupportedNode create() {
+            return new RaiseUnsupportedNode();
+        }
+    }
+
+    /**
+     * Calls {@code write} on a stream for every item of an iterable.
+     */
+    public static final class WriteLinesNode extends PNodeWithContext {
+        private static final String WRITE = "write";
+
+        @Child private GetIteratorNode getIteratorNode = GetIteratorNode.create();
+        @Child private GetNextNode getNextNode = GetNextNode.create();
+        @Child private LookupAndCallBinaryNode callWriteNode = LookupAndCallBinaryNode.create(WRITE);
+        private final IsBuiltinClassProfile errorProfile = IsBuiltinClassProfile.create();
+
+        public void execute(Object stream, Object lines) {
+            Object iterator = getIteratorNode.executeWith(lines);
+            while (true) {
+                Object line;
+                try {
+                    line = getNextNode.execute(iterator);
+                } catch (PException e) {
+                    e.expectStopIteration(errorProfile);
+                    return;
+                }
+                callWriteNode.executeObject(stream, line);
+            }
+        }
+
+        public static WriteLinesNode create() {
+            return new WriteLinesNode();
+        }
+    }
+
+    /**
+     * Reads more data from the raw stream into the buffer of a reader, keeping the bytes that have
+     * not been consumed yet. Returns the number of bytes read, {@code 0} if a non-blocking raw stream
+     * has no data, or {@code -1} at EOF.
+     */
+    public abstract static class FillBufferNode extends BufferedIOBaseNode {
+        public abstract int execute(PBuffered self);
+
+        @Specialization(guards = "hasFd(self)")
+        int doChannel(PBuffered self,
+                        @Cached("createClassProfile()") ValueProfile channelProfile) {
+            try {
+                return readChannel(getReadableChannel(self, channelProfile), self.getBuffer());
+            } catch (IOException e) {
+                throw raise(OSError, e);
+            }
+        }
+
+        @Specialization(guards = "!hasFd(self)")
+        int doRaw(PBuffered self,
+                        @Cached("create(READ)") LookupAndCallBinaryNode callReadNode,
+                        @Cached("create(false)") ToByteArrayNode toByteArrayNode) {
+            ByteBuffer buffer = self.getBuffer();
+            int free = buffer.capacity() - buffer.remaining();
+            Object data = callReadNode.executeObject(self.getRaw(), free);
+            if (data == PNone.NONE) {
+                return 0;
+            } else if (!(data instanceof PIBytesLike)) {
+                throw raise(TypeError, "read() should return bytes, not '%p'", data);
+            }
+            SequenceStorage storage = ((PIBytesLike) data).getSequenceStorage();
+            int n = storage.length();
+            if (n == 0) {
+                return -1;
+            } else if (n > free) {
+                throw raise(OSError, "raw read() returned invalid length %d (should have been between 0 and %d)", n, free);
+            }
+            append(buffer, toByteArrayNode.execute(storage), n);
+            return n;
+        }
+
+        public static FillBufferNode create() {
+            return FillBufferNodeGen.create();
+        }
+    }
+
+    /**
+     * Writes bytes to the raw stream, bypassing the buffer.
+     */
+    public abstract static class RawWriteNode extends BufferedIOBaseNode {
+        public abstract void execute(PBuffered self, byte[] data, int offset, int len);
+
+        @Specialization(guards = "hasFd(self)")
+        void doChannel(PBuffered self, byte[] data, int offset, int len,
+                        @Cached("createClassProfile()") ValueProfile channelProfile) {
+            try {
+                writeChannel(getWritableChannel(self, channelProfile), data, offset, len);
+            } catch (IOException e) {
+                throw raise(OSError, e);
+            }
+        }
+
+        @Specialization(guards = "!hasFd(self)")
+        void doRaw(PBuffered self, byte[] data, int offset, int len,
+                        @Cached("create(WRITE)") LookupAndCallBinaryNode callWriteNode,
+                        @Cached("createOverflow()") CastToIndexNode castToIndexNode) {
+            int written = 0;
+            while (written < len) {
+                Object n = callWriteNode.executeObject(self.getRaw(), factory().createBytes(Arrays.copyOfRange(data, offset + written, offset + len)));
+                if (n == PNone.NONE) {
+                    throw raise(PythonBuiltinClassType.BlockingIOError, "write could not complete without blocking");
+                }
+                written += castToIndexNode.execute(n);
+            }
+        }
+
+        public static RawWriteNode create() {
+            return RawWriteNodeGen.create();
+        }
+    }
+
+    /**
+     * Writes the pending bytes of a writer to the raw stream and empties the buffer.
+     */
+    public static final class FlushBufferNode extends BufferedIOBaseNode {
+        @Child private RawWriteNode rawWriteNode = RawWriteNode.create();
+
+        public void execute(PBuffered self) {
+            ByteBuffer buffer = self.getBuffer();
+            int len = buffer.position();
+            if (len > 0) {
+                rawWriteNode.execute(self, buffer.array(), 0, len);
+                buffer.clear();
+            }
+        }
+
+        public static FlushBufferNode create() {
+            return new FlushBufferNode();
+        }
+    }
+
+    /**
+     * Appends bytes to a writer's buffer, flushing it when it is full. Data that is at least as
+     * large as the buffer is written straight through without copying it.
+     */
+    public abstract static class WriteBufferedNode extends BufferedIOBaseNode {
+        public abstract void execute(PBuffered self, byte[] data, int len);
+
+        @Specialization
+        void doIt(PBuffered self, byte[] data, int len,
+                        @Cached("create()") FlushBufferNode flushNode,
+                        @Cached("create()") RawWriteNode rawWriteNode,
+                        @Cached("create()") BranchProfile largeWriteProfile) {
+            ByteBuffer buffer = self.getBuffer();
+            if (len <= buffer.remaining()) {
+                put(buffer, data, len);
+                return;
+            }
+            flushNode.execute(self);
+            if (len < buffer.capacity()) {
+                put(buffer, data, len);
+            } else {
+                largeWriteProfile.enter();
+                rawWriteNode.execute(self, data, 0, len);
+            }
+        }
+
+        @TruffleBoundary(allowInlining = true)
+        private static void put(ByteBuffer buffer, byte[] data, int len) {
+            buffer.put(data, 0, len);
+        }
+
+        public static WriteBufferedNode create() {
+            return WriteBufferedNodeGen.create();
+        }
+    }
+
+    /**
+     * The position of the raw stream.
+     */
+    public abstract static class RawTellNode extends BufferedIOBaseNode {
+        public abstract long execute(PBuffered self);
+
+        @Specialization(guards = "hasFd(self)")
+        long doChannel(PBuffered self,
+                        @Cached("createClassProfile()") ValueProfile channelProfile) {
+            try {
+                return position(getSeekableChannel(self, channelProfile));
+            } catch (IOException e) {
+                throw raise(OSError, e);
+            }
+        }
+
+        @Specialization(guards = "!hasFd(self)")
+        long doRaw(PBuffered self,
+                        @Cached("create(TELL)") LookupAndCallUnaryNode callTellNode,
+                        @Cached("createExact()") CastToJavaLongNode castToLongNode) {
+            return castToLongNode.execute(callTellNode.executeObject(self.getRaw()));
+        }
+
+        @TruffleBoundary(allowInlining = true)
+        private static long position(SeekableByteChannel channel) throws IOException {
+            return channel.position();
+        }
+
+        public static RawTellNode create() {
+            return RawTellNodeGen.create();
+        }
+    }
+
+    /**
+     * Moves the raw stream to a new position and returns it.
+     */
+    public abstract static class RawSeekNode extends BufferedIOBaseNode {
+        public abstract long execute(PBuffered self, long offset, int whence);
+
+        @Specialization(guards = "hasFd(self)")
+        long doChannel(PBuffered self, long offset, int whence,
+                        @Cached("createClassProfile()") ValueProfile channelProfile) {
+            SeekableByteChannel channel = getSeekableChannel(self, channelProfile);
+            try {
+                long pos;
+                switch (whence) {
+                    case 0:
+                        pos = offset;
+                        break;
+                    case 1:
+                        pos = position(channel) + offset;
+                        break;
+                    case 2:
+                        pos = size(channel) + offset;
+                        break;
+                    default:
+                        throw raise(ValueError, "invalid whence (%d, should be 0, 1 or 2)", whence);
+                }
+                if (pos < 0) {
+                    throw raise(OSError, "[Errno 22] Invalid argument");
+                }
+                position(channel, pos);
+                return pos;
+            } catch (IOException e) {
+                throw raise(OSError, e);
+            }
+        }
+
+        @Specialization(guards = "!hasFd(self)")
+        long doRaw(PBuffered self, long offset, int whence,
+                        @Cached("create(SEEK)") LookupAndCallTernaryNode callSeekNode,
+                        @Cached("createExact()") CastToJavaLongNode castToLongNode) {
+            Object pyOffset = offset;
+            Object pyWhence = whence;
+            return castToLongNode.execute(callSeekNode.execute(self.getRaw(), pyOffset, pyWhence));
+        }
+
+        @TruffleBoundary(allowInlining = true)
+        private static long position(SeekableByteChannel channel) throws IOException {
+            return channel.position();
+        }
+
+        @TruffleBoundary(allowInlining = true)
+        private static void position(SeekableByteChannel channel, long pos) throws IOException {
+            channel.position(pos);
+        }
+
+        @TruffleBoundary(allowInlining = true)
+        private static long size(SeekableByteChannel channel) throws IOException {
+            return channel.size();
+        }
+
+        public static RawSeekNode create() {
+            return RawSeekNodeGen.create();
+        }
+    }
+
+    /**
+     * The position of a buffered stream as seen by its user, i.e., the raw position adjusted by
+     * what is read ahead or pending in the buffer.
+     */
+    public static final class BufferedTellNode extends BufferedIOBaseNode {
+        @Child private RawTellNode rawTellNode = RawTellNode.create();
+
+        public long execute(PBuffered self) {
+            ByteBuffer buffer = self.getBuffer();
+            long pos = rawTellNode.execute(self);
+            if (self.isReader()) {
+                pos -= buffer.remaining();
+            } else {
+                pos += buffer.position();
+            }
+            return Math.max(pos, 0);
+        }
+
+        public static BufferedTellNode create() {
+            return new BufferedTellNode();
+        }
+    }
+
+    /**
+     * Moves a buffered stream to a new position and returns it. A writer is flushed first. A
+     * reader just moves within its buffer if the target position has already been read ahead.
+     */
+    public static final class BufferedSeekNode extends BufferedIOBaseNode {
+        @Child private RawTellNode rawTellNode = RawTellNode.create();
+        @Child private RawSeekNode rawSeekNode = RawSeekNode.create();
+        @Child private FlushBufferNode flushNode = FlushBufferNode.create();
+        private final ConditionProfile inBufferProfile = ConditionProfile.createBinaryProfile();
+
+        public long execute(PBuffered self, long pos, int whence) {
+            ByteBuffer buffer = self.getBuffer();
+            long offset = pos;
+            if (!self.isReader()) {
+                flushNode.execute(self);
+                return rawSeekNode.execute(self, offset, whence);
+            }
+            if (whence != 2) {
+                // try to just move within what we have already read
+                long rawPos = rawTellNode.execute(self);
+                long bufferStart = rawPos - buffer.limit();
+                long target = whence == 0 ? offset : rawPos - buffer.remaining() + offset;
+                if (inBufferProfile.profile(target >= bufferStart && target <= rawPos)) {
+                    buffer.position((int) (target - bufferStart));
+                    return target;
+                }
+                if (whence == 1) {
+                    offset -= buffer.remaining();
+                }
+            }
+            buffer.limit(0);
+            return rawSeekNode.execute(self, offset, whence);
+        }
+
+        public static BufferedSeekNode create() {
+            return new BufferedSeekNode();
+        }
+    }
+
+    /**
+     * Reads up to {@code len} bytes into {@code target}, stopping early only at EOF or if a
+     * non-blocking raw stream has no more data. Large reads go from the channel straight into the
+     * target.
+     */
+    public abstract static class ReadIntoNode extends BufferedIOBaseNode {
+        public abstract int execute(PBuffered self, byte[] target, int offset, int len);
+
+        @Specialization
+        int doIt(PBuffered self, byte[] target, int offset, int len,
+                        @Cached("create()") FillBufferNode fillNode,
+                        @Cached("create()") BranchProfile directReadProfile,
+                        @Cached("createClassProfile()") ValueProfile channelProfile) {
+            ByteBuffer buffer = self.getBuffer();
+            int copied = Math.min(len, buffer.remaining());
+            System.arraycopy(buffer.array(), buffer.position(), target, offset, copied);
+            buffer.position(buffer.position() + copied);
+            while (copied < len) {
+                int n;
+                if (len - copied >= buffer.capacity() && hasFd(self)) {
+                    directReadProfile.enter();
+                    try {
+                        n = readChannel(getReadableChannel(self, channelProfile), target, offset + copied, len - copied);
+                    } catch (IOException e) {
+                        throw raise(OSError, e);
+                    }
+                    if (n <= 0) {
+                        break;
+                    }
+                } else {
+                    if (fillNode.execute(self) <= 0) {
+                        break;
+                    }
+                    n = Math.min(len - copied, buffer.remaining());
+                    System.arraycopy(buffer.array(), buffer.position(), target, offset + copied, n);
+                    buffer.position(buffer.position() + n);
+                }
+                copied += n;
+            }
+            return copied;
+        }
+
+        public static ReadIntoNode create() {
+            return ReadIntoNodeGen.create();
+        }
+    }
+
+    /**
+     * Reads all bytes up to EOF.
+     */
+    public abstract static class ReadAllNode extends BufferedIOBaseNode {
+        public abstract byte[] execute(PBuffered self);
+
+        @Specialization
+        byte[] doIt(PBuffered self,
+                        @Cached("create()") FillBufferNode fillNode) {
+            ByteBuffer buffer = self.getBuffer();
+            byte[] acc = null;
+            int accLen = 0;
+            do {
+                int n = buffer.remaining();
+                if (n > 0) {
+                    acc = accumulate(acc, accLen, buffer.array(), buffer.position(), buffer.limit());
+                    accLen += n;
+                    buffer.position(buffer.limit());
+                }
+            } while (fillNode.execute(self) > 0);
+            if (acc == null) {
+                return new byte[0];
+            }
+            return accLen == acc.length ? acc : Arrays.copyOf(acc, accLen);
+        }
+
+        public static ReadAllNode create() {
+            return ReadAllNodeGen.create();
+        }
+    }
+
+    /**
+     * Reads one line, scanning for the line terminator directly in the buffer. If the line is found
+     * in the buffer as it is, it is copied out once, otherwise the pieces are accumulated across
+     * refills. The {@code limit} is counted in characters: for {@code utf8}, only bytes that start a
+     * UTF-8 sequence are counted and a sequence is never split; otherwise each byte counts. With
+     * {@link PTextIO#NEWLINE_NONE}, this just reads {@code limit} characters.
+     */
+    public abstract static class ReadLineNode extends BufferedIOBaseNode {
+        public abstract byte[] execute(PBuffered self, int newline, int limit, boolean utf8);
+
+        @Specialization
+        byte[] doIt(PBuffered self, int newline, int limit, boolean utf8,
+                        @Cached("create()") FillBufferNode fillNode) {
+            ByteBuffer buffer = self.getBuffer();
+            byte[] acc = null;
+            int accLen = 0;
+            int chars = 0;
+            int continuation = 0;
+            byte prev = 0;
+            boolean pendingCR = false;
+            while (true) {
+                if (!buffer.hasRemaining() && fillNode.execute(self) <= 0) {
+                    break;
+                }
+                byte[] arr = buffer.array();
+                int start = buffer.position();
+                int end = buffer.limit();
+                int i = start;
+                boolean done = false;
+                if (pendingCR) {
+                    // a universal newline '\r' was the last byte of the previous chunk
+                    if (arr[i] == LF) {
+                        i++;
+                    }
+                    done = true;
+                } else {
+                    for (; i < end; i++) {
+                        byte b = arr[i];
+                        if (continuation > 0) {
+                            continuation--;
+                        } else if (limit >= 0 && chars >= limit) {
+                            done = true;
+                            break;
+                        } else {
+                            chars++;
+                            if (utf8) {
+                                continuation = utf8Continuation(b);
+                            }
+                        }
+                        if (b == LF) {
+                            if (newline == PTextIO.NEWLINE_LF || newline == PTextIO.NEWLINE_UNIVERSAL || (newline == PTextIO.NEWLINE_CRLF && prev == CR)) {
+                                i++;
+                                done = true;
+                                break;
+                            }
+                        } else if (b == CR) {
+                            if (newline == PTextIO.NEWLINE_CR) {
+                                i++;
+                                done = true;
+                                break;
+                            } else if (newline == PTextIO.NEWLINE_UNIVERSAL) {
+                                if (i + 1 < end) {
+                                    i += arr[i + 1] == LF ? 2 : 1;
+                                    done = true;
+                                    break;
+                                }
+                                pendingCR = true;
+                            }
+                        }
+                        prev = b;
+                    }
+                }
+                buffer.position(i);
+                if (done && acc == null) {
+                    return Arrays.copyOfRange(arr, start, i);
+                }
+                acc = accumulate(acc, accLen, arr, start, i);
+                accLen += i - start;
+                if (done) {
+                    break;
+                }
+            }
+            if (acc == null) {
+                return new byte[0];
+            }
+            return accLen == acc.length ? acc : Arrays.copyOf(acc, accLen);
+        }
+
+        /**
+         * The number of continuation bytes following a UTF-8 lead byte.
+         */
+        private static int utf8Continuation(byte b) {
+            if ((b & 0xE0) == 0xC0) {
+                return 1;
+            } else if ((b & 0xF0) == 0xE0) {
+                return 2;
+            } else if ((b & 0xF8) == 0xF0) {
+                return 3;
+            }
+            return 0;
+        }
+
+        public static ReadLineNode create() {
+            return ReadLineNodeGen.create();
+        }
+    }
+}
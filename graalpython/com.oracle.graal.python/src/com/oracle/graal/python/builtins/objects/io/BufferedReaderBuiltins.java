@@ -0,0 +1,292 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.io;
+
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__ITER__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__NEXT__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.StopIteration;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.bytes.PByteArray;
+import com.oracle.graal.python.builtins.objects.bytes.PBytes;
+import com.oracle.graal.python.builtins.objects.io.BufferedIONodes.FillBufferNode;
+import com.oracle.graal.python.builtins.objects.io.BufferedIONodes.ReadAllNode;
+import com.oracle.graal.python.builtins.objects.io.BufferedIONodes.ReadIntoNode;
+import com.oracle.graal.python.builtins.objects.io.BufferedIONodes.ReadLineNode;
+import com.oracle.graal.python.builtins.objects.list.PList;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallTernaryNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.util.CastToIndexNode;
+import com.oracle.graal.python.runtime.sequence.storage.ByteSequenceStorage;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PBufferedReader)
+public class BufferedReaderBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return BufferedReaderBuiltinsFactory.getFactories();
+    }
+
+    abstract static class SizedReadNode extends PythonBinaryBuiltinNode {
+        @Child private CastToIndexNode castToIndexNode;
+
+        /**
+         * The requested size, or {@code -1} for "as much as possible".
+         */
+        protected final int getSize(Object size) {
+            if (size == PNone.NO_VALUE || size == PNone.NONE) {
+                return -1;
+            }
+            if (castToIndexNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                castToIndexNode = insert(CastToIndexNode.createOverflow());
+            }
+            return Math.max(castToIndexNode.execute(size), -1);
+        }
+    }
+
+    // read(size=-1)
+    @Builtin(name = "read", minNumOfPositionalArgs = 1, maxNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class ReadNode extends SizedReadNode {
+        @Specialization
+        PBytes read(PBuffered self, Object size,
+                        @Cached("create()") ReadAllNode readAllNode,
+                        @Cached("create()") ReadIntoNode readIntoNode) {
+            int n = getSize(size);
+            BufferedIONodes.checkOpen(this, self);
+            if (n < 0) {
+                return factory().createBytes(readAllNode.execute(self));
+            }
+            byte[] data = new byte[n];
+            int read = readIntoNode.execute(self, data, 0, n);
+            return factory().createBytes(read == n ? data : Arrays.copyOf(data, read));
+        }
+    }
+
+    // read1(size=-1)
+    @Builtin(name = "read1", minNumOfPositionalArgs = 1, maxNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class Read1Node extends SizedReadNode {
+        @Specialization
+        PBytes read1(PBuffered self, Object size,
+                        @Cached("create()") FillBufferNode fillNode) {
+            int n = getSize(size);
+            BufferedIONodes.checkOpen(this, self);
+            ByteBuffer buffer = self.getBuffer();
+            if (!buffer.hasRemaining()) {
+                // at most one raw read
+                fillNode.execute(self);
+            }
+            int len = n < 0 ? buffer.remaining() : Math.min(n, buffer.remaining());
+            int start = buffer.position();
+            buffer.position(start + len);
+            return factory().createBytes(Arrays.copyOfRange(buffer.array(), start, start + len));
+        }
+    }
+
+    // peek(size=0)
+    @Builtin(name = "peek", minNumOfPositionalArgs = 1, maxNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class PeekNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        PBytes peek(PBuffered self, @SuppressWarnings("unused") Object size,
+                        @Cached("create()") FillBufferNode fillNode) {
+            BufferedIONodes.checkOpen(this, self);
+            ByteBuffer buffer = self.getBuffer();
+            if (!buffer.hasRemaining()) {
+                fillNode.execute(self);
+            }
+            return factory().createBytes(Arrays.copyOfRange(buffer.array(), buffer.position(), buffer.limit()));
+        }
+    }
+
+    /**
+     * Reads straight into the storage of a {@code bytearray}. Any other writable buffer gets the
+     * data via slice assignment.
+     */
+    abstract static class BaseReadIntoNode extends PythonBinaryBuiltinNode {
+        protected static boolean hasByteStorage(Object b) {
+            return b instanceof PByteArray && ((PByteArray) b).getSequenceStorage() instanceof ByteSequenceStorage;
+        }
+
+        @Specialization(guards = "hasByteStorage(b)")
+        int readIntoByteArray(PBuffered self, PByteArray b,
+                        @Cached("create()") ReadIntoNode readIntoNode) {
+            BufferedIONodes.checkOpen(this, self);
+            ByteSequenceStorage storage = (ByteSequenceStorage) b.getSequenceStorage();
+            return readInto(self, storage.getInternalByteArray(), 0, storage.length(), readIntoNode);
+        }
+
+        @Specialization(guards = "!hasByteStorage(b)")
+        int readIntoBuffer(PBuffered self, Object b,
+                        @Cached("create(__LEN__)") LookupAndCallUnaryNode callLenNode,
+                        @Cached("create(__SETITEM__)") LookupAndCallTernaryNode callSetItemNode,
+                        @Cached("createOverflow()") CastToIndexNode castToIndexNode,
+                        @Cached("create()") ReadIntoNode readIntoNode) {
+            BufferedIONodes.checkOpen(this, self);
+            int len = castToIndexNode.execute(callLenNode.executeObject(b));
+            byte[] data = new byte[len];
+            int n = readInto(self, data, 0, len, readIntoNode);
+            callSetItemNode.execute(b, factory().createSlice(0, n, 1), factory().createBytes(n == len ? data : Arrays.copyOf(data, n)));
+            return n;
+        }
+
+        protected abstract int readInto(PBuffered self, byte[] target, int offset, int len, ReadIntoNode readIntoNode);
+    }
+
+    @Builtin(name = "readinto", fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class ReadIntoBuiltinNode extends BaseReadIntoNode {
+        @Override
+        protected int readInto(PBuffered self, byte[] target, int offset, int len, ReadIntoNode readIntoNode) {
+            return readIntoNode.execute(self, target, offset, len);
+        }
+    }
+
+    @Builtin(name = "readinto1", fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class ReadInto1Node extends BaseReadIntoNode {
+        @Child private FillBufferNode fillNode = FillBufferNode.create();
+
+        @Override
+        protected int readInto(PBuffered self, byte[] target, int offset, int len, ReadIntoNode readIntoNode) {
+            ByteBuffer buffer = self.getBuffer();
+            if (!buffer.hasRemaining() && len > 0) {
+                // at most one raw read
+                fillNode.execute(self);
+            }
+            int n = Math.min(len, buffer.remaining());
+            System.arraycopy(buffer.array(), buffer.position(), target, offset, n);
+            buffer.position(buffer.position() + n);
+            return n;
+        }
+    }
+
+    // readline(size=-1)
+    @Builtin(name = "readline", minNumOfPositionalArgs = 1, maxNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class ReadLineBuiltinNode extends SizedReadNode {
+        @Specialization
+        PBytes readline(PBuffered self, Object size,
+                        @Cached("create()") ReadLineNode readLineNode) {
+            int limit = getSize(size);
+            BufferedIONodes.checkOpen(this, self);
+            return factory().createBytes(readLineNode.execute(self, PTextIO.NEWLINE_LF, limit, false));
+        }
+    }
+
+    // readlines(hint=-1)
+    @Builtin(name = "readlines", minNumOfPositionalArgs = 1, maxNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class ReadLinesNode extends SizedReadNode {
+        @Specialization
+        PList readlines(PBuffered self, Object hint,
+                        @Cached("create()") ReadLineNode readLineNode) {
+            int max = getSize(hint);
+            BufferedIONodes.checkOpen(this, self);
+            List<Object> lines = new ArrayList<>();
+            int total = 0;
+            while (max <= 0 || total <= max) {
+                byte[] line = readLineNode.execute(self, PTextIO.NEWLINE_LF, -1, false);
+                if (line.length == 0) {
+                    break;
+                }
+                add(lines, factory().createBytes(line));
+                total += line.length;
+            }
+            return factory().createList(toArray(lines));
+        }
+
+        @TruffleBoundary
+        private static void add(List<Object> lines, Object line) {
+            lines.add(line);
+        }
+
+        @TruffleBoundary
+        private static Object[] toArray(List<Object> lines) {
+            return lines.toArray();
+        }
+    }
+
+    @Builtin(name = __ITER__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class IterNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PBuffered iter(PBuffered self) {
+            BufferedIONodes.checkOpen(this, self);
+            return self;
+        }
+    }
+
+    @Builtin(name = __NEXT__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class NextNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PBytes next(PBuffered self,
+                        @Cached("create()") ReadLineNode readLineNode) {
+            BufferedIONodes.checkOpen(this, self);
+            byte[] line = readLineNode.execute(self, PTextIO.NEWLINE_LF, -1, false);
+            if (line.length == 0) {
+                throw raise(StopIteration);
+            }
+            return factory().createBytes(line);
+        }
+    }
+}
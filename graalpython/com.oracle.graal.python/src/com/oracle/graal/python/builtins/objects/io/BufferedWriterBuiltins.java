@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.io;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.bytes.BytesNodes.ToBytesNode;
+import com.oracle.graal.python.builtins.objects.bytes.PIBytesLike;
+import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes.ToByteArrayNode;
+import com.oracle.graal.python.builtins.objects.io.BufferedIONodes.WriteBufferedNode;
+import com.oracle.graal.python.builtins.objects.io.BufferedIONodes.WriteLinesNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PBufferedWriter)
+public class BufferedWriterBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return BufferedWriterBuiltinsFactory.getFactories();
+    }
+
+    @Builtin(name = "write", fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class WriteNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        int write(PBuffered self, PIBytesLike data,
+                        @Cached("create(false)") ToByteArrayNode toByteArrayNode,
+                        @Cached("create()") WriteBufferedNode writeNode) {
+            BufferedIONodes.checkOpen(this, self);
+            // the storage's array is only read up to the length, so it need not be copied
+            SequenceStorage storage = data.getSequenceStorage();
+            int len = storage.length();
+            writeNode.execute(self, toByteArrayNode.execute(storage), len);
+            return len;
+        }
+
+        @Specialization(guards = "!isBytes(data)")
+        int write(PBuffered self, Object data,
+                        @Cached("create()") ToBytesNode toBytesNode,
+                        @Cached("create()") WriteBufferedNode writeNode) {
+            BufferedIONodes.checkOpen(this, self);
+            byte[] bytes = toBytesNode.execute(data);
+            writeNode.execute(self, bytes, bytes.length);
+            return bytes.length;
+        }
+    }
+
+    @Builtin(name = "writelines", fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class WriteLinesBuiltinNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        PNone writelines(PBuffered self, Object lines,
+                        @Cached("create()") WriteLinesNode writeLinesNode) {
+            BufferedIONodes.checkOpen(this, self);
+            writeLinesNode.execute(self, lines);
+            return PNone.NONE;
+        }
+    }
+}
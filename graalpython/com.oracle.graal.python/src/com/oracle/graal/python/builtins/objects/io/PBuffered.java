@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.io;
+
+import java.nio.ByteBuffer;
+
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+
+/**
+ * A buffered binary stream ({@code _io.BufferedReader} or {@code _io.BufferedWriter}). The buffer
+ * is allocated once per stream and reused for every read or write. For a reader, the bytes between
+ * the buffer's position and limit are the ones read ahead from the raw stream but not yet consumed.
+ * For a writer, the bytes between zero and the buffer's position are pending to be written.
+ *
+ * If the raw stream is a plain {@code FileIO}, its file descriptor is remembered and the channel
+ * behind it in {@code PosixResources} is used directly. Otherwise, all raw I/O goes through the raw
+ * object's Python methods.
+ */
+public final class PBuffered extends PythonBuiltinObject {
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private final boolean reader;
+    private Object raw;
+    private int fd = -1;
+    private ByteBuffer buffer;
+    private boolean closed;
+
+    public PBuffered(LazyPythonClass cls, boolean reader) {
+        super(cls);
+        this.reader = reader;
+    }
+
+    public void initialize(Object rawStream, int rawFd, int bufferSize) {
+        this.raw = rawStream;
+        this.fd = rawFd;
+        this.buffer = ByteBuffer.allocate(bufferSize);
+        if (reader) {
+            // nothing read ahead yet
+            buffer.limit(0);
+        }
+        this.closed = false;
+    }
+
+    public boolean isReader() {
+        return reader;
+    }
+
+    public boolean isInitialized() {
+        return raw != null;
+    }
+
+    public Object getRaw() {
+        return raw;
+    }
+
+    /**
+     * The raw stream's file descriptor, or {@code -1} if the raw stream must be accessed via its
+     * Python methods.
+     */
+    public int getFd() {
+        return fd;
+    }
+
+    public ByteBuffer getBuffer() {
+        return buffer;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    public void setClosed() {
+        this.closed = true;
+    }
+
+    public void detach() {
+        this.raw = null;
+        this.fd = -1;
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.io;
+
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+
+/**
+ * A text stream ({@code _io.TextIOWrapper}) on top of a {@link PBuffered}. Text is decoded straight
+ * from the bytes in the buffered stream's buffer, so there is no decoder state between calls and
+ * {@code tell()} is just the byte position of the underlying buffered stream.
+ *
+ * This only supports encodings where {@code '\n'} and {@code '\r'} are single bytes that cannot
+ * appear within the encoding of another character (i.e. ASCII-compatible single-byte encodings and
+ * UTF-8), which allows newline scanning on the raw bytes.
+ */
+public final class PTextIO extends PythonBuiltinObject {
+    /** No line terminator, used for reading a number of characters. */
+    public static final int NEWLINE_NONE = -1;
+    public static final int NEWLINE_LF = 0;
+    public static final int NEWLINE_CR = 1;
+    public static final int NEWLINE_CRLF = 2;
+    /** Any of {@code '\n'}, {@code '\r'}, or {@code "\r\n"} terminates a line. */
+    public static final int NEWLINE_UNIVERSAL = 3;
+
+    private PBuffered buffer;
+    private String encoding;
+    private String errors;
+    private Charset charset;
+    private CharsetDecoder decoder;
+    private CharsetEncoder encoder;
+    private boolean utf8;
+    private int readNewline;
+    private boolean translate;
+    private String writeNewline;
+    private boolean lineBuffering;
+    private Object mode;
+
+    public PTextIO(LazyPythonClass cls) {
+        super(cls);
+    }
+
+    public void initialize(PBuffered bufferedStream, String encodingName, Charset cs, String errorsName, CodingErrorAction errorAction, String newline, boolean lineBuffered) {
+        this.buffer = bufferedStream;
+        this.encoding = encodingName;
+        this.errors = errorsName;
+        this.charset = cs;
+        this.utf8 = "UTF-8".equals(cs.name());
+        this.decoder = cs.newDecoder().onMalformedInput(errorAction).onUnmappableCharacter(errorAction);
+        this.encoder = cs.newEncoder().onMalformedInput(errorAction).onUnmappableCharacter(errorAction);
+        if (newline == null) {
+            this.readNewline = NEWLINE_UNIVERSAL;
+            this.translate = true;
+            // the line separator is '\n' on all platforms we support
+            this.writeNewline = null;
+        } else if (newline.isEmpty()) {
+            this.readNewline = NEWLINE_UNIVERSAL;
+            this.translate = false;
+            this.writeNewline = null;
+        } else {
+            this.translate = false;
+            switch (newline) {
+                case "\r":
+                    this.readNewline = NEWLINE_CR;
+                    this.writeNewline = newline;
+                    break;
+                case "\r\n":
+                    this.readNewline = NEWLINE_CRLF;
+                    this.writeNewline = newline;
+                    break;
+                default:
+                    this.readNewline = NEWLINE_LF;
+                    this.writeNewline = null;
+                    break;
+            }
+        }
+        this.lineBuffering = lineBuffered;
+    }
+
+    public boolean isInitialized() {
+        return buffer != null;
+    }
+
+    public PBuffered getBuffer() {
+        return buffer;
+    }
+
+    public String getEncoding() {
+        return encoding;
+    }
+
+    public String getErrors() {
+        return errors;
+    }
+
+    public Charset getCharset() {
+        return charset;
+    }
+
+    public CharsetDecoder getDecoder() {
+        return decoder;
+    }
+
+    public CharsetEncoder getEncoder() {
+        return encoder;
+    }
+
+    /**
+     * Whether characters have to be counted as UTF-8 sequences, otherwise every byte is one
+     * character.
+     */
+    public boolean isUTF8() {
+        return utf8;
+    }
+
+    public int getReadNewline() {
+        return readNewline;
+    }
+
+    /**
+     * Whether {@code '\r'} and {@code "\r\n"} are translated to {@code '\n'} on input.
+     */
+    public boolean isTranslate() {
+        return translate;
+    }
+
+    /**
+     * The string {@code '\n'} is translated to on output, or {@code null} if no translation is
+     * necessary.
+     */
+    public String getWriteNewline() {
+        return writeNewline;
+    }
+
+    public boolean isLineBuffering() {
+        return lineBuffering;
+    }
+
+    /**
+     * The {@code mode} attribute, which is set by {@code open()}, or {@code null} if it has not been
+     * set.
+     */
+    public Object getMode() {
+        return mode;
+    }
+
+    public void setMode(Object mode) {
+        this.mode = mode;
+    }
+
+    public void detach() {
+        this.buffer = null;
+    }
+}
@@ -0,0 +1,687 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.io;
+
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__ENTER__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__EXIT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__INIT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__ITER__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__NEXT__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.AttributeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.LookupError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.StopIteration;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.UnicodeDecodeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.UnicodeEncodeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.modules.CodecsModuleBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.bytes.BytesBuiltins;
+import com.oracle.graal.python.builtins.objects.io.BufferedIONodes.BufferedSeekNode;
+import com.oracle.graal.python.builtins.objects.io.BufferedIONodes.BufferedTellNode;
+import com.oracle.graal.python.builtins.objects.io.BufferedIONodes.FillBufferNode;
+import com.oracle.graal.python.builtins.objects.io.BufferedIONodes.FlushBufferNode;
+import com.oracle.graal.python.builtins.objects.io.BufferedIONodes.RaiseUnsupportedNode;
+import com.oracle.graal.python.builtins.objects.io.BufferedIONodes.ReadAllNode;
+import com.oracle.graal.python.builtins.objects.io.BufferedIONodes.ReadLineNode;
+import com.oracle.graal.python.builtins.objects.io.BufferedIONodes.WriteBufferedNode;
+import com.oracle.graal.python.builtins.objects.io.BufferedIONodes.WriteLinesNode;
+import com.oracle.graal.python.builtins.objects.io.BufferedReaderBuiltins.SizedReadNode;
+import com.oracle.graal.python.builtins.objects.list.PList;
+import com.oracle.graal.python.builtins.objects.str.PString;
+import com.oracle.graal.python.nodes.PNodeWithContext;
+import com.oracle.graal.python.nodes.attributes.GetAttributeNode.GetFixedAttributeNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
+import com.oracle.graal.python.nodes.expression.CastToBooleanNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.util.CastToIndexNode;
+import com.oracle.graal.python.nodes.util.CastToJavaLongNode;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PTextIOWrapper)
+public class TextIOWrapperBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return TextIOWrapperBuiltinsFactory.getFactories();
+    }
+
+    static PBuffered checkOpen(PNodeWithContext node, PTextIO self) {
+        if (!self.isInitialized()) {
+            throw node.raise(ValueError, "underlying buffer has been detached");
+        }
+        PBuffered buffer = self.getBuffer();
+        BufferedIONodes.checkOpen(node, buffer);
+        return buffer;
+    }
+
+    static PBuffered checkReadable(PNodeWithContext node, PTextIO self, RaiseUnsupportedNode raiseNode) {
+        PBuffered buffer = checkOpen(node, self);
+        if (!buffer.isReader()) {
+            throw raiseNode.execute("not readable");
+        }
+        return buffer;
+    }
+
+    static PBuffered checkWritable(PNodeWithContext node, PTextIO self, RaiseUnsupportedNode raiseNode) {
+        PBuffered buffer = checkOpen(node, self);
+        if (buffer.isReader()) {
+            throw raiseNode.execute("not writable");
+        }
+        return buffer;
+    }
+
+    @TruffleBoundary
+    static String decode(PTextIO self, byte[] data) throws CharacterCodingException {
+        String text = self.getDecoder().decode(ByteBuffer.wrap(data)).toString();
+        if (self.isTranslate() && text.indexOf('\r') >= 0) {
+            return text.replace("\r\n", "\n").replace('\r', '\n');
+        }
+        return text;
+    }
+
+    @TruffleBoundary
+    static byte[] encode(PTextIO self, String text) throws CharacterCodingException {
+        String translated = self.getWriteNewline() == null ? text : text.replace("\n", self.getWriteNewline());
+        ByteBuffer encoded = self.getEncoder().encode(CharBuffer.wrap(translated));
+        byte[] data = new byte[encoded.remaining()];
+        encoded.get(data);
+        return data;
+    }
+
+    // TextIOWrapper(buffer, encoding=None, errors=None, newline=None, line_buffering=False,
+    // write_through=False)
+    @Builtin(name = __INIT__, minNumOfPositionalArgs = 2, keywordArguments = {"encoding", "errors", "newline", "line_buffering", "write_through"})
+    @GenerateNodeFactory
+    abstract static class InitNode extends PythonBuiltinNode {
+        @Specialization
+        PNone init(PTextIO self, Object buffer, Object encoding, Object errors, Object newline, Object lineBuffering, @SuppressWarnings("unused") Object writeThrough,
+                        @Cached("createIfTrueNode()") CastToBooleanNode castToBooleanNode) {
+            if (!(buffer instanceof PBuffered)) {
+                throw raise(TypeError, "TextIOWrapper requires a BufferedReader or BufferedWriter, not '%p'", buffer);
+            }
+            String encodingName = toStringOrNull(encoding, "encoding");
+            String errorsName = toStringOrNull(errors, "errors");
+            String newlineValue = toStringOrNull(newline, "newline");
+            if (newlineValue != null && !isValidNewline(newlineValue)) {
+                throw raise(ValueError, "illegal newline value: %s", newlineValue);
+            }
+            if (encodingName == null) {
+                encodingName = CodecsModuleBuiltins.DEFAULT_ENCODING;
+            }
+            if (errorsName == null) {
+                errorsName = "strict";
+            }
+            boolean lineBuffered = lineBuffering != PNone.NO_VALUE && castToBooleanNode.executeWith(lineBuffering);
+            self.initialize((PBuffered) buffer, encodingName, getCharset(encodingName), errorsName, BytesBuiltins.toCodingErrorAction(errorsName, this), newlineValue, lineBuffered);
+            return PNone.NONE;
+        }
+
+        private String toStringOrNull(Object value, String name) {
+            if (value == PNone.NO_VALUE || value == PNone.NONE) {
+                return null;
+            } else if (value instanceof String) {
+                return (String) value;
+            } else if (value instanceof PString) {
+                return ((PString) value).getValue();
+            }
+            throw raise(TypeError, "TextIOWrapper() argument '%s' must be str or None, not %p", name, value);
+        }
+
+        private static boolean isValidNewline(String newline) {
+            return newline.isEmpty() || newline.equals("\n") || newline.equals("\r") || newline.equals("\r\n");
+        }
+
+        @TruffleBoundary
+        private Charset getCharset(String encoding) {
+            Charset charset;
+            try {
+                charset = CodecsModuleBuiltins.getCharset(encoding);
+            } catch (IllegalArgumentException e) {
+                throw raise(LookupError, "unknown encoding: %s", encoding);
+            }
+            // newlines are found by scanning the raw bytes, so they must be plain bytes
+            switch (charset.name()) {
+                case "UTF-8":
+                case "US-ASCII":
+                case "ISO-8859-1":
+                    return charset;
+                default:
+                    throw raise(LookupError, "encoding '%s' is not supported by TextIOWrapper", encoding);
+            }
+        }
+    }
+
+    @Builtin(name = "buffer", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class BufferNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object buffer(PTextIO self) {
+            return self.isInitialized() ? self.getBuffer() : PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "encoding", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class EncodingNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object encoding(PTextIO self) {
+            return self.isInitialized() ? self.getEncoding() : PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "errors", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class ErrorsNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object errors(PTextIO self) {
+            return self.isInitialized() ? self.getErrors() : PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "line_buffering", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class LineBufferingNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        boolean lineBuffering(PTextIO self) {
+            return self.isLineBuffering();
+        }
+    }
+
+    @Builtin(name = "newlines", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class NewlinesNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PNone newlines(@SuppressWarnings("unused") PTextIO self) {
+            // the kinds of newlines seen so far are not tracked
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "name", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class NameNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object name(PTextIO self,
+                        @Cached("create(NAME)") GetFixedAttributeNode getNameNode) {
+            if (!self.isInitialized()) {
+                throw raise(ValueError, "underlying buffer has been detached");
+            }
+            return getNameNode.executeObject(self.getBuffer());
+        }
+
+        protected static final String NAME = "name";
+    }
+
+    @Builtin(name = "mode", minNumOfPositionalArgs = 1, maxNumOfPositionalArgs = 2, isGetter = true, isSetter = true)
+    @GenerateNodeFactory
+    abstract static class ModeNode extends PythonBinaryBuiltinNode {
+        @Specialization(guards = "isNoValue(value)")
+        Object get(PTextIO self, @SuppressWarnings("unused") PNone value) {
+            Object mode = self.getMode();
+            if (mode == null) {
+                throw raise(AttributeError, "'TextIOWrapper' object has no attribute 'mode'");
+            }
+            return mode;
+        }
+
+        @Specialization(guards = "!isNoValue(value)")
+        PNone set(PTextIO self, Object value) {
+            self.setMode(value);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "closed", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class ClosedNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        boolean closed(PTextIO self) {
+            if (!self.isInitialized()) {
+                throw raise(ValueError, "underlying buffer has been detached");
+            }
+            return self.getBuffer().isClosed();
+        }
+    }
+
+    @Builtin(name = "readable", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class ReadableNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        boolean readable(PTextIO self) {
+            return checkOpen(this, self).isReader();
+        }
+    }
+
+    @Builtin(name = "writable", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class WritableNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        boolean writable(PTextIO self) {
+            return !checkOpen(this, self).isReader();
+        }
+    }
+
+    @Builtin(name = "seekable", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class SeekableNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object seekable(PTextIO self,
+                        @Cached("create(SEEKABLE)") LookupAndCallUnaryNode callSeekableNode) {
+            return callSeekableNode.executeObject(checkOpen(this, self));
+        }
+
+        protected static final String SEEKABLE = "seekable";
+    }
+
+    @Builtin(name = "fileno", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class FilenoNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object fileno(PTextIO self,
+                        @Cached("create(FILENO)") LookupAndCallUnaryNode callFilenoNode) {
+            if (!self.isInitialized()) {
+                throw raise(ValueError, "underlying buffer has been detached");
+            }
+            return callFilenoNode.executeObject(self.getBuffer());
+        }
+
+        protected static final String FILENO = "fileno";
+    }
+
+    @Builtin(name = "isatty", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class IsattyNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object isatty(PTextIO self,
+                        @Cached("create(ISATTY)") LookupAndCallUnaryNode callIsattyNode) {
+            return callIsattyNode.executeObject(checkOpen(this, self));
+        }
+
+        protected static final String ISATTY = "isatty";
+    }
+
+    @Builtin(name = "flush", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class FlushNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PNone flush(PTextIO self,
+                        @Cached("create()") FlushBufferNode flushNode) {
+            PBuffered buffer = checkOpen(this, self);
+            if (!buffer.isReader()) {
+                flushNode.execute(buffer);
+            }
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "close", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class CloseNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PNone close(PTextIO self,
+                        @Cached("create(CLOSE)") LookupAndCallUnaryNode callCloseNode) {
+            if (!self.isInitialized()) {
+                throw raise(ValueError, "underlying buffer has been detached");
+            }
+            // closing the buffered stream flushes it
+            callCloseNode.executeObject(self.getBuffer());
+            return PNone.NONE;
+        }
+
+        protected static final String CLOSE = "close";
+    }
+
+    @Builtin(name = "detach", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class DetachNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object detach(PTextIO self,
+                        @Cached("create()") FlushBufferNode flushNode) {
+            PBuffered buffer = checkOpen(this, self);
+            if (!buffer.isReader()) {
+                flushNode.execute(buffer);
+            }
+            self.detach();
+            return buffer;
+        }
+    }
+
+    @Builtin(name = "tell", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class TellNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        long tell(PTextIO self,
+                        @Cached("create()") BufferedTellNode tellNode) {
+            // there is no decoder state, so the byte position is a complete cookie
+            return tellNode.execute(checkOpen(this, self));
+        }
+    }
+
+    // seek(cookie, whence=0)
+    @Builtin(name = "seek", minNumOfPositionalArgs = 2, maxNumOfPositionalArgs = 3)
+    @GenerateNodeFactory
+    abstract static class SeekNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        long seek(PTextIO self, Object cookie, Object whence,
+                        @Cached("createExact()") CastToJavaLongNode castToLongNode,
+                        @Cached("createOverflow()") CastToIndexNode castToIndexNode,
+                        @Cached("create()") BufferedSeekNode seekNode,
+                        @Cached("create()") RaiseUnsupportedNode raiseNode) {
+            long offset = castToLongNode.execute(cookie);
+            int how = whence == PNone.NO_VALUE ? 0 : castToIndexNode.execute(whence);
+            PBuffered buffer = checkOpen(this, self);
+            if (how == 1 || how == 2) {
+                if (offset != 0) {
+                    throw raiseNode.execute(how == 1 ? "can't do nonzero cur-relative seeks" : "can't do nonzero end-relative seeks");
+                }
+            } else if (how != 0) {
+                throw raise(ValueError, "invalid whence (%d, should be 0, 1 or 2)", how);
+            } else if (offset < 0) {
+                throw raise(ValueError, "negative seek position %d", offset);
+            }
+            return seekNode.execute(buffer, offset, how);
+        }
+    }
+
+    // read(size=-1)
+    @Builtin(name = "read", minNumOfPositionalArgs = 1, maxNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class ReadNode extends SizedReadNode {
+        @Specialization
+        String read(PTextIO self, Object size,
+                        @Cached("create()") ReadAllNode readAllNode,
+                        @Cached("create()") ReadLineNode readLineNode,
+                        @Cached("create()") FillBufferNode fillNode,
+                        @Cached("create()") RaiseUnsupportedNode raiseNode,
+                        @Cached("createBinaryProfile()") ConditionProfile readAllProfile) {
+            int n = getSize(size);
+            PBuffered buffer = checkReadable(this, self, raiseNode);
+            try {
+                if (readAllProfile.profile(n < 0)) {
+                    return decode(self, readAllNode.execute(buffer));
+                }
+                String text = "";
+                while (text.length() < n) {
+                    byte[] data = readLineNode.execute(buffer, PTextIO.NEWLINE_NONE, n - text.length(), self.isUTF8());
+                    if (data.length == 0) {
+                        break;
+                    }
+                    if (self.isTranslate() && data[data.length - 1] == '\r') {
+                        // an '\n' right behind belongs to the same line ending
+                        data = consumeLF(buffer, data, fillNode);
+                    }
+                    text = concat(text, decode(self, data));
+                }
+                return text;
+            } catch (CharacterCodingException e) {
+                throw raise(UnicodeDecodeError, e);
+            }
+        }
+
+        private static byte[] consumeLF(PBuffered buffer, byte[] data, FillBufferNode fillNode) {
+            ByteBuffer buf = buffer.getBuffer();
+            if (buf.hasRemaining() || fillNode.execute(buffer) > 0) {
+                if (buf.array()[buf.position()] == '\n') {
+                    buf.position(buf.position() + 1);
+                    byte[] result = new byte[data.length + 1];
+                    System.arraycopy(data, 0, result, 0, data.length);
+                    result[data.length] = '\n';
+                    return result;
+                }
+            }
+            return data;
+        }
+
+        @TruffleBoundary
+        private static String concat(String a, String b) {
+            return a.isEmpty() ? b : a + b;
+        }
+    }
+
+    // readline(size=-1)
+    @Builtin(name = "readline", minNumOfPositionalArgs = 1, maxNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class ReadLineBuiltinNode extends SizedReadNode {
+        @Specialization
+        String readline(PTextIO self, Object size,
+                        @Cached("create()") ReadLineNode readLineNode,
+                        @Cached("create()") RaiseUnsupportedNode raiseNode) {
+            int limit = getSize(size);
+            PBuffered buffer = checkReadable(this, self, raiseNode);
+            try {
+                return decode(self, readLineNode.execute(buffer, self.getReadNewline(), limit, self.isUTF8()));
+            } catch (CharacterCodingException e) {
+                throw raise(UnicodeDecodeError, e);
+            }
+        }
+    }
+
+    // readlines(hint=-1)
+    @Builtin(name = "readlines", minNumOfPositionalArgs = 1, maxNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class ReadLinesNode extends SizedReadNode {
+        @Specialization
+        PList readlines(PTextIO self, Object hint,
+                        @Cached("create()") ReadLineNode readLineNode,
+                        @Cached("create()") RaiseUnsupportedNode raiseNode) {
+            int max = getSize(hint);
+            PBuffered buffer = checkReadable(this, self, raiseNode);
+            List<Object> lines = new ArrayList<>();
+            int total = 0;
+            try {
+                while (max <= 0 || total <= max) {
+                    byte[] data = readLineNode.execute(buffer, self.getReadNewline(), -1, self.isUTF8());
+                    if (data.length == 0) {
+                        break;
+                    }
+                    String line = decode(self, data);
+                    add(lines, line);
+                    total += line.length();
+                }
+            } catch (CharacterCodingException e) {
+                throw raise(UnicodeDecodeError, e);
+            }
+            return factory().createList(toArray(lines));
+        }
+
+        @TruffleBoundary
+        private static void add(List<Object> lines, Object line) {
+            lines.add(line);
+        }
+
+        @TruffleBoundary
+        private static Object[] toArray(List<Object> lines) {
+            return lines.toArray();
+        }
+    }
+
+    @Builtin(name = __ITER__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class IterNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PTextIO iter(PTextIO self) {
+            checkOpen(this, self);
+            return self;
+        }
+    }
+
+    @Builtin(name = __NEXT__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class NextNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        String next(PTextIO self,
+                        @Cached("create()") NextLineNode nextLineNode) {
+            String line = nextLineNode.execute(self);
+            if (line == null) {
+                throw raise(StopIteration);
+            }
+            return line;
+        }
+    }
+
+    /**
+     * Reads and decodes the next line like {@code __next__}, but returns {@code null} at the end
+     * of the file, so that Java code can iterate over a text file without catching StopIteration.
+     */
+    public static final class NextLineNode extends PNodeWithContext {
+        @Child private ReadLineNode readLineNode = ReadLineNode.create();
+        @Child private RaiseUnsupportedNode raiseNode = RaiseUnsupportedNode.create();
+
+        public String execute(PTextIO self) {
+            PBuffered buffer = checkReadable(this, self, raiseNode);
+            byte[] data = readLineNode.execute(buffer, self.getReadNewline(), -1, self.isUTF8());
+            if (data.length == 0) {
+                return null;
+            }
+            try {
+                return decode(self, data);
+            } catch (CharacterCodingException e) {
+                throw raise(UnicodeDecodeError, e);
+            }
+        }
+
+        public static NextLineNode create() {
+            return new NextLineNode();
+        }
+    }
+
+    @Builtin(name = "write", fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class WriteNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        int write(PTextIO self, String text,
+                        @Cached("create()") WriteBufferedNode writeNode,
+                        @Cached("create()") FlushBufferNode flushNode,
+                        @Cached("create()") RaiseUnsupportedNode raiseNode) {
+            PBuffered buffer = checkWritable(this, self, raiseNode);
+            byte[] data;
+            try {
+                data = encode(self, text);
+            } catch (CharacterCodingException e) {
+                throw raise(UnicodeEncodeError, e);
+            }
+            writeNode.execute(buffer, data, data.length);
+            if (self.isLineBuffering() && hasLineBreak(text)) {
+                flushNode.execute(buffer);
+            }
+            return codePointCount(text);
+        }
+
+        @Specialization
+        int write(PTextIO self, PString text,
+                        @Cached("create()") WriteBufferedNode writeNode,
+                        @Cached("create()") FlushBufferNode flushNode,
+                        @Cached("create()") RaiseUnsupportedNode raiseNode) {
+            return write(self, text.getValue(), writeNode, flushNode, raiseNode);
+        }
+
+        @Specialization(guards = "!isString(text)")
+        int write(@SuppressWarnings("unused") PTextIO self, Object text) {
+            throw raise(TypeError, "write() argument must be str, not %p", text);
+        }
+
+        @TruffleBoundary
+        private static boolean hasLineBreak(String text) {
+            return text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0;
+        }
+
+        @TruffleBoundary
+        private static int codePointCount(String text) {
+            return text.codePointCount(0, text.length());
+        }
+    }
+
+    @Builtin(name = "writelines", fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class WriteLinesBuiltinNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        PNone writelines(PTextIO self, Object lines,
+                        @Cached("create()") WriteLinesNode writeLinesNode) {
+            checkOpen(this, self);
+            writeLinesNode.execute(self, lines);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = __ENTER__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class EnterNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object enter(PTextIO self) {
+            checkOpen(this, self);
+            return self;
+        }
+    }
+
+    @Builtin(name = __EXIT__, fixedNumOfPositionalArgs = 4)
+    @GenerateNodeFactory
+    abstract static class ExitNode extends PythonBuiltinNode {
+        @Specialization
+        Object exit(PTextIO self, @SuppressWarnings("unused") Object typ, @SuppressWarnings("unused") Object val, @SuppressWarnings("unused") Object tb,
+                        @Cached("create(CLOSE)") LookupAndCallUnaryNode callCloseNode) {
+            return callCloseNode.executeObject(self);
+        }
+
+        protected static final String CLOSE = "close";
+    }
+}
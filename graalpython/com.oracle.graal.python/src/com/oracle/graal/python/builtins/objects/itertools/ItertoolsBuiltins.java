@@ -0,0 +1,376 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+package com.oracle.graal.python.builtins.objects.itertools;
+
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__ITER__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__NEXT__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.StopIteration;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.list.PList;
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.argument.positional.ExecutePositionalStarargsNode;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallBinaryNode;
+import com.oracle.graal.python.nodes.control.GetIteratorNode;
+import com.oracle.graal.python.nodes.control.GetNextNode;
+import com.oracle.graal.python.nodes.expression.BinaryArithmetic;
+import com.oracle.graal.python.nodes.expression.CastToBooleanNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.object.GetLazyClassNode;
+import com.oracle.graal.python.nodes.object.IsBuiltinClassProfile;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.graal.python.runtime.sequence.PSequence;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.profiles.BranchProfile;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+import com.oracle.truffle.api.profiles.ValueProfile;
+
+/**
+ * The iterator protocol of all iterator types of the {@code itertools} module.
+ */
+@CoreFunctions(extendClasses = {PythonBuiltinClassType.PAccumulate, PythonBuiltinClassType.PChain, PythonBuiltinClassType.PCount, PythonBuiltinClassType.PCycle,
+                PythonBuiltinClassType.PDropwhile, PythonBuiltinClassType.PFilterfalse, PythonBuiltinClassType.PIslice, PythonBuiltinClassType.PRepeat,
+                PythonBuiltinClassType.PStarmap, PythonBuiltinClassType.PTakewhile, PythonBuiltinClassType.PZipLongest})
+public class ItertoolsBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return ItertoolsBuiltinsFactory.getFactories();
+    }
+
+    @Builtin(name = __ITER__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class IterNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object iter(PythonBuiltinObject self) {
+            return self;
+        }
+    }
+
+    @Builtin(name = __NEXT__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class NextNode extends PythonUnaryBuiltinNode {
+
+        protected static LookupAndCallBinaryNode createAdd() {
+            return BinaryArithmetic.Add.create();
+        }
+
+        @Specialization
+        Object next(PAccumulate self,
+                        @Cached("create()") GetNextNode getNext,
+                        @Cached("createAdd()") LookupAndCallBinaryNode addNode,
+                        @Cached("create()") CallNode callNode) {
+            Object value = getNext.execute(self.getIterator());
+            Object total = self.getTotal();
+            if (total == null) {
+                total = value;
+            } else if (self.getFunction() == null) {
+                total = addNode.executeObject(total, value);
+            } else {
+                total = callNode.execute(null, self.getFunction(), total, value);
+            }
+            self.setTotal(total);
+            return total;
+        }
+
+        @Specialization
+        Object next(PChain self,
+                        @Cached("create()") GetNextNode getNextSource,
+                        @Cached("create()") GetNextNode getNextActive,
+                        @Cached("create()") GetIteratorNode getIterator,
+                        @Cached("create()") GetLazyClassNode getClass,
+                        @Cached("createBinaryProfile()") ConditionProfile sequenceProfile,
+                        @Cached("createClassProfile()") ValueProfile storageProfile,
+                        @Cached("create()") SequenceStorageNodes.LenNode lenNode,
+                        @Cached("createNotNormalized()") SequenceStorageNodes.GetItemNode getItemNode,
+                        @Cached("create()") IsBuiltinClassProfile errorProfile) {
+            while (true) {
+                PSequence sequence = self.getActiveSequence();
+                if (sequence != null) {
+                    // the storage is fetched each time since the sequence may change in between
+                    SequenceStorage storage = storageProfile.profile(sequence.getSequenceStorage());
+                    int index = self.getActiveIndex();
+                    if (index < lenNode.execute(storage)) {
+                        self.setActiveIndex(index + 1);
+                        return getItemNode.execute(storage, index);
+                    }
+                    self.setActiveSequence(null);
+                } else if (self.getActive() != null) {
+                    try {
+                        return getNextActive.execute(self.getActive());
+                    } catch (PException e) {
+                        e.expectStopIteration(errorProfile);
+                        self.setActive(null);
+                    }
+                }
+                Object source = self.getSource();
+                if (source == null) {
+                    throw raise(StopIteration);
+                }
+                Object iterable;
+                try {
+                    iterable = getNextSource.execute(source);
+                } catch (PException e) {
+                    e.expectStopIteration(errorProfile);
+                    self.exhaust();
+                    throw e;
+                }
+                if (sequenceProfile.profile(isBuiltinListOrTuple(iterable, getClass))) {
+                    self.setActiveSequence((PSequence) iterable);
+                } else {
+                    self.setActive(getIterator.executeWith(iterable));
+                }
+            }
+        }
+
+        private static boolean isBuiltinListOrTuple(Object iterable, GetLazyClassNode getClass) {
+            return (iterable instanceof PList || iterable instanceof PTuple) && PGuards.cannotBeOverridden(getClass.execute(iterable));
+        }
+
+        @Specialization
+        Object next(PCount self,
+                        @Cached("createBinaryProfile()") ConditionProfile longProfile,
+                        @Cached("createBinaryProfile()") ConditionProfile intProfile,
+                        @Cached("create()") BranchProfile overflowProfile,
+                        @Cached("createAdd()") LookupAndCallBinaryNode addNode) {
+            if (longProfile.profile(self.isLongMode())) {
+                long value = self.getLongValue();
+                try {
+                    self.setLongValue(Math.addExact(value, self.getLongStep()));
+                } catch (ArithmeticException e) {
+                    overflowProfile.enter();
+                    self.setValue(addNode.executeObject(value, self.getLongStep()));
+                }
+                if (intProfile.profile(PInt.isIntRange(value))) {
+                    return (int) value;
+                }
+                return value;
+            }
+            Object value = self.getValue();
+            self.setValue(addNode.executeObject(value, self.getStep()));
+            return value;
+        }
+
+        @Specialization
+        Object next(PCycle self,
+                        @Cached("create()") GetNextNode getNext,
+                        @Cached("createBinaryProfile()") ConditionProfile firstPassProfile,
+                        @Cached("create()") IsBuiltinClassProfile errorProfile) {
+            Object iterator = self.getIterator();
+            if (firstPassProfile.profile(iterator != null)) {
+                try {
+                    Object item = getNext.execute(iterator);
+                    self.save(item);
+                    return item;
+                } catch (PException e) {
+                    e.expectStopIteration(errorProfile);
+                    self.finishFirstPass();
+                }
+            }
+            if (self.isEmpty()) {
+                throw raise(StopIteration);
+            }
+            return self.nextSaved();
+        }
+
+        @Specialization
+        Object next(PDropwhile self,
+                        @Cached("create()") GetNextNode getNext,
+                        @Cached("create()") CallNode callNode,
+                        @Cached("createIfTrueNode()") CastToBooleanNode isTrue) {
+            while (true) {
+                Object item = getNext.execute(self.getIterator());
+                if (!self.isDropping()) {
+                    return item;
+                }
+                if (!isTrue.executeWith(callNode.execute(null, self.getPredicate(), item))) {
+                    self.stopDropping();
+                    return item;
+                }
+            }
+        }
+
+        @Specialization
+        Object next(PFilterfalse self,
+                        @Cached("create()") GetNextNode getNext,
+                        @Cached("create()") CallNode callNode,
+                        @Cached("createIfTrueNode()") CastToBooleanNode isTrue) {
+            Object function = self.getFunction();
+            while (true) {
+                Object item = getNext.execute(self.getIterator());
+                Object result = function == PNone.NONE ? item : callNode.execute(null, function, item);
+                if (!isTrue.executeWith(result)) {
+                    return item;
+                }
+            }
+        }
+
+        @Specialization(guards = {"self.isCountSlice()", "self.canStepCount()"})
+        Object nextFromCount(PIslice self,
+                        @Cached("createBinaryProfile()") ConditionProfile intProfile) {
+            if (!self.countHasNext()) {
+                throw raise(StopIteration);
+            }
+            long value = self.countNext();
+            if (intProfile.profile(PInt.isIntRange(value))) {
+                return (int) value;
+            }
+            return value;
+        }
+
+        @Specialization
+        Object next(PIslice self,
+                        @Cached("create()") GetNextNode getNext,
+                        @Cached("create()") IsBuiltinClassProfile errorProfile) {
+            Object iterator = self.getIterator();
+            if (iterator == null) {
+                throw raise(StopIteration);
+            }
+            try {
+                while (self.getCnt() < self.getNext()) {
+                    getNext.execute(iterator);
+                    self.incrementCnt();
+                }
+            } catch (PException e) {
+                e.expectStopIteration(errorProfile);
+                self.exhaust();
+                throw e;
+            }
+            int stop = self.getStop();
+            if (stop != -1 && self.getCnt() >= stop) {
+                self.exhaust();
+                throw raise(StopIteration);
+            }
+            Object item;
+            try {
+                item = getNext.execute(iterator);
+            } catch (PException e) {
+                e.expectStopIteration(errorProfile);
+                self.exhaust();
+                throw e;
+            }
+            self.incrementCnt();
+            self.advanceNext();
+            return item;
+        }
+
+        @Specialization
+        Object next(PRepeat self,
+                        @Cached("createBinaryProfile()") ConditionProfile infiniteProfile) {
+            if (!infiniteProfile.profile(self.isInfinite())) {
+                if (self.getRemaining() == 0) {
+                    throw raise(StopIteration);
+                }
+                self.decrement();
+            }
+            return self.getElement();
+        }
+
+        @Specialization
+        Object next(PStarmap self,
+                        @Cached("create()") GetNextNode getNext,
+                        @Cached("create()") ExecutePositionalStarargsNode getArguments,
+                        @Cached("create()") CallNode callNode) {
+            Object arguments = getNext.execute(self.getIterator());
+            return callNode.execute(null, self.getFunction(), getArguments.executeWith(arguments), PKeyword.EMPTY_KEYWORDS);
+        }
+
+        @Specialization
+        Object next(PTakewhile self,
+                        @Cached("create()") GetNextNode getNext,
+                        @Cached("create()") CallNode callNode,
+                        @Cached("createIfTrueNode()") CastToBooleanNode isTrue) {
+            Object iterator = self.getIterator();
+            if (iterator == null) {
+                throw raise(StopIteration);
+            }
+            Object item = getNext.execute(iterator);
+            if (isTrue.executeWith(callNode.execute(null, self.getPredicate(), item))) {
+                return item;
+            }
+            self.exhaust();
+            throw raise(StopIteration);
+        }
+
+        @Specialization
+        Object next(PZipLongest self,
+                        @Cached("create()") GetNextNode getNext,
+                        @Cached("create()") IsBuiltinClassProfile errorProfile) {
+            if (self.getActive() == 0) {
+                throw raise(StopIteration);
+            }
+            Object[] iterators = self.getIterators();
+            Object[] items = new Object[iterators.length];
+            for (int i = 0; i < iterators.length; i++) {
+                Object iterator = iterators[i];
+                if (iterator != null) {
+                    try {
+                        items[i] = getNext.execute(iterator);
+                        continue;
+                    } catch (PException e) {
+                        e.expectStopIteration(errorProfile);
+                        if (self.exhaust(i) == 0) {
+                            throw e;
+                        }
+                    }
+                }
+                items[i] = self.getFillValue();
+            }
+            return factory().createTuple(items);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+package com.oracle.graal.python.builtins.objects.itertools;
+
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+
+/**
+ * The {@code itertools.count} object. As long as the current value and the step fit into a
+ * {@code long}, the count is kept unboxed so that it can be advanced without calling {@code __add__}
+ * and so that an {@code islice} over it can be iterated without going through {@code __next__}.
+ */
+public final class PCount extends PythonBuiltinObject {
+
+    private boolean longMode;
+    private long longValue;
+    private long longStep;
+    private Object value;
+    private Object step;
+
+    public PCount(LazyPythonClass cls, long start, long step) {
+        super(cls);
+        this.longMode = true;
+        this.longValue = start;
+        this.longStep = step;
+    }
+
+    public PCount(LazyPythonClass cls, Object start, Object step) {
+        super(cls);
+        this.longMode = false;
+        this.value = start;
+        this.step = step;
+    }
+
+    public boolean isLongMode() {
+        return longMode;
+    }
+
+    public long getLongValue() {
+        assert longMode;
+        return longValue;
+    }
+
+    public void setLongValue(long value) {
+        assert longMode;
+        this.longValue = value;
+    }
+
+    public long getLongStep() {
+        assert longMode;
+        return longStep;
+    }
+
+    public Object getValue() {
+        return longMode ? longValue : value;
+    }
+
+    public Object getStep() {
+        return longMode ? longStep : step;
+    }
+
+    /**
+     * Sets a value that does not fit the unboxed representation. The count stays generic from now
+     * on.
+     */
+    public void setValue(Object value) {
+        if (longMode) {
+            this.step = longStep;
+            this.longMode = false;
+        }
+        this.value = value;
+    }
+
+    /**
+     * Tests if the count can be advanced by {@code n} steps without leaving the {@code long} range.
+     */
+    public boolean canAdvanceExact(long n) {
+        if (!longMode) {
+            return false;
+        }
+        try {
+            Math.addExact(longValue, Math.multiplyExact(longStep, n));
+            return true;
+        } catch (ArithmeticException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Advances the count by {@code n} steps. Only valid if {@link #canAdvanceExact(long)} holds.
+     */
+    public void advance(long n) {
+        assert canAdvanceExact(n);
+        longValue += longStep * n;
+    }
+
+    @Override
+    public String toString() {
+        return "count(" + getValue() + ", " + getStep() + ")";
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+package com.oracle.graal.python.builtins.objects.itertools;
+
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+
+/**
+ * The {@code itertools.islice} object. The fields follow CPython: {@code cnt} is the number of
+ * items consumed from the underlying iterator and {@code next} is the index of the next item to
+ * return.
+ *
+ * If the slice is taken from a builtin {@link PCount} with a bounded stop, the count is remembered
+ * in {@link #getCount()} and the slice can be iterated by advancing the count directly (see
+ * {@link #canStepCount()}), which is what {@code for i in islice(count(), n)} uses.
+ */
+public final class PIslice extends PythonBuiltinObject {
+
+    private final PCount count;
+    // null once the slice is exhausted
+    private Object iterator;
+    private int next;
+    private final int stop;
+    private final int step;
+    private int cnt;
+
+    public PIslice(LazyPythonClass cls, Object iterator, PCount count, int start, int stop, int step) {
+        super(cls);
+        assert count == null || (iterator == count && stop != -1);
+        this.iterator = iterator;
+        this.count = count;
+        this.next = start;
+        this.stop = stop;
+        this.step = step;
+    }
+
+    public Object getIterator() {
+        return iterator;
+    }
+
+    public void exhaust() {
+        iterator = null;
+    }
+
+    public int getNext() {
+        return next;
+    }
+
+    public int getStop() {
+        return stop;
+    }
+
+    public int getCnt() {
+        return cnt;
+    }
+
+    public void incrementCnt() {
+        cnt++;
+    }
+
+    /**
+     * Moves {@code next} by one step; it never moves past {@code stop}.
+     */
+    public void advanceNext() {
+        long n = (long) next + step;
+        if (stop != -1 && n > stop) {
+            next = stop;
+        } else {
+            next = (int) Math.min(n, Integer.MAX_VALUE);
+        }
+    }
+
+    public boolean isCountSlice() {
+        return count != null;
+    }
+
+    public PCount getCount() {
+        return count;
+    }
+
+    /**
+     * Tests if the rest of this slice can be produced from the unboxed state of the count, i.e.,
+     * the count can reach the furthest item this slice may consume without overflowing.
+     */
+    public boolean canStepCount() {
+        assert isCountSlice();
+        return iterator == null || count.canAdvanceExact(Math.max(next, stop) - cnt);
+    }
+
+    /**
+     * Returns {@code false} if the slice is exhausted. Like the generic path, the count is still
+     * advanced to {@code next} before giving up. Only valid if {@link #canStepCount()} holds.
+     */
+    public boolean countHasNext() {
+        if (iterator == null) {
+            return false;
+        }
+        if (next >= stop) {
+            count.advance(next - cnt);
+            cnt = next;
+            iterator = null;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the next item of the slice. Only valid if {@link #countHasNext()} returned true.
+     */
+    public long countNext() {
+        count.advance(next - cnt);
+        long value = count.getLongValue();
+        count.advance(1);
+        cnt = next + 1;
+        advanceNext();
+        return value;
+    }
+}
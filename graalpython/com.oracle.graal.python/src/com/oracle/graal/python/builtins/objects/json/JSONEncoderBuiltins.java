@@ -0,0 +1,311 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.json;
+
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__CALL__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.common.HashingStorage.DictEntry;
+import com.oracle.graal.python.builtins.objects.dict.PDict;
+import com.oracle.graal.python.builtins.objects.floats.PFloat;
+import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.json.PJSONEncoder.FastEncode;
+import com.oracle.graal.python.builtins.objects.list.PList;
+import com.oracle.graal.python.builtins.objects.str.PString;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
+import com.oracle.graal.python.runtime.formatting.FloatFormatter;
+import com.oracle.graal.python.runtime.formatting.InternalFormat;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.JSONEncoder)
+public class JSONEncoderBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return JSONEncoderBuiltinsFactory.getFactories();
+    }
+
+    /**
+     * {@code encoder(obj, _current_indent_level)} encodes {@code obj} into a single
+     * {@link StringBuilder} and returns it as the only chunk in a list. Like CPython's encoder, the
+     * indent level is ignored; {@code json} only uses this encoder when no indent is requested.
+     */
+    @Builtin(name = __CALL__, fixedNumOfPositionalArgs = 3, parameterNames = {"$self", "obj", "_current_indent_level"})
+    @GenerateNodeFactory
+    abstract static class CallEncoderNode extends PythonTernaryBuiltinNode {
+        private static final InternalFormat.Spec FLOAT_REPR = new InternalFormat.Spec(' ', '>', InternalFormat.Spec.NONE, false, InternalFormat.Spec.UNSPECIFIED, false, 0, 'r');
+        private static final int MAX_DEPTH = 1000;
+
+        @Child private CallNode callNode = CallNode.create();
+        @Child private LookupAndCallUnaryNode callItemsNode;
+
+        @Specialization
+        PList call(PJSONEncoder self, Object obj, @SuppressWarnings("unused") Object indentLevel) {
+            return factory().createList(new Object[]{encode(self, obj)});
+        }
+
+        @TruffleBoundary
+        private String encode(PJSONEncoder self, Object obj) {
+            StringBuilder sb = new StringBuilder();
+            Set<Object> markers = self.isCheckCircular() ? Collections.newSetFromMap(new IdentityHashMap<>()) : null;
+            encodeObject(self, sb, obj, markers, 0);
+            return sb.toString();
+        }
+
+        private void encodeObject(PJSONEncoder self, StringBuilder sb, Object obj, Set<Object> markers, int depth) {
+            if (obj instanceof String || obj instanceof PString) {
+                appendString(self, sb, obj);
+            } else if (obj == PNone.NONE) {
+                sb.append("null");
+            } else if (obj instanceof Boolean) {
+                sb.append((boolean) obj ? "true" : "false");
+            } else if (obj instanceof Integer || obj instanceof Long) {
+                sb.append(((Number) obj).longValue());
+            } else if (obj instanceof PInt) {
+                sb.append(obj.toString());
+            } else if (obj instanceof Double) {
+                appendFloat(self, sb, (double) obj);
+            } else if (obj instanceof PFloat) {
+                appendFloat(self, sb, ((PFloat) obj).getValue());
+            } else {
+                if (depth > MAX_DEPTH) {
+                    throw raise(PythonBuiltinClassType.RecursionError, "maximum recursion depth exceeded while encoding a JSON object");
+                }
+                enter(markers, obj);
+                if (obj instanceof PList) {
+                    appendList(self, sb, ((PList) obj).getSequenceStorage(), markers, depth + 1);
+                } else if (obj instanceof PTuple) {
+                    appendList(self, sb, ((PTuple) obj).getSequenceStorage(), markers, depth + 1);
+                } else if (obj instanceof PDict) {
+                    appendDict(self, sb, (PDict) obj, markers, depth + 1);
+                } else {
+                    Object newObj = callNode.execute(null, self.getDefaultFn(), obj);
+                    encodeObject(self, sb, newObj, markers, depth + 1);
+                }
+                if (markers != null) {
+                    markers.remove(obj);
+                }
+            }
+        }
+
+        private void enter(Set<Object> markers, Object obj) {
+            if (markers != null && !markers.add(obj)) {
+                throw raise(ValueError, "Circular reference detected");
+            }
+        }
+
+        private void appendString(PJSONEncoder self, StringBuilder sb, Object obj) {
+            FastEncode fastEncode = self.getFastEncode();
+            if (fastEncode != FastEncode.NONE) {
+                String s = obj instanceof String ? (String) obj : ((PString) obj).getValue();
+                JSONUtils.appendString(sb, s, fastEncode == FastEncode.ASCII);
+                return;
+            }
+            Object encoded = callNode.execute(null, self.getEncoder(), obj);
+            if (encoded instanceof String) {
+                sb.append((String) encoded);
+            } else if (encoded instanceof PString) {
+                sb.append(((PString) encoded).getValue());
+            } else {
+                throw raise(TypeError, "encoder() must return a string, not %p", encoded);
+            }
+        }
+
+        private void appendFloat(PJSONEncoder self, StringBuilder sb, double value) {
+            if (Double.isFinite(value)) {
+                new FloatFormatter(getCore(), sb, FLOAT_REPR).format(value);
+                return;
+            }
+            if (!self.isAllowNan()) {
+                throw raise(ValueError, "Out of range float values are not JSON compliant");
+            }
+            sb.append(Double.isNaN(value) ? "NaN" : value > 0 ? "Infinity" : "-Infinity");
+        }
+
+        private void appendList(PJSONEncoder self, StringBuilder sb, SequenceStorage storage, Set<Object> markers, int depth) {
+            int length = storage.length();
+            sb.append('[');
+            for (int i = 0; i < length; i++) {
+                if (i > 0) {
+                    sb.append(self.getItemSeparator());
+                }
+                encodeObject(self, sb, storage.getItemNormalized(i), markers, depth);
+            }
+            sb.append(']');
+        }
+
+        private void appendDict(PJSONEncoder self, StringBuilder sb, PDict dict, Set<Object> markers, int depth) {
+            Object[][] items = getItems(self, dict);
+            sb.append('{');
+            boolean first = true;
+            for (Object[] item : items) {
+                String key = keyToString(self, item[0]);
+                if (key == null) {
+                    continue;
+                }
+                if (!first) {
+                    sb.append(self.getItemSeparator());
+                }
+                first = false;
+                appendString(self, sb, key);
+                sb.append(self.getKeySeparator());
+                encodeObject(self, sb, item[1], markers, depth);
+            }
+            sb.append('}');
+        }
+
+        /**
+         * Converts a dict key the way {@code json} does or returns {@code null} if the key should be
+         * skipped.
+         */
+        private String keyToString(PJSONEncoder self, Object key) {
+            if (key instanceof String) {
+                return (String) key;
+            } else if (key instanceof PString) {
+                return ((PString) key).getValue();
+            } else if (key instanceof Double || key instanceof PFloat) {
+                StringBuilder sb = new StringBuilder();
+                appendFloat(self, sb, key instanceof Double ? (double) key : ((PFloat) key).getValue());
+                return sb.toString();
+            } else if (key instanceof Boolean) {
+                return (boolean) key ? "true" : "false";
+            } else if (key == PNone.NONE) {
+                return "null";
+            } else if (key instanceof Integer || key instanceof Long || key instanceof PInt) {
+                return key.toString();
+            } else if (self.isSkipKeys()) {
+                return null;
+            }
+            throw raise(TypeError, "keys must be a string");
+        }
+
+        private Object[][] getItems(PJSONEncoder self, PDict dict) {
+            Object[][] items;
+            if (dict.getLazyPythonClass() == PythonBuiltinClassType.PDict) {
+                items = new Object[dict.size()][];
+                int i = 0;
+                for (DictEntry entry : dict.getDictStorage().entries()) {
+                    items[i++] = new Object[]{entry.getKey(), entry.getValue()};
+                }
+            } else {
+                // dict subclasses may override 'items', e.g. to present a different order
+                if (callItemsNode == null) {
+                    callItemsNode = insert(LookupAndCallUnaryNode.create("items"));
+                }
+                items = toPairs(callBuiltin("list", callItemsNode.executeObject(dict)));
+            }
+            if (self.isSortKeys() && items.length > 1) {
+                boolean allStrings = true;
+                for (Object[] item : items) {
+                    if (item[0] instanceof PString) {
+                        item[0] = ((PString) item[0]).getValue();
+                    }
+                    allStrings &= item[0] instanceof String;
+                }
+                if (allStrings) {
+                    Arrays.sort(items, (a, b) -> compareCodePoints((String) a[0], (String) b[0]));
+                } else {
+                    ArrayList<Object> tuples = new ArrayList<>(items.length);
+                    for (Object[] item : items) {
+                        tuples.add(factory().createTuple(item));
+                    }
+                    items = toPairs(callBuiltin("sorted", factory().createList(tuples.toArray())));
+                }
+            }
+            return items;
+        }
+
+        private Object callBuiltin(String name, Object arg) {
+            return callNode.execute(null, getCore().getBuiltins().getAttribute(name), arg);
+        }
+
+        private Object[][] toPairs(Object list) {
+            SequenceStorage storage = ((PList) list).getSequenceStorage();
+            Object[][] items = new Object[storage.length()][];
+            for (int i = 0; i < items.length; i++) {
+                Object item = storage.getItemNormalized(i);
+                if (!(item instanceof PTuple) || ((PTuple) item).getSequenceStorage().length() != 2) {
+                    throw raise(ValueError, "items must return 2-tuples");
+                }
+                SequenceStorage pair = ((PTuple) item).getSequenceStorage();
+                items[i] = new Object[]{pair.getItemNormalized(0), pair.getItemNormalized(1)};
+            }
+            return items;
+        }
+
+        /* Python orders strings by code point, not by UTF-16 unit */
+        private static int compareCodePoints(String a, String b) {
+            int n = Math.min(a.length(), b.length());
+            for (int i = 0; i < n; i++) {
+                char ca = a.charAt(i);
+                char cb = b.charAt(i);
+                if (ca != cb) {
+                    if (Character.isSurrogate(ca) || Character.isSurrogate(cb)) {
+                        return Integer.compare(a.codePointAt(i), b.codePointAt(i));
+                    }
+                    return ca - cb;
+                }
+            }
+            return a.length() - b.length();
+        }
+    }
+}
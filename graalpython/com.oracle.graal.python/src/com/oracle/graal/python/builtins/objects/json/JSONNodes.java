@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.json;
+
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.common.HashingStorageNodes;
+import com.oracle.graal.python.builtins.objects.exception.PBaseException;
+import com.oracle.graal.python.builtins.objects.json.JSONUtils.DecodeError;
+import com.oracle.graal.python.nodes.PNodeWithContext;
+import com.oracle.graal.python.nodes.attributes.ReadAttributeFromObjectNode;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.frame.VirtualFrame;
+
+public abstract class JSONNodes {
+
+    /**
+     * Raises a {@code json.JSONDecodeError}. The class is looked up in the {@code json.decoder}
+     * module, which is always loaded when the decoder functions are used through {@code json}.
+     */
+    public static final class RaiseDecodeErrorNode extends PNodeWithContext {
+        @Child private HashingStorageNodes.GetItemNode getModuleNode;
+        @Child private ReadAttributeFromObjectNode readErrorClassNode;
+        @Child private CallNode callNode;
+
+        public PException execute(VirtualFrame frame, DecodeError error, String document) {
+            if (getModuleNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                getModuleNode = insert(HashingStorageNodes.GetItemNode.create());
+                readErrorClassNode = insert(ReadAttributeFromObjectNode.create());
+                callNode = insert(CallNode.create());
+            }
+            Object module = getModuleNode.execute(getContext().getImportedModules().getDictStorage(), "json.decoder");
+            Object errorClass = module == null ? null : readErrorClassNode.execute(module, "JSONDecodeError");
+            if (errorClass == null || errorClass == PNone.NO_VALUE) {
+                throw raise(ValueError, "%s: char %d", getMessage(error), error.getPosition());
+            }
+            Object exception = callNode.execute(frame, errorClass, getMessage(error), document, error.getPosition());
+            throw raise((PBaseException) exception);
+        }
+
+        @TruffleBoundary
+        private static String getMessage(DecodeError error) {
+            return error.getMessage();
+        }
+
+        public static RaiseDecodeErrorNode create() {
+            return new RaiseDecodeErrorNode();
+        }
+    }
+}
@@ -0,0 +1,362 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.json;
+
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__CALL__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.common.StringKeysStorage;
+import com.oracle.graal.python.builtins.objects.dict.PDict;
+import com.oracle.graal.python.builtins.objects.json.JSONNodes.RaiseDecodeErrorNode;
+import com.oracle.graal.python.builtins.objects.json.JSONUtils.DecodeError;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
+import com.oracle.graal.python.nodes.util.CastToIndexNode;
+import com.oracle.graal.python.nodes.util.CastToStringNode;
+import com.oracle.graal.python.runtime.sequence.storage.DoubleSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.IntSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.LongSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.ObjectSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.JSONScanner)
+public class JSONScannerBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return JSONScannerBuiltinsFactory.getFactories();
+    }
+
+    /**
+     * {@code scanner(string, idx)} decodes the JSON value starting at {@code idx} and returns the
+     * value and the index after it. Objects are decoded into {@link StringKeysStorage} dicts and
+     * arrays of only ints or only floats into primitive sequence storages.
+     */
+    @Builtin(name = __CALL__, fixedNumOfPositionalArgs = 3, parameterNames = {"$self", "string", "idx"})
+    @GenerateNodeFactory
+    abstract static class CallScannerNode extends PythonTernaryBuiltinNode {
+        private static final String EXPECTING_VALUE = "Expecting value";
+        /* the same nesting limit CPython's recursion limit imposes on its scanner */
+        private static final int MAX_DEPTH = 1000;
+
+        @Child private CallNode callNode = CallNode.create();
+        @Child private RaiseDecodeErrorNode raiseDecodeErrorNode;
+
+        private static final class ScanState {
+            final PJSONScanner scanner;
+            final String s;
+            final HashMap<String, String> memo = new HashMap<>();
+            final int[] stringEnd = new int[1];
+            final boolean[] isFloat = new boolean[1];
+            /* the index after the last scanned value */
+            int end;
+
+            ScanState(PJSONScanner scanner, String s) {
+                this.scanner = scanner;
+                this.s = s;
+            }
+        }
+
+        @Specialization
+        PTuple call(VirtualFrame frame, PJSONScanner self, Object string, Object idx,
+                        @Cached("create()") CastToStringNode castToStringNode,
+                        @Cached("create()") CastToIndexNode castToIndexNode) {
+            String s = castToStringNode.execute(string);
+            int start = castToIndexNode.execute(idx);
+            if (start < 0) {
+                throw raise(ValueError, "idx cannot be negative");
+            }
+            ScanState state = new ScanState(self, s);
+            try {
+                Object value = scanOnce(state, start, 0);
+                return factory().createTuple(new Object[]{value, state.end});
+            } catch (DecodeError e) {
+                if (e.getMessage() == EXPECTING_VALUE && e.getPosition() == start) {
+                    // nothing to decode at the top level is reported to the Python decoder this way
+                    throw raise(factory().createBaseException(PythonBuiltinClassType.StopIteration, factory().createTuple(new Object[]{start})));
+                }
+                if (raiseDecodeErrorNode == null) {
+                    raiseDecodeErrorNode = insert(RaiseDecodeErrorNode.create());
+                }
+                throw raiseDecodeErrorNode.execute(frame, e, s);
+            }
+        }
+
+        @TruffleBoundary
+        private Object scanOnce(ScanState state, int idx, int depth) throws DecodeError {
+            String s = state.s;
+            if (idx >= s.length()) {
+                throw new DecodeError(EXPECTING_VALUE, idx);
+            }
+            switch (s.charAt(idx)) {
+                case '"':
+                    String value = JSONUtils.scanString(s, idx + 1, state.scanner.isStrict(), state.stringEnd);
+                    state.end = state.stringEnd[0];
+                    return value;
+                case '{':
+                    return parseObject(state, idx + 1, depth + 1);
+                case '[':
+                    return parseArray(state, idx + 1, depth + 1);
+                case 'n':
+                    if (s.startsWith("null", idx)) {
+                        state.end = idx + 4;
+                        return PNone.NONE;
+                    }
+                    break;
+                case 't':
+                    if (s.startsWith("true", idx)) {
+                        state.end = idx + 4;
+                        return true;
+                    }
+                    break;
+                case 'f':
+                    if (s.startsWith("false", idx)) {
+                        state.end = idx + 5;
+                        return false;
+                    }
+                    break;
+                case 'N':
+                    if (s.startsWith("NaN", idx)) {
+                        return parseConstant(state, "NaN", idx);
+                    }
+                    break;
+                case 'I':
+                    if (s.startsWith("Infinity", idx)) {
+                        return parseConstant(state, "Infinity", idx);
+                    }
+                    break;
+                case '-':
+                    if (s.startsWith("-Infinity", idx)) {
+                        return parseConstant(state, "-Infinity", idx);
+                    }
+                    break;
+            }
+            return parseNumber(state, idx);
+        }
+
+        private Object parseConstant(ScanState state, String constant, int idx) {
+            state.end = idx + constant.length();
+            return callNode.execute(null, state.scanner.getParseConstant(), constant);
+        }
+
+        private Object parseNumber(ScanState state, int idx) throws DecodeError {
+            int end = JSONUtils.matchNumber(state.s, idx, state.isFloat);
+            if (end < 0) {
+                throw new DecodeError(EXPECTING_VALUE, idx);
+            }
+            state.end = end;
+            String number = state.s.substring(idx, end);
+            PJSONScanner scanner = state.scanner;
+            if (state.isFloat[0]) {
+                if (scanner.getParseFloat() != null) {
+                    return callNode.execute(null, scanner.getParseFloat(), number);
+                }
+                return Double.parseDouble(number);
+            } else {
+                if (scanner.getParseInt() != null) {
+                    return callNode.execute(null, scanner.getParseInt(), number);
+                }
+                return parseInteger(number);
+            }
+        }
+
+        private Object parseInteger(String number) {
+            int digits = number.charAt(0) == '-' ? number.length() - 1 : number.length();
+            if (digits <= 9) {
+                return Integer.parseInt(number);
+            } else if (digits <= 18) {
+                long value = Long.parseLong(number);
+                if ((int) value == value) {
+                    return (int) value;
+                }
+                return value;
+            }
+            BigInteger value = new BigInteger(number);
+            if (value.bitLength() < Long.SIZE) {
+                return value.longValue();
+            }
+            return factory().createInt(value);
+        }
+
+        private void checkDepth(int depth, String kind) {
+            if (depth > MAX_DEPTH) {
+                throw raise(PythonBuiltinClassType.RecursionError, "maximum recursion depth exceeded while decoding a JSON %s", kind);
+            }
+        }
+
+        private static String memoize(ScanState state, String key) {
+            String existing = state.memo.putIfAbsent(key, key);
+            return existing != null ? existing : key;
+        }
+
+        private Object parseObject(ScanState state, int idx, int depth) throws DecodeError {
+            checkDepth(depth, "object");
+            String s = state.s;
+            int len = s.length();
+            PJSONScanner scanner = state.scanner;
+            boolean pairs = scanner.getObjectPairsHook() != null;
+            ArrayList<Object> pairList = null;
+            StringKeysStorage storage = null;
+            int i = JSONUtils.skipWhitespace(s, idx);
+            if (i < len && s.charAt(i) == '}') {
+                i++;
+            } else {
+                if (pairs) {
+                    pairList = new ArrayList<>();
+                } else {
+                    storage = StringKeysStorage.create(8);
+                }
+                while (true) {
+                    if (i >= len || s.charAt(i) != '"') {
+                        throw new DecodeError("Expecting property name enclosed in double quotes", i);
+                    }
+                    String key = memoize(state, JSONUtils.scanString(s, i + 1, scanner.isStrict(), state.stringEnd));
+                    i = JSONUtils.skipWhitespace(s, state.stringEnd[0]);
+                    if (i >= len || s.charAt(i) != ':') {
+                        throw new DecodeError("Expecting ':' delimiter", i);
+                    }
+                    i = JSONUtils.skipWhitespace(s, i + 1);
+                    Object value = scanOnce(state, i, depth);
+                    if (pairs) {
+                        pairList.add(factory().createTuple(new Object[]{key, value}));
+                    } else {
+                        storage.setString(key, value);
+                    }
+                    i = JSONUtils.skipWhitespace(s, state.end);
+                    if (i < len && s.charAt(i) == '}') {
+                        i++;
+                        break;
+                    }
+                    if (i >= len || s.charAt(i) != ',') {
+                        throw new DecodeError("Expecting ',' delimiter", i);
+                    }
+                    i = JSONUtils.skipWhitespace(s, i + 1);
+                }
+            }
+            state.end = i;
+            if (pairs) {
+                return callNode.execute(null, scanner.getObjectPairsHook(), pairList == null ? factory().createList() : factory().createList(pairList.toArray()));
+            }
+            PDict dict = storage == null ? factory().createDict() : factory().createDict(storage);
+            if (scanner.getObjectHook() != null) {
+                return callNode.execute(null, scanner.getObjectHook(), dict);
+            }
+            return dict;
+        }
+
+        private Object parseArray(ScanState state, int idx, int depth) throws DecodeError {
+            checkDepth(depth, "array");
+            String s = state.s;
+            int len = s.length();
+            int i = JSONUtils.skipWhitespace(s, idx);
+            if (i < len && s.charAt(i) == ']') {
+                state.end = i + 1;
+                return factory().createList();
+            }
+            ArrayList<Object> items = new ArrayList<>();
+            while (true) {
+                items.add(scanOnce(state, i, depth));
+                i = JSONUtils.skipWhitespace(s, state.end);
+                if (i < len && s.charAt(i) == ']') {
+                    i++;
+                    break;
+                }
+                if (i >= len || s.charAt(i) != ',') {
+                    throw new DecodeError("Expecting ',' delimiter", i);
+                }
+                i = JSONUtils.skipWhitespace(s, i + 1);
+            }
+            state.end = i;
+            return factory().createList(createStorage(items));
+        }
+
+        private static SequenceStorage createStorage(ArrayList<Object> items) {
+            boolean ints = true;
+            boolean longs = true;
+            boolean doubles = true;
+            for (Object item : items) {
+                boolean isInt = item instanceof Integer;
+                ints &= isInt;
+                longs &= isInt || item instanceof Long;
+                doubles &= item instanceof Double;
+            }
+            int n = items.size();
+            if (ints) {
+                int[] values = new int[n];
+                for (int i = 0; i < n; i++) {
+                    values[i] = (int) items.get(i);
+                }
+                return new IntSequenceStorage(values);
+            } else if (longs) {
+                long[] values = new long[n];
+                for (int i = 0; i < n; i++) {
+                    values[i] = ((Number) items.get(i)).longValue();
+                }
+                return new LongSequenceStorage(values);
+            } else if (doubles) {
+                double[] values = new double[n];
+                for (int i = 0; i < n; i++) {
+                    values[i] = (double) items.get(i);
+                }
+                return new DoubleSequenceStorage(values);
+            }
+            return new ObjectSequenceStorage(items.toArray());
+        }
+    }
+}
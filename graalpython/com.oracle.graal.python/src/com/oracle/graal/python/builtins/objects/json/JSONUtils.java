@@ -0,0 +1,293 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.json;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * String scanning and escaping shared by the {@code _json} functions, the scanner and the
+ * encoder. The error messages and positions match CPython's {@code _json} module.
+ */
+public final class JSONUtils {
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private JSONUtils() {
+    }
+
+    /**
+     * A syntax error at a position of the document, reported as {@code json.JSONDecodeError}.
+     */
+    public static final class DecodeError extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        private final int position;
+
+        public DecodeError(String message, int position) {
+            super(message);
+            this.position = position;
+        }
+
+        public int getPosition() {
+            return position;
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+
+    /**
+     * Scans the string that starts after the opening quote at {@code start}, unescaping it. The
+     * index after the closing quote is stored in {@code end[0]}.
+     */
+    @TruffleBoundary
+    public static String scanString(String s, int start, boolean strict, int[] end) throws DecodeError {
+        int len = s.length();
+        int idx = start;
+        // fast path for strings without escapes
+        while (idx < len) {
+            char c = s.charAt(idx);
+            if (c == '"') {
+                end[0] = idx + 1;
+                return s.substring(start, idx);
+            } else if (c == '\\') {
+                break;
+            } else if (c < 0x20 && strict) {
+                throw new DecodeError("Invalid control character at", idx);
+            }
+            idx++;
+        }
+        StringBuilder sb = new StringBuilder(idx - start + 16);
+        sb.append(s, start, idx);
+        while (true) {
+            if (idx >= len) {
+                throw new DecodeError("Unterminated string starting at", start - 1);
+            }
+            char c = s.charAt(idx);
+            if (c == '"') {
+                end[0] = idx + 1;
+                return sb.toString();
+            } else if (c != '\\') {
+                if (c < 0x20 && strict) {
+                    throw new DecodeError("Invalid control character at", idx);
+                }
+                sb.append(c);
+                idx++;
+                continue;
+            }
+            idx++;
+            if (idx >= len) {
+                throw new DecodeError("Unterminated string starting at", start - 1);
+            }
+            c = s.charAt(idx);
+            switch (c) {
+                case '"':
+                case '\\':
+                case '/':
+                    sb.append(c);
+                    break;
+                case 'b':
+                    sb.append('\b');
+                    break;
+                case 'f':
+                    sb.append('\f');
+                    break;
+                case 'n':
+                    sb.append('\n');
+                    break;
+                case 'r':
+                    sb.append('\r');
+                    break;
+                case 't':
+                    sb.append('\t');
+                    break;
+                case 'u':
+                    // surrogate pairs need no joining, the two escapes are the two UTF-16 units
+                    if (idx + 5 > len) {
+                        throw new DecodeError("Invalid \\uXXXX escape", idx);
+                    }
+                    int value = 0;
+                    for (int i = idx + 1; i < idx + 5; i++) {
+                        int digit = Character.digit(s.charAt(i), 16);
+                        if (digit < 0) {
+                            throw new DecodeError("Invalid \\uXXXX escape", idx);
+                        }
+                        value = (value << 4) | digit;
+                    }
+                    sb.append((char) value);
+                    idx += 4;
+                    break;
+                default:
+                    throw new DecodeError("Invalid \\escape", idx - 1);
+            }
+            idx++;
+        }
+    }
+
+    /**
+     * Appends the string as a JSON string literal, escaping all non-ASCII characters if
+     * {@code ascii} is set.
+     */
+    @TruffleBoundary
+    public static void appendString(StringBuilder sb, String s, boolean ascii) {
+        sb.append('"');
+        int len = s.length();
+        int last = 0;
+        for (int i = 0; i < len; i++) {
+            char c = s.charAt(i);
+            if (c >= ' ' && c != '"' && c != '\\' && (c < 0x7f || !ascii)) {
+                continue;
+            }
+            sb.append(s, last, i);
+            last = i + 1;
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\b':
+                    sb.append("\\b");
+                    break;
+                case '\f':
+                    sb.append("\\f");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    sb.append("\\u");
+                    sb.append(HEX_DIGITS[(c >> 12) & 0xF]);
+                    sb.append(HEX_DIGITS[(c >> 8) & 0xF]);
+                    sb.append(HEX_DIGITS[(c >> 4) & 0xF]);
+                    sb.append(HEX_DIGITS[c & 0xF]);
+            }
+        }
+        sb.append(s, last, len);
+        sb.append('"');
+    }
+
+    @TruffleBoundary
+    public static String encodeString(String s, boolean ascii) {
+        StringBuilder sb = new StringBuilder(s.length() + 2);
+        appendString(sb, s, ascii);
+        return sb.toString();
+    }
+
+    public static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r';
+    }
+
+    /**
+     * Returns the index of the first non-whitespace character at or after {@code idx}.
+     */
+    public static int skipWhitespace(String s, int idx) {
+        int i = idx;
+        while (i < s.length() && isWhitespace(s.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Returns the end of the number starting at {@code idx}, or {@code -1} if there is none. The
+     * number is a float if {@code isFloat[0]} is set afterwards.
+     */
+    public static int matchNumber(String s, int idx, boolean[] isFloat) {
+        int len = s.length();
+        int i = idx;
+        if (i < len && s.charAt(i) == '-') {
+            i++;
+        }
+        if (i >= len) {
+            return -1;
+        }
+        char c = s.charAt(i);
+        if (c >= '1' && c <= '9') {
+            i++;
+            while (i < len && isDigit(s.charAt(i))) {
+                i++;
+            }
+        } else if (c == '0') {
+            i++;
+        } else {
+            return -1;
+        }
+        isFloat[0] = false;
+        if (i + 1 < len && s.charAt(i) == '.' && isDigit(s.charAt(i + 1))) {
+            i += 2;
+            while (i < len && isDigit(s.charAt(i))) {
+                i++;
+            }
+            isFloat[0] = true;
+        }
+        if (i < len && (s.charAt(i) == 'e' || s.charAt(i) == 'E')) {
+            int exponentStart = i;
+            i++;
+            if (i < len && (s.charAt(i) == '-' || s.charAt(i) == '+')) {
+                i++;
+            }
+            int digitsStart = i;
+            while (i < len && isDigit(s.charAt(i))) {
+                i++;
+            }
+            if (i > digitsStart) {
+                isFloat[0] = true;
+            } else {
+                i = exponentStart;
+            }
+        }
+        return i;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
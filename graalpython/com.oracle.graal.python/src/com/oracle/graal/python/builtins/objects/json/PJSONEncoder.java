@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.json;
+
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+
+/**
+ * The encoder returned by {@code _json.make_encoder}. Like CPython's, it ignores the indent and is
+ * only used by {@code json.encoder} for one-shot encoding without indentation.
+ */
+public final class PJSONEncoder extends PythonBuiltinObject {
+
+    /**
+     * How strings are encoded: with one of the builtin encoders, or by calling the encoder.
+     */
+    public enum FastEncode {
+        NONE,
+        ASCII,
+        UNICODE
+    }
+
+    private final boolean checkCircular;
+    private final Object defaultFn;
+    private final Object encoder;
+    private final FastEncode fastEncode;
+    private final String keySeparator;
+    private final String itemSeparator;
+    private final boolean sortKeys;
+    private final boolean skipKeys;
+    private final boolean allowNan;
+
+    public PJSONEncoder(LazyPythonClass cls, boolean checkCircular, Object defaultFn, Object encoder, FastEncode fastEncode, String keySeparator, String itemSeparator, boolean sortKeys,
+                    boolean skipKeys, boolean allowNan) {
+        super(cls);
+        this.checkCircular = checkCircular;
+        this.defaultFn = defaultFn;
+        this.encoder = encoder;
+        this.fastEncode = fastEncode;
+        this.keySeparator = keySeparator;
+        this.itemSeparator = itemSeparator;
+        this.sortKeys = sortKeys;
+        this.skipKeys = skipKeys;
+        this.allowNan = allowNan;
+    }
+
+    public boolean isCheckCircular() {
+        return checkCircular;
+    }
+
+    public Object getDefaultFn() {
+        return defaultFn;
+    }
+
+    public Object getEncoder() {
+        return encoder;
+    }
+
+    public FastEncode getFastEncode() {
+        return fastEncode;
+    }
+
+    public String getKeySeparator() {
+        return keySeparator;
+    }
+
+    public String getItemSeparator() {
+        return itemSeparator;
+    }
+
+    public boolean isSortKeys() {
+        return sortKeys;
+    }
+
+    public boolean isSkipKeys() {
+        return skipKeys;
+    }
+
+    public boolean isAllowNan() {
+        return allowNan;
+    }
+}
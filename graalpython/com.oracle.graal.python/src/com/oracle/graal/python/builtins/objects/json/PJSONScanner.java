@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.json;
+
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+
+/**
+ * The scanner returned by {@code _json.make_scanner}. The settings are read from the
+ * {@code JSONDecoder} once, hooks that are {@code None} are stored as {@code null}.
+ */
+public final class PJSONScanner extends PythonBuiltinObject {
+    private final boolean strict;
+    private final Object objectHook;
+    private final Object objectPairsHook;
+    /* null if the builtin float is used */
+    private final Object parseFloat;
+    /* null if the builtin int is used */
+    private final Object parseInt;
+    private final Object parseConstant;
+
+    public PJSONScanner(LazyPythonClass cls, boolean strict, Object objectHook, Object objectPairsHook, Object parseFloat, Object parseInt, Object parseConstant) {
+        super(cls);
+        this.strict = strict;
+        this.objectHook = objectHook;
+        this.objectPairsHook = objectPairsHook;
+        this.parseFloat = parseFloat;
+        this.parseInt = parseInt;
+        this.parseConstant = parseConstant;
+    }
+
+    public boolean isStrict() {
+        return strict;
+    }
+
+    public Object getObjectHook() {
+        return objectHook;
+    }
+
+    public Object getObjectPairsHook() {
+        return objectPairsHook;
+    }
+
+    public Object getParseFloat() {
+        return parseFloat;
+    }
+
+    public Object getParseInt() {
+        return parseInt;
+    }
+
+    public Object getParseConstant() {
+        return parseConstant;
+    }
+}
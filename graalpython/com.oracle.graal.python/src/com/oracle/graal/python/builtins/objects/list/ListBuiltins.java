@@ -50,6 +50,7 @@ import static com.oracle.graal.python.runtime.exception.PythonErrorType.MemoryEr
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
 
 import java.math.BigInteger;
+import java.util.Arrays;
 import java.util.List;
 
 import com.oracle.graal.python.builtins.Builtin;
@@ -75,6 +76,7 @@ import com.oracle.graal.python.nodes.PGuards;
 import com.oracle.graal.python.nodes.argument.ReadArgumentNode;
 import com.oracle.graal.python.nodes.builtins.ListNodes.CreateStorageFromIteratorNode;
 import com.oracle.graal.python.nodes.builtins.ListNodes.IndexNode;
+import com.oracle.graal.python.nodes.call.CallNode;
 import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
 import com.oracle.graal.python.nodes.control.GetIteratorNode;
 import com.oracle.graal.python.nodes.expression.BinaryComparisonNode;
@@ -103,6 +105,7 @@ import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.ImportStatic;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.dsl.TypeSystemReference;
+import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.profiles.BranchProfile;
 import com.oracle.truffle.api.profiles.ConditionProfile;
 import com.oracle.truffle.api.profiles.ValueProfile;
@@ -729,6 +732,530 @@ public class ListBuiltins extends PythonBuiltins {
         }
     }
 
+    // list.sort(key=None, reverse=False)
+    @Builtin(name = "sort", minNumOfPositionalArgs = 1, keywordArguments = {"key", "reverse"})
+    @GenerateNodeFactory
+    public abstract static class ListSortNode extends PythonBuiltinNode {
+        /**
+         * Runs shorter than this are sorted with binary insertion sort before they are merged.
+         */
+        private static final int MIN_MERGE = 32;
+
+        private static final int COMPARE_GENERIC = 0;
+        private static final int COMPARE_STRING = 1;
+        private static final int COMPARE_LONG = 2;
+        private static final int COMPARE_DOUBLE = 3;
+
+        @Child private BinaryComparisonNode ltNode;
+        @Child private CallNode callKeyNode;
+        @Child private CastToBooleanNode castToBooleanNode;
+        @Child private SequenceStorageNodes.ToArrayNode toArrayNode;
+        @Child private SequenceStorageNodes.SetItemNode setItemNode;
+
+        private final ConditionProfile reverseProfile = ConditionProfile.createBinaryProfile();
+        private final BranchProfile modifiedProfile = BranchProfile.create();
+
+        protected static boolean isNoKey(Object keyfunc) {
+            return keyfunc instanceof PNone;
+        }
+
+        @Specialization(guards = {"isIntStorage(list)", "isNoKey(keyfunc)"})
+        PNone sortInt(PList list, @SuppressWarnings("unused") Object keyfunc, Object reverse) {
+            boolean rev = isReverse(reverse);
+            IntSequenceStorage storage = (IntSequenceStorage) list.getSequenceStorage();
+            sortIntArray(storage.getInternalIntArray(), storage.length(), rev);
+            return PNone.NONE;
+        }
+
+        @Specialization(guards = {"isLongStorage(list)", "isNoKey(keyfunc)"})
+        PNone sortLong(PList list, @SuppressWarnings("unused") Object keyfunc, Object reverse) {
+            boolean rev = isReverse(reverse);
+            LongSequenceStorage storage = (LongSequenceStorage) list.getSequenceStorage();
+            sortLongArray(storage.getInternalLongArray(), storage.length(), rev);
+            return PNone.NONE;
+        }
+
+        @Specialization(guards = {"isDoubleStorage(list)", "isNoKey(keyfunc)"})
+        PNone sortDouble(VirtualFrame frame, PList list, Object keyfunc, Object reverse) {
+            DoubleSequenceStorage storage = (DoubleSequenceStorage) list.getSequenceStorage();
+            double[] values = storage.getInternalDoubleArray();
+            int len = storage.length();
+            if (!canSortDoublesNatively(values, len)) {
+                // Arrays.sort orders NaN and -0.0 differently than comparisons with '<' would
+                return sortGeneric(frame, list, keyfunc, reverse);
+            }
+            sortDoubleArray(values, len, isReverse(reverse));
+            return PNone.NONE;
+        }
+
+        @Specialization
+        PNone sortGeneric(VirtualFrame frame, PList list, Object keyfunc, Object reverse) {
+            boolean rev = isReverse(reverse);
+            SequenceStorage storage = list.getSequenceStorage();
+            Object[] values = getToArrayNode().execute(storage);
+            int len = values.length;
+            // like CPython, the list appears empty while it is sorted so that modifications made
+            // by the key function or comparisons can be detected
+            list.setSequenceStorage(EmptySequenceStorage.INSTANCE);
+            boolean modified;
+            try {
+                if (reverseProfile.profile(rev)) {
+                    reverseArray(values, len);
+                }
+                Object[] keys = values;
+                if (!isNoKey(keyfunc)) {
+                    // decorate: the key function is called exactly once per element
+                    keys = new Object[len];
+                    for (int i = 0; i < len; i++) {
+                        keys[i] = getCallKeyNode().execute(frame, keyfunc, values[i]);
+                    }
+                }
+                mergeSort(keys, keys == values ? null : values, len, getCompareMode(keys, len));
+            } finally {
+                if (reverseProfile.profile(rev)) {
+                    // also if the key function or a comparison raised, so the list is not left
+                    // reversed
+                    reverseArray(values, len);
+                }
+                modified = list.getSequenceStorage() != EmptySequenceStorage.INSTANCE;
+                list.setSequenceStorage(writeBack(storage, values, len));
+            }
+            if (modified) {
+                modifiedProfile.enter();
+                throw raise(PythonErrorType.ValueError, "list modified during sort");
+            }
+            return PNone.NONE;
+        }
+
+        /**
+         * Stores the sorted values into the storage they were taken from, which keeps its type and
+         * also a native storage native.
+         */
+        private SequenceStorage writeBack(SequenceStorage storage, Object[] values, int len) {
+            SequenceStorage result = storage;
+            for (int i = 0; i < len; i++) {
+                result = getSetItemNode().executeInt(result, i, values[i]);
+            }
+            return result;
+        }
+
+        private boolean isReverse(Object reverse) {
+            if (reverse instanceof PNone) {
+                return false;
+            } else if (reverse instanceof Boolean) {
+                return (boolean) reverse;
+            }
+            if (castToBooleanNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                castToBooleanNode = insert(CastToBooleanNode.createIfTrueNode());
+            }
+            return castToBooleanNode.executeWith(reverse);
+        }
+
+        private static int getCompareMode(Object[] keys, int len) {
+            if (len == 0) {
+                return COMPARE_GENERIC;
+            }
+            Object first = keys[0];
+            int mode;
+            if (first instanceof String) {
+                mode = COMPARE_STRING;
+            } else if (first instanceof Integer || first instanceof Long) {
+                mode = COMPARE_LONG;
+            } else if (first instanceof Double) {
+                mode = COMPARE_DOUBLE;
+            } else {
+                return COMPARE_GENERIC;
+            }
+            for (int i = 1; i < len; i++) {
+                Object key = keys[i];
+                boolean matches;
+                switch (mode) {
+                    case COMPARE_STRING:
+                        matches = key instanceof String;
+                        break;
+                    case COMPARE_LONG:
+                        matches = key instanceof Integer || key instanceof Long;
+                        break;
+                    default:
+                        matches = key instanceof Double;
+                        break;
+                }
+                if (!matches) {
+                    return COMPARE_GENERIC;
+                }
+            }
+            return mode;
+        }
+
+        private boolean lessThan(Object a, Object b, int mode) {
+            switch (mode) {
+                case COMPARE_STRING:
+                    return compareCodePoints((String) a, (String) b) < 0;
+                case COMPARE_LONG:
+                    return asLong(a) < asLong(b);
+                case COMPARE_DOUBLE:
+                    return (double) a < (double) b;
+                default:
+                    return getLtNode().executeBool(a, b);
+            }
+        }
+
+        private static long asLong(Object o) {
+            return o instanceof Integer ? (int) o : (long) o;
+        }
+
+        /**
+         * Compares by code points, which is what Python does, while {@link String#compareTo}
+         * compares UTF-16 code units.
+         */
+        public static int compareCodePoints(String a, String b) {
+            int len = Math.min(a.length(), b.length());
+            for (int i = 0; i < len; i++) {
+                char ca = a.charAt(i);
+                char cb = b.charAt(i);
+                if (ca != cb) {
+                    if (Character.isSurrogate(ca) || Character.isSurrogate(cb)) {
+                        return Integer.compare(a.codePointAt(i), b.codePointAt(i));
+                    }
+                    return ca - cb;
+                }
+            }
+            return a.length() - b.length();
+        }
+
+        /**
+         * A stable natural merge sort that only uses 'less than', like CPython's timsort without
+         * galloping: ascending and strictly descending runs are detected and the descending ones
+         * reversed, runs shorter than the minimum run length are extended with binary insertion,
+         * and runs are merged on a stack that keeps the merges balanced. If {@code values} is not
+         * {@code null}, it is permuted along with the keys. If a comparison raises, the arrays
+         * still hold all elements.
+         */
+        private void mergeSort(Object[] keys, Object[] values, int len, int mode) {
+            if (len < 2) {
+                return;
+            }
+            MergeState ms = new MergeState(keys, values, mode);
+            int minRun = minRunLength(len);
+            int lo = 0;
+            while (lo < len) {
+                int n = countRunAndMakeAscending(keys, values, lo, len, mode);
+                if (n < minRun) {
+                    int force = Math.min(minRun, len - lo);
+                    binaryInsertionSort(keys, values, lo, lo + n, lo + force, mode);
+                    n = force;
+                }
+                ms.pushRun(lo, n);
+                mergeCollapse(ms);
+                lo += n;
+            }
+            mergeForceCollapse(ms);
+        }
+
+        private static final class MergeState {
+            final Object[] keys;
+            final Object[] values;
+            final int mode;
+            // run lengths grow at least like the Fibonacci numbers, so this is enough for any
+            // int length with runs of at least MIN_MERGE / 2 elements
+            final int[] runBase = new int[49];
+            final int[] runLen = new int[49];
+            int stackSize;
+            Object[] tmpKeys;
+            Object[] tmpValues;
+
+            MergeState(Object[] keys, Object[] values, int mode) {
+                this.keys = keys;
+                this.values = values;
+                this.mode = mode;
+            }
+
+            void pushRun(int base, int len) {
+                runBase[stackSize] = base;
+                runLen[stackSize] = len;
+                stackSize++;
+            }
+
+            void ensureTmpCapacity(int len) {
+                if (tmpKeys == null || tmpKeys.length < len) {
+                    tmpKeys = new Object[len];
+                    if (values != null) {
+                        tmpValues = new Object[len];
+                    }
+                }
+            }
+        }
+
+        /**
+         * Like CPython, chooses a minimum run length between {@code MIN_MERGE / 2} and
+         * {@link #MIN_MERGE} such that {@code len / minRun} is a power of two or slightly less.
+         */
+        private static int minRunLength(int len) {
+            int n = len;
+            int r = 0;
+            while (n >= MIN_MERGE) {
+                r |= n & 1;
+                n >>= 1;
+            }
+            return n + r;
+        }
+
+        /**
+         * Returns the length of the run starting at {@code lo}, reversing it if it is strictly
+         * descending. Only strictly descending runs are reversed to keep the sort stable.
+         */
+        private int countRunAndMakeAscending(Object[] keys, Object[] values, int lo, int hi, int mode) {
+            int runHi = lo + 1;
+            if (runHi == hi) {
+                return 1;
+            }
+            if (lessThan(keys[runHi++], keys[lo], mode)) {
+                while (runHi < hi && lessThan(keys[runHi], keys[runHi - 1], mode)) {
+                    runHi++;
+                }
+                reverseRange(keys, lo, runHi);
+                if (values != null) {
+                    reverseRange(values, lo, runHi);
+                }
+            } else {
+                while (runHi < hi && !lessThan(keys[runHi], keys[runHi - 1], mode)) {
+                    runHi++;
+                }
+            }
+            return runHi - lo;
+        }
+
+        /**
+         * Sorts {@code [lo, hi)} given that {@code [lo, start)} is already sorted.
+         */
+        private void binaryInsertionSort(Object[] keys, Object[] values, int lo, int start, int hi, int mode) {
+            for (int i = start; i < hi; i++) {
+                Object pivot = keys[i];
+                int left = lo;
+                int right = i;
+                while (left < right) {
+                    int mid = (left + right) >>> 1;
+                    if (lessThan(pivot, keys[mid], mode)) {
+                        right = mid;
+                    } else {
+                        left = mid + 1;
+                    }
+                }
+                if (left < i) {
+                    System.arraycopy(keys, left, keys, left + 1, i - left);
+                    keys[left] = pivot;
+                    if (values != null) {
+                        Object pivotValue = values[i];
+                        System.arraycopy(values, left, values, left + 1, i - left);
+                        values[left] = pivotValue;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Merges runs until the lengths on the stack satisfy the invariants of timsort:
+         * {@code runLen[i - 2] > runLen[i - 1] + runLen[i]} and
+         * {@code runLen[i - 1] > runLen[i]}.
+         */
+        private void mergeCollapse(MergeState ms) {
+            int[] runLen = ms.runLen;
+            while (ms.stackSize > 1) {
+                int n = ms.stackSize - 2;
+                if (n > 0 && runLen[n - 1] <= runLen[n] + runLen[n + 1] || n > 1 && runLen[n - 2] <= runLen[n] + runLen[n - 1]) {
+                    if (runLen[n - 1] < runLen[n + 1]) {
+                        n--;
+                    }
+                } else if (runLen[n] > runLen[n + 1]) {
+                    break;
+                }
+                mergeAt(ms, n);
+            }
+        }
+
+        private void mergeForceCollapse(MergeState ms) {
+            int[] runLen = ms.runLen;
+            while (ms.stackSize > 1) {
+                int n = ms.stackSize - 2;
+                if (n > 0 && runLen[n - 1] < runLen[n + 1]) {
+                    n--;
+                }
+                mergeAt(ms, n);
+            }
+        }
+
+        /**
+         * Merges the runs at stack positions {@code i} and {@code i + 1}.
+         */
+        private void mergeAt(MergeState ms, int i) {
+            int base1 = ms.runBase[i];
+            int len1 = ms.runLen[i];
+            int base2 = ms.runBase[i + 1];
+            int len2 = ms.runLen[i + 1];
+            ms.runLen[i] = len1 + len2;
+            if (i == ms.stackSize - 3) {
+                ms.runBase[i + 1] = ms.runBase[i + 2];
+                ms.runLen[i + 1] = ms.runLen[i + 2];
+            }
+            ms.stackSize--;
+
+            Object[] keys = ms.keys;
+            if (!lessThan(keys[base2], keys[base2 - 1], ms.mode)) {
+                // the two runs are already in order
+                return;
+            }
+            // elements of the first run that are not greater than the first element of the second
+            // run are already in place
+            Object first2 = keys[base2];
+            int left = base1;
+            int right = base2 - 1;
+            while (left < right) {
+                int mid = (left + right) >>> 1;
+                if (lessThan(first2, keys[mid], ms.mode)) {
+                    right = mid;
+                } else {
+                    left = mid + 1;
+                }
+            }
+            mergeLo(ms, left, base2 - left, base2, len2);
+        }
+
+        /**
+         * Merges two adjacent runs in place, using a copy of the first run. If a comparison raises,
+         * the rest of the copy is put back into the gap left in the array.
+         */
+        private void mergeLo(MergeState ms, int base1, int len1, int base2, int len2) {
+            Object[] keys = ms.keys;
+            Object[] values = ms.values;
+            ms.ensureTmpCapacity(len1);
+            Object[] tmpKeys = ms.tmpKeys;
+            Object[] tmpValues = ms.tmpValues;
+            System.arraycopy(keys, base1, tmpKeys, 0, len1);
+            if (values != null) {
+                System.arraycopy(values, base1, tmpValues, 0, len1);
+            }
+            int i = 0;
+            int j = base2;
+            int end2 = base2 + len2;
+            int dest = base1;
+            try {
+                while (i < len1 && j < end2) {
+                    if (lessThan(keys[j], tmpKeys[i], ms.mode)) {
+                        keys[dest] = keys[j];
+                        if (values != null) {
+                            values[dest] = values[j];
+                        }
+                        j++;
+                    } else {
+                        keys[dest] = tmpKeys[i];
+                        if (values != null) {
+                            values[dest] = tmpValues[i];
+                        }
+                        i++;
+                    }
+                    dest++;
+                }
+            } finally {
+                // whatever is left of the first run exactly fills the gap before j
+                System.arraycopy(tmpKeys, i, keys, dest, len1 - i);
+                if (values != null) {
+                    System.arraycopy(tmpValues, i, values, dest, len1 - i);
+                }
+            }
+        }
+
+        private static void reverseRange(Object[] array, int lo, int hi) {
+            for (int i = lo, j = hi - 1; i < j; i++, j--) {
+                Object tmp = array[i];
+                array[i] = array[j];
+                array[j] = tmp;
+            }
+        }
+
+        private static void reverseArray(Object[] array, int len) {
+            reverseRange(array, 0, len);
+        }
+
+        private static boolean canSortDoublesNatively(double[] values, int len) {
+            for (int i = 0; i < len; i++) {
+                double value = values[i];
+                if (value != value || (value == 0.0 && Double.doubleToRawLongBits(value) != 0L)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @TruffleBoundary
+        private static void sortIntArray(int[] values, int len, boolean reverse) {
+            Arrays.sort(values, 0, len);
+            if (reverse) {
+                for (int i = 0, j = len - 1; i < j; i++, j--) {
+                    int tmp = values[i];
+                    values[i] = values[j];
+                    values[j] = tmp;
+                }
+            }
+        }
+
+        @TruffleBoundary
+        private static void sortLongArray(long[] values, int len, boolean reverse) {
+            Arrays.sort(values, 0, len);
+            if (reverse) {
+                for (int i = 0, j = len - 1; i < j; i++, j--) {
+                    long tmp = values[i];
+                    values[i] = values[j];
+                    values[j] = tmp;
+                }
+            }
+        }
+
+        @TruffleBoundary
+        private static void sortDoubleArray(double[] values, int len, boolean reverse) {
+            Arrays.sort(values, 0, len);
+            if (reverse) {
+                for (int i = 0, j = len - 1; i < j; i++, j--) {
+                    double tmp = values[i];
+                    values[i] = values[j];
+                    values[j] = tmp;
+                }
+            }
+        }
+
+        private BinaryComparisonNode getLtNode() {
+            if (ltNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                ltNode = insert(BinaryComparisonNode.create(__LT__, __GT__, "<"));
+            }
+            return ltNode;
+        }
+
+        private CallNode getCallKeyNode() {
+            if (callKeyNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                callKeyNode = insert(CallNode.create());
+            }
+            return callKeyNode;
+        }
+
+        private SequenceStorageNodes.ToArrayNode getToArrayNode() {
+            if (toArrayNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                toArrayNode = insert(SequenceStorageNodes.ToArrayNode.create());
+            }
+            return toArrayNode;
+        }
+
+        private SequenceStorageNodes.SetItemNode getSetItemNode() {
+            if (setItemNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                setItemNode = insert(SequenceStorageNodes.SetItemNode.create(NormalizeIndexNode.forListAssign(), () -> ListGeneralizationNode.create()));
+            }
+            return setItemNode;
+        }
+    }
+
     @Builtin(name = __LEN__, fixedNumOfPositionalArgs = 1)
     @GenerateNodeFactory
     public abstract static class LenNode extends PythonUnaryBuiltinNode {
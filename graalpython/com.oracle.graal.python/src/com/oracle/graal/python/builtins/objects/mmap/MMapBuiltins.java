@@ -78,6 +78,7 @@ import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes.Norm
 import com.oracle.graal.python.builtins.objects.exception.OSErrorEnum;
 import com.oracle.graal.python.builtins.objects.ints.PInt;
 import com.oracle.graal.python.builtins.objects.memoryview.PMemoryView;
+import com.oracle.graal.python.builtins.objects.mmap.MMapBuiltinsFactory.GetMappedChannelNodeGen;
 import com.oracle.graal.python.builtins.objects.mmap.MMapBuiltinsFactory.InternalLenNodeGen;
 import com.oracle.graal.python.builtins.objects.slice.PSlice;
 import com.oracle.graal.python.builtins.objects.slice.PSlice.SliceInfo;
@@ -253,6 +254,37 @@ public class MMapBuiltins extends PythonBuiltins {
 
         public abstract long executeLong(VirtualFrame frame, PMMap self, Object idxObj);
 
+        @Specialization(guards = {"self.isMapped()", "!isPSlice(idxObj)"})
+        int doSingleMapped(PMMap self, Object idxObj,
+                        @Cached("create()") GetMappedChannelNode getMappedNode,
+                        @Cached("createExact()") CastToJavaLongNode castToLongNode,
+                        @Cached("create()") BranchProfile outOfRangeProfile) {
+            MappedChannel mapped = getMappedNode.execute(self);
+            long i = castToLongNode.execute(idxObj);
+            long idx = i < 0 ? i + mapped.getSize() : i;
+            if (idx < 0 || idx >= mapped.getSize()) {
+                outOfRangeProfile.enter();
+                throw raise(PythonBuiltinClassType.IndexError, "mmap index out of range");
+            }
+            return mapped.get((int) idx) & 0xFF;
+        }
+
+        @Specialization(guards = "self.isMapped()")
+        Object doSliceMapped(PMMap self, PSlice idx,
+                        @Cached("create()") GetMappedChannelNode getMappedNode,
+                        @Cached("createBinaryProfile()") ConditionProfile stepProfile) {
+            MappedChannel mapped = getMappedNode.execute(self);
+            SliceInfo info = idx.computeIndices(mapped.getSize());
+            if (stepProfile.profile(info.step == 1)) {
+                return factory().createBytes(mapped.getBytes(info.start, info.length));
+            }
+            byte[] result = new byte[info.length];
+            for (int i = 0, j = info.start; i < info.length; i++, j += info.step) {
+                result[i] = mapped.get(j);
+            }
+            return factory().createBytes(result);
+        }
+
         @Specialization(guards = "!isPSlice(idxObj)")
         int doSingle(VirtualFrame frame, PMMap self, Object idxObj,
                         @Cached("createIndexError()") ReadByteFromChannelNode readByteNode,
@@ -314,6 +346,57 @@ public class MMapBuiltins extends PythonBuiltins {
     @GenerateNodeFactory
     abstract static class SetItemNode extends PythonBuiltinNode implements ByteWritingNode {
 
+        @Specialization(guards = {"self.isMapped()", "!isPSlice(idxObj)"})
+        PNone doSingleMapped(PMMap self, Object idxObj, Object val,
+                        @Cached("create()") GetMappedChannelNode getMappedNode,
+                        @Cached("createExact()") CastToJavaLongNode castToLongNode,
+                        @Cached("createCoerce()") CastToByteNode castToByteNode,
+                        @Cached("create()") BranchProfile errorProfile) {
+            MappedChannel mapped = getMappedNode.execute(self);
+            long i = castToLongNode.execute(idxObj);
+            long idx = i < 0 ? i + mapped.getSize() : i;
+            if (idx < 0 || idx >= mapped.getSize()) {
+                errorProfile.enter();
+                throw raise(PythonBuiltinClassType.IndexError, "mmap index out of range");
+            }
+            byte b = castToByteNode.execute(val);
+            if (mapped.isReadOnly()) {
+                errorProfile.enter();
+                throw raise(PythonBuiltinClassType.TypeError, "mmap can't modify a readonly memory map.");
+            }
+            mapped.put((int) idx, b);
+            return PNone.NONE;
+        }
+
+        @Specialization(guards = "self.isMapped()")
+        PNone doSliceMapped(PMMap self, PSlice idx, PIBytesLike val,
+                        @Cached("create()") GetMappedChannelNode getMappedNode,
+                        @Cached("create()") SequenceNodes.GetSequenceStorageNode getStorageNode,
+                        @Cached("create(false)") SequenceStorageNodes.ToByteArrayNode toByteArrayNode,
+                        @Cached("create()") BranchProfile errorProfile,
+                        @Cached("createBinaryProfile()") ConditionProfile stepProfile) {
+            MappedChannel mapped = getMappedNode.execute(self);
+            SliceInfo info = idx.computeIndices(mapped.getSize());
+            SequenceStorage storage = getStorageNode.execute(val);
+            if (storage.length() != info.length) {
+                errorProfile.enter();
+                throw raise(PythonBuiltinClassType.IndexError, "mmap slice assignment is wrong size");
+            }
+            if (mapped.isReadOnly()) {
+                errorProfile.enter();
+                throw raise(PythonBuiltinClassType.TypeError, "mmap can't modify a readonly memory map.");
+            }
+            byte[] data = toByteArrayNode.execute(storage);
+            if (stepProfile.profile(info.step == 1)) {
+                mapped.putBytes(info.start, data, info.length);
+            } else {
+                for (int i = 0, j = info.start; i < info.length; i++, j += info.step) {
+                    mapped.put(j, data[i]);
+                }
+            }
+            return PNone.NONE;
+        }
+
         @Specialization(guards = "!isPSlice(idxObj)")
         PNone doSingle(VirtualFrame frame, PMMap self, Object idxObj, Object val,
                         @Cached("createIndexError()") WriteByteToChannelNode writeByteNode,
@@ -466,6 +549,10 @@ public class MMapBuiltins extends PythonBuiltins {
 
             try {
                 SeekableByteChannel channel = self.getChannel();
+                if (self.isMapped()) {
+                    // positions of mapped channels are relative to the mapped region
+                    return position(channel);
+                }
                 return position(channel) - self.getOffset();
             } catch (IOException e) {
                 throw raiseOSError(frame, OSErrorEnum.EIO, e.getMessage());
@@ -518,7 +605,19 @@ public class MMapBuiltins extends PythonBuiltins {
     @GenerateNodeFactory
     abstract static class ReadlineNode extends PythonUnaryBuiltinNode implements ByteReadingNode {
 
-        @Specialization
+        @Specialization(guards = "self.isMapped()")
+        Object readlineMapped(PMMap self,
+                        @Cached("create()") GetMappedChannelNode getMappedNode) {
+            MappedChannel mapped = getMappedNode.execute(self);
+            int start = mapped.getPosition();
+            int end = mapped.indexOf((byte) '\n', start, mapped.getSize());
+            // CPython really tests for '\n' only
+            end = end < 0 ? mapped.getSize() : end + 1;
+            mapped.setPosition(end);
+            return factory().createBytes(mapped.getBytes(start, end - start));
+        }
+
+        @Specialization(guards = "!self.isMapped()")
         Object readline(PMMap self,
                         @Cached("createAppend()") SequenceStorageNodes.AppendNode appendNode) {
 
@@ -531,12 +630,11 @@ public class MMapBuiltins extends PythonBuiltins {
                     buf.flip();
                     while (buf.hasRemaining()) {
                         byte b = buf.get();
+                        appendNode.execute(res, b);
                         // CPython really tests for '\n' only
-                        if (b != (byte) '\n') {
-                            appendNode.execute(res, b);
-                        } else {
+                        if (b == (byte) '\n') {
                             // recover correct position (i.e. number of remaining bytes in buffer)
-                            position(channel, position(channel) - buf.remaining() - 1);
+                            position(channel, position(channel) - buf.remaining());
                             break outer;
                         }
                     }
@@ -650,6 +748,33 @@ public class MMapBuiltins extends PythonBuiltins {
 
         public abstract long execute(PMMap bytes, Object sub, Object starting, Object ending);
 
+        @Specialization(guards = "primary.isMapped()")
+        long findMapped(PMMap primary, PIBytesLike sub, Object starting, Object ending,
+                        @Cached("create()") GetMappedChannelNode getMappedNode,
+                        @Cached("create(false)") SequenceStorageNodes.ToByteArrayNode toByteArrayNode) {
+            MappedChannel mapped = getMappedNode.execute(primary);
+            SequenceStorage needle = sub.getSequenceStorage();
+            int len = mapped.getSize();
+            int start = clampIndex(castToLong(starting, 0), len);
+            int end = clampIndex(castToLong(ending, len), len);
+            return mapped.indexOf(toByteArrayNode.execute(needle), needle.length(), start, end);
+        }
+
+        @Specialization(guards = "primary.isMapped()")
+        long findMapped(PMMap primary, int sub, Object starting, Object ending,
+                        @Cached("create()") GetMappedChannelNode getMappedNode) {
+            MappedChannel mapped = getMappedNode.execute(primary);
+            int len = mapped.getSize();
+            int start = clampIndex(castToLong(starting, 0), len);
+            int end = clampIndex(castToLong(ending, len), len);
+            return mapped.indexOf((byte) sub, start, end);
+        }
+
+        private static int clampIndex(long idx, int len) {
+            long i = idx < 0 ? idx + len : idx;
+            return (int) Math.max(0, Math.min(i, len));
+        }
+
         @Specialization
         long find(PMMap primary, PIBytesLike sub, Object starting, Object ending,
                         @Cached("createValueError()") ReadByteFromChannelNode readByteNode) {
@@ -778,6 +903,30 @@ public class MMapBuiltins extends PythonBuiltins {
         }
     }
 
+    /**
+     * Returns the channel of a mapped {@link PMMap} and raises a {@code ValueError} if it has
+     * already been closed.
+     */
+    abstract static class GetMappedChannelNode extends PNodeWithContext {
+
+        public abstract MappedChannel execute(PMMap self);
+
+        @Specialization
+        MappedChannel doMapped(PMMap self,
+                        @Cached("create()") BranchProfile closedProfile) {
+            MappedChannel mapped = self.getMappedChannel();
+            if (!mapped.isOpen()) {
+                closedProfile.enter();
+                throw raise(PythonBuiltinClassType.ValueError, "mmap closed or invalid");
+            }
+            return mapped;
+        }
+
+        public static GetMappedChannelNode create() {
+            return GetMappedChannelNodeGen.create();
+        }
+    }
+
     @Builtin(name = "flush", fixedNumOfPositionalArgs = 1)
     @GenerateNodeFactory
     abstract static class FlushNode extends PythonUnaryBuiltinNode {
@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.mmap;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SeekableByteChannel;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * A channel over a memory region: either a {@link java.nio.MappedByteBuffer} obtained from
+ * {@link java.nio.channels.FileChannel#map} or a heap buffer for anonymous maps. Positions are
+ * relative to the start of the region. Besides implementing the channel interface for the generic
+ * mmap operations, the region can be accessed directly by index so that subscripting and searching
+ * do not need to seek and copy through intermediate buffers.
+ */
+public final class MappedChannel implements SeekableByteChannel {
+    private final ByteBuffer buffer;
+    private final int size;
+
+    private boolean open = true;
+    private int cur;
+
+    public MappedChannel(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.size = buffer.capacity();
+    }
+
+    public boolean isOpen() {
+        return open;
+    }
+
+    public boolean isReadOnly() {
+        return buffer.isReadOnly();
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getPosition() {
+        return cur;
+    }
+
+    public void setPosition(int position) {
+        assert position >= 0 && position <= size;
+        cur = position;
+    }
+
+    public void close() {
+        open = false;
+    }
+
+    @TruffleBoundary(allowInlining = true)
+    public byte get(int idx) {
+        return buffer.get(idx);
+    }
+
+    @TruffleBoundary(allowInlining = true)
+    public void put(int idx, byte b) {
+        buffer.put(idx, b);
+    }
+
+    /**
+     * Returns a new buffer over the whole region, whose byte order can be set independently.
+     */
+    @TruffleBoundary(allowInlining = true)
+    public ByteBuffer view() {
+        return buffer.duplicate();
+    }
+
+    /**
+     * Copies {@code len} bytes starting at {@code start} into a new array.
+     */
+    @TruffleBoundary
+    public byte[] getBytes(int start, int len) {
+        byte[] result = new byte[len];
+        ByteBuffer src = buffer.duplicate();
+        src.position(start);
+        src.get(result);
+        return result;
+    }
+
+    @TruffleBoundary
+    public void putBytes(int start, byte[] src, int len) {
+        ByteBuffer dst = buffer.duplicate();
+        dst.position(start);
+        dst.put(src, 0, len);
+    }
+
+    /**
+     * Returns the index of the first occurrence of {@code b} in {@code [start, end)} or -1.
+     */
+    @TruffleBoundary
+    public int indexOf(byte b, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (buffer.get(i) == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the index of the first occurrence of {@code needle[0:len]} which lies entirely within
+     * {@code [start, end)} or -1.
+     */
+    @TruffleBoundary
+    public int indexOf(byte[] needle, int len, int start, int end) {
+        if (len == 0) {
+            return start <= end ? start : -1;
+        }
+        byte first = needle[0];
+        int last = end - len;
+        outer: for (int i = start; i <= last; i++) {
+            if (buffer.get(i) != first) {
+                continue;
+            }
+            for (int j = 1; j < len; j++) {
+                if (buffer.get(i + j) != needle[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    @TruffleBoundary
+    public int read(ByteBuffer dst) throws IOException {
+        checkOpen();
+        if (cur >= size) {
+            return dst.hasRemaining() ? -1 : 0;
+        }
+        int n = Math.min(dst.remaining(), size - cur);
+        ByteBuffer src = buffer.duplicate();
+        src.position(cur);
+        src.limit(cur + n);
+        dst.put(src);
+        cur += n;
+        return n;
+    }
+
+    @TruffleBoundary
+    public int write(ByteBuffer src) throws IOException {
+        checkOpen();
+        if (buffer.isReadOnly()) {
+            throw new IOException("mmap can't modify a readonly memory map.");
+        }
+        int n = Math.min(src.remaining(), size - cur);
+        ByteBuffer part = src.duplicate();
+        part.limit(part.position() + n);
+        ByteBuffer dst = buffer.duplicate();
+        dst.position(cur);
+        dst.put(part);
+        src.position(src.position() + n);
+        cur += n;
+        return n;
+    }
+
+    public long position() throws IOException {
+        checkOpen();
+        return cur;
+    }
+
+    public SeekableByteChannel position(long newPosition) throws IOException {
+        checkOpen();
+        if (newPosition < 0) {
+            throw new IllegalArgumentException();
+        }
+        cur = (int) Math.min(newPosition, size);
+        return this;
+    }
+
+    public long size() throws IOException {
+        checkOpen();
+        return size;
+    }
+
+    public SeekableByteChannel truncate(long newSize) throws IOException {
+        throw new IOException("cannot truncate a memory map");
+    }
+
+    private void checkOpen() throws ClosedChannelException {
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+    }
+}
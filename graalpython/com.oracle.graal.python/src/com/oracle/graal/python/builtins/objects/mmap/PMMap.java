@@ -62,6 +62,17 @@ public final class PMMap extends PythonObject {
         return mappedByteBuffer;
     }
 
+    /**
+     * Whether the contents are directly accessible in memory (see {@link MappedChannel}).
+     */
+    public boolean isMapped() {
+        return mappedByteBuffer instanceof MappedChannel;
+    }
+
+    public MappedChannel getMappedChannel() {
+        return (MappedChannel) mappedByteBuffer;
+    }
+
     public long getLength() {
         return length;
     }
@@ -33,6 +33,7 @@ import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.objects.PNone;
 import com.oracle.graal.python.builtins.objects.PythonAbstractObject;
 import com.oracle.graal.python.builtins.objects.common.PHashingCollection;
+import com.oracle.graal.python.builtins.objects.type.InstanceLayout;
 import com.oracle.graal.python.builtins.objects.type.PythonAbstractClass;
 import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
 import com.oracle.graal.python.builtins.objects.type.PythonManagedClass;
@@ -119,7 +120,7 @@ public class PythonObject extends PythonAbstractObject {
      * Does this object have an instance variable defined?
      */
     public final boolean isOwnAttribute(String name) {
-        return getStorage().containsKey(name);
+        return getStorage().get(name, PNone.NO_VALUE) != PNone.NO_VALUE;
     }
 
     public final Location getOwnValidLocation(String attributeId) {
@@ -142,6 +143,7 @@ public class PythonObject extends PythonAbstractObject {
     @TruffleBoundary
     public void setAttribute(Object name, Object value) {
         CompilerAsserts.neverPartOfCompilation();
+        InstanceLayout.ensureInsertionOrder(getStorage(), name);
         getStorage().define(name, value);
     }
 
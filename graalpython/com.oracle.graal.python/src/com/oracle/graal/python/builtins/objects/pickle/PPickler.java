@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.pickle;
+
+import java.util.IdentityHashMap;
+
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * A {@code _pickle.Pickler}. The memo maps the pickled objects by identity to their memo index and
+ * is kept across calls to {@code dump} until {@code clear_memo} is called, so that several pickles
+ * written with one pickler can share objects.
+ */
+public final class PPickler extends PythonBuiltinObject {
+    private int protocol = PickleUtils.DEFAULT_PROTOCOL;
+    private boolean fixImports = true;
+    /* the file object, or null if pickling to bytes */
+    private Object file;
+    /* the file's bound 'write' method, unused for buffered writers */
+    private Object write;
+    private IdentityHashMap<Object, Integer> memo;
+
+    public PPickler(LazyPythonClass cls) {
+        super(cls);
+    }
+
+    public void initialize(Object file, Object write, int protocol, boolean fixImports) {
+        this.file = file;
+        this.write = write;
+        this.protocol = protocol;
+        this.fixImports = fixImports;
+        clearMemo();
+    }
+
+    public int getProtocol() {
+        return protocol;
+    }
+
+    public boolean isFixImports() {
+        return fixImports;
+    }
+
+    public Object getFile() {
+        return file;
+    }
+
+    public Object getWrite() {
+        return write;
+    }
+
+    @TruffleBoundary
+    public IdentityHashMap<Object, Integer> getMemo() {
+        if (memo == null) {
+            memo = new IdentityHashMap<>();
+        }
+        return memo;
+    }
+
+    public void clearMemo() {
+        memo = null;
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.pickle;
+
+import java.util.Arrays;
+
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+
+/**
+ * A {@code _pickle.Unpickler}. The memo is an array indexed by the memo keys of the pickle, which
+ * are dense in pickles written by the pickler, and is kept across calls to {@code load}.
+ */
+public final class PUnpickler extends PythonBuiltinObject {
+    private static final int INITIAL_MEMO_SIZE = 32;
+
+    /* the file object, or null if unpickling from bytes */
+    private Object file;
+    /* the file's bound 'read' and 'readline' methods, unused for buffered readers */
+    private Object read;
+    private Object readline;
+    private String encoding = "ASCII";
+    private String errors = "strict";
+    private boolean fixImports = true;
+    /* the protocol of the pickle being loaded, as announced by its PROTO opcode */
+    private int proto;
+    private Object[] memo = new Object[INITIAL_MEMO_SIZE];
+    /* the number of memo entries, which is also the key used by MEMOIZE */
+    private int memoLength;
+
+    public PUnpickler(LazyPythonClass cls) {
+        super(cls);
+    }
+
+    public void initialize(Object file, Object read, Object readline, String encoding, String errors, boolean fixImports) {
+        this.file = file;
+        this.read = read;
+        this.readline = readline;
+        this.encoding = encoding;
+        this.errors = errors;
+        this.fixImports = fixImports;
+        clearMemo();
+    }
+
+    public Object getFile() {
+        return file;
+    }
+
+    public Object getRead() {
+        return read;
+    }
+
+    public Object getReadline() {
+        return readline;
+    }
+
+    public String getEncoding() {
+        return encoding;
+    }
+
+    public String getErrors() {
+        return errors;
+    }
+
+    public boolean isFixImports() {
+        return fixImports;
+    }
+
+    public int getProto() {
+        return proto;
+    }
+
+    public void setProto(int proto) {
+        this.proto = proto;
+    }
+
+    /**
+     * Returns the memo entry or {@code null} if there is none.
+     */
+    public Object getMemo(int index) {
+        return index >= 0 && index < memo.length ? memo[index] : null;
+    }
+
+    public void putMemo(int index, Object value) {
+        if (index >= memo.length) {
+            memo = Arrays.copyOf(memo, Math.max(index + 1, memo.length * 2));
+        }
+        if (memo[index] == null) {
+            memoLength++;
+        }
+        memo[index] = value;
+    }
+
+    public int getMemoLength() {
+        return memoLength;
+    }
+
+    public void clearMemo() {
+        memo = new Object[INITIAL_MEMO_SIZE];
+        memoLength = 0;
+    }
+}
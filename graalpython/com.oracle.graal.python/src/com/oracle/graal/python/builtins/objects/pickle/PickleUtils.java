@@ -0,0 +1,424 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.pickle;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * The opcodes of the pickle format and the byte-level encodings shared by the {@code _pickle}
+ * pickler and unpickler.
+ */
+public final class PickleUtils {
+    public static final int DEFAULT_PROTOCOL = 3;
+    public static final int HIGHEST_PROTOCOL = 4;
+
+    static final int BATCHSIZE = 1000;
+    static final int FRAME_SIZE_TARGET = 64 * 1024;
+    static final int FRAME_SIZE_MIN = 4;
+    static final int FRAME_HEADER_SIZE = 9;
+
+    // protocol 0 and 1
+    static final byte MARK = '(';
+    static final byte STOP = '.';
+    static final byte POP = '0';
+    static final byte POP_MARK = '1';
+    static final byte DUP = '2';
+    static final byte FLOAT = 'F';
+    static final byte INT = 'I';
+    static final byte BININT = 'J';
+    static final byte BININT1 = 'K';
+    static final byte LONG = 'L';
+    static final byte BININT2 = 'M';
+    static final byte NONE = 'N';
+    static final byte PERSID = 'P';
+    static final byte BINPERSID = 'Q';
+    static final byte REDUCE = 'R';
+    static final byte STRING = 'S';
+    static final byte BINSTRING = 'T';
+    static final byte SHORT_BINSTRING = 'U';
+    static final byte UNICODE = 'V';
+    static final byte BINUNICODE = 'X';
+    static final byte APPEND = 'a';
+    static final byte BUILD = 'b';
+    static final byte GLOBAL = 'c';
+    static final byte DICT = 'd';
+    static final byte EMPTY_DICT = '}';
+    static final byte APPENDS = 'e';
+    static final byte GET = 'g';
+    static final byte BINGET = 'h';
+    static final byte INST = 'i';
+    static final byte LONG_BINGET = 'j';
+    static final byte LIST = 'l';
+    static final byte EMPTY_LIST = ']';
+    static final byte OBJ = 'o';
+    static final byte PUT = 'p';
+    static final byte BINPUT = 'q';
+    static final byte LONG_BINPUT = 'r';
+    static final byte SETITEM = 's';
+    static final byte TUPLE = 't';
+    static final byte EMPTY_TUPLE = ')';
+    static final byte SETITEMS = 'u';
+    static final byte BINFLOAT = 'G';
+
+    // protocol 2
+    static final byte PROTO = (byte) 0x80;
+    static final byte NEWOBJ = (byte) 0x81;
+    static final byte EXT1 = (byte) 0x82;
+    static final byte EXT2 = (byte) 0x83;
+    static final byte EXT4 = (byte) 0x84;
+    static final byte TUPLE1 = (byte) 0x85;
+    static final byte TUPLE2 = (byte) 0x86;
+    static final byte TUPLE3 = (byte) 0x87;
+    static final byte NEWTRUE = (byte) 0x88;
+    static final byte NEWFALSE = (byte) 0x89;
+    static final byte LONG1 = (byte) 0x8a;
+    static final byte LONG4 = (byte) 0x8b;
+
+    // protocol 3
+    static final byte BINBYTES = 'B';
+    static final byte SHORT_BINBYTES = 'C';
+
+    // protocol 4
+    static final byte SHORT_BINUNICODE = (byte) 0x8c;
+    static final byte BINUNICODE8 = (byte) 0x8d;
+    static final byte BINBYTES8 = (byte) 0x8e;
+    static final byte EMPTY_SET = (byte) 0x8f;
+    static final byte ADDITEMS = (byte) 0x90;
+    static final byte FROZENSET = (byte) 0x91;
+    static final byte NEWOBJ_EX = (byte) 0x92;
+    static final byte STACK_GLOBAL = (byte) 0x93;
+    static final byte MEMOIZE = (byte) 0x94;
+    static final byte FRAME = (byte) 0x95;
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private PickleUtils() {
+    }
+
+    static long readLittleEndian(byte[] data, int offset, int size) {
+        long value = 0;
+        for (int i = size - 1; i >= 0; i--) {
+            value = (value << 8) | (data[offset + i] & 0xff);
+        }
+        return value;
+    }
+
+    /**
+     * Encodes an int that does not fit into four bytes in the little-endian two's complement form
+     * of {@code LONG1} and {@code LONG4}, using as few bytes as possible.
+     */
+    @TruffleBoundary
+    static byte[] encodeLong(BigInteger value) {
+        if (value.signum() == 0) {
+            return new byte[0];
+        }
+        byte[] bigEndian = value.toByteArray();
+        byte[] result = new byte[bigEndian.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = bigEndian[bigEndian.length - 1 - i];
+        }
+        return result;
+    }
+
+    @TruffleBoundary
+    static BigInteger decodeLong(byte[] data, int offset, int size) {
+        if (size == 0) {
+            return BigInteger.ZERO;
+        }
+        byte[] bigEndian = new byte[size];
+        for (int i = 0; i < size; i++) {
+            bigEndian[i] = data[offset + size - 1 - i];
+        }
+        return new BigInteger(bigEndian);
+    }
+
+    /**
+     * Encodes a string to UTF-8 with the {@code surrogatepass} error handler, so that lone
+     * surrogates survive a round trip like in CPython.
+     */
+    @TruffleBoundary
+    static byte[] encodeUTF8(String s) {
+        int len = s.length();
+        int i = 0;
+        while (i < len && !Character.isSurrogate(s.charAt(i))) {
+            i++;
+        }
+        if (i == len) {
+            return s.getBytes(StandardCharsets.UTF_8);
+        }
+        byte[] result = new byte[len * 3];
+        int n = 0;
+        for (i = 0; i < len; i++) {
+            int c = s.charAt(i);
+            if (Character.isHighSurrogate((char) c) && i + 1 < len && Character.isLowSurrogate(s.charAt(i + 1))) {
+                c = Character.toCodePoint((char) c, s.charAt(++i));
+            }
+            if (c < 0x80) {
+                result[n++] = (byte) c;
+            } else if (c < 0x800) {
+                result[n++] = (byte) (0xc0 | (c >> 6));
+                result[n++] = (byte) (0x80 | (c & 0x3f));
+            } else if (c < 0x10000) {
+                result[n++] = (byte) (0xe0 | (c >> 12));
+                result[n++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                result[n++] = (byte) (0x80 | (c & 0x3f));
+            } else {
+                result[n++] = (byte) (0xf0 | (c >> 18));
+                result[n++] = (byte) (0x80 | ((c >> 12) & 0x3f));
+                result[n++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                result[n++] = (byte) (0x80 | (c & 0x3f));
+            }
+        }
+        byte[] trimmed = new byte[n];
+        System.arraycopy(result, 0, trimmed, 0, n);
+        return trimmed;
+    }
+
+    /**
+     * Decodes UTF-8 with the {@code surrogatepass} error handler. Returns {@code null} if the data
+     * is malformed.
+     */
+    @TruffleBoundary
+    static String decodeUTF8(byte[] data, int offset, int size) {
+        int end = offset + size;
+        int i = offset;
+        while (i < end && data[i] >= 0) {
+            i++;
+        }
+        if (i == end) {
+            return new String(data, offset, size, StandardCharsets.ISO_8859_1);
+        }
+        StringBuilder sb = new StringBuilder(size);
+        sb.append(new String(data, offset, i - offset, StandardCharsets.ISO_8859_1));
+        while (i < end) {
+            int b0 = data[i] & 0xff;
+            if (b0 < 0x80) {
+                sb.append((char) b0);
+                i++;
+                continue;
+            }
+            int needed;
+            int c;
+            if (b0 >= 0xc2 && b0 <= 0xdf) {
+                needed = 1;
+                c = b0 & 0x1f;
+            } else if (b0 >= 0xe0 && b0 <= 0xef) {
+                needed = 2;
+                c = b0 & 0x0f;
+            } else if (b0 >= 0xf0 && b0 <= 0xf4) {
+                needed = 3;
+                c = b0 & 0x07;
+            } else {
+                return null;
+            }
+            if (i + needed >= end) {
+                return null;
+            }
+            for (int k = 1; k <= needed; k++) {
+                int b = data[i + k] & 0xff;
+                if ((b & 0xc0) != 0x80) {
+                    return null;
+                }
+                c = (c << 6) | (b & 0x3f);
+            }
+            if (needed == 2 && c < 0x800 || needed == 3 && (c < 0x10000 || c > 0x10ffff)) {
+                return null;
+            }
+            sb.appendCodePoint(c);
+            i += needed + 1;
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Encodes a string for the {@code UNICODE} opcode of protocol 0 like the
+     * {@code raw-unicode-escape} codec, additionally escaping the characters that would end the
+     * line or be garbled in text mode.
+     */
+    @TruffleBoundary
+    static byte[] encodeRawUnicodeEscape(String s) {
+        StringBuilder sb = new StringBuilder(s.length());
+        int len = s.length();
+        for (int i = 0; i < len; i++) {
+            int c = s.codePointAt(i);
+            if (c >= 0x10000) {
+                sb.append("\\U");
+                appendHex(sb, c, 8);
+                i++;
+            } else if (c >= 256 || c == '\\' || c == '\n' || c == '\r' || c == 0 || c == 0x1a) {
+                sb.append("\\u");
+                appendHex(sb, c, 4);
+            } else {
+                sb.append((char) c);
+            }
+        }
+        return sb.toString().getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    private static void appendHex(StringBuilder sb, int value, int digits) {
+        for (int shift = (digits - 1) * 4; shift >= 0; shift -= 4) {
+            sb.append(HEX_DIGITS[(value >> shift) & 0xf]);
+        }
+    }
+
+    /**
+     * Decodes the {@code raw-unicode-escape} codec. Returns {@code null} if an escape is truncated.
+     */
+    @TruffleBoundary
+    static String decodeRawUnicodeEscape(byte[] data, int offset, int size) {
+        StringBuilder sb = new StringBuilder(size);
+        int end = offset + size;
+        int i = offset;
+        while (i < end) {
+            char c = (char) (data[i] & 0xff);
+            if (c != '\\' || i + 1 >= end || (data[i + 1] != 'u' && data[i + 1] != 'U')) {
+                sb.append(c);
+                i++;
+                continue;
+            }
+            // an odd number of backslashes before the 'u' starts an escape
+            int backslashes = 1;
+            while (sb.length() >= backslashes && sb.charAt(sb.length() - backslashes) == '\\') {
+                backslashes++;
+            }
+            if (backslashes % 2 == 0) {
+                sb.append(c);
+                i++;
+                continue;
+            }
+            int digits = data[i + 1] == 'u' ? 4 : 8;
+            if (i + 2 + digits > end) {
+                return null;
+            }
+            int codePoint = 0;
+            for (int k = 0; k < digits; k++) {
+                int digit = Character.digit(data[i + 2 + k], 16);
+                if (digit < 0) {
+                    return null;
+                }
+                codePoint = (codePoint << 4) | digit;
+            }
+            if (codePoint < 0 || codePoint > Character.MAX_CODE_POINT) {
+                return null;
+            }
+            sb.appendCodePoint(codePoint);
+            i += 2 + digits;
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Decodes the Python 2 string literal of the {@code STRING} opcode, without the quotes. Returns
+     * {@code null} if an escape is invalid.
+     */
+    @TruffleBoundary
+    static byte[] decodeEscapedString(byte[] data, int offset, int size) {
+        byte[] result = new byte[size];
+        int n = 0;
+        int end = offset + size;
+        int i = offset;
+        while (i < end) {
+            byte b = data[i++];
+            if (b != '\\') {
+                result[n++] = b;
+                continue;
+            }
+            if (i >= end) {
+                return null;
+            }
+            byte e = data[i++];
+            switch (e) {
+                case '\n':
+                    break;
+                case '\\':
+                case '\'':
+                case '"':
+                    result[n++] = e;
+                    break;
+                case 'a':
+                    result[n++] = 7;
+                    break;
+                case 'b':
+                    result[n++] = '\b';
+                    break;
+                case 'f':
+                    result[n++] = '\f';
+                    break;
+                case 'n':
+                    result[n++] = '\n';
+                    break;
+                case 'r':
+                    result[n++] = '\r';
+                    break;
+                case 't':
+                    result[n++] = '\t';
+                    break;
+                case 'v':
+                    result[n++] = 11;
+                    break;
+                case 'x':
+                    if (i + 2 > end || Character.digit(data[i], 16) < 0 || Character.digit(data[i + 1], 16) < 0) {
+                        return null;
+                    }
+                    result[n++] = (byte) (Character.digit(data[i], 16) * 16 + Character.digit(data[i + 1], 16));
+                    i += 2;
+                    break;
+                default:
+                    if (e >= '0' && e <= '7') {
+                        int value = e - '0';
+                        for (int k = 0; k < 2 && i < end && data[i] >= '0' && data[i] <= '7'; k++) {
+                            value = value * 8 + (data[i++] - '0');
+                        }
+                        result[n++] = (byte) value;
+                    } else {
+                        result[n++] = '\\';
+                        result[n++] = e;
+                    }
+            }
+        }
+        byte[] trimmed = new byte[n];
+        System.arraycopy(result, 0, trimmed, 0, n);
+        return trimmed;
+    }
+}
@@ -0,0 +1,1172 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.pickle;
+
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.ADDITEMS;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.APPEND;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.APPENDS;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.BATCHSIZE;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.BINBYTES;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.BINFLOAT;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.BINGET;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.BININT;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.BININT1;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.BININT2;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.BINPERSID;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.BINPUT;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.BINUNICODE;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.BUILD;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.DEFAULT_PROTOCOL;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.DICT;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.EMPTY_DICT;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.EMPTY_LIST;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.EMPTY_SET;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.EMPTY_TUPLE;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.EXT1;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.EXT2;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.EXT4;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.FLOAT;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.FRAME;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.FRAME_HEADER_SIZE;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.FRAME_SIZE_MIN;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.FRAME_SIZE_TARGET;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.FROZENSET;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.GET;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.GLOBAL;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.HIGHEST_PROTOCOL;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.INT;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.LIST;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.LONG;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.LONG1;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.LONG4;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.LONG_BINGET;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.LONG_BINPUT;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.MARK;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.MEMOIZE;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.NEWFALSE;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.NEWOBJ;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.NEWOBJ_EX;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.NEWTRUE;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.NONE;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.PERSID;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.POP;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.POP_MARK;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.PROTO;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.PUT;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.REDUCE;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.SETITEM;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.SETITEMS;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.SHORT_BINBYTES;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.SHORT_BINUNICODE;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.STACK_GLOBAL;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.STOP;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.TUPLE;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.TUPLE1;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.TUPLE2;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.TUPLE3;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.UNICODE;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.encodeLong;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.encodeRawUnicodeEscape;
+import static com.oracle.graal.python.builtins.objects.pickle.PickleUtils.encodeUTF8;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__CALL__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__NEXT__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.RuntimeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.bytes.PBytes;
+import com.oracle.graal.python.builtins.objects.common.HashingStorage;
+import com.oracle.graal.python.builtins.objects.common.HashingStorage.DictEntry;
+import com.oracle.graal.python.builtins.objects.common.HashingStorageNodes;
+import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes.ToByteArrayNode;
+import com.oracle.graal.python.builtins.objects.dict.PDict;
+import com.oracle.graal.python.builtins.objects.floats.PFloat;
+import com.oracle.graal.python.builtins.objects.function.PBuiltinFunction;
+import com.oracle.graal.python.builtins.objects.function.PFunction;
+import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.io.BufferedIONodes;
+import com.oracle.graal.python.builtins.objects.io.BufferedIONodes.WriteBufferedNode;
+import com.oracle.graal.python.builtins.objects.io.PBuffered;
+import com.oracle.graal.python.builtins.objects.list.PList;
+import com.oracle.graal.python.builtins.objects.method.PBuiltinMethod;
+import com.oracle.graal.python.builtins.objects.module.PythonModule;
+import com.oracle.graal.python.builtins.objects.object.PythonObject;
+import com.oracle.graal.python.builtins.objects.set.PBaseSet;
+import com.oracle.graal.python.builtins.objects.set.PFrozenSet;
+import com.oracle.graal.python.builtins.objects.set.PSet;
+import com.oracle.graal.python.builtins.objects.str.PString;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+import com.oracle.graal.python.builtins.objects.type.PythonAbstractClass;
+import com.oracle.graal.python.nodes.PNodeWithContext;
+import com.oracle.graal.python.nodes.attributes.GetAttributeNode.GetAnyAttributeNode;
+import com.oracle.graal.python.nodes.attributes.LookupInheritedAttributeNode;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.control.GetIteratorNode;
+import com.oracle.graal.python.nodes.control.GetNextNode;
+import com.oracle.graal.python.nodes.expression.CastToBooleanNode;
+import com.oracle.graal.python.nodes.object.GetClassNode;
+import com.oracle.graal.python.nodes.object.IsBuiltinClassProfile;
+import com.oracle.graal.python.nodes.util.CastToIndexNode;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.graal.python.runtime.formatting.FloatFormatter;
+import com.oracle.graal.python.runtime.formatting.InternalFormat;
+import com.oracle.graal.python.runtime.sequence.storage.DoubleSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.IntSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.LongSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+public abstract class PicklerNodes {
+
+    static boolean isBuiltin(Object obj, PythonBuiltinClassType type) {
+        return IsBuiltinClassProfile.profileClassSlowPath(((PythonObject) obj).getLazyPythonClass(), type);
+    }
+
+    static boolean isClass(Object obj) {
+        return obj instanceof PythonAbstractClass || obj instanceof PythonBuiltinClassType;
+    }
+
+    static String asString(Object obj) {
+        if (obj instanceof String) {
+            return (String) obj;
+        } else if (obj instanceof PString) {
+            return ((PString) obj).getValue();
+        }
+        return null;
+    }
+
+    static PException raisePickleError(PNodeWithContext node, String errorName, String format, Object... args) {
+        LazyPythonClass cls = (LazyPythonClass) node.getCore().lookupBuiltinModule("_pickle").getAttribute(errorName);
+        throw node.raise(node.getCore().factory().createBaseException(cls, format, args));
+    }
+
+    /**
+     * Validates the arguments of {@code Pickler(file, protocol, fix_imports)} and initializes the
+     * pickler. The {@code file} is {@code null} for {@code dumps}.
+     */
+    public static final class InitPicklerNode extends PNodeWithContext {
+        @Child private CastToIndexNode castToIndexNode = CastToIndexNode.create();
+        @Child private CastToBooleanNode castToBooleanNode = CastToBooleanNode.createIfTrueNode();
+        @Child private GetAnyAttributeNode getAttributeNode;
+
+        private final IsBuiltinClassProfile attributeErrorProfile = IsBuiltinClassProfile.create();
+
+        public void execute(PPickler self, Object file, Object protocol, Object fixImports) {
+            int proto;
+            if (protocol == PNone.NO_VALUE || protocol == PNone.NONE) {
+                proto = DEFAULT_PROTOCOL;
+            } else {
+                proto = castToIndexNode.execute(protocol);
+                if (proto < 0) {
+                    proto = HIGHEST_PROTOCOL;
+                } else if (proto > HIGHEST_PROTOCOL) {
+                    throw raise(ValueError, "pickle protocol must be <= %d", HIGHEST_PROTOCOL);
+                }
+            }
+            boolean fix = fixImports == PNone.NO_VALUE || castToBooleanNode.executeWith(fixImports);
+            Object write = null;
+            if (file != null && !(file instanceof PBuffered && isBuiltin(file, PythonBuiltinClassType.PBufferedWriter))) {
+                if (getAttributeNode == null) {
+                    getAttributeNode = insert(GetAnyAttributeNode.create());
+                }
+                try {
+                    write = getAttributeNode.executeObject(file, "write");
+                } catch (PException e) {
+                    e.expectAttributeError(attributeErrorProfile);
+                    throw raise(TypeError, "file must have a 'write' attribute");
+                }
+            }
+            self.initialize(file, write, proto, fix);
+        }
+
+        public static InitPicklerNode create() {
+            return new InitPicklerNode();
+        }
+    }
+
+    /**
+     * Pickles an object into the pickler's file, or into a byte array if the pickler has no file.
+     * Lists, tuples, dicts, sets, strings, bytes and numbers are written directly from their
+     * storages; everything else is reduced with {@code __reduce_ex__} like in CPython. Output is
+     * collected in one growing array, which for protocol 4 is split into frames, and is written to
+     * the file whenever a frame is complete. Buffered writers are written to without calling
+     * {@code write}.
+     */
+    public static final class DumpNode extends PNodeWithContext {
+        private static final InternalFormat.Spec FLOAT_REPR = new InternalFormat.Spec(' ', '>', InternalFormat.Spec.NONE, false, InternalFormat.Spec.UNSPECIFIED, false, 0, 'r');
+        private static final int MAX_DEPTH = 1000;
+        private static final int INITIAL_BUFFER_SIZE = 256;
+
+        @Child private CallNode callNode = CallNode.create();
+        @Child private GetAnyAttributeNode getAttributeNode = GetAnyAttributeNode.create();
+        @Child private GetClassNode getClassNode = GetClassNode.create();
+        @Child private LookupInheritedAttributeNode lookupCallNode = LookupInheritedAttributeNode.create(__CALL__);
+        @Child private LookupInheritedAttributeNode lookupNextNode = LookupInheritedAttributeNode.create(__NEXT__);
+        @Child private HashingStorageNodes.GetItemNode getItemNode = HashingStorageNodes.GetItemNode.create();
+        @Child private ToByteArrayNode toByteArrayNode = ToByteArrayNode.create(false);
+        @Child private GetIteratorNode getIteratorNode;
+        @Child private GetNextNode getNextNode;
+        @Child private WriteBufferedNode writeBufferedNode;
+
+        private final IsBuiltinClassProfile attributeErrorProfile = IsBuiltinClassProfile.create();
+        private final IsBuiltinClassProfile stopIterationProfile = IsBuiltinClassProfile.create();
+
+        private static final class DumpState {
+            final PPickler pickler;
+            final int proto;
+            final boolean bin;
+            /* enabled for protocol 4 once the PROTO opcode is written */
+            boolean framing;
+            final IdentityHashMap<Object, Integer> memo;
+            final Object persistentId;
+            /* resolved when the first object is reduced */
+            Object dispatchTable;
+            byte[] out = new byte[INITIAL_BUFFER_SIZE];
+            int len;
+            /* the position of the header of the open frame, or -1 */
+            int frameStart = -1;
+            int depth;
+
+            DumpState(PPickler pickler, Object persistentId) {
+                this.pickler = pickler;
+                this.proto = pickler.getProtocol();
+                this.bin = proto >= 1;
+                this.memo = pickler.getMemo();
+                this.persistentId = persistentId;
+            }
+        }
+
+        /**
+         * Returns the pickle if the pickler has no file, otherwise writes it and returns
+         * {@code null}.
+         */
+        @TruffleBoundary
+        public byte[] execute(PPickler self, Object obj) {
+            DumpState st = new DumpState(self, lookupAttribute(self, "persistent_id"));
+            if (st.proto >= 2) {
+                reserve(st, 2);
+                st.out[st.len++] = PROTO;
+                st.out[st.len++] = (byte) st.proto;
+                st.framing = st.proto >= 4;
+            }
+            save(st, obj, false);
+            write(st, STOP);
+            commitFrame(st);
+            if (self.getFile() != null) {
+                flush(st);
+                return null;
+            }
+            return Arrays.copyOf(st.out, st.len);
+        }
+
+        private Object lookupAttribute(Object obj, String name) {
+            try {
+                return getAttributeNode.executeObject(obj, name);
+            } catch (PException e) {
+                e.expectAttributeError(attributeErrorProfile);
+                return null;
+            }
+        }
+
+        // output and framing
+
+        private static void reserve(DumpState st, int n) {
+            int needed = n;
+            boolean newFrame = st.framing && st.frameStart == -1;
+            if (newFrame) {
+                needed += FRAME_HEADER_SIZE;
+            }
+            if (st.len + needed > st.out.length) {
+                st.out = Arrays.copyOf(st.out, Math.max(st.len + needed, st.out.length * 2));
+            }
+            if (newFrame) {
+                st.frameStart = st.len;
+                st.len += FRAME_HEADER_SIZE;
+            }
+        }
+
+        private static void write(DumpState st, byte b) {
+            reserve(st, 1);
+            st.out[st.len++] = b;
+        }
+
+        private static void write(DumpState st, byte opcode, byte[] data, int size) {
+            reserve(st, size + 1);
+            st.out[st.len++] = opcode;
+            System.arraycopy(data, 0, st.out, st.len, size);
+            st.len += size;
+        }
+
+        private static void writeWithLength(DumpState st, byte shortOpcode, byte opcode, byte[] data, int size) {
+            if (shortOpcode != 0 && size <= 0xff) {
+                reserve(st, size + 2);
+                st.out[st.len++] = shortOpcode;
+                st.out[st.len++] = (byte) size;
+            } else {
+                reserve(st, size + 5);
+                st.out[st.len++] = opcode;
+                writeLittleEndian(st, size, 4);
+            }
+            System.arraycopy(data, 0, st.out, st.len, size);
+            st.len += size;
+        }
+
+        private static void writeLittleEndian(DumpState st, long value, int size) {
+            reserve(st, size);
+            for (int i = 0; i < size; i++) {
+                st.out[st.len++] = (byte) (value >> (8 * i));
+            }
+        }
+
+        private static void writeLine(DumpState st, byte opcode, String line) {
+            byte[] data = line.getBytes(StandardCharsets.ISO_8859_1);
+            write(st, opcode, data, data.length);
+            write(st, (byte) '\n');
+        }
+
+        private static void commitFrame(DumpState st) {
+            if (st.frameStart == -1) {
+                return;
+            }
+            int frameLen = st.len - st.frameStart - FRAME_HEADER_SIZE;
+            if (frameLen >= FRAME_SIZE_MIN) {
+                st.out[st.frameStart] = FRAME;
+                for (int i = 0; i < 8; i++) {
+                    st.out[st.frameStart + 1 + i] = (byte) ((long) frameLen >> (8 * i));
+                }
+            } else {
+                // too small to be worth a frame header
+                System.arraycopy(st.out, st.frameStart + FRAME_HEADER_SIZE, st.out, st.frameStart, frameLen);
+                st.len -= FRAME_HEADER_SIZE;
+            }
+            st.frameStart = -1;
+        }
+
+        /**
+         * Called after each saved object. Ends the frame once it is large enough, and streams all
+         * complete output to the file.
+         */
+        private void opcodeBoundary(DumpState st) {
+            if (st.framing) {
+                if (st.frameStart != -1 && st.len - st.frameStart - FRAME_HEADER_SIZE >= FRAME_SIZE_TARGET) {
+                    commitFrame(st);
+                    if (st.pickler.getFile() != null) {
+                        flush(st);
+                    }
+                }
+            } else if (st.len >= FRAME_SIZE_TARGET && st.pickler.getFile() != null) {
+                flush(st);
+            }
+        }
+
+        private void flush(DumpState st) {
+            if (st.len == 0) {
+                return;
+            }
+            PPickler pickler = st.pickler;
+            if (pickler.getWrite() == null) {
+                PBuffered file = (PBuffered) pickler.getFile();
+                BufferedIONodes.checkOpen(this, file);
+                if (writeBufferedNode == null) {
+                    writeBufferedNode = insert(WriteBufferedNode.create());
+                }
+                writeBufferedNode.execute(file, st.out, st.len);
+            } else {
+                callNode.execute(null, pickler.getWrite(), factory().createBytes(Arrays.copyOf(st.out, st.len)));
+            }
+            st.len = 0;
+        }
+
+        // memo
+
+        private static void memoize(DumpState st, Object obj) {
+            int idx = st.memo.size();
+            st.memo.put(obj, idx);
+            if (st.proto >= 4) {
+                write(st, MEMOIZE);
+            } else if (st.bin) {
+                if (idx < 256) {
+                    reserve(st, 2);
+                    st.out[st.len++] = BINPUT;
+                    st.out[st.len++] = (byte) idx;
+                } else {
+                    write(st, LONG_BINPUT);
+                    writeLittleEndian(st, idx, 4);
+                }
+            } else {
+                writeLine(st, PUT, Integer.toString(idx));
+            }
+        }
+
+        private static void writeGet(DumpState st, int idx) {
+            if (st.bin) {
+                if (idx < 256) {
+                    reserve(st, 2);
+                    st.out[st.len++] = BINGET;
+                    st.out[st.len++] = (byte) idx;
+                } else {
+                    write(st, LONG_BINGET);
+                    writeLittleEndian(st, idx, 4);
+                }
+            } else {
+                writeLine(st, GET, Integer.toString(idx));
+            }
+        }
+
+        // save
+
+        private void save(DumpState st, Object obj, boolean persSave) {
+            if (st.depth > MAX_DEPTH) {
+                throw raise(PythonBuiltinClassType.RecursionError, "maximum recursion depth exceeded while pickling an object");
+            }
+            st.depth++;
+            if (persSave || st.persistentId == null || !savePers(st, obj)) {
+                saveObject(st, obj);
+            }
+            st.depth--;
+            opcodeBoundary(st);
+        }
+
+        private void saveObject(DumpState st, Object obj) {
+            // atomic values are never memoized
+            if (obj == PNone.NONE) {
+                write(st, NONE);
+                return;
+            } else if (obj instanceof Boolean) {
+                saveBool(st, (boolean) obj);
+                return;
+            } else if (obj instanceof Integer || obj instanceof Long) {
+                saveLong(st, ((Number) obj).longValue());
+                return;
+            } else if (obj instanceof PInt && isBuiltin(obj, PythonBuiltinClassType.PInt)) {
+                savePInt(st, (PInt) obj);
+                return;
+            } else if (obj instanceof Double) {
+                saveFloat(st, (double) obj);
+                return;
+            } else if (obj instanceof PFloat && isBuiltin(obj, PythonBuiltinClassType.PFloat)) {
+                saveFloat(st, ((PFloat) obj).getValue());
+                return;
+            }
+
+            Integer memoIndex = st.memo.get(obj);
+            if (memoIndex != null) {
+                writeGet(st, memoIndex);
+            } else if (obj instanceof String) {
+                saveUnicode(st, obj, (String) obj);
+            } else if (obj instanceof PString && isBuiltin(obj, PythonBuiltinClassType.PString)) {
+                saveUnicode(st, obj, ((PString) obj).getValue());
+            } else if (obj instanceof PBytes && isBuiltin(obj, PythonBuiltinClassType.PBytes)) {
+                saveBytes(st, (PBytes) obj);
+            } else if (obj instanceof PTuple && isBuiltin(obj, PythonBuiltinClassType.PTuple)) {
+                saveTuple(st, (PTuple) obj);
+            } else if (obj instanceof PList) {
+                saveList(st, (PList) obj);
+            } else if (obj instanceof PDict) {
+                saveDict(st, (PDict) obj);
+            } else if (obj instanceof PSet && isBuiltin(obj, PythonBuiltinClassType.PSet)) {
+                saveSet(st, (PSet) obj);
+            } else if (obj instanceof PFrozenSet && isBuiltin(obj, PythonBuiltinClassType.PFrozenSet)) {
+                saveFrozenSet(st, (PFrozenSet) obj);
+            } else if (obj instanceof PFunction || obj instanceof PBuiltinFunction || (obj instanceof PBuiltinMethod && ((PBuiltinMethod) obj).getSelf() instanceof PythonModule)) {
+                saveGlobal(st, obj, null);
+            } else if (isClass(obj) && getClassNode.execute(obj) == getCore().lookupType(PythonBuiltinClassType.PythonClass)) {
+                saveType(st, obj);
+            } else {
+                saveReduceValue(st, obj);
+            }
+        }
+
+        private boolean savePers(DumpState st, Object obj) {
+            Object pid = callNode.execute(null, st.persistentId, obj);
+            if (pid == PNone.NONE) {
+                return false;
+            }
+            if (st.bin) {
+                save(st, pid, true);
+                write(st, BINPERSID);
+            } else {
+                String s = asString(pid);
+                if (s == null || !isAscii(s)) {
+                    throw raisePickleError(this, "PicklingError", "persistent IDs in protocol 0 must be ASCII strings");
+                }
+                writeLine(st, PERSID, s);
+            }
+            return true;
+        }
+
+        private static boolean isAscii(String s) {
+            for (int i = 0; i < s.length(); i++) {
+                if (s.charAt(i) >= 128) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static void saveBool(DumpState st, boolean value) {
+            if (st.proto >= 2) {
+                write(st, value ? NEWTRUE : NEWFALSE);
+            } else {
+                writeLine(st, INT, value ? "01" : "00");
+            }
+        }
+
+        private static void saveLong(DumpState st, long value) {
+            if (value == (int) value) {
+                if (st.bin) {
+                    if (value >= 0 && value <= 0xff) {
+                        reserve(st, 2);
+                        st.out[st.len++] = BININT1;
+                        st.out[st.len++] = (byte) value;
+                    } else if (value >= 0 && value <= 0xffff) {
+                        write(st, BININT2);
+                        writeLittleEndian(st, value, 2);
+                    } else {
+                        write(st, BININT);
+                        writeLittleEndian(st, value, 4);
+                    }
+                } else {
+                    writeLine(st, INT, Long.toString(value));
+                }
+            } else {
+                saveBigInteger(st, BigInteger.valueOf(value));
+            }
+        }
+
+        private static void savePInt(DumpState st, PInt value) {
+            BigInteger big = value.getValue();
+            if (big.bitLength() < 32) {
+                saveLong(st, big.intValue());
+            } else {
+                saveBigInteger(st, big);
+            }
+        }
+
+        private static void saveBigInteger(DumpState st, BigInteger value) {
+            if (st.proto >= 2) {
+                byte[] data = encodeLong(value);
+                if (data.length <= 0xff) {
+                    reserve(st, data.length + 2);
+                    st.out[st.len++] = LONG1;
+                    st.out[st.len++] = (byte) data.length;
+                    System.arraycopy(data, 0, st.out, st.len, data.length);
+                    st.len += data.length;
+                } else {
+                    writeWithLength(st, (byte) 0, LONG4, data, data.length);
+                }
+            } else {
+                writeLine(st, LONG, value.toString() + "L");
+            }
+        }
+
+        private void saveFloat(DumpState st, double value) {
+            if (st.bin) {
+                write(st, BINFLOAT);
+                long bits = Double.doubleToRawLongBits(value);
+                reserve(st, 8);
+                for (int i = 7; i >= 0; i--) {
+                    st.out[st.len++] = (byte) (bits >> (8 * i));
+                }
+            } else {
+                StringBuilder sb = new StringBuilder();
+                new FloatFormatter(getCore(), sb, FLOAT_REPR).format(value);
+                writeLine(st, FLOAT, sb.toString());
+            }
+        }
+
+        private static void saveUnicode(DumpState st, Object obj, String s) {
+            if (st.bin) {
+                byte[] data = encodeUTF8(s);
+                writeWithLength(st, st.proto >= 4 ? SHORT_BINUNICODE : 0, BINUNICODE, data, data.length);
+            } else {
+                byte[] data = encodeRawUnicodeEscape(s);
+                write(st, UNICODE, data, data.length);
+                write(st, (byte) '\n');
+            }
+            memoize(st, obj);
+        }
+
+        private void saveBytes(DumpState st, PBytes obj) {
+            SequenceStorage storage = obj.getSequenceStorage();
+            int size = storage.length();
+            if (st.proto < 3) {
+                // older protocols have no bytes type, so bytes are re-created from latin-1 strings
+                if (size == 0) {
+                    saveReduce(st, getCore().lookupType(PythonBuiltinClassType.PBytes), factory().createEmptyTuple(), null, null, null, obj);
+                } else {
+                    Object encode = getCore().lookupBuiltinModule("_codecs").getAttribute("encode");
+                    String latin1 = new String(toByteArrayNode.execute(storage), 0, size, StandardCharsets.ISO_8859_1);
+                    saveReduce(st, encode, factory().createTuple(new Object[]{latin1, "latin1"}), null, null, null, obj);
+                }
+                return;
+            }
+            writeWithLength(st, SHORT_BINBYTES, BINBYTES, toByteArrayNode.execute(storage), size);
+            memoize(st, obj);
+        }
+
+        private void saveTuple(DumpState st, PTuple obj) {
+            SequenceStorage storage = obj.getSequenceStorage();
+            int size = storage.length();
+            if (size == 0) {
+                if (st.bin) {
+                    write(st, EMPTY_TUPLE);
+                } else {
+                    write(st, MARK);
+                    write(st, TUPLE);
+                }
+                return;
+            }
+            boolean small = size <= 3 && st.proto >= 2;
+            if (!small) {
+                write(st, MARK);
+            }
+            for (int i = 0; i < size; i++) {
+                save(st, storage.getItemNormalized(i), false);
+            }
+            Integer memoIndex = st.memo.get(obj);
+            if (memoIndex != null) {
+                // the tuple is recursive and was memoized while saving its items: drop the items
+                // and fetch it from the memo
+                if (small || !st.bin) {
+                    for (int i = small ? 0 : -1; i < size; i++) {
+                        write(st, POP);
+                    }
+                } else {
+                    write(st, POP_MARK);
+                }
+                writeGet(st, memoIndex);
+                return;
+            }
+            if (small) {
+                write(st, size == 1 ? TUPLE1 : size == 2 ? TUPLE2 : TUPLE3);
+            } else {
+                write(st, TUPLE);
+            }
+            memoize(st, obj);
+        }
+
+        private void saveList(DumpState st, PList obj) {
+            if (st.bin) {
+                write(st, EMPTY_LIST);
+            } else {
+                write(st, MARK);
+                write(st, LIST);
+            }
+            memoize(st, obj);
+            if (obj.getSequenceStorage().length() == 0) {
+                return;
+            }
+            if (st.bin && isBuiltin(obj, PythonBuiltinClassType.PList)) {
+                batchListExact(st, obj);
+            } else {
+                batchList(st, getIterator(obj));
+            }
+        }
+
+        private void batchListExact(DumpState st, PList obj) {
+            SequenceStorage storage = obj.getSequenceStorage();
+            if (storage.length() == 1) {
+                save(st, storage.getItemNormalized(0), false);
+                write(st, APPEND);
+                return;
+            }
+            if (st.persistentId == null && (storage instanceof IntSequenceStorage || storage instanceof LongSequenceStorage || storage instanceof DoubleSequenceStorage)) {
+                // saving unboxed numbers cannot run any code that could modify the list
+                batchPrimitiveList(st, storage);
+                return;
+            }
+            int total = 0;
+            do {
+                write(st, MARK);
+                int batch = 0;
+                while (total < obj.getSequenceStorage().length()) {
+                    save(st, obj.getSequenceStorage().getItemNormalized(total), false);
+                    total++;
+                    if (++batch == BATCHSIZE) {
+                        break;
+                    }
+                }
+                write(st, APPENDS);
+            } while (total < obj.getSequenceStorage().length());
+        }
+
+        private void batchPrimitiveList(DumpState st, SequenceStorage storage) {
+            int size = storage.length();
+            for (int start = 0; start < size; start += BATCHSIZE) {
+                write(st, MARK);
+                int end = Math.min(size, start + BATCHSIZE);
+                for (int i = start; i < end; i++) {
+                    if (storage instanceof IntSequenceStorage) {
+                        saveLong(st, ((IntSequenceStorage) storage).getIntItemNormalized(i));
+                    } else if (storage instanceof LongSequenceStorage) {
+                        saveLong(st, ((LongSequenceStorage) storage).getLongItemNormalized(i));
+                    } else {
+                        saveFloat(st, ((DoubleSequenceStorage) storage).getDoubleItemNormalized(i));
+                    }
+                    opcodeBoundary(st);
+                }
+                write(st, APPENDS);
+            }
+        }
+
+        private Object getIterator(Object obj) {
+            if (getIteratorNode == null) {
+                getIteratorNode = insert(GetIteratorNode.create());
+            }
+            return getIteratorNode.executeWith(obj);
+        }
+
+        /**
+         * Returns the next item or {@code null} when the iterator is exhausted.
+         */
+        private Object next(Object iterator) {
+            if (getNextNode == null) {
+                getNextNode = insert(GetNextNode.create());
+            }
+            try {
+                return getNextNode.execute(iterator);
+            } catch (PException e) {
+                e.expectStopIteration(stopIterationProfile);
+                return null;
+            }
+        }
+
+        private void batchList(DumpState st, Object iterator) {
+            if (!st.bin) {
+                Object item;
+                while ((item = next(iterator)) != null) {
+                    save(st, item, false);
+                    write(st, APPEND);
+                }
+                return;
+            }
+            Object item = next(iterator);
+            while (item != null) {
+                Object first = item;
+                item = next(iterator);
+                if (item == null) {
+                    save(st, first, false);
+                    write(st, APPEND);
+                    return;
+                }
+                write(st, MARK);
+                save(st, first, false);
+                int batch = 1;
+                while (item != null && batch < BATCHSIZE) {
+                    save(st, item, false);
+                    batch++;
+                    item = next(iterator);
+                }
+                write(st, APPENDS);
+            }
+        }
+
+        private void saveDict(DumpState st, PDict obj) {
+            if (st.bin) {
+                write(st, EMPTY_DICT);
+            } else {
+                write(st, MARK);
+                write(st, DICT);
+            }
+            memoize(st, obj);
+            if (obj.size() == 0) {
+                return;
+            }
+            if (st.bin && isBuiltin(obj, PythonBuiltinClassType.PDict)) {
+                batchDictExact(st, obj);
+            } else {
+                batchDict(st, getIterator(callNode.execute(null, getAttributeNode.executeObject(obj, "items"))));
+            }
+        }
+
+        private void batchDictExact(DumpState st, PDict obj) {
+            int size = obj.size();
+            Object[] keys = new Object[size];
+            Object[] values = new Object[size];
+            int n = 0;
+            for (DictEntry entry : obj.getDictStorage().entries()) {
+                keys[n] = entry.getKey();
+                values[n++] = entry.getValue();
+            }
+            if (size == 1) {
+                save(st, keys[0], false);
+                save(st, values[0], false);
+                write(st, SETITEM);
+                return;
+            }
+            for (int start = 0; start < size; start += BATCHSIZE) {
+                write(st, MARK);
+                int end = Math.min(size, start + BATCHSIZE);
+                for (int i = start; i < end; i++) {
+                    save(st, keys[i], false);
+                    save(st, values[i], false);
+                    if (obj.size() != size) {
+                        throw raise(RuntimeError, "dictionary changed size during iteration");
+                    }
+                }
+                write(st, SETITEMS);
+            }
+        }
+
+        private Object[] nextPair(Object iterator) {
+            Object item = next(iterator);
+            if (item == null) {
+                return null;
+            }
+            if (!(item instanceof PTuple) || ((PTuple) item).getSequenceStorage().length() != 2) {
+                throw raise(TypeError, "dict items iterator must return 2-tuples");
+            }
+            SequenceStorage pair = ((PTuple) item).getSequenceStorage();
+            return new Object[]{pair.getItemNormalized(0), pair.getItemNormalized(1)};
+        }
+
+        private void batchDict(DumpState st, Object iterator) {
+            if (!st.bin) {
+                Object[] pair;
+                while ((pair = nextPair(iterator)) != null) {
+                    save(st, pair[0], false);
+                    save(st, pair[1], false);
+                    write(st, SETITEM);
+                }
+                return;
+            }
+            Object[] pair = nextPair(iterator);
+            while (pair != null) {
+                Object[] first = pair;
+                pair = nextPair(iterator);
+                if (pair == null) {
+                    save(st, first[0], false);
+                    save(st, first[1], false);
+                    write(st, SETITEM);
+                    return;
+                }
+                write(st, MARK);
+                save(st, first[0], false);
+                save(st, first[1], false);
+                int batch = 1;
+                while (pair != null && batch < BATCHSIZE) {
+                    save(st, pair[0], false);
+                    save(st, pair[1], false);
+                    batch++;
+                    pair = nextPair(iterator);
+                }
+                write(st, SETITEMS);
+            }
+        }
+
+        private static Object[] setItems(PBaseSet obj) {
+            HashingStorage storage = obj.getDictStorage();
+            Object[] items = new Object[storage.length()];
+            int n = 0;
+            for (Object key : storage.keys()) {
+                items[n++] = key;
+            }
+            return items;
+        }
+
+        private void saveSet(DumpState st, PSet obj) {
+            if (st.proto < 4) {
+                saveReduce(st, getCore().lookupType(PythonBuiltinClassType.PSet), factory().createTuple(new Object[]{factory().createList(setItems(obj))}), null, null, null, obj);
+                return;
+            }
+            write(st, EMPTY_SET);
+            memoize(st, obj);
+            Object[] items = setItems(obj);
+            for (int start = 0; start < items.length; start += BATCHSIZE) {
+                write(st, MARK);
+                int end = Math.min(items.length, start + BATCHSIZE);
+                for (int i = start; i < end; i++) {
+                    save(st, items[i], false);
+                    if (obj.getDictStorage().length() != items.length) {
+                        throw raise(RuntimeError, "set changed size during iteration");
+                    }
+                }
+                write(st, ADDITEMS);
+            }
+        }
+
+        private void saveFrozenSet(DumpState st, PFrozenSet obj) {
+            if (st.proto < 4) {
+                saveReduce(st, getCore().lookupType(PythonBuiltinClassType.PFrozenSet), factory().createTuple(new Object[]{factory().createList(setItems(obj))}), null, null, null, obj);
+                return;
+            }
+            write(st, MARK);
+            for (Object item : setItems(obj)) {
+                save(st, item, false);
+            }
+            Integer memoIndex = st.memo.get(obj);
+            if (memoIndex != null) {
+                // the frozenset is recursive through one of its items
+                write(st, POP_MARK);
+                writeGet(st, memoIndex);
+                return;
+            }
+            write(st, FROZENSET);
+            memoize(st, obj);
+        }
+
+        private void saveType(DumpState st, Object obj) {
+            PythonBuiltinClassType[] singletons = {PythonBuiltinClassType.PNone, PythonBuiltinClassType.PNotImplemented, PythonBuiltinClassType.PEllipsis};
+            Object[] values = {PNone.NONE, getCore().getBuiltins().getAttribute("NotImplemented"), getCore().getBuiltins().getAttribute("Ellipsis")};
+            for (int i = 0; i < singletons.length; i++) {
+                if (obj == singletons[i] || obj == getCore().lookupType(singletons[i])) {
+                    saveReduce(st, getCore().lookupType(PythonBuiltinClassType.PythonClass), factory().createTuple(new Object[]{values[i]}), null, null, null, obj);
+                    return;
+                }
+            }
+            saveGlobal(st, obj, null);
+        }
+
+        private void saveGlobal(DumpState st, Object obj, Object name) {
+            Object resolve = getCore().lookupBuiltinModule("_pickle").getAttribute("_resolve_global");
+            Object result = callNode.execute(null, resolve, obj, name == null ? PNone.NONE : name, st.proto, st.pickler.isFixImports());
+            SequenceStorage resolved = ((PTuple) result).getSequenceStorage();
+            Object moduleName = resolved.getItemNormalized(0);
+            Object globalName = resolved.getItemNormalized(1);
+            Object code = resolved.getItemNormalized(2);
+            Object parent = resolved.getItemNormalized(3);
+            if (code != PNone.NONE) {
+                long c = code instanceof PInt ? ((PInt) code).longValue() : ((Number) code).longValue();
+                if (c <= 0xff) {
+                    reserve(st, 2);
+                    st.out[st.len++] = EXT1;
+                    st.out[st.len++] = (byte) c;
+                } else if (c <= 0xffff) {
+                    write(st, EXT2);
+                    writeLittleEndian(st, c, 2);
+                } else {
+                    write(st, EXT4);
+                    writeLittleEndian(st, c, 4);
+                }
+                return;
+            }
+            if (st.proto >= 4) {
+                save(st, moduleName, false);
+                save(st, globalName, false);
+                write(st, STACK_GLOBAL);
+            } else if (parent != PNone.NONE) {
+                // a nested name is reduced to getattr(parent, name) for protocols without
+                // qualified names
+                saveReduce(st, getCore().getBuiltins().getAttribute("getattr"), factory().createTuple(new Object[]{parent, globalName}), null, null, null, null);
+            } else {
+                String line = asString(moduleName) + "\n" + asString(globalName);
+                byte[] data = st.proto >= 3 ? encodeUTF8(line) : line.getBytes(StandardCharsets.US_ASCII);
+                write(st, GLOBAL, data, data.length);
+                write(st, (byte) '\n');
+            }
+            memoize(st, obj);
+        }
+
+        private Object getDispatchTable(DumpState st) {
+            if (st.dispatchTable == null) {
+                Object table = lookupAttribute(st.pickler, "dispatch_table");
+                if (table == null) {
+                    table = callNode.execute(null, getCore().lookupBuiltinModule("_pickle").getAttribute("_dispatch_table"));
+                }
+                st.dispatchTable = table;
+            }
+            return st.dispatchTable;
+        }
+
+        private void saveReduceValue(DumpState st, Object obj) {
+            Object type = getClassNode.execute(obj);
+            Object dispatchTable = getDispatchTable(st);
+            Object reduceFunc;
+            if (dispatchTable instanceof PDict) {
+                reduceFunc = getItemNode.execute(((PDict) dispatchTable).getDictStorage(), type);
+            } else {
+                reduceFunc = callNode.execute(null, getAttributeNode.executeObject(dispatchTable, "get"), type, PNone.NONE);
+                if (reduceFunc == PNone.NONE) {
+                    reduceFunc = null;
+                }
+            }
+            Object reduceValue;
+            if (reduceFunc != null) {
+                reduceValue = callNode.execute(null, reduceFunc, obj);
+            } else if (isClass(obj)) {
+                saveGlobal(st, obj, null);
+                return;
+            } else {
+                reduceFunc = lookupAttribute(obj, "__reduce_ex__");
+                if (reduceFunc != null) {
+                    reduceValue = callNode.execute(null, reduceFunc, st.proto);
+                } else {
+                    reduceFunc = lookupAttribute(obj, "__reduce__");
+                    if (reduceFunc == null) {
+                        throw raisePickleError(this, "PicklingError", "can't pickle %s objects", getClassName(obj));
+                    }
+                    reduceValue = callNode.execute(null, reduceFunc);
+                }
+            }
+            if (asString(reduceValue) != null) {
+                saveGlobal(st, obj, reduceValue);
+                return;
+            }
+            if (!(reduceValue instanceof PTuple)) {
+                throw raisePickleError(this, "PicklingError", "__reduce__ must return a string or tuple");
+            }
+            SequenceStorage value = ((PTuple) reduceValue).getSequenceStorage();
+            int size = value.length();
+            if (size < 2 || size > 5) {
+                throw raisePickleError(this, "PicklingError", "tuple returned by __reduce__ must contain 2 through 5 elements");
+            }
+            Object func = value.getItemNormalized(0);
+            Object args = value.getItemNormalized(1);
+            Object state = size > 2 ? value.getItemNormalized(2) : PNone.NONE;
+            Object listItems = size > 3 ? value.getItemNormalized(3) : PNone.NONE;
+            Object dictItems = size > 4 ? value.getItemNormalized(4) : PNone.NONE;
+            if (lookupCallNode.execute(func) == PNone.NO_VALUE) {
+                throw raisePickleError(this, "PicklingError", "first item of the tuple returned by __reduce__ must be callable");
+            }
+            if (!(args instanceof PTuple)) {
+                throw raisePickleError(this, "PicklingError", "second item of the tuple returned by __reduce__ must be a tuple");
+            }
+            if (listItems != PNone.NONE && lookupNextNode.execute(listItems) == PNone.NO_VALUE) {
+                throw raisePickleError(this, "PicklingError", "fourth element of the tuple returned by __reduce__ must be an iterator, not %p", listItems);
+            }
+            if (dictItems != PNone.NONE && lookupNextNode.execute(dictItems) == PNone.NO_VALUE) {
+                throw raisePickleError(this, "PicklingError", "fifth element of the tuple returned by __reduce__ must be an iterator, not %p", dictItems);
+            }
+            saveReduce(st, func, (PTuple) args, noneToNull(state), noneToNull(listItems), noneToNull(dictItems), obj);
+        }
+
+        private static Object noneToNull(Object value) {
+            return value == PNone.NONE ? null : value;
+        }
+
+        private String getClassName(Object obj) {
+            Object name = lookupAttribute(getClassNode.execute(obj), "__name__");
+            String s = asString(name);
+            return s != null ? s : "?";
+        }
+
+        private void saveReduce(DumpState st, Object func, PTuple args, Object state, Object listItems, Object dictItems, Object obj) {
+            SequenceStorage argStorage = args.getSequenceStorage();
+            String funcName = null;
+            if (st.proto >= 2) {
+                funcName = asString(lookupAttribute(func, "__name__"));
+            }
+            if ("__newobj_ex__".equals(funcName)) {
+                if (argStorage.length() != 3) {
+                    throw raisePickleError(this, "PicklingError", "length of the NEWOBJ_EX argument tuple must be exactly 3, not %d", argStorage.length());
+                }
+                Object cls = argStorage.getItemNormalized(0);
+                Object clsArgs = argStorage.getItemNormalized(1);
+                Object clsKwargs = argStorage.getItemNormalized(2);
+                if (!isClass(cls)) {
+                    throw raisePickleError(this, "PicklingError", "first item from NEWOBJ_EX argument tuple must be a class, not %p", cls);
+                } else if (!(clsArgs instanceof PTuple)) {
+                    throw raisePickleError(this, "PicklingError", "second item from NEWOBJ_EX argument tuple must be a tuple, not %p", clsArgs);
+                } else if (!(clsKwargs instanceof PDict)) {
+                    throw raisePickleError(this, "PicklingError", "third item from NEWOBJ_EX argument tuple must be a dict, not %p", clsKwargs);
+                }
+                if (st.proto >= 4) {
+                    save(st, cls, false);
+                    save(st, clsArgs, false);
+                    save(st, clsKwargs, false);
+                    write(st, NEWOBJ_EX);
+                } else {
+                    Object partial = callNode.execute(null, getCore().lookupBuiltinModule("_pickle").getAttribute("_newobj_ex_partial"), cls, clsArgs, clsKwargs);
+                    save(st, partial, false);
+                    save(st, factory().createEmptyTuple(), false);
+                    write(st, REDUCE);
+                }
+            } else if ("__newobj__".equals(funcName)) {
+                int size = argStorage.length();
+                if (size == 0) {
+                    throw raisePickleError(this, "PicklingError", "__newobj__ arglist is empty");
+                }
+                Object cls = argStorage.getItemNormalized(0);
+                if (!isClass(cls)) {
+                    throw raisePickleError(this, "PicklingError", "args[0] from __newobj__ args is not a type");
+                }
+                if (obj != null && getAttributeNode.executeObject(obj, "__class__") != cls && getClassNode.execute(obj) != cls) {
+                    throw raisePickleError(this, "PicklingError", "args[0] from __newobj__ args has the wrong class");
+                }
+                Object[] newArgs = new Object[size - 1];
+                for (int i = 1; i < size; i++) {
+                    newArgs[i - 1] = argStorage.getItemNormalized(i);
+                }
+                save(st, cls, false);
+                save(st, factory().createTuple(newArgs), false);
+                write(st, NEWOBJ);
+            } else {
+                save(st, func, false);
+                save(st, args, false);
+                write(st, REDUCE);
+            }
+
+            if (obj != null) {
+                Integer memoIndex = st.memo.get(obj);
+                if (memoIndex != null) {
+                    // the object is recursive and was memoized while saving its arguments
+                    write(st, POP);
+                    writeGet(st, memoIndex);
+                } else {
+                    memoize(st, obj);
+                }
+            }
+            if (listItems != null) {
+                batchList(st, listItems);
+            }
+            if (dictItems != null) {
+                batchDict(st, dictItems);
+            }
+            if (state != null) {
+                save(st, state, false);
+                write(st, BUILD);
+            }
+        }
+
+        public static DumpNode create() {
+            return new DumpNode();
+        }
+    }
+}
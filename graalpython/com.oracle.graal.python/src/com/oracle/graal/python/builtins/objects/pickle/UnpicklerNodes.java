@@ -0,0 +1,1002 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.pickle;
+
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__SETITEM__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.EOFError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.KeyError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.UnicodeDecodeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.bytes.BytesNodes.ToBytesNode;
+import com.oracle.graal.python.builtins.objects.common.HashingCollectionNodes;
+import com.oracle.graal.python.builtins.objects.common.HashingStorage.DictEntry;
+import com.oracle.graal.python.builtins.objects.dict.PDict;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.builtins.objects.io.BufferedIONodes;
+import com.oracle.graal.python.builtins.objects.io.BufferedIONodes.ReadIntoNode;
+import com.oracle.graal.python.builtins.objects.io.BufferedIONodes.ReadLineNode;
+import com.oracle.graal.python.builtins.objects.io.PBuffered;
+import com.oracle.graal.python.builtins.objects.io.PTextIO;
+import com.oracle.graal.python.builtins.objects.list.PList;
+import com.oracle.graal.python.builtins.objects.set.PFrozenSet;
+import com.oracle.graal.python.builtins.objects.set.PSet;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.nodes.PNodeWithContext;
+import com.oracle.graal.python.nodes.attributes.GetAttributeNode.GetAnyAttributeNode;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallTernaryNode;
+import com.oracle.graal.python.nodes.expression.CastToBooleanNode;
+import com.oracle.graal.python.nodes.object.IsBuiltinClassProfile;
+import com.oracle.graal.python.nodes.util.CastToStringNode;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+public abstract class UnpicklerNodes {
+
+    /**
+     * Validates the arguments of {@code Unpickler(file, fix_imports, encoding, errors)} and
+     * initializes the unpickler. The {@code file} is {@code null} for {@code loads}.
+     */
+    public static final class InitUnpicklerNode extends PNodeWithContext {
+        @Child private CastToStringNode castToStringNode = CastToStringNode.create();
+        @Child private CastToBooleanNode castToBooleanNode = CastToBooleanNode.createIfTrueNode();
+        @Child private GetAnyAttributeNode getAttributeNode;
+
+        private final IsBuiltinClassProfile attributeErrorProfile = IsBuiltinClassProfile.create();
+
+        public void execute(PUnpickler self, Object file, Object fixImports, Object encoding, Object errors) {
+            Object read = null;
+            Object readline = null;
+            if (file != null && !(file instanceof PBuffered && PicklerNodes.isBuiltin(file, PythonBuiltinClassType.PBufferedReader))) {
+                if (getAttributeNode == null) {
+                    getAttributeNode = insert(GetAnyAttributeNode.create());
+                }
+                try {
+                    read = getAttributeNode.executeObject(file, "read");
+                    readline = getAttributeNode.executeObject(file, "readline");
+                } catch (PException e) {
+                    e.expectAttributeError(attributeErrorProfile);
+                    throw raise(TypeError, "file must have 'read' and 'readline' attributes");
+                }
+            }
+            boolean fix = fixImports == PNone.NO_VALUE || castToBooleanNode.executeWith(fixImports);
+            String enc = encoding == PNone.NO_VALUE ? "ASCII" : castToStringNode.execute(encoding);
+            String err = errors == PNone.NO_VALUE ? "strict" : castToStringNode.execute(errors);
+            self.initialize(file, read, readline, enc, err, fix);
+        }
+
+        public static InitUnpicklerNode create() {
+            return new InitUnpicklerNode();
+        }
+    }
+
+    /**
+     * Unpickles one object from the unpickler's file, or from the given data if the unpickler has
+     * no file. Pickles in a byte array are read in place; from a file, each opcode's data is read
+     * with exactly sized reads, and the frames of protocol 4 are read as a whole. Buffered readers
+     * are read from without calling {@code read}.
+     */
+    public static final class LoadNode extends PNodeWithContext {
+        private static final int INITIAL_STACK_SIZE = 16;
+
+        @Child private CallNode callNode = CallNode.create();
+        @Child private GetAnyAttributeNode getAttributeNode = GetAnyAttributeNode.create();
+        @Child private HashingCollectionNodes.SetItemNode setItemNode = HashingCollectionNodes.SetItemNode.create();
+        @Child private LookupAndCallTernaryNode callSetItemNode = LookupAndCallTernaryNode.create(__SETITEM__);
+        @Child private ToBytesNode toBytesNode;
+        @Child private ReadIntoNode readIntoNode;
+        @Child private ReadLineNode readLineNode;
+
+        private final IsBuiltinClassProfile attributeErrorProfile = IsBuiltinClassProfile.create();
+
+        private static final class LoadState {
+            final PUnpickler unpickler;
+            final boolean fromFile;
+            byte[] buf;
+            int pos;
+            int limit;
+            Object[] stack = new Object[INITIAL_STACK_SIZE];
+            int stackLen;
+            int[] marks = new int[INITIAL_STACK_SIZE];
+            int marksLen;
+            /* looked up on first use */
+            Object findClass;
+
+            LoadState(PUnpickler unpickler, byte[] data) {
+                this.unpickler = unpickler;
+                this.fromFile = data == null;
+                this.buf = data == null ? new byte[0] : data;
+                this.limit = buf.length;
+            }
+        }
+
+        @TruffleBoundary
+        public Object execute(PUnpickler self, byte[] data) {
+            LoadState st = new LoadState(self, data);
+            self.setProto(0);
+            while (true) {
+                if (st.pos == st.limit && !fill(st, 1)) {
+                    throw raise(EOFError, "Ran out of input");
+                }
+                byte opcode = st.buf[st.pos++];
+                if (opcode == PickleUtils.STOP) {
+                    return pop(st);
+                }
+                dispatch(st, opcode);
+            }
+        }
+
+        // input
+
+        /**
+         * Makes sure that {@code n} bytes are available at the read position. Returns
+         * {@code false} if the input ended before any of them could be read.
+         */
+        private boolean fill(LoadState st, int n) {
+            int available = st.limit - st.pos;
+            if (available >= n) {
+                return true;
+            }
+            if (!st.fromFile) {
+                if (available == 0) {
+                    return false;
+                }
+                throw raiseUnpicklingError("pickle data was truncated");
+            }
+            if (available > 0) {
+                throw raiseUnpicklingError("pickle exhausted before end of frame");
+            }
+            byte[] target = new byte[n];
+            int read = readFromFile(st.unpickler, target);
+            if (read == 0) {
+                return false;
+            } else if (read < n) {
+                throw raiseUnpicklingError("pickle data was truncated");
+            }
+            st.buf = target;
+            st.pos = 0;
+            st.limit = n;
+            return true;
+        }
+
+        private int readFromFile(PUnpickler unpickler, byte[] target) {
+            if (unpickler.getRead() == null) {
+                PBuffered file = (PBuffered) unpickler.getFile();
+                BufferedIONodes.checkOpen(this, file);
+                if (readIntoNode == null) {
+                    readIntoNode = insert(ReadIntoNode.create());
+                }
+                return readIntoNode.execute(file, target, 0, target.length);
+            }
+            byte[] data = toBytes(callNode.execute(null, unpickler.getRead(), target.length));
+            int n = Math.min(data.length, target.length);
+            System.arraycopy(data, 0, target, 0, n);
+            return n;
+        }
+
+        private byte[] toBytes(Object obj) {
+            if (toBytesNode == null) {
+                toBytesNode = insert(ToBytesNode.create());
+            }
+            return toBytesNode.execute(obj);
+        }
+
+        /**
+         * Returns the offset in {@code st.buf} of the next {@code n} bytes and skips them.
+         */
+        private int read(LoadState st, int n) {
+            if (!fill(st, n)) {
+                throw raiseUnpicklingError("pickle data was truncated");
+            }
+            int offset = st.pos;
+            st.pos += n;
+            return offset;
+        }
+
+        private byte[] readBytes(LoadState st, int n) {
+            int offset = read(st, n);
+            return Arrays.copyOfRange(st.buf, offset, offset + n);
+        }
+
+        private int readByte(LoadState st) {
+            return st.buf[read(st, 1)] & 0xff;
+        }
+
+        private long readLittleEndian(LoadState st, int size) {
+            return PickleUtils.readLittleEndian(st.buf, read(st, size), size);
+        }
+
+        /**
+         * Reads a size of 4 or 8 bytes that must fit into a Java array.
+         */
+        private int readSize(LoadState st, int size, String opcodeName) {
+            long n = readLittleEndian(st, size);
+            if (n < 0 || n > Integer.MAX_VALUE - 8) {
+                throw raise(PythonBuiltinClassType.OverflowError, "%s exceeds system's maximum size of %d bytes", opcodeName, Integer.MAX_VALUE - 8);
+            }
+            return (int) n;
+        }
+
+        /**
+         * Reads a line and returns it without the newline.
+         */
+        private byte[] readLine(LoadState st) {
+            for (int i = st.pos; i < st.limit; i++) {
+                if (st.buf[i] == '\n') {
+                    byte[] line = Arrays.copyOfRange(st.buf, st.pos, i);
+                    st.pos = i + 1;
+                    return line;
+                }
+            }
+            if (!st.fromFile || st.pos < st.limit) {
+                throw raiseUnpicklingError("pickle data was truncated");
+            }
+            PUnpickler unpickler = st.unpickler;
+            byte[] line;
+            if (unpickler.getReadline() == null) {
+                PBuffered file = (PBuffered) unpickler.getFile();
+                BufferedIONodes.checkOpen(this, file);
+                if (readLineNode == null) {
+                    readLineNode = insert(ReadLineNode.create());
+                }
+                line = readLineNode.execute(file, PTextIO.NEWLINE_LF, -1, false);
+            } else {
+                line = toBytes(callNode.execute(null, unpickler.getReadline()));
+            }
+            if (line.length == 0 || line[line.length - 1] != '\n') {
+                throw raiseUnpicklingError("pickle data was truncated");
+            }
+            return Arrays.copyOf(line, line.length - 1);
+        }
+
+        private static String lineToString(byte[] line) {
+            return new String(line, StandardCharsets.ISO_8859_1);
+        }
+
+        // stack
+
+        private void push(LoadState st, Object value) {
+            if (st.stackLen == st.stack.length) {
+                st.stack = Arrays.copyOf(st.stack, st.stack.length * 2);
+            }
+            st.stack[st.stackLen++] = value;
+        }
+
+        private int fence(LoadState st) {
+            return st.marksLen > 0 ? st.marks[st.marksLen - 1] : 0;
+        }
+
+        private Object pop(LoadState st) {
+            if (st.stackLen <= fence(st)) {
+                throw raiseUnpicklingError("unpickling stack underflow");
+            }
+            Object value = st.stack[--st.stackLen];
+            st.stack[st.stackLen] = null;
+            return value;
+        }
+
+        private Object peek(LoadState st) {
+            if (st.stackLen <= fence(st)) {
+                throw raiseUnpicklingError("unpickling stack underflow");
+            }
+            return st.stack[st.stackLen - 1];
+        }
+
+        /**
+         * Pops the topmost mark and returns its stack position.
+         */
+        private int marker(LoadState st) {
+            if (st.marksLen == 0) {
+                throw raiseUnpicklingError("could not find MARK");
+            }
+            return st.marks[--st.marksLen];
+        }
+
+        /**
+         * Removes and returns the items of the stack above the given position.
+         */
+        private static Object[] popFrom(LoadState st, int start) {
+            Object[] items = Arrays.copyOfRange(st.stack, start, st.stackLen);
+            Arrays.fill(st.stack, start, st.stackLen, null);
+            st.stackLen = start;
+            return items;
+        }
+
+        private Object[] popItems(LoadState st, int n) {
+            if (st.stackLen - n < fence(st)) {
+                throw raiseUnpicklingError("unpickling stack underflow");
+            }
+            return popFrom(st, st.stackLen - n);
+        }
+
+        private PException raiseUnpicklingError(String format, Object... args) {
+            throw PicklerNodes.raisePickleError(this, "UnpicklingError", format, args);
+        }
+
+        // opcodes
+
+        private void dispatch(LoadState st, byte opcode) {
+            switch (opcode) {
+                case PickleUtils.PROTO:
+                    loadProto(st);
+                    break;
+                case PickleUtils.FRAME:
+                    loadFrame(st);
+                    break;
+                case PickleUtils.MARK:
+                    if (st.marksLen == st.marks.length) {
+                        st.marks = Arrays.copyOf(st.marks, st.marks.length * 2);
+                    }
+                    st.marks[st.marksLen++] = st.stackLen;
+                    break;
+                case PickleUtils.POP:
+                    if (st.marksLen > 0 && st.marks[st.marksLen - 1] == st.stackLen) {
+                        st.marksLen--;
+                    } else {
+                        pop(st);
+                    }
+                    break;
+                case PickleUtils.POP_MARK:
+                    popFrom(st, marker(st));
+                    break;
+                case PickleUtils.DUP:
+                    push(st, peek(st));
+                    break;
+                case PickleUtils.NONE:
+                    push(st, PNone.NONE);
+                    break;
+                case PickleUtils.NEWTRUE:
+                    push(st, true);
+                    break;
+                case PickleUtils.NEWFALSE:
+                    push(st, false);
+                    break;
+                case PickleUtils.INT:
+                    loadInt(st);
+                    break;
+                case PickleUtils.BININT:
+                    push(st, (int) readLittleEndian(st, 4));
+                    break;
+                case PickleUtils.BININT1:
+                    push(st, readByte(st));
+                    break;
+                case PickleUtils.BININT2:
+                    push(st, (int) readLittleEndian(st, 2));
+                    break;
+                case PickleUtils.LONG:
+                    loadLong(st);
+                    break;
+                case PickleUtils.LONG1:
+                    loadLong(st, readByte(st));
+                    break;
+                case PickleUtils.LONG4: {
+                    int size = (int) readLittleEndian(st, 4);
+                    if (size < 0) {
+                        throw raiseUnpicklingError("LONG pickle has negative byte count");
+                    }
+                    loadLong(st, size);
+                    break;
+                }
+                case PickleUtils.FLOAT:
+                    loadFloat(st);
+                    break;
+                case PickleUtils.BINFLOAT: {
+                    int offset = read(st, 8);
+                    long bits = 0;
+                    for (int i = 0; i < 8; i++) {
+                        bits = (bits << 8) | (st.buf[offset + i] & 0xff);
+                    }
+                    push(st, Double.longBitsToDouble(bits));
+                    break;
+                }
+                case PickleUtils.STRING:
+                    loadString(st);
+                    break;
+                case PickleUtils.BINSTRING: {
+                    int size = (int) readLittleEndian(st, 4);
+                    if (size < 0) {
+                        throw raiseUnpicklingError("BINSTRING pickle has negative byte count");
+                    }
+                    push(st, decodeString(st, readBytes(st, size)));
+                    break;
+                }
+                case PickleUtils.SHORT_BINSTRING: {
+                    int size = readByte(st);
+                    push(st, decodeString(st, readBytes(st, size)));
+                    break;
+                }
+                case PickleUtils.BINBYTES:
+                    loadBytes(st, readSize(st, 4, "BINBYTES"));
+                    break;
+                case PickleUtils.SHORT_BINBYTES:
+                    loadBytes(st, readByte(st));
+                    break;
+                case PickleUtils.BINBYTES8:
+                    loadBytes(st, readSize(st, 8, "BINBYTES8"));
+                    break;
+                case PickleUtils.UNICODE: {
+                    byte[] line = readLine(st);
+                    String s = PickleUtils.decodeRawUnicodeEscape(line, 0, line.length);
+                    if (s == null) {
+                        throw raise(UnicodeDecodeError, "'rawunicodeescape' codec can't decode bytes: truncated \\uXXXX escape");
+                    }
+                    push(st, s);
+                    break;
+                }
+                case PickleUtils.BINUNICODE:
+                    loadUnicode(st, readSize(st, 4, "BINUNICODE"));
+                    break;
+                case PickleUtils.SHORT_BINUNICODE:
+                    loadUnicode(st, readByte(st));
+                    break;
+                case PickleUtils.BINUNICODE8:
+                    loadUnicode(st, readSize(st, 8, "BINUNICODE8"));
+                    break;
+                case PickleUtils.EMPTY_TUPLE:
+                    push(st, factory().createEmptyTuple());
+                    break;
+                case PickleUtils.TUPLE:
+                    push(st, factory().createTuple(popFrom(st, marker(st))));
+                    break;
+                case PickleUtils.TUPLE1:
+                    push(st, factory().createTuple(popItems(st, 1)));
+                    break;
+                case PickleUtils.TUPLE2:
+                    push(st, factory().createTuple(popItems(st, 2)));
+                    break;
+                case PickleUtils.TUPLE3:
+                    push(st, factory().createTuple(popItems(st, 3)));
+                    break;
+                case PickleUtils.EMPTY_LIST:
+                    push(st, factory().createList());
+                    break;
+                case PickleUtils.LIST:
+                    push(st, factory().createList(popFrom(st, marker(st))));
+                    break;
+                case PickleUtils.EMPTY_DICT:
+                    push(st, factory().createDict());
+                    break;
+                case PickleUtils.DICT: {
+                    Object[] items = popFrom(st, marker(st));
+                    if (items.length % 2 != 0) {
+                        throw raiseUnpicklingError("odd number of items for DICT");
+                    }
+                    PDict dict = factory().createDict();
+                    for (int i = 0; i < items.length; i += 2) {
+                        setItemNode.execute(dict, items[i], items[i + 1]);
+                    }
+                    push(st, dict);
+                    break;
+                }
+                case PickleUtils.EMPTY_SET:
+                    push(st, factory().createSet());
+                    break;
+                case PickleUtils.FROZENSET: {
+                    PFrozenSet set = factory().createFrozenSet(PythonBuiltinClassType.PFrozenSet);
+                    for (Object item : popFrom(st, marker(st))) {
+                        setItemNode.execute(set, item, PNone.NO_VALUE);
+                    }
+                    push(st, set);
+                    break;
+                }
+                case PickleUtils.APPEND:
+                    append(st, st.stackLen - 1);
+                    break;
+                case PickleUtils.APPENDS:
+                    append(st, marker(st));
+                    break;
+                case PickleUtils.SETITEM:
+                    setItems(st, st.stackLen - 2);
+                    break;
+                case PickleUtils.SETITEMS:
+                    setItems(st, marker(st));
+                    break;
+                case PickleUtils.ADDITEMS:
+                    addItems(st, marker(st));
+                    break;
+                case PickleUtils.GET:
+                    loadGet(st, parseIndex(readLine(st)));
+                    break;
+                case PickleUtils.BINGET:
+                    loadGet(st, readByte(st));
+                    break;
+                case PickleUtils.LONG_BINGET:
+                    loadGet(st, readLittleEndian(st, 4));
+                    break;
+                case PickleUtils.PUT: {
+                    long idx = parseIndex(readLine(st));
+                    if (idx < 0) {
+                        throw raise(ValueError, "negative PUT argument");
+                    }
+                    loadPut(st, idx);
+                    break;
+                }
+                case PickleUtils.BINPUT:
+                    loadPut(st, readByte(st));
+                    break;
+                case PickleUtils.LONG_BINPUT: {
+                    long idx = (int) readLittleEndian(st, 4);
+                    if (idx < 0) {
+                        throw raise(ValueError, "negative LONG_BINPUT argument");
+                    }
+                    loadPut(st, idx);
+                    break;
+                }
+                case PickleUtils.MEMOIZE:
+                    st.unpickler.putMemo(st.unpickler.getMemoLength(), peek(st));
+                    break;
+                case PickleUtils.GLOBAL: {
+                    String module = decodeUTF8(readLine(st));
+                    String name = decodeUTF8(readLine(st));
+                    push(st, findClass(st, module, name));
+                    break;
+                }
+                case PickleUtils.STACK_GLOBAL: {
+                    Object name = pop(st);
+                    Object module = pop(st);
+                    if (PicklerNodes.asString(name) == null || PicklerNodes.asString(module) == null) {
+                        throw raiseUnpicklingError("STACK_GLOBAL requires str");
+                    }
+                    push(st, findClass(st, module, name));
+                    break;
+                }
+                case PickleUtils.EXT1:
+                    loadExtension(st, readByte(st));
+                    break;
+                case PickleUtils.EXT2:
+                    loadExtension(st, readLittleEndian(st, 2));
+                    break;
+                case PickleUtils.EXT4:
+                    loadExtension(st, (int) readLittleEndian(st, 4));
+                    break;
+                case PickleUtils.REDUCE: {
+                    Object args = pop(st);
+                    Object func = pop(st);
+                    if (!(args instanceof PTuple)) {
+                        throw raise(TypeError, "argument list must be a tuple");
+                    }
+                    push(st, callNode.execute(null, func, toArray((PTuple) args)));
+                    break;
+                }
+                case PickleUtils.NEWOBJ: {
+                    Object args = pop(st);
+                    if (!(args instanceof PTuple)) {
+                        throw raiseUnpicklingError("NEWOBJ expected an arg tuple.");
+                    }
+                    Object cls = pop(st);
+                    if (!PicklerNodes.isClass(cls)) {
+                        throw raiseUnpicklingError("NEWOBJ class argument isn't a type object");
+                    }
+                    push(st, callNew(cls, toArray((PTuple) args), PKeyword.EMPTY_KEYWORDS));
+                    break;
+                }
+                case PickleUtils.NEWOBJ_EX:
+                    loadNewObjEx(st);
+                    break;
+                case PickleUtils.OBJ: {
+                    int start = marker(st);
+                    if (st.stackLen - start < 1) {
+                        throw raiseUnpicklingError("unpickling stack underflow");
+                    }
+                    Object[] items = popFrom(st, start);
+                    push(st, instantiate(items[0], Arrays.copyOfRange(items, 1, items.length)));
+                    break;
+                }
+                case PickleUtils.INST: {
+                    String module = decodeUTF8(readLine(st));
+                    String name = decodeUTF8(readLine(st));
+                    Object cls = findClass(st, module, name);
+                    push(st, instantiate(cls, popFrom(st, marker(st))));
+                    break;
+                }
+                case PickleUtils.BUILD:
+                    loadBuild(st);
+                    break;
+                case PickleUtils.PERSID: {
+                    byte[] line = readLine(st);
+                    for (byte b : line) {
+                        if (b < 0) {
+                            throw raiseUnpicklingError("persistent IDs in protocol 0 must be ASCII strings");
+                        }
+                    }
+                    push(st, persistentLoad(st, lineToString(line)));
+                    break;
+                }
+                case PickleUtils.BINPERSID:
+                    push(st, persistentLoad(st, pop(st)));
+                    break;
+                default:
+                    throw raiseUnpicklingError("invalid load key, '%c'.", (char) (opcode & 0xff));
+            }
+        }
+
+        private void loadProto(LoadState st) {
+            int proto = readByte(st);
+            if (proto > PickleUtils.HIGHEST_PROTOCOL) {
+                throw raise(ValueError, "unsupported pickle protocol: %d", proto);
+            }
+            st.unpickler.setProto(proto);
+        }
+
+        private void loadFrame(LoadState st) {
+            int size = readSize(st, 8, "FRAME length");
+            if (st.fromFile) {
+                // read the whole frame at once and leave it to be consumed by the following opcodes
+                int offset = read(st, size);
+                st.pos = offset;
+            } else if (st.limit - st.pos < size) {
+                throw raiseUnpicklingError("pickle data was truncated");
+            }
+        }
+
+        private void loadInt(LoadState st) {
+            String s = lineToString(readLine(st));
+            if (s.equals("00")) {
+                push(st, false);
+            } else if (s.equals("01")) {
+                push(st, true);
+            } else {
+                push(st, parseInt(s));
+            }
+        }
+
+        private Object parseInt(String s) {
+            String digits = s.trim();
+            try {
+                long value = Long.parseLong(digits);
+                return value == (int) value ? (Object) (int) value : (Object) value;
+            } catch (NumberFormatException e) {
+                try {
+                    return factory().createInt(new BigInteger(digits));
+                } catch (NumberFormatException e2) {
+                    throw raise(ValueError, "invalid literal for int() with base 10: '%s'", s);
+                }
+            }
+        }
+
+        private void loadLong(LoadState st) {
+            String s = lineToString(readLine(st));
+            if (s.endsWith("L")) {
+                s = s.substring(0, s.length() - 1);
+            }
+            push(st, parseInt(s));
+        }
+
+        private void loadLong(LoadState st, int size) {
+            int offset = read(st, size);
+            if (size <= 8) {
+                long value = size == 0 ? 0 : PickleUtils.readLittleEndian(st.buf, offset, size) << (64 - 8 * size) >> (64 - 8 * size);
+                push(st, value == (int) value ? (Object) (int) value : (Object) value);
+            } else {
+                push(st, factory().createInt(PickleUtils.decodeLong(st.buf, offset, size)));
+            }
+        }
+
+        private void loadFloat(LoadState st) {
+            String s = lineToString(readLine(st)).trim();
+            double value;
+            switch (s) {
+                case "inf":
+                    value = Double.POSITIVE_INFINITY;
+                    break;
+                case "-inf":
+                    value = Double.NEGATIVE_INFINITY;
+                    break;
+                case "nan":
+                case "-nan":
+                    value = Double.NaN;
+                    break;
+                default:
+                    try {
+                        value = Double.parseDouble(s);
+                    } catch (NumberFormatException e) {
+                        throw raise(ValueError, "could not convert string to float: '%s'", s);
+                    }
+            }
+            push(st, value);
+        }
+
+        private void loadString(LoadState st) {
+            byte[] line = readLine(st);
+            int len = line.length;
+            if (len < 2 || line[0] != line[len - 1] || (line[0] != '\'' && line[0] != '"')) {
+                throw raiseUnpicklingError("the STRING opcode argument must be quoted");
+            }
+            byte[] data = PickleUtils.decodeEscapedString(line, 1, len - 2);
+            if (data == null) {
+                throw raise(ValueError, "invalid \\x escape");
+            }
+            push(st, decodeString(st, data));
+        }
+
+        /**
+         * Decodes the Python 2 {@code str} of the {@code STRING} opcodes with the unpickler's
+         * encoding, which may also be {@code "bytes"} to load them as bytes.
+         */
+        private Object decodeString(LoadState st, byte[] data) {
+            String encoding = st.unpickler.getEncoding();
+            if (encoding.equals("bytes")) {
+                return factory().createBytes(data);
+            }
+            if (encoding.equalsIgnoreCase("ascii") && st.unpickler.getErrors().equals("strict")) {
+                boolean ascii = true;
+                for (byte b : data) {
+                    ascii &= b >= 0;
+                }
+                if (ascii) {
+                    return new String(data, StandardCharsets.US_ASCII);
+                }
+            }
+            Object decode = getCore().lookupBuiltinModule("_codecs").getAttribute("decode");
+            return callNode.execute(null, decode, factory().createBytes(data), encoding, st.unpickler.getErrors());
+        }
+
+        private void loadBytes(LoadState st, int size) {
+            push(st, factory().createBytes(readBytes(st, size)));
+        }
+
+        private void loadUnicode(LoadState st, int size) {
+            int offset = read(st, size);
+            String s = PickleUtils.decodeUTF8(st.buf, offset, size);
+            if (s == null) {
+                throw raise(UnicodeDecodeError, "'utf-8' codec can't decode bytes in position 0-%d: invalid data", size - 1);
+            }
+            push(st, s);
+        }
+
+        private String decodeUTF8(byte[] line) {
+            String s = PickleUtils.decodeUTF8(line, 0, line.length);
+            if (s == null) {
+                throw raise(UnicodeDecodeError, "'utf-8' codec can't decode bytes in position 0-%d: invalid data", line.length - 1);
+            }
+            return s;
+        }
+
+        private long parseIndex(byte[] line) {
+            String s = lineToString(line).trim();
+            try {
+                return Long.parseLong(s);
+            } catch (NumberFormatException e) {
+                throw raise(ValueError, "invalid literal for int() with base 10: '%s'", s);
+            }
+        }
+
+        private void loadGet(LoadState st, long idx) {
+            Object value = idx >= 0 && idx <= Integer.MAX_VALUE ? st.unpickler.getMemo((int) idx) : null;
+            if (value == null) {
+                throw raise(KeyError, "%d", idx);
+            }
+            push(st, value);
+        }
+
+        private void loadPut(LoadState st, long idx) {
+            if (idx > Integer.MAX_VALUE) {
+                throw raise(PythonBuiltinClassType.MemoryError, "memo index too large");
+            }
+            st.unpickler.putMemo((int) idx, peek(st));
+        }
+
+        private Object[] toArray(PTuple tuple) {
+            SequenceStorage storage = tuple.getSequenceStorage();
+            Object[] items = new Object[storage.length()];
+            for (int i = 0; i < items.length; i++) {
+                items[i] = storage.getItemNormalized(i);
+            }
+            return items;
+        }
+
+        /**
+         * Appends the items above {@code start} to the list below them.
+         */
+        private void append(LoadState st, int start) {
+            if (start < 1 || start > st.stackLen) {
+                throw raiseUnpicklingError("unpickling stack underflow");
+            }
+            Object[] items = popFrom(st, start);
+            Object list = st.stack[start - 1];
+            if (list instanceof PList && PicklerNodes.isBuiltin(list, PythonBuiltinClassType.PList)) {
+                PList pList = (PList) list;
+                for (Object item : items) {
+                    pList.insert(pList.getSequenceStorage().length(), item);
+                }
+            } else {
+                Object appendFunc = getAttributeNode.executeObject(list, "append");
+                for (Object item : items) {
+                    callNode.execute(null, appendFunc, item);
+                }
+            }
+        }
+
+        /**
+         * Sets the key-value pairs above {@code start} in the dict below them.
+         */
+        private void setItems(LoadState st, int start) {
+            if (start < 1 || start > st.stackLen) {
+                throw raiseUnpicklingError("unpickling stack underflow");
+            }
+            if ((st.stackLen - start) % 2 != 0) {
+                throw raiseUnpicklingError("odd number of items for SETITEMS");
+            }
+            Object[] items = popFrom(st, start);
+            Object dict = st.stack[start - 1];
+            boolean exact = dict instanceof PDict && PicklerNodes.isBuiltin(dict, PythonBuiltinClassType.PDict);
+            for (int i = 0; i < items.length; i += 2) {
+                if (exact) {
+                    setItemNode.execute((PDict) dict, items[i], items[i + 1]);
+                } else {
+                    callSetItemNode.execute(dict, items[i], items[i + 1]);
+                }
+            }
+        }
+
+        private void addItems(LoadState st, int start) {
+            if (start < 1) {
+                throw raiseUnpicklingError("unpickling stack underflow");
+            }
+            Object[] items = popFrom(st, start);
+            Object set = st.stack[start - 1];
+            if (set instanceof PSet && PicklerNodes.isBuiltin(set, PythonBuiltinClassType.PSet)) {
+                for (Object item : items) {
+                    setItemNode.execute((PSet) set, item, PNone.NO_VALUE);
+                }
+            } else {
+                Object addFunc = getAttributeNode.executeObject(set, "add");
+                for (Object item : items) {
+                    callNode.execute(null, addFunc, item);
+                }
+            }
+        }
+
+        private Object findClass(LoadState st, Object module, Object name) {
+            if (st.findClass == null) {
+                st.findClass = getAttributeNode.executeObject(st.unpickler, "find_class");
+            }
+            return callNode.execute(null, st.findClass, module, name);
+        }
+
+        private void loadExtension(LoadState st, long code) {
+            Object getExtension = getCore().lookupBuiltinModule("_pickle").getAttribute("_get_extension");
+            push(st, callNode.execute(null, getExtension, st.unpickler, code));
+        }
+
+        private Object callNew(Object cls, Object[] args, PKeyword[] kwargs) {
+            Object[] newArgs = new Object[args.length + 1];
+            newArgs[0] = cls;
+            System.arraycopy(args, 0, newArgs, 1, args.length);
+            return callNode.execute(null, getAttributeNode.executeObject(cls, "__new__"), newArgs, kwargs);
+        }
+
+        private void loadNewObjEx(LoadState st) {
+            Object kwargs = pop(st);
+            Object args = pop(st);
+            Object cls = pop(st);
+            if (!PicklerNodes.isClass(cls)) {
+                throw raiseUnpicklingError("NEWOBJ_EX class argument must be a type, not %p", cls);
+            } else if (!(args instanceof PTuple)) {
+                throw raiseUnpicklingError("NEWOBJ_EX args argument must be a tuple, not %p", args);
+            } else if (!(kwargs instanceof PDict)) {
+                throw raiseUnpicklingError("NEWOBJ_EX kwargs argument must be a dict, not %p", kwargs);
+            }
+            PDict dict = (PDict) kwargs;
+            PKeyword[] keywords = new PKeyword[dict.size()];
+            int i = 0;
+            for (DictEntry entry : dict.getDictStorage().entries()) {
+                String key = PicklerNodes.asString(entry.getKey());
+                if (key == null) {
+                    throw raise(TypeError, "keywords must be strings");
+                }
+                keywords[i++] = new PKeyword(key, entry.getValue());
+            }
+            push(st, callNew(cls, toArray((PTuple) args), keywords));
+        }
+
+        private Object lookupAttribute(Object obj, String name) {
+            try {
+                return getAttributeNode.executeObject(obj, name);
+            } catch (PException e) {
+                e.expectAttributeError(attributeErrorProfile);
+                return null;
+            }
+        }
+
+        private Object instantiate(Object cls, Object[] args) {
+            if (args.length > 0 || !PicklerNodes.isClass(cls) || lookupAttribute(cls, "__getinitargs__") != null) {
+                return callNode.execute(null, cls, args);
+            }
+            return callNew(cls, new Object[0], PKeyword.EMPTY_KEYWORDS);
+        }
+
+        private void loadBuild(LoadState st) {
+            Object state = pop(st);
+            Object inst = peek(st);
+            Object setState = lookupAttribute(inst, "__setstate__");
+            if (setState != null) {
+                callNode.execute(null, setState, state);
+                return;
+            }
+            Object slotState = PNone.NONE;
+            if (state instanceof PTuple && ((PTuple) state).getSequenceStorage().length() == 2) {
+                SequenceStorage pair = ((PTuple) state).getSequenceStorage();
+                state = pair.getItemNormalized(0);
+                slotState = pair.getItemNormalized(1);
+            }
+            if (state != PNone.NONE) {
+                if (!(state instanceof PDict)) {
+                    throw raiseUnpicklingError("state is not a dictionary");
+                }
+                Object instDict = getAttributeNode.executeObject(inst, "__dict__");
+                for (DictEntry entry : ((PDict) state).getDictStorage().entries()) {
+                    callSetItemNode.execute(instDict, entry.getKey(), entry.getValue());
+                }
+            }
+            if (slotState != PNone.NONE) {
+                if (!(slotState instanceof PDict)) {
+                    throw raiseUnpicklingError("slot state is not a dictionary");
+                }
+                Object setattr = getCore().getBuiltins().getAttribute("setattr");
+                for (DictEntry entry : ((PDict) slotState).getDictStorage().entries()) {
+                    callNode.execute(null, setattr, inst, entry.getKey(), entry.getValue());
+                }
+            }
+        }
+
+        private Object persistentLoad(LoadState st, Object pid) {
+            Object load = lookupAttribute(st.unpickler, "persistent_load");
+            if (load == null) {
+                throw raiseUnpicklingError("A load persistent id instruction was encountered,\nbut no persistent_load function was specified.");
+            }
+            return callNode.execute(null, load, pid);
+        }
+
+        public static LoadNode create() {
+            return new LoadNode();
+        }
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.select;
+
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.exception.OSErrorEnum;
+import com.oracle.graal.python.builtins.objects.select.SelectNodes.FilenoNode;
+import com.oracle.graal.python.builtins.objects.socket.SocketNodes;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
+import com.oracle.graal.python.nodes.util.CastToDoubleNode;
+import com.oracle.graal.python.nodes.util.CastToIndexNode;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PPoll)
+public class PollBuiltins extends PythonBuiltins {
+
+    private static final int DEFAULT_EVENTS = PPoll.POLLIN | PPoll.POLLPRI | PPoll.POLLOUT;
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return PollBuiltinsFactory.getFactories();
+    }
+
+    // register(fd[, eventmask])
+    @Builtin(name = "register", minNumOfPositionalArgs = 2, maxNumOfPositionalArgs = 3)
+    @GenerateNodeFactory
+    abstract static class RegisterNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        PNone register(PPoll self, Object fd, Object eventMask,
+                        @Cached("create()") FilenoNode filenoNode,
+                        @Cached("create()") CastToIndexNode castToIndexNode) {
+            int events = eventMask == PNone.NO_VALUE ? DEFAULT_EVENTS : castToIndexNode.execute(eventMask);
+            self.register(filenoNode.execute(fd), events);
+            return PNone.NONE;
+        }
+    }
+
+    // modify(fd, eventmask)
+    @Builtin(name = "modify", fixedNumOfPositionalArgs = 3)
+    @GenerateNodeFactory
+    abstract static class ModifyNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        PNone modify(VirtualFrame frame, PPoll self, Object fd, Object eventMask,
+                        @Cached("create()") FilenoNode filenoNode,
+                        @Cached("create()") CastToIndexNode castToIndexNode) {
+            if (!self.modify(filenoNode.execute(fd), castToIndexNode.execute(eventMask))) {
+                throw raiseOSError(frame, OSErrorEnum.ENOENT);
+            }
+            return PNone.NONE;
+        }
+    }
+
+    // unregister(fd)
+    @Builtin(name = "unregister", fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class UnregisterNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        PNone unregister(PPoll self, Object fd,
+                        @Cached("create()") FilenoNode filenoNode) {
+            int n = filenoNode.execute(fd);
+            if (!self.unregister(n)) {
+                throw raise(PythonBuiltinClassType.KeyError, "%d", n);
+            }
+            return PNone.NONE;
+        }
+    }
+
+    // poll([timeout])
+    @Builtin(name = "poll", minNumOfPositionalArgs = 1, maxNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class PollNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object poll(VirtualFrame frame, PPoll self, Object timeout,
+                        @Cached("create()") CastToDoubleNode castToDoubleNode) {
+            // poll takes milliseconds, negative means forever
+            long millis = -1;
+            if (timeout != PNone.NO_VALUE && timeout != PNone.NONE) {
+                double value = castToDoubleNode.execute(timeout);
+                if (Double.isNaN(value)) {
+                    throw raise(ValueError, "Invalid value NaN (not a number)");
+                }
+                millis = value < 0 ? -1 : (long) Math.ceil(value);
+            }
+            int[][] registered = self.getRegistered();
+            int[] fds = registered[0];
+            int[] masks = registered[1];
+            int[] ops = new int[fds.length];
+            for (int i = 0; i < fds.length; i++) {
+                if ((masks[i] & (PPoll.POLLIN | PPoll.POLLPRI)) != 0) {
+                    ops[i] |= SelectNodes.READ;
+                }
+                if ((masks[i] & PPoll.POLLOUT) != 0) {
+                    ops[i] |= SelectNodes.WRITE;
+                }
+            }
+            int[] ready;
+            try {
+                ready = SelectNodes.select(getContext().getResources(), fds, ops, millis);
+            } catch (IOException e) {
+                throw SocketNodes.raise(this, frame, e);
+            }
+            int count = 0;
+            for (int i = 0; i < fds.length; i++) {
+                if (ready[i] != 0) {
+                    count++;
+                }
+            }
+            Object[] result = new Object[count];
+            int j = 0;
+            for (int i = 0; i < fds.length; i++) {
+                if (ready[i] != 0) {
+                    int events = ((ready[i] & SelectNodes.READ) != 0 ? PPoll.POLLIN : 0) | ((ready[i] & SelectNodes.WRITE) != 0 ? PPoll.POLLOUT : 0);
+                    result[j++] = factory().createTuple(new Object[]{fds[i], events});
+                }
+            }
+            return factory().createList(result);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.select;
+
+import java.io.IOException;
+import java.nio.channels.Channel;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.exception.OSErrorEnum;
+import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.socket.SocketNodes.ErrnoException;
+import com.oracle.graal.python.nodes.PNodeWithContext;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
+import com.oracle.graal.python.nodes.util.CastToIndexNode;
+import com.oracle.graal.python.runtime.PosixResources;
+import com.oracle.graal.python.runtime.exception.PythonErrorType;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * Waits for readiness of file descriptors with the context's {@link Selector}. Channels are only
+ * registered for the duration of one call, and blocking channels are switched to non-blocking mode
+ * for that time. Channels that cannot be selected, like files and the standard streams, are always
+ * ready.
+ */
+public abstract class SelectNodes {
+    public static final int READ = 1;
+    public static final int WRITE = 2;
+
+    /**
+     * Gets the file descriptor of an int or of an object with a {@code fileno()} method.
+     */
+    public static final class FilenoNode extends PNodeWithContext {
+        @Child private CastToIndexNode castToIndexNode = CastToIndexNode.create();
+        @Child private LookupAndCallUnaryNode callFilenoNode;
+
+        public int execute(Object obj) {
+            int fd;
+            if (obj instanceof Integer || obj instanceof Long || obj instanceof Boolean || obj instanceof PInt) {
+                fd = castToIndexNode.execute(obj);
+            } else {
+                if (callFilenoNode == null) {
+                    CompilerDirectives.transferToInterpreterAndInvalidate();
+                    callFilenoNode = insert(LookupAndCallUnaryNode.create("fileno"));
+                }
+                Object result = callFilenoNode.executeObject(obj);
+                if (result == PNone.NO_VALUE) {
+                    throw raise(PythonErrorType.TypeError, "argument must be an int, or have a fileno() method.");
+                }
+                fd = castToIndexNode.execute(result);
+            }
+            if (fd < 0) {
+                throw raise(PythonErrorType.ValueError, "file descriptor cannot be a negative integer (%d)", fd);
+            }
+            return fd;
+        }
+
+        public static FilenoNode create() {
+            return new FilenoNode();
+        }
+    }
+
+    /**
+     * Waits until one of the file descriptors is ready for the {@link #READ} and {@link #WRITE}
+     * operations given for it, or the timeout in milliseconds expires. A negative timeout waits
+     * forever. Returns the ready operations for each file descriptor.
+     */
+    @TruffleBoundary
+    public static int[] select(PosixResources resources, int[] fds, int[] ops, long timeoutMillis) throws IOException {
+        Selector selector = resources.getSelector();
+        int[] ready = new int[fds.length];
+        SelectableChannel[] channels = new SelectableChannel[fds.length];
+        int[] interests = new int[fds.length];
+        synchronized (selector) {
+            List<SelectableChannel> madeNonBlocking = new ArrayList<>();
+            try {
+                boolean immediate = false;
+                for (int i = 0; i < fds.length; i++) {
+                    Channel channel = resources.getFileChannel(fds[i]);
+                    if (channel == null) {
+                        throw new ErrnoException(OSErrorEnum.EBADF);
+                    } else if (!(channel instanceof SelectableChannel) || !channel.isOpen()) {
+                        ready[i] = ops[i];
+                        immediate |= ops[i] != 0;
+                        continue;
+                    }
+                    SelectableChannel selectable = (SelectableChannel) channel;
+                    int interest = 0;
+                    if ((ops[i] & READ) != 0) {
+                        interest |= SelectionKey.OP_READ | SelectionKey.OP_ACCEPT;
+                    }
+                    if ((ops[i] & WRITE) != 0) {
+                        boolean pending = selectable instanceof SocketChannel && ((SocketChannel) selectable).isConnectionPending();
+                        interest |= pending ? SelectionKey.OP_CONNECT : SelectionKey.OP_WRITE;
+                    }
+                    interest &= selectable.validOps();
+                    if (interest == 0) {
+                        continue;
+                    }
+                    if (selectable.isBlocking()) {
+                        selectable.configureBlocking(false);
+                        madeNonBlocking.add(selectable);
+                    }
+                    SelectionKey key = selectable.keyFor(selector);
+                    if (key == null) {
+                        selectable.register(selector, interest);
+                    } else {
+                        // the same channel under another file descriptor
+                        key.interestOps(key.interestOps() | interest);
+                    }
+                    channels[i] = selectable;
+                    interests[i] = interest;
+                }
+                if (immediate || timeoutMillis == 0) {
+                    selector.selectNow();
+                } else if (timeoutMillis < 0) {
+                    selector.select();
+                } else {
+                    selector.select(timeoutMillis);
+                }
+                for (int i = 0; i < fds.length; i++) {
+                    if (channels[i] != null) {
+                        SelectionKey key = channels[i].keyFor(selector);
+                        if (key != null && selector.selectedKeys().contains(key)) {
+                            int readyOps = key.readyOps() & interests[i];
+                            if ((readyOps & (SelectionKey.OP_READ | SelectionKey.OP_ACCEPT)) != 0) {
+                                ready[i] |= READ;
+                            }
+                            if ((readyOps & (SelectionKey.OP_WRITE | SelectionKey.OP_CONNECT)) != 0) {
+                                ready[i] |= WRITE;
+                            }
+                        }
+                    }
+                }
+                return ready;
+            } finally {
+                selector.selectedKeys().clear();
+                for (SelectionKey key : selector.keys()) {
+                    key.cancel();
+                }
+                // deregister the cancelled keys so the channels can block again
+                selector.selectNow();
+                for (SelectableChannel channel : madeNonBlocking) {
+                    if (channel.isOpen()) {
+                        channel.configureBlocking(true);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Converts a timeout in seconds to milliseconds, rounding up so that short timeouts do not
+     * become a non-blocking poll.
+     */
+    public static long toMillis(double seconds) {
+        return (long) Math.ceil(seconds * 1000);
+    }
+}
@@ -40,12 +40,26 @@
  */
 package com.oracle.graal.python.builtins.objects.socket;
 
+import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
 
 import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
 import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
-
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * A socket is backed by a {@link SelectableChannel} that is registered as its file descriptor in
+ * the context's {@link com.oracle.graal.python.runtime.PosixResources}, so that {@code select} and
+ * {@code os.read}/{@code os.write} work on it. Stream sockets start out as a
+ * {@link java.nio.channels.SocketChannel} which is replaced by a
+ * {@link java.nio.channels.ServerSocketChannel} when {@code listen} is called.
+ * <p>
+ * A timeout of {@code < 0} means blocking mode. Otherwise the channel is non-blocking, and
+ * operations with a positive timeout wait for readiness on a selector of their own.
+ */
 public class PSocket extends PythonBuiltinObject {
     public final static int AF_UNSPEC = 0;
     public final static int AF_INET = 2;
@@ -60,10 +74,13 @@ public class PSocket extends PythonBuiltinObject {
     private final int type;
     private final int proto;
 
-    private double timeout;
+    private double timeout = -1.0;
 
-    @SuppressWarnings("unused") private SelectableChannel channel;
+    private SelectableChannel channel;
+    private int fileno = -1;
     private InetSocketAddress address = EPHEMERAL_ADDRESS;
+    private boolean reuseAddress;
+    private Selector timeoutSelector;
 
     public PSocket(LazyPythonClass cls, int family, int type, int proto) {
         super(cls);
@@ -92,10 +109,18 @@ public class PSocket extends PythonBuiltinObject {
         this.timeout = timeout;
     }
 
+    public boolean isBlocking() {
+        return timeout < 0;
+    }
+
     public InetSocketAddress getAddress() {
         return address;
     }
 
+    public void setAddress(InetSocketAddress address) {
+        this.address = address;
+    }
+
     public void setBlocking(boolean blocking) {
         if (blocking) {
             this.setTimeout(-1.0);
@@ -103,4 +128,74 @@ public class PSocket extends PythonBuiltinObject {
             this.setTimeout(0.0);
         }
     }
+
+    public SelectableChannel getChannel() {
+        return channel;
+    }
+
+    public int getFileno() {
+        return fileno;
+    }
+
+    public void setChannel(SelectableChannel channel, int fileno) {
+        this.channel = channel;
+        this.fileno = fileno;
+    }
+
+    public void setChannel(SelectableChannel channel) {
+        this.channel = channel;
+    }
+
+    public boolean isClosed() {
+        return fileno < 0;
+    }
+
+    public boolean isReuseAddress() {
+        return reuseAddress;
+    }
+
+    public void setReuseAddress(boolean reuseAddress) {
+        this.reuseAddress = reuseAddress;
+    }
+
+    /**
+     * Waits until the channel is ready for one of the given {@link SelectionKey} operations and
+     * returns {@code false} if the timeout expires first. Only used if the timeout is positive.
+     */
+    @TruffleBoundary
+    public boolean waitReady(int ops) throws IOException {
+        if (timeoutSelector == null) {
+            timeoutSelector = Selector.open();
+        }
+        SelectionKey key = channel.keyFor(timeoutSelector);
+        if (key == null) {
+            key = channel.register(timeoutSelector, ops);
+        } else {
+            key.interestOps(ops);
+        }
+        long millis = Math.max(1, (long) Math.ceil(timeout * 1000));
+        int ready = timeoutSelector.select(millis);
+        timeoutSelector.selectedKeys().clear();
+        return ready > 0;
+    }
+
+    /**
+     * Detaches the channel from this socket and returns it.
+     */
+    @TruffleBoundary
+    public SelectableChannel detach() throws IOException {
+        SelectableChannel result = channel;
+        closeTimeoutSelector();
+        channel = null;
+        fileno = -1;
+        return result;
+    }
+
+    @TruffleBoundary
+    public void closeTimeoutSelector() throws IOException {
+        if (timeoutSelector != null) {
+            timeoutSelector.close();
+            timeoutSelector = null;
+        }
+    }
 }
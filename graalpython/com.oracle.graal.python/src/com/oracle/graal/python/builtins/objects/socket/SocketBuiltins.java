@@ -37,9 +37,16 @@
  * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
  * SOFTWARE.
- */
 package com.oracle.graal.python.builtins.objects.socket;
 
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
 import java.util.List;
 
 import com.oracle.graal.python.builtins.Builtin;
@@ -48,14 +55,25 @@ import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.PythonBuiltins;
 import com.oracle.graal.python.builtins.objects.PNone;
 import com.oracle.graal.python.builtins.objects.PNotImplemented;
+import com.oracle.graal.python.builtins.objects.bytes.BytesNodes;
+import com.oracle.graal.python.builtins.objects.bytes.PByteArray;
+import com.oracle.graal.python.builtins.objects.exception.OSErrorEnum;
+import com.oracle.graal.python.builtins.objects.socket.SocketNodes.ToInetSocketAddressNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallTernaryNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
-import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.util.CastToDoubleNode;
+import com.oracle.graal.python.nodes.util.CastToIndexNode;
+import com.oracle.graal.python.runtime.sequence.storage.ByteSequenceStorage;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
 
 @CoreFunctions(extendClasses = PythonBuiltinClassType.PSocket)
 @SuppressWarnings("unused")
@@ -66,13 +84,25 @@ public class SocketBuiltins extends PythonBuiltins {
         return SocketBuiltinsFactory.getFactories();
     }
 
-    // accept()
-    @Builtin(name = "accept", fixedNumOfPositionalArgs = 1)
+    // _accept()
+    @Builtin(name = "_accept", fixedNumOfPositionalArgs = 1)
     @GenerateNodeFactory
     abstract static class AcceptNode extends PythonUnaryBuiltinNode {
         @Specialization
-        Object accept(PSocket socket) {
-            return PNotImplemented.NOT_IMPLEMENTED;
+        Object accept(VirtualFrame frame, PSocket socket) {
+            try {
+                SocketChannel client = SocketNodes.accept(socket);
+                int fd = getContext().getResources().open(client);
+                Object address = factory().createTuple(SocketNodes.toAddressTuple(getRemoteAddress(client)));
+                return factory().createTuple(new Object[]{fd, address});
+            } catch (IOException e) {
+                throw SocketNodes.raise(this, frame, e);
+            }
+        }
+
+        @TruffleBoundary
+        private static SocketAddress getRemoteAddress(SocketChannel client) throws IOException {
+            return client.getRemoteAddress();
         }
     }
 
@@ -81,8 +111,14 @@ public class SocketBuiltins extends PythonBuiltins {
     @GenerateNodeFactory
     abstract static class BindNode extends PythonBinaryBuiltinNode {
         @Specialization
-        Object bind(PSocket socket, Object address) {
-            return PNotImplemented.NOT_IMPLEMENTED;
+        Object bind(VirtualFrame frame, PSocket socket, Object address,
+                        @Cached("create()") ToInetSocketAddressNode toAddressNode) {
+            try {
+                SocketNodes.bind(socket, toAddressNode.execute(address));
+            } catch (IOException e) {
+                throw SocketNodes.raise(this, frame, e);
+            }
+            return PNone.NONE;
         }
     }
 
@@ -91,8 +127,13 @@ public class SocketBuiltins extends PythonBuiltins {
     @GenerateNodeFactory
     abstract static class CloseNode extends PythonUnaryBuiltinNode {
         @Specialization
-        Object close(PSocket socket) {
-            return PNotImplemented.NOT_IMPLEMENTED;
+        Object close(VirtualFrame frame, PSocket socket) {
+            try {
+                SocketNodes.close(socket, getContext().getResources());
+            } catch (IOException e) {
+                throw SocketNodes.raise(this, frame, e);
+            }
+            return PNone.NONE;
         }
     }
 
@@ -101,8 +142,62 @@ public class SocketBuiltins extends PythonBuiltins {
     @GenerateNodeFactory
     abstract static class ConnectNode extends PythonBinaryBuiltinNode {
         @Specialization
-        Object connect(PSocket socket, Object address) {
-            return PNotImplemented.NOT_IMPLEMENTED;
+        Object connect(VirtualFrame frame, PSocket socket, Object address,
+                        @Cached("create()") ToInetSocketAddressNode toAddressNode) {
+            try {
+                SocketNodes.connect(socket, toAddressNode.execute(address));
+            } catch (IOException e) {
+                throw SocketNodes.raise(this, frame, e);
+            }
+            return PNone.NONE;
+        }
+    }
+
+    // connect_ex(address)
+    @Builtin(name = "connect_ex", fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class ConnectExNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        int connect(VirtualFrame frame, PSocket socket, Object address,
+                        @Cached("create()") ToInetSocketAddressNode toAddressNode) {
+            InetSocketAddress inetAddress = toAddressNode.execute(address);
+            try {
+                SocketNodes.connect(socket, inetAddress);
+                return 0;
+            } catch (IOException e) {
+                OSErrorEnum errno = SocketNodes.getErrno(e);
+                if (errno == null) {
+                    throw SocketNodes.raise(this, frame, e);
+                }
+                return errno.getNumber();
+            }
+        }
+    }
+
+    // detach()
+    @Builtin(name = "detach", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class DetachNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        int detach(VirtualFrame frame, PSocket socket) {
+            // the channel stays registered as the file descriptor
+            int fd = socket.getFileno();
+            try {
+                socket.detach();
+            } catch (IOException e) {
+                throw SocketNodes.raise(this, frame, e);
+            }
+            return fd;
+        }
+    }
+
+    // fileno()
+    @Builtin(name = "fileno", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class FilenoNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        int fileno(PSocket socket) {
+            return socket.getFileno();
         }
     }
 
@@ -111,8 +206,12 @@ public class SocketBuiltins extends PythonBuiltins {
     @GenerateNodeFactory
     abstract static class GetPeerNameNode extends PythonUnaryBuiltinNode {
         @Specialization
-        Object get(PSocket socket) {
-            return PNotImplemented.NOT_IMPLEMENTED;
+        Object get(VirtualFrame frame, PSocket socket) {
+            try {
+                return factory().createTuple(SocketNodes.toAddressTuple(SocketNodes.getRemoteAddress(socket)));
+            } catch (IOException e) {
+                throw SocketNodes.raise(this, frame, e);
+            }
         }
     }
 
@@ -121,8 +220,12 @@ public class SocketBuiltins extends PythonBuiltins {
     @GenerateNodeFactory
     abstract static class GetSockNameNode extends PythonUnaryBuiltinNode {
         @Specialization
-        Object get(PSocket socket) {
-            return PNotImplemented.NOT_IMPLEMENTED;
+        Object get(VirtualFrame frame, PSocket socket) {
+            try {
+                return factory().createTuple(SocketNodes.toAddressTuple(SocketNodes.getLocalAddress(socket)));
+            } catch (IOException e) {
+                throw SocketNodes.raise(this, frame, e);
+            }
         }
     }
 
@@ -132,7 +235,7 @@ public class SocketBuiltins extends PythonBuiltins {
     abstract static class GetBlockingNode extends PythonUnaryBuiltinNode {
         @Specialization
         boolean get(PSocket socket) {
-            return false;
+            return socket.isBlocking();
         }
     }
 
@@ -142,37 +245,152 @@ public class SocketBuiltins extends PythonBuiltins {
     abstract static class GetTimeoutNode extends PythonUnaryBuiltinNode {
         @Specialization
         Object get(PSocket socket) {
-            return PNone.NONE;
+            if (socket.isBlocking()) {
+                return PNone.NONE;
+            }
+            return socket.getTimeout();
         }
     }
 
-    // listen
-    @Builtin(name = "listen", fixedNumOfPositionalArgs = 1)
+    // getsockopt(level, option)
+    @Builtin(name = "getsockopt", minNumOfPositionalArgs = 3, maxNumOfPositionalArgs = 4)
     @GenerateNodeFactory
-    abstract static class ListenNode extends PythonUnaryBuiltinNode {
+    abstract static class GetSockOptNode extends PythonBuiltinNode {
         @Specialization
-        Object listen(PSocket socket) {
-            return PNotImplemented.NOT_IMPLEMENTED;
+        Object getSockOpt(VirtualFrame frame, PSocket socket, Object level, Object option, Object buflen,
+                        @Cached("create()") CastToIndexNode castLevelNode,
+                        @Cached("create()") CastToIndexNode castOptionNode) {
+            Integer value;
+            try {
+                value = SocketNodes.getOption(socket, castLevelNode.execute(level), castOptionNode.execute(option));
+            } catch (IOException e) {
+                throw SocketNodes.raise(this, frame, e);
+            }
+            if (value == null) {
+                throw raiseOSError(frame, OSErrorEnum.ENOPROTOOPT);
+            }
+            return value;
+        }
+    }
+
+    // listen([backlog])
+    @Builtin(name = "listen", minNumOfPositionalArgs = 1, maxNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class ListenNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object listen(VirtualFrame frame, PSocket socket, Object backlog,
+                        @Cached("create()") CastToIndexNode castToIndexNode) {
+            int n = backlog == PNone.NO_VALUE ? 128 : Math.max(0, castToIndexNode.execute(backlog));
+            try {
+                SocketNodes.listen(socket, getContext().getResources(), n);
+            } catch (IOException e) {
+                throw SocketNodes.raise(this, frame, e);
+            }
+            return PNone.NONE;
+        }
+    }
+
+    abstract static class BaseRecvNode extends PythonBuiltinNode {
+        @Child private CastToIndexNode castToIndexNode = CastToIndexNode.createOverflow();
+
+        protected int getBufsize(Object bufsize) {
+            int n = castToIndexNode.execute(bufsize);
+            if (n < 0) {
+                throw raise(ValueError, "negative buffersize in recv");
+            }
+            return n;
+        }
+
+        @TruffleBoundary
+        protected static ByteBuffer wrap(byte[] data, int offset, int length) {
+            return ByteBuffer.wrap(data, offset, length);
         }
     }
 
     // recv(bufsize[, flags])
     @Builtin(name = "recv", minNumOfPositionalArgs = 2, maxNumOfPositionalArgs = 3)
     @GenerateNodeFactory
-    abstract static class RecvNode extends PythonTernaryBuiltinNode {
+    abstract static class RecvNode extends BaseRecvNode {
         @Specialization
-        Object recv(PSocket socket, int bufsize, int flags) {
-            return PNotImplemented.NOT_IMPLEMENTED;
+        Object recv(VirtualFrame frame, PSocket socket, Object bufsize, Object flags) {
+            byte[] data = new byte[getBufsize(bufsize)];
+            int n;
+            try {
+                n = SocketNodes.recv(socket, wrap(data, 0, data.length), null);
+            } catch (IOException e) {
+                throw SocketNodes.raise(this, frame, e);
+            }
+            return factory().createBytes(n == data.length ? data : Arrays.copyOf(data, n));
         }
     }
 
     // recvfrom(bufsize[, flags])
     @Builtin(name = "recvfrom", minNumOfPositionalArgs = 2, maxNumOfPositionalArgs = 3)
     @GenerateNodeFactory
-    abstract static class RecvFromNode extends PythonTernaryBuiltinNode {
+    abstract static class RecvFromNode extends BaseRecvNode {
         @Specialization
-        Object recvFrom(PSocket socket, int bufsize, int flags) {
-            return PNotImplemented.NOT_IMPLEMENTED;
+        Object recvFrom(VirtualFrame frame, PSocket socket, Object bufsize, Object flags) {
+            byte[] data = new byte[getBufsize(bufsize)];
+            SocketAddress[] from = new SocketAddress[1];
+            int n;
+            try {
+                n = SocketNodes.recv(socket, wrap(data, 0, data.length), from);
+            } catch (IOException e) {
+                throw SocketNodes.raise(this, frame, e);
+            }
+            Object address = from[0] == null ? PNone.NONE : factory().createTuple(SocketNodes.toAddressTuple(from[0]));
+            return factory().createTuple(new Object[]{factory().createBytes(n == data.length ? data : Arrays.copyOf(data, n)), address});
+        }
+    }
+
+    // recv_into(buffer[, nbytes[, flags]])
+    @Builtin(name = "recv_into", minNumOfPositionalArgs = 2, maxNumOfPositionalArgs = 4)
+    @GenerateNodeFactory
+    abstract static class RecvIntoNode extends BaseRecvNode {
+        protected static boolean hasByteStorage(Object b) {
+            return b instanceof PByteArray && ((PByteArray) b).getSequenceStorage() instanceof ByteSequenceStorage;
+        }
+
+        @Specialization(guards = "hasByteStorage(b)")
+        int recvIntoByteArray(VirtualFrame frame, PSocket socket, PByteArray b, Object nbytes, Object flags) {
+            // receive directly into the bytearray's storage
+            ByteSequenceStorage storage = (ByteSequenceStorage) b.getSequenceStorage();
+            int len = getLength(storage.length(), nbytes);
+            try {
+                return SocketNodes.recv(socket, wrap(storage.getInternalByteArray(), 0, len), null);
+            } catch (IOException e) {
+                throw SocketNodes.raise(this, frame, e);
+            }
+        }
+
+        @Specialization(guards = "!hasByteStorage(b)")
+        int recvIntoBuffer(VirtualFrame frame, PSocket socket, Object b, Object nbytes, Object flags,
+                        @Cached("create(__LEN__)") LookupAndCallUnaryNode callLenNode,
+                        @Cached("create(__SETITEM__)") LookupAndCallTernaryNode callSetItemNode,
+                        @Cached("createOverflow()") CastToIndexNode castToIndexNode) {
+            int len = getLength(castToIndexNode.execute(callLenNode.executeObject(b)), nbytes);
+            byte[] data = new byte[len];
+            int n;
+            try {
+                n = SocketNodes.recv(socket, wrap(data, 0, len), null);
+            } catch (IOException e) {
+                throw SocketNodes.raise(this, frame, e);
+            }
+            callSetItemNode.execute(b, factory().createSlice(0, n, 1), factory().createBytes(n == len ? data : Arrays.copyOf(data, n)));
+            return n;
+        }
+
+        private int getLength(int bufferLength, Object nbytes) {
+            if (nbytes == PNone.NO_VALUE) {
+                return bufferLength;
+            }
+            int n = getBufsize(nbytes);
+            if (n == 0) {
+                return bufferLength;
+            } else if (n > bufferLength) {
+                throw raise(ValueError, "buffer too small for requested bytes");
+            }
+            return n;
         }
     }
 
@@ -186,23 +404,45 @@ public class SocketBuiltins extends PythonBuiltins {
         }
     }
 
+    abstract static class BaseSendNode extends PythonBuiltinNode {
+        @Child private BytesNodes.ToBytesNode toBytesNode = BytesNodes.ToBytesNode.create();
+
+        protected ByteBuffer getBuffer(Object bytes) {
+            return wrap(toBytesNode.execute(bytes));
+        }
+
+        @TruffleBoundary
+        private static ByteBuffer wrap(byte[] data) {
+            return ByteBuffer.wrap(data);
+        }
+    }
+
     // send(bytes[, flags])
     @Builtin(name = "send", minNumOfPositionalArgs = 2, maxNumOfPositionalArgs = 3)
     @GenerateNodeFactory
-    abstract static class SendNode extends PythonTernaryBuiltinNode {
+    abstract static class SendNode extends BaseSendNode {
         @Specialization
-        Object send(PSocket socket, Object bytes, int flags) {
-            return PNotImplemented.NOT_IMPLEMENTED;
+        int send(VirtualFrame frame, PSocket socket, Object bytes, Object flags) {
+            try {
+                return SocketNodes.send(socket, getBuffer(bytes), false, null);
+            } catch (IOException e) {
+                throw SocketNodes.raise(this, frame, e);
+            }
         }
     }
 
     // sendall(bytes[, flags])
     @Builtin(name = "sendall", minNumOfPositionalArgs = 2, maxNumOfPositionalArgs = 3)
     @GenerateNodeFactory
-    abstract static class SendAllNode extends PythonTernaryBuiltinNode {
+    abstract static class SendAllNode extends BaseSendNode {
         @Specialization
-        Object sendAll(PSocket socket, Object bytes, int flags) {
-            return PNotImplemented.NOT_IMPLEMENTED;
+        Object sendAll(VirtualFrame frame, PSocket socket, Object bytes, Object flags) {
+            try {
+                SocketNodes.send(socket, getBuffer(bytes), true, null);
+            } catch (IOException e) {
+                throw SocketNodes.raise(this, frame, e);
+            }
+            return PNone.NONE;
         }
     }
 
@@ -210,10 +450,21 @@ public class SocketBuiltins extends PythonBuiltins {
     // sendto(bytes, flags, address)
     @Builtin(name = "sendto", minNumOfPositionalArgs = 3, maxNumOfPositionalArgs = 4)
     @GenerateNodeFactory
-    abstract static class SendToNode extends PythonBuiltinNode {
-        @Specialization
-        Object sendTo(PSocket socket, Object bytes, int flags, Object address) {
-            return PNotImplemented.NOT_IMPLEMENTED;
+    abstract static class SendToNode extends BaseSendNode {
+        @Specialization(guards = "isNoValue(noAddress)")
+        int sendTo(VirtualFrame frame, PSocket socket, Object bytes, Object address, PNone noAddress,
+                        @Cached("create()") ToInetSocketAddressNode toAddressNode) {
+            return sendTo(frame, socket, bytes, PNone.NO_VALUE, address, toAddressNode);
+        }
+
+        @Specialization(guards = "!isNoValue(address)")
+        int sendTo(VirtualFrame frame, PSocket socket, Object bytes, Object flags, Object address,
+                        @Cached("create()") ToInetSocketAddressNode toAddressNode) {
+            try {
+                return SocketNodes.send(socket, getBuffer(bytes), false, toAddressNode.execute(address));
+            } catch (IOException e) {
+                throw SocketNodes.raise(this, frame, e);
+            }
         }
     }
 
@@ -227,12 +478,76 @@ public class SocketBuiltins extends PythonBuiltins {
         }
     }
 
+    // setblocking(flag)
+    @Builtin(name = "setblocking", fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class SetBlockingNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object setBlocking(VirtualFrame frame, PSocket socket, boolean flag) {
+            socket.setBlocking(flag);
+            try {
+                SocketNodes.configureBlocking(socket);
+            } catch (IOException e) {
+                throw SocketNodes.raise(this, frame, e);
+            }
+            return PNone.NONE;
+        }
+
+        @Specialization
+        Object setBlocking(VirtualFrame frame, PSocket socket, Object flag,
+                        @Cached("create()") CastToIndexNode castToIndexNode) {
+            return setBlocking(frame, socket, castToIndexNode.execute(flag) != 0);
+        }
+    }
+
+    // setsockopt(level, option, value)
+    @Builtin(name = "setsockopt", fixedNumOfPositionalArgs = 4)
+    @GenerateNodeFactory
+    abstract static class SetSockOptNode extends PythonBuiltinNode {
+        @Specialization
+        Object setSockOpt(VirtualFrame frame, PSocket socket, Object level, Object option, Object value,
+                        @Cached("create()") CastToIndexNode castLevelNode,
+                        @Cached("create()") CastToIndexNode castOptionNode,
+                        @Cached("create()") CastToIndexNode castValueNode) {
+            boolean supported;
+            try {
+                supported = SocketNodes.setOption(socket, castLevelNode.execute(level), castOptionNode.execute(option), castValueNode.execute(value));
+            } catch (IOException e) {
+                throw SocketNodes.raise(this, frame, e);
+            }
+            if (!supported) {
+                throw raiseOSError(frame, OSErrorEnum.ENOPROTOOPT);
+            }
+            return PNone.NONE;
+        }
+    }
+
     // settimeout(value)
     @Builtin(name = "settimeout", fixedNumOfPositionalArgs = 2)
     @GenerateNodeFactory
     abstract static class SetTimeoutNode extends PythonBinaryBuiltinNode {
-        @Specialization
-        Object family(PSocket socket, double value) {
+        @Specialization(guards = "isNone(value)")
+        Object setTimeout(VirtualFrame frame, PSocket socket, PNone value) {
+            return doSetTimeout(frame, socket, -1.0);
+        }
+
+        @Specialization(guards = "!isNone(value)")
+        Object setTimeout(VirtualFrame frame, PSocket socket, Object value,
+                        @Cached("create()") CastToDoubleNode castToDoubleNode) {
+            double timeout = castToDoubleNode.execute(value);
+            if (timeout < 0.0) {
+                throw raise(ValueError, "Timeout value out of range");
+            }
+            return doSetTimeout(frame, socket, timeout);
+        }
+
+        private Object doSetTimeout(VirtualFrame frame, PSocket socket, double timeout) {
+            socket.setTimeout(timeout);
+            try {
+                SocketNodes.configureBlocking(socket);
+            } catch (IOException e) {
+                throw SocketNodes.raise(this, frame, e);
+            }
             return PNone.NONE;
         }
     }
@@ -242,8 +557,18 @@ public class SocketBuiltins extends PythonBuiltins {
     @GenerateNodeFactory
     abstract static class shutdownNode extends PythonBinaryBuiltinNode {
         @Specialization
-        Object family(PSocket socket, Object how) {
-            return PNotImplemented.NOT_IMPLEMENTED;
+        Object family(VirtualFrame frame, PSocket socket, Object how,
+                        @Cached("create()") CastToIndexNode castToIndexNode) {
+            int n = castToIndexNode.execute(how);
+            if (n < SocketNodes.SHUT_RD || n > SocketNodes.SHUT_RDWR) {
+                throw raiseOSError(frame, OSErrorEnum.EINVAL);
+            }
+            try {
+                SocketNodes.shutdown(socket, n);
+            } catch (IOException e) {
+                throw SocketNodes.raise(this, frame, e);
+            }
+            return PNone.NONE;
         }
     }
 
@@ -276,4 +601,14 @@ public class SocketBuiltins extends PythonBuiltins {
             return socket.getProto();
         }
     }
+
+    // timeout
+    @Builtin(name = "timeout", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class SockTimeoutNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object timeout(PSocket socket) {
+            return socket.isBlocking() ? PNone.NONE : socket.getTimeout();
+        }
+    }
 }
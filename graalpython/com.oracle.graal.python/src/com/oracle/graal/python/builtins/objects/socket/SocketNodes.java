@@ -0,0 +1,611 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.socket;
+
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.OSError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.OverflowError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+
+import java.io.IOException;
+import java.net.BindException;
+import java.net.ConnectException;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.SocketTimeoutException;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AlreadyBoundException;
+import java.nio.channels.AlreadyConnectedException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ConnectionPendingException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.NetworkChannel;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.UnresolvedAddressException;
+
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.objects.exception.OSErrorEnum;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.nodes.PNodeWithContext;
+import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes.ToArrayNode;
+import com.oracle.graal.python.nodes.util.CastToIndexNode;
+import com.oracle.graal.python.nodes.util.CastToStringNode;
+import com.oracle.graal.python.runtime.PosixResources;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Fallback;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+
+/**
+ * Channel operations behind the socket builtins. The operations honor the socket's timeout: in
+ * non-blocking mode they throw an {@link ErrnoException} with {@code EAGAIN} (or
+ * {@code EINPROGRESS} for connect), and with a positive timeout they wait for readiness and throw
+ * a {@link SocketTimeoutException} if it expires.
+ */
+public abstract class SocketNodes {
+
+    public static final int SHUT_RD = 0;
+    public static final int SHUT_WR = 1;
+    public static final int SHUT_RDWR = 2;
+
+    public static final int SOL_SOCKET = 1;
+    public static final int SO_REUSEADDR = 2;
+    public static final int SO_TYPE = 3;
+    public static final int SO_ERROR = 4;
+    public static final int SO_BROADCAST = 6;
+    public static final int SO_SNDBUF = 7;
+    public static final int SO_RCVBUF = 8;
+    public static final int SO_KEEPALIVE = 9;
+    public static final int IPPROTO_TCP = 6;
+    public static final int TCP_NODELAY = 1;
+
+    /**
+     * An I/O error that maps to a specific errno.
+     */
+    public static final class ErrnoException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        private final OSErrorEnum errno;
+
+        public ErrnoException(OSErrorEnum errno) {
+            super(errno.getMessage());
+            this.errno = errno;
+        }
+
+        public OSErrorEnum getErrno() {
+            return errno;
+        }
+    }
+
+    public static PException raise(PNodeWithContext node, VirtualFrame frame, IOException e) {
+        if (e instanceof SocketTimeoutException) {
+            throw node.raise(PythonBuiltinClassType.TimeoutError, "timed out");
+        }
+        OSErrorEnum errno = getErrno(e);
+        if (errno != null) {
+            throw node.raiseOSError(frame, errno);
+        }
+        throw node.raise(OSError, e);
+    }
+
+    @TruffleBoundary
+    public static OSErrorEnum getErrno(IOException e) {
+        if (e instanceof ErrnoException) {
+            return ((ErrnoException) e).getErrno();
+        } else if (e instanceof ClosedChannelException) {
+            return OSErrorEnum.EBADF;
+        } else if (e instanceof ConnectException) {
+            return OSErrorEnum.ECONNREFUSED;
+        } else if (e instanceof BindException) {
+            return OSErrorEnum.EADDRINUSE;
+        } else if (e instanceof SocketTimeoutException) {
+            return OSErrorEnum.ETIMEDOUT;
+        }
+        String message = e.getMessage();
+        if (message != null) {
+            if (message.contains("reset")) {
+                return OSErrorEnum.ECONNRESET;
+            } else if (message.contains("Broken pipe")) {
+                return OSErrorEnum.EPIPE;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Translates the unchecked exceptions that NIO uses for misuse of a channel.
+     */
+    private static IOException translate(RuntimeException e) {
+        if (e instanceof AlreadyConnectedException) {
+            return new ErrnoException(OSErrorEnum.EISCONN);
+        } else if (e instanceof ConnectionPendingException) {
+            return new ErrnoException(OSErrorEnum.EALREADY);
+        } else if (e instanceof AlreadyBoundException) {
+            return new ErrnoException(OSErrorEnum.EINVAL);
+        } else if (e instanceof UnresolvedAddressException) {
+            return new UnknownHostException("Name or service not known");
+        } else if (e instanceof IllegalStateException) {
+            // not yet connected or bound
+            return new ErrnoException(OSErrorEnum.ENOTCONN);
+        }
+        return new ErrnoException(OSErrorEnum.EINVAL);
+    }
+
+    /**
+     * Converts an address tuple {@code (host, port)} to a resolved {@link InetSocketAddress}.
+     */
+    public abstract static class ToInetSocketAddressNode extends PNodeWithContext {
+        @Child private ToArrayNode toArrayNode = ToArrayNode.create(false);
+        @Child private CastToStringNode castHostNode = CastToStringNode.create();
+        @Child private CastToIndexNode castPortNode = CastToIndexNode.create();
+
+        public abstract InetSocketAddress execute(Object address);
+
+        @Specialization
+        InetSocketAddress doTuple(PTuple address) {
+            int len = address.getSequenceStorage().length();
+            if (len != 2 && len != 4) {
+                throw raise(TypeError, "address must be a tuple (host, port)");
+            }
+            Object[] items = toArrayNode.execute(address.getSequenceStorage());
+            String host = castHostNode.execute(items[0]);
+            int port = castPortNode.execute(items[1]);
+            if (port < 0 || port > 0xFFFF) {
+                throw raise(OverflowError, "port must be 0-65535.");
+            }
+            try {
+                return resolve(host, port);
+            } catch (UnknownHostException e) {
+                throw raise(OSError, "Name or service not known: %s", host);
+            }
+        }
+
+        @Fallback
+        InetSocketAddress doOther(Object address) {
+            throw raise(TypeError, "address must be a tuple (host, port), not %p", address);
+        }
+
+        @TruffleBoundary
+        private static InetSocketAddress resolve(String host, int port) throws UnknownHostException {
+            if (host.isEmpty()) {
+                return new InetSocketAddress(port);
+            } else if (host.equals("<broadcast>")) {
+                return new InetSocketAddress(InetAddress.getByName("255.255.255.255"), port);
+            }
+            return new InetSocketAddress(InetAddress.getByName(host), port);
+        }
+
+        public static ToInetSocketAddressNode create() {
+            return SocketNodesFactory.ToInetSocketAddressNodeGen.create();
+        }
+    }
+
+    /**
+     * Returns the elements of the address tuple for an {@link InetSocketAddress}: {@code (host, port)}
+     * for IPv4 and {@code (host, port, flowinfo, scope_id)} for IPv6.
+     */
+    @TruffleBoundary
+    public static Object[] toAddressTuple(SocketAddress socketAddress) {
+        InetSocketAddress address = (InetSocketAddress) socketAddress;
+        InetAddress inetAddress = address.getAddress();
+        if (inetAddress instanceof Inet6Address) {
+            String host = inetAddress.getHostAddress();
+            int percent = host.indexOf('%');
+            if (percent >= 0) {
+                host = host.substring(0, percent);
+            }
+            return new Object[]{host, address.getPort(), 0, ((Inet6Address) inetAddress).getScopeId()};
+        }
+        return new Object[]{inetAddress == null ? "0.0.0.0" : inetAddress.getHostAddress(), address.getPort()};
+    }
+
+    @TruffleBoundary
+    public static SelectableChannel openChannel(int family, int type) throws IOException {
+        if (type == PSocket.SOCK_STREAM) {
+            return SocketChannel.open();
+        } else if (type == PSocket.SOCK_DGRAM) {
+            return DatagramChannel.open(family == PSocket.AF_INET6 ? StandardProtocolFamily.INET6 : StandardProtocolFamily.INET);
+        }
+        throw new ErrnoException(OSErrorEnum.EPROTONOSUPPORT);
+    }
+
+    @TruffleBoundary
+    public static void configureBlocking(PSocket socket) throws IOException {
+        if (socket.isBlocking()) {
+            socket.closeTimeoutSelector();
+        }
+        socket.getChannel().configureBlocking(socket.isBlocking());
+    }
+
+    private static SelectableChannel getOpenChannel(PSocket socket) throws IOException {
+        SelectableChannel channel = socket.getChannel();
+        if (channel == null || !channel.isOpen()) {
+            throw new ErrnoException(OSErrorEnum.EBADF);
+        }
+        return channel;
+    }
+
+    /**
+     * Called when a non-blocking operation could not make progress.
+     */
+    private static void waitOrFail(PSocket socket, int ops, OSErrorEnum errno) throws IOException {
+        if (socket.getTimeout() == 0) {
+            throw new ErrnoException(errno);
+        } else if (!socket.waitReady(ops)) {
+            throw new SocketTimeoutException();
+        }
+    }
+
+    /**
+     * Completes a connection that was started in non-blocking mode.
+     */
+    private static void finishConnect(SocketChannel channel) throws IOException {
+        if (channel.isConnectionPending()) {
+            channel.finishConnect();
+        }
+    }
+
+    @TruffleBoundary
+    public static void bind(PSocket socket, InetSocketAddress address) throws IOException {
+        NetworkChannel channel = (NetworkChannel) getOpenChannel(socket);
+        try {
+            if (socket.isReuseAddress()) {
+                channel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+            }
+            channel.bind(address);
+        } catch (IllegalStateException | IllegalArgumentException e) {
+            throw translate(e);
+        }
+        socket.setAddress((InetSocketAddress) channel.getLocalAddress());
+    }
+
+    /**
+     * Replaces the socket channel of a stream socket with a server socket channel listening on the
+     * same address.
+     */
+    @TruffleBoundary
+    public static void listen(PSocket socket, PosixResources resources, int backlog) throws IOException {
+        SelectableChannel channel = getOpenChannel(socket);
+        if (channel instanceof ServerSocketChannel) {
+            return;
+        } else if (!(channel instanceof SocketChannel) || ((SocketChannel) channel).getRemoteAddress() != null) {
+            throw new ErrnoException(OSErrorEnum.EINVAL);
+        }
+        InetSocketAddress address = (InetSocketAddress) ((SocketChannel) channel).getLocalAddress();
+        socket.closeTimeoutSelector();
+        channel.close();
+        ServerSocketChannel server = ServerSocketChannel.open();
+        try {
+            // rebinding the port the socket channel just released must not fail
+            server.setOption(StandardSocketOptions.SO_REUSEADDR, socket.isReuseAddress() || address != null);
+            server.bind(address, backlog);
+        } catch (IOException | RuntimeException e) {
+            server.close();
+            throw e;
+        }
+        socket.setChannel(server);
+        socket.setAddress((InetSocketAddress) server.getLocalAddress());
+        resources.fdopen(socket.getFileno(), server);
+        configureBlocking(socket);
+    }
+
+    /**
+     * Accepts a connection and returns its channel, which is in blocking mode.
+     */
+    @TruffleBoundary
+    public static SocketChannel accept(PSocket socket) throws IOException {
+        SelectableChannel channel = getOpenChannel(socket);
+        if (!(channel instanceof ServerSocketChannel)) {
+            throw new ErrnoException(OSErrorEnum.EINVAL);
+        }
+        while (true) {
+            SocketChannel client = ((ServerSocketChannel) channel).accept();
+            if (client != null) {
+                return client;
+            }
+            waitOrFail(socket, SelectionKey.OP_ACCEPT, OSErrorEnum.EAGAIN);
+        }
+    }
+
+    @TruffleBoundary
+    public static void connect(PSocket socket, InetSocketAddress address) throws IOException {
+        SelectableChannel channel = getOpenChannel(socket);
+        try {
+            if (channel instanceof DatagramChannel) {
+                ((DatagramChannel) channel).connect(address);
+                return;
+            } else if (!(channel instanceof SocketChannel)) {
+                throw new ErrnoException(OSErrorEnum.EISCONN);
+            }
+            SocketChannel socketChannel = (SocketChannel) channel;
+            if (socketChannel.connect(address)) {
+                return;
+            }
+            if (socket.getTimeout() == 0) {
+                throw new ErrnoException(OSErrorEnum.EINPROGRESS);
+            }
+            while (!socketChannel.finishConnect()) {
+                waitOrFail(socket, SelectionKey.OP_CONNECT, OSErrorEnum.EINPROGRESS);
+            }
+        } catch (IllegalStateException | IllegalArgumentException e) {
+            throw translate(e);
+        }
+    }
+
+    /**
+     * Returns the errno of a failed non-blocking connect, or 0.
+     */
+    @TruffleBoundary
+    public static int getConnectError(PSocket socket) {
+        SelectableChannel channel = socket.getChannel();
+        if (channel instanceof SocketChannel && ((SocketChannel) channel).isConnectionPending()) {
+            try {
+                ((SocketChannel) channel).finishConnect();
+            } catch (IOException e) {
+                OSErrorEnum errno = getErrno(e);
+                return errno == null ? OSErrorEnum.EIO.getNumber() : errno.getNumber();
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Reads into the buffer and returns the number of bytes read, which is 0 at the end of the
+     * stream. If {@code from} is not {@code null}, the address of the sender is stored in its first
+     * element.
+     */
+    @TruffleBoundary
+    public static int recv(PSocket socket, ByteBuffer buffer, SocketAddress[] from) throws IOException {
+        SelectableChannel channel = getOpenChannel(socket);
+        try {
+            if (channel instanceof DatagramChannel) {
+                DatagramChannel datagramChannel = (DatagramChannel) channel;
+                while (true) {
+                    SocketAddress sender = datagramChannel.receive(buffer);
+                    if (sender != null) {
+                        if (from != null) {
+                            from[0] = sender;
+                        }
+                        return buffer.position();
+                    }
+                    waitOrFail(socket, SelectionKey.OP_READ, OSErrorEnum.EAGAIN);
+                }
+            } else if (!(channel instanceof SocketChannel)) {
+                throw new ErrnoException(OSErrorEnum.ENOTCONN);
+            }
+            SocketChannel socketChannel = (SocketChannel) channel;
+            finishConnect(socketChannel);
+            if (!buffer.hasRemaining()) {
+                return 0;
+            }
+            while (true) {
+                int n = socketChannel.read(buffer);
+                if (n < 0) {
+                    return 0;
+                } else if (n > 0) {
+                    if (from != null) {
+                        from[0] = socketChannel.getRemoteAddress();
+                    }
+                    return n;
+                }
+                waitOrFail(socket, SelectionKey.OP_READ, OSErrorEnum.EAGAIN);
+            }
+        } catch (IllegalStateException | IllegalArgumentException e) {
+            throw translate(e);
+        }
+    }
+
+    /**
+     * Writes from the buffer and returns the number of bytes written. With {@code all}, writes
+     * until the buffer is empty. If {@code to} is not {@code null}, a datagram is sent there.
+     */
+    @TruffleBoundary
+    public static int send(PSocket socket, ByteBuffer buffer, boolean all, InetSocketAddress to) throws IOException {
+        SelectableChannel channel = getOpenChannel(socket);
+        int start = buffer.position();
+        try {
+            if (channel instanceof DatagramChannel) {
+                DatagramChannel datagramChannel = (DatagramChannel) channel;
+                while (true) {
+                    int n = to != null ? datagramChannel.send(buffer, to) : datagramChannel.write(buffer);
+                    if (n > 0 || !buffer.hasRemaining()) {
+                        return n;
+                    }
+                    waitOrFail(socket, SelectionKey.OP_WRITE, OSErrorEnum.EAGAIN);
+                }
+            } else if (!(channel instanceof SocketChannel)) {
+                throw new ErrnoException(OSErrorEnum.ENOTCONN);
+            } else if (to != null) {
+                throw new ErrnoException(OSErrorEnum.EISCONN);
+            }
+            SocketChannel socketChannel = (SocketChannel) channel;
+            finishConnect(socketChannel);
+            while (buffer.hasRemaining()) {
+                int n = socketChannel.write(buffer);
+                if (n > 0 && !all) {
+                    break;
+                } else if (n == 0) {
+                    waitOrFail(socket, SelectionKey.OP_WRITE, OSErrorEnum.EAGAIN);
+                }
+            }
+            return buffer.position() - start;
+        } catch (IllegalStateException | IllegalArgumentException e) {
+            throw translate(e);
+        }
+    }
+
+    @TruffleBoundary
+    public static void shutdown(PSocket socket, int how) throws IOException {
+        SelectableChannel channel = getOpenChannel(socket);
+        if (!(channel instanceof SocketChannel)) {
+            throw new ErrnoException(OSErrorEnum.ENOTCONN);
+        }
+        try {
+            if (how == SHUT_RD || how == SHUT_RDWR) {
+                ((SocketChannel) channel).shutdownInput();
+            }
+            if (how == SHUT_WR || how == SHUT_RDWR) {
+                ((SocketChannel) channel).shutdownOutput();
+            }
+        } catch (IllegalStateException e) {
+            throw translate(e);
+        }
+    }
+
+    @TruffleBoundary
+    public static SocketAddress getLocalAddress(PSocket socket) throws IOException {
+        SocketAddress address = ((NetworkChannel) getOpenChannel(socket)).getLocalAddress();
+        return address != null ? address : socket.getAddress();
+    }
+
+    @TruffleBoundary
+    public static SocketAddress getRemoteAddress(PSocket socket) throws IOException {
+        SelectableChannel channel = getOpenChannel(socket);
+        SocketAddress address = null;
+        if (channel instanceof SocketChannel) {
+            address = ((SocketChannel) channel).getRemoteAddress();
+        } else if (channel instanceof DatagramChannel) {
+            address = ((DatagramChannel) channel).getRemoteAddress();
+        }
+        if (address == null) {
+            throw new ErrnoException(OSErrorEnum.ENOTCONN);
+        }
+        return address;
+    }
+
+    @TruffleBoundary
+    public static void close(PSocket socket, PosixResources resources) throws IOException {
+        int fd = socket.getFileno();
+        if (fd < 0) {
+            return;
+        }
+        resources.close(fd);
+        SelectableChannel channel = socket.detach();
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    /**
+     * Sets a socket option and returns {@code false} if it is not supported.
+     */
+    @TruffleBoundary
+    public static boolean setOption(PSocket socket, int level, int option, int value) throws IOException {
+        NetworkChannel channel = (NetworkChannel) getOpenChannel(socket);
+        try {
+            if (level == SOL_SOCKET) {
+                switch (option) {
+                    case SO_REUSEADDR:
+                        socket.setReuseAddress(value != 0);
+                        channel.setOption(StandardSocketOptions.SO_REUSEADDR, value != 0);
+                        return true;
+                    case SO_KEEPALIVE:
+                        if (channel instanceof SocketChannel) {
+                            channel.setOption(StandardSocketOptions.SO_KEEPALIVE, value != 0);
+                        }
+                        return true;
+                    case SO_BROADCAST:
+                        if (channel instanceof DatagramChannel) {
+                            channel.setOption(StandardSocketOptions.SO_BROADCAST, value != 0);
+                        }
+                        return true;
+                    case SO_SNDBUF:
+                        if (!(channel instanceof ServerSocketChannel)) {
+                            channel.setOption(StandardSocketOptions.SO_SNDBUF, value);
+                        }
+                        return true;
+                    case SO_RCVBUF:
+                        channel.setOption(StandardSocketOptions.SO_RCVBUF, value);
+                        return true;
+                    default:
+                        return false;
+                }
+            } else if (level == IPPROTO_TCP && option == TCP_NODELAY) {
+                if (channel instanceof SocketChannel) {
+                    channel.setOption(StandardSocketOptions.TCP_NODELAY, value != 0);
+                }
+                return true;
+            }
+            return false;
+        } catch (IllegalArgumentException | UnsupportedOperationException e) {
+            throw new ErrnoException(OSErrorEnum.EINVAL);
+        }
+    }
+
+    /**
+     * Returns the value of a socket option, or {@code null} if it is not supported.
+     */
+    @TruffleBoundary
+    public static Integer getOption(PSocket socket, int level, int option) throws IOException {
+        NetworkChannel channel = (NetworkChannel) getOpenChannel(socket);
+        if (level == SOL_SOCKET) {
+            switch (option) {
+                case SO_REUSEADDR:
+                    return channel.getOption(StandardSocketOptions.SO_REUSEADDR) ? 1 : 0;
+                case SO_TYPE:
+                    return socket.getType();
+                case SO_ERROR:
+                    return getConnectError(socket);
+                case SO_KEEPALIVE:
+                    return channel instanceof SocketChannel && channel.getOption(StandardSocketOptions.SO_KEEPALIVE) ? 1 : 0;
+                case SO_BROADCAST:
+                    return channel instanceof DatagramChannel && channel.getOption(StandardSocketOptions.SO_BROADCAST) ? 1 : 0;
+                case SO_SNDBUF:
+                    return channel instanceof ServerSocketChannel ? 0 : channel.getOption(StandardSocketOptions.SO_SNDBUF);
+                case SO_RCVBUF:
+                    return channel.getOption(StandardSocketOptions.SO_RCVBUF);
+                default:
+                    return null;
+            }
+        } else if (level == IPPROTO_TCP && option == TCP_NODELAY) {
+            return channel instanceof SocketChannel && channel.getOption(StandardSocketOptions.TCP_NODELAY) ? 1 : 0;
+        }
+        return null;
+    }
+}
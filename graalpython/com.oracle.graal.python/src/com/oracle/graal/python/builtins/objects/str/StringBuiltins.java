@@ -66,12 +66,12 @@ import com.oracle.graal.python.builtins.objects.PNone;
 import com.oracle.graal.python.builtins.objects.PNotImplemented;
 import com.oracle.graal.python.builtins.objects.bytes.BytesNodes;
 import com.oracle.graal.python.builtins.objects.bytes.PIBytesLike;
+import com.oracle.graal.python.builtins.objects.common.FastSearch;
 import com.oracle.graal.python.builtins.objects.common.HashingStorageNodes.SetItemNode;
 import com.oracle.graal.python.builtins.objects.dict.PDict;
 import com.oracle.graal.python.builtins.objects.ints.PInt;
 import com.oracle.graal.python.builtins.objects.iterator.PStringIterator;
 import com.oracle.graal.python.builtins.objects.list.ListBuiltins.ListAppendNode;
-import com.oracle.graal.python.builtins.objects.list.ListBuiltins.ListReverseNode;
 import com.oracle.graal.python.builtins.objects.list.PList;
 import com.oracle.graal.python.builtins.objects.memoryview.PMemoryView;
 import com.oracle.graal.python.builtins.objects.slice.PSlice;
@@ -97,6 +97,7 @@ import com.oracle.graal.python.nodes.util.CastToIndexNode;
 import com.oracle.graal.python.nodes.util.CastToIntegerFromIndexNode;
 import com.oracle.graal.python.runtime.exception.PException;
 import com.oracle.graal.python.runtime.formatting.StringFormatter;
+import com.oracle.graal.python.runtime.sequence.storage.ObjectSequenceStorage;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Cached;
@@ -667,58 +668,29 @@ public final class StringBuiltins extends PythonBuiltins {
             return endNode;
         }
 
-        private SliceInfo computeSlice(int length, long start, long end) {
-            PSlice tmpSlice = factory().createSlice(getStartNode().execute(start), getEndNode().execute(end), 1);
-            return tmpSlice.computeIndices(length);
-        }
-
-        private SliceInfo computeSlice(int length, Object startO, Object endO) {
-            int start = startO == PNone.NO_VALUE || startO == PNone.NONE ? 0 : getStartNode().execute(startO);
-            int end = endO == PNone.NO_VALUE || endO == PNone.NONE ? length : getEndNode().execute(endO);
-            PSlice tmpSlice = factory().createSlice(start, end, 1);
-            return tmpSlice.computeIndices(length);
-        }
-
-        @Specialization
-        Object find(String self, String str, @SuppressWarnings("unused") PNone start, @SuppressWarnings("unused") PNone end) {
-            return find(self, str);
-        }
-
-        @Specialization
-        Object find(String self, String str, long start, @SuppressWarnings("unused") PNone end) {
-            int len = self.length();
-            SliceInfo info = computeSlice(len, start, len);
-            if (info.length == 0) {
-                return -1;
+        private int adjustStart(Object start, int length) {
+            if (start == PNone.NO_VALUE || start == PNone.NONE) {
+                return 0;
             }
-            return findWithBounds(self, str, info.start, info.stop);
+            return FastSearch.adjustStart(getStartNode().execute(start), length);
         }
 
-        @Specialization
-        Object find(String self, String str, @SuppressWarnings("unused") PNone start, long end) {
-            SliceInfo info = computeSlice(self.length(), 0, end);
-            if (info.length == 0) {
-                return -1;
+        private int adjustEnd(Object end, int length) {
+            if (end == PNone.NO_VALUE || end == PNone.NONE) {
+                return length;
             }
-            return findWithBounds(self, str, info.start, info.stop);
+            return FastSearch.adjustEnd(getEndNode().execute(end), length);
         }
 
         @Specialization
-        Object find(String self, String str, long start, long end) {
-            SliceInfo info = computeSlice(self.length(), start, end);
-            if (info.length == 0) {
-                return -1;
-            }
-            return findWithBounds(self, str, info.start, info.stop);
+        int find(String self, String str, @SuppressWarnings("unused") PNone start, @SuppressWarnings("unused") PNone end) {
+            return findWithBounds(self, str, 0, self.length());
         }
 
         @Specialization
-        Object findGeneric(String self, String str, Object start, Object end) throws ArithmeticException {
-            SliceInfo info = computeSlice(self.length(), start, end);
-            if (info.length == 0) {
-                return -1;
-            }
-            return findWithBounds(self, str, info.start, info.stop);
+        int findGeneric(String self, String str, Object start, Object end) {
+            int len = self.length();
+            return findWithBounds(self, str, adjustStart(start, len), adjustEnd(end, len));
         }
 
         @Fallback
@@ -727,11 +699,10 @@ public final class StringBuiltins extends PythonBuiltins {
             throw raise(TypeError, "must be str, not %p", str);
         }
 
-        @SuppressWarnings("unused")
-        protected int find(String self, String findStr) {
-            throw new AssertionError("must not be reached");
-        }
-
+        /**
+         * Searches {@code str} in {@code self[start:end]}, where the bounds are already adjusted
+         * like CPython's {@code ADJUST_INDICES}.
+         */
         @SuppressWarnings("unused")
         protected int findWithBounds(String self, String str, int start, int end) {
             throw new AssertionError("must not be reached");
@@ -744,16 +715,8 @@ public final class StringBuiltins extends PythonBuiltins {
     public abstract static class RFindNode extends FindBaseNode {
 
         @Override
-        @TruffleBoundary
-        protected int find(String self, String findStr) {
-            return self.lastIndexOf(findStr);
-        }
-
-        @Override
-        @TruffleBoundary
         protected int findWithBounds(String self, String str, int start, int end) {
-            int idx = self.lastIndexOf(str, end - str.length());
-            return idx >= start ? idx : -1;
+            return FastSearch.rfind(self, str, start, end);
         }
     }
 
@@ -763,16 +726,51 @@ public final class StringBuiltins extends PythonBuiltins {
     public abstract static class FindNode extends FindBaseNode {
 
         @Override
-        @TruffleBoundary
-        protected int find(String self, String findStr) {
-            return self.indexOf(findStr);
+        protected int findWithBounds(String self, String str, int start, int end) {
+            return FastSearch.find(self, str, start, end);
         }
+    }
+
+    // str.count(str[, start[, end]])
+    @Builtin(name = "count", minNumOfPositionalArgs = 2, maxNumOfPositionalArgs = 4)
+    @GenerateNodeFactory
+    public abstract static class CountNode extends FindBaseNode {
+
+        @Override
+        protected int findWithBounds(String self, String str, int start, int end) {
+            return FastSearch.count(self, str, start, end, Integer.MAX_VALUE);
+        }
+    }
+
+    // str.index(str[, start[, end]])
+    @Builtin(name = "index", minNumOfPositionalArgs = 2, maxNumOfPositionalArgs = 4)
+    @GenerateNodeFactory
+    public abstract static class IndexNode extends FindBaseNode {
+        private final ConditionProfile errorProfile = ConditionProfile.createBinaryProfile();
+
+        @Override
+        protected int findWithBounds(String self, String str, int start, int end) {
+            int idx = FastSearch.find(self, str, start, end);
+            if (errorProfile.profile(idx < 0)) {
+                throw raise(ValueError, "substring not found");
+            }
+            return idx;
+        }
+    }
+
+    // str.rindex(str[, start[, end]])
+    @Builtin(name = "rindex", minNumOfPositionalArgs = 2, maxNumOfPositionalArgs = 4)
+    @GenerateNodeFactory
+    public abstract static class RIndexNode extends FindBaseNode {
+        private final ConditionProfile errorProfile = ConditionProfile.createBinaryProfile();
 
         @Override
-        @TruffleBoundary
         protected int findWithBounds(String self, String str, int start, int end) {
-            int idx = self.indexOf(str, start);
-            return idx + str.length() <= end ? idx : -1;
+            int idx = FastSearch.rfind(self, str, start, end);
+            if (errorProfile.profile(idx < 0)) {
+                throw raise(ValueError, "substring not found");
+            }
+            return idx;
         }
     }
 
@@ -1039,25 +1037,39 @@ public final class StringBuiltins extends PythonBuiltins {
 
     protected abstract static class SplitBaseNode extends PythonTernaryBuiltinNode {
 
-        @Child private ListAppendNode appendNode;
-        @Child private ListReverseNode reverseNode;
+        private static final int INITIAL_PARTS = 12;
 
-        protected ListAppendNode getAppendNode() {
-            if (appendNode == null) {
-                CompilerDirectives.transferToInterpreterAndInvalidate();
-                appendNode = insert(ListAppendNode.create());
+        /**
+         * Collects the pieces of a split directly into the array that becomes the storage of the
+         * result list.
+         */
+        protected static final class Parts {
+            private Object[] items = new Object[INITIAL_PARTS];
+            private int length;
+
+            void add(String part) {
+                if (length == items.length) {
+                    items = Arrays.copyOf(items, length * 2);
+                }
+                items[length++] = part;
             }
-            return appendNode;
-        }
 
-        protected ListReverseNode getReverseNode() {
-            if (reverseNode == null) {
-                CompilerDirectives.transferToInterpreterAndInvalidate();
-                reverseNode = insert(ListReverseNode.create());
+            void reverse() {
+                for (int i = 0, j = length - 1; i < j; i++, j--) {
+                    Object tmp = items[i];
+                    items[i] = items[j];
+                    items[j] = tmp;
+                }
+            }
+
+            ObjectSequenceStorage toStorage() {
+                return new ObjectSequenceStorage(items, length);
             }
-            return reverseNode;
         }
 
+        protected static int maxSplits(int maxsplit) {
+            return maxsplit < 0 ? Integer.MAX_VALUE : maxsplit;
+        }
     }
 
     // str.split
@@ -1069,42 +1081,25 @@ public final class StringBuiltins extends PythonBuiltins {
         @SuppressWarnings("unused")
         @Specialization
         public PList doSplit(String self, PNone sep, PNone maxsplit) {
-            return splitfields(self, -1);
+            return factory().createList(splitfields(self, -1));
         }
 
-        @SuppressWarnings("unused")
-        @TruffleBoundary
         @Specialization
-        public PList doSplit(String self, String sep, PNone maxsplit) {
+        public PList doSplit(String self, String sep, @SuppressWarnings("unused") PNone maxsplit) {
             return doSplit(self, sep, -1);
         }
 
         @Specialization
-        @TruffleBoundary
         public PList doSplit(String self, String sep, int maxsplit) {
             if (sep.isEmpty()) {
                 throw raise(ValueError, "empty separator");
             }
-            int splits = maxsplit == -1 ? Integer.MAX_VALUE : maxsplit;
-
-            PList list = factory().createList();
-            int lastEnd = 0;
-            while (splits > 0) {
-                int nextIndex = self.indexOf(sep, lastEnd);
-                if (nextIndex == -1) {
-                    break;
-                }
-                splits--;
-                getAppendNode().execute(list, self.substring(lastEnd, nextIndex));
-                lastEnd = nextIndex + sep.length();
-            }
-            getAppendNode().execute(list, self.substring(lastEnd, self.length()));
-            return list;
+            return factory().createList(split(self, sep, maxSplits(maxsplit)));
         }
 
         @Specialization
         public PList doSplit(String self, @SuppressWarnings("unused") PNone sep, int maxsplit) {
-            return splitfields(self, maxsplit);
+            return factory().createList(splitfields(self, maxsplit));
         }
 
         @Fallback
@@ -1112,24 +1107,38 @@ public final class StringBuiltins extends PythonBuiltins {
             throw raise(TypeError, " Can't convert %p object to str implicitly", sep);
         }
 
+        @TruffleBoundary
+        private static ObjectSequenceStorage split(String self, String sep, int maxsplit) {
+            Parts parts = new Parts();
+            int length = self.length();
+            int sepLength = sep.length();
+            int start = 0;
+            for (int splits = 0; splits < maxsplit; splits++) {
+                int idx = FastSearch.find(self, sep, start, length);
+                if (idx < 0) {
+                    break;
+                }
+                parts.add(self.substring(start, idx));
+                start = idx + sepLength;
+            }
+            parts.add(self.substring(start, length));
+            return parts.toStorage();
+        }
+
         // See {@link PyString}
         @TruffleBoundary
-        private PList splitfields(String s, int maxsplit) {
+        private static ObjectSequenceStorage splitfields(String s, int maxsplit) {
             /*
              * Result built here is a list of split parts, exactly as required for s.split(None,
              * maxsplit). If there are to be n splits, there will be n+1 elements in L.
              */
-            PList list = factory().createList();
+            Parts parts = new Parts();
             int length = s.length();
             int start = 0;
             int splits = 0;
             int index;
 
-            int maxsplit2 = maxsplit;
-            if (maxsplit2 < 0) {
-                // Make all possible splits: there can't be more than:
-                maxsplit2 = length;
-            }
+            int maxsplit2 = maxSplits(maxsplit);
 
             // start is always the first character not consumed into a piece on the list
             while (start < length) {
@@ -1162,14 +1171,14 @@ public final class StringBuiltins extends PythonBuiltins {
                 }
 
                 // Make a piece from start up to index
-                getAppendNode().execute(list, s.substring(start, index));
+                parts.add(s.substring(start, index));
                 splits++;
 
                 // Start next segment search at that point
                 start = index;
             }
 
-            return list;
+            return parts.toStorage();
         }
     }
 
@@ -1182,12 +1191,12 @@ public final class StringBuiltins extends PythonBuiltins {
         @SuppressWarnings("unused")
         @Specialization
         public PList doSplit(String self, PNone sep, PNone maxsplit) {
-            return rsplitfields(self, -1);
+            return factory().createList(rsplitfields(self, -1));
         }
 
         @Specialization
         public PList doSplit(String self, String sep, @SuppressWarnings("unused") PNone maxsplit) {
-            return doSplit(self, sep, Integer.MAX_VALUE);
+            return doSplit(self, sep, -1);
         }
 
         @Specialization
@@ -1195,64 +1204,52 @@ public final class StringBuiltins extends PythonBuiltins {
             if (sep.length() == 0) {
                 throw raise(ValueError, "empty separator");
             }
-            PList list = factory().createList();
-            int splits = 0;
-            int end = self.length();
-            String remainder = self;
-            int sepLength = sep.length();
-            while (splits < maxsplit) {
-                int idx = remainder.lastIndexOf(sep);
-
-                if (idx < 0) {
-                    break;
-                }
-
-                getAppendNode().execute(list, self.substring(idx + sepLength, end));
-                end = idx;
-                splits++;
-                remainder = remainder.substring(0, end);
-            }
-
-            getAppendNode().execute(list, remainder);
-            getReverseNode().execute(list);
-            return list;
+            return factory().createList(rsplit(self, sep, maxSplits(maxsplit)));
         }
 
         @Specialization
         public PList doSplit(String self, @SuppressWarnings("unused") PNone sep, int maxsplit) {
-            return rsplitfields(self, maxsplit);
+            return factory().createList(rsplitfields(self, maxsplit));
         }
 
         @TruffleBoundary
-        private static boolean isWhitespace(int codePoint) {
-            return Character.isWhitespace(codePoint);
+        private static ObjectSequenceStorage rsplit(String self, String sep, int maxsplit) {
+            Parts parts = new Parts();
+            int sepLength = sep.length();
+            int end = self.length();
+            for (int splits = 0; splits < maxsplit; splits++) {
+                int idx = FastSearch.rfind(self, sep, 0, end);
+                if (idx < 0) {
+                    break;
+                }
+                parts.add(self.substring(idx + sepLength, end));
+                end = idx;
+            }
+            parts.add(self.substring(0, end));
+            parts.reverse();
+            return parts.toStorage();
         }
 
         // See {@link PyString}
-        private PList rsplitfields(String s, int maxsplit) {
+        @TruffleBoundary
+        private static ObjectSequenceStorage rsplitfields(String s, int maxsplit) {
             /*
-             * Result built here is a list of split parts, exactly as required for s.split(None,
+             * Result built here is a list of split parts, exactly as required for s.rsplit(None,
              * maxsplit). If there are to be n splits, there will be n+1 elements in L.
              */
-            PList list = factory().createList();
-            int length = s.length();
-            int end = length - 1;
+            Parts parts = new Parts();
+            // end is always one past the last character not consumed into a piece on the list
+            int end = s.length();
             int splits = 0;
             int index;
 
-            int maxsplit2 = maxsplit;
-            if (maxsplit2 < 0) {
-                // Make all possible splits: there can't be more than:
-                maxsplit2 = length;
-            }
+            int maxsplit2 = maxSplits(maxsplit);
 
-            // start is always the first character not consumed into a piece on the list
             while (end > 0) {
 
-                // Find the next occurrence of non-whitespace
-                while (end >= 0) {
-                    if (!isWhitespace(s.codePointAt(end))) {
-                        // Break leaving start pointing at non-whitespace
+                // Find the previous occurrence of non-whitespace
+                while (end > 0) {
+                    if (!Character.isWhitespace(s.charAt(end - 1))) {
                         break;
                     }
                     end--;
@@ -1263,30 +1260,28 @@ public final class StringBuiltins extends PythonBuiltins {
                     break;
 
                 } else if (splits >= maxsplit2) {
-                    // The next segment is the last and contains all characters up to the end
+                    // The next segment is the last and contains all characters from the start
                     index = 0;
 
                 } else {
-                    // The next segment runs up to the next next whitespace or end
-                    for (index = end; index >= 0; index--) {
-                        if (isWhitespace(s.codePointAt(index))) {
-                            // Break leaving index pointing after the found whitespace
-                            index++;
+                    // The next segment starts after the previous whitespace or at the start
+                    for (index = end; index > 0; index--) {
+                        if (Character.isWhitespace(s.charAt(index - 1))) {
                             break;
                         }
                     }
                 }
 
-                // Make a piece from start up to index
-                getAppendNode().execute(list, s.substring(index, end + 1));
+                // Make a piece from index up to end
+                parts.add(s.substring(index, end));
                 splits++;
 
-                // Start next segment search at the whitespace
-                end = index - 1;
+                // Continue the search before that piece
+                end = index;
             }
 
-            getReverseNode().execute(list);
-            return list;
+            parts.reverse();
+            return parts.toStorage();
         }
     }
 
@@ -1333,21 +1328,52 @@ public final class StringBuiltins extends PythonBuiltins {
     @TypeSystemReference(PythonArithmeticTypes.class)
     public abstract static class ReplaceNode extends PythonBuiltinNode {
 
-        @SuppressWarnings("unused")
-        @TruffleBoundary
         @Specialization
-        public String doReplace(String self, String old, String with, PNone maxsplit) {
-            return self.replace(old, with);
+        public String doReplace(String self, String old, String with, @SuppressWarnings("unused") PNone maxcount) {
+            return replace(self, old, with, Integer.MAX_VALUE);
         }
 
-        @TruffleBoundary
         @Specialization
-        public String doReplace(String self, String old, String with, int maxsplit) {
-            String newSelf = self;
-            for (int i = 0; i < maxsplit; i++) {
-                newSelf = newSelf.replaceFirst(old, with);
+        public String doReplace(String self, String old, String with, int maxcount) {
+            return replace(self, old, with, maxcount < 0 ? Integer.MAX_VALUE : maxcount);
+        }
+
+        /**
+         * Counts the occurrences first, so that the result is written into a single array of the
+         * final length.
+         */
+        @TruffleBoundary
+        private String replace(String self, String old, String with, int maxcount) {
+            int length = self.length();
+            int count = FastSearch.count(self, old, 0, length, maxcount);
+            if (count == 0) {
+                return self;
             }
-            return newSelf;
+            int oldLength = old.length();
+            int withLength = with.length();
+            long resultLength = length + (long) count * (withLength - oldLength);
+            if (resultLength > Integer.MAX_VALUE) {
+                throw raise(OverflowError, "replace string is too long");
+            }
+            char[] result = new char[(int) resultLength];
+            int pos = 0;
+            int start = 0;
+            for (int i = 0; i < count; i++) {
+                int idx = oldLength == 0 ? start : FastSearch.find(self, old, start, length);
+                self.getChars(start, idx, result, pos);
+                pos += idx - start;
+                with.getChars(0, withLength, result, pos);
+                pos += withLength;
+                if (oldLength != 0) {
+                    start = idx + oldLength;
+                } else if (idx < length) {
+                    // an empty pattern matches before every character
+                    result[pos++] = self.charAt(idx);
+                    start = idx + 1;
+                }
+            }
+            self.getChars(start, length, result, pos);
+            return new String(result);
         }
     }
 
@@ -1418,45 +1444,6 @@ public final class StringBuiltins extends PythonBuiltins {
         }
     }
 
-    @Builtin(name = "index", minNumOfPositionalArgs = 2, maxNumOfPositionalArgs = 4)
-    @GenerateNodeFactory
-    @TypeSystemReference(PythonArithmeticTypes.class)
-    public abstract static class IndexNode extends PythonBuiltinNode {
-        @SuppressWarnings("unused")
-        @Specialization
-        int index(String self, String substr, PNone start, PNone end,
-                        @Cached("createBinaryProfile()") ConditionProfile errorProfile) {
-            return indexOf(self, substr, 0, self.length(), errorProfile);
-        }
-
-        @SuppressWarnings("unused")
-        @Specialization
-        int index(String self, String substr, int start, PNone end,
-                        @Cached("createBinaryProfile()") ConditionProfile errorProfile) {
-            return indexOf(self, substr, start, self.length(), errorProfile);
-        }
-
-        @Specialization
-        int index(String self, String substr, int start, int end,
-                        @Cached("createBinaryProfile()") ConditionProfile errorProfile) {
-            return indexOf(self, substr, start, end, errorProfile);
-        }
-
-        private int indexOf(String self, String substr, int start, int end, ConditionProfile errorProfile) {
-            int idx = op(self, substr, start);
-            if (errorProfile.profile(idx > end || idx < 0)) {
-                throw raise(ValueError, "substring not found");
-            } else {
-                return idx;
-            }
-        }
-
-        @TruffleBoundary
-        private static int op(String self, String substr, int start) {
-            return self.indexOf(substr, start);
-        }
-    }
-
     @Builtin(name = "encode", fixedNumOfPositionalArgs = 1, keywordArguments = {"encoding", "errors"})
     @GenerateNodeFactory
     @TypeSystemReference(PythonArithmeticTypes.class)
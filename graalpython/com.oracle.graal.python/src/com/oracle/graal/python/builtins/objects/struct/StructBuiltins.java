@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.struct;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.bytes.PBytes;
+import com.oracle.graal.python.builtins.objects.struct.StructNodes.IterUnpackNode;
+import com.oracle.graal.python.builtins.objects.struct.StructNodes.PackIntoNode;
+import com.oracle.graal.python.builtins.objects.struct.StructNodes.PackToBytesNode;
+import com.oracle.graal.python.builtins.objects.struct.StructNodes.UnpackBufferNode;
+import com.oracle.graal.python.builtins.objects.struct.StructNodes.UnpackFromNode;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.util.CastToIndexNode;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+
+/**
+ * The methods of {@code Struct}, which pack and unpack with the format compiled by the
+ * constructor.
+ */
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PStruct)
+public class StructBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return StructBuiltinsFactory.getFactories();
+    }
+
+    @Builtin(name = "pack", minNumOfPositionalArgs = 1, takesVarArgs = true)
+    @GenerateNodeFactory
+    abstract static class PackNode extends PythonBuiltinNode {
+        @Specialization
+        PBytes pack(PStruct self, Object[] args,
+                        @Cached("create()") PackToBytesNode packNode) {
+            return packNode.execute(self.getFormat(), args);
+        }
+    }
+
+    @Builtin(name = "pack_into", minNumOfPositionalArgs = 3, takesVarArgs = true)
+    @GenerateNodeFactory
+    abstract static class PackIntoBuiltinNode extends PythonBuiltinNode {
+        @Specialization
+        PNone packInto(PStruct self, Object buffer, Object offset, Object[] args,
+                        @Cached("create()") CastToIndexNode castToIndexNode,
+                        @Cached("create()") PackIntoNode packIntoNode) {
+            StructNodes.checkArgumentCount(this, "pack_into", self.getFormat(), args);
+            packIntoNode.execute(self.getFormat(), buffer, castToIndexNode.execute(offset), args);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "unpack", fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class UnpackNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        PTuple unpack(PStruct self, Object buffer,
+                        @Cached("create()") UnpackBufferNode unpackNode) {
+            return unpackNode.execute(self.getFormat(), buffer);
+        }
+    }
+
+    @Builtin(name = "unpack_from", minNumOfPositionalArgs = 2, keywordArguments = {"offset"})
+    @GenerateNodeFactory
+    abstract static class UnpackFromBuiltinNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        PTuple unpackFrom(PStruct self, Object buffer, @SuppressWarnings("unused") PNone offset,
+                        @Cached("create()") UnpackFromNode unpackFromNode) {
+            return unpackFromNode.execute(self.getFormat(), buffer, 0);
+        }
+
+        @Specialization(guards = "!isNoValue(offset)")
+        PTuple unpackFrom(PStruct self, Object buffer, Object offset,
+                        @Cached("create()") CastToIndexNode castToIndexNode,
+                        @Cached("create()") UnpackFromNode unpackFromNode) {
+            return unpackFromNode.execute(self.getFormat(), buffer, castToIndexNode.execute(offset));
+        }
+    }
+
+    @Builtin(name = "iter_unpack", fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class IterUnpackBuiltinNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        PStructUnpackIterator iterUnpack(PStruct self, Object buffer,
+                        @Cached("create()") IterUnpackNode iterUnpackNode) {
+            return iterUnpackNode.execute(self.getFormat(), buffer);
+        }
+    }
+
+    @Builtin(name = "format", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class FormatNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        String format(PStruct self) {
+            return self.getFormat().getFormat();
+        }
+    }
+
+    @Builtin(name = "size", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class SizeNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        int size(PStruct self) {
+            return self.getFormat().getSize();
+        }
+    }
+}
@@ -0,0 +1,256 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.struct;
+
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.oracle.graal.python.builtins.objects.struct.StructNodes.StructError;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * A compiled {@code struct} format. The format string is parsed once into the type, offset and
+ * size of every packed value, so that packing and unpacking only walk these arrays. Compiled
+ * formats are immutable and shared by all contexts.
+ */
+public final class StructFormat {
+    /** The number of formats the module functions keep compiled, as {@code _struct} does. */
+    private static final int MAX_CACHE = 100;
+    private static final ConcurrentHashMap<String, StructFormat> CACHE = new ConcurrentHashMap<>();
+
+    private final String format;
+    private final ByteOrder order;
+    private final int size;
+    /** The format characters of the values, without pad bytes. */
+    @CompilationFinal(dimensions = 1) private final char[] codes;
+    @CompilationFinal(dimensions = 1) private final int[] offsets;
+    /** The size of each value, which is the length of the field for 's' and 'p'. */
+    @CompilationFinal(dimensions = 1) private final int[] sizes;
+
+    private StructFormat(String format, ByteOrder order, int size, char[] codes, int[] offsets, int[] sizes) {
+        this.format = format;
+        this.order = order;
+        this.size = size;
+        this.codes = codes;
+        this.offsets = offsets;
+        this.sizes = sizes;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public ByteOrder getOrder() {
+        return order;
+    }
+
+    /** The number of bytes that the format packs. */
+    public int getSize() {
+        return size;
+    }
+
+    /** The number of values that the format packs. */
+    public int getLength() {
+        return codes.length;
+    }
+
+    public char getCode(int i) {
+        return codes[i];
+    }
+
+    public int getOffset(int i) {
+        return offsets[i];
+    }
+
+    public int getItemSize(int i) {
+        return sizes[i];
+    }
+
+    /**
+     * Returns the compiled format from the cache of the module functions, compiling it if needed.
+     */
+    @TruffleBoundary
+    public static StructFormat lookup(String format) throws StructError {
+        StructFormat result = CACHE.get(format);
+        if (result == null) {
+            result = compile(format);
+            if (CACHE.size() >= MAX_CACHE) {
+                CACHE.clear();
+            }
+            CACHE.put(format, result);
+        }
+        return result;
+    }
+
+    @TruffleBoundary
+    public static void clearCache() {
+        CACHE.clear();
+    }
+
+    @TruffleBoundary
+    public static StructFormat compile(String format) throws StructError {
+        int i = 0;
+        ByteOrder order = ByteOrder.nativeOrder();
+        boolean nativeSizes = true;
+        if (!format.isEmpty()) {
+            switch (format.charAt(0)) {
+                case '@':
+                    i = 1;
+                    break;
+                case '=':
+                    nativeSizes = false;
+                    i = 1;
+                    break;
+                case '<':
+                    order = ByteOrder.LITTLE_ENDIAN;
+                    nativeSizes = false;
+                    i = 1;
+                    break;
+                case '>':
+                case '!':
+                    order = ByteOrder.BIG_ENDIAN;
+                    nativeSizes = false;
+                    i = 1;
+                    break;
+            }
+        }
+        int n = 0;
+        char[] codes = new char[8];
+        int[] offsets = new int[8];
+        int[] sizes = new int[8];
+        long size = 0;
+        while (i < format.length()) {
+            char c = format.charAt(i++);
+            if (Character.isWhitespace(c)) {
+                continue;
+            }
+            long count = 1;
+            if (c >= '0' && c <= '9') {
+                count = c - '0';
+                while (i < format.length() && (c = format.charAt(i)) >= '0' && c <= '9') {
+                    count = count * 10 + (c - '0');
+                    if (count > Integer.MAX_VALUE) {
+                        throw new StructError("total struct size too long");
+                    }
+                    i++;
+                }
+                if (i == format.length()) {
+                    throw new StructError("repeat count given without format specifier");
+                }
+                c = format.charAt(i++);
+            }
+            int itemSize = itemSize(c, nativeSizes);
+            if (nativeSizes && itemSize > 1) {
+                // native mode aligns every value to its size
+                size = (size + itemSize - 1) / itemSize * itemSize;
+            }
+            if (size + count * itemSize > Integer.MAX_VALUE) {
+                throw new StructError("total struct size too long");
+            }
+            if (c == 's' || c == 'p') {
+                if (n == codes.length) {
+                    codes = Arrays.copyOf(codes, n * 2);
+                    offsets = Arrays.copyOf(offsets, n * 2);
+                    sizes = Arrays.copyOf(sizes, n * 2);
+                }
+                codes[n] = c;
+                offsets[n] = (int) size;
+                sizes[n] = (int) count;
+                n++;
+                size += count;
+            } else if (c == 'x') {
+                size += count;
+            } else {
+                for (long k = 0; k < count; k++) {
+                    if (n == codes.length) {
+                        codes = Arrays.copyOf(codes, n * 2);
+                        offsets = Arrays.copyOf(offsets, n * 2);
+                        sizes = Arrays.copyOf(sizes, n * 2);
+                    }
+                    codes[n] = c;
+                    offsets[n] = (int) (size + k * itemSize);
+                    sizes[n] = itemSize;
+                    n++;
+                }
+                size += count * itemSize;
+            }
+        }
+        return new StructFormat(format, order, (int) size, Arrays.copyOf(codes, n), Arrays.copyOf(offsets, n), Arrays.copyOf(sizes, n));
+    }
+
+    private static int itemSize(char c, boolean nativeSizes) throws StructError {
+        switch (c) {
+            case 'x':
+            case 'c':
+            case 'b':
+            case 'B':
+            case '?':
+            case 's':
+            case 'p':
+                return 1;
+            case 'h':
+            case 'H':
+            case 'e':
+                return 2;
+            case 'i':
+            case 'I':
+            case 'f':
+                return 4;
+            case 'l':
+            case 'L':
+                return nativeSizes ? 8 : 4;
+            case 'q':
+            case 'Q':
+            case 'd':
+                return 8;
+            case 'n':
+            case 'N':
+            case 'P':
+                if (nativeSizes) {
+                    return 8;
+                }
+                break;
+        }
+        throw new StructError("bad char in struct format");
+    }
+}
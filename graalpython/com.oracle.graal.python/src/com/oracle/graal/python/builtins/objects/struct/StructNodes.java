@@ -0,0 +1,1042 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.struct;
+
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__FLOAT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__INDEX__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.OverflowError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+import com.oracle.graal.python.builtins.objects.bytes.BytesNodes;
+import com.oracle.graal.python.builtins.objects.bytes.PByteArray;
+import com.oracle.graal.python.builtins.objects.bytes.PBytes;
+import com.oracle.graal.python.builtins.objects.bytes.PIBytesLike;
+import com.oracle.graal.python.builtins.objects.floats.PFloat;
+import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.memoryview.PMemoryView;
+import com.oracle.graal.python.builtins.objects.mmap.MappedChannel;
+import com.oracle.graal.python.builtins.objects.mmap.PMMap;
+import com.oracle.graal.python.builtins.objects.str.PString;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+import com.oracle.graal.python.nodes.PNodeWithContext;
+import com.oracle.graal.python.nodes.SpecialMethodNames;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallTernaryNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
+import com.oracle.graal.python.nodes.expression.CastToBooleanNode;
+import com.oracle.graal.python.nodes.util.CastToIndexNode;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.graal.python.runtime.sequence.storage.ByteSequenceStorage;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Fallback;
+import com.oracle.truffle.api.dsl.ImportStatic;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.nodes.ExplodeLoop;
+
+public abstract class StructNodes {
+
+    /**
+     * Formats with at most this many values are packed and unpacked by a node per value, with the
+     * loop over the values unrolled.
+     */
+    static final int MAX_COMPILED_LENGTH = 32;
+
+    /**
+     * An error in a format string or a packed value, raised as {@code struct.error}.
+     */
+    public static final class StructError extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        public StructError(String message) {
+            super(message);
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+
+    public static PException raiseStructError(PNodeWithContext node, String format, Object... args) {
+        LazyPythonClass cls = (LazyPythonClass) node.getCore().lookupBuiltinModule("_struct").getAttribute("error");
+        throw node.raise(node.getCore().factory().createBaseException(cls, format, args));
+    }
+
+    @TruffleBoundary
+    public static String getMessage(StructError error) {
+        return error.getMessage();
+    }
+
+    @TruffleBoundary(allowInlining = true)
+    static ByteBuffer wrap(byte[] bytes, int length, ByteOrder order) {
+        return ByteBuffer.wrap(bytes, 0, length).slice().order(order);
+    }
+
+    @TruffleBoundary(allowInlining = true)
+    static ByteBuffer order(ByteBuffer buffer, ByteOrder order) {
+        return buffer.order(order);
+    }
+
+    @TruffleBoundary(allowInlining = true)
+    static int capacity(ByteBuffer buffer) {
+        return buffer.capacity();
+    }
+
+    @TruffleBoundary(allowInlining = true)
+    static long getInteger(ByteBuffer buffer, int offset, int size) {
+        switch (size) {
+            case 1:
+                return buffer.get(offset);
+            case 2:
+                return buffer.getShort(offset);
+            case 4:
+                return buffer.getInt(offset);
+            default:
+                return buffer.getLong(offset);
+        }
+    }
+
+    @TruffleBoundary(allowInlining = true)
+    static void putInteger(ByteBuffer buffer, int offset, int size, long value) {
+        switch (size) {
+            case 1:
+                buffer.put(offset, (byte) value);
+                break;
+            case 2:
+                buffer.putShort(offset, (short) value);
+                break;
+            case 4:
+                buffer.putInt(offset, (int) value);
+                break;
+            default:
+                buffer.putLong(offset, value);
+                break;
+        }
+    }
+
+    @TruffleBoundary(allowInlining = true)
+    static double getFloat(ByteBuffer buffer, int offset, int size) {
+        switch (size) {
+            case 2:
+                return unpackHalf(buffer.getShort(offset));
+            case 4:
+                return buffer.getFloat(offset);
+            default:
+                return buffer.getDouble(offset);
+        }
+    }
+
+    @TruffleBoundary
+    static byte[] getBytes(ByteBuffer buffer, int offset, int length) {
+        byte[] result = new byte[length];
+        ByteBuffer src = buffer.duplicate();
+        src.position(offset);
+        src.get(result);
+        return result;
+    }
+
+    @TruffleBoundary
+    static void putBytes(ByteBuffer buffer, int offset, byte[] src, int length, int fieldLength) {
+        ByteBuffer dst = buffer.duplicate();
+        dst.position(offset);
+        dst.put(src, 0, length);
+        for (int i = length; i < fieldLength; i++) {
+            dst.put((byte) 0);
+        }
+    }
+
+    /**
+     * Converts to the IEEE 754 binary16 format like {@code _PyFloat_Pack2}, rounding half to even.
+     * Returns -1 if the value is too large.
+     */
+    static int packHalf(double value) {
+        double x = value;
+        int sign = 0;
+        int e;
+        int bits;
+        if (x == 0.0) {
+            sign = 1 / x < 0 ? 1 : 0;
+            e = 0;
+            bits = 0;
+        } else if (Double.isInfinite(x)) {
+            sign = x < 0 ? 1 : 0;
+            e = 0x1f;
+            bits = 0;
+        } else if (Double.isNaN(x)) {
+            sign = Double.doubleToRawLongBits(x) < 0 ? 1 : 0;
+            e = 0x1f;
+            bits = 512;
+        } else {
+            if (x < 0) {
+                sign = 1;
+                x = -x;
+            }
+            // x == f * 2**e with 1 <= f < 2
+            e = x < Double.MIN_NORMAL ? Integer.MIN_VALUE : Math.getExponent(x);
+            double f = 0.0;
+            if (e >= 16) {
+                return -1;
+            } else if (e < -25) {
+                e = 0;
+            } else if (e < -14) {
+                // subnormal
+                f = Math.scalb(x, 14);
+                e = 0;
+            } else {
+                f = Math.scalb(x, -e) - 1.0;
+                e += 15;
+            }
+            f *= 1024.0;
+            bits = (int) f;
+            if (f - bits > 0.5 || (f - bits == 0.5 && bits % 2 == 1)) {
+                bits++;
+                if (bits == 1024) {
+                    bits = 0;
+                    if (++e == 31) {
+                        return -1;
+                    }
+                }
+            }
+        }
+        return bits | (e << 10) | (sign << 15);
+    }
+
+    static double unpackHalf(short value) {
+        int sign = (value >> 15) & 1;
+        int e = (value >> 10) & 0x1f;
+        int f = value & 0x3ff;
+        if (e == 0x1f) {
+            if (f == 0) {
+                return sign == 0 ? Double.POSITIVE_INFINITY : Double.NEGATIVE_INFINITY;
+            }
+            return sign == 0 ? Double.NaN : -Double.NaN;
+        }
+        double x = f / 1024.0;
+        if (e == 0) {
+            e = -14;
+        } else {
+            x += 1.0;
+            e -= 15;
+        }
+        x = Math.scalb(x, e);
+        return sign == 0 ? x : -x;
+    }
+
+    /**
+     * Packs and unpacks the values of one kind of format character. The size of the value is
+     * passed in, so that one node serves all sizes of integers or floats and all field lengths.
+     */
+    abstract static class StructItemNode extends PNodeWithContext {
+        abstract void pack(Object value, ByteBuffer buffer, int offset, int size);
+
+        abstract Object unpack(ByteBuffer buffer, int offset, int size);
+
+        static StructItemNode create(char code) {
+            switch (code) {
+                case 'b':
+                case 'h':
+                case 'i':
+                case 'l':
+                case 'q':
+                case 'n':
+                    return new IntegerItemNode(code, true);
+                case 'B':
+                case 'H':
+                case 'I':
+                case 'L':
+                case 'Q':
+                case 'N':
+                case 'P':
+                    return new IntegerItemNode(code, false);
+                case '?':
+                    return new BoolItemNode();
+                case 'c':
+                    return new CharItemNode();
+                case 's':
+                    return new StringItemNode(false);
+                case 'p':
+                    return new StringItemNode(true);
+                default:
+                    assert code == 'e' || code == 'f' || code == 'd';
+                    return new FloatItemNode();
+            }
+        }
+    }
+
+    static final class IntegerItemNode extends StructItemNode {
+        private static final BigInteger MAX_UNSIGNED_LONG = BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE);
+
+        /** The format character, which the range errors of 4-byte values name. */
+        private final char code;
+        private final boolean signed;
+        @Child private LookupAndCallUnaryNode indexNode;
+
+        IntegerItemNode(char code, boolean signed) {
+            this.code = code;
+            this.signed = signed;
+        }
+
+        @Override
+        void pack(Object value, ByteBuffer buffer, int offset, int size) {
+            Object v = value;
+            if (!(v instanceof Integer || v instanceof Long || v instanceof Boolean || v instanceof PInt)) {
+                v = index(v);
+            }
+            long l;
+            if (v instanceof Integer) {
+                l = (int) v;
+            } else if (v instanceof Long) {
+                l = (long) v;
+            } else if (v instanceof Boolean) {
+                l = (boolean) v ? 1 : 0;
+            } else {
+                PInt pint = (PInt) v;
+                try {
+                    l = pint.longValueExact();
+                } catch (ArithmeticException e) {
+                    if (!signed && size == 8 && fitsUnsignedLong(pint.getValue())) {
+                        putInteger(buffer, offset, size, longValue(pint.getValue()));
+                        return;
+                    }
+                    throw raiseStructError(this, "argument out of range");
+                }
+            }
+            checkRange(l, size);
+            putInteger(buffer, offset, size, l);
+        }
+
+        private Object index(Object value) {
+            if (indexNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                indexNode = insert(LookupAndCallUnaryNode.create(__INDEX__));
+            }
+            Object result = indexNode.executeObject(value);
+            if (result instanceof Integer || result instanceof Long || result instanceof Boolean || result instanceof PInt) {
+                return result;
+            }
+            throw raiseStructError(this, "required argument is not an integer");
+        }
+
+        private void checkRange(long l, int size) {
+            if (size == 8) {
+                if (!signed && l < 0) {
+                    throw raiseStructError(this, "argument out of range");
+                }
+            } else if (size == 1) {
+                if (signed && (l < Byte.MIN_VALUE || l > Byte.MAX_VALUE)) {
+                    throw raiseStructError(this, "byte format requires -128 <= number <= 127");
+                } else if (!signed && (l < 0 || l > 0xff)) {
+                    throw raiseStructError(this, "ubyte format requires 0 <= number <= 255");
+                }
+            } else if (size == 2) {
+                if (signed && (l < Short.MIN_VALUE || l > Short.MAX_VALUE)) {
+                    throw raiseStructError(this, "short format requires -32768 <= number <= 32767");
+                } else if (!signed && (l < 0 || l > 0xffff)) {
+                    throw raiseStructError(this, "ushort format requires 0 <= number <= 65535");
+                }
+            } else {
+                if (signed && (l < Integer.MIN_VALUE || l > Integer.MAX_VALUE)) {
+                    throw raiseStructError(this, "'%c' format requires -2147483648 <= number <= 2147483647", code);
+                } else if (!signed && l < 0) {
+                    throw raiseStructError(this, "argument out of range");
+                } else if (!signed && l > 0xffffffffL) {
+                    throw raiseStructError(this, "'%c' format requires 0 <= number <= 4294967295", code);
+                }
+            }
+        }
+
+        @Override
+        Object unpack(ByteBuffer buffer, int offset, int size) {
+            long l = getInteger(buffer, offset, size);
+            if (signed) {
+                return size == 8 ? (Object) l : (Object) (int) l;
+            }
+            switch (size) {
+                case 1:
+                    return (int) (l & 0xff);
+                case 2:
+                    return (int) (l & 0xffff);
+                case 4:
+                    return l & 0xffffffffL;
+                default:
+                    if (l >= 0) {
+                        return l;
+                    }
+                    return factory().createInt(unsignedValue(l));
+            }
+        }
+
+        @TruffleBoundary
+        private static boolean fitsUnsignedLong(BigInteger value) {
+            return value.signum() >= 0 && value.compareTo(MAX_UNSIGNED_LONG) <= 0;
+        }
+
+        @TruffleBoundary
+        private static long longValue(BigInteger value) {
+            return value.longValue();
+        }
+
+        @TruffleBoundary
+        private static BigInteger unsignedValue(long l) {
+            return BigInteger.valueOf(l).and(MAX_UNSIGNED_LONG);
+        }
+    }
+
+    static final class BoolItemNode extends StructItemNode {
+        @Child private CastToBooleanNode castToBooleanNode = CastToBooleanNode.createIfTrueNode();
+
+        @Override
+        void pack(Object value, ByteBuffer buffer, int offset, int size) {
+            putInteger(buffer, offset, 1, castToBooleanNode.executeWith(value) ? 1 : 0);
+        }
+
+        @Override
+        Object unpack(ByteBuffer buffer, int offset, int size) {
+            return getInteger(buffer, offset, 1) != 0;
+        }
+    }
+
+    static final class CharItemNode extends StructItemNode {
+        @Child private BytesNodes.ToBytesNode toBytesNode;
+
+        @Override
+        void pack(Object value, ByteBuffer buffer, int offset, int size) {
+            if (value instanceof PBytes || value instanceof PByteArray) {
+                if (toBytesNode == null) {
+                    CompilerDirectives.transferToInterpreterAndInvalidate();
+                    toBytesNode = insert(BytesNodes.ToBytesNode.create());
+                }
+                byte[] bytes = toBytesNode.execute(value);
+                if (bytes.length == 1) {
+                    putInteger(buffer, offset, 1, bytes[0]);
+                    return;
+                }
+            }
+            throw raiseStructError(this, "char format requires a bytes object of length 1");
+        }
+
+        @Override
+        Object unpack(ByteBuffer buffer, int offset, int size) {
+            return factory().createBytes(new byte[]{(byte) getInteger(buffer, offset, 1)});
+        }
+    }
+
+    /**
+     * The {@code s} and {@code p} fields, which are truncated or padded with zeros to the field
+     * length. A Pascal string stores its length, which is at most 255, in the first byte.
+     */
+    static final class StringItemNode extends StructItemNode {
+        private final boolean pascal;
+        @Child private BytesNodes.ToBytesNode toBytesNode;
+
+        StringItemNode(boolean pascal) {
+            this.pascal = pascal;
+        }
+
+        @Override
+        void pack(Object value, ByteBuffer buffer, int offset, int size) {
+            if (!(value instanceof PBytes || value instanceof PByteArray)) {
+                throw raiseStructError(this, "argument for '%s' must be a bytes object", pascal ? "p" : "s");
+            }
+            if (toBytesNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                toBytesNode = insert(BytesNodes.ToBytesNode.create());
+            }
+            byte[] bytes = toBytesNode.execute(value);
+            if (pascal) {
+                if (size == 0) {
+                    return;
+                }
+                int n = Math.min(Math.min(bytes.length, size - 1), 255);
+                putInteger(buffer, offset, 1, n);
+                putBytes(buffer, offset + 1, bytes, n, size - 1);
+            } else {
+                putBytes(buffer, offset, bytes, Math.min(bytes.length, size), size);
+            }
+        }
+
+        @Override
+        Object unpack(ByteBuffer buffer, int offset, int size) {
+            if (pascal) {
+                if (size == 0) {
+                    return factory().createBytes(new byte[0]);
+                }
+                int n = Math.min((int) getInteger(buffer, offset, 1) & 0xff, size - 1);
+                return factory().createBytes(getBytes(buffer, offset + 1, n));
+            }
+            return factory().createBytes(getBytes(buffer, offset, size));
+        }
+    }
+
+    /**
+     * The {@code e}, {@code f} and {@code d} values, which are 2, 4 and 8 bytes long.
+     */
+    static final class FloatItemNode extends StructItemNode {
+        @Child private LookupAndCallUnaryNode floatNode;
+
+        @Override
+        void pack(Object value, ByteBuffer buffer, int offset, int size) {
+            double d = asDouble(value);
+            if (size == 8) {
+                putDouble(buffer, offset, d);
+            } else if (size == 4) {
+                float f = (float) d;
+                if (Float.isInfinite(f) && !Double.isInfinite(d)) {
+                    throw raise(OverflowError, "float too large to pack with f format");
+                }
+                putFloat(buffer, offset, f);
+            } else {
+                int bits = packHalf(d);
+                if (bits < 0) {
+                    throw raise(OverflowError, "float too large to pack with e format");
+                }
+                putInteger(buffer, offset, 2, bits);
+            }
+        }
+
+        private double asDouble(Object value) {
+            if (value instanceof Double) {
+                return (double) value;
+            } else if (value instanceof PFloat) {
+                return ((PFloat) value).getValue();
+            } else if (value instanceof Integer) {
+                return (int) value;
+            } else if (value instanceof Long) {
+                return (long) value;
+            } else if (value instanceof Boolean) {
+                return (boolean) value ? 1.0 : 0.0;
+            } else if (value instanceof PInt) {
+                return ((PInt) value).doubleValue();
+            }
+            if (floatNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                floatNode = insert(LookupAndCallUnaryNode.create(__FLOAT__));
+            }
+            Object result = floatNode.executeObject(value);
+            if (result instanceof Double) {
+                return (double) result;
+            } else if (result instanceof PFloat) {
+                return ((PFloat) result).getValue();
+            }
+            throw raiseStructError(this, "required argument is not a float");
+        }
+
+        @TruffleBoundary(allowInlining = true)
+        private static void putDouble(ByteBuffer buffer, int offset, double d) {
+            buffer.putDouble(offset, d);
+        }
+
+        @TruffleBoundary(allowInlining = true)
+        private static void putFloat(ByteBuffer buffer, int offset, float f) {
+            buffer.putFloat(offset, f);
+        }
+
+        @Override
+        Object unpack(ByteBuffer buffer, int offset, int size) {
+            return getFloat(buffer, offset, size);
+        }
+    }
+
+    /**
+     * Packs and unpacks one format with a node per value, so that every value is converted by a
+     * node that only sees one position of the format.
+     */
+    static final class CompiledFormatNode extends PNodeWithContext {
+        private final StructFormat format;
+        @Children private final StructItemNode[] items;
+
+        private CompiledFormatNode(StructFormat format) {
+            this.format = format;
+            this.items = new StructItemNode[format.getLength()];
+            for (int i = 0; i < items.length; i++) {
+                items[i] = StructItemNode.create(format.getCode(i));
+            }
+        }
+
+        @ExplodeLoop
+        void pack(Object[] args, ByteBuffer buffer, int offset) {
+            for (int i = 0; i < items.length; i++) {
+                items[i].pack(args[i], buffer, offset + format.getOffset(i), format.getItemSize(i));
+            }
+        }
+
+        @ExplodeLoop
+        Object[] unpack(ByteBuffer buffer, int offset) {
+            Object[] result = new Object[items.length];
+            for (int i = 0; i < items.length; i++) {
+                result[i] = items[i].unpack(buffer, offset + format.getOffset(i), format.getItemSize(i));
+            }
+            return result;
+        }
+
+        static CompiledFormatNode create(StructFormat format) {
+            return new CompiledFormatNode(format);
+        }
+    }
+
+    /**
+     * Packs and unpacks any format with one node per kind of value.
+     */
+    static final class GenericFormatNode extends PNodeWithContext {
+        @Child private StructItemNode signedNode;
+        @Child private StructItemNode unsignedNode;
+        @Child private StructItemNode boolNode;
+        @Child private StructItemNode charNode;
+        @Child private StructItemNode stringNode;
+        @Child private StructItemNode pascalNode;
+        @Child private StructItemNode floatNode;
+
+        void pack(StructFormat format, Object[] args, ByteBuffer buffer, int offset) {
+            for (int i = 0; i < format.getLength(); i++) {
+                getItemNode(format.getCode(i)).pack(args[i], buffer, offset + format.getOffset(i), format.getItemSize(i));
+            }
+        }
+
+        Object[] unpack(StructFormat format, ByteBuffer buffer, int offset) {
+            Object[] result = new Object[format.getLength()];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = getItemNode(format.getCode(i)).unpack(buffer, offset + format.getOffset(i), format.getItemSize(i));
+            }
+            return result;
+        }
+
+        private StructItemNode getItemNode(char code) {
+            switch (code) {
+                case 'b':
+                case 'h':
+                case 'i':
+                case 'l':
+                case 'q':
+                case 'n':
+                    if (signedNode == null) {
+                        CompilerDirectives.transferToInterpreterAndInvalidate();
+                        signedNode = insert(StructItemNode.create(code));
+                    }
+                    return signedNode;
+                case 'B':
+                case 'H':
+                case 'I':
+                case 'L':
+                case 'Q':
+                case 'N':
+                case 'P':
+                    if (unsignedNode == null) {
+                        CompilerDirectives.transferToInterpreterAndInvalidate();
+                        unsignedNode = insert(StructItemNode.create(code));
+                    }
+                    return unsignedNode;
+                case '?':
+                    if (boolNode == null) {
+                        CompilerDirectives.transferToInterpreterAndInvalidate();
+                        boolNode = insert(StructItemNode.create(code));
+                    }
+                    return boolNode;
+                case 'c':
+                    if (charNode == null) {
+                        CompilerDirectives.transferToInterpreterAndInvalidate();
+                        charNode = insert(StructItemNode.create(code));
+                    }
+                    return charNode;
+                case 's':
+                    if (stringNode == null) {
+                        CompilerDirectives.transferToInterpreterAndInvalidate();
+                        stringNode = insert(StructItemNode.create(code));
+                    }
+                    return stringNode;
+                case 'p':
+                    if (pascalNode == null) {
+                        CompilerDirectives.transferToInterpreterAndInvalidate();
+                        pascalNode = insert(StructItemNode.create(code));
+                    }
+                    return pascalNode;
+                default:
+                    if (floatNode == null) {
+                        CompilerDirectives.transferToInterpreterAndInvalidate();
+                        floatNode = insert(StructItemNode.create(code));
+                    }
+                    return floatNode;
+            }
+        }
+
+        static GenericFormatNode create() {
+            return new GenericFormatNode();
+        }
+    }
+
+    /**
+     * Packs the values into a buffer whose byte order is that of the format. The caller checks the
+     * number of values and the size of the buffer.
+     */
+    public abstract static class PackNode extends PNodeWithContext {
+        public abstract void execute(StructFormat format, Object[] args, ByteBuffer buffer, int offset);
+
+        @Specialization(guards = {"format == cachedFormat", "isCompiled(cachedFormat)"}, limit = "3")
+        void doCached(@SuppressWarnings("unused") StructFormat format, Object[] args, ByteBuffer buffer, int offset,
+                        @SuppressWarnings("unused") @Cached("format") StructFormat cachedFormat,
+                        @Cached("create(cachedFormat)") CompiledFormatNode formatNode) {
+            formatNode.pack(args, buffer, offset);
+        }
+
+        @Specialization(replaces = "doCached")
+        void doGeneric(StructFormat format, Object[] args, ByteBuffer buffer, int offset,
+                        @Cached("create()") GenericFormatNode formatNode) {
+            formatNode.pack(format, args, buffer, offset);
+        }
+
+        protected static boolean isCompiled(StructFormat format) {
+            return format.getLength() <= MAX_COMPILED_LENGTH;
+        }
+
+        public static PackNode create() {
+            return StructNodesFactory.PackNodeGen.create();
+        }
+    }
+
+    /**
+     * Unpacks the values from a buffer whose byte order is that of the format. The caller checks
+     * the size of the buffer.
+     */
+    public abstract static class UnpackNode extends PNodeWithContext {
+        public abstract Object[] execute(StructFormat format, ByteBuffer buffer, int offset);
+
+        @Specialization(guards = {"format == cachedFormat", "isCompiled(cachedFormat)"}, limit = "3")
+        Object[] doCached(@SuppressWarnings("unused") StructFormat format, ByteBuffer buffer, int offset,
+                        @SuppressWarnings("unused") @Cached("format") StructFormat cachedFormat,
+                        @Cached("create(cachedFormat)") CompiledFormatNode formatNode) {
+            return formatNode.unpack(buffer, offset);
+        }
+
+        @Specialization(replaces = "doCached")
+        Object[] doGeneric(StructFormat format, ByteBuffer buffer, int offset,
+                        @Cached("create()") GenericFormatNode formatNode) {
+            return formatNode.unpack(format, buffer, offset);
+        }
+
+        protected static boolean isCompiled(StructFormat format) {
+            return format.getLength() <= MAX_COMPILED_LENGTH;
+        }
+
+        public static UnpackNode create() {
+            return StructNodesFactory.UnpackNodeGen.create();
+        }
+    }
+
+    /**
+     * Returns the compiled format for a format string, which is looked up once per call site for
+     * constant format strings.
+     */
+    public abstract static class GetFormatNode extends PNodeWithContext {
+        public abstract StructFormat execute(Object format);
+
+        @Specialization(guards = "format.equals(cachedString)", limit = "3")
+        StructFormat doCached(@SuppressWarnings("unused") String format,
+                        @SuppressWarnings("unused") @Cached("format") String cachedString,
+                        @Cached("lookup(format)") StructFormat cachedFormat) {
+            return cachedFormat;
+        }
+
+        @Specialization(replaces = "doCached")
+        StructFormat doString(String format) {
+            return lookup(format);
+        }
+
+        @Specialization
+        StructFormat doPString(PString format) {
+            return lookup(format.getValue());
+        }
+
+        @Specialization
+        StructFormat doBytes(PBytes format,
+                        @Cached("create()") BytesNodes.ToBytesNode toBytesNode) {
+            return lookup(decodeASCII(toBytesNode.execute(format)));
+        }
+
+        @Fallback
+        StructFormat doGeneric(Object format) {
+            throw raise(TypeError, "Struct() argument 1 must be a str or bytes object, not %p", format);
+        }
+
+        protected StructFormat lookup(String format) {
+            try {
+                return StructFormat.lookup(format);
+            } catch (StructError e) {
+                throw raiseStructError(this, getMessage(e));
+            }
+        }
+
+        @TruffleBoundary
+        private static String decodeASCII(byte[] bytes) {
+            return new String(bytes, StandardCharsets.ISO_8859_1);
+        }
+
+        public static GetFormatNode create() {
+            return StructNodesFactory.GetFormatNodeGen.create();
+        }
+    }
+
+    /**
+     * Returns a buffer over the contents of a bytes-like object in the byte order of a format.
+     * Bytes, bytearrays and memory maps are read in place, other objects are copied.
+     */
+    public abstract static class GetReadBufferNode extends PNodeWithContext {
+        @Child private BytesNodes.ToBytesNode toBytesNode;
+
+        public abstract ByteBuffer execute(Object buffer, ByteOrder order);
+
+        @Specialization(guards = "isByteStorage(bytes)")
+        ByteBuffer doBytes(PBytes bytes, ByteOrder order) {
+            ByteSequenceStorage storage = (ByteSequenceStorage) bytes.getSequenceStorage();
+            return wrap(storage.getInternalByteArray(), storage.length(), order);
+        }
+
+        @Specialization(guards = "isByteStorage(bytes)")
+        ByteBuffer doByteArray(PByteArray bytes, ByteOrder order) {
+            ByteSequenceStorage storage = (ByteSequenceStorage) bytes.getSequenceStorage();
+            return wrap(storage.getInternalByteArray(), storage.length(), order);
+        }
+
+        @Specialization(guards = "mmap.isMapped()")
+        ByteBuffer doMMap(PMMap mmap, ByteOrder order) {
+            MappedChannel channel = mmap.getMappedChannel();
+            if (!channel.isOpen()) {
+                throw raise(ValueError, "mmap closed or invalid");
+            }
+            return order(channel.view(), order);
+        }
+
+        @Fallback
+        ByteBuffer doGeneric(Object buffer, ByteOrder order) {
+            if (toBytesNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                toBytesNode = insert(BytesNodes.ToBytesNode.create());
+            }
+            byte[] bytes = toBytesNode.execute(buffer);
+            return wrap(bytes, bytes.length, order);
+        }
+
+        protected static boolean isByteStorage(PIBytesLike bytes) {
+            return bytes.getSequenceStorage() instanceof ByteSequenceStorage;
+        }
+
+        public static GetReadBufferNode create() {
+            return StructNodesFactory.GetReadBufferNodeGen.create();
+        }
+    }
+
+    /**
+     * Implements {@code pack}, which returns the packed values as bytes.
+     */
+    public static final class PackToBytesNode extends PNodeWithContext {
+        @Child private PackNode packNode = PackNode.create();
+
+        public PBytes execute(StructFormat format, Object[] args) {
+            checkArgumentCount(this, "pack", format, args);
+            byte[] bytes = new byte[format.getSize()];
+            packNode.execute(format, args, wrap(bytes, bytes.length, format.getOrder()), 0);
+            return factory().createBytes(bytes);
+        }
+
+        public static PackToBytesNode create() {
+            return new PackToBytesNode();
+        }
+    }
+
+    /**
+     * Implements {@code unpack}, which requires a buffer of exactly the size of the format.
+     */
+    public static final class UnpackBufferNode extends PNodeWithContext {
+        @Child private GetReadBufferNode getBufferNode = GetReadBufferNode.create();
+        @Child private UnpackNode unpackNode = UnpackNode.create();
+
+        public PTuple execute(StructFormat format, Object buffer) {
+            ByteBuffer byteBuffer = getBufferNode.execute(buffer, format.getOrder());
+            if (capacity(byteBuffer) != format.getSize()) {
+                throw raiseStructError(this, "unpack requires a buffer of %d bytes", format.getSize());
+            }
+            return factory().createTuple(unpackNode.execute(format, byteBuffer, 0));
+        }
+
+        public static UnpackBufferNode create() {
+            return new UnpackBufferNode();
+        }
+    }
+
+    /**
+     * Implements {@code iter_unpack}, which returns an iterator over the chunks of a buffer whose
+     * size is a multiple of the size of the format.
+     */
+    public static final class IterUnpackNode extends PNodeWithContext {
+        @Child private GetReadBufferNode getBufferNode = GetReadBufferNode.create();
+
+        public PStructUnpackIterator execute(StructFormat format, Object buffer) {
+            if (format.getSize() == 0) {
+                throw raiseStructError(this, "cannot iteratively unpack with a struct of length 0");
+            }
+            ByteBuffer byteBuffer = getBufferNode.execute(buffer, format.getOrder());
+            int length = capacity(byteBuffer);
+            if (length % format.getSize() != 0) {
+                throw raiseStructError(this, "iterative unpacking requires a buffer of a multiple of %d bytes", format.getSize());
+            }
+            return factory().createStructUnpackIterator(format, byteBuffer, length);
+        }
+
+        public static IterUnpackNode create() {
+            return new IterUnpackNode();
+        }
+    }
+
+    /**
+     * Implements {@code unpack_from}, which reads the values at an offset of a buffer that may be
+     * longer than the format.
+     */
+    public static final class UnpackFromNode extends PNodeWithContext {
+        @Child private GetReadBufferNode getBufferNode = GetReadBufferNode.create();
+        @Child private UnpackNode unpackNode = UnpackNode.create();
+
+        public PTuple execute(StructFormat format, Object buffer, int offset) {
+            ByteBuffer byteBuffer = getBufferNode.execute(buffer, format.getOrder());
+            int length = capacity(byteBuffer);
+            int size = format.getSize();
+            int start = offset;
+            if (start < 0) {
+                if (start + length < 0) {
+                    throw raiseStructError(this, "offset %d out of range for %d-byte buffer", start, length);
+                }
+                start += length;
+            }
+            if (length - start < size) {
+                throw raiseStructError(this, "unpack_from requires a buffer of at least %d bytes for unpacking %d bytes at offset %d (actual buffer size is %d)", (long) size + start, size, start,
+                                length);
+            }
+            return factory().createTuple(unpackNode.execute(format, byteBuffer, start));
+        }
+
+        public static UnpackFromNode create() {
+            return new UnpackFromNode();
+        }
+    }
+
+    /**
+     * Implements {@code pack_into}, which writes the values directly into a bytearray or a
+     * writable memory map. Memory views are written with a slice assignment of the packed bytes.
+     */
+    @ImportStatic(SpecialMethodNames.class)
+    public abstract static class PackIntoNode extends PNodeWithContext {
+        @Child private PackNode packNode = PackNode.create();
+
+        public abstract void execute(StructFormat format, Object buffer, int offset, Object[] args);
+
+        @Specialization(guards = "isByteStorage(bytes)")
+        void doByteArray(StructFormat format, PByteArray bytes, int offset, Object[] args) {
+            ByteSequenceStorage storage = (ByteSequenceStorage) bytes.getSequenceStorage();
+            int start = checkOffset(format, offset, storage.length());
+            packNode.execute(format, args, wrap(storage.getInternalByteArray(), storage.length(), format.getOrder()), start);
+        }
+
+        @Specialization(guards = "mmap.isMapped()")
+        void doMMap(StructFormat format, PMMap mmap, int offset, Object[] args) {
+            MappedChannel channel = mmap.getMappedChannel();
+            if (!channel.isOpen()) {
+                throw raise(ValueError, "mmap closed or invalid");
+            } else if (channel.isReadOnly()) {
+                throw raise(TypeError, "mmap can't modify a readonly memory map.");
+            }
+            int start = checkOffset(format, offset, channel.getSize());
+            packNode.execute(format, args, order(channel.view(), format.getOrder()), start);
+        }
+
+        @Specialization
+        void doMemoryView(StructFormat format, PMemoryView view, int offset, Object[] args,
+                        @Cached("create(__LEN__)") LookupAndCallUnaryNode lenNode,
+                        @Cached("create()") CastToIndexNode castToIndexNode,
+                        @Cached("create(__SETITEM__)") LookupAndCallTernaryNode setItemNode) {
+            int start = checkOffset(format, offset, castToIndexNode.execute(lenNode.executeObject(view)));
+            byte[] bytes = new byte[format.getSize()];
+            packNode.execute(format, args, wrap(bytes, bytes.length, format.getOrder()), 0);
+            setItemNode.execute(view, factory().createSlice(start, start + bytes.length, 1), factory().createBytes(bytes));
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        void doError(StructFormat format, Object buffer, int offset, Object[] args) {
+            throw raise(TypeError, "argument must be read-write bytes-like object, not %p", buffer);
+        }
+
+        private int checkOffset(StructFormat format, int offset, int length) {
+            int size = format.getSize();
+            int start = offset;
+            if (start < 0) {
+                if (start + size > 0) {
+                    throw raiseStructError(this, "no space to pack %d bytes at offset %d", size, start);
+                } else if (start + length < 0) {
+                    throw raiseStructError(this, "offset %d out of range for %d-byte buffer", start, length);
+                }
+                start += length;
+            }
+            if (length - start < size) {
+                throw raiseStructError(this, "pack_into requires a buffer of at least %d bytes for packing %d bytes at offset %d (actual buffer size is %d)", (long) size + start, size, start, length);
+            }
+            return start;
+        }
+
+        protected static boolean isByteStorage(PIBytesLike bytes) {
+            return bytes.getSequenceStorage() instanceof ByteSequenceStorage;
+        }
+
+        public static PackIntoNode create() {
+            return StructNodesFactory.PackIntoNodeGen.create();
+        }
+    }
+
+    public static void checkArgumentCount(PNodeWithContext node, String name, StructFormat format, Object[] args) {
+        if (args.length != format.getLength()) {
+            throw raiseStructError(node, "%s expected %d items for packing (got %d)", name, format.getLength(), args.length);
+        }
+    }
+}
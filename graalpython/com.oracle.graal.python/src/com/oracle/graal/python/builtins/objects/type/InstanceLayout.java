@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.type;
+
+import java.util.ArrayList;
+
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.nodes.ExplodeLoop;
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.object.FinalLocationException;
+import com.oracle.truffle.api.object.IncompatibleLocationException;
+import com.oracle.truffle.api.object.Location;
+import com.oracle.truffle.api.object.ObjectType;
+import com.oracle.truffle.api.object.Property;
+import com.oracle.truffle.api.object.Shape;
+
+/**
+ * The shape new instances of a managed class are allocated in. Besides the base instance shape, it
+ * contains the slots of the class and the attributes that instances had at the end of
+ * {@code __init__}, each in an untyped object location. Assigning these attributes then writes to
+ * an existing location instead of going through one shape transition per attribute and growing
+ * the extension arrays. Until they are assigned, the attributes hold {@link PNone#NO_VALUE}, which
+ * reads as unset just like a deleted attribute.
+ *
+ * The order of the attributes in {@code __dict__} is the order of the shape, so the predicted
+ * attributes must be assigned in the recorded order for it to match the insertion order. Adding an
+ * attribute while a predicted attribute before it is still unset removes the unset attributes from
+ * the object, so that they are appended when they are assigned, and makes the class stop
+ * predicting the attributes from that point on.
+ */
+public final class InstanceLayout {
+    private final PythonManagedClass owner;
+    private final Shape shape;
+    private final Object[] keys;
+    /** The predicted attributes with a name, in the order they are expected to be assigned. */
+    private final String[] names;
+    @CompilationFinal(dimensions = 1) private final Location[] locations;
+
+    /** The object type of all shapes derived from the shape of a layout. */
+    private static final class LayoutType extends ObjectType {
+        private final InstanceLayout layout;
+
+        LayoutType(InstanceLayout layout) {
+            this.layout = layout;
+        }
+    }
+
+    @TruffleBoundary
+    InstanceLayout(PythonManagedClass owner, Shape baseShape, Object[] keys) {
+        this.owner = owner;
+        Shape s = baseShape.changeType(new LayoutType(this));
+        ArrayList<String> namedKeys = new ArrayList<>();
+        for (Object key : keys) {
+            assert !s.hasProperty(key);
+            s = s.addProperty(Property.create(key, s.allocator().locationForType(Object.class), 0));
+            if (key instanceof String) {
+                namedKeys.add((String) key);
+            }
+        }
+        this.shape = s;
+        this.keys = keys;
+        this.names = namedKeys.toArray(new String[namedKeys.size()]);
+        this.locations = new Location[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            locations[i] = s.getProperty(keys[i]).getLocation();
+        }
+    }
+
+    public Shape getShape() {
+        return shape;
+    }
+
+    Object[] getKeys() {
+        return keys;
+    }
+
+    boolean isValid() {
+        return shape.isValid();
+    }
+
+    /**
+     * Marks all attributes of a freshly allocated storage as unset.
+     */
+    @ExplodeLoop
+    public void initialize(DynamicObject storage) {
+        assert storage.getShape() == shape;
+        for (int i = 0; i < locations.length; i++) {
+            try {
+                locations[i].set(storage, PNone.NO_VALUE);
+            } catch (IncompatibleLocationException | FinalLocationException e) {
+                CompilerDirectives.transferToInterpreter();
+                // cannot happen for untyped object locations
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /**
+     * Returns whether {@code shape} is the shape of an object allocated in a layout, which may
+     * contain attributes that are not assigned yet.
+     */
+    public static boolean isLayoutShape(Shape shape) {
+        return shape.getObjectType() instanceof LayoutType;
+    }
+
+    /**
+     * Returns the location that must already hold a value when attribute {@code key} is added to
+     * an object of {@code shape}, or {@code null} if adding it cannot break the insertion order.
+     * For a predicted attribute, this is the location of the predicted attribute before it,
+     * otherwise it is the location of the last predicted attribute.
+     */
+    @TruffleBoundary
+    public static Location getPrecedingLocation(Shape shape, Object key) {
+        ObjectType type = shape.getObjectType();
+        if (!(type instanceof LayoutType) || !(key instanceof String)) {
+            return null;
+        }
+        String[] names = ((LayoutType) type).layout.names;
+        int end = names.length;
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(key)) {
+                end = i;
+                break;
+            }
+        }
+        for (int i = end - 1; i >= 0; i--) {
+            Property property = shape.getProperty(names[i]);
+            if (property != null) {
+                return property.getLocation();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Must be called before attribute {@code key} is written to {@code storage} if the write does
+     * not check the {@link #getPrecedingLocation preceding location} itself.
+     */
+    @TruffleBoundary
+    public static void ensureInsertionOrder(DynamicObject storage, Object key) {
+        Shape shape = storage.getShape();
+        if (shape.getObjectType() instanceof LayoutType && storage.get(key, PNone.NO_VALUE) == PNone.NO_VALUE) {
+            Location preceding = getPrecedingLocation(shape, key);
+            if (preceding != null && preceding.get(storage, shape) == PNone.NO_VALUE) {
+                restoreInsertionOrder(storage);
+            }
+        }
+    }
+
+    /**
+     * Called when an attribute is added to {@code storage} while a predicted attribute before it
+     * is still unset. Removes the unset predicted attributes from the object and stops predicting
+     * the attributes after those that were assigned in order.
+     */
+    @TruffleBoundary
+    public static void restoreInsertionOrder(DynamicObject storage) {
+        InstanceLayout layout = ((LayoutType) storage.getShape().getObjectType()).layout;
+        int assigned = 0;
+        boolean inOrder = true;
+        for (String name : layout.names) {
+            if (!storage.containsKey(name)) {
+                inOrder = false;
+            } else if (storage.get(name) == PNone.NO_VALUE) {
+                storage.delete(name);
+                inOrder = false;
+            } else if (inOrder) {
+                assigned++;
+            }
+        }
+        storage.updateShape();
+        layout.owner.stopPredictingAttributes(assigned);
+    }
+}
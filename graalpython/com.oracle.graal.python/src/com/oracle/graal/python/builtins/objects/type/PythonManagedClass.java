@@ -29,7 +29,10 @@ import static com.oracle.graal.python.nodes.SpecialAttributeNames.__DOC__;
 import static com.oracle.graal.python.nodes.SpecialAttributeNames.__NAME__;
 import static com.oracle.graal.python.nodes.SpecialAttributeNames.__QUALNAME__;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.Set;
 import java.util.WeakHashMap;
 
@@ -45,7 +48,10 @@ import com.oracle.truffle.api.Assumption;
 import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.object.HiddenKey;
+import com.oracle.truffle.api.object.Property;
 import com.oracle.truffle.api.object.Shape;
+import com.oracle.truffle.api.utilities.CyclicAssumption;
 
 public abstract class PythonManagedClass extends PythonObject implements PythonAbstractClass {
 
@@ -59,6 +65,13 @@ public abstract class PythonManagedClass extends PythonObject implements PythonA
     private final Shape instanceShape;
     private final FlagsContainer flags;
 
+    /** The hidden keys of the {@code __slots__} of this class and its bases. */
+    private HiddenKey[] slotKeys;
+    /** The attributes an instance had at the end of {@code __init__}, once recorded. */
+    private Object[] recordedKeys;
+    private InstanceLayout instanceLayout;
+    private final CyclicAssumption instanceLayoutStable;
+
     /** {@code true} if the MRO contains a native class. */
     private boolean needsNativeAllocation;
     @CompilationFinal private Object sulongType;
@@ -77,10 +90,12 @@ public abstract class PythonManagedClass extends PythonObject implements PythonA
         }
 
         this.flags = new FlagsContainer(getSuperClass());
+        this.instanceLayoutStable = new CyclicAssumption(name);
 
         // Compute MRO
         this.methodResolutionOrder.setInternalArrayObject(ComputeMroNode.doSlowPath(this));
         computeNeedsNativeAllocation();
+        this.slotKeys = collectSlotKeys(new HiddenKey[0]);
 
         setAttribute(__NAME__, getBaseName(name));
         setAttribute(__QUALNAME__, className);
@@ -118,6 +133,99 @@ public abstract class PythonManagedClass extends PythonObject implements PythonA
         return instanceShape;
     }
 
+    public Assumption getInstanceLayoutStableAssumption() {
+        return instanceLayoutStable.getAssumption();
+    }
+
+    /**
+     * Returns the layout new instances are allocated in. It only changes when the slots are set or
+     * the attributes after {@code __init__} are recorded, which invalidates
+     * {@link #getInstanceLayoutStableAssumption()}.
+     */
+    @TruffleBoundary
+    public InstanceLayout getInstanceLayout() {
+        InstanceLayout layout = instanceLayout;
+        if (layout == null || !layout.isValid()) {
+            LinkedHashSet<Object> keys = new LinkedHashSet<>();
+            Collections.addAll(keys, slotKeys);
+            if (recordedKeys != null) {
+                Collections.addAll(keys, recordedKeys);
+            }
+            layout = new InstanceLayout(this, instanceShape, keys.toArray());
+            instanceLayout = layout;
+        }
+        return layout;
+    }
+
+    /**
+     * Sets the hidden keys of the {@code __slots__} defined by this class. Instances are allocated
+     * with a location for each slot of the class and its bases.
+     */
+    @TruffleBoundary
+    public void setSlotKeys(HiddenKey[] ownSlotKeys) {
+        slotKeys = collectSlotKeys(ownSlotKeys);
+        instanceLayoutChanged();
+    }
+
+    private HiddenKey[] collectSlotKeys(HiddenKey[] ownSlotKeys) {
+        LinkedHashSet<HiddenKey> keys = new LinkedHashSet<>();
+        for (PythonAbstractClass cls : getMethodResolutionOrder().getInternalClassArray()) {
+            if (cls != this && cls instanceof PythonManagedClass) {
+                Collections.addAll(keys, ((PythonManagedClass) cls).slotKeys);
+            }
+        }
+        Collections.addAll(keys, ownSlotKeys);
+        return keys.toArray(new HiddenKey[keys.size()]);
+    }
+
+    public boolean isInstanceShapeRecorded() {
+        return recordedKeys != null;
+    }
+
+    /**
+     * Records the shape an instance of this class had at the end of {@code __init__}, so that
+     * further instances are allocated with its attributes already in place. Only the first shape is
+     * recorded to keep the layout stable. Only attributes with a name are recorded, up to the first
+     * one stored in a primitive location, since a location for an unset attribute must be able to
+     * hold {@link PNone#NO_VALUE} and leaving one out would change the order of the others.
+     */
+    @TruffleBoundary
+    public void recordInstanceShape(Shape shape) {
+        if (recordedKeys != null) {
+            return;
+        }
+        ArrayList<Object> keys = new ArrayList<>();
+        for (Property property : shape.getPropertyList()) {
+            if (property.getKey() instanceof String) {
+                if (!property.getLocation().canStore(PNone.NO_VALUE)) {
+                    break;
+                }
+                keys.add(property.getKey());
+            }
+        }
+        recordedKeys = keys.toArray();
+        if (recordedKeys.length > 0) {
+            instanceLayoutChanged();
+        }
+    }
+
+    /**
+     * Called when an instance did not assign the recorded attributes in order. Only the first
+     * {@code count} attributes, which it did assign in order, are predicted from now on.
+     */
+    @TruffleBoundary
+    void stopPredictingAttributes(int count) {
+        if (recordedKeys != null && count < recordedKeys.length) {
+            recordedKeys = Arrays.copyOf(recordedKeys, count);
+            instanceLayoutChanged();
+        }
+    }
+
+    private void instanceLayoutChanged() {
+        instanceLayout = null;
+        instanceLayoutStable.invalidate();
+    }
+
     PythonAbstractClass getSuperClass() {
         return getBaseClasses().length > 0 ? getBaseClasses()[0] : null;
     }
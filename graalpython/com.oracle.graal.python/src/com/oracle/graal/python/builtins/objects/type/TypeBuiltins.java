@@ -278,6 +278,7 @@ public class TypeBuiltins extends PythonBuiltins {
                             if (initResult != PNone.NONE && initResult != PNone.NO_VALUE) {
                                 throw raise(TypeError, "__init__() should return None");
                             }
+                            recordInstanceShape(newInstanceKlass, newInstance);
                         }
                     }
                 }
@@ -287,6 +288,15 @@ public class TypeBuiltins extends PythonBuiltins {
             }
         }
 
+        private static void recordInstanceShape(PythonAbstractClass klass, Object instance) {
+            if (klass instanceof PythonClass && instance instanceof PythonObject) {
+                PythonManagedClass managedClass = (PythonManagedClass) klass;
+                if (!managedClass.isInstanceShapeRecorded()) {
+                    managedClass.recordInstanceShape(((PythonObject) instance).getStorage().getShape());
+                }
+            }
+        }
+
         private boolean isSameType(PythonAbstractClass left, PythonAbstractClass right) {
             if (isSameTypeNode == null) {
                 CompilerDirectives.transferToInterpreterAndInvalidate();
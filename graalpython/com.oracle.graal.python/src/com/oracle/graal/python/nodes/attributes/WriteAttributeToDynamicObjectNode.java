@@ -40,6 +40,8 @@
  */
 package com.oracle.graal.python.nodes.attributes;
 
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.type.InstanceLayout;
 import com.oracle.graal.python.runtime.PythonOptions;
 import com.oracle.truffle.api.Assumption;
 import com.oracle.truffle.api.CompilerAsserts;
@@ -55,7 +57,7 @@ import com.oracle.truffle.api.object.IncompatibleLocationException;
 import com.oracle.truffle.api.object.Location;
 import com.oracle.truffle.api.object.Shape;
 
-@ImportStatic(PythonOptions.class)
+@ImportStatic({PythonOptions.class, InstanceLayout.class})
 @ReportPolymorphism
 public abstract class WriteAttributeToDynamicObjectNode extends ObjectAttributeNode {
 
@@ -101,7 +103,13 @@ public abstract class WriteAttributeToDynamicObjectNode extends ObjectAttributeN
                     @Cached("attrKey(cachedKey)") Object attrKey,
                     @Cached("dynamicObject.getShape()") Shape cachedShape,
                     @Cached("cachedShape.getValidAssumption()") Assumption layoutAssumption,
-                    @Cached("getLocationOrNull(cachedShape.getProperty(attrKey))") Location loc) {
+                    @Cached("getLocationOrNull(cachedShape.getProperty(attrKey))") Location loc,
+                    @Cached("getPrecedingLocation(cachedShape, attrKey)") Location precedingLoc) {
+        if (precedingLoc != null && loc.get(dynamicObject, cachedShape) == PNone.NO_VALUE && precedingLoc.get(dynamicObject, cachedShape) == PNone.NO_VALUE) {
+            // a predicted attribute is assigned out of order
+            CompilerDirectives.transferToInterpreter();
+            return doIndirect(dynamicObject, key, value);
+        }
         try {
             loc.set(dynamicObject, value);
         } catch (IncompatibleLocationException | FinalLocationException e) {
@@ -132,7 +140,13 @@ public abstract class WriteAttributeToDynamicObjectNode extends ObjectAttributeN
                     @Cached("getLocationOrNull(cachedShape.getProperty(attrKey))") Location loc,
                     @Cached("cachedShape.defineProperty(attrKey, value, 0)") Shape newShape,
                     @Cached("newShape.getValidAssumption()") Assumption newLayoutAssumption,
-                    @Cached("getLocationOrNull(newShape.getProperty(attrKey))") Location newLoc) {
+                    @Cached("getLocationOrNull(newShape.getProperty(attrKey))") Location newLoc,
+                    @Cached("getPrecedingLocation(cachedShape, attrKey)") Location precedingLoc) {
+        if (precedingLoc != null && precedingLoc.get(dynamicObject, cachedShape) == PNone.NO_VALUE) {
+            // an attribute is added before all predicted attributes are assigned
+            CompilerDirectives.transferToInterpreter();
+            return doIndirect(dynamicObject, key, value);
+        }
         try {
             newLoc.set(dynamicObject, value, cachedShape, newShape);
         } catch (IncompatibleLocationException e) {
@@ -150,6 +164,7 @@ public abstract class WriteAttributeToDynamicObjectNode extends ObjectAttributeN
     protected boolean doIndirect(DynamicObject dynamicObject, Object key, Object value) {
         Object attrKey = attrKey(key);
         CompilerAsserts.neverPartOfCompilation();
+        InstanceLayout.ensureInsertionOrder(dynamicObject, attrKey);
         dynamicObject.define(attrKey, value);
         return true;
     }
@@ -40,15 +40,21 @@
  */
 package com.oracle.graal.python.nodes.builtins;
 
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.OverflowError;
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
 
+import com.oracle.graal.python.builtins.objects.list.PList;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
 import com.oracle.graal.python.nodes.PGuards;
 import com.oracle.graal.python.nodes.PNodeWithContext;
 import com.oracle.graal.python.nodes.control.GetIteratorNode;
 import com.oracle.graal.python.nodes.control.GetNextNode;
+import com.oracle.graal.python.nodes.object.GetLazyClassNode;
 import com.oracle.graal.python.nodes.object.IsBuiltinClassProfile;
 import com.oracle.graal.python.nodes.truffle.PythonArithmeticTypes;
 import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.graal.python.runtime.sequence.PSequence;
+import com.oracle.graal.python.runtime.sequence.storage.ObjectSequenceStorage;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Fallback;
@@ -66,20 +72,73 @@ public abstract class JoinInternalNode extends PNodeWithContext {
     @Specialization
     @TruffleBoundary
     protected String join(String string, String arg) {
-        if (arg.isEmpty()) {
+        int length = arg.length();
+        if (length == 0) {
             return "";
         }
+        int sepLength = string.length();
+        char[] result = new char[checkLength(length + (long) (length - 1) * sepLength)];
+        result[0] = arg.charAt(0);
+        int pos = 1;
+        for (int i = 1; i < length; i++) {
+            string.getChars(0, sepLength, result, pos);
+            pos += sepLength;
+            result[pos++] = arg.charAt(i);
+        }
+        return new String(result);
+    }
 
-        StringBuilder sb = new StringBuilder();
-        char[] joinString = arg.toCharArray();
+    protected static boolean isBuiltinListOrTuple(Object iterable, GetLazyClassNode getClass) {
+        return (iterable instanceof PList || iterable instanceof PTuple) && PGuards.cannotBeOverridden(getClass.execute(iterable));
+    }
 
-        for (int i = 0; i < joinString.length - 1; i++) {
-            sb.append(Character.toString(joinString[i]));
-            sb.append(string);
+    protected static boolean isObjectStorage(PSequence sequence) {
+        return sequence.getSequenceStorage() instanceof ObjectSequenceStorage;
+    }
+
+    /**
+     * Joins the items of a list or tuple without an iterator. All items are checked and their
+     * lengths summed up first, so that the result is written into a single array of the final
+     * length.
+     */
+    @Specialization(guards = {"isBuiltinListOrTuple(sequence, getClass)", "isObjectStorage(sequence)"})
+    protected String join(String string, PSequence sequence,
+                    @Cached("create()") GetLazyClassNode getClass,
+                    @Cached("createBinaryProfile()") ConditionProfile errorProfile) {
+        ObjectSequenceStorage storage = (ObjectSequenceStorage) sequence.getSequenceStorage();
+        Object[] items = storage.getInternalArray();
+        String[] parts = new String[storage.length()];
+        long length = 0;
+        for (int i = 0; i < parts.length; i++) {
+            parts[i] = checkItem(items[i], i, errorProfile);
+            length += parts[i].length();
         }
+        return joinParts(string, parts, length);
+    }
 
-        sb.append(Character.toString(joinString[joinString.length - 1]));
-        return sb.toString();
+    @TruffleBoundary
+    private String joinParts(String string, String[] parts, long partsLength) {
+        if (parts.length == 0) {
+            return "";
+        }
+        int sepLength = string.length();
+        char[] result = new char[checkLength(partsLength + (long) (parts.length - 1) * sepLength)];
+        parts[0].getChars(0, parts[0].length(), result, 0);
+        int pos = parts[0].length();
+        for (int i = 1; i < parts.length; i++) {
+            string.getChars(0, sepLength, result, pos);
+            pos += sepLength;
+            parts[i].getChars(0, parts[i].length(), result, pos);
+            pos += parts[i].length();
+        }
+        return new String(result);
+    }
+
+    private int checkLength(long length) {
+        if (length > Integer.MAX_VALUE) {
+            throw raise(OverflowError, "join() result is too long for a Python string");
+        }
+        return (int) length;
     }
 
     private String checkItem(Object item, int pos, ConditionProfile profile) {
@@ -47,10 +47,6 @@ public abstract class CallDispatchNode extends Node {
         return InvokeNode.create(callee);
     }
 
-    protected static InvokeNode createInvokeNode(PBuiltinFunction callee) {
-        return InvokeNode.create(callee);
-    }
-
     protected static CallTargetInvokeNode createCtInvokeNode(PFunction callee) {
         return CallTargetInvokeNode.create(callee);
     }
@@ -81,13 +77,8 @@ public abstract class CallDispatchNode extends Node {
         return invoke.execute(frame, arguments, keywords);
     }
 
-    @SuppressWarnings("unused")
-    @Specialization(guards = {"callee == cachedCallee"}, limit = "getCallSiteInlineCacheMaxDepth()", assumptions = "singleContextAssumption()")
-    protected Object callBuiltinFunctionCached(VirtualFrame frame, PBuiltinFunction callee, Object[] arguments, PKeyword[] keywords,
-                    @Cached("callee") PBuiltinFunction cachedCallee,
-                    @Cached("createInvokeNode(cachedCallee)") InvokeNode invoke) {
-        return invoke.execute(frame, arguments, keywords);
-    }
+    // The call targets of functions and builtins are shared by all contexts of the language, so
+    // the following caches stay monomorphic when the same code is called in many contexts.
 
     @SuppressWarnings("unused")
     @Specialization(guards = "callee.getCallTarget() == ct", limit = "getCallSiteInlineCacheMaxDepth()")
@@ -111,7 +102,7 @@ public abstract class CallDispatchNode extends Node {
         return invoke.execute(frame, callee, arguments, keywords);
     }
 
-    @Specialization(replaces = {"callBuiltinFunctionCached", "callBuiltinFunctionCachedCt"})
+    @Specialization(replaces = "callBuiltinFunctionCachedCt")
     protected Object callBuiltinFunctionUncached(VirtualFrame frame, PBuiltinFunction callee, Object[] arguments, PKeyword[] keywords,
                     @Cached("create()") GenericInvokeNode invoke) {
         return invoke.execute(frame, callee, arguments, keywords);
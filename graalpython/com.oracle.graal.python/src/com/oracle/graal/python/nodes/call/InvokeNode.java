@@ -155,7 +155,7 @@ abstract class CallTargetInvokeNode extends AbstractInvokeNode {
     protected CallTargetInvokeNode(CallTarget callTarget, Arity arity, boolean isBuiltin, boolean isGenerator) {
         this.callNode = Truffle.getRuntime().createDirectCallNode(callTarget);
         this.arity = arity;
-        if (isBuiltin) {
+        if (isBuiltin && PythonOptions.getEnableForcedSplits()) {
             callNode.cloneCallTarget();
         }
         if (isGenerator && shouldInlineGenerators()) {
@@ -25,9 +25,11 @@
  */
 package com.oracle.graal.python.nodes.control;
 
+import com.oracle.graal.python.builtins.objects.ints.PInt;
 import com.oracle.graal.python.builtins.objects.iterator.PDoubleIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PIntegerIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PLongIterator;
+import com.oracle.graal.python.builtins.objects.itertools.PIslice;
 import com.oracle.graal.python.nodes.PNodeWithContext;
 import com.oracle.graal.python.nodes.SpecialMethodNames;
 import com.oracle.graal.python.nodes.expression.ExpressionNode;
@@ -49,6 +51,7 @@ import com.oracle.truffle.api.frame.FrameSlotTypeException;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.nodes.NodeInfo;
 import com.oracle.truffle.api.nodes.RepeatingNode;
+import com.oracle.truffle.api.profiles.ConditionProfile;
 
 final class ForRepeatingNode extends PNodeWithContext implements RepeatingNode {
 
@@ -127,6 +130,25 @@ abstract class ForNextElementNode extends PNodeWithContext {
         return true;
     }
 
+    /*
+     * islice(count(), n) - the items are computed from the count directly.
+     */
+
+    @Specialization(guards = {"iterator.isCountSlice()", "iterator.canStepCount()"})
+    protected boolean doCountSlice(VirtualFrame frame, PIslice iterator,
+                    @Cached("createBinaryProfile()") ConditionProfile intProfile) {
+        if (!iterator.countHasNext()) {
+            return false;
+        }
+        long value = iterator.countNext();
+        if (intProfile.profile(PInt.isIntRange(value))) {
+            ((WriteNode) target).doWrite(frame, (int) value);
+        } else {
+            ((WriteNode) target).doWrite(frame, value);
+        }
+        return true;
+    }
+
     @Specialization
     protected boolean doIterator(VirtualFrame frame, Object object,
                     @Cached("create()") GetNextNode next,
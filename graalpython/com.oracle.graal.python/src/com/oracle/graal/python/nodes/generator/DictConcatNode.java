@@ -40,8 +40,9 @@
  */
 package com.oracle.graal.python.nodes.generator;
 
-import com.oracle.graal.python.builtins.objects.common.HashingStorage.Equivalence;
-import com.oracle.graal.python.builtins.objects.common.HashingStorageNodes.PythonEquivalence;
+import com.oracle.graal.python.builtins.objects.common.HashingStorage;
+import com.oracle.graal.python.builtins.objects.common.HashingStorage.DictEntry;
+import com.oracle.graal.python.builtins.objects.common.HashingStorageNodes.SetItemNode;
 import com.oracle.graal.python.builtins.objects.dict.PDict;
 import com.oracle.graal.python.nodes.expression.ExpressionNode;
 import com.oracle.truffle.api.CompilerDirectives;
@@ -51,14 +52,14 @@ import com.oracle.truffle.api.nodes.ExplodeLoop;
 public final class DictConcatNode extends ExpressionNode {
 
     @Children final ExpressionNode[] mappables;
-    @Child private Equivalence equivalenceNode;
+    @Child private SetItemNode setItemNode;
 
-    protected Equivalence getEquivalence() {
-        if (equivalenceNode == null) {
+    private SetItemNode getSetItemNode() {
+        if (setItemNode == null) {
             CompilerDirectives.transferToInterpreterAndInvalidate();
-            equivalenceNode = insert(new PythonEquivalence());
+            setItemNode = insert(SetItemNode.create());
         }
-        return equivalenceNode;
+        return setItemNode;
     }
 
     private DictConcatNode(ExpressionNode... mappablesNodes) {
@@ -75,12 +76,21 @@ public final class DictConcatNode extends ExpressionNode {
                 first = expectDict(n.execute(frame));
             } else {
                 other = expectDict(n.execute(frame));
-                first.getDictStorage().addAll(other.getDictStorage(), getEquivalence());
+                addAllToDict(first, other);
             }
         }
         return first;
     }
 
+    private void addAllToDict(PDict dict, PDict other) {
+        // the target storage may need to be generalized for the new keys
+        HashingStorage dictStorage = dict.getDictStorage();
+        for (DictEntry entry : other.getDictStorage().entries()) {
+            dictStorage = getSetItemNode().execute(dictStorage, entry.getKey(), entry.getValue());
+        }
+        dict.setDictStorage(dictStorage);
+    }
+
     private static PDict expectDict(Object first) {
         if (!(first instanceof PDict)) {
             CompilerDirectives.transferToInterpreter();
@@ -55,21 +55,7 @@ public final class PythonParserImpl implements PythonParser {
         Python3Parser parser = getPython3Parser(source.getCharacters().toString());
         ParserRuleContext input;
         try {
-            switch (mode) {
-                case Eval:
-                    input = parser.eval_input();
-                    break;
-                case File:
-                    input = parser.file_input();
-                    break;
-                case InteractiveStatement:
-                case InlineEvaluation:
-                case Statement:
-                    input = parser.single_input();
-                    break;
-                default:
-                    throw new RuntimeException("unexpected mode: " + mode);
-            }
+            input = parseInput(parser, mode);
         } catch (Exception e) {
             if (mode == ParserMode.InteractiveStatement && e instanceof PIncompleteSourceException) {
                 ((PIncompleteSourceException) e).setSource(source);
@@ -85,7 +71,42 @@ public final class PythonParserImpl implements PythonParser {
                 throw handleParserError(errors, source, e);
             }
         }
+        return translate(mode, errors, source, currentFrame, input);
+    }
+
+    private static ParserRuleContext parseInput(Python3Parser parser, ParserMode mode) {
+        switch (mode) {
+            case Eval:
+                return parser.eval_input();
+            case File:
+                return parser.file_input();
+            case InteractiveStatement:
+            case InlineEvaluation:
+            case Statement:
+                return parser.single_input();
+            default:
+                throw new RuntimeException("unexpected mode: " + mode);
+        }
+    }
+
+    @Override
+    @TruffleBoundary
+    public Object parseFileAhead(Source source) {
+        try {
+            return parseInput(getPython3Parser(source.getCharacters().toString()), ParserMode.File);
+        } catch (Exception e) {
+            // reported when the file is parsed with the context available
+            return null;
+        }
+    }
+
+    @Override
+    @TruffleBoundary
+    public Node translateFile(ParserErrorCallback errors, Source source, Object parsedAhead) {
+        return translate(ParserMode.File, errors, source, null, (ParserRuleContext) parsedAhead);
+    }
 
+    private static Node translate(ParserMode mode, ParserErrorCallback errors, Source source, Frame currentFrame, ParserRuleContext input) {
         // prepare scope translator
         TranslationEnvironment environment = new TranslationEnvironment(errors.getLanguage());
         FrameDescriptor inlineLocals = mode == ParserMode.InlineEvaluation ? currentFrame.getFrameDescriptor() : null;
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.runtime;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.common.HashingStorage;
+import com.oracle.graal.python.builtins.objects.dict.PDict;
+import com.oracle.graal.python.builtins.objects.list.PList;
+import com.oracle.graal.python.builtins.objects.module.PythonModule;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
+import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * The mutable state of a {@link PythonContext} at some point in time, so that a context can be
+ * reused for unrelated work after returning to it. This records
+ * <ul>
+ * <li>the attribute bindings of every module in {@code sys.modules}, which includes
+ * {@code __main__},</li>
+ * <li>the contents of the lists and dicts bound in {@code sys}, like {@code sys.modules},
+ * {@code sys.path} or {@code sys.path_importer_cache},</li>
+ * <li>the file descriptors and child processes of the context's {@link PosixResources},</li>
+ * <li>and the registered {@code atexit} functions.</li>
+ * </ul>
+ * Objects reachable from module attributes are not copied, so mutations of their contents survive
+ * a restore. Recording and restoring take time proportional to the number of module attributes
+ * and resources, independently of what ran in between.
+ */
+final class ContextCheckpoint {
+    private final Map<PythonModule, Map<String, Object>> moduleAttributes = new IdentityHashMap<>();
+    private final Map<PList, SequenceStorage> sysLists = new IdentityHashMap<>();
+    private final Map<PDict, HashingStorage> sysDicts = new IdentityHashMap<>();
+    private final PosixResources.Checkpoint resources;
+    private final Set<Object> shutdownHooks;
+
+    private ContextCheckpoint(PythonContext context, Set<Object> shutdownHooks) {
+        HashingStorage.Equivalence eq = context.getSlowPathEquivalence();
+        PythonModule sys = context.getCore().lookupBuiltinModule("sys");
+        for (String name : sys.getAttributeNames()) {
+            Object value = sys.getAttribute(name);
+            if (value instanceof PList) {
+                sysLists.put((PList) value, ((PList) value).getSequenceStorage().copy());
+            } else if (value instanceof PDict) {
+                sysDicts.put((PDict) value, ((PDict) value).getDictStorage().copy(eq));
+            }
+        }
+        for (Object module : context.getSysModules().getDictStorage().values()) {
+            if (module instanceof PythonModule) {
+                moduleAttributes.put((PythonModule) module, getAttributes((PythonModule) module));
+            }
+        }
+        this.resources = context.getResources().checkpoint();
+        this.shutdownHooks = shutdownHooks;
+    }
+
+    @TruffleBoundary
+    static ContextCheckpoint create(PythonContext context, Set<Object> shutdownHooks) {
+        return new ContextCheckpoint(context, shutdownHooks);
+    }
+
+    private static Map<String, Object> getAttributes(PythonModule module) {
+        Map<String, Object> attributes = new HashMap<>();
+        for (String name : module.getAttributeNames()) {
+            attributes.put(name, module.getAttribute(name));
+        }
+        return attributes;
+    }
+
+    @TruffleBoundary
+    void restore(PythonContext context, Map<Object, CallTarget> atExitHooks) {
+        context.getResources().restore(resources);
+        atExitHooks.keySet().retainAll(shutdownHooks);
+        HashingStorage.Equivalence eq = context.getSlowPathEquivalence();
+        for (Map.Entry<PList, SequenceStorage> entry : sysLists.entrySet()) {
+            entry.getKey().setSequenceStorage(entry.getValue().copy());
+        }
+        for (Map.Entry<PDict, HashingStorage> entry : sysDicts.entrySet()) {
+            entry.getKey().setDictStorage(entry.getValue().copy(eq));
+        }
+        for (Map.Entry<PythonModule, Map<String, Object>> entry : moduleAttributes.entrySet()) {
+            PythonModule module = entry.getKey();
+            Map<String, Object> attributes = entry.getValue();
+            List<String> added = new ArrayList<>(module.getAttributeNames());
+            added.removeAll(attributes.keySet());
+            for (String name : added) {
+                module.setAttribute(name, PNone.NO_VALUE);
+            }
+            for (Map.Entry<String, Object> attribute : attributes.entrySet()) {
+                if (module.getAttribute(attribute.getKey()) != attribute.getValue()) {
+                    module.setAttribute(attribute.getKey(), attribute.getValue());
+                }
+            }
+        }
+    }
+}
@@ -44,11 +44,15 @@ import java.io.IOException;
 import java.nio.channels.Channel;
 import java.nio.channels.Channels;
 import java.nio.channels.Pipe;
+import java.nio.channels.Selector;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.TruffleFile;
@@ -69,6 +73,7 @@ public class PosixResources {
     private final List<Process> children;
     private final Map<String, Integer> inodes;
     private int inodeCnt = 0;
+    private Selector selector;
 
     public PosixResources() {
         files = Collections.synchronizedList(new ArrayList<>());
@@ -134,6 +139,16 @@ public class PosixResources {
         return fd;
     }
 
+    /**
+     * Registers a channel that has no path, like a socket, and returns its file descriptor.
+     */
+    @TruffleBoundary(allowInlining = true)
+    public int open(Channel fc) {
+        int fd = nextFreeFd();
+        files.set(fd, fc);
+        return fd;
+    }
+
     @TruffleBoundary(allowInlining = true)
     public int dup(int fd) {
         int dupFd = nextFreeFd();
@@ -175,6 +190,30 @@ public class PosixResources {
         files.set(2, Channels.newChannel(env.err()));
     }
 
+    /**
+     * The selector that {@code select} and {@code poll} use. Channels are only registered with it
+     * for the duration of a call.
+     */
+    @TruffleBoundary
+    public synchronized Selector getSelector() throws IOException {
+        if (selector == null) {
+            selector = Selector.open();
+        }
+        return selector;
+    }
+
+    @TruffleBoundary
+    public synchronized void closeSelector() {
+        if (selector != null) {
+            try {
+                selector.close();
+            } catch (IOException e) {
+                // ignore, the context is going away
+            }
+            selector = null;
+        }
+    }
+
     @TruffleBoundary(allowInlining = true)
     public int registerChild(Process child) {
         int pid = nextFreePid();
@@ -204,6 +243,78 @@ public class PosixResources {
         return exitStatus;
     }
 
+    /**
+     * The file descriptors and child PIDs at the time of a {@link #checkpoint()}.
+     */
+    public static final class Checkpoint {
+        private final Channel[] files;
+        private final String[] filePaths;
+        private final Process[] children;
+
+        private Checkpoint(Channel[] files, String[] filePaths, Process[] children) {
+            this.files = files;
+            this.filePaths = filePaths;
+            this.children = children;
+        }
+    }
+
+    @TruffleBoundary
+    public Checkpoint checkpoint() {
+        Channel[] savedFiles;
+        String[] savedPaths;
+        Process[] savedChildren;
+        synchronized (filePaths) {
+            savedFiles = files.toArray(new Channel[files.size()]);
+            savedPaths = filePaths.toArray(new String[filePaths.size()]);
+        }
+        synchronized (children) {
+            savedChildren = children.toArray(new Process[children.size()]);
+        }
+        return new Checkpoint(savedFiles, savedPaths, savedChildren);
+    }
+
+    /**
+     * Closes the channels and destroys the child processes that were registered after the given
+     * checkpoint, and restores its file descriptor and PID mappings. The standard streams keep
+     * their current channels. This only walks the descriptor and PID tables, so it takes time
+     * proportional to the number of resources rather than to the work done since the checkpoint.
+     */
+    @TruffleBoundary
+    public void restore(Checkpoint checkpoint) {
+        synchronized (filePaths) {
+            Set<Channel> kept = Collections.newSetFromMap(new IdentityHashMap<>());
+            kept.addAll(Arrays.asList(checkpoint.files));
+            for (int i = 3; i < files.size(); i++) {
+                Channel channel = files.get(i);
+                if (channel != null && !kept.contains(channel)) {
+                    try {
+                        channel.close();
+                    } catch (IOException e) {
+                        // ignore, the descriptor is dropped either way
+                    }
+                }
+            }
+            List<Channel> stdio = new ArrayList<>(files.subList(0, 3));
+            files.clear();
+            files.addAll(stdio);
+            files.addAll(Arrays.asList(checkpoint.files).subList(3, checkpoint.files.length));
+            filePaths.clear();
+            filePaths.addAll(Arrays.asList(checkpoint.filePaths));
+        }
+        synchronized (children) {
+            Set<Process> kept = Collections.newSetFromMap(new IdentityHashMap<>());
+            kept.addAll(Arrays.asList(checkpoint.children));
+            for (Process child : children) {
+                if (child != null && !kept.contains(child)) {
+                    child.destroy();
+                }
+            }
+            children.clear();
+            children.addAll(Arrays.asList(checkpoint.children));
+        }
+        closeSelector();
+    }
+
     @TruffleBoundary(allowInlining = true)
     public int getInodeId(String canonical) {
         synchronized (inodes) {
@@ -33,6 +33,7 @@ import static com.oracle.graal.python.nodes.SpecialAttributeNames.__FILE__;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Supplier;
@@ -44,6 +45,7 @@ import com.oracle.graal.python.builtins.objects.bytes.OpaqueBytes;
 import com.oracle.graal.python.builtins.objects.cext.NativeWrappers.PThreadState;
 import com.oracle.graal.python.builtins.objects.cext.PythonNativeClass;
 import com.oracle.graal.python.builtins.objects.common.HashingStorage;
+import com.oracle.graal.python.builtins.objects.decimal.PDecimalContext;
 import com.oracle.graal.python.builtins.objects.dict.PDict;
 import com.oracle.graal.python.builtins.objects.module.PythonModule;
 import com.oracle.graal.python.runtime.AsyncHandler.AsyncAction;
@@ -98,10 +100,30 @@ public final class PythonContext {
     /** The thread-local state object. */
     private ThreadLocal<PThreadState> customThreadState;
 
+    /** The current {@code decimal} context of each thread. */
+    private final ThreadLocal<DecimalContextEntry> decimalContext = new ThreadLocal<>();
+    /**
+     * The number of {@link #reset() resets}. Decimal contexts set before the last reset are
+     * ignored on every thread, since reset cannot clear the thread locals of other threads.
+     */
+    private volatile int resetCount;
+
+    private static final class DecimalContextEntry {
+        private final PDecimalContext context;
+        private final int resetCount;
+
+        DecimalContextEntry(PDecimalContext context, int resetCount) {
+            this.context = context;
+            this.resetCount = resetCount;
+        }
+    }
+
     // The context-local resources
     private final PosixResources resources;
     private final AsyncHandler handler;
 
+    private ContextCheckpoint checkpoint;
+
     public PythonContext(PythonLanguage language, TruffleLanguage.Env env, PythonCore core) {
         this.language = language;
         this.core = core;
@@ -295,6 +317,37 @@ public final class PythonContext {
         for (CallTarget f : atExitHooks.values()) {
             f.call();
         }
+        resources.closeSelector();
+    }
+
+    /**
+     * Records the current modules, their bindings and the open resources as the state that
+     * {@link #reset()} returns to. A context has at most one checkpoint, so code that runs after
+     * the embedder took it cannot make its own state permanent.
+     */
+    @TruffleBoundary
+    public void checkpoint() {
+        if (checkpoint != null) {
+            throw new IllegalStateException("the context already has a checkpoint");
+        }
+        checkpoint = ContextCheckpoint.create(this, new HashSet<>(atExitHooks.keySet()));
+    }
+
+    /**
+     * Returns the context to the state of the last {@link #checkpoint()}. Modules imported since
+     * are forgotten, module bindings are restored, and files, sockets and child processes opened
+     * since are closed. Returns {@code false} if there is no checkpoint.
+     */
+    @TruffleBoundary
+    public boolean reset() {
+        if (checkpoint == null) {
+            return false;
+        }
+        checkpoint.restore(this, atExitHooks);
+        currentException = null;
+        caughtException = null;
+        resetCount++;
+        return true;
     }
 
     @TruffleBoundary
@@ -307,6 +360,17 @@ public final class PythonContext {
         return customThreadState.get();
     }
 
+    @TruffleBoundary
+    public PDecimalContext getDecimalContext() {
+        DecimalContextEntry entry = decimalContext.get();
+        return entry != null && entry.resetCount == resetCount ? entry.context : null;
+    }
+
+    @TruffleBoundary
+    public void setDecimalContext(PDecimalContext context) {
+        decimalContext.set(new DecimalContextEntry(context, resetCount));
+    }
+
     public void initializeMainModule(String path) {
         if (path != null) {
             mainModule.setAttribute(__FILE__, path);
@@ -88,6 +88,22 @@ public interface PythonParser {
      */
     Node parse(ParserMode mode, ParserErrorCallback errors, Source source, Frame currentFrame);
 
+    /**
+     * Runs the grammar parse of a file, the part of {@link #parse} that does not need the context
+     * and may therefore run on any thread. The result is passed to {@link #translateFile} on a
+     * thread that entered the context.
+     *
+     * @return the parse tree, or {@code null} if the file could not be parsed, in which case
+     *         {@link #parse} reports the error
+     */
+    Object parseFileAhead(Source source);
+
+    /**
+     * Translates a file parsed with {@link #parseFileAhead} like {@link #parse} would in
+     * {@link ParserMode#File}.
+     */
+    Node translateFile(ParserErrorCallback errors, Source source, Object parsedAhead);
+
     /**
      * Check if an expression can be parsed as an identifier
      */
@@ -0,0 +1,221 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.runtime.formatting;
+
+import java.math.BigDecimal;
+
+import com.oracle.graal.python.builtins.objects.decimal.DecimalUtils;
+import com.oracle.graal.python.builtins.objects.decimal.PDecimal;
+import com.oracle.graal.python.runtime.PythonCore;
+import com.oracle.graal.python.runtime.formatting.InternalFormat.Spec;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * A class that provides the implementation of {@code Decimal.__format__}. The digits and the
+ * position of the decimal point are chosen as {@code _pydecimal} does, rounding with the context's
+ * rounding, while grouping and padding work as for floats.
+ */
+public class DecimalFormatter extends InternalFormat.Formatter {
+
+    /** If it contains no decimal point, this length is zero, and 1 otherwise. */
+    private int lenPoint;
+    /** The length of the fractional part, right of the decimal point. */
+    private int lenFraction;
+    /** The length of the exponent, including the marker, and of a trailing '%'. */
+    private int lenExponent;
+
+    public DecimalFormatter(PythonCore core, Spec spec) {
+        super(core, new StringBuilder(), spec);
+    }
+
+    @Override
+    protected void reset() {
+        super.reset();
+        lenPoint = lenFraction = lenExponent = 0;
+    }
+
+    @Override
+    protected int[] sectionLengths() {
+        return new int[]{lenSign, lenWhole, lenPoint, lenFraction, lenExponent};
+    }
+
+    /**
+     * Returns whether the type of the specification is one that decimals support.
+     */
+    public static boolean isSupportedType(char type) {
+        return type == Spec.NONE || "eEfFgGn%".indexOf(type) >= 0;
+    }
+
+    /**
+     * Format a decimal according to the specification represented by this
+     * <code>DecimalFormatter</code>.
+     *
+     * @param value to convert
+     * @param rounding the rounding of the current context
+     * @param capitals whether the current context uses 'E' for exponents of the none-format
+     * @return this object
+     */
+    @TruffleBoundary
+    public DecimalFormatter format(PDecimal value, int rounding, boolean capitals) {
+        setStart();
+        if (value.isNegative()) {
+            result.append('-');
+            lenSign = 1;
+        } else if (spec.sign == '+' || spec.sign == ' ') {
+            result.append(spec.sign);
+            lenSign = 1;
+        }
+        if (value.isSpecial()) {
+            // NaNs and infinities ignore the type and precision
+            String body = DecimalUtils.toString(value, false, false);
+            body = value.isNegative() ? body.substring(1) : body;
+            result.append(body);
+            lenWhole = body.length();
+            if (spec.type == '%') {
+                result.append('%');
+                lenExponent = 1;
+            }
+            return this;
+        }
+
+        char type = spec.type;
+        int precision = spec.precision;
+        if (type == Spec.NONE) {
+            type = capitals ? 'G' : 'g';
+        } else if (type == 'n') {
+            type = 'g';
+        }
+        if (precision == 0 && (type == 'g' || type == 'G')) {
+            precision = 1;
+        }
+
+        BigDecimal v = value.getValue().abs();
+        if (type == '%') {
+            v = v.scaleByPowerOfTen(2);
+        }
+        if (precision >= 0) {
+            if (type == 'e' || type == 'E') {
+                v = round(v, precision + 1, rounding);
+            } else if (type == 'f' || type == 'F' || type == '%') {
+                v = DecimalUtils.rescale(v, -precision, rounding);
+            } else if (v.precision() > precision) {
+                v = round(v, precision, rounding);
+            }
+        }
+        boolean fixed = type == 'f' || type == 'F' || type == '%';
+        if (v.signum() == 0 && v.scale() < 0 && fixed) {
+            // zeros with a positive exponent can't be represented in fixed point
+            v = v.setScale(0);
+        }
+
+        // Figure out where the decimal point goes
+        String digits = v.unscaledValue().toString();
+        long exponent = -(long) v.scale();
+        long leftDigits = exponent + digits.length();
+        long dotPlace;
+        if (type == 'e' || type == 'E') {
+            dotPlace = v.signum() == 0 && precision >= 0 ? 1 - precision : 1;
+        } else if (fixed) {
+            dotPlace = leftDigits;
+        } else {
+            dotPlace = exponent <= 0 && leftDigits > -6 ? leftDigits : 1;
+        }
+
+        int wholeStart = result.length();
+        String fraction;
+        if (dotPlace < 0) {
+            result.append('0');
+            StringBuilder sb = new StringBuilder();
+            for (long i = 0; i < -dotPlace; i++) {
+                sb.append('0');
+            }
+            fraction = sb.append(digits).toString();
+        } else if (dotPlace > digits.length()) {
+            result.append(digits);
+            for (long i = digits.length(); i < dotPlace; i++) {
+                result.append('0');
+            }
+            fraction = "";
+        } else {
+            result.append(dotPlace == 0 ? "0" : digits.substring(0, (int) dotPlace));
+            fraction = digits.substring((int) dotPlace);
+        }
+        lenWhole = result.length() - wholeStart;
+
+        if (!fraction.isEmpty() || spec.alternate) {
+            result.append('.').append(fraction);
+            lenPoint = 1;
+            lenFraction = fraction.length();
+        }
+
+        int exponentStart = result.length();
+        long e = leftDigits - dotPlace;
+        if (e != 0 || type == 'e' || type == 'E') {
+            result.append(type == 'E' || type == 'G' ? 'E' : 'e').append(e < 0 ? '-' : '+').append(Math.abs(e));
+        }
+        if (type == '%') {
+            result.append('%');
+        }
+        lenExponent = result.length() - exponentStart;
+
+        if (spec.grouping) {
+            groupDigits(3, ',');
+        }
+        return this;
+    }
+
+    /**
+     * Rounds a value to a number of significant digits.
+     */
+    private static BigDecimal round(BigDecimal v, int places, int rounding) {
+        if (v.signum() == 0) {
+            return v;
+        }
+        long adjusted = (long) v.precision() - v.scale() - 1;
+        BigDecimal rounded = DecimalUtils.rescale(v, adjusted + 1 - places, rounding);
+        long roundedAdjusted = (long) rounded.precision() - rounded.scale() - 1;
+        if (roundedAdjusted != adjusted) {
+            // rounding 99.97 to 3 digits leaves an extra zero at the end
+            rounded = DecimalUtils.rescale(rounded, roundedAdjusted + 1 - places, rounding);
+        }
+        return rounded;
+    }
+}
@@ -367,7 +367,10 @@ public class PythonMessageResolution {
         private static void addKeysFromObject(HashSet<String> keys, PythonObject o, boolean includeInternal) {
             for (Object k : o.getStorage().getShape().getKeys()) {
                 String strKey;
-                if (k instanceof String) {
+                if (o.getStorage().get(k) == PNone.NO_VALUE) {
+                    // deleted or not yet assigned
+                    continue;
+                } else if (k instanceof String) {
                     strKey = (String) k;
                 } else if (k instanceof PString) {
                     strKey = ((PString) k).getValue();
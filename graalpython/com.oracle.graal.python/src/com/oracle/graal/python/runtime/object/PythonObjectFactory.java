@@ -26,7 +26,9 @@
 package com.oracle.graal.python.runtime.object;
 
 import java.lang.ref.ReferenceQueue;
+import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.nio.channels.SeekableByteChannel;
 import java.nio.file.DirectoryStream;
 import java.util.Map;
@@ -50,7 +52,19 @@ import com.oracle.graal.python.builtins.objects.common.HashingStorage;
 import com.oracle.graal.python.builtins.objects.common.LocalsStorage;
 import com.oracle.graal.python.builtins.objects.common.PHashingCollection;
 import com.oracle.graal.python.builtins.objects.complex.PComplex;
+import com.oracle.graal.python.builtins.objects.csv.CSVDialect;
+import com.oracle.graal.python.builtins.objects.csv.PCSVReader;
+import com.oracle.graal.python.builtins.objects.csv.PCSVWriter;
+import com.oracle.graal.python.builtins.objects.datetime.PDate;
+import com.oracle.graal.python.builtins.objects.datetime.PDateTime;
+import com.oracle.graal.python.builtins.objects.datetime.PTime;
+import com.oracle.graal.python.builtins.objects.datetime.PTimeDelta;
+import com.oracle.graal.python.builtins.objects.decimal.PDecimal;
+import com.oracle.graal.python.builtins.objects.decimal.PDecimalContext;
+import com.oracle.graal.python.builtins.objects.deque.PDeque;
+import com.oracle.graal.python.builtins.objects.deque.PDequeIter;
 import com.oracle.graal.python.builtins.objects.dict.PDict;
+import com.oracle.graal.python.builtins.objects.digest.PDigest;
 import com.oracle.graal.python.builtins.objects.dict.PDictView;
 import com.oracle.graal.python.builtins.objects.dict.PDictView.PDictItemsView;
 import com.oracle.graal.python.builtins.objects.dict.PDictView.PDictKeysView;
@@ -68,6 +82,8 @@ import com.oracle.graal.python.builtins.objects.generator.PGenerator;
 import com.oracle.graal.python.builtins.objects.getsetdescriptor.GetSetDescriptor;
 import com.oracle.graal.python.builtins.objects.getsetdescriptor.HiddenKeyDescriptor;
 import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.io.PBuffered;
+import com.oracle.graal.python.builtins.objects.io.PTextIO;
 import com.oracle.graal.python.builtins.objects.iterator.PArrayIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PBaseSetIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PDoubleSequenceIterator;
@@ -81,6 +97,19 @@ import com.oracle.graal.python.builtins.objects.iterator.PSentinelIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PSequenceIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PStringIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PZip;
+import com.oracle.graal.python.builtins.objects.itertools.PAccumulate;
+import com.oracle.graal.python.builtins.objects.itertools.PChain;
+import com.oracle.graal.python.builtins.objects.itertools.PCount;
+import com.oracle.graal.python.builtins.objects.itertools.PCycle;
+import com.oracle.graal.python.builtins.objects.itertools.PDropwhile;
+import com.oracle.graal.python.builtins.objects.itertools.PFilterfalse;
+import com.oracle.graal.python.builtins.objects.itertools.PIslice;
+import com.oracle.graal.python.builtins.objects.itertools.PRepeat;
+import com.oracle.graal.python.builtins.objects.itertools.PStarmap;
+import com.oracle.graal.python.builtins.objects.itertools.PTakewhile;
+import com.oracle.graal.python.builtins.objects.itertools.PZipLongest;
+import com.oracle.graal.python.builtins.objects.json.PJSONEncoder;
+import com.oracle.graal.python.builtins.objects.json.PJSONScanner;
 import com.oracle.graal.python.builtins.objects.list.PList;
 import com.oracle.graal.python.builtins.objects.mappingproxy.PMappingproxy;
 import com.oracle.graal.python.builtins.objects.memoryview.PBuffer;
@@ -91,6 +120,8 @@ import com.oracle.graal.python.builtins.objects.method.PMethod;
 import com.oracle.graal.python.builtins.objects.mmap.PMMap;
 import com.oracle.graal.python.builtins.objects.module.PythonModule;
 import com.oracle.graal.python.builtins.objects.object.PythonObject;
+import com.oracle.graal.python.builtins.objects.pickle.PPickler;
+import com.oracle.graal.python.builtins.objects.pickle.PUnpickler;
 import com.oracle.graal.python.builtins.objects.posix.PDirEntry;
 import com.oracle.graal.python.builtins.objects.posix.PScandirIterator;
 import com.oracle.graal.python.builtins.objects.random.PRandom;
@@ -102,8 +133,12 @@ import com.oracle.graal.python.builtins.objects.set.PBaseSet;
 import com.oracle.graal.python.builtins.objects.set.PFrozenSet;
 import com.oracle.graal.python.builtins.objects.set.PSet;
 import com.oracle.graal.python.builtins.objects.slice.PSlice;
+import com.oracle.graal.python.builtins.objects.select.PPoll;
 import com.oracle.graal.python.builtins.objects.socket.PSocket;
 import com.oracle.graal.python.builtins.objects.str.PString;
+import com.oracle.graal.python.builtins.objects.struct.PStruct;
+import com.oracle.graal.python.builtins.objects.struct.PStructUnpackIterator;
+import com.oracle.graal.python.builtins.objects.struct.StructFormat;
 import com.oracle.graal.python.builtins.objects.superobject.SuperObject;
 import com.oracle.graal.python.builtins.objects.thread.PLock;
 import com.oracle.graal.python.builtins.objects.thread.PRLock;
@@ -230,23 +265,30 @@ public final class PythonObjectFactory extends Node {
     }
 
     public PInt createInt(int value) {
-        return trace(new PInt(PythonBuiltinClassType.PInt, BigInteger.valueOf(value)));
+        return trace(new PInt(PythonBuiltinClassType.PInt, value >> 31, value));
     }
 
     public PInt createInt(long value) {
-        return trace(new PInt(PythonBuiltinClassType.PInt, BigInteger.valueOf(value)));
+        return trace(new PInt(PythonBuiltinClassType.PInt, value >> 63, value));
     }
 
     public PInt createInt(BigInteger value) {
         return trace(new PInt(PythonBuiltinClassType.PInt, value));
     }
 
+    /**
+     * Creates an int from the high and low words of a 128-bit two's complement value.
+     */
+    public PInt createInt128(long high, long low) {
+        return trace(new PInt(PythonBuiltinClassType.PInt, high, low));
+    }
+
     public Object createInt(LazyPythonClass cls, int value) {
-        return trace(new PInt(cls, BigInteger.valueOf(value)));
+        return trace(new PInt(cls, value >> 31, value));
     }
 
     public Object createInt(LazyPythonClass cls, long value) {
-        return trace(new PInt(cls, BigInteger.valueOf(value)));
+        return trace(new PInt(cls, value >> 63, value));
     }
 
     public PInt createInt(LazyPythonClass cls, BigInteger value) {
@@ -773,6 +815,10 @@ public final class PythonObjectFactory extends Node {
         return trace(new PCode(PythonBuiltinClassType.PCode, result, getCore()));
     }
 
+    public PCode createCode(RootCallTarget callTarget) {
+        return trace(new PCode(PythonBuiltinClassType.PCode, callTarget, getCore()));
+    }
+
     public PCode createCode(LazyPythonClass cls, int argcount, int kwonlyargcount,
                     int nlocals, int stacksize, int flags,
                     byte[] codestring, Object[] constants, Object[] names,
@@ -802,6 +848,103 @@ public final class PythonObjectFactory extends Node {
         return trace(new PSocket(cls, family, type, proto));
     }
 
+    public PPoll createPoll(LazyPythonClass cls) {
+        return trace(new PPoll(cls));
+    }
+
+    /*
+     * Hashing
+     */
+
+    public PDigest createDigest(PDigest.Algorithm algorithm) {
+        return trace(new PDigest(PythonBuiltinClassType.PDigest, algorithm));
+    }
+
+    public PDigest createDigestCopy(PDigest digest) {
+        return trace(digest.copy(PythonBuiltinClassType.PDigest));
+    }
+
+    /*
+     * JSON
+     */
+
+    public PJSONScanner createJSONScanner(boolean strict, Object objectHook, Object objectPairsHook, Object parseFloat, Object parseInt, Object parseConstant) {
+        return trace(new PJSONScanner(PythonBuiltinClassType.JSONScanner, strict, objectHook, objectPairsHook, parseFloat, parseInt, parseConstant));
+    }
+
+    public PJSONEncoder createJSONEncoder(boolean checkCircular, Object defaultFn, Object encoder, PJSONEncoder.FastEncode fastEncode, String keySeparator, String itemSeparator, boolean sortKeys,
+                    boolean skipKeys, boolean allowNan) {
+        return trace(new PJSONEncoder(PythonBuiltinClassType.JSONEncoder, checkCircular, defaultFn, encoder, fastEncode, keySeparator, itemSeparator, sortKeys, skipKeys, allowNan));
+    }
+
+    /*
+     * Pickle
+     */
+
+    public PPickler createPickler(LazyPythonClass cls) {
+        return trace(new PPickler(cls));
+    }
+
+    public PUnpickler createUnpickler(LazyPythonClass cls) {
+        return trace(new PUnpickler(cls));
+    }
+
+    /*
+     * CSV
+     */
+
+    public PCSVReader createCSVReader(Object inputIterator, CSVDialect dialect) {
+        return trace(new PCSVReader(PythonBuiltinClassType.PCSVReader, inputIterator, dialect));
+    }
+
+    public PCSVWriter createCSVWriter(Object write, CSVDialect dialect) {
+        return trace(new PCSVWriter(PythonBuiltinClassType.PCSVWriter, write, dialect));
+    }
+
+    /*
+     * Datetime
+     */
+
+    public PTimeDelta createTimeDelta(LazyPythonClass cls, int days, int seconds, int microseconds) {
+        return trace(new PTimeDelta(cls, days, seconds, microseconds));
+    }
+
+    public PDate createDate(LazyPythonClass cls, int year, int month, int day) {
+        return trace(new PDate(cls, year, month, day));
+    }
+
+    public PTime createTime(LazyPythonClass cls, int hour, int minute, int second, int microsecond, Object tzInfo, int fold) {
+        return trace(new PTime(cls, hour, minute, second, microsecond, tzInfo, fold));
+    }
+
+    public PDateTime createDateTime(LazyPythonClass cls, int year, int month, int day, int hour, int minute, int second, int microsecond, Object tzInfo, int fold) {
+        return trace(new PDateTime(cls, year, month, day, hour, minute, second, microsecond, tzInfo, fold));
+    }
+
+    /*
+     * Decimal
+     */
+
+    public PDecimal createDecimal(LazyPythonClass cls, BigDecimal value, boolean negative, byte kind) {
+        return trace(new PDecimal(cls, value, negative, kind));
+    }
+
+    public PDecimal createDecimal(BigDecimal value, boolean negative) {
+        return trace(new PDecimal(PythonBuiltinClassType.PDecimal, value, negative, PDecimal.FINITE));
+    }
+
+    public PDecimalContext createDecimalContext(LazyPythonClass cls, int prec, int rounding, int emin, int emax, int capitals, int clamp, int flags, int traps) {
+        return trace(new PDecimalContext(cls, prec, rounding, emin, emax, capitals, clamp, flags, traps));
+    }
+
+    public PStruct createStruct(LazyPythonClass cls, StructFormat format) {
+        return trace(new PStruct(cls, format));
+    }
+
+    public PStructUnpackIterator createStructUnpackIterator(StructFormat format, ByteBuffer buffer, int length) {
+        return trace(new PStructUnpackIterator(PythonBuiltinClassType.PStructUnpackIterator, format, buffer, length));
+    }
+
     /*
      * Threading
      */
@@ -849,4 +992,84 @@ public final class PythonObjectFactory extends Node {
     public PMMap createMMap(LazyPythonClass clazz, SeekableByteChannel channel, long length, long offset) {
         return trace(new PMMap(clazz, channel, length, offset));
     }
+
+    /*
+     * Buffered and text I/O
+     */
+
+    public PBuffered createBufferedReader(LazyPythonClass cls) {
+        return trace(new PBuffered(cls, true));
+    }
+
+    public PBuffered createBufferedWriter(LazyPythonClass cls) {
+        return trace(new PBuffered(cls, false));
+    }
+
+    public PTextIO createTextIO(LazyPythonClass cls) {
+        return trace(new PTextIO(cls));
+    }
+
+    public PDeque createDeque(LazyPythonClass cls) {
+        return trace(new PDeque(cls));
+    }
+
+    public PDequeIter createDequeIter(PDeque deque) {
+        return trace(new PDequeIter(PythonBuiltinClassType.PDequeIter, deque, false));
+    }
+
+    public PDequeIter createDequeRevIter(PDeque deque) {
+        return trace(new PDequeIter(PythonBuiltinClassType.PDequeRevIter, deque, true));
+    }
+
+    /*
+     * itertools
+     */
+
+    public PAccumulate createAccumulate(LazyPythonClass cls, Object iterator, Object function) {
+        return trace(new PAccumulate(cls, iterator, function));
+    }
+
+    public PChain createChain(LazyPythonClass cls, Object source) {
+        return trace(new PChain(cls, source));
+    }
+
+    public PCount createCount(LazyPythonClass cls, long start, long step) {
+        return trace(new PCount(cls, start, step));
+    }
+
+    public PCount createCount(LazyPythonClass cls, Object start, Object step) {
+        return trace(new PCount(cls, start, step));
+    }
+
+    public PCycle createCycle(LazyPythonClass cls, Object iterator) {
+        return trace(new PCycle(cls, iterator));
+    }
+
+    public PDropwhile createDropwhile(LazyPythonClass cls, Object predicate, Object iterator) {
+        return trace(new PDropwhile(cls, predicate, iterator));
+    }
+
+    public PFilterfalse createFilterfalse(LazyPythonClass cls, Object function, Object iterator) {
+        return trace(new PFilterfalse(cls, function, iterator));
+    }
+
+    public PIslice createIslice(LazyPythonClass cls, Object iterator, PCount count, int start, int stop, int step) {
+        return trace(new PIslice(cls, iterator, count, start, stop, step));
+    }
+
+    public PRepeat createRepeat(LazyPythonClass cls, Object element, int times) {
+        return trace(new PRepeat(cls, element, times));
+    }
+
+    public PStarmap createStarmap(LazyPythonClass cls, Object function, Object iterator) {
+        return trace(new PStarmap(cls, function, iterator));
+    }
+
+    public PTakewhile createTakewhile(LazyPythonClass cls, Object predicate, Object iterator) {
+        return trace(new PTakewhile(cls, predicate, iterator));
+    }
+
+    public PZipLongest createZipLongest(LazyPythonClass cls, Object[] iterators, Object fillValue) {
+        return trace(new PZipLongest(cls, iterators, fillValue));
+    }
 }
@@ -0,0 +1,513 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.runtime.profiler;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.LockSupport;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.instrumentation.EventBinding;
+import com.oracle.truffle.api.instrumentation.EventContext;
+import com.oracle.truffle.api.instrumentation.ExecutionEventNode;
+import com.oracle.truffle.api.instrumentation.ExecutionEventNodeFactory;
+import com.oracle.truffle.api.instrumentation.Instrumenter;
+import com.oracle.truffle.api.instrumentation.SourceSectionFilter;
+import com.oracle.truffle.api.instrumentation.StandardTags.CallTag;
+import com.oracle.truffle.api.instrumentation.StandardTags.RootTag;
+import com.oracle.truffle.api.instrumentation.StandardTags.StatementTag;
+import com.oracle.truffle.api.nodes.RootNode;
+import com.oracle.truffle.api.source.SourceSection;
+
+/**
+ * A wall-clock sampling profiler for Python code.
+ * <p>
+ * While sampling, every Python function entry and exit pushes and pops an entry of a per-thread
+ * shadow stack, and calls (or, if requested, all statements) record the current line of the
+ * topmost entry. Without statement lines, the line of a frame is that of the last call it made. A daemon thread periodically copies the shadow stacks of all threads into a tree
+ * of samples. Nothing is instrumented while the profiler is stopped, so it has no cost then, and
+ * while running the cost for the profiled code is a few array stores per call.
+ */
+public final class PythonSampler {
+
+    private final Instrumenter instrumenter;
+    private final SampleNode samples = new SampleNode(null, 0);
+    private long sampleCount;
+    private Session session;
+
+    PythonSampler(Instrumenter instrumenter) {
+        this.instrumenter = instrumenter;
+    }
+
+    public synchronized boolean isRunning() {
+        return session != null;
+    }
+
+    public synchronized long getSampleCount() {
+        return sampleCount;
+    }
+
+    /**
+     * Starts sampling every {@code intervalNanos}. If {@code lines} is {@code true}, every
+     * statement updates the current line, otherwise only calls do. Stacks deeper than
+     * {@code maxDepth} are truncated.
+     */
+    public synchronized void start(long intervalNanos, boolean lines, int maxDepth) {
+        if (session != null) {
+            throw new IllegalStateException("sampler is already running");
+        }
+        session = new Session(intervalNanos, lines, maxDepth);
+        session.start();
+    }
+
+    public void stop() {
+        Session s;
+        synchronized (this) {
+            s = session;
+            session = null;
+        }
+        if (s != null) {
+            s.stop();
+        }
+    }
+
+    public synchronized void clear() {
+        samples.children.clear();
+        sampleCount = 0;
+    }
+
+    private synchronized void takeSample(Session s) {
+        if (session != s) {
+            return;
+        }
+        sampleCount++;
+        for (ThreadStack stack : s.stacks) {
+            if (!stack.thread.isAlive()) {
+                s.stacks.remove(stack);
+                continue;
+            }
+            int depth = Math.min(stack.depth, stack.frames.length);
+            SampleNode node = samples;
+            for (int i = 0; i < depth; i++) {
+                FrameInfo frame = stack.frames[i];
+                if (frame == null) {
+                    break;
+                }
+                node = node.getChild(frame, stack.lines[i]);
+            }
+            if (node != samples) {
+                node.selfSamples++;
+                node.selfNanos += s.intervalNanos;
+            }
+        }
+    }
+
+    /**
+     * Returns the samples in the collapsed stack format understood by {@code flamegraph.pl}: one
+     * line per distinct stack with the frames separated by semicolons, followed by the number of
+     * samples.
+     */
+    public synchronized String toCollapsed() {
+        StringBuilder sb = new StringBuilder();
+        List<SampleNode> path = new ArrayList<>();
+        for (SampleNode child : samples.children) {
+            appendCollapsed(sb, path, child);
+        }
+        return sb.toString();
+    }
+
+    private static void appendCollapsed(StringBuilder sb, List<SampleNode> path, SampleNode node) {
+        path.add(node);
+        if (node.selfSamples > 0) {
+            for (int i = 0; i < path.size(); i++) {
+                if (i > 0) {
+                    sb.append(';');
+                }
+                sb.append(path.get(i).getLabel());
+            }
+            sb.append(' ').append(node.selfSamples).append('\n');
+        }
+        for (SampleNode child : node.children) {
+            appendCollapsed(sb, path, child);
+        }
+        path.remove(path.size() - 1);
+    }
+
+    /**
+     * Returns the samples as a sampled profile in the file format of https://www.speedscope.app,
+     * weighted by wall-clock milliseconds.
+     */
+    public synchronized String toSpeedscope(String name) {
+        Map<String, Integer> frameIndices = new LinkedHashMap<>();
+        List<SampleNode> frames = new ArrayList<>();
+        StringBuilder stacks = new StringBuilder();
+        StringBuilder weights = new StringBuilder();
+        long[] total = new long[1];
+        List<Integer> path = new ArrayList<>();
+        for (SampleNode child : samples.children) {
+            appendSpeedscope(child, path, frameIndices, frames, stacks, weights, total);
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"$schema\":\"https://www.speedscope.app/file-format-schema.json\",\"shared\":{\"frames\":[");
+        for (int i = 0; i < frames.size(); i++) {
+            SampleNode frame = frames.get(i);
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append("{\"name\":");
+            appendJsonString(sb, frame.frame.name);
+            sb.append(",\"file\":");
+            appendJsonString(sb, frame.frame.file);
+            if (frame.line > 0) {
+                sb.append(",\"line\":").append(frame.line);
+            }
+            sb.append('}');
+        }
+        sb.append("]},\"profiles\":[{\"type\":\"sampled\",\"name\":");
+        appendJsonString(sb, name);
+        sb.append(",\"unit\":\"milliseconds\",\"startValue\":0,\"endValue\":").append(toMillis(total[0]));
+        sb.append(",\"samples\":[").append(stacks).append("],\"weights\":[").append(weights).append("]}],\"name\":");
+        appendJsonString(sb, name);
+        sb.append(",\"exporter\":\"graalpython\"}");
+        return sb.toString();
+    }
+
+    private static void appendSpeedscope(SampleNode node, List<Integer> path, Map<String, Integer> frameIndices, List<SampleNode> frames, StringBuilder stacks, StringBuilder weights,
+                    long[] total) {
+        String label = node.getLabel();
+        Integer index = frameIndices.get(label);
+        if (index == null) {
+            index = frames.size();
+            frameIndices.put(label, index);
+            frames.add(node);
+        }
+        path.add(index);
+        if (node.selfSamples > 0) {
+            if (weights.length() > 0) {
+                stacks.append(',');
+                weights.append(',');
+            }
+            stacks.append('[');
+            for (int i = 0; i < path.size(); i++) {
+                if (i > 0) {
+                    stacks.append(',');
+                }
+                stacks.append(path.get(i));
+            }
+            stacks.append(']');
+            weights.append(toMillis(node.selfNanos));
+            total[0] += node.selfNanos;
+        }
+        for (SampleNode child : node.children) {
+            appendSpeedscope(child, path, frameIndices, frames, stacks, weights, total);
+        }
+        path.remove(path.size() - 1);
+    }
+
+    private static String toMillis(long nanos) {
+        return Double.toString(nanos / 1e6);
+    }
+
+    private static void appendJsonString(StringBuilder sb, String s) {
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        sb.append('"');
+    }
+
+    /** A Python function as it appears in a sample. */
+    static final class FrameInfo {
+        final String name;
+        final String file;
+        final int line;
+
+        FrameInfo(String name, String file, int line) {
+            this.name = name;
+            this.file = file;
+            this.line = line;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof FrameInfo)) {
+                return false;
+            }
+            FrameInfo other = (FrameInfo) obj;
+            return line == other.line && name.equals(other.name) && file.equals(other.file);
+        }
+
+        @Override
+        public int hashCode() {
+            return (name.hashCode() * 31 + file.hashCode()) * 31 + line;
+        }
+    }
+
+    private static final class SampleNode {
+        final FrameInfo frame;
+        final int line;
+        final List<SampleNode> children = new ArrayList<>();
+        long selfSamples;
+        long selfNanos;
+
+        SampleNode(FrameInfo frame, int line) {
+            this.frame = frame;
+            this.line = line;
+        }
+
+        SampleNode getChild(FrameInfo childFrame, int childLine) {
+            for (SampleNode child : children) {
+                if (child.line == childLine && child.frame.equals(childFrame)) {
+                    return child;
+                }
+            }
+            SampleNode child = new SampleNode(childFrame, childLine);
+            children.add(child);
+            return child;
+        }
+
+        String getLabel() {
+            if (line > 0) {
+                return frame.name + " (" + frame.file + ":" + line + ")";
+            }
+            return frame.name + " (" + frame.file + ")";
+        }
+    }
+
+    /**
+     * The shadow stack of one thread. Only the owning thread writes it; the sampler thread reads it
+     * without synchronization and may see a stack that is being modified, which is acceptable for
+     * sampling.
+     */
+    static final class ThreadStack {
+        final Thread thread;
+        final FrameInfo[] frames;
+        final int[] lines;
+        int depth;
+
+        ThreadStack(Thread thread, int maxDepth) {
+            this.thread = thread;
+            this.frames = new FrameInfo[maxDepth];
+            this.lines = new int[maxDepth];
+        }
+
+        void push(FrameInfo frame) {
+            int d = depth;
+            if (d < frames.length) {
+                frames[d] = frame;
+                lines[d] = 0;
+            }
+            depth = d + 1;
+        }
+
+        void pop() {
+            // the sampler may have been started in the middle of a function
+            if (depth > 0) {
+                depth--;
+            }
+        }
+
+        void setLine(int line) {
+            int d = depth - 1;
+            if (d >= 0 && d < lines.length) {
+                lines[d] = line;
+            }
+        }
+    }
+
+    /** One run of the sampler between {@link #start} and {@link #stop}. */
+    private final class Session implements Runnable {
+        final long intervalNanos;
+        final boolean lines;
+        final int maxDepth;
+        final List<ThreadStack> stacks = new CopyOnWriteArrayList<>();
+        final ThreadLocal<ThreadStack> threadStack = new ThreadLocal<>();
+        private final List<EventBinding<?>> bindings = new ArrayList<>();
+        private volatile boolean running = true;
+        private Thread samplerThread;
+
+        Session(long intervalNanos, boolean lines, int maxDepth) {
+            this.intervalNanos = intervalNanos;
+            this.lines = lines;
+            this.maxDepth = maxDepth;
+        }
+
+        void start() {
+            SourceSectionFilter rootFilter = SourceSectionFilter.newBuilder().tagIs(RootTag.class).includeInternal(false).build();
+            bindings.add(instrumenter.attachExecutionEventFactory(rootFilter, new ExecutionEventNodeFactory() {
+                public ExecutionEventNode create(EventContext context) {
+                    return new RootEventNode(Session.this, createFrameInfo(context));
+                }
+            }));
+            SourceSectionFilter.Builder lineFilter = SourceSectionFilter.newBuilder().includeInternal(false);
+            if (lines) {
+                lineFilter.tagIs(CallTag.class, StatementTag.class);
+            } else {
+                lineFilter.tagIs(CallTag.class);
+            }
+            bindings.add(instrumenter.attachExecutionEventFactory(lineFilter.build(), new ExecutionEventNodeFactory() {
+                public ExecutionEventNode create(EventContext context) {
+                    SourceSection section = context.getInstrumentedSourceSection();
+                    int line = section != null && section.isAvailable() ? section.getStartLine() : 0;
+                    return new LineEventNode(Session.this, line);
+                }
+            }));
+            samplerThread = new Thread(this, "python-sampler");
+            samplerThread.setDaemon(true);
+            samplerThread.start();
+        }
+
+        void stop() {
+            running = false;
+            samplerThread.interrupt();
+            for (EventBinding<?> binding : bindings) {
+                binding.dispose();
+            }
+        }
+
+        public void run() {
+            while (running) {
+                LockSupport.parkNanos(intervalNanos);
+                if (running) {
+                    takeSample(this);
+                }
+            }
+        }
+
+        @TruffleBoundary
+        ThreadStack lookupStack() {
+            ThreadStack stack = threadStack.get();
+            if (stack == null) {
+                stack = new ThreadStack(Thread.currentThread(), maxDepth);
+                threadStack.set(stack);
+                stacks.add(stack);
+            }
+            return stack;
+        }
+    }
+
+    private static FrameInfo createFrameInfo(EventContext context) {
+        RootNode rootNode = context.getInstrumentedNode().getRootNode();
+        String name = rootNode != null ? rootNode.getName() : null;
+        SourceSection section = context.getInstrumentedSourceSection();
+        String file = "<unknown>";
+        int line = 0;
+        if (section != null && section.isAvailable()) {
+            file = section.getSource().getPath() != null ? section.getSource().getPath() : section.getSource().getName();
+            line = section.getStartLine();
+        }
+        return new FrameInfo(name != null ? name : "<unknown>", file, line);
+    }
+
+    private abstract static class StackEventNode extends ExecutionEventNode {
+        private final Session session;
+        @CompilationFinal private ThreadStack cachedStack;
+
+        StackEventNode(Session session) {
+            this.session = session;
+        }
+
+        protected final ThreadStack getStack() {
+            ThreadStack stack = cachedStack;
+            if (stack == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                stack = session.lookupStack();
+                cachedStack = stack;
+            }
+            if (stack.thread == Thread.currentThread()) {
+                return stack;
+            }
+            return session.lookupStack();
+        }
+    }
+
+    private static final class RootEventNode extends StackEventNode {
+        private final FrameInfo frameInfo;
+
+        RootEventNode(Session session, FrameInfo frameInfo) {
+            super(session);
+            this.frameInfo = frameInfo;
+        }
+
+        @Override
+        protected void onEnter(VirtualFrame frame) {
+            getStack().push(frameInfo);
+        }
+
+        @Override
+        protected void onReturnValue(VirtualFrame frame, Object result) {
+            getStack().pop();
+        }
+
+        @Override
+        protected void onReturnExceptional(VirtualFrame frame, Throwable exception) {
+            getStack().pop();
+        }
+    }
+
+    private static final class LineEventNode extends StackEventNode {
+        private final int line;
+
+        LineEventNode(Session session, int line) {
+            super(session);
+            this.line = line;
+        }
+
+        @Override
+        protected void onEnter(VirtualFrame frame) {
+            getStack().setLine(line);
+        }
+    }
+}
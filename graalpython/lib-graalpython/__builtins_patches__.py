@@ -38,6 +38,8 @@
 # SOFTWARE.
 
 import _pyio
+import atexit
+import codecs
 import io
 
 import _io
@@ -52,9 +54,38 @@ import sys
 #
 # ----------------------------------------------------------------------------------------------------------------------
 
+_BufferedReader = _io.BufferedReader
+_BufferedWriter = _io.BufferedWriter
+_TextIOWrapper = _io.TextIOWrapper
+
+
+def _text_io_wrapper(buffer, encoding=None, errors=None, newline=None, line_buffering=False):
+    # The builtin TextIOWrapper works directly on the buffer of our builtin buffered streams and
+    # scans it for line endings, so it only supports encodings where '\r' and '\n' are plain bytes.
+    if (type(buffer) in (_BufferedReader, _BufferedWriter) and errors in (None, "strict", "replace", "ignore") and
+            (encoding is None or codecs.lookup(encoding).name in ("utf-8", "ascii", "iso8859-1"))):
+        return _TextIOWrapper(buffer, encoding, errors, newline, line_buffering)
+    return _pyio.TextIOWrapper(buffer, encoding, errors, newline, line_buffering)
+
+
 @__builtin__
-def open(*args, **kwargs):
-    return _pyio.open(*args, **kwargs)
+def open(file, mode="r", buffering=-1, encoding=None, errors=None, newline=None, closefd=True, opener=None):
+    if not isinstance(mode, str) or "b" in mode or "U" in mode or buffering == 0:
+        return _pyio.open(file, mode, buffering, encoding, errors, newline, closefd, opener)
+    buffer = _pyio.open(file, mode.replace("t", "") + "b", buffering, None, None, None, closefd, opener)
+    try:
+        line_buffering = buffering == 1 or buffering < 0 and buffer.isatty()
+        text = _text_io_wrapper(buffer, encoding, errors, newline, line_buffering)
+        text.mode = mode
+        return text
+    except:
+        buffer.close()
+        raise
+
+
+# _pyio.open creates the buffered streams, so it must use the builtin ones, too
+_pyio.BufferedReader = _BufferedReader
+_pyio.BufferedWriter = _BufferedWriter
 
 
 for module in [_io, io]:
@@ -63,8 +94,6 @@ for module in [_io, io]:
     setattr(module, 'IncrementalNewlineDecoder', _pyio.IncrementalNewlineDecoder)
     setattr(module, 'BufferedRandom', _pyio.BufferedRandom)
     setattr(module, 'BufferedRWPair', _pyio.BufferedRWPair)
-    setattr(module, 'BufferedWriter', _pyio.BufferedWriter)
-    setattr(module, 'BufferedReader', _pyio.BufferedReader)
     setattr(module, 'StringIO', _pyio.StringIO)
     setattr(module, '_IOBase', _pyio.IOBase)
     setattr(module, 'BufferedIOBase', _pyio.BufferedIOBase)
@@ -74,18 +103,37 @@ for module in [_io, io]:
     setattr(module, '_TextIOBase', _pyio.TextIOBase)
 
 
+# the builtin streams do not inherit from the pure-Python base classes
+for klass in (_BufferedReader, _BufferedWriter):
+    _pyio.BufferedIOBase.register(klass)
+_pyio.TextIOBase.register(_TextIOWrapper)
+
+
 setattr(builtins, 'open', open)
 
 
-sys.stdin = _pyio.TextIOWrapper(_pyio.BufferedReader(sys.stdin), encoding="utf-8", line_buffering=True)
-sys.stdin.mode = "r"
-sys.__stdin__ = sys.stdin
-sys.stdout = _pyio.TextIOWrapper(_pyio.BufferedWriter(sys.stdout), encoding="utf-8", line_buffering=True)
-sys.stdout.mode = "w"
-sys.__stdout__ = sys.stdout
-sys.stderr = _pyio.TextIOWrapper(_pyio.BufferedWriter(sys.stderr), encoding="utf-8", line_buffering=True)
-sys.stderr.mode = "w"
-sys.__stderr__ = sys.stderr
+def _stdio(fd, mode, name):
+    raw = _pyio.FileIO(fd, mode=mode, closefd=False)
+    raw.name = name
+    buffer = _BufferedReader(raw) if mode == "r" else _BufferedWriter(raw)
+    text = _TextIOWrapper(buffer, encoding="utf-8", line_buffering=True)
+    text.mode = mode
+    return text
+
+
+sys.stdin = sys.__stdin__ = _stdio(0, "r", "<stdin>")
+sys.stdout = sys.__stdout__ = _stdio(1, "w", "<stdout>")
+sys.stderr = sys.__stderr__ = _stdio(2, "w", "<stderr>")
+
+
+@atexit.register
+def _flush_stdio():
+    # text without a line break is still in the buffer
+    for stream in (sys.stdout, sys.stderr):
+        try:
+            stream.flush()
+        except Exception:
+            pass
 
 
 # ----------------------------------------------------------------------------------------------------------------------
@@ -0,0 +1,361 @@
+# Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+__doc__ = "Fast implementation of the datetime type."
+
+# The date, time, datetime and timedelta types are implemented in Java. This file adds the abstract
+# tzinfo and the timezone classes, the class attributes, and the methods that build struct_time
+# objects, go through strftime or call back into tzinfo objects.
+
+
+class tzinfo:
+    """Abstract base class for time zone info objects."""
+    __slots__ = ()
+
+    def tzname(self, dt):
+        "datetime -> string name of time zone."
+        raise NotImplementedError("tzinfo subclass must override tzname()")
+
+    def utcoffset(self, dt):
+        "datetime -> timedelta, positive for east of UTC, negative for west of UTC"
+        raise NotImplementedError("tzinfo subclass must override utcoffset()")
+
+    def dst(self, dt):
+        "datetime -> DST offset as timedelta, positive for east of UTC."
+        raise NotImplementedError("tzinfo subclass must override dst()")
+
+    def fromutc(self, dt):
+        "datetime in UTC -> datetime in local time."
+        if not isinstance(dt, datetime):
+            raise TypeError("fromutc() requires a datetime argument")
+        if dt.tzinfo is not self:
+            raise ValueError("dt.tzinfo is not self")
+        dtoff = dt.utcoffset()
+        if dtoff is None:
+            raise ValueError("fromutc() requires a non-None utcoffset() result")
+        dtdst = dt.dst()
+        if dtdst is None:
+            raise ValueError("fromutc() requires a non-None dst() result")
+        delta = dtoff - dtdst
+        if delta:
+            dt += delta
+            dtdst = dt.dst()
+            if dtdst is None:
+                raise ValueError("fromutc(): dt.dst gave inconsistent results; cannot convert")
+        return dt + dtdst
+
+    def __reduce__(self):
+        getinitargs = getattr(self, "__getinitargs__", None)
+        args = getinitargs() if getinitargs else ()
+        getstate = getattr(self, "__getstate__", None)
+        if getstate:
+            state = getstate()
+        else:
+            state = getattr(self, "__dict__", None) or None
+        if state is None:
+            return (self.__class__, args)
+        return (self.__class__, args, state)
+
+
+class timezone(tzinfo):
+    """Fixed offset from UTC implementation of tzinfo."""
+    __slots__ = ('_offset', '_name')
+
+    _Omitted = object()
+
+    def __new__(cls, offset, name=_Omitted):
+        if not isinstance(offset, timedelta):
+            raise TypeError("offset must be a timedelta")
+        if name is cls._Omitted:
+            if not offset:
+                return cls.utc
+            name = None
+        elif not isinstance(name, str):
+            raise TypeError("name must be a string")
+        if not cls._minoffset <= offset <= cls._maxoffset:
+            raise ValueError("offset must be a timedelta strictly between -timedelta(hours=24) and timedelta(hours=24).")
+        if offset.microseconds != 0 or offset.seconds % 60 != 0:
+            raise ValueError("offset must be a timedelta representing a whole number of minutes")
+        return cls._create(offset, name)
+
+    @classmethod
+    def _create(cls, offset, name=None):
+        self = tzinfo.__new__(cls)
+        self._offset = offset
+        self._name = name
+        return self
+
+    def __getinitargs__(self):
+        if self._name is None:
+            return (self._offset,)
+        return (self._offset, self._name)
+
+    def __eq__(self, other):
+        if type(other) != timezone:
+            return False
+        return self._offset == other._offset
+
+    def __hash__(self):
+        return hash(self._offset)
+
+    def __repr__(self):
+        if self is self.utc:
+            return 'datetime.timezone.utc'
+        if self._name is None:
+            return "datetime.timezone(%r)" % (self._offset,)
+        return "datetime.timezone(%r, %r)" % (self._offset, self._name)
+
+    def __str__(self):
+        return self.tzname(None)
+
+    def utcoffset(self, dt):
+        if isinstance(dt, datetime) or dt is None:
+            return self._offset
+        raise TypeError("utcoffset() argument must be a datetime instance or None")
+
+    def tzname(self, dt):
+        if isinstance(dt, datetime) or dt is None:
+            if self._name is None:
+                return self._name_from_offset(self._offset)
+            return self._name
+        raise TypeError("tzname() argument must be a datetime instance or None")
+
+    def dst(self, dt):
+        if isinstance(dt, datetime) or dt is None:
+            return None
+        raise TypeError("dst() argument must be a datetime instance or None")
+
+    def fromutc(self, dt):
+        if isinstance(dt, datetime):
+            if dt.tzinfo is not self:
+                raise ValueError("fromutc: dt.tzinfo is not self")
+            return dt + self._offset
+        raise TypeError("fromutc() argument must be a datetime instance or None")
+
+    @staticmethod
+    def _name_from_offset(delta):
+        if not delta:
+            return 'UTC'
+        if delta < timedelta(0):
+            sign = '-'
+            delta = -delta
+        else:
+            sign = '+'
+        hours, rest = divmod(delta, timedelta(hours=1))
+        minutes = rest // timedelta(minutes=1)
+        return 'UTC{}{:02d}:{:02d}'.format(sign, hours, minutes)
+
+
+timezone._maxoffset = timedelta(hours=23, minutes=59)
+timezone._minoffset = -timezone._maxoffset
+timezone.utc = timezone._create(timedelta(0))
+timezone.min = timezone._create(timezone._minoffset)
+timezone.max = timezone._create(timezone._maxoffset)
+
+timedelta.min = timedelta(-999999999)
+timedelta.max = timedelta(days=999999999, hours=23, minutes=59, seconds=59, microseconds=999999)
+timedelta.resolution = timedelta(microseconds=1)
+date.min = date(1, 1, 1)
+date.max = date(9999, 12, 31)
+date.resolution = timedelta(days=1)
+time.min = time(0, 0, 0)
+time.max = time(23, 59, 59, 999999)
+time.resolution = timedelta(microseconds=1)
+datetime.min = datetime(1, 1, 1)
+datetime.max = datetime(9999, 12, 31, 23, 59, 59, 999999)
+datetime.resolution = timedelta(microseconds=1)
+
+_EPOCH = datetime(1970, 1, 1, tzinfo=timezone.utc)
+
+
+def _strptime_datetime(cls, string, format):
+    import _strptime
+    return _strptime._strptime_datetime(cls, string, format)
+
+
+def _struct_time(dt, hour, minute, second, dstflag):
+    import time as _time
+    yday = dt.toordinal() - date(dt.year, 1, 1).toordinal() + 1
+    return _time.struct_time((dt.year, dt.month, dt.day, hour, minute, second, dt.weekday(), yday, dstflag))
+
+
+def _check_tzname(name):
+    if name is not None and not isinstance(name, str):
+        raise TypeError("tzinfo.tzname() must return None or a string, not '%s'" % type(name).__name__)
+    return name
+
+
+def _wrap_strftime(obj, fmt, timetuple):
+    # %f, %z and %Z are replaced here, the rest is left to time.strftime
+    import time as _time
+    result = []
+    i = 0
+    n = len(fmt)
+    while i < n:
+        ch = fmt[i]
+        i += 1
+        if ch == '%' and i < n:
+            ch = fmt[i]
+            i += 1
+            if ch == 'f':
+                result.append('%06d' % getattr(obj, 'microsecond', 0))
+            elif ch == 'z':
+                offset = obj.utcoffset() if hasattr(obj, 'utcoffset') else None
+                if offset is not None:
+                    sign = '+'
+                    if offset.days < 0:
+                        offset = -offset
+                        sign = '-'
+                    hours, rest = divmod(offset, timedelta(hours=1))
+                    result.append('%c%02d%02d' % (sign, hours, rest // timedelta(minutes=1)))
+            elif ch == 'Z':
+                name = obj.tzname() if hasattr(obj, 'tzname') else None
+                if name is not None:
+                    result.append(name.replace('%', '%%'))
+            else:
+                result.append('%')
+                result.append(ch)
+        else:
+            result.append(ch)
+    return _time.strftime(''.join(result), timetuple)
+
+
+def _format(self, fmt):
+    if not isinstance(fmt, str):
+        raise TypeError("must be str, not %s" % type(fmt).__name__)
+    if len(fmt) != 0:
+        return self.strftime(fmt)
+    return str(self)
+
+
+def _date_timetuple(self):
+    "Return local time tuple compatible with time.localtime()."
+    return _struct_time(self, 0, 0, 0, -1)
+
+
+def _date_strftime(self, fmt):
+    "Format using strftime()."
+    return _wrap_strftime(self, fmt, self.timetuple())
+
+
+def _time_strftime(self, fmt):
+    "Format using strftime().  The date part of the timestamp passed to underlying strftime should not be used."
+    import time as _time
+    timetuple = _time.struct_time((1900, 1, 1, self.hour, self.minute, self.second, 0, 1, -1))
+    return _wrap_strftime(self, fmt, timetuple)
+
+
+def _time_tzname(self):
+    "Return self.tzinfo.tzname(self)."
+    if self.tzinfo is None:
+        return None
+    return _check_tzname(self.tzinfo.tzname(None))
+
+
+def _datetime_tzname(self):
+    "Return self.tzinfo.tzname(self)."
+    if self.tzinfo is None:
+        return None
+    return _check_tzname(self.tzinfo.tzname(self))
+
+
+def _datetime_timetuple(self):
+    "Return local time tuple compatible with time.localtime()."
+    dst = self.dst()
+    if dst is None:
+        dstflag = -1
+    elif dst:
+        dstflag = 1
+    else:
+        dstflag = 0
+    return _struct_time(self, self.hour, self.minute, self.second, dstflag)
+
+
+def _datetime_utctimetuple(self):
+    "Return UTC time tuple compatible with time.gmtime()."
+    offset = self.utcoffset()
+    if offset:
+        self -= offset
+    return _struct_time(self, self.hour, self.minute, self.second, 0)
+
+
+def _local_timezone(self):
+    import time as _time
+    if self.tzinfo is None:
+        ts = self.timestamp()
+    else:
+        ts = (self - _EPOCH) // timedelta(seconds=1)
+    offset = datetime.fromtimestamp(ts) - datetime.utcfromtimestamp(ts)
+    name = getattr(_time.localtime(ts), 'tm_zone', None)
+    if name:
+        return timezone(offset, name)
+    return timezone(offset)
+
+
+def _datetime_astimezone(self, tz=None):
+    "tz -> convert to local time in new timezone tz"
+    if tz is None:
+        tz = _local_timezone(self)
+    elif not isinstance(tz, tzinfo):
+        raise TypeError("tz argument must be an instance of tzinfo")
+    mytz = self.tzinfo
+    if mytz is None:
+        mytz = _local_timezone(self)
+        myoffset = mytz.utcoffset(self)
+    else:
+        myoffset = mytz.utcoffset(self)
+        if myoffset is None:
+            mytz = _local_timezone(self.replace(tzinfo=None))
+            myoffset = mytz.utcoffset(self)
+    if tz is mytz:
+        return self
+    utc = (self - myoffset).replace(tzinfo=tz)
+    return tz.fromutc(utc)
+
+
+date.timetuple = _date_timetuple
+date.strftime = _date_strftime
+date.__format__ = _format
+time.strftime = _time_strftime
+time.__format__ = _format
+time.tzname = _time_tzname
+datetime.timetuple = _datetime_timetuple
+datetime.utctimetuple = _datetime_utctimetuple
+datetime.tzname = _datetime_tzname
+datetime.astimezone = _datetime_astimezone
@@ -0,0 +1,503 @@
+# Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+__doc__ = """C decimal arithmetic module"""
+
+# The Decimal and Context types are implemented in Java, which computes the arithmetic on finite
+# numbers, rounding, comparisons, hashing and formatting. This file adds the signals, the flags
+# and traps of contexts and the context templates. Operations on NaNs and infinities, and the
+# methods that are rarely used, are computed by _pydecimal through _fallback.
+
+
+class DecimalException(ArithmeticError):
+    __module__ = 'decimal'
+
+
+class Clamped(DecimalException):
+    __module__ = 'decimal'
+
+
+class InvalidOperation(DecimalException):
+    __module__ = 'decimal'
+
+
+class ConversionSyntax(InvalidOperation):
+    __module__ = 'decimal'
+
+
+class DivisionByZero(DecimalException, ZeroDivisionError):
+    __module__ = 'decimal'
+
+
+class DivisionImpossible(InvalidOperation):
+    __module__ = 'decimal'
+
+
+class DivisionUndefined(InvalidOperation, ZeroDivisionError):
+    __module__ = 'decimal'
+
+
+class Inexact(DecimalException):
+    __module__ = 'decimal'
+
+
+class InvalidContext(InvalidOperation):
+    __module__ = 'decimal'
+
+
+class Rounded(DecimalException):
+    __module__ = 'decimal'
+
+
+class Subnormal(DecimalException):
+    __module__ = 'decimal'
+
+
+class Overflow(Inexact, Rounded):
+    __module__ = 'decimal'
+
+
+class Underflow(Inexact, Rounded, Subnormal):
+    __module__ = 'decimal'
+
+
+class FloatOperation(DecimalException, TypeError):
+    __module__ = 'decimal'
+
+
+# the signals in the order of their bits in the flags and traps of a Java context
+_SIGNALS = (InvalidOperation, FloatOperation, DivisionByZero, Overflow, Underflow, Subnormal, Inexact, Rounded, Clamped)
+
+
+def _signal_bit(signal):
+    for i, s in enumerate(_SIGNALS):
+        if s is signal:
+            return 1 << i
+    raise KeyError("invalid error flag")
+
+
+def _signals_to_bits(signals):
+    bits = 0
+    if isinstance(signals, (dict, _SignalDict)):
+        for signal in _SIGNALS:
+            if signal not in signals:
+                raise KeyError("invalid signal dict")
+        for signal, value in signals.items():
+            if value:
+                bits |= _signal_bit(signal)
+    else:
+        for signal in signals:
+            bits |= _signal_bit(signal)
+    return bits
+
+
+def _bits_to_names(bits):
+    return ", ".join(s.__name__ for i, s in enumerate(_SIGNALS) if bits & (1 << i))
+
+
+class DecimalTuple(tuple):
+    'DecimalTuple(sign, digits, exponent)'
+
+    __slots__ = ()
+
+    def __new__(cls, sign, digits, exponent):
+        return tuple.__new__(cls, (sign, digits, exponent))
+
+    def __repr__(self):
+        return 'DecimalTuple(sign=%r, digits=%r, exponent=%r)' % self
+
+    def __getnewargs__(self):
+        return tuple(self)
+
+    sign = property(lambda self: self[0])
+    digits = property(lambda self: self[1])
+    exponent = property(lambda self: self[2])
+
+
+class _SignalDict:
+    """The flags or traps of a context, a view on its signal bits."""
+
+    def __init__(self, context, traps):
+        self._context = context
+        self._traps = traps
+
+    def _bits(self):
+        return self._context._traps if self._traps else self._context._flags
+
+    def _set_bits(self, bits):
+        if self._traps:
+            self._context._traps = bits
+        else:
+            self._context._flags = bits
+
+    def __getitem__(self, key):
+        return bool(self._bits() & _signal_bit(key))
+
+    def __setitem__(self, key, value):
+        bit = _signal_bit(key)
+        self._set_bits(self._bits() | bit if value else self._bits() & ~bit)
+
+    def __delitem__(self, key):
+        raise ValueError("signal keys cannot be deleted")
+
+    def __contains__(self, key):
+        return key in _SIGNALS
+
+    def __iter__(self):
+        return iter(_SIGNALS)
+
+    def __len__(self):
+        return len(_SIGNALS)
+
+    def __eq__(self, other):
+        if isinstance(other, (dict, _SignalDict)):
+            return self.copy() == dict(other.items())
+        return NotImplemented
+
+    def keys(self):
+        return list(_SIGNALS)
+
+    def values(self):
+        return [self[s] for s in _SIGNALS]
+
+    def items(self):
+        return [(s, self[s]) for s in _SIGNALS]
+
+    def get(self, key, default=None):
+        return self[key] if key in _SIGNALS else default
+
+    def copy(self):
+        return dict(self.items())
+
+    def __repr__(self):
+        return "{%s}" % ", ".join("<class '%s.%s'>:%s" % (s.__module__, s.__name__, self[s]) for s in _SIGNALS)
+
+
+def _context_init(self, prec=None, rounding=None, Emin=None, Emax=None, capitals=None, clamp=None, flags=None, traps=None):
+    if prec is not None:
+        self.prec = prec
+    if rounding is not None:
+        self.rounding = rounding
+    if Emin is not None:
+        self.Emin = Emin
+    if Emax is not None:
+        self.Emax = Emax
+    if capitals is not None:
+        self.capitals = capitals
+    if clamp is not None:
+        self.clamp = clamp
+    if flags is not None:
+        self._flags = _signals_to_bits(flags)
+    if traps is not None:
+        self._traps = _signals_to_bits(traps)
+
+
+def _context_repr(self):
+    return ("Context(prec=%d, rounding=%s, Emin=%d, Emax=%d, capitals=%d, clamp=%d, flags=[%s], traps=[%s])" %
+            (self.prec, self.rounding, self.Emin, self.Emax, self.capitals, self.clamp, _bits_to_names(self._flags),
+             _bits_to_names(self._traps)))
+
+
+def _context_reduce(self):
+    flags = [s for i, s in enumerate(_SIGNALS) if self._flags & (1 << i)]
+    traps = [s for i, s in enumerate(_SIGNALS) if self._traps & (1 << i)]
+    return (self.__class__, (self.prec, self.rounding, self.Emin, self.Emax, self.capitals, self.clamp, flags, traps))
+
+
+def _context_clear_flags(self):
+    self._flags = 0
+
+
+def _context_clear_traps(self):
+    self._traps = 0
+
+
+def _set_flags(self, value):
+    self._flags = _signals_to_bits(value)
+
+
+def _set_traps(self, value):
+    self._traps = _signals_to_bits(value)
+
+
+Context.__init__ = _context_init
+Context.__repr__ = _context_repr
+Context.__reduce__ = _context_reduce
+Context.__copy__ = Context.copy
+Context.clear_flags = _context_clear_flags
+Context.clear_traps = _context_clear_traps
+Context.flags = property(lambda self: _SignalDict(self, False), _set_flags)
+Context.traps = property(lambda self: _SignalDict(self, True), _set_traps)
+
+
+def _convert(value):
+    if isinstance(value, Decimal):
+        return value
+    if isinstance(value, int):
+        return Decimal(value)
+    raise TypeError("conversion from %s to Decimal is not supported" % type(value).__name__)
+
+
+def _context_arg(context):
+    if context is None:
+        return getcontext()
+    if not isinstance(context, Context):
+        raise TypeError("optional argument must be a context")
+    return context
+
+
+def _to_py(value, _pydecimal):
+    if isinstance(value, Decimal):
+        return _pydecimal.Decimal(value.as_tuple())
+    return value
+
+
+def _from_py(value, _pydecimal):
+    if isinstance(value, _pydecimal.Decimal):
+        return Decimal(str(value))
+    if isinstance(value, tuple):
+        return tuple(_from_py(v, _pydecimal) for v in value)
+    return value
+
+
+def _fallback(name, context, value, *args):
+    """Calls the method 'name' of the _pydecimal version of 'value' in a _pydecimal context with
+    the same settings as 'context', and signals the conditions it raised in 'context'."""
+    import _pydecimal
+    pycontext = _pydecimal.Context(prec=context.prec, rounding=context.rounding, Emin=context.Emin, Emax=context.Emax,
+                                   capitals=context.capitals, clamp=context.clamp, flags=[], traps=[])
+    result = getattr(_to_py(value, _pydecimal), name)(*[_to_py(a, _pydecimal) for a in args], context=pycontext)
+    bits = 0
+    for i, signal in enumerate(_SIGNALS):
+        if pycontext.flags[getattr(_pydecimal, signal.__name__)]:
+            bits |= 1 << i
+    result = _from_py(result, _pydecimal)
+    context._signal(bits)
+    return result
+
+
+def _tuple_to_string(value):
+    if isinstance(value, list):
+        value = tuple(value)
+    if len(value) != 3:
+        raise ValueError("argument must be a sequence of length 3")
+    sign, digits, exponent = value
+    if not isinstance(sign, int) or sign not in (0, 1):
+        raise ValueError("sign must be an integer with the value 0 or 1")
+    sign = '-' if sign else ''
+    if exponent == 'F':
+        return sign + 'Infinity'
+    if not isinstance(digits, (tuple, list)):
+        raise ValueError("coefficient must be a tuple of digits")
+    for d in digits:
+        if not isinstance(d, int) or not 0 <= d <= 9:
+            raise ValueError("coefficient must be a tuple of digits")
+    coefficient = ''.join(str(d) for d in digits).lstrip('0')
+    if exponent == 'n' or exponent == 'N':
+        return sign + ('NaN' if exponent == 'n' else 'sNaN') + coefficient
+    if not isinstance(exponent, int):
+        raise ValueError("exponent must be an integer")
+    return '%s%sE%d' % (sign, coefficient or '0', exponent)
+
+
+def _decimal_method(name):
+    def method(self, *args, context=None):
+        return _fallback(name, _context_arg(context), self, *args)
+    method.__name__ = name
+    method.__qualname__ = 'Decimal.' + name
+    return method
+
+
+for _name in ('exp', 'ln', 'log10', 'logb', 'sqrt', 'next_minus', 'next_plus', 'next_toward', 'number_class',
+              'compare_signal', 'compare_total', 'compare_total_mag', 'fma', 'max', 'max_mag', 'min', 'min_mag',
+              'remainder_near', 'rotate', 'scaleb', 'shift', 'logical_and', 'logical_or', 'logical_xor',
+              'logical_invert'):
+    setattr(Decimal, _name, _decimal_method(_name))
+
+
+def _decimal_pow(self, other, modulo=None):
+    if not isinstance(other, (Decimal, int)) or modulo is not None and not isinstance(modulo, (Decimal, int)):
+        return NotImplemented
+    return _fallback('__pow__', getcontext(), self, other, modulo)
+
+
+def _decimal_rpow(self, other):
+    if not isinstance(other, (Decimal, int)):
+        return NotImplemented
+    return _fallback('__rpow__', getcontext(), self, other)
+
+
+def _decimal_as_integer_ratio(self):
+    if self.is_nan():
+        raise ValueError("cannot convert NaN to integer ratio")
+    if self.is_infinite():
+        raise OverflowError("cannot convert Infinity to integer ratio")
+    sign, digits, exponent = self.as_tuple()
+    n = int(''.join(str(d) for d in digits))
+    if sign:
+        n = -n
+    if exponent >= 0:
+        return n * 10 ** exponent, 1
+    d = 10 ** -exponent
+    a, b = n, d
+    while b:
+        a, b = b, a % b
+    a = abs(a)
+    return n // a, d // a
+
+
+def _decimal_identity(self, *args):
+    return self
+
+
+Decimal.__pow__ = _decimal_pow
+Decimal.__rpow__ = _decimal_rpow
+Decimal.as_integer_ratio = _decimal_as_integer_ratio
+Decimal.__complex__ = lambda self: complex(float(self))
+Decimal.__copy__ = _decimal_identity
+Decimal.__deepcopy__ = _decimal_identity
+Decimal.canonical = _decimal_identity
+Decimal.conjugate = _decimal_identity
+Decimal.is_canonical = lambda self: True
+Decimal.radix = lambda self: Decimal(10)
+Decimal.real = property(_decimal_identity)
+Decimal.imag = property(lambda self: Decimal(0))
+
+
+def _context_unary(name):
+    def method(self, a):
+        return getattr(_convert(a), name)(context=self)
+    method.__name__ = name
+    method.__qualname__ = 'Context.' + name
+    return method
+
+
+def _context_unary_no_context(name):
+    def method(self, a):
+        return getattr(_convert(a), name)()
+    method.__name__ = name
+    method.__qualname__ = 'Context.' + name
+    return method
+
+
+def _context_binary(name):
+    def method(self, a, b):
+        return getattr(_convert(a), name)(_convert(b), context=self)
+    method.__name__ = name
+    method.__qualname__ = 'Context.' + name
+    return method
+
+
+for _name in ('exp', 'ln', 'log10', 'logb', 'sqrt', 'next_minus', 'next_plus', 'number_class', 'logical_invert',
+              'normalize', 'to_eng_string', 'to_integral', 'to_integral_exact', 'to_integral_value', 'is_normal',
+              'is_subnormal'):
+    setattr(Context, _name, _context_unary(_name))
+
+for _name in ('canonical', 'copy_abs', 'copy_negate', 'is_canonical', 'is_finite', 'is_infinite', 'is_nan', 'is_qnan',
+              'is_signed', 'is_snan', 'is_zero'):
+    setattr(Context, _name, _context_unary_no_context(_name))
+
+for _name in ('compare', 'compare_signal', 'compare_total', 'compare_total_mag', 'copy_sign', 'logical_and',
+              'logical_or', 'logical_xor', 'max', 'max_mag', 'min', 'min_mag', 'next_toward', 'quantize',
+              'remainder_near', 'rotate', 'same_quantum', 'scaleb', 'shift'):
+    setattr(Context, _name, _context_binary(_name))
+
+del _name
+
+
+def _context_fma(self, a, b, c):
+    return _convert(a).fma(_convert(b), _convert(c), context=self)
+
+
+def _context_power(self, a, b, modulo=None):
+    return _fallback('__pow__', self, _convert(a), _convert(b), None if modulo is None else _convert(modulo))
+
+
+def _context_to_sci_string(self, a):
+    s = str(_convert(a))
+    return s.replace('e', 'E') if self.capitals else s.replace('E', 'e')
+
+
+def _context_create_decimal(self, num="0"):
+    return Decimal(num, self)._fix(self)
+
+
+def _context_create_decimal_from_float(self, f):
+    return Decimal.from_float(f)._fix(self)
+
+
+Context.fma = _context_fma
+Context.power = _context_power
+Context.to_sci_string = _context_to_sci_string
+Context.create_decimal = _context_create_decimal
+Context.create_decimal_from_float = _context_create_decimal_from_float
+Context.copy_decimal = lambda self, a: _convert(a)
+Context.radix = lambda self: Decimal(10)
+Context._apply = lambda self, a: _convert(a)._fix(self)
+
+
+class _ContextManager(object):
+    """Context manager class to support localcontext()."""
+
+    def __init__(self, new_context):
+        self.new_context = new_context.copy()
+
+    def __enter__(self):
+        self.saved_context = getcontext()
+        setcontext(self.new_context)
+        return self.new_context
+
+    def __exit__(self, t, v, tb):
+        setcontext(self.saved_context)
+
+
+def localcontext(ctx=None):
+    """Return a context manager for a copy of the supplied context, or of the current context if
+    none is given."""
+    if ctx is None:
+        ctx = getcontext()
+    return _ContextManager(ctx)
+
+
+DefaultContext = Context()
+
+BasicContext = Context(prec=9, rounding=ROUND_HALF_UP, traps=[DivisionByZero, Overflow, InvalidOperation, Clamped, Underflow],
+                       flags=[])
+
+ExtendedContext = Context(prec=9, rounding=ROUND_HALF_EVEN, traps=[], flags=[])
@@ -548,6 +548,7 @@ sys.__stderr__ = sys.stderr
 # ----------------------------------------------------------------------------------------------------------------------
 #
 # following definitions: patched in the __builtins_patches__ module
+# (BufferedReader, BufferedWriter, and TextIOWrapper are builtin classes)
 #
 # ----------------------------------------------------------------------------------------------------------------------
 class _BufferedIOBase(_IOBase):
@@ -566,14 +567,6 @@ class StringIO(_TextIOBase):
     pass
 
 
-class BufferedReader(_BufferedIOBase):
-    pass
-
-
-class BufferedWriter(_BufferedIOBase):
-    pass
-
-
 class BufferedRWPair(_BufferedIOBase):
     pass
 
@@ -586,10 +579,6 @@ class IncrementalNewlineDecoder(object):
     pass
 
 
-class TextIOWrapper(_TextIOBase):
-    pass
-
-
 def open(*args, **kwargs):
     raise NotImplementedError
 
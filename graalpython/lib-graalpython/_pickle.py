@@ -0,0 +1,171 @@
+# Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+
+class PickleError(Exception):
+    pass
+
+
+class PicklingError(PickleError):
+    pass
+
+
+class UnpicklingError(PickleError):
+    pass
+
+
+# The helpers below do the parts of pickling that are about looking up names in modules and in the
+# registries of 'copyreg'. The Pickler and Unpickler themselves are implemented in Java.
+
+def _getattribute(obj, name):
+    parent = None
+    for subpath in name.split('.'):
+        if subpath == '<locals>':
+            raise AttributeError("Can't get local attribute {!r} on {!r}".format(name, obj))
+        try:
+            parent = obj
+            obj = getattr(obj, subpath)
+        except AttributeError:
+            raise AttributeError("Can't get attribute {!r} on {!r}".format(name, obj)) from None
+    return obj, parent
+
+
+def _whichmodule(obj, name):
+    module_name = getattr(obj, '__module__', None)
+    if module_name is not None:
+        return module_name
+    import sys
+    for module_name, module in list(sys.modules.items()):
+        if module_name == '__main__' or module is None:
+            continue
+        try:
+            if _getattribute(module, name)[0] is obj:
+                return module_name
+        except AttributeError:
+            pass
+    return '__main__'
+
+
+def _resolve_global(obj, name, proto, fix_imports):
+    """Returns the tuple (module_name, name, extension_code, parent) to pickle 'obj' by reference.
+    If the extension code is not None, it is written instead of the name. If the parent is not
+    None, the object is reduced to getattr(parent, name)."""
+    if name is None:
+        name = getattr(obj, '__qualname__', None)
+        if name is None:
+            name = obj.__name__
+    module_name = _whichmodule(obj, name)
+    try:
+        __import__(module_name, level=0)
+        import sys
+        module = sys.modules[module_name]
+        obj2, parent = _getattribute(module, name)
+    except (ImportError, KeyError, AttributeError):
+        raise PicklingError("Can't pickle %r: it's not found as %s.%s" % (obj, module_name, name)) from None
+    if obj2 is not obj:
+        raise PicklingError("Can't pickle %r: it's not the same object as %s.%s" % (obj, module_name, name))
+
+    if proto >= 2:
+        import copyreg
+        code = copyreg._extension_registry.get((module_name, name))
+        if code:
+            return module_name, name, code, None
+
+    lastname = name.rpartition('.')[2]
+    if parent is module:
+        name = lastname
+    elif proto < 4:
+        return module_name, lastname, None, parent
+
+    if proto < 3:
+        if fix_imports:
+            import _compat_pickle
+            r_name_mapping = _compat_pickle.REVERSE_NAME_MAPPING
+            r_import_mapping = _compat_pickle.REVERSE_IMPORT_MAPPING
+            if (module_name, name) in r_name_mapping:
+                module_name, name = r_name_mapping[(module_name, name)]
+            elif module_name in r_import_mapping:
+                module_name = r_import_mapping[module_name]
+        try:
+            module_name.encode('ascii')
+            name.encode('ascii')
+        except UnicodeEncodeError:
+            raise PicklingError("can't pickle global identifier '%s.%s' using pickle protocol %i" % (module_name, name, proto)) from None
+    return module_name, name, None, None
+
+
+def _find_class(module, name, proto, fix_imports):
+    if proto < 3 and fix_imports:
+        import _compat_pickle
+        if (module, name) in _compat_pickle.NAME_MAPPING:
+            module, name = _compat_pickle.NAME_MAPPING[(module, name)]
+        elif module in _compat_pickle.IMPORT_MAPPING:
+            module = _compat_pickle.IMPORT_MAPPING[module]
+    __import__(module, level=0)
+    import sys
+    if proto >= 4:
+        return _getattribute(sys.modules[module], name)[0]
+    return getattr(sys.modules[module], name)
+
+
+def _get_extension(unpickler, code):
+    import copyreg
+    nil = []
+    obj = copyreg._extension_cache.get(code, nil)
+    if obj is not nil:
+        return obj
+    key = copyreg._inverted_registry.get(code)
+    if not key:
+        if code <= 0:
+            raise UnpicklingError("EXT specifies code <= 0")
+        raise ValueError("unregistered extension code %d" % code)
+    obj = unpickler.find_class(*key)
+    copyreg._extension_cache[code] = obj
+    return obj
+
+
+def _dispatch_table():
+    import copyreg
+    return copyreg.dispatch_table
+
+
+def _newobj_ex_partial(cls, args, kwargs):
+    # protocols below 4 have no NEWOBJ_EX, so the keyword arguments are bound in a partial
+    import functools
+    return functools.partial(cls.__new__, cls, *args, **kwargs)
@@ -48,13 +48,28 @@ SOCK_RDM = 4
 SOCK_SEQPACKET = 5
 
 IPPROTO_TCP = 6
+IPPROTO_UDP = 17
 TCP_NODELAY = 1
 
+SOL_SOCKET = 1
+SO_REUSEADDR = 2
+SO_TYPE = 3
+SO_ERROR = 4
+SO_BROADCAST = 6
+SO_SNDBUF = 7
+SO_RCVBUF = 8
+SO_KEEPALIVE = 9
+
+SHUT_RD = 0
+SHUT_WR = 1
+SHUT_RDWR = 2
+
+SOMAXCONN = 128
+
 has_ipv6 = False  #: TODO implement me
 error = OSError
 
-class timeout(OSError):
-    pass
+timeout = TimeoutError
 
 __default_timeout = None
 
@@ -68,10 +83,5 @@ def setdefaulttimeout(timeout):
     __default_timeout = timeout
 
 
-try:
-    _sock = socket()
-    SocketType = type(_sock)
-    del _sock
-except:
-    pass
+SocketType = socket
 
@@ -780,9 +780,21 @@ class SourceLoader(_LoaderBasics):
                         return _compile_bytecode(bytes_data, name=fullname,
                                                  bytecode_path=bytecode_path,
                                                  source_path=source_path)
+        # Truffle change: code compiled by the source file loader is cached by the
+        # language per path and validated by the file's mtime and size like a .pyc
+        # file; a changed file replaces the entry of its path
+        shared = (source_mtime is not None and type(self) is SourceFileLoader and
+                  source_path.startswith(path_sep))
+        if shared:
+            code_object = _imp.cached_code(source_path, st['mtime'], st['size'])
+            if code_object is not None:
+                _bootstrap._verbose_message('code object from cache for {}', source_path)
+                return code_object
         source_bytes = self.get_data(source_path)
         code_object = self.source_to_code(source_bytes, source_path)
         _bootstrap._verbose_message('code object from {}', source_path)
+        if shared:
+            _imp.cache_code(source_path, st['mtime'], st['size'], code_object)
         if (not sys.dont_write_bytecode and bytecode_path is not None and
                 source_mtime is not None):
             data = _code_to_bytecode(code_object, source_mtime,
@@ -1209,10 +1221,13 @@ class FileFinder:
         self._path_mtime = -1
         self._path_cache = set()
         self._relaxed_path_cache = set()
+        # Truffle change: whether the listing shared between contexts may be used
+        self._use_shared_listing = True
 
     def invalidate_caches(self):
         """Invalidate the directory mtime."""
         self._path_mtime = -1
+        self._use_shared_listing = False
 
     find_module = _find_module_shim
 
@@ -1245,7 +1260,8 @@ class FileFinder:
         except OSError:
             mtime = -1
         if mtime != self._path_mtime:
-            self._fill_cache()
+            # Truffle change: pass the mtime to share directory listings between contexts
+            self._fill_cache(mtime)
             self._path_mtime = mtime
         # tail_module keeps the original casing, for __file__ and friends
         if _relax_case():
@@ -1281,15 +1297,26 @@ class FileFinder:
             return spec
         return None
 
-    def _fill_cache(self):
+    def _fill_cache(self, mtime=-1):
         """Fill the cache of potential modules and packages for this directory."""
         path = self.path
-        try:
-            contents = _os.listdir(path or _os.getcwd())
-        except (FileNotFoundError, PermissionError, NotADirectoryError):
-            # Directory has either been removed, turned into a file, or made
-            # unreadable.
-            contents = []
+        # Truffle change: listings of absolute directories are cached by the
+        # language and reused as long as the directory's mtime is unchanged
+        shared = mtime != -1 and path.startswith(path_sep)
+        contents = None
+        if shared and self._use_shared_listing:
+            contents = _imp.cached_listdir(path, mtime)
+        self._use_shared_listing = True
+        if contents is None:
+            try:
+                contents = _os.listdir(path or _os.getcwd())
+            except (FileNotFoundError, PermissionError, NotADirectoryError):
+                # Directory has either been removed, turned into a file, or made
+                # unreadable.
+                contents = []
+            else:
+                if shared:
+                    _imp.cache_listdir(path, mtime, contents)
         # We store two cached versions, to handle runtime changes of the
         # PYTHONCASEOK environment variable.
         if not sys.platform.startswith('win'):
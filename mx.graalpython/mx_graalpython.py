@@ -247,6 +247,22 @@ def python_svm(args):
     return svm_image
 
 
+def python_jmh(args):
+    """run the JMH benchmarks of the interpreter's nodes and storages
+
+    Arguments are passed to JMH. Unless given, results are written as JSON to
+    jmh-result.json so that runs can be compared."""
+    check_vm()
+    jmh_args = list(args)
+    if "-rf" not in jmh_args:
+        jmh_args += ["-rf", "json"]
+    if "-rff" not in jmh_args:
+        jmh_args += ["-rff", "jmh-result.json"]
+    vm_args = ["-Dpython.home=%s" % os.path.join(SUITE.dir, "graalpython")]
+    vm_args += mx.get_runtime_jvm_args(["GRAALPYTHON_BENCHMARKS"], jdk=get_jdk())
+    return mx.run_java(vm_args + ["org.openjdk.jmh.Main"] + jmh_args, jdk=get_jdk())
+
+
 def gate_unittests(args=[], subdir=""):
     _graalpytest_driver = "graalpython/com.oracle.graal.python.test/src/graalpytest.py"
     _test_project = "graalpython/com.oracle.graal.python.test/"
@@ -881,6 +897,7 @@ mx.update_commands(SUITE, {
     'python-checkcopyrights': [python_checkcopyrights, 'Make sure code files have copyright notices'],
     'python-build-svm': [python_build_svm, 'build svm image if it is outdated'],
     'python-svm': [python_svm, 'run python svm image (building it if it is outdated'],
+    'python-jmh': [python_jmh, '[JMH args]'],
     'punittest': [punittest, ''],
     'python3-unittests': [python3_unittests, 'run the cPython stdlib unittests'],
     'python-unittests': [python3_unittests, 'run the cPython stdlib unittests'],
@@ -200,6 +200,21 @@ suite = {
             "testProject": True,
         },
 
+        "com.oracle.graal.python.benchmarks": {
+            "subDir": "graalpython",
+            "sourceDirs": ["src"],
+            "dependencies": [
+                "com.oracle.graal.python",
+                "sdk:GRAAL_SDK",
+                "mx:JMH_1_21",
+            ],
+            "checkstyle": "com.oracle.graal.python",
+            "javaCompliance": "1.8",
+            "annotationProcessors": ["mx:JMH_1_21", "truffle:TRUFFLE_DSL_PROCESSOR"],
+            "workingSets": "Truffle,Python",
+            "testProject": True,
+        },
+
         "com.oracle.graal.python.tck": {
             "subDir": "graalpython",
             "sourceDirs": ["src"],
@@ -322,6 +337,19 @@ suite = {
             "testDistribution": True,
         },
 
+        "GRAALPYTHON_BENCHMARKS": {
+            "description": "JMH benchmarks of the interpreter's nodes and storages",
+            "dependencies": [
+                "com.oracle.graal.python.benchmarks",
+            ],
+            "exclude": ["mx:JMH_1_21"],
+            "distDependencies": [
+                "GRAALPYTHON",
+            ],
+            "testDistribution": True,
+            "maven": False,
+        },
+
         "GRAALPYTHON_TCK": {
             "description": "unit tests",
             "dependencies": [